@@ -1339,7 +1339,7 @@ public final class Base64
    */
   @Nonnull
   @ReturnsMutableObject ("design")
-  private static byte [] _getAlphabet (final int options)
+  static byte [] _getAlphabet (final int options)
   {
     if ((options & URL_SAFE) == URL_SAFE)
       return _URL_SAFE_ALPHABET;
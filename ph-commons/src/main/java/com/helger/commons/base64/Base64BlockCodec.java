@@ -0,0 +1,656 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.base64;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.ArrayHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A block oriented Base64 encoder and decoder. In contrast to the
+ * {@link Base64OutputStream} and {@link Base64InputStream} that work byte by
+ * byte, this class converts complete 3 byte and 4 character groups with a
+ * single table lookup per sextet and writes directly into the target arrays.
+ * The output is identical to the one of {@link Base64} for the same options.
+ * Supported options are {@link Base64#URL_SAFE}, {@link Base64#ORDERED} and
+ * {@link Base64#DO_BREAK_LINES}. GZip is not supported.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@Immutable
+public final class Base64BlockCodec
+{
+  /** Number of raw bytes that make up one full line of encoded output */
+  private static final int LINE_GROUPS = Base64.MAX_LINE_LENGTH / 4;
+  private static final int LINE_BYTES = LINE_GROUPS * 3;
+  /** Number of raw bytes encoded at once when writing to a stream */
+  private static final int ENCODE_CHUNK_BYTES = LINE_BYTES * 64;
+  /** Maximum number of decoded bytes written at once to a stream */
+  private static final int DECODE_CHUNK_BYTES = 3 * 4 * 1024;
+
+  private static final Base64BlockCodec DEFAULT_INSTANCE = new Base64BlockCodec (Base64.NO_OPTIONS);
+
+  private final int m_nOptions;
+  private final boolean m_bBreakLines;
+  private final byte [] m_aAlphabet;
+  private final byte [] m_aDecodabet;
+
+  /**
+   * Constructor
+   *
+   * @param nOptions
+   *        The options to use. May be a combination of {@link Base64#URL_SAFE},
+   *        {@link Base64#ORDERED} and {@link Base64#DO_BREAK_LINES}. The
+   *        {@link Base64#DO_BREAK_LINES} option is only relevant for encoding.
+   */
+  public Base64BlockCodec (final int nOptions)
+  {
+    ValueEnforcer.isTrue ((nOptions & Base64.GZIP) == 0, "GZip option is not supported");
+    m_nOptions = nOptions;
+    m_bBreakLines = (nOptions & Base64.DO_BREAK_LINES) != 0;
+    m_aAlphabet = Base64._getAlphabet (nOptions);
+    m_aDecodabet = Base64._getDecodabet (nOptions);
+  }
+
+  /**
+   * @return The instance using the standard alphabet and no line breaks. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public static Base64BlockCodec getDefaultInstance ()
+  {
+    return DEFAULT_INSTANCE;
+  }
+
+  /**
+   * @return The options as provided in the constructor.
+   */
+  public int getOptions ()
+  {
+    return m_nOptions;
+  }
+
+  /**
+   * @return <code>true</code> if encoded lines are broken after
+   *         {@link Base64#MAX_LINE_LENGTH} characters.
+   */
+  public boolean isBreakLines ()
+  {
+    return m_bBreakLines;
+  }
+
+  /**
+   * Get the exact number of bytes created when encoding the provided number of
+   * bytes.
+   *
+   * @param nDecodedLen
+   *        Number of raw bytes. Must be &ge; 0.
+   * @return The number of encoded bytes, including line breaks if enabled.
+   */
+  @Nonnegative
+  public int getEncodedLength (@Nonnegative final int nDecodedLen)
+  {
+    ValueEnforcer.isGE0 (nDecodedLen, "DecodedLen");
+    final int nFullGroups = nDecodedLen / 3;
+    int ret = (nFullGroups + (nDecodedLen % 3 > 0 ? 1 : 0)) * 4;
+    if (m_bBreakLines)
+      ret += nFullGroups / LINE_GROUPS;
+    return ret;
+  }
+
+  /**
+   * Get the maximum number of bytes that may result when decoding the provided
+   * number of encoded bytes.
+   *
+   * @param nEncodedLen
+   *        Number of encoded bytes. Must be &ge; 0.
+   * @return The upper limit of decoded bytes.
+   */
+  @Nonnegative
+  public int getMaxDecodedLength (@Nonnegative final int nEncodedLen)
+  {
+    ValueEnforcer.isGE0 (nEncodedLen, "EncodedLen");
+    return (int) (nEncodedLen * 3L / 4);
+  }
+
+  /**
+   * Encode the full 3 byte groups starting at the provided offset. Line breaks
+   * are inserted after each group that fills up a line.
+   *
+   * @param aSrc
+   *        Source array
+   * @param nSrcOfs
+   *        Source offset
+   * @param nGroups
+   *        Number of 3 byte groups to encode
+   * @param aDst
+   *        Destination array
+   * @param nDstOfs
+   *        Destination offset
+   * @param nLineLength
+   *        The current line length in characters. Must be a multiple of 4 and
+   *        &lt; {@link Base64#MAX_LINE_LENGTH}.
+   * @return The number of bytes written
+   */
+  @Nonnegative
+  int encodeGroups (@Nonnull final byte [] aSrc,
+                    final int nSrcOfs,
+                    final int nGroups,
+                    @Nonnull final byte [] aDst,
+                    final int nDstOfs,
+                    final int nLineLength)
+  {
+    final byte [] aAlphabet = m_aAlphabet;
+    int s = nSrcOfs;
+    int d = nDstOfs;
+    int nGroupsLeft = nGroups;
+    int nLineGroupsLeft = m_bBreakLines ? LINE_GROUPS - nLineLength / 4 : Integer.MAX_VALUE;
+    while (nGroupsLeft > 0)
+    {
+      final int nCount = Math.min (nGroupsLeft, nLineGroupsLeft);
+      final int nSrcEnd = s + nCount * 3;
+      // Use loop local indices - this helps the JIT
+      for (int s0 = s, d0 = d; s0 < nSrcEnd; s0 += 3, d0 += 4)
+      {
+        final int n = (aSrc[s0] & 0xff) << 16 | (aSrc[s0 + 1] & 0xff) << 8 | (aSrc[s0 + 2] & 0xff);
+        aDst[d0] = aAlphabet[n >>> 18];
+        aDst[d0 + 1] = aAlphabet[(n >>> 12) & 0x3f];
+        aDst[d0 + 2] = aAlphabet[(n >>> 6) & 0x3f];
+        aDst[d0 + 3] = aAlphabet[n & 0x3f];
+      }
+      s = nSrcEnd;
+      d += nCount * 4;
+      nGroupsLeft -= nCount;
+      nLineGroupsLeft -= nCount;
+      if (nLineGroupsLeft == 0)
+      {
+        aDst[d++] = Base64.NEW_LINE;
+        nLineGroupsLeft = LINE_GROUPS;
+      }
+    }
+    return d - nDstOfs;
+  }
+
+  private int _encodeTail (@Nonnull final byte [] aSrc,
+                           final int nSrcOfs,
+                           final int nSigBytes,
+                           @Nonnull final byte [] aDst,
+                           final int nDstOfs)
+  {
+    if (nSigBytes == 0)
+      return 0;
+
+    final int n = ((aSrc[nSrcOfs] & 0xff) << 16) | (nSigBytes > 1 ? (aSrc[nSrcOfs + 1] & 0xff) << 8 : 0);
+    aDst[nDstOfs] = m_aAlphabet[n >>> 18];
+    aDst[nDstOfs + 1] = m_aAlphabet[(n >>> 12) & 0x3f];
+    aDst[nDstOfs + 2] = nSigBytes > 1 ? m_aAlphabet[(n >>> 6) & 0x3f] : Base64.EQUALS_SIGN;
+    aDst[nDstOfs + 3] = Base64.EQUALS_SIGN;
+    return 4;
+  }
+
+  /**
+   * Encode the provided bytes into the provided destination array.
+   *
+   * @param aSrc
+   *        Source array. May not be <code>null</code>.
+   * @param nSrcOfs
+   *        Source offset. Must be &ge; 0.
+   * @param nSrcLen
+   *        Number of bytes to encode. Must be &ge; 0.
+   * @param aDst
+   *        Destination array. May not be <code>null</code>. Must have room for
+   *        at least {@link #getEncodedLength(int)} bytes starting at the
+   *        destination offset.
+   * @param nDstOfs
+   *        Destination offset. Must be &ge; 0.
+   * @return The number of bytes written.
+   */
+  @Nonnegative
+  public int encode (@Nonnull final byte [] aSrc,
+                     @Nonnegative final int nSrcOfs,
+                     @Nonnegative final int nSrcLen,
+                     @Nonnull final byte [] aDst,
+                     @Nonnegative final int nDstOfs)
+  {
+    ValueEnforcer.isArrayOfsLen (aSrc, nSrcOfs, nSrcLen);
+    ValueEnforcer.isArrayOfsLen (aDst, nDstOfs, getEncodedLength (nSrcLen));
+
+    final int nGroups = nSrcLen / 3;
+    final int nWritten = encodeGroups (aSrc, nSrcOfs, nGroups, aDst, nDstOfs, 0);
+    return nWritten + _encodeTail (aSrc, nSrcOfs + nGroups * 3, nSrcLen % 3, aDst, nDstOfs + nWritten);
+  }
+
+  /**
+   * Encode the provided bytes into a new array.
+   *
+   * @param aSrc
+   *        Source array. May not be <code>null</code>.
+   * @return The encoded bytes. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public byte [] getEncoded (@Nonnull final byte [] aSrc)
+  {
+    return getEncoded (aSrc, 0, aSrc.length);
+  }
+
+  /**
+   * Encode the provided bytes into a new array.
+   *
+   * @param aSrc
+   *        Source array. May not be <code>null</code>.
+   * @param nSrcOfs
+   *        Source offset. Must be &ge; 0.
+   * @param nSrcLen
+   *        Number of bytes to encode. Must be &ge; 0.
+   * @return The encoded bytes. Never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public byte [] getEncoded (@Nonnull final byte [] aSrc, @Nonnegative final int nSrcOfs, @Nonnegative final int nSrcLen)
+  {
+    final byte [] ret = new byte [getEncodedLength (nSrcLen)];
+    encode (aSrc, nSrcOfs, nSrcLen, ret, 0);
+    return ret;
+  }
+
+  /**
+   * Encode all remaining bytes of the source buffer into the destination
+   * buffer. The positions of both buffers are advanced accordingly. Heap
+   * buffers are processed in place, direct buffers are processed in chunks.
+   *
+   * @param aSrc
+   *        Source buffer. May not be <code>null</code>.
+   * @param aDst
+   *        Destination buffer. May not be <code>null</code>.
+   * @throws BufferOverflowException
+   *         If the destination buffer has less than
+   *         {@link #getEncodedLength(int)} bytes remaining.
+   */
+  public void encode (@Nonnull final ByteBuffer aSrc, @Nonnull final ByteBuffer aDst)
+  {
+    ValueEnforcer.notNull (aSrc, "Source");
+    ValueEnforcer.notNull (aDst, "Destination");
+
+    final int nSrcLen = aSrc.remaining ();
+    final int nEncodedLen = getEncodedLength (nSrcLen);
+    if (aDst.remaining () < nEncodedLen)
+      throw new BufferOverflowException ();
+
+    if (aSrc.hasArray () && aDst.hasArray ())
+    {
+      encode (aSrc.array (), aSrc.arrayOffset () + aSrc.position (), nSrcLen, aDst.array (), aDst.arrayOffset () + aDst.position ());
+      aSrc.position (aSrc.limit ());
+      aDst.position (aDst.position () + nEncodedLen);
+    }
+    else
+    {
+      final byte [] aSrcChunk = new byte [Math.min (nSrcLen, ENCODE_CHUNK_BYTES)];
+      final byte [] aDstChunk = new byte [getEncodedLength (aSrcChunk.length)];
+      while (aSrc.hasRemaining ())
+      {
+        final int nChunkLen = Math.min (aSrc.remaining (), aSrcChunk.length);
+        aSrc.get (aSrcChunk, 0, nChunkLen);
+        aDst.put (aDstChunk, 0, encode (aSrcChunk, 0, nChunkLen, aDstChunk, 0));
+      }
+    }
+  }
+
+  /**
+   * Encode the provided bytes and write them to the provided output stream.
+   * The data is encoded in chunks so that the output stream is only invoked
+   * once per chunk.
+   *
+   * @param aSrc
+   *        Source array. May not be <code>null</code>.
+   * @param nSrcOfs
+   *        Source offset. Must be &ge; 0.
+   * @param nSrcLen
+   *        Number of bytes to encode. Must be &ge; 0.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails
+   */
+  public void encode (@Nonnull final byte [] aSrc,
+                      @Nonnegative final int nSrcOfs,
+                      @Nonnegative final int nSrcLen,
+                      @Nonnull @WillNotClose final OutputStream aOS) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aSrc, nSrcOfs, nSrcLen);
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    if (nSrcLen == 0)
+      return;
+
+    // The chunk size is a multiple of the bytes per line, so each chunk
+    // starts at the beginning of a line
+    final byte [] aDstChunk = new byte [getEncodedLength (Math.min (nSrcLen, ENCODE_CHUNK_BYTES))];
+    int nOfs = nSrcOfs;
+    int nLeft = nSrcLen;
+    while (nLeft > 0)
+    {
+      final int nChunkLen = Math.min (nLeft, ENCODE_CHUNK_BYTES);
+      aOS.write (aDstChunk, 0, encode (aSrc, nOfs, nChunkLen, aDstChunk, 0));
+      nOfs += nChunkLen;
+      nLeft -= nChunkLen;
+    }
+  }
+
+  private static int _decodeQuad (@Nonnull final byte [] aQuad,
+                                  @Nonnull final byte [] aDecodabet,
+                                  @Nonnull final byte [] aDst,
+                                  final int nDstOfs)
+  {
+    // Same semantics as Base64._decode4to3
+    final int n = ((aDecodabet[aQuad[0] & 0xff] & 0xff) << 18) | ((aDecodabet[aQuad[1] & 0xff] & 0xff) << 12);
+    if (aQuad[2] == Base64.EQUALS_SIGN)
+    {
+      aDst[nDstOfs] = (byte) (n >>> 16);
+      return 1;
+    }
+
+    final int n2 = n | ((aDecodabet[aQuad[2] & 0xff] & 0xff) << 6);
+    if (aQuad[3] == Base64.EQUALS_SIGN)
+    {
+      aDst[nDstOfs] = (byte) (n2 >>> 16);
+      aDst[nDstOfs + 1] = (byte) (n2 >>> 8);
+      return 2;
+    }
+
+    final int n3 = n2 | (aDecodabet[aQuad[3] & 0xff] & 0xff);
+    aDst[nDstOfs] = (byte) (n3 >> 16);
+    aDst[nDstOfs + 1] = (byte) (n3 >> 8);
+    aDst[nDstOfs + 2] = (byte) n3;
+    return 3;
+  }
+
+  /**
+   * Decode as many groups as fit into the destination. Decoding only stops at
+   * group boundaries, after the first padded group or at the end of the
+   * source.
+   *
+   * @return the number of decoded bytes
+   */
+  private int _decode (@Nonnull final byte [] aSrc,
+                       final int nSrcOfs,
+                       final int nSrcLen,
+                       @Nonnull final byte [] aDst,
+                       final int nDstOfs,
+                       final int nDstLen,
+                       @Nullable final int [] aSrcEndPos,
+                       final boolean bRequireCompleteQuads) throws IOException
+  {
+    final byte [] aDecodabet = m_aDecodabet;
+    final byte [] aQuad = new byte [4];
+    final int nSrcEnd = nSrcOfs + nSrcLen;
+    final int nLastFastOfs = nSrcEnd - 4;
+    final int nLastDstOfs = nDstOfs + nDstLen - 3;
+    int nQuadPos = 0;
+    int s = nSrcOfs;
+    int d = nDstOfs;
+    while (s < nSrcEnd)
+    {
+      if (nQuadPos == 0)
+      {
+        // Fast path: 4 characters of the alphabet. Whitespaces, equals signs
+        // and invalid characters all have negative decodabet values
+        while (s <= nLastFastOfs && d <= nLastDstOfs)
+        {
+          final int c0 = aDecodabet[aSrc[s] & 0xff];
+          final int c1 = aDecodabet[aSrc[s + 1] & 0xff];
+          final int c2 = aDecodabet[aSrc[s + 2] & 0xff];
+          final int c3 = aDecodabet[aSrc[s + 3] & 0xff];
+          if ((c0 | c1 | c2 | c3) < 0)
+            break;
+          final int n = (c0 << 18) | (c1 << 12) | (c2 << 6) | c3;
+          aDst[d] = (byte) (n >> 16);
+          aDst[d + 1] = (byte) (n >> 8);
+          aDst[d + 2] = (byte) n;
+          s += 4;
+          d += 3;
+        }
+        if (s >= nSrcEnd || d > nLastDstOfs)
+          break;
+      }
+
+      // Slow path: a single character
+      final byte b = aSrc[s];
+      final byte nDecoded = aDecodabet[b & 0xff];
+      if (nDecoded < Base64.WHITE_SPACE_ENC)
+        throw new IOException ("Bad Base64 input character decimal " + (b & 0xff) + " in array position " + s);
+      s++;
+
+      if (nDecoded > Base64.WHITE_SPACE_ENC)
+      {
+        aQuad[nQuadPos++] = b;
+        if (nQuadPos == 4)
+        {
+          d += _decodeQuad (aQuad, aDecodabet, aDst, d);
+          nQuadPos = 0;
+
+          // Padding marks the end of the data
+          if (b == Base64.EQUALS_SIGN)
+          {
+            s = nSrcEnd;
+            break;
+          }
+        }
+      }
+    }
+
+    if (bRequireCompleteQuads && nQuadPos > 0)
+      throw new IOException ("Improperly padded Base64 input.");
+    if (aSrcEndPos != null)
+      aSrcEndPos[0] = s;
+    return d - nDstOfs;
+  }
+
+  /**
+   * Decode the provided Base64 encoded bytes into the provided destination
+   * array. Whitespaces are ignored, decoding stops after the first padded
+   * group. Incomplete trailing groups are ignored. This is the same semantics
+   * as {@link Base64#decode(byte[], int, int, int)}.
+   *
+   * @param aSrc
+   *        Source array. May not be <code>null</code>.
+   * @param nSrcOfs
+   *        Source offset. Must be &ge; 0.
+   * @param nSrcLen
+   *        Number of bytes to decode. Must be &ge; 0.
+   * @param aDst
+   *        Destination array. May not be <code>null</code>. Must have room for
+   *        at least {@link #getMaxDecodedLength(int)} bytes starting at the
+   *        destination offset.
+   * @param nDstOfs
+   *        Destination offset. Must be &ge; 0.
+   * @return The number of bytes written.
+   * @throws IOException
+   *         If an invalid character is contained in the source
+   */
+  @Nonnegative
+  public int decode (@Nonnull final byte [] aSrc,
+                     @Nonnegative final int nSrcOfs,
+                     @Nonnegative final int nSrcLen,
+                     @Nonnull final byte [] aDst,
+                     @Nonnegative final int nDstOfs) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aSrc, nSrcOfs, nSrcLen);
+    ValueEnforcer.isArrayOfsLen (aDst, nDstOfs, getMaxDecodedLength (nSrcLen));
+    return _decode (aSrc, nSrcOfs, nSrcLen, aDst, nDstOfs, aDst.length - nDstOfs, null, false);
+  }
+
+  /**
+   * Decode the provided Base64 encoded bytes into a new array.
+   *
+   * @param aSrc
+   *        Source array. May not be <code>null</code>.
+   * @return The decoded bytes. Never <code>null</code>.
+   * @throws IOException
+   *         If an invalid character is contained in the source
+   * @see #decode(byte[], int, int, byte[], int)
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public byte [] getDecoded (@Nonnull final byte [] aSrc) throws IOException
+  {
+    return getDecoded (aSrc, 0, aSrc.length);
+  }
+
+  /**
+   * Decode the provided Base64 encoded bytes into a new array.
+   *
+   * @param aSrc
+   *        Source array. May not be <code>null</code>.
+   * @param nSrcOfs
+   *        Source offset. Must be &ge; 0.
+   * @param nSrcLen
+   *        Number of bytes to decode. Must be 0 or &ge; 4.
+   * @return The decoded bytes. Never <code>null</code>.
+   * @throws IOException
+   *         If an invalid character is contained in the source
+   * @see #decode(byte[], int, int, byte[], int)
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public byte [] getDecoded (@Nonnull final byte [] aSrc,
+                             @Nonnegative final int nSrcOfs,
+                             @Nonnegative final int nSrcLen) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aSrc, nSrcOfs, nSrcLen);
+    if (nSrcLen == 0)
+      return ArrayHelper.EMPTY_BYTE_ARRAY;
+    ValueEnforcer.isTrue (nSrcLen >= 4,
+                          () -> "Base64-encoded string must have at least four characters, but length specified was " +
+                                nSrcLen);
+
+    final byte [] ret = new byte [getMaxDecodedLength (nSrcLen)];
+    final int nDecoded = _decode (aSrc, nSrcOfs, nSrcLen, ret, 0, ret.length, null, false);
+    return nDecoded == ret.length ? ret : Arrays.copyOf (ret, nDecoded);
+  }
+
+  /**
+   * Decode all remaining bytes of the source buffer into the destination
+   * buffer. The positions of both buffers are advanced accordingly. Heap
+   * buffers are processed in place, direct buffers are copied in one bulk
+   * operation.
+   *
+   * @param aSrc
+   *        Source buffer. May not be <code>null</code>.
+   * @param aDst
+   *        Destination buffer. May not be <code>null</code>.
+   * @throws IOException
+   *         If an invalid character is contained in the source
+   * @throws BufferOverflowException
+   *         If the destination buffer has less than
+   *         {@link #getMaxDecodedLength(int)} bytes remaining.
+   * @see #decode(byte[], int, int, byte[], int)
+   */
+  public void decode (@Nonnull final ByteBuffer aSrc, @Nonnull final ByteBuffer aDst) throws IOException
+  {
+    ValueEnforcer.notNull (aSrc, "Source");
+    ValueEnforcer.notNull (aDst, "Destination");
+
+    final int nSrcLen = aSrc.remaining ();
+    final int nMaxDecodedLen = getMaxDecodedLength (nSrcLen);
+    if (aDst.remaining () < nMaxDecodedLen)
+      throw new BufferOverflowException ();
+
+    if (aSrc.hasArray () && aDst.hasArray ())
+    {
+      final int nDecoded = _decode (aSrc.array (),
+                                    aSrc.arrayOffset () + aSrc.position (),
+                                    nSrcLen,
+                                    aDst.array (),
+                                    aDst.arrayOffset () + aDst.position (),
+                                    nMaxDecodedLen,
+                                    null,
+                                    false);
+      aSrc.position (aSrc.limit ());
+      aDst.position (aDst.position () + nDecoded);
+    }
+    else
+    {
+      final byte [] aSrcCopy = new byte [nSrcLen];
+      aSrc.get (aSrcCopy);
+      final byte [] aDstCopy = new byte [nMaxDecodedLen];
+      aDst.put (aDstCopy, 0, _decode (aSrcCopy, 0, nSrcLen, aDstCopy, 0, nMaxDecodedLen, null, false));
+    }
+  }
+
+  /**
+   * Decode the provided Base64 encoded bytes and write them to the provided
+   * output stream. The data is decoded in chunks so that the output stream is
+   * only invoked once per chunk. In contrast to
+   * {@link #decode(byte[], int, int, byte[], int)} incomplete trailing groups
+   * are considered an error, as in {@link Base64InputStream}.
+   *
+   * @param aSrc
+   *        Source array. May not be <code>null</code>.
+   * @param nSrcOfs
+   *        Source offset. Must be &ge; 0.
+   * @param nSrcLen
+   *        Number of bytes to decode. Must be &ge; 0.
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>.
+   * @throws IOException
+   *         If an invalid character is contained in the source, if the input
+   *         is not properly padded or if writing fails
+   */
+  public void decode (@Nonnull final byte [] aSrc,
+                      @Nonnegative final int nSrcOfs,
+                      @Nonnegative final int nSrcLen,
+                      @Nonnull @WillNotClose final OutputStream aOS) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aSrc, nSrcOfs, nSrcLen);
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    if (nSrcLen == 0)
+      return;
+
+    // Decoding stops at group boundaries whenever the chunk is full
+    final byte [] aDstChunk = new byte [Math.max (3, Math.min (getMaxDecodedLength (nSrcLen), DECODE_CHUNK_BYTES))];
+    final int [] aSrcPos = new int [] { nSrcOfs };
+    final int nSrcEnd = nSrcOfs + nSrcLen;
+    while (aSrcPos[0] < nSrcEnd)
+    {
+      final int nSrcPos = aSrcPos[0];
+      final int nDecoded = _decode (aSrc, nSrcPos, nSrcEnd - nSrcPos, aDstChunk, 0, aDstChunk.length, aSrcPos, true);
+      aOS.write (aDstChunk, 0, nDecoded);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Options", m_nOptions).getToString ();
+  }
+}
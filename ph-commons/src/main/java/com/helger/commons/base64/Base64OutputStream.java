@@ -36,6 +36,9 @@ import com.helger.commons.io.stream.WrappedOutputStream;
 @NotThreadSafe
 public class Base64OutputStream extends WrappedOutputStream
 {
+  // Number of groups encoded at once in bulk writes
+  private static final int BLOCK_GROUPS = 1024;
+
   private final boolean m_bEncode;
   private int m_nPosition;
   private byte [] m_aBuffer;
@@ -49,6 +52,9 @@ public class Base64OutputStream extends WrappedOutputStream
   private final int m_nOptions;
   // Local copies to avoid extra method calls
   private final byte [] m_aDecodabet;
+  // For encoding complete groups at once
+  private final Base64BlockCodec m_aBlockCodec;
+  private byte [] m_aBlockBuffer;
 
   /**
    * Constructs a {@link Base64OutputStream} in ENCODE mode.
@@ -97,6 +103,7 @@ public class Base64OutputStream extends WrappedOutputStream
     m_aB4 = new byte [4];
     m_nOptions = nOptions;
     m_aDecodabet = Base64._getDecodabet (nOptions);
+    m_aBlockCodec = new Base64BlockCodec (nOptions & (Base64.URL_SAFE | Base64.ORDERED | Base64.DO_BREAK_LINES));
   }
 
   /**
@@ -160,9 +167,34 @@ public class Base64OutputStream extends WrappedOutputStream
     }
   }
 
+  private void _writeEncodedGroups (@Nonnull final byte [] aBytes,
+                                   @Nonnegative final int nOfs,
+                                   @Nonnegative final int nGroups) throws IOException
+  {
+    if (m_aBlockBuffer == null)
+      m_aBlockBuffer = new byte [m_aBlockCodec.getEncodedLength (BLOCK_GROUPS * 3) + 1];
+
+    int nSrcOfs = nOfs;
+    int nGroupsLeft = nGroups;
+    while (nGroupsLeft > 0)
+    {
+      final int nCount = Math.min (nGroupsLeft, BLOCK_GROUPS);
+      final int nWritten = m_aBlockCodec.encodeGroups (aBytes, nSrcOfs, nCount, m_aBlockBuffer, 0, m_nLineLength);
+      out.write (m_aBlockBuffer, 0, nWritten);
+      if (m_bBreakLines)
+        m_nLineLength = (m_nLineLength + nCount * 4) % Base64.MAX_LINE_LENGTH;
+      else
+        m_nLineLength += nCount * 4;
+      nSrcOfs += nCount * 3;
+      nGroupsLeft -= nCount;
+    }
+  }
+
   /**
-   * Calls {@link #write(int)} repeatedly until <var>len</var> bytes are
-   * written.
+   * Writes the bytes to the output stream after converting to/from Base64
+   * notation. When encoding, complete 3 byte groups are encoded as a block.
+   * Otherwise {@link #write(int)} is called repeatedly until <var>len</var>
+   * bytes are written.
    *
    * @param aBytes
    *        array from which to read bytes
@@ -184,8 +216,29 @@ public class Base64OutputStream extends WrappedOutputStream
       return;
     }
 
-    for (int i = 0; i < nLen; i++)
-      write (aBytes[nOfs + i]);
+    if (m_bEncode)
+    {
+      int nIndex = nOfs;
+      final int nEnd = nOfs + nLen;
+
+      // Complete a pending group first
+      while (m_nPosition > 0 && nIndex < nEnd)
+        write (aBytes[nIndex++]);
+
+      final int nGroups = (nEnd - nIndex) / 3;
+      if (nGroups > 0)
+      {
+        _writeEncodedGroups (aBytes, nIndex, nGroups);
+        nIndex += nGroups * 3;
+      }
+
+      // Buffer the rest
+      while (nIndex < nEnd)
+        write (aBytes[nIndex++]);
+    }
+    else
+      for (int i = 0; i < nLen; i++)
+        write (aBytes[nOfs + i]);
   }
 
   /**
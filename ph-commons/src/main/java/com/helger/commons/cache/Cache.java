@@ -16,7 +16,11 @@
  */
 package com.helger.commons.cache;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -47,7 +51,19 @@ import com.helger.commons.statistics.StatisticsManager;
 import com.helger.commons.string.ToStringGenerator;
 
 /**
- * Abstract base implementation of {@link ICache}
+ * Abstract base implementation of {@link ICache}.<br>
+ * By default all values are stored in a map with soft references, guarded by
+ * a single read-write lock. This means that the value provider is invoked
+ * while the write lock is held. If the cache is created in concurrent mode
+ * (see {@link #Cache(IFunction, int, String, boolean)}) a lock-free
+ * implementation is used instead, that loads each key at most once and does
+ * not block readers of other keys while a value is loaded.<br>
+ * Time based policies (expire-after-write, expire-after-access and
+ * refresh-after-write) need per-entry timestamps, which only the concurrent
+ * engine keeps. Therefore they are only supported in concurrent mode (see
+ * {@link #isTimeBasedPolicySupported()}). In the default mode the respective
+ * setters throw an {@link UnsupportedOperationException} if a policy should be
+ * enabled.
  *
  * @author Philip Helger
  * @param <KEYTYPE>
@@ -61,6 +77,9 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
   /** The prefix to be used for statistics elements */
   public static final String STATISTICS_PREFIX = "cache:";
 
+  /** By default the concurrent engine is not used */
+  public static final boolean DEFAULT_CONCURRENT = false;
+
   private static final Logger s_aLogger = LoggerFactory.getLogger (Cache.class);
 
   protected final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
@@ -70,12 +89,46 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
   private final IMutableStatisticsHandlerCache m_aCacheAccessStats;
   private final IMutableStatisticsHandlerCounter m_aCacheRemoveStats;
   private final IMutableStatisticsHandlerCounter m_aCacheClearStats;
+  private final IMutableStatisticsHandlerCounter m_aCacheEvictStats;
+  private final IMutableStatisticsHandlerCounter m_aCacheRefreshStats;
+  private volatile Executor m_aExecutor = ForkJoinPool.commonPool ();
+  // Only present in concurrent mode
+  private final ConcurrentCacheEngine <KEYTYPE, VALUETYPE> m_aConcurrentEngine;
   @CodingStyleguideUnaware
   private Map <KEYTYPE, VALUETYPE> m_aCache;
 
   public Cache (@Nonnull final IFunction <KEYTYPE, VALUETYPE> aCacheValueProvider,
                 final int nMaxSize,
                 @Nonnull @Nonempty final String sCacheName)
+  {
+    this (aCacheValueProvider, nMaxSize, sCacheName, DEFAULT_CONCURRENT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aCacheValueProvider
+   *        The value provider to be invoked for every cache miss. May not be
+   *        <code>null</code>.
+   * @param nMaxSize
+   *        The maximum number of entries in the cache. Values &le; 0 indicate
+   *        that the cache size is not limited at all.
+   * @param sCacheName
+   *        The name of the cache. Used for the statistics. May neither be
+   *        <code>null</code> nor empty.
+   * @param bConcurrent
+   *        <code>true</code> to use the concurrent engine, in which each key is
+   *        loaded at most once and reads are not blocked by the loading of
+   *        other keys. In concurrent mode values are kept as strong references
+   *        and a size limited cache uses a segmented LRU eviction.
+   *        <code>false</code> to use the default engine with soft references
+   *        and a single read-write lock.
+   * @since 9.0.0
+   */
+  public Cache (@Nonnull final IFunction <KEYTYPE, VALUETYPE> aCacheValueProvider,
+                final int nMaxSize,
+                @Nonnull @Nonempty final String sCacheName,
+                final boolean bConcurrent)
   {
     m_aCacheValueProvider = ValueEnforcer.notNull (aCacheValueProvider, "CacheValueProvider");
     m_nMaxSize = nMaxSize;
@@ -83,6 +136,14 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
     m_aCacheAccessStats = StatisticsManager.getCacheHandler (STATISTICS_PREFIX + sCacheName + "$access");
     m_aCacheRemoveStats = StatisticsManager.getCounterHandler (STATISTICS_PREFIX + sCacheName + "$remove");
     m_aCacheClearStats = StatisticsManager.getCounterHandler (STATISTICS_PREFIX + sCacheName + "$clear");
+    m_aCacheEvictStats = StatisticsManager.getCounterHandler (STATISTICS_PREFIX + sCacheName + "$evict");
+    m_aCacheRefreshStats = StatisticsManager.getCounterHandler (STATISTICS_PREFIX + sCacheName + "$refresh");
+    m_aConcurrentEngine = bConcurrent ? new ConcurrentCacheEngine <> (aCacheValueProvider,
+                                                                      nMaxSize,
+                                                                      m_aCacheAccessStats,
+                                                                      m_aCacheEvictStats,
+                                                                      m_aCacheRefreshStats)
+                                      : null;
   }
 
   /**
@@ -107,6 +168,198 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
     return m_nMaxSize > 0;
   }
 
+  /**
+   * @return <code>true</code> if this cache uses the concurrent engine,
+   *         <code>false</code> if it uses the default engine.
+   * @since 9.0.0
+   */
+  public final boolean isConcurrent ()
+  {
+    // No need to lock, as it is final
+    return m_aConcurrentEngine != null;
+  }
+
+  /**
+   * {@inheritDoc} This is only the case in concurrent mode.
+   *
+   * @see #isConcurrent()
+   */
+  public final boolean isTimeBasedPolicySupported ()
+  {
+    return m_aConcurrentEngine != null;
+  }
+
+  /**
+   * Check if the passed duration may be set.
+   *
+   * @param nNanos
+   *        The duration in nano seconds. 0 means disabled.
+   * @return <code>false</code> if the value should be ignored, because it
+   *         disables a policy that is not supported anyway.
+   * @throws UnsupportedOperationException
+   *         If a policy should be enabled that is not supported
+   */
+  private boolean _checkTimeBasedPolicy (final long nNanos)
+  {
+    if (m_aConcurrentEngine != null)
+      return true;
+    if (nNanos > 0)
+      throw new UnsupportedOperationException ("Cache '" +
+                                               m_sName +
+                                               "' does not support time based policies, because it is not in concurrent mode");
+    return false;
+  }
+
+  @Nullable
+  private static Duration _getDuration (final long nNanos)
+  {
+    return nNanos > 0 ? Duration.ofNanos (nNanos) : null;
+  }
+
+  private static long _getNanos (@Nullable final Duration aDuration)
+  {
+    if (aDuration == null)
+      return 0;
+    ValueEnforcer.isFalse (aDuration.isNegative (), "Duration may not be negative");
+    return aDuration.toNanos ();
+  }
+
+  /**
+   * @return The duration after which an entry expires after it was written.
+   *         <code>null</code> if this expiration policy is not active.
+   * @since 9.0.0
+   */
+  @Nullable
+  public final Duration getExpireAfterWrite ()
+  {
+    return m_aConcurrentEngine == null ? null : _getDuration (m_aConcurrentEngine.getExpireAfterWriteNanos ());
+  }
+
+  /**
+   * Set the duration after which an entry expires after it was written or
+   * refreshed. Enabling this policy is only supported in concurrent mode (see
+   * {@link #isTimeBasedPolicySupported()}).
+   *
+   * @param aDuration
+   *        The duration to use. May be <code>null</code> or zero to disable
+   *        this expiration policy.
+   * @return this for chaining
+   * @throws UnsupportedOperationException
+   *         If a duration &gt; 0 is passed and this cache is not in concurrent
+   *         mode
+   * @since 9.0.0
+   */
+  @Nonnull
+  public final Cache <KEYTYPE, VALUETYPE> setExpireAfterWrite (@Nullable final Duration aDuration)
+  {
+    final long nNanos = _getNanos (aDuration);
+    if (_checkTimeBasedPolicy (nNanos))
+      m_aConcurrentEngine.setExpireAfterWriteNanos (nNanos);
+    return this;
+  }
+
+  /**
+   * @return The duration after which an entry expires after it was last
+   *         accessed. <code>null</code> if this expiration policy is not
+   *         active.
+   * @since 9.0.0
+   */
+  @Nullable
+  public final Duration getExpireAfterAccess ()
+  {
+    return m_aConcurrentEngine == null ? null : _getDuration (m_aConcurrentEngine.getExpireAfterAccessNanos ());
+  }
+
+  /**
+   * Set the duration after which an entry expires after it was last accessed.
+   * Enabling this policy is only supported in concurrent mode (see
+   * {@link #isTimeBasedPolicySupported()}).
+   *
+   * @param aDuration
+   *        The duration to use. May be <code>null</code> or zero to disable
+   *        this expiration policy.
+   * @return this for chaining
+   * @throws UnsupportedOperationException
+   *         If a duration &gt; 0 is passed and this cache is not in concurrent
+   *         mode
+   * @since 9.0.0
+   */
+  @Nonnull
+  public final Cache <KEYTYPE, VALUETYPE> setExpireAfterAccess (@Nullable final Duration aDuration)
+  {
+    final long nNanos = _getNanos (aDuration);
+    if (_checkTimeBasedPolicy (nNanos))
+      m_aConcurrentEngine.setExpireAfterAccessNanos (nNanos);
+    return this;
+  }
+
+  /**
+   * @return The duration after which an entry is refreshed after it was
+   *         written. <code>null</code> if refreshing is not active.
+   * @since 9.0.0
+   */
+  @Nullable
+  public final Duration getRefreshAfterWrite ()
+  {
+    return m_aConcurrentEngine == null ? null : _getDuration (m_aConcurrentEngine.getRefreshAfterWriteNanos ());
+  }
+
+  /**
+   * Set the duration after which an entry is refreshed after it was written.
+   * The refresh is triggered by the first access after the duration elapsed
+   * and is performed on the executor (see {@link #setExecutor(Executor)}).
+   * Until the refresh is finished, the old value is returned, so callers never
+   * block on a reload. If the refresh fails, the old value is kept. Enabling
+   * refreshing is only supported in concurrent mode (see
+   * {@link #isTimeBasedPolicySupported()}).
+   *
+   * @param aDuration
+   *        The duration to use. May be <code>null</code> or zero to disable
+   *        refreshing.
+   * @return this for chaining
+   * @throws UnsupportedOperationException
+   *         If a duration &gt; 0 is passed and this cache is not in concurrent
+   *         mode
+   * @since 9.0.0
+   */
+  @Nonnull
+  public final Cache <KEYTYPE, VALUETYPE> setRefreshAfterWrite (@Nullable final Duration aDuration)
+  {
+    final long nNanos = _getNanos (aDuration);
+    if (_checkTimeBasedPolicy (nNanos))
+      m_aConcurrentEngine.setRefreshAfterWriteNanos (nNanos);
+    return this;
+  }
+
+  /**
+   * @return The executor used for asynchronous loading and refreshing. Never
+   *         <code>null</code>. Defaults to the common fork join pool.
+   * @since 9.0.0
+   */
+  @Nonnull
+  public final Executor getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * Set the executor used for asynchronous loading and refreshing.
+   *
+   * @param aExecutor
+   *        The executor to use. May not be <code>null</code>.
+   * @return this for chaining
+   * @since 9.0.0
+   */
+  @Nonnull
+  public final Cache <KEYTYPE, VALUETYPE> setExecutor (@Nonnull final Executor aExecutor)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    m_aExecutor = aExecutor;
+    if (m_aConcurrentEngine != null)
+      m_aConcurrentEngine.setExecutor (aExecutor);
+    return this;
+  }
+
   @Nonnull
   @Nonempty
   public final String getName ()
@@ -116,7 +369,10 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
 
   /**
    * Create a new cache map. This is the internal map that is used to store the
-   * items.
+   * items. This method is not called in concurrent mode. The default
+   * implementation counts entries that are removed because the maximum size is
+   * exceeded in the eviction statistics. Entries whose soft references were
+   * cleared by the garbage collector are not counted.
    *
    * @return Never <code>null</code>.
    */
@@ -126,7 +382,18 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
   @CodingStyleguideUnaware
   protected ICommonsMap <KEYTYPE, VALUETYPE> createCache ()
   {
-    return hasMaxSize () ? new SoftLinkedHashMap <> (m_nMaxSize) : new SoftHashMap <> ();
+    if (!hasMaxSize ())
+      return new SoftHashMap <> ();
+
+    return new SoftLinkedHashMap <KEYTYPE, VALUETYPE> (m_nMaxSize)
+    {
+      @Override
+      protected void onRemoveEldestEntry (@Nonnegative final int nSize,
+                                          @Nonnull final Map.Entry <KEYTYPE, VALUETYPE> aEldest)
+      {
+        m_aCacheEvictStats.increment ();
+      }
+    };
   }
 
   /**
@@ -143,6 +410,12 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
     ValueEnforcer.notNull (aKey, "cacheKey");
     ValueEnforcer.notNull (aValue, "cacheValue");
 
+    if (m_aConcurrentEngine != null)
+    {
+      m_aConcurrentEngine.put (aKey, aValue);
+      return;
+    }
+
     // try again in write lock
     if (m_aCache == null)
     {
@@ -167,13 +440,19 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
     ValueEnforcer.notNull (aKey, "cacheKey");
     ValueEnforcer.notNull (aValue, "cacheValue");
 
-    m_aRWLock.writeLocked ( () -> putInCacheNotLocked (aKey, aValue));
+    if (m_aConcurrentEngine != null)
+      m_aConcurrentEngine.put (aKey, aValue);
+    else
+      m_aRWLock.writeLocked ( () -> putInCacheNotLocked (aKey, aValue));
   }
 
   @MustBeLocked (ELockType.READ)
   @Nullable
   protected final VALUETYPE getFromCacheNoStatsNotLocked (@Nullable final KEYTYPE aKey)
   {
+    if (m_aConcurrentEngine != null)
+      return m_aConcurrentEngine.getIfPresent (aKey);
+
     // Since null is not allowed as value, we don't need to check with
     // containsKey before get!
     return m_aCache == null ? null : m_aCache.get (aKey);
@@ -183,6 +462,9 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
   @OverridingMethodsMustInvokeSuper
   protected final VALUETYPE getFromCacheNoStats (@Nullable final KEYTYPE aKey)
   {
+    if (m_aConcurrentEngine != null)
+      return m_aConcurrentEngine.getIfPresent (aKey);
+
     return m_aRWLock.readLocked ( () -> getFromCacheNoStatsNotLocked (aKey));
   }
 
@@ -190,6 +472,12 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
   @OverridingMethodsMustInvokeSuper
   public VALUETYPE getFromCache (final KEYTYPE aKey)
   {
+    if (m_aConcurrentEngine != null)
+    {
+      // Hit and miss statistics are handled by the engine
+      return m_aConcurrentEngine.getOrLoad (aKey);
+    }
+
     VALUETYPE aValue = getFromCacheNoStats (aKey);
     if (aValue == null)
     {
@@ -227,10 +515,41 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
     return aValue;
   }
 
+  /**
+   * Get the cached value associated with the passed key asynchronously. In
+   * concurrent mode the value is loaded on the executor (see
+   * {@link #getExecutor()}) and shares the in-flight load of the key with
+   * concurrent callers of {@link #getFromCache(Object)}. In the default mode
+   * {@link #getFromCache(Object)} is invoked on the executor.
+   *
+   * @param aKey
+   *        The key to be looked up. May not be <code>null</code> in concurrent
+   *        mode.
+   * @return A future that is completed with the cached value, or completed
+   *         exceptionally if loading failed. Never <code>null</code>.
+   * @since 9.0.0
+   */
+  @Nonnull
+  public CompletableFuture <VALUETYPE> getFromCacheAsync (final KEYTYPE aKey)
+  {
+    if (m_aConcurrentEngine != null)
+      return m_aConcurrentEngine.getOrLoadAsync (aKey);
+
+    return CompletableFuture.supplyAsync ( () -> getFromCache (aKey), m_aExecutor);
+  }
+
   @Nonnull
   @OverridingMethodsMustInvokeSuper
   public EChange removeFromCache (final KEYTYPE aKey)
   {
+    if (m_aConcurrentEngine != null)
+    {
+      if (!m_aConcurrentEngine.remove (aKey))
+        return EChange.UNCHANGED;
+      m_aCacheRemoveStats.increment ();
+      return EChange.CHANGED;
+    }
+
     return m_aRWLock.writeLocked ( () -> {
       if (m_aCache == null || m_aCache.remove (aKey) == null)
         return EChange.UNCHANGED;
@@ -243,18 +562,27 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
   @OverridingMethodsMustInvokeSuper
   public EChange clearCache ()
   {
-    m_aRWLock.writeLock ().lock ();
-    try
+    if (m_aConcurrentEngine != null)
     {
-      if (m_aCache == null || m_aCache.isEmpty ())
+      if (!m_aConcurrentEngine.clear ())
         return EChange.UNCHANGED;
-
-      m_aCache.clear ();
       m_aCacheClearStats.increment ();
     }
-    finally
+    else
     {
-      m_aRWLock.writeLock ().unlock ();
+      m_aRWLock.writeLock ().lock ();
+      try
+      {
+        if (m_aCache == null || m_aCache.isEmpty ())
+          return EChange.UNCHANGED;
+
+        m_aCache.clear ();
+        m_aCacheClearStats.increment ();
+      }
+      finally
+      {
+        m_aRWLock.writeLock ().unlock ();
+      }
     }
 
     if (s_aLogger.isDebugEnabled ())
@@ -262,19 +590,41 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
     return EChange.CHANGED;
   }
 
+  /**
+   * Remove all entries that expired according to the expire-after-write and
+   * expire-after-access policies. Expired entries are also removed lazily upon
+   * access, so calling this method is only needed to release memory early.
+   *
+   * @return {@link EChange#CHANGED} if at least one entry was removed.
+   * @since 9.0.0
+   */
+  @Nonnull
+  public EChange evictExpired ()
+  {
+    if (m_aConcurrentEngine == null)
+      return EChange.UNCHANGED;
+    return EChange.valueOf (m_aConcurrentEngine.evictExpired () > 0);
+  }
+
   @Nonnegative
   public int getSize ()
   {
+    if (m_aConcurrentEngine != null)
+      return m_aConcurrentEngine.size ();
     return m_aRWLock.readLocked ( () -> CollectionHelper.getSize (m_aCache));
   }
 
   public boolean isEmpty ()
   {
+    if (m_aConcurrentEngine != null)
+      return m_aConcurrentEngine.size () == 0;
     return m_aRWLock.readLocked ( () -> CollectionHelper.isEmpty (m_aCache));
   }
 
   public boolean isNotEmpty ()
   {
+    if (m_aConcurrentEngine != null)
+      return m_aConcurrentEngine.size () > 0;
     return m_aRWLock.readLocked ( () -> CollectionHelper.isNotEmpty (m_aCache));
   }
 
@@ -285,6 +635,7 @@ public class Cache <KEYTYPE, VALUETYPE> implements IMutableCache <KEYTYPE, VALUE
                                        .append ("Name", m_sName)
                                        .append ("MaxSize", m_nMaxSize)
                                        .append ("Cache", m_aCache)
+                                       .appendIfNotNull ("ConcurrentEngine", m_aConcurrentEngine)
                                        .getToString ();
   }
 }
@@ -0,0 +1,755 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ELockType;
+import com.helger.commons.annotation.MustBeLocked;
+import com.helger.commons.concurrent.SimpleLock;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCache;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * The concurrent storage engine used by {@link Cache} if it was created in
+ * concurrent mode. Compared to the default engine it has the following
+ * properties:
+ * <ul>
+ * <li>Reads are lock-free and are based on a {@link ConcurrentHashMap}.</li>
+ * <li>Each key is loaded at most once: concurrent requests for a key that is
+ * currently loaded wait for the in-flight {@link CompletableFuture} of that key
+ * only. Requests for other keys are not blocked.</li>
+ * <li>If a maximum size is defined, eviction uses a segmented LRU policy
+ * (probation and protected segment), so that entries that were accessed more
+ * than once survive a scan of one-time keys. Access recording on the read path
+ * uses <code>tryLock</code> and is skipped under contention, so a read never
+ * waits for the policy lock.</li>
+ * <li>Entries may expire a certain time after they were written or last
+ * accessed. Expired entries are removed lazily upon access or explicitly via
+ * {@link #evictExpired()}.</li>
+ * <li>Entries may be refreshed a certain time after they were written. The
+ * refresh is performed on the configured {@link Executor} and the old value is
+ * returned until the new value is available.</li>
+ * </ul>
+ * Values are kept as strong references.
+ *
+ * @author Philip Helger
+ * @param <KEYTYPE>
+ *        The cache key type
+ * @param <VALUETYPE>
+ *        The cache value type
+ */
+@ThreadSafe
+final class ConcurrentCacheEngine <KEYTYPE, VALUETYPE>
+{
+  /** The percentage of the max size that is reserved for the protected segment */
+  private static final int PROTECTED_PERCENTAGE = 80;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (ConcurrentCacheEngine.class);
+
+  /**
+   * A single cache entry, consisting of the in-flight or completed future and
+   * the linkage in the segmented LRU lists.
+   *
+   * @param <K>
+   *        key type
+   * @param <V>
+   *        value type
+   */
+  private static final class Entry <K, V>
+  {
+    private final K m_aKey;
+    private final CompletableFuture <V> m_aFuture;
+    private final AtomicBoolean m_aRefreshing = new AtomicBoolean (false);
+    // Set before the future is completed
+    private volatile long m_nWriteNanos;
+    private volatile long m_nAccessNanos;
+    // Policy fields - all guarded by the policy lock
+    private Entry <K, V> m_aPrev;
+    private Entry <K, V> m_aNext;
+    private boolean m_bLinked;
+    private boolean m_bProtected;
+
+    Entry (@Nonnull final K aKey, @Nonnull final CompletableFuture <V> aFuture)
+    {
+      m_aKey = aKey;
+      m_aFuture = aFuture;
+    }
+
+    @Nullable
+    V getValueIfDone ()
+    {
+      // Only consider successfully completed futures
+      if (m_aFuture.isDone () && !m_aFuture.isCompletedExceptionally ())
+        return m_aFuture.getNow (null);
+      return null;
+    }
+  }
+
+  /**
+   * A doubly linked list with head = LRU and tail = MRU.
+   *
+   * @param <K>
+   *        key type
+   * @param <V>
+   *        value type
+   */
+  private static final class Segment <K, V>
+  {
+    private Entry <K, V> m_aHead;
+    private Entry <K, V> m_aTail;
+    private int m_nSize;
+
+    void addLast (@Nonnull final Entry <K, V> aEntry)
+    {
+      aEntry.m_aPrev = m_aTail;
+      aEntry.m_aNext = null;
+      if (m_aTail == null)
+        m_aHead = aEntry;
+      else
+        m_aTail.m_aNext = aEntry;
+      m_aTail = aEntry;
+      m_nSize++;
+    }
+
+    void remove (@Nonnull final Entry <K, V> aEntry)
+    {
+      if (aEntry.m_aPrev == null)
+        m_aHead = aEntry.m_aNext;
+      else
+        aEntry.m_aPrev.m_aNext = aEntry.m_aNext;
+      if (aEntry.m_aNext == null)
+        m_aTail = aEntry.m_aPrev;
+      else
+        aEntry.m_aNext.m_aPrev = aEntry.m_aPrev;
+      aEntry.m_aPrev = null;
+      aEntry.m_aNext = null;
+      m_nSize--;
+    }
+
+    void replace (@Nonnull final Entry <K, V> aOld, @Nonnull final Entry <K, V> aNew)
+    {
+      aNew.m_aPrev = aOld.m_aPrev;
+      aNew.m_aNext = aOld.m_aNext;
+      if (aOld.m_aPrev == null)
+        m_aHead = aNew;
+      else
+        aOld.m_aPrev.m_aNext = aNew;
+      if (aOld.m_aNext == null)
+        m_aTail = aNew;
+      else
+        aOld.m_aNext.m_aPrev = aNew;
+      aOld.m_aPrev = null;
+      aOld.m_aNext = null;
+    }
+
+    void clear ()
+    {
+      Entry <K, V> aCur = m_aHead;
+      while (aCur != null)
+      {
+        final Entry <K, V> aNext = aCur.m_aNext;
+        aCur.m_aPrev = null;
+        aCur.m_aNext = null;
+        aCur.m_bLinked = false;
+        aCur.m_bProtected = false;
+        aCur = aNext;
+      }
+      m_aHead = null;
+      m_aTail = null;
+      m_nSize = 0;
+    }
+  }
+
+  private final ConcurrentHashMap <KEYTYPE, Entry <KEYTYPE, VALUETYPE>> m_aMap;
+  private final Function <? super KEYTYPE, ? extends VALUETYPE> m_aValueProvider;
+  private final int m_nMaxSize;
+  private final int m_nMaxProtectedSize;
+  private final IMutableStatisticsHandlerCache m_aCacheAccessStats;
+  private final IMutableStatisticsHandlerCounter m_aCacheEvictStats;
+  private final IMutableStatisticsHandlerCounter m_aCacheRefreshStats;
+  // 0 means disabled
+  private volatile long m_nExpireAfterWriteNanos = 0;
+  private volatile long m_nExpireAfterAccessNanos = 0;
+  private volatile long m_nRefreshAfterWriteNanos = 0;
+  private volatile Executor m_aExecutor = ForkJoinPool.commonPool ();
+  private final SimpleLock m_aPolicyLock = new SimpleLock ();
+  @GuardedBy ("m_aPolicyLock")
+  private final Segment <KEYTYPE, VALUETYPE> m_aProbation = new Segment <> ();
+  @GuardedBy ("m_aPolicyLock")
+  private final Segment <KEYTYPE, VALUETYPE> m_aProtected = new Segment <> ();
+
+  /**
+   * Constructor
+   *
+   * @param aValueProvider
+   *        The value provider to be invoked for loading and refreshing. May not
+   *        be <code>null</code>.
+   * @param nMaxSize
+   *        The maximum number of entries. Values &le; 0 mean unlimited.
+   * @param aCacheAccessStats
+   *        The statistics handler for hits and misses. May not be
+   *        <code>null</code>.
+   * @param aCacheEvictStats
+   *        The statistics handler for evicted entries (size and time based).
+   *        May not be <code>null</code>.
+   * @param aCacheRefreshStats
+   *        The statistics handler for refreshed entries. May not be
+   *        <code>null</code>.
+   */
+  ConcurrentCacheEngine (@Nonnull final Function <? super KEYTYPE, ? extends VALUETYPE> aValueProvider,
+                         final int nMaxSize,
+                         @Nonnull final IMutableStatisticsHandlerCache aCacheAccessStats,
+                         @Nonnull final IMutableStatisticsHandlerCounter aCacheEvictStats,
+                         @Nonnull final IMutableStatisticsHandlerCounter aCacheRefreshStats)
+  {
+    m_aMap = nMaxSize > 0 ? new ConcurrentHashMap <> (nMaxSize) : new ConcurrentHashMap <> ();
+    m_aValueProvider = ValueEnforcer.notNull (aValueProvider, "ValueProvider");
+    m_nMaxSize = nMaxSize;
+    m_nMaxProtectedSize = nMaxSize > 0 ? Math.max (1, (int) ((long) nMaxSize * PROTECTED_PERCENTAGE / 100)) : 0;
+    m_aCacheAccessStats = ValueEnforcer.notNull (aCacheAccessStats, "CacheAccessStats");
+    m_aCacheEvictStats = ValueEnforcer.notNull (aCacheEvictStats, "CacheEvictStats");
+    m_aCacheRefreshStats = ValueEnforcer.notNull (aCacheRefreshStats, "CacheRefreshStats");
+  }
+
+  public long getExpireAfterWriteNanos ()
+  {
+    return m_nExpireAfterWriteNanos;
+  }
+
+  public void setExpireAfterWriteNanos (final long nNanos)
+  {
+    m_nExpireAfterWriteNanos = Math.max (0, nNanos);
+  }
+
+  public long getExpireAfterAccessNanos ()
+  {
+    return m_nExpireAfterAccessNanos;
+  }
+
+  public void setExpireAfterAccessNanos (final long nNanos)
+  {
+    m_nExpireAfterAccessNanos = Math.max (0, nNanos);
+  }
+
+  public long getRefreshAfterWriteNanos ()
+  {
+    return m_nRefreshAfterWriteNanos;
+  }
+
+  public void setRefreshAfterWriteNanos (final long nNanos)
+  {
+    m_nRefreshAfterWriteNanos = Math.max (0, nNanos);
+  }
+
+  @Nonnull
+  public Executor getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  public void setExecutor (@Nonnull final Executor aExecutor)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    m_aExecutor = aExecutor;
+  }
+
+  private boolean _isTimed ()
+  {
+    return m_nExpireAfterWriteNanos > 0 || m_nExpireAfterAccessNanos > 0 || m_nRefreshAfterWriteNanos > 0;
+  }
+
+  private boolean _isExpired (@Nonnull final Entry <KEYTYPE, VALUETYPE> aEntry, final long nNowNanos)
+  {
+    // In-flight entries never expire
+    if (!aEntry.m_aFuture.isDone ())
+      return false;
+    final long nEAW = m_nExpireAfterWriteNanos;
+    if (nEAW > 0 && nNowNanos - aEntry.m_nWriteNanos >= nEAW)
+      return true;
+    final long nEAA = m_nExpireAfterAccessNanos;
+    return nEAA > 0 && nNowNanos - aEntry.m_nAccessNanos >= nEAA;
+  }
+
+  private boolean _removeExpired (@Nonnull final Entry <KEYTYPE, VALUETYPE> aEntry)
+  {
+    if (!m_aMap.remove (aEntry.m_aKey, aEntry))
+      return false;
+    if (m_nMaxSize > 0)
+      m_aPolicyLock.locked ( () -> _unlinkNotLocked (aEntry));
+    m_aCacheEvictStats.increment ();
+    return true;
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _evictNotLocked ()
+  {
+    while (m_aProbation.m_nSize + m_aProtected.m_nSize > m_nMaxSize)
+    {
+      // Prefer victims from the probation segment
+      final Entry <KEYTYPE, VALUETYPE> aVictim = m_aProbation.m_aHead != null ? m_aProbation.m_aHead
+                                                                             : m_aProtected.m_aHead;
+      _unlinkNotLocked (aVictim);
+      m_aMap.remove (aVictim.m_aKey, aVictim);
+      m_aCacheEvictStats.increment ();
+    }
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _unlinkNotLocked (@Nonnull final Entry <KEYTYPE, VALUETYPE> aEntry)
+  {
+    if (aEntry.m_bLinked)
+    {
+      if (aEntry.m_bProtected)
+        m_aProtected.remove (aEntry);
+      else
+        m_aProbation.remove (aEntry);
+      aEntry.m_bLinked = false;
+      aEntry.m_bProtected = false;
+    }
+  }
+
+  private void _onInserted (@Nonnull final Entry <KEYTYPE, VALUETYPE> aEntry)
+  {
+    if (m_nMaxSize <= 0)
+      return;
+
+    m_aPolicyLock.locked ( () -> {
+      // The entry may have been removed while it was loaded
+      if (m_aMap.get (aEntry.m_aKey) == aEntry && !aEntry.m_bLinked)
+      {
+        m_aProbation.addLast (aEntry);
+        aEntry.m_bLinked = true;
+        _evictNotLocked ();
+      }
+    });
+  }
+
+  private void _scheduleRefresh (@Nonnull final Entry <KEYTYPE, VALUETYPE> aEntry)
+  {
+    final Runnable aRefresh = () -> {
+      try
+      {
+        final VALUETYPE aValue = m_aValueProvider.apply (aEntry.m_aKey);
+        if (aValue == null)
+          throw new IllegalStateException ("The value to cache was null for key '" + aEntry.m_aKey + "'");
+
+        final Entry <KEYTYPE, VALUETYPE> aNewEntry = _createCompletedEntry (aEntry.m_aKey, aValue);
+        if (m_nMaxSize > 0)
+        {
+          // Keep the position of the old entry in the eviction order
+          m_aPolicyLock.locked ( () -> {
+            if (m_aMap.replace (aEntry.m_aKey, aEntry, aNewEntry))
+            {
+              if (aEntry.m_bLinked)
+              {
+                (aEntry.m_bProtected ? m_aProtected : m_aProbation).replace (aEntry, aNewEntry);
+                aNewEntry.m_bLinked = true;
+                aNewEntry.m_bProtected = aEntry.m_bProtected;
+                aEntry.m_bLinked = false;
+                aEntry.m_bProtected = false;
+              }
+              else
+              {
+                m_aProbation.addLast (aNewEntry);
+                aNewEntry.m_bLinked = true;
+                _evictNotLocked ();
+              }
+              m_aCacheRefreshStats.increment ();
+            }
+          });
+        }
+        else
+          if (m_aMap.replace (aEntry.m_aKey, aEntry, aNewEntry))
+            m_aCacheRefreshStats.increment ();
+      }
+      catch (final RuntimeException ex)
+      {
+        // Keep the old value and try again upon the next access
+        s_aLogger.warn ("Failed to refresh cache value for key '" + aEntry.m_aKey + "'", ex);
+        aEntry.m_aRefreshing.set (false);
+      }
+    };
+
+    try
+    {
+      m_aExecutor.execute (aRefresh);
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      aEntry.m_aRefreshing.set (false);
+    }
+  }
+
+  private void _onAccess (@Nonnull final Entry <KEYTYPE, VALUETYPE> aEntry, final long nNowNanos)
+  {
+    if (nNowNanos != 0)
+    {
+      if (m_nExpireAfterAccessNanos > 0)
+        aEntry.m_nAccessNanos = nNowNanos;
+
+      final long nRAW = m_nRefreshAfterWriteNanos;
+      if (nRAW > 0 &&
+          nNowNanos - aEntry.m_nWriteNanos >= nRAW &&
+          aEntry.m_aFuture.isDone () &&
+          aEntry.m_aRefreshing.compareAndSet (false, true))
+        _scheduleRefresh (aEntry);
+    }
+
+    if (m_nMaxSize <= 0)
+      return;
+
+    // Don't block the reader - dropping an access record only slightly reduces
+    // the precision of the eviction
+    if (m_aPolicyLock.tryLock ())
+    {
+      try
+      {
+        if (aEntry.m_bLinked)
+        {
+          if (aEntry.m_bProtected)
+          {
+            m_aProtected.remove (aEntry);
+            m_aProtected.addLast (aEntry);
+          }
+          else
+          {
+            // Promote from probation to protected
+            m_aProbation.remove (aEntry);
+            aEntry.m_bProtected = true;
+            m_aProtected.addLast (aEntry);
+            if (m_aProtected.m_nSize > m_nMaxProtectedSize)
+            {
+              // Demote the LRU protected entry back to probation
+              final Entry <KEYTYPE, VALUETYPE> aDemoted = m_aProtected.m_aHead;
+              m_aProtected.remove (aDemoted);
+              aDemoted.m_bProtected = false;
+              m_aProbation.addLast (aDemoted);
+            }
+          }
+        }
+      }
+      finally
+      {
+        m_aPolicyLock.unlock ();
+      }
+    }
+  }
+
+  @Nonnull
+  private static <V> V _join (@Nonnull final CompletableFuture <V> aFuture)
+  {
+    try
+    {
+      return aFuture.join ();
+    }
+    catch (final CompletionException ex)
+    {
+      // Rethrow the original exception of the loading thread
+      final Throwable aCause = ex.getCause ();
+      if (aCause instanceof RuntimeException)
+        throw (RuntimeException) aCause;
+      if (aCause instanceof Error)
+        throw (Error) aCause;
+      throw ex;
+    }
+  }
+
+  /**
+   * Get the value from the cache without loading it and without modifying the
+   * statistics.
+   *
+   * @param aKey
+   *        The key to search. May be <code>null</code>.
+   * @return <code>null</code> if no such completely loaded value is present.
+   */
+  @Nullable
+  public VALUETYPE getIfPresent (@Nullable final KEYTYPE aKey)
+  {
+    if (aKey == null)
+      return null;
+    final Entry <KEYTYPE, VALUETYPE> aEntry = m_aMap.get (aKey);
+    if (aEntry == null || (_isTimed () && _isExpired (aEntry, System.nanoTime ())))
+      return null;
+    return aEntry.getValueIfDone ();
+  }
+
+  @Nonnull
+  private static <K, V> Entry <K, V> _createCompletedEntry (@Nonnull final K aKey, @Nonnull final V aValue)
+  {
+    final Entry <K, V> ret = new Entry <> (aKey, new CompletableFuture <> ());
+    final long nNow = System.nanoTime ();
+    ret.m_nWriteNanos = nNow;
+    ret.m_nAccessNanos = nNow;
+    ret.m_aFuture.complete (aValue);
+    return ret;
+  }
+
+  /**
+   * Load the value of a new entry that is already contained in the map.
+   *
+   * @param aNewEntry
+   *        The entry to be loaded. May not be <code>null</code>.
+   * @return The loaded value. Never <code>null</code>.
+   */
+  @Nonnull
+  private VALUETYPE _load (@Nonnull final Entry <KEYTYPE, VALUETYPE> aNewEntry)
+  {
+    final KEYTYPE aKey = aNewEntry.m_aKey;
+    final VALUETYPE aValue;
+    try
+    {
+      aValue = m_aValueProvider.apply (aKey);
+      if (aValue == null)
+        throw new IllegalStateException ("The value to cache was null for key '" + aKey + "'");
+    }
+    catch (final RuntimeException | Error ex)
+    {
+      m_aMap.remove (aKey, aNewEntry);
+      aNewEntry.m_aFuture.completeExceptionally (ex);
+      throw ex;
+    }
+    final long nNow = System.nanoTime ();
+    aNewEntry.m_nWriteNanos = nNow;
+    aNewEntry.m_nAccessNanos = nNow;
+    aNewEntry.m_aFuture.complete (aValue);
+    _onInserted (aNewEntry);
+    m_aCacheAccessStats.cacheMiss ();
+    return aValue;
+  }
+
+  @Nullable
+  private Entry <KEYTYPE, VALUETYPE> _getValidEntry (@Nonnull final KEYTYPE aKey, final long nNowNanos)
+  {
+    final Entry <KEYTYPE, VALUETYPE> aEntry = m_aMap.get (aKey);
+    if (aEntry != null && nNowNanos != 0 && _isExpired (aEntry, nNowNanos))
+    {
+      _removeExpired (aEntry);
+      return null;
+    }
+    return aEntry;
+  }
+
+  /**
+   * Get the value from the cache and load it if it is not present. Each key is
+   * loaded at most once concurrently.
+   *
+   * @param aKey
+   *        The key to search. May not be <code>null</code>.
+   * @return The cached value and never <code>null</code>.
+   * @throws IllegalStateException
+   *         if the value provider returned <code>null</code>
+   */
+  @Nonnull
+  public VALUETYPE getOrLoad (@Nonnull final KEYTYPE aKey)
+  {
+    ValueEnforcer.notNull (aKey, "cacheKey");
+
+    final long nNow = _isTimed () ? System.nanoTime () : 0;
+    Entry <KEYTYPE, VALUETYPE> aEntry = _getValidEntry (aKey, nNow);
+    if (aEntry == null)
+    {
+      final Entry <KEYTYPE, VALUETYPE> aNewEntry = new Entry <> (aKey, new CompletableFuture <> ());
+      aEntry = m_aMap.putIfAbsent (aKey, aNewEntry);
+      if (aEntry == null)
+      {
+        // We are responsible for loading - all other threads requesting the
+        // same key wait for our future
+        return _load (aNewEntry);
+      }
+    }
+
+    // Existing or in-flight value
+    final VALUETYPE aValue = _join (aEntry.m_aFuture);
+    _onAccess (aEntry, nNow);
+    m_aCacheAccessStats.cacheHit ();
+    return aValue;
+  }
+
+  /**
+   * Get the value from the cache and load it asynchronously on the configured
+   * executor if it is not present. Each key is loaded at most once
+   * concurrently.
+   *
+   * @param aKey
+   *        The key to search. May not be <code>null</code>.
+   * @return A future that is completed with the cached value or
+   *         exceptionally, if loading failed. Never <code>null</code>.
+   */
+  @Nonnull
+  public CompletableFuture <VALUETYPE> getOrLoadAsync (@Nonnull final KEYTYPE aKey)
+  {
+    ValueEnforcer.notNull (aKey, "cacheKey");
+
+    final long nNow = _isTimed () ? System.nanoTime () : 0;
+    Entry <KEYTYPE, VALUETYPE> aEntry = _getValidEntry (aKey, nNow);
+    if (aEntry == null)
+    {
+      final Entry <KEYTYPE, VALUETYPE> aNewEntry = new Entry <> (aKey, new CompletableFuture <> ());
+      aEntry = m_aMap.putIfAbsent (aKey, aNewEntry);
+      if (aEntry == null)
+      {
+        try
+        {
+          m_aExecutor.execute ( () -> {
+            try
+            {
+              _load (aNewEntry);
+            }
+            catch (final RuntimeException | Error ex)
+            {
+              // Already propagated into the future
+            }
+          });
+        }
+        catch (final RejectedExecutionException ex)
+        {
+          m_aMap.remove (aKey, aNewEntry);
+          aNewEntry.m_aFuture.completeExceptionally (ex);
+        }
+        // Don't hand out the internal future, so that callers cannot complete
+        // it
+        return aNewEntry.m_aFuture.thenApply (Function.identity ());
+      }
+    }
+
+    // Existing or in-flight value
+    final Entry <KEYTYPE, VALUETYPE> aFinalEntry = aEntry;
+    return aEntry.m_aFuture.thenApply (aValue -> {
+      _onAccess (aFinalEntry, nNow);
+      m_aCacheAccessStats.cacheHit ();
+      return aValue;
+    });
+  }
+
+  /**
+   * Remove all expired entries from the cache.
+   *
+   * @return The number of removed entries. Always &ge; 0.
+   */
+  @Nonnegative
+  public int evictExpired ()
+  {
+    if (m_nExpireAfterWriteNanos <= 0 && m_nExpireAfterAccessNanos <= 0)
+      return 0;
+
+    final long nNow = System.nanoTime ();
+    int ret = 0;
+    for (final Entry <KEYTYPE, VALUETYPE> aEntry : m_aMap.values ())
+      if (_isExpired (aEntry, nNow) && _removeExpired (aEntry))
+        ret++;
+    return ret;
+  }
+
+  /**
+   * Put a new value into the cache, overwriting a potentially existing value.
+   *
+   * @param aKey
+   *        The cache key. May not be <code>null</code>.
+   * @param aValue
+   *        The cache value. May not be <code>null</code>.
+   */
+  public void put (@Nonnull final KEYTYPE aKey, @Nonnull final VALUETYPE aValue)
+  {
+    ValueEnforcer.notNull (aKey, "cacheKey");
+    ValueEnforcer.notNull (aValue, "cacheValue");
+
+    final Entry <KEYTYPE, VALUETYPE> aNewEntry = _createCompletedEntry (aKey, aValue);
+    final Entry <KEYTYPE, VALUETYPE> aOldEntry = m_aMap.put (aKey, aNewEntry);
+    if (aOldEntry != null && m_nMaxSize > 0)
+      m_aPolicyLock.locked ( () -> _unlinkNotLocked (aOldEntry));
+    _onInserted (aNewEntry);
+  }
+
+  /**
+   * Remove the provided key from the cache.
+   *
+   * @param aKey
+   *        The key to remove. May be <code>null</code>.
+   * @return <code>true</code> if the key was removed, <code>false</code> if no
+   *         such key was contained.
+   */
+  public boolean remove (@Nullable final KEYTYPE aKey)
+  {
+    if (aKey == null)
+      return false;
+    final Entry <KEYTYPE, VALUETYPE> aEntry = m_aMap.remove (aKey);
+    if (aEntry == null)
+      return false;
+    if (m_nMaxSize > 0)
+      m_aPolicyLock.locked ( () -> _unlinkNotLocked (aEntry));
+    return true;
+  }
+
+  /**
+   * Remove all entries from the cache.
+   *
+   * @return <code>true</code> if something was removed, <code>false</code> if
+   *         the cache was already empty.
+   */
+  public boolean clear ()
+  {
+    if (m_aMap.isEmpty ())
+      return false;
+    // Clear map and policy atomically with respect to insertions
+    m_aPolicyLock.locked ( () -> {
+      m_aMap.clear ();
+      m_aProbation.clear ();
+      m_aProtected.clear ();
+    });
+    return true;
+  }
+
+  /**
+   * @return The number of contained entries, including the ones currently
+   *         loading.
+   */
+  @Nonnegative
+  public int size ()
+  {
+    return m_aMap.size ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxSize", m_nMaxSize)
+                                       .append ("Size", m_aMap.size ())
+                                       .append ("ExpireAfterWriteNanos", m_nExpireAfterWriteNanos)
+                                       .append ("ExpireAfterAccessNanos", m_nExpireAfterAccessNanos)
+                                       .append ("RefreshAfterWriteNanos", m_nRefreshAfterWriteNanos)
+                                       .getToString ();
+  }
+}
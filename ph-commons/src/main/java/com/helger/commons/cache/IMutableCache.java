@@ -16,7 +16,12 @@
  */
 package com.helger.commons.cache;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.helger.commons.state.EChange;
 
@@ -31,6 +36,133 @@ import com.helger.commons.state.EChange;
  */
 public interface IMutableCache <KEYTYPE, VALUETYPE> extends ICache <KEYTYPE, VALUETYPE>
 {
+  /**
+   * Get the cached value associated with the passed key asynchronously. If the
+   * value needs to be loaded, this happens on the executor of this cache (see
+   * {@link #getExecutor()}) without blocking the caller.
+   *
+   * @param aKey
+   *        The key to be looked up. May be <code>null</code>able or not -
+   *        depends upon the implementation.
+   * @return A future that is completed with the cached value, or completed
+   *         exceptionally if loading failed. Never <code>null</code>.
+   * @since 9.0.0
+   */
+  @Nonnull
+  default CompletableFuture <VALUETYPE> getFromCacheAsync (final KEYTYPE aKey)
+  {
+    return CompletableFuture.supplyAsync ( () -> getFromCache (aKey), getExecutor ());
+  }
+
+  /**
+   * @return The executor used for asynchronous loading and refreshing. Never
+   *         <code>null</code>.
+   * @since 9.0.0
+   */
+  @Nonnull
+  Executor getExecutor ();
+
+  /**
+   * Set the executor used for asynchronous loading and refreshing.
+   *
+   * @param aExecutor
+   *        The executor to use. May not be <code>null</code>.
+   * @return this for chaining
+   * @since 9.0.0
+   */
+  @Nonnull
+  IMutableCache <KEYTYPE, VALUETYPE> setExecutor (@Nonnull Executor aExecutor);
+
+  /**
+   * Check if this cache supports the time based policies expire-after-write,
+   * expire-after-access and refresh-after-write. If not, the respective setters
+   * throw an {@link UnsupportedOperationException} when trying to enable a
+   * policy.
+   *
+   * @return <code>true</code> if time based policies are supported,
+   *         <code>false</code> if not.
+   * @since 9.0.0
+   */
+  boolean isTimeBasedPolicySupported ();
+
+  /**
+   * @return The duration after which an entry expires after it was written.
+   *         <code>null</code> if this expiration policy is not active.
+   * @since 9.0.0
+   */
+  @Nullable
+  Duration getExpireAfterWrite ();
+
+  /**
+   * Set the duration after which an entry expires after it was written or
+   * refreshed. This is an optional operation (see
+   * {@link #isTimeBasedPolicySupported()}).
+   *
+   * @param aDuration
+   *        The duration to use. May be <code>null</code> or zero to disable
+   *        this expiration policy.
+   * @return this for chaining
+   * @throws UnsupportedOperationException
+   *         If a duration &gt; 0 is passed and time based policies are not
+   *         supported
+   * @since 9.0.0
+   */
+  @Nonnull
+  IMutableCache <KEYTYPE, VALUETYPE> setExpireAfterWrite (@Nullable Duration aDuration);
+
+  /**
+   * @return The duration after which an entry expires after it was last
+   *         accessed. <code>null</code> if this expiration policy is not
+   *         active.
+   * @since 9.0.0
+   */
+  @Nullable
+  Duration getExpireAfterAccess ();
+
+  /**
+   * Set the duration after which an entry expires after it was last accessed.
+   * This is an optional operation (see {@link #isTimeBasedPolicySupported()}).
+   *
+   * @param aDuration
+   *        The duration to use. May be <code>null</code> or zero to disable
+   *        this expiration policy.
+   * @return this for chaining
+   * @throws UnsupportedOperationException
+   *         If a duration &gt; 0 is passed and time based policies are not
+   *         supported
+   * @since 9.0.0
+   */
+  @Nonnull
+  IMutableCache <KEYTYPE, VALUETYPE> setExpireAfterAccess (@Nullable Duration aDuration);
+
+  /**
+   * @return The duration after which an entry is refreshed after it was
+   *         written. <code>null</code> if refreshing is not active.
+   * @since 9.0.0
+   */
+  @Nullable
+  Duration getRefreshAfterWrite ();
+
+  /**
+   * Set the duration after which an entry is refreshed after it was written.
+   * The refresh is triggered by the first access after the duration elapsed
+   * and is performed on the executor (see {@link #getExecutor()}). Until the
+   * refresh is finished, the old value is returned, so callers never block on
+   * a reload. This is an optional operation (see
+   * {@link #isTimeBasedPolicySupported()}).
+   *
+   * @param aDuration
+   *        The duration to use. May be <code>null</code> or zero to disable
+   *        refreshing.
+   * @return this for chaining
+   * @throws UnsupportedOperationException
+   *         If a duration &gt; 0 is passed and time based policies are not
+   *         supported
+   * @since 9.0.0
+   */
+  @Nonnull
+  IMutableCache <KEYTYPE, VALUETYPE> setRefreshAfterWrite (@Nullable Duration aDuration);
+
   /**
    * Remove the given key from the cache.
    *
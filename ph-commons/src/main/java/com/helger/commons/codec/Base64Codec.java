@@ -24,28 +24,53 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.WillNotClose;
 
+import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.ReturnsMutableCopy;
-import com.helger.commons.base64.Base64;
-import com.helger.commons.base64.Base64InputStream;
-import com.helger.commons.base64.Base64OutputStream;
-import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
-import com.helger.commons.io.stream.NonClosingOutputStream;
-import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.base64.Base64BlockCodec;
 import com.helger.commons.math.MathHelper;
 
 /**
- * Encoder and decoder for Base64
+ * Encoder and decoder for Base64. All operations are performed with a
+ * {@link Base64BlockCodec} that processes complete groups at once.
  *
  * @author Philip Helger
  */
 public class Base64Codec implements IByteArrayCodec
 {
+  private final Base64BlockCodec m_aBlockCodec;
+
   public Base64Codec ()
-  {}
+  {
+    this (Base64BlockCodec.getDefaultInstance ());
+  }
+
+  /**
+   * Constructor with a custom block codec, e.g. to use a different alphabet or
+   * to break lines.
+   *
+   * @param aBlockCodec
+   *        The block codec to use. May not be <code>null</code>.
+   * @since 9.0.0
+   */
+  public Base64Codec (@Nonnull final Base64BlockCodec aBlockCodec)
+  {
+    m_aBlockCodec = ValueEnforcer.notNull (aBlockCodec, "BlockCodec");
+  }
+
+  /**
+   * @return The block codec used for encoding and decoding. Never
+   *         <code>null</code>.
+   * @since 9.0.0
+   */
+  @Nonnull
+  public final Base64BlockCodec getBlockCodec ()
+  {
+    return m_aBlockCodec;
+  }
 
   public int getEncodedLength (final int nLen)
   {
-    return MathHelper.getRoundedUp (nLen * 4 / 3, 4);
+    return m_aBlockCodec.getEncodedLength (nLen);
   }
 
   public void encode (@Nullable final byte [] aDecodedBuffer,
@@ -56,9 +81,9 @@ public class Base64Codec implements IByteArrayCodec
     if (aDecodedBuffer == null || nLen == 0)
       return;
 
-    try (final Base64OutputStream aB64OS = new Base64OutputStream (new NonClosingOutputStream (aOS)))
+    try
     {
-      aB64OS.write (aDecodedBuffer, nOfs, nLen);
+      m_aBlockCodec.encode (aDecodedBuffer, nOfs, nLen, aOS);
     }
     catch (final IOException ex)
     {
@@ -72,7 +97,9 @@ public class Base64Codec implements IByteArrayCodec
                              @Nonnegative final int nOfs,
                              @Nonnegative final int nLen)
   {
-    return Base64.safeEncodeBytesToBytes (aDecodedBuffer, nOfs, nLen);
+    if (aDecodedBuffer == null)
+      return null;
+    return m_aBlockCodec.getEncoded (aDecodedBuffer, nOfs, nLen);
   }
 
   public int getDecodedLength (final int nLen)
@@ -85,12 +112,12 @@ public class Base64Codec implements IByteArrayCodec
                       @Nonnegative final int nLen,
                       @Nonnull @WillNotClose final OutputStream aOS)
   {
-    try (final Base64InputStream aB64OS = new Base64InputStream (new NonBlockingByteArrayInputStream (aEncodedBuffer,
-                                                                                                      nOfs,
-                                                                                                      nLen)))
+    if (aEncodedBuffer == null || nLen == 0)
+      return;
+
+    try
     {
-      if (StreamHelper.copyInputStreamToOutputStream (aB64OS, aOS).isFailure ())
-        throw new DecodeException ("Failed to decode Base64!");
+      m_aBlockCodec.decode (aEncodedBuffer, nOfs, nLen, aOS);
     }
     catch (final IOException ex)
     {
@@ -104,6 +131,15 @@ public class Base64Codec implements IByteArrayCodec
                              @Nonnegative final int nOfs,
                              @Nonnegative final int nLen)
   {
-    return Base64.safeDecode (aEncodedBuffer, nOfs, nLen);
+    if (aEncodedBuffer == null)
+      return null;
+    try
+    {
+      return m_aBlockCodec.getDecoded (aEncodedBuffer, nOfs, nLen);
+    }
+    catch (final IOException | IllegalArgumentException ex)
+    {
+      return null;
+    }
   }
 }
@@ -0,0 +1,826 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.csv;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.io.stream.StreamHelper;
+
+/**
+ * A buffered CSV writer that creates exactly the same output as
+ * {@link CSVWriter} with the same settings, but writes directly into a
+ * reusable char buffer instead of building a String per line and writing it to
+ * a {@link java.io.PrintWriter}. Fields without special characters are copied
+ * as is, and numeric and boolean fields can be written without creating a
+ * String object.<br>
+ * Besides the line based <code>writeNext</code> methods a line can be created
+ * field by field using the <code>writeField</code> methods followed by
+ * {@link #endLine()}.<br>
+ * In contrast to {@link CSVWriter} errors of the underlying writer are not
+ * swallowed but propagated as {@link IOException}.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public class CSVBufferedWriter implements Closeable, Flushable
+{
+  /** The default size of the write buffer */
+  public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+  private static final char [] TRUE = "true".toCharArray ();
+  private static final char [] FALSE = "false".toCharArray ();
+
+  private final Writer m_aWriter;
+  private final char [] m_aBuf;
+  private int m_nBufPos = 0;
+  private long m_nWrittenLines = 0;
+  private boolean m_bInLine = false;
+  private char m_cSeparatorChar = CCSV.DEFAULT_SEPARATOR;
+  private char m_cQuoteChar = CCSV.DEFAULT_QUOTE_CHARACTER;
+  private char m_cEscapeChar = CCSV.DEFAULT_ESCAPE_CHARACTER;
+  private String m_sLineEnd = CSVWriter.DEFAULT_LINE_END;
+  private boolean m_bAvoidFinalLineEnd = CSVWriter.DEFAULT_AVOID_FINAL_LINE_END;
+  private boolean m_bApplyQuotesToAll = CSVWriter.DEFAULT_QUOTE_ALL;
+
+  // Derived from the settings
+  private final boolean [] m_aSpecialASCII = new boolean [128];
+  private boolean m_bNumbersMayBeSpecial;
+  // Scratch buffer for floating point values
+  private final StringBuilder m_aNumSB = new StringBuilder (32);
+
+  /**
+   * Constructs {@link CSVBufferedWriter} with all default settings.
+   *
+   * @param aWriter
+   *        the writer to an underlying CSV source. May not be
+   *        <code>null</code>. It does not need to be buffered.
+   */
+  public CSVBufferedWriter (@Nonnull @WillCloseWhenClosed final Writer aWriter)
+  {
+    this (aWriter, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aWriter
+   *        the writer to an underlying CSV source. May not be
+   *        <code>null</code>. It does not need to be buffered.
+   * @param nBufferSize
+   *        The size of the write buffer. Must be &gt; 0.
+   */
+  public CSVBufferedWriter (@Nonnull @WillCloseWhenClosed final Writer aWriter, @Nonnegative final int nBufferSize)
+  {
+    ValueEnforcer.notNull (aWriter, "Writer");
+    ValueEnforcer.isGT0 (nBufferSize, "BufferSize");
+    m_aWriter = aWriter;
+    m_aBuf = new char [nBufferSize];
+    _updateSpecialChars ();
+  }
+
+  private static boolean _mayBeInNumber (final char c)
+  {
+    // Digits, sign, decimal point and the letters of "Infinity", "NaN", "true"
+    // and "false" and the exponent
+    return c != CCSV.NULL_CHARACTER && (Character.isLetterOrDigit (c) || c == '-' || c == '.');
+  }
+
+  private void _updateSpecialChars ()
+  {
+    final boolean [] aSpecial = m_aSpecialASCII;
+    for (int i = 0; i < aSpecial.length; ++i)
+      aSpecial[i] = false;
+    aSpecial['\r'] = true;
+    aSpecial['\n'] = true;
+    for (final char c : new char [] { m_cSeparatorChar, m_cQuoteChar, m_cEscapeChar })
+      if (c < 128)
+        aSpecial[c] = true;
+    m_bNumbersMayBeSpecial = _mayBeInNumber (m_cSeparatorChar) ||
+                             _mayBeInNumber (m_cQuoteChar) ||
+                             _mayBeInNumber (m_cEscapeChar);
+  }
+
+  /**
+   * @return The default separator for this writer.
+   */
+  public char getSeparatorChar ()
+  {
+    return m_cSeparatorChar;
+  }
+
+  /**
+   * Sets the delimiter to use for separating entries.
+   *
+   * @param cSeparator
+   *        the delimiter to use for separating entries
+   * @return this
+   */
+  @Nonnull
+  public CSVBufferedWriter setSeparatorChar (final char cSeparator)
+  {
+    if (cSeparator == CCSV.NULL_CHARACTER)
+      throw new UnsupportedOperationException ("The separator character must be defined!");
+    m_cSeparatorChar = cSeparator;
+    _updateSpecialChars ();
+    return this;
+  }
+
+  /**
+   * @return The default quotation character for this writer.
+   */
+  public char getQuoteChar ()
+  {
+    return m_cQuoteChar;
+  }
+
+  /**
+   * Sets the character to use for quoted elements.
+   *
+   * @param cQuoteChar
+   *        the character to use for quoted element.
+   *        {@link CSVWriter#NO_QUOTE_CHARACTER} to disable quoting.
+   * @return this
+   */
+  @Nonnull
+  public CSVBufferedWriter setQuoteChar (final char cQuoteChar)
+  {
+    m_cQuoteChar = cQuoteChar;
+    _updateSpecialChars ();
+    return this;
+  }
+
+  /**
+   * @return The default escape character for this writer.
+   */
+  public char getEscapeChar ()
+  {
+    return m_cEscapeChar;
+  }
+
+  /**
+   * Sets the character to use for escaping a separator or quote.
+   *
+   * @param cEscapeChar
+   *        the character to use for escaping a separator or quote.
+   *        {@link CSVWriter#NO_ESCAPE_CHARACTER} to disable escaping.
+   * @return this
+   */
+  @Nonnull
+  public CSVBufferedWriter setEscapeChar (final char cEscapeChar)
+  {
+    m_cEscapeChar = cEscapeChar;
+    _updateSpecialChars ();
+    return this;
+  }
+
+  /**
+   * @return the line delimiting string. Neither <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getLineEnd ()
+  {
+    return m_sLineEnd;
+  }
+
+  /**
+   * Set the line delimiting string.
+   *
+   * @param sLineEnd
+   *        The line end. May neither be <code>null</code> nor empty.
+   * @return this
+   */
+  @Nonnull
+  public CSVBufferedWriter setLineEnd (@Nonnull @Nonempty final String sLineEnd)
+  {
+    ValueEnforcer.notNull (sLineEnd, "LineEnd");
+    m_sLineEnd = sLineEnd;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the file should not end with a new-line,
+   *         <code>false</code> otherwise.
+   */
+  public boolean isAvoidFinalLineEnd ()
+  {
+    return m_bAvoidFinalLineEnd;
+  }
+
+  /**
+   * Set whether the CSV file should end with a new line or not.
+   *
+   * @param bAvoidFinalLineEnd
+   *        <code>true</code> to avoid the CSV file ending with a new line.
+   * @return this for chaining
+   */
+  @Nonnull
+  public CSVBufferedWriter setAvoidFinalLineEnd (final boolean bAvoidFinalLineEnd)
+  {
+    m_bAvoidFinalLineEnd = bAvoidFinalLineEnd;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if all cells should always be quoted,
+   *         <code>false</code> otherwise. The default is
+   *         {@value CSVWriter#DEFAULT_QUOTE_ALL}.
+   */
+  public boolean isApplyQuotesToAll ()
+  {
+    return m_bApplyQuotesToAll;
+  }
+
+  /**
+   * Set whether all cells should be quoted by default or not.
+   *
+   * @param bApplyQuotesToAll
+   *        <code>true</code> to quote all cells, <code>false</code> to quote
+   *        only the ones where it is necessary
+   * @return this for chaining
+   */
+  @Nonnull
+  public CSVBufferedWriter setApplyQuotesToAll (final boolean bApplyQuotesToAll)
+  {
+    m_bApplyQuotesToAll = bApplyQuotesToAll;
+    return this;
+  }
+
+  private void _flushBuffer () throws IOException
+  {
+    if (m_nBufPos > 0)
+    {
+      m_aWriter.write (m_aBuf, 0, m_nBufPos);
+      m_nBufPos = 0;
+    }
+  }
+
+  private void _append (final char c) throws IOException
+  {
+    if (m_nBufPos == m_aBuf.length)
+      _flushBuffer ();
+    m_aBuf[m_nBufPos++] = c;
+  }
+
+  private void _append (@Nonnull final char [] aChars) throws IOException
+  {
+    final int nLen = aChars.length;
+    if (nLen > m_aBuf.length - m_nBufPos)
+    {
+      _flushBuffer ();
+      if (nLen > m_aBuf.length)
+      {
+        m_aWriter.write (aChars);
+        return;
+      }
+    }
+    System.arraycopy (aChars, 0, m_aBuf, m_nBufPos, nLen);
+    m_nBufPos += nLen;
+  }
+
+  private void _append (@Nonnull final String s) throws IOException
+  {
+    final int nLen = s.length ();
+    if (nLen > m_aBuf.length - m_nBufPos)
+    {
+      _flushBuffer ();
+      if (nLen > m_aBuf.length)
+      {
+        m_aWriter.write (s);
+        return;
+      }
+    }
+    s.getChars (0, nLen, m_aBuf, m_nBufPos);
+    m_nBufPos += nLen;
+  }
+
+  private void _appendEscaped (@Nonnull final String s) throws IOException
+  {
+    final char cQuote = m_cQuoteChar;
+    final char cEscape = m_cEscapeChar;
+    final int nLen = s.length ();
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c = s.charAt (i);
+      if (c == cQuote || c == cEscape)
+        _append (cEscape);
+      _append (c);
+    }
+  }
+
+  private boolean _containsSpecialCharacters (@Nonnull final String s)
+  {
+    final boolean [] aSpecial = m_aSpecialASCII;
+    final int nLen = s.length ();
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c = s.charAt (i);
+      if (c < 128 ? aSpecial[c] : c == m_cSeparatorChar || c == m_cQuoteChar || c == m_cEscapeChar)
+        return true;
+    }
+    return false;
+  }
+
+  private void _startField () throws IOException
+  {
+    if (m_bInLine)
+      _append (m_cSeparatorChar);
+    else
+    {
+      if (m_bAvoidFinalLineEnd && m_nWrittenLines > 0)
+      {
+        // End previous line
+        _append (m_sLineEnd);
+      }
+      m_bInLine = true;
+    }
+  }
+
+  private void _writeFieldContent (@Nullable final String sValue, final boolean bApplyQuotesToAll) throws IOException
+  {
+    if (sValue != null)
+    {
+      final boolean bContainsSpecialChars = _containsSpecialCharacters (sValue);
+      final boolean bDoQuote = m_cQuoteChar != CSVWriter.NO_QUOTE_CHARACTER &&
+                               (bApplyQuotesToAll || bContainsSpecialChars);
+      if (bDoQuote)
+        _append (m_cQuoteChar);
+      if (bContainsSpecialChars && m_cEscapeChar != CSVWriter.NO_ESCAPE_CHARACTER)
+        _appendEscaped (sValue);
+      else
+        _append (sValue);
+      if (bDoQuote)
+        _append (m_cQuoteChar);
+    }
+  }
+
+  /**
+   * Write a single field of the current line.
+   *
+   * @param sValue
+   *        The field value. May be <code>null</code> in which case an empty
+   *        field is written.
+   * @param bApplyQuotesToAll
+   *        <code>true</code> if the value is to be quoted. <code>false</code>
+   *        applies quotes only if the value contains the separator, escape,
+   *        quote or new line characters.
+   * @return this for chaining
+   * @throws IOException
+   *         if writing fails
+   */
+  @Nonnull
+  public CSVBufferedWriter writeField (@Nullable final String sValue,
+                                        final boolean bApplyQuotesToAll) throws IOException
+  {
+    _startField ();
+    _writeFieldContent (sValue, bApplyQuotesToAll);
+    return this;
+  }
+
+  /**
+   * Write a single field of the current line using the default quoting
+   * setting.
+   *
+   * @param sValue
+   *        The field value. May be <code>null</code> in which case an empty
+   *        field is written.
+   * @return this for chaining
+   * @throws IOException
+   *         if writing fails
+   * @see #isApplyQuotesToAll()
+   */
+  @Nonnull
+  public CSVBufferedWriter writeField (@Nullable final String sValue) throws IOException
+  {
+    return writeField (sValue, m_bApplyQuotesToAll);
+  }
+
+  private void _writeNumberStart () throws IOException
+  {
+    _startField ();
+    if (m_bApplyQuotesToAll && m_cQuoteChar != CSVWriter.NO_QUOTE_CHARACTER)
+      _append (m_cQuoteChar);
+  }
+
+  private void _writeNumberEnd () throws IOException
+  {
+    if (m_bApplyQuotesToAll && m_cQuoteChar != CSVWriter.NO_QUOTE_CHARACTER)
+      _append (m_cQuoteChar);
+  }
+
+  /**
+   * Write a single numeric field of the current line using the default quoting
+   * setting. The result is identical to writing {@link Long#toString(long)}.
+   *
+   * @param nValue
+   *        The field value.
+   * @return this for chaining
+   * @throws IOException
+   *         if writing fails
+   */
+  @Nonnull
+  public CSVBufferedWriter writeField (final long nValue) throws IOException
+  {
+    if (m_bNumbersMayBeSpecial || nValue == Long.MIN_VALUE)
+      return writeField (Long.toString (nValue));
+
+    _writeNumberStart ();
+
+    // Write the digits backwards
+    final boolean bNegative = nValue < 0;
+    long nRest = bNegative ? -nValue : nValue;
+    int nDigits = 1;
+    for (long n = nRest; n >= 10; n /= 10)
+      nDigits++;
+    final int nLen = bNegative ? nDigits + 1 : nDigits;
+    if (nLen > m_aBuf.length - m_nBufPos)
+      _flushBuffer ();
+    if (nLen > m_aBuf.length)
+      _append (Long.toString (nValue));
+    else
+    {
+      final char [] aBuf = m_aBuf;
+      if (bNegative)
+        aBuf[m_nBufPos] = '-';
+      int nPos = m_nBufPos + nLen;
+      do
+      {
+        aBuf[--nPos] = (char) ('0' + nRest % 10);
+        nRest /= 10;
+      } while (nRest > 0);
+      m_nBufPos += nLen;
+    }
+
+    _writeNumberEnd ();
+    return this;
+  }
+
+  /**
+   * Write a single numeric field of the current line using the default quoting
+   * setting. The result is identical to writing {@link Integer#toString(int)}.
+   *
+   * @param nValue
+   *        The field value.
+   * @return this for chaining
+   * @throws IOException
+   *         if writing fails
+   */
+  @Nonnull
+  public CSVBufferedWriter writeField (final int nValue) throws IOException
+  {
+    return writeField ((long) nValue);
+  }
+
+  /**
+   * Write a single numeric field of the current line using the default quoting
+   * setting. The result is identical to writing {@link Double#toString(double)}.
+   *
+   * @param dValue
+   *        The field value.
+   * @return this for chaining
+   * @throws IOException
+   *         if writing fails
+   */
+  @Nonnull
+  public CSVBufferedWriter writeField (final double dValue) throws IOException
+  {
+    if (m_bNumbersMayBeSpecial)
+      return writeField (Double.toString (dValue));
+
+    _writeNumberStart ();
+    final StringBuilder aSB = m_aNumSB;
+    aSB.setLength (0);
+    aSB.append (dValue);
+    final int nLen = aSB.length ();
+    if (nLen > m_aBuf.length - m_nBufPos)
+      _flushBuffer ();
+    if (nLen > m_aBuf.length)
+      _append (aSB.toString ());
+    else
+    {
+      aSB.getChars (0, nLen, m_aBuf, m_nBufPos);
+      m_nBufPos += nLen;
+    }
+    _writeNumberEnd ();
+    return this;
+  }
+
+  /**
+   * Write a single boolean field of the current line using the default quoting
+   * setting. The result is identical to writing
+   * {@link Boolean#toString(boolean)}.
+   *
+   * @param bValue
+   *        The field value.
+   * @return this for chaining
+   * @throws IOException
+   *         if writing fails
+   */
+  @Nonnull
+  public CSVBufferedWriter writeField (final boolean bValue) throws IOException
+  {
+    if (m_bNumbersMayBeSpecial)
+      return writeField (Boolean.toString (bValue));
+
+    _writeNumberStart ();
+    _append (bValue ? TRUE : FALSE);
+    _writeNumberEnd ();
+    return this;
+  }
+
+  /**
+   * End the current line that was created with the <code>writeField</code>
+   * methods. If no field was written, an empty line is created.
+   *
+   * @throws IOException
+   *         if writing fails
+   */
+  public void endLine () throws IOException
+  {
+    if (!m_bInLine)
+    {
+      if (m_bAvoidFinalLineEnd && m_nWrittenLines > 0)
+      {
+        // End previous line
+        _append (m_sLineEnd);
+      }
+    }
+    if (!m_bAvoidFinalLineEnd)
+    {
+      // End the line directly
+      _append (m_sLineEnd);
+    }
+    m_bInLine = false;
+    m_nWrittenLines++;
+  }
+
+  /**
+   * Writes the next line to the file.
+   *
+   * @param aNextLine
+   *        An iterator over Strings where each entry represents a single cell.
+   *        May be <code>null</code> in which case nothing is written.
+   * @param bApplyQuotesToAll
+   *        <code>true</code> if all values are to be quoted. <code>false</code>
+   *        applies quotes only to values which contain the separator, escape,
+   *        quote or new line characters.
+   * @throws IOException
+   *         if writing fails
+   */
+  public void writeNext (@Nullable final Iterator <String> aNextLine,
+                         final boolean bApplyQuotesToAll) throws IOException
+  {
+    if (aNextLine != null)
+    {
+      while (aNextLine.hasNext ())
+        writeField (aNextLine.next (), bApplyQuotesToAll);
+      endLine ();
+    }
+  }
+
+  /**
+   * Writes the next line to the file.
+   *
+   * @param aNextLine
+   *        A collection of Strings where each entry represents a single cell.
+   *        May be <code>null</code> in which case nothing is written.
+   * @param bApplyQuotesToAll
+   *        <code>true</code> if all values are to be quoted. <code>false</code>
+   *        applies quotes only to values which contain the separator, escape,
+   *        quote or new line characters.
+   * @throws IOException
+   *         if writing fails
+   */
+  public void writeNext (@Nullable final Iterable <String> aNextLine,
+                         final boolean bApplyQuotesToAll) throws IOException
+  {
+    if (aNextLine != null)
+      writeNext (aNextLine.iterator (), bApplyQuotesToAll);
+  }
+
+  /**
+   * Writes the next line to the file using the default quoting settings.
+   *
+   * @param aNextLine
+   *        A collection of Strings where each entry represents a single cell.
+   *        May be <code>null</code> in which case nothing is written.
+   * @throws IOException
+   *         if writing fails
+   * @see #isApplyQuotesToAll()
+   */
+  public void writeNext (@Nullable final Iterable <String> aNextLine) throws IOException
+  {
+    writeNext (aNextLine, m_bApplyQuotesToAll);
+  }
+
+  /**
+   * Writes the next line to the file.
+   *
+   * @param aNextLine
+   *        a string array with each comma-separated element as a separate
+   *        entry. May be <code>null</code> in which case nothing is written.
+   * @param nOfs
+   *        Array Offset. Must be &ge; 0.
+   * @param nLength
+   *        Array Length. Must be &ge; 0.
+   * @param bApplyQuotesToAll
+   *        <code>true</code> if all values are to be quoted. <code>false</code>
+   *        applies quotes only to values which contain the separator, escape,
+   *        quote or new line characters.
+   * @throws IOException
+   *         if writing fails
+   */
+  public void writeNext (@Nullable final String [] aNextLine,
+                         @Nonnegative final int nOfs,
+                         @Nonnegative final int nLength,
+                         final boolean bApplyQuotesToAll) throws IOException
+  {
+    if (aNextLine != null)
+    {
+      ValueEnforcer.isArrayOfsLen (aNextLine, nOfs, nLength);
+      for (int i = 0; i < nLength; ++i)
+        writeField (aNextLine[nOfs + i], bApplyQuotesToAll);
+      endLine ();
+    }
+  }
+
+  /**
+   * Writes the next line to the file.
+   *
+   * @param aNextLine
+   *        a string array with each comma-separated element as a separate
+   *        entry. May be <code>null</code> in which case nothing is written.
+   * @param bApplyQuotesToAll
+   *        <code>true</code> if all values are to be quoted. <code>false</code>
+   *        applies quotes only to values which contain the separator, escape,
+   *        quote or new line characters.
+   * @throws IOException
+   *         if writing fails
+   */
+  public void writeNext (@Nullable final String [] aNextLine, final boolean bApplyQuotesToAll) throws IOException
+  {
+    if (aNextLine != null)
+      writeNext (aNextLine, 0, aNextLine.length, bApplyQuotesToAll);
+  }
+
+  /**
+   * Writes the next line to the file using the default quoting settings.
+   *
+   * @param aNextLine
+   *        a string array with each comma-separated element as a separate
+   *        entry. May be <code>null</code> in which case nothing is written.
+   * @throws IOException
+   *         if writing fails
+   * @see #isApplyQuotesToAll()
+   */
+  public void writeNext (@Nullable final String... aNextLine) throws IOException
+  {
+    writeNext (aNextLine, m_bApplyQuotesToAll);
+  }
+
+  /**
+   * Writes all lines provided by the iterator.
+   *
+   * @param aAllLines
+   *        An iterator over lines, with each line representing the cells of
+   *        the line. May not be <code>null</code>.
+   * @param bApplyQuotesToAll
+   *        <code>true</code> if all values are to be quoted. <code>false</code>
+   *        if quotes only to be applied to values which contain the separator,
+   *        escape, quote or new line characters.
+   * @throws IOException
+   *         if writing fails
+   */
+  public void writeAll (@Nonnull final Iterator <? extends Iterable <String>> aAllLines,
+                        final boolean bApplyQuotesToAll) throws IOException
+  {
+    ValueEnforcer.notNull (aAllLines, "AllLines");
+    while (aAllLines.hasNext ())
+      writeNext (aAllLines.next (), bApplyQuotesToAll);
+  }
+
+  /**
+   * Writes all lines provided by the iterator using the default quoting
+   * setting.
+   *
+   * @param aAllLines
+   *        An iterator over lines, with each line representing the cells of
+   *        the line. May not be <code>null</code>.
+   * @throws IOException
+   *         if writing fails
+   * @see #isApplyQuotesToAll()
+   */
+  public void writeAll (@Nonnull final Iterator <? extends Iterable <String>> aAllLines) throws IOException
+  {
+    writeAll (aAllLines, m_bApplyQuotesToAll);
+  }
+
+  /**
+   * Writes all provided lines.
+   *
+   * @param aAllLines
+   *        The lines, with each line representing the cells of the line. May
+   *        not be <code>null</code>.
+   * @param bApplyQuotesToAll
+   *        <code>true</code> if all values are to be quoted. <code>false</code>
+   *        if quotes only to be applied to values which contain the separator,
+   *        escape, quote or new line characters.
+   * @throws IOException
+   *         if writing fails
+   */
+  public void writeAll (@Nonnull final Iterable <? extends Iterable <String>> aAllLines,
+                        final boolean bApplyQuotesToAll) throws IOException
+  {
+    ValueEnforcer.notNull (aAllLines, "AllLines");
+    writeAll (aAllLines.iterator (), bApplyQuotesToAll);
+  }
+
+  /**
+   * Writes all provided lines using the default quoting setting.
+   *
+   * @param aAllLines
+   *        The lines, with each line representing the cells of the line. May
+   *        not be <code>null</code>.
+   * @throws IOException
+   *         if writing fails
+   * @see #isApplyQuotesToAll()
+   */
+  public void writeAll (@Nonnull final Iterable <? extends Iterable <String>> aAllLines) throws IOException
+  {
+    writeAll (aAllLines, m_bApplyQuotesToAll);
+  }
+
+  /**
+   * @return The number of written lines. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getWrittenLines ()
+  {
+    return m_nWrittenLines;
+  }
+
+  /**
+   * Write the buffer content to the underlying writer and flush it.
+   *
+   * @throws IOException
+   *         if bad things happen
+   */
+  public void flush () throws IOException
+  {
+    _flushBuffer ();
+    m_aWriter.flush ();
+  }
+
+  /**
+   * flushes the writer without throwing any exceptions.
+   */
+  public void flushQuietly ()
+  {
+    StreamHelper.flush (this);
+  }
+
+  /**
+   * Close the underlying writer flushing any buffered content.
+   *
+   * @throws IOException
+   *         if bad things happen
+   */
+  public void close () throws IOException
+  {
+    try
+    {
+      _flushBuffer ();
+    }
+    finally
+    {
+      m_aWriter.close ();
+    }
+  }
+}
@@ -0,0 +1,853 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.csv;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.io.file.FileChannelHelper;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.system.SystemHelper;
+
+/**
+ * Read a CSV file in parallel. The file is split into byte ranges of
+ * {@link #getChunkSize()} bytes, each range is adjusted to the next line start
+ * that is not inside a quoted field (determined by a parallel pre-scan that
+ * counts the quote characters) and parsed with a separate {@link CSVTokenizer}
+ * on an {@link Executor} (the common {@link ForkJoinPool} by default). A
+ * record belongs to the chunk in which it starts, so a chunk continues parsing
+ * beyond its end until its last record is complete. Because the pre-scan
+ * ignores the finer parsing rules (e.g. escape characters), the start of each
+ * chunk is verified against the end of the previous chunk, and the chunk is
+ * parsed again from the correct position if they differ. Therefore the result
+ * is always identical to reading the file sequentially with {@link CSVReader}.
+ * <br>
+ * At most {@link #getMaxChunksInFlight()} chunks are parsed ahead of the
+ * consumer, and the records of each chunk are released as soon as they were
+ * delivered. So the memory usage is bounded independent of the file size.
+ * <br>
+ * Each task reads the file with positional reads into a single reused buffer,
+ * and each byte is treated as a single character while tokenizing. This is
+ * only correct for charsets in which the line breaks and the separator, quote
+ * and escape characters are single ASCII bytes that never occur as part of
+ * another character - namely UTF-8 and ASCII compatible single-byte charsets.
+ * Other charsets are rejected. Carriage returns are never kept.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public class CSVParallelReader
+{
+  /** The default chunk size in bytes */
+  public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+  /** The default maximum number of chunks parsed ahead of the consumer */
+  public static final int DEFAULT_MAX_CHUNKS_IN_FLIGHT = SystemHelper.getNumberOfProcessors () + 1;
+  /** The size of the read buffer of each task */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Read the next bytes of the file at the provided position into the buffer.
+   *
+   * @return The number of bytes read. 0 if the end of file was reached.
+   */
+  private static int _readAt (@Nonnull final FileChannel aChannel,
+                              final long nFileSize,
+                              final long nPos,
+                              @Nonnull final ByteBuffer aBuffer) throws IOException
+  {
+    aBuffer.clear ();
+    if (nPos >= nFileSize)
+      return 0;
+    aBuffer.limit ((int) Math.min (aBuffer.capacity (), nFileSize - nPos));
+    while (aBuffer.hasRemaining ())
+      if (aChannel.read (aBuffer, nPos + aBuffer.position ()) < 0)
+        break;
+    aBuffer.flip ();
+    return aBuffer.limit ();
+  }
+
+  /**
+   * A reader that reads a file from a start position and returns each byte as
+   * one char (ISO-8859-1).
+   */
+  private static final class ChannelLatin1Reader extends Reader
+  {
+    private final FileChannel m_aChannel;
+    private final long m_nFileSize;
+    private final ByteBuffer m_aBuffer = ByteBuffer.allocate (BUFFER_SIZE);
+    private long m_nPos;
+
+    ChannelLatin1Reader (@Nonnull final FileChannel aChannel, final long nFileSize, final long nStartPos)
+    {
+      m_aChannel = aChannel;
+      m_nFileSize = nFileSize;
+      m_nPos = nStartPos;
+      m_aBuffer.limit (0);
+    }
+
+    @Override
+    public int read (@Nonnull final char [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      if (nLen == 0)
+        return 0;
+      if (!m_aBuffer.hasRemaining ())
+      {
+        final int nRead = _readAt (m_aChannel, m_nFileSize, m_nPos, m_aBuffer);
+        if (nRead == 0)
+          return -1;
+        m_nPos += nRead;
+      }
+
+      final byte [] aBytes = m_aBuffer.array ();
+      final int nStart = m_aBuffer.position ();
+      final int nCount = Math.min (nLen, m_aBuffer.remaining ());
+      for (int i = 0; i < nCount; ++i)
+        aBuf[nOfs + i] = (char) (aBytes[nStart + i] & 0xff);
+      m_aBuffer.position (nStart + nCount);
+      return nCount;
+    }
+
+    @Override
+    public boolean ready ()
+    {
+      return true;
+    }
+
+    @Override
+    public void close ()
+    {
+      // The channel is shared
+    }
+  }
+
+  /**
+   * The result of parsing a single chunk.
+   */
+  private static final class Chunk
+  {
+    private final long m_nStart;
+    private final long m_nNominalEnd;
+    private final long m_nEnd;
+    private ICommonsList <ICommonsList <String>> m_aRows;
+
+    Chunk (final long nStart,
+           final long nNominalEnd,
+           final long nEnd,
+           @Nonnull final ICommonsList <ICommonsList <String>> aRows)
+    {
+      m_nStart = nStart;
+      m_nNominalEnd = nNominalEnd;
+      m_nEnd = nEnd;
+      m_aRows = aRows;
+    }
+
+    /**
+     * Get the records for delivery. Afterwards the chunk only keeps its
+     * offsets, as it may still be referenced for the verification of the next
+     * chunk.
+     *
+     * @return The records of this chunk. Never <code>null</code>.
+     */
+    @Nonnull
+    ICommonsList <ICommonsList <String>> takeRows ()
+    {
+      final ICommonsList <ICommonsList <String>> ret = m_aRows;
+      if (ret == null)
+        throw new IllegalStateException ("The records were already taken");
+      m_aRows = null;
+      return ret;
+    }
+  }
+
+  private final File m_aFile;
+  private final Charset m_aCharset;
+  private final CSVParser m_aParser = new CSVParser ();
+  private int m_nSkipLines = CCSV.DEFAULT_SKIP_LINES;
+  private int m_nChunkSize = DEFAULT_CHUNK_SIZE;
+  private int m_nMaxChunksInFlight = DEFAULT_MAX_CHUNKS_IN_FLIGHT;
+  private int [] m_aColumnProjection;
+  private Executor m_aExecutor = ForkJoinPool.commonPool ();
+
+  /**
+   * Constructor
+   *
+   * @param aPath
+   *        The path of the CSV file to read. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset of the file. May not be <code>null</code>.
+   */
+  public CSVParallelReader (@Nonnull final Path aPath, @Nonnull final Charset aCharset)
+  {
+    this (aPath.toFile (), aCharset);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aFile
+   *        The CSV file to read. May not be <code>null</code>.
+   * @param aCharset
+   *        The charset of the file. May not be <code>null</code>.
+   */
+  public CSVParallelReader (@Nonnull final File aFile, @Nonnull final Charset aCharset)
+  {
+    ValueEnforcer.notNull (aFile, "File");
+    ValueEnforcer.notNull (aCharset, "Charset");
+    ValueEnforcer.isTrue (aCharset.equals (StandardCharsets.UTF_8) || aCharset.newEncoder ().maxBytesPerChar () == 1,
+                          () -> "Charset " + aCharset + " is not supported");
+    m_aFile = aFile;
+    m_aCharset = aCharset;
+  }
+
+  /**
+   * @return The file to be read. Never <code>null</code>.
+   */
+  @Nonnull
+  public File getFile ()
+  {
+    return m_aFile;
+  }
+
+  /**
+   * @return The charset of the file. Never <code>null</code>.
+   */
+  @Nonnull
+  public Charset getCharset ()
+  {
+    return m_aCharset;
+  }
+
+  /**
+   * @return The mutable parser that defines the separator, quote and escape
+   *         characters as well as the quoting options. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public CSVParser getParser ()
+  {
+    return m_aParser;
+  }
+
+  /**
+   * @return the number of lines to skip before processing.
+   */
+  @Nonnegative
+  public int getSkipLines ()
+  {
+    return m_nSkipLines;
+  }
+
+  /**
+   * Sets the number of lines to skip at the beginning of the file.
+   *
+   * @param nSkipLines
+   *        the number of lines to skip. Must be &ge; 0.
+   * @return this
+   */
+  @Nonnull
+  public CSVParallelReader setSkipLines (@Nonnegative final int nSkipLines)
+  {
+    ValueEnforcer.isGE0 (nSkipLines, "SkipLines");
+    m_nSkipLines = nSkipLines;
+    return this;
+  }
+
+  /**
+   * @return The nominal size of a single chunk in bytes.
+   */
+  @Nonnegative
+  public int getChunkSize ()
+  {
+    return m_nChunkSize;
+  }
+
+  /**
+   * @param nChunkSize
+   *        The nominal size of a single chunk in bytes. Must be &gt; 0.
+   * @return this
+   */
+  @Nonnull
+  public CSVParallelReader setChunkSize (@Nonnegative final int nChunkSize)
+  {
+    ValueEnforcer.isGT0 (nChunkSize, "ChunkSize");
+    m_nChunkSize = nChunkSize;
+    return this;
+  }
+
+  /**
+   * @return The maximum number of chunks that are parsed but not yet
+   *         delivered. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxChunksInFlight ()
+  {
+    return m_nMaxChunksInFlight;
+  }
+
+  /**
+   * Set the maximum number of chunks that are parsed but not yet delivered.
+   * Together with the chunk size, this limits the number of records kept in
+   * memory.
+   *
+   * @param nMaxChunksInFlight
+   *        The maximum number of chunks in flight. Must be &gt; 0.
+   * @return this
+   */
+  @Nonnull
+  public CSVParallelReader setMaxChunksInFlight (@Nonnegative final int nMaxChunksInFlight)
+  {
+    ValueEnforcer.isGT0 (nMaxChunksInFlight, "MaxChunksInFlight");
+    m_nMaxChunksInFlight = nMaxChunksInFlight;
+    return this;
+  }
+
+  /**
+   * Only return the content of the provided columns.
+   *
+   * @param aColumnIndices
+   *        The 0-based indices of the columns to keep. May be <code>null</code>
+   *        to keep all columns.
+   * @return this
+   * @see CSVTokenizer#setColumnProjection(int...)
+   */
+  @Nonnull
+  public CSVParallelReader setColumnProjection (@Nullable final int... aColumnIndices)
+  {
+    m_aColumnProjection = aColumnIndices == null ? null : aColumnIndices.clone ();
+    return this;
+  }
+
+  /**
+   * @return The executor used to parse the chunks. Never <code>null</code>.
+   */
+  @Nonnull
+  public Executor getExecutor ()
+  {
+    return m_aExecutor;
+  }
+
+  /**
+   * @param aExecutor
+   *        The executor used to parse the chunks. May not be
+   *        <code>null</code>. By default the common {@link ForkJoinPool} is
+   *        used.
+   * @return this
+   */
+  @Nonnull
+  public CSVParallelReader setExecutor (@Nonnull final Executor aExecutor)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    m_aExecutor = aExecutor;
+    return this;
+  }
+
+  private void _checkCharset ()
+  {
+    if (m_aCharset.equals (StandardCharsets.UTF_8))
+    {
+      // All special characters must be ASCII
+      for (final char c : new char [] { m_aParser.getSeparatorChar (),
+                                        m_aParser.getQuoteChar (),
+                                        m_aParser.getEscapeChar () })
+        if (c >= 0x80)
+          throw new IllegalStateException ("The character '" + c + "' cannot be used with charset " + m_aCharset);
+    }
+    else
+    {
+      // All special characters must be encoded as in ISO-8859-1
+      final String sSpecial = new String (new char [] { '\r',
+                                                        '\n',
+                                                        m_aParser.getSeparatorChar (),
+                                                        m_aParser.getQuoteChar (),
+                                                        m_aParser.getEscapeChar () });
+      if (!Arrays.equals (sSpecial.getBytes (m_aCharset), sSpecial.getBytes (StandardCharsets.ISO_8859_1)))
+        throw new IllegalStateException ("The CSV special characters cannot be used with charset " + m_aCharset);
+    }
+  }
+
+  /**
+   * The result of scanning a file region for line breaks and quotes.
+   */
+  private static final class RegionScan
+  {
+    // Number of quote characters in the region
+    private long m_nQuotes;
+    // Line start after the first line break, or -1
+    private long m_nLineStart = -1;
+    // Line start after the first line break with an even/odd number of quotes
+    // before it (relative to the region start), or -1
+    private long m_nLineStartEven = -1;
+    private long m_nLineStartOdd = -1;
+  }
+
+  @Nonnull
+  private RegionScan _scanRegion (@Nonnull final FileChannel aChannel,
+                                  final long nStart,
+                                  final long nEnd) throws IOException
+  {
+    final char cQuote = m_aParser.getQuoteChar ();
+    final char cEscape = m_aParser.getEscapeChar ();
+    final RegionScan ret = new RegionScan ();
+    final ByteBuffer aBuffer = ByteBuffer.allocate (BUFFER_SIZE);
+    final byte [] aBytes = aBuffer.array ();
+    int nPrev = -1;
+    long nPos = nStart;
+    while (nPos < nEnd)
+    {
+      final int nCount = _readAt (aChannel, nEnd, nPos, aBuffer);
+      if (nCount == 0)
+        break;
+      for (int i = 0; i < nCount; ++i)
+      {
+        final int c = aBytes[i] & 0xff;
+        if (c == '\n')
+        {
+          if (ret.m_nLineStart < 0)
+            ret.m_nLineStart = nPos + i + 1;
+          if ((ret.m_nQuotes & 1) == 0)
+          {
+            if (ret.m_nLineStartEven < 0)
+              ret.m_nLineStartEven = nPos + i + 1;
+          }
+          else
+            if (ret.m_nLineStartOdd < 0)
+              ret.m_nLineStartOdd = nPos + i + 1;
+        }
+        else
+          if (c == cQuote && (nPrev != cEscape || cEscape == cQuote))
+            ret.m_nQuotes++;
+        nPrev = c;
+      }
+      nPos += nCount;
+    }
+    return ret;
+  }
+
+  /**
+   * Determine the speculative start of each chunk. The file is split into
+   * regions that are scanned in parallel. The start of chunk i is the first
+   * line start at or after i * chunk size that is not inside quotes when
+   * counting the quote characters from the beginning of the file. As this
+   * ignores the finer parsing rules, the result is only a good guess that is
+   * verified later on.
+   */
+  @Nonnull
+  private long [] _getChunkStarts (@Nonnull final FileChannel aChannel,
+                                   final long nFileSize,
+                                   final int nChunkSize,
+                                   final int nChunks)
+  {
+    // Region i covers [i * chunk size - 1, (i + 1) * chunk size - 1) so that it
+    // contains all line breaks preceding a line start in chunk i
+    final ICommonsList <CompletableFuture <RegionScan>> aScans = new CommonsArrayList <> (nChunks);
+    for (int i = 0; i < nChunks; ++i)
+    {
+      final long nStart = Math.max (0, (long) i * nChunkSize - 1);
+      final long nEnd = i == nChunks - 1 ? nFileSize : (long) (i + 1) * nChunkSize - 1;
+      aScans.add (CompletableFuture.supplyAsync ( () -> {
+        try
+        {
+          return _scanRegion (aChannel, nStart, nEnd);
+        }
+        catch (final IOException ex)
+        {
+          throw new UncheckedIOException ("Failed to scan " + m_aFile + " at " + nStart, ex);
+        }
+      }, m_aExecutor));
+    }
+
+    final boolean bUseQuotes = !m_aParser.isIgnoreQuotations ();
+    final long [] ret = new long [nChunks + 1];
+    ret[nChunks] = nFileSize;
+    long nQuotes = 0;
+    for (int i = 0; i < nChunks; ++i)
+    {
+      final RegionScan aScan = _join (aScans.get (i));
+      if (i > 0)
+      {
+        if (!bUseQuotes)
+          ret[i] = aScan.m_nLineStart;
+        else
+          ret[i] = (nQuotes & 1) == 0 ? aScan.m_nLineStartEven : aScan.m_nLineStartOdd;
+      }
+      nQuotes += aScan.m_nQuotes;
+    }
+
+    // Regions without a suitable line start are merged into the following
+    for (int i = nChunks - 1; i > 0; --i)
+      if (ret[i] < 0)
+        ret[i] = ret[i + 1];
+    return ret;
+  }
+
+  @Nonnull
+  private ICommonsList <String> _getAsList (@Nonnull final CSVRow aRow)
+  {
+    final ICommonsList <String> ret = aRow.getAsList ();
+    if (!m_aCharset.equals (StandardCharsets.ISO_8859_1))
+    {
+      // The tokenizer works on single bytes - decode non-ASCII values
+      ret.replaceAll (s -> {
+        for (int i = 0; i < s.length (); ++i)
+          if (s.charAt (i) >= 0x80)
+            return new String (s.getBytes (StandardCharsets.ISO_8859_1), m_aCharset);
+        return s;
+      });
+    }
+    return ret;
+  }
+
+  @Nonnull
+  private Chunk _parseChunk (@Nonnull final FileChannel aChannel,
+                             final long nFileSize,
+                             final long nStart,
+                             final long nNominalEnd) throws IOException
+  {
+    final ICommonsList <ICommonsList <String>> aRows = new CommonsArrayList <> ();
+    long nEnd = nStart;
+    try (final CSVTokenizer aTokenizer = new CSVTokenizer (new ChannelLatin1Reader (aChannel, nFileSize, nStart),
+                                                           m_aParser,
+                                                           false))
+    {
+      aTokenizer.setVerifyReader (false);
+      aTokenizer.setUTF8Bytes (m_aCharset.equals (StandardCharsets.UTF_8));
+      if (nStart == 0)
+        aTokenizer.setSkipLines (m_nSkipLines);
+      aTokenizer.setColumnProjection (m_aColumnProjection);
+
+      while (true)
+      {
+        nEnd = nStart + aTokenizer.getNextRecordOffset ();
+        if (nEnd >= nNominalEnd)
+          break;
+        final CSVRow aRow = aTokenizer.readNext ();
+        if (aRow == null)
+        {
+          nEnd = nFileSize;
+          break;
+        }
+        aRows.add (_getAsList (aRow));
+      }
+    }
+    return new Chunk (nStart, nNominalEnd, nEnd, aRows);
+  }
+
+  @Nonnull
+  private Chunk _parseChunkUnchecked (@Nonnull final FileChannel aChannel,
+                                      final long nFileSize,
+                                      final long nStart,
+                                      final long nNominalEnd)
+  {
+    try
+    {
+      return _parseChunk (aChannel, nFileSize, nStart, nNominalEnd);
+    }
+    catch (final IOException ex)
+    {
+      throw new UncheckedIOException ("Failed to parse CSV chunk of " + m_aFile + " at " + nStart, ex);
+    }
+  }
+
+  /**
+   * Submits the chunks for parsing in file order. Each returned future
+   * verifies that its chunk starts where the previous chunk ended.
+   */
+  private final class ChunkSubmitter
+  {
+    private final FileChannel m_aChannel;
+    private final long m_nFileSize;
+    private final long [] m_aStarts;
+    private int m_nNext;
+    private CompletableFuture <Chunk> m_aLast;
+
+    ChunkSubmitter (@Nonnull final FileChannel aChannel, final long nFileSize, @Nonnull final long [] aStarts)
+    {
+      m_aChannel = aChannel;
+      m_nFileSize = nFileSize;
+      m_aStarts = aStarts;
+    }
+
+    @Nonnull
+    private Chunk _parse (final long nStart, final long nNominalEnd)
+    {
+      return _parseChunkUnchecked (m_aChannel, m_nFileSize, nStart, nNominalEnd);
+    }
+
+    boolean hasNext ()
+    {
+      return m_nNext < m_aStarts.length - 1;
+    }
+
+    @Nonnull
+    CompletableFuture <Chunk> submitNext ()
+    {
+      final int nIndex = m_nNext++;
+      final long nStart = m_aStarts[nIndex];
+      final long nEnd = m_aStarts[nIndex + 1];
+      final CompletableFuture <Chunk> aParsed = CompletableFuture.supplyAsync ( () -> _parse (nStart, nEnd),
+                                                                               m_aExecutor);
+      if (m_aLast == null)
+        m_aLast = aParsed;
+      else
+      {
+        // Verify that the chunk started at a record boundary
+        m_aLast = m_aLast.thenCombine (aParsed,
+                                       (aPrev, aCur) -> aCur.m_nStart == aPrev.m_nEnd ? aCur
+                                                                                      : _parse (aPrev.m_nEnd,
+                                                                                                aCur.m_nNominalEnd));
+      }
+      return m_aLast;
+    }
+  }
+
+  /**
+   * Delivers the records of the chunks in file order. Before the next chunk is
+   * taken, new chunks are submitted so that the taken chunk and the pending
+   * chunks do not exceed the maximum number of chunks in flight. If unordered,
+   * each split takes a whole chunk.
+   */
+  private static final class RowSpliterator implements Spliterator <ICommonsList <String>>
+  {
+    private final ChunkSubmitter m_aSubmitter;
+    private final int m_nMaxChunksInFlight;
+    private final boolean m_bOrdered;
+    private final ArrayDeque <CompletableFuture <Chunk>> m_aPending = new ArrayDeque <> ();
+    private ICommonsList <ICommonsList <String>> m_aRows;
+    private int m_nRowIndex;
+
+    RowSpliterator (@Nonnull final ChunkSubmitter aSubmitter, final int nMaxChunksInFlight, final boolean bOrdered)
+    {
+      m_aSubmitter = aSubmitter;
+      m_nMaxChunksInFlight = nMaxChunksInFlight;
+      m_bOrdered = bOrdered;
+    }
+
+    @Nullable
+    private ICommonsList <ICommonsList <String>> _takeNextRows ()
+    {
+      // The previously taken chunk was completely delivered
+      while (m_aPending.size () < m_nMaxChunksInFlight && m_aSubmitter.hasNext ())
+        m_aPending.add (m_aSubmitter.submitNext ());
+
+      final CompletableFuture <Chunk> aNext = m_aPending.poll ();
+      if (aNext == null)
+        return null;
+      return _join (aNext).takeRows ();
+    }
+
+    public boolean tryAdvance (@Nonnull final Consumer <? super ICommonsList <String>> aAction)
+    {
+      while (m_aRows == null || m_nRowIndex >= m_aRows.size ())
+      {
+        m_aRows = _takeNextRows ();
+        m_nRowIndex = 0;
+        if (m_aRows == null)
+          return false;
+      }
+      aAction.accept (m_aRows.get (m_nRowIndex++));
+      return true;
+    }
+
+    @Nullable
+    public Spliterator <ICommonsList <String>> trySplit ()
+    {
+      if (m_bOrdered)
+        return null;
+      final ICommonsList <ICommonsList <String>> aRows = _takeNextRows ();
+      return aRows == null ? null : aRows.spliterator ();
+    }
+
+    public long estimateSize ()
+    {
+      return Long.MAX_VALUE;
+    }
+
+    public int characteristics ()
+    {
+      return m_bOrdered ? ORDERED | NONNULL : NONNULL;
+    }
+  }
+
+  /**
+   * Determine the chunk boundaries and create the submitter for parsing them.
+   */
+  @Nonnull
+  private ChunkSubmitter _createSubmitter (@Nonnull final FileChannel aChannel) throws IOException
+  {
+    _checkCharset ();
+
+    final long nFileSize = aChannel.size ();
+    final int nChunkSize = m_nChunkSize;
+    final int nChunks = (int) Math.max (1, (nFileSize + nChunkSize - 1) / nChunkSize);
+
+    final long [] aStarts = _getChunkStarts (aChannel, nFileSize, nChunkSize, nChunks);
+    return new ChunkSubmitter (aChannel, nFileSize, aStarts);
+  }
+
+  @Nonnull
+  private static <T> T _join (@Nonnull final CompletableFuture <T> aFuture)
+  {
+    try
+    {
+      return aFuture.join ();
+    }
+    catch (final CompletionException ex)
+    {
+      if (ex.getCause () instanceof RuntimeException)
+        throw (RuntimeException) ex.getCause ();
+      throw ex;
+    }
+  }
+
+  @Nonnull
+  private FileChannel _openChannel () throws IOException
+  {
+    final FileChannel aChannel = FileChannelHelper.getFileReadChannel (m_aFile);
+    if (aChannel == null)
+      throw new IOException ("Failed to open " + m_aFile);
+    return aChannel;
+  }
+
+  /**
+   * Get all records of the file as a stream. The file is parsed in parallel
+   * in the background, at most {@link #getMaxChunksInFlight()} chunks ahead
+   * of the stream consumer. The returned stream must be closed after usage to
+   * release the file.
+   *
+   * @param bOrdered
+   *        <code>true</code> to get the records in file order,
+   *        <code>false</code> to get a parallel stream without ordering. A
+   *        parallel stream takes one chunk per split.
+   * @return The stream of records. Never <code>null</code>. Errors while
+   *         parsing are propagated as {@link UncheckedIOException}.
+   * @throws IOException
+   *         if the file cannot be opened
+   */
+  @Nonnull
+  public Stream <ICommonsList <String>> getRowStream (final boolean bOrdered) throws IOException
+  {
+    final FileChannel aChannel = _openChannel ();
+    try
+    {
+      final RowSpliterator aSpliterator = new RowSpliterator (_createSubmitter (aChannel),
+                                                              m_nMaxChunksInFlight,
+                                                              bOrdered);
+      return StreamSupport.stream (aSpliterator, !bOrdered).onClose ( () -> {
+        try
+        {
+          aChannel.close ();
+        }
+        catch (final IOException ex)
+        {
+          throw new UncheckedIOException (ex);
+        }
+      });
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      aChannel.close ();
+      throw ex;
+    }
+  }
+
+  /**
+   * Read all records of the file in parallel and pass them to the provided
+   * consumer.
+   *
+   * @param aRowConsumer
+   *        The consumer for each record. May not be <code>null</code>. If
+   *        unordered delivery is chosen, the consumer is invoked concurrently
+   *        from multiple threads and must be thread-safe.
+   * @param bOrdered
+   *        <code>true</code> to invoke the consumer in file order from the
+   *        calling thread, <code>false</code> to invoke it on the executor as
+   *        soon as a chunk is available. In both cases at most
+   *        {@link #getMaxChunksInFlight()} chunks are parsed but not yet
+   *        delivered.
+   * @throws IOException
+   *         if the file cannot be opened or parsed
+   */
+  public void readAll (@Nonnull final Consumer <? super ICommonsList <String>> aRowConsumer,
+                       final boolean bOrdered) throws IOException
+  {
+    ValueEnforcer.notNull (aRowConsumer, "RowConsumer");
+
+    try (final FileChannel aChannel = _openChannel ())
+    {
+      final ChunkSubmitter aSubmitter = _createSubmitter (aChannel);
+      if (bOrdered)
+      {
+        new RowSpliterator (aSubmitter, m_nMaxChunksInFlight, true).forEachRemaining (aRowConsumer);
+      }
+      else
+      {
+        // Wait for the oldest delivery before submitting another chunk
+        final ArrayDeque <CompletableFuture <Void>> aDeliveries = new ArrayDeque <> ();
+        while (aSubmitter.hasNext ())
+        {
+          if (aDeliveries.size () >= m_nMaxChunksInFlight)
+            _join (aDeliveries.poll ());
+          aDeliveries.add (aSubmitter.submitNext ()
+                                     .thenAcceptAsync (x -> x.takeRows ().forEach (aRowConsumer), m_aExecutor));
+        }
+        while (!aDeliveries.isEmpty ())
+          _join (aDeliveries.poll ());
+      }
+    }
+    catch (final UncheckedIOException ex)
+    {
+      throw ex.getCause ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("File", m_aFile)
+                                       .append ("Charset", m_aCharset)
+                                       .append ("SkipLines", m_nSkipLines)
+                                       .append ("ChunkSize", m_nChunkSize)
+                                       .append ("MaxChunksInFlight", m_nMaxChunksInFlight)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,480 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.csv;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.StringParser;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A single CSV record as created by {@link CSVTokenizer}. The content of all
+ * fields is stored in a single char buffer and the same object is reused for
+ * all rows read by a tokenizer. Therefore the content of this object and of
+ * all {@link CharSequence} objects returned by {@link #getField(int)} is only
+ * valid until the next row is read. Use {@link #getFieldAsString(int)} or
+ * {@link #getAsList()} to retain values.<br>
+ * If a column projection is used, only the projected columns have content.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public final class CSVRow
+{
+  /** Max value of a long that can still be multiplied by 10 safely */
+  private static final long MAX_SAFE_LONG_DIV_10 = Long.MAX_VALUE / 10;
+  /** Largest mantissa that can be represented exactly as a double */
+  private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+  private static final double [] POW10 = { 1e0,
+                                           1e1,
+                                           1e2,
+                                           1e3,
+                                           1e4,
+                                           1e5,
+                                           1e6,
+                                           1e7,
+                                           1e8,
+                                           1e9,
+                                           1e10,
+                                           1e11,
+                                           1e12,
+                                           1e13,
+                                           1e14,
+                                           1e15,
+                                           1e16,
+                                           1e17,
+                                           1e18,
+                                           1e19,
+                                           1e20,
+                                           1e21,
+                                           1e22 };
+
+  /**
+   * A read-only view on a part of the row buffer.
+   */
+  private static final class FieldView implements CharSequence
+  {
+    private final char [] m_aChars;
+    private final int m_nOfs;
+    private final int m_nLen;
+
+    FieldView (@Nonnull final char [] aChars, @Nonnegative final int nOfs, @Nonnegative final int nLen)
+    {
+      m_aChars = aChars;
+      m_nOfs = nOfs;
+      m_nLen = nLen;
+    }
+
+    public int length ()
+    {
+      return m_nLen;
+    }
+
+    public char charAt (final int nIndex)
+    {
+      if (nIndex < 0 || nIndex >= m_nLen)
+        throw new IndexOutOfBoundsException ("Index " + nIndex + " is out of bounds for length " + m_nLen);
+      return m_aChars[m_nOfs + nIndex];
+    }
+
+    @Nonnull
+    public CharSequence subSequence (final int nStart, final int nEnd)
+    {
+      if (nStart < 0 || nEnd > m_nLen || nStart > nEnd)
+        throw new IndexOutOfBoundsException ("Range " + nStart + "-" + nEnd + " is out of bounds for length " + m_nLen);
+      return new FieldView (m_aChars, m_nOfs + nStart, nEnd - nStart);
+    }
+
+    @Override
+    @Nonnull
+    public String toString ()
+    {
+      return new String (m_aChars, m_nOfs, m_nLen);
+    }
+  }
+
+  private char [] m_aChars = new char [CCSV.INITIAL_STRING_SIZE * 4];
+  private int m_nLength = 0;
+  private int [] m_aFieldStart = new int [16];
+  private int [] m_aFieldEnd = new int [16];
+  private int m_nFieldCount = 0;
+  private int m_nCurrentFieldStart = 0;
+  private boolean m_bCurrentFieldProjected = true;
+  private boolean [] m_aProjection;
+  private long m_nRowIndex = -1;
+
+  CSVRow ()
+  {}
+
+  private boolean _isProjected (final int nColumn)
+  {
+    final boolean [] aProjection = m_aProjection;
+    return aProjection == null || (nColumn < aProjection.length && aProjection[nColumn]);
+  }
+
+  void setProjection (@Nullable final boolean [] aProjection)
+  {
+    m_aProjection = aProjection;
+  }
+
+  void reset (final long nRowIndex)
+  {
+    m_nLength = 0;
+    m_nFieldCount = 0;
+    m_nCurrentFieldStart = 0;
+    m_bCurrentFieldProjected = _isProjected (0);
+    m_nRowIndex = nRowIndex;
+  }
+
+  private void _ensureCapacity (final int nAdditional)
+  {
+    final int nRequired = m_nLength + nAdditional;
+    if (nRequired > m_aChars.length)
+      m_aChars = Arrays.copyOf (m_aChars, Math.max (nRequired, m_aChars.length * 2));
+  }
+
+  void append (final char c)
+  {
+    if (m_bCurrentFieldProjected)
+    {
+      if (m_nLength == m_aChars.length)
+        _ensureCapacity (1);
+      m_aChars[m_nLength++] = c;
+    }
+  }
+
+  void append (@Nonnull final char [] aChars, final int nOfs, final int nLen)
+  {
+    if (m_bCurrentFieldProjected)
+    {
+      _ensureCapacity (nLen);
+      System.arraycopy (aChars, nOfs, m_aChars, m_nLength, nLen);
+      m_nLength += nLen;
+    }
+  }
+
+  int getCurrentFieldLength ()
+  {
+    return m_nLength - m_nCurrentFieldStart;
+  }
+
+  boolean isCurrentFieldAllWhitespace ()
+  {
+    for (int i = m_nCurrentFieldStart; i < m_nLength; ++i)
+      if (!Character.isWhitespace (m_aChars[i]))
+        return false;
+    return true;
+  }
+
+  void clearCurrentField ()
+  {
+    m_nLength = m_nCurrentFieldStart;
+  }
+
+  void finishField ()
+  {
+    if (m_nFieldCount == m_aFieldStart.length)
+    {
+      m_aFieldStart = Arrays.copyOf (m_aFieldStart, m_nFieldCount * 2);
+      m_aFieldEnd = Arrays.copyOf (m_aFieldEnd, m_nFieldCount * 2);
+    }
+    m_aFieldStart[m_nFieldCount] = m_nCurrentFieldStart;
+    m_aFieldEnd[m_nFieldCount] = m_nLength;
+    m_nFieldCount++;
+    m_nCurrentFieldStart = m_nLength;
+    m_bCurrentFieldProjected = _isProjected (m_nFieldCount);
+  }
+
+  /**
+   * @return The 0-based index of this row within the read rows. Skipped lines
+   *         are not counted.
+   */
+  @Nonnegative
+  public long getRowIndex ()
+  {
+    return m_nRowIndex;
+  }
+
+  /**
+   * @return The number of fields in this row, including the ones that are not
+   *         part of the column projection.
+   */
+  @Nonnegative
+  public int getFieldCount ()
+  {
+    return m_nFieldCount;
+  }
+
+  /**
+   * Check if the field at the provided index is part of the column projection.
+   *
+   * @param nIndex
+   *        0-based field index.
+   * @return <code>true</code> if the field exists and is projected.
+   */
+  public boolean isFieldProjected (final int nIndex)
+  {
+    return nIndex >= 0 && nIndex < m_nFieldCount && _isProjected (nIndex);
+  }
+
+  private void _checkIndex (final int nIndex)
+  {
+    ValueEnforcer.isBetweenInclusive (nIndex, "Index", 0, m_nFieldCount - 1);
+  }
+
+  /**
+   * Get the length of the field at the provided index.
+   *
+   * @param nIndex
+   *        0-based field index.
+   * @return The length of the field. Always 0 for fields that are not
+   *         projected.
+   */
+  @Nonnegative
+  public int getFieldLength (final int nIndex)
+  {
+    _checkIndex (nIndex);
+    return m_aFieldEnd[nIndex] - m_aFieldStart[nIndex];
+  }
+
+  /**
+   * Get a view on the content of the field at the provided index. No string
+   * is created. The view is only valid until the next row is read.
+   *
+   * @param nIndex
+   *        0-based field index.
+   * @return <code>null</code> if the field is not projected.
+   */
+  @Nullable
+  public CharSequence getField (final int nIndex)
+  {
+    _checkIndex (nIndex);
+    if (!_isProjected (nIndex))
+      return null;
+    return new FieldView (m_aChars, m_aFieldStart[nIndex], m_aFieldEnd[nIndex] - m_aFieldStart[nIndex]);
+  }
+
+  /**
+   * Get the content of the field at the provided index as a new String.
+   *
+   * @param nIndex
+   *        0-based field index.
+   * @return <code>null</code> if the field is not projected.
+   */
+  @Nullable
+  public String getFieldAsString (final int nIndex)
+  {
+    _checkIndex (nIndex);
+    if (!_isProjected (nIndex))
+      return null;
+    return new String (m_aChars, m_aFieldStart[nIndex], m_aFieldEnd[nIndex] - m_aFieldStart[nIndex]);
+  }
+
+  /**
+   * Parse a decimal number from the buffer. Only an optional sign followed by
+   * ASCII digits is supported.
+   *
+   * @return {@link Long#MIN_VALUE} if the field is not such a number or if the
+   *         value would overflow. As this is also the result for
+   *         "-9223372036854775808" the caller needs to handle this case.
+   */
+  private long _parseLong (final int nIndex)
+  {
+    final char [] aChars = m_aChars;
+    int i = m_aFieldStart[nIndex];
+    final int nEnd = m_aFieldEnd[nIndex];
+    if (i == nEnd)
+      return Long.MIN_VALUE;
+
+    boolean bNegative = false;
+    final char cFirst = aChars[i];
+    if (cFirst == '-' || cFirst == '+')
+    {
+      bNegative = cFirst == '-';
+      if (++i == nEnd)
+        return Long.MIN_VALUE;
+    }
+
+    long ret = 0;
+    for (; i < nEnd; ++i)
+    {
+      final int nDigit = aChars[i] - '0';
+      if (nDigit < 0 || nDigit > 9 || ret > MAX_SAFE_LONG_DIV_10)
+        return Long.MIN_VALUE;
+      ret = ret * 10 + nDigit;
+      if (ret < 0)
+        return Long.MIN_VALUE;
+    }
+    return bNegative ? -ret : ret;
+  }
+
+  /**
+   * Parse the field at the provided index as an int directly from the buffer.
+   * The semantics are the same as in
+   * {@link StringParser#parseInt(String, int)}.
+   *
+   * @param nIndex
+   *        0-based field index.
+   * @param nDefault
+   *        The default value to be returned if the field cannot be parsed or
+   *        is not projected.
+   * @return The parsed value or the default value.
+   */
+  public int getFieldAsInt (final int nIndex, final int nDefault)
+  {
+    _checkIndex (nIndex);
+    if (!_isProjected (nIndex))
+      return nDefault;
+    final long nValue = _parseLong (nIndex);
+    if (nValue >= Integer.MIN_VALUE && nValue <= Integer.MAX_VALUE)
+      return (int) nValue;
+    if (nValue != Long.MIN_VALUE)
+      return nDefault;
+    // Special cases, e.g. non-ASCII digits
+    return StringParser.parseInt (getFieldAsString (nIndex), nDefault);
+  }
+
+  /**
+   * Parse the field at the provided index as a long directly from the buffer.
+   * The semantics are the same as in
+   * {@link StringParser#parseLong(String, long)}.
+   *
+   * @param nIndex
+   *        0-based field index.
+   * @param nDefault
+   *        The default value to be returned if the field cannot be parsed or
+   *        is not projected.
+   * @return The parsed value or the default value.
+   */
+  public long getFieldAsLong (final int nIndex, final long nDefault)
+  {
+    _checkIndex (nIndex);
+    if (!_isProjected (nIndex))
+      return nDefault;
+    final long nValue = _parseLong (nIndex);
+    if (nValue != Long.MIN_VALUE)
+      return nValue;
+    // Special cases, e.g. non-ASCII digits or Long.MIN_VALUE
+    return StringParser.parseLong (getFieldAsString (nIndex), nDefault);
+  }
+
+  /**
+   * Parse the field at the provided index as a double directly from the
+   * buffer. Simple decimal numbers with up to 15 significant digits are parsed
+   * without creating a String, all other values are handled by
+   * {@link StringParser#parseDouble(String, double)}, so the semantics are the
+   * same. This includes that "," is treated as the decimal separator.
+   *
+   * @param nIndex
+   *        0-based field index.
+   * @param dDefault
+   *        The default value to be returned if the field cannot be parsed or
+   *        is not projected.
+   * @return The parsed value or the default value.
+   */
+  public double getFieldAsDouble (final int nIndex, final double dDefault)
+  {
+    _checkIndex (nIndex);
+    if (!_isProjected (nIndex))
+      return dDefault;
+
+    final char [] aChars = m_aChars;
+    int i = m_aFieldStart[nIndex];
+    final int nEnd = m_aFieldEnd[nIndex];
+    if (i < nEnd)
+    {
+      boolean bNegative = false;
+      final char cFirst = aChars[i];
+      if (cFirst == '-' || cFirst == '+')
+      {
+        bNegative = cFirst == '-';
+        ++i;
+      }
+
+      long nMantissa = 0;
+      int nDigits = 0;
+      int nFractionDigits = -1;
+      boolean bSimple = true;
+      for (; i < nEnd; ++i)
+      {
+        final char c = aChars[i];
+        if (c >= '0' && c <= '9')
+        {
+          nMantissa = nMantissa * 10 + (c - '0');
+          ++nDigits;
+          if (nFractionDigits >= 0)
+            ++nFractionDigits;
+          if (nMantissa >= MAX_EXACT_DOUBLE_MANTISSA)
+          {
+            bSimple = false;
+            break;
+          }
+        }
+        else
+          if ((c == '.' || c == ',') && nFractionDigits < 0)
+            nFractionDigits = 0;
+          else
+          {
+            bSimple = false;
+            break;
+          }
+      }
+
+      if (bSimple && nDigits > 0 && nFractionDigits < POW10.length)
+      {
+        // Both values are exact, so the division is correctly rounded
+        double ret = nMantissa;
+        if (nFractionDigits > 0)
+          ret /= POW10[nFractionDigits];
+        return bNegative ? -ret : ret;
+      }
+    }
+    return StringParser.parseDouble (getFieldAsString (nIndex), dDefault);
+  }
+
+  /**
+   * @return A new list with the String values of all projected fields.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <String> getAsList ()
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> (m_nFieldCount);
+    for (int i = 0; i < m_nFieldCount; ++i)
+      if (_isProjected (i))
+        ret.add (new String (m_aChars, m_aFieldStart[i], m_aFieldEnd[i] - m_aFieldStart[i]));
+    return ret;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("RowIndex", m_nRowIndex)
+                                       .append ("Fields", getAsList ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,595 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.csv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+
+/**
+ * A streaming CSV tokenizer that works directly on a char buffer. In contrast
+ * to {@link CSVReader} no String is created per line and per field, but all
+ * field contents are collected in a single {@link CSVRow} that is reused for
+ * all records. Fields can be accessed as {@link CharSequence} views or parsed
+ * to numeric values straight from the buffer. With a column projection only
+ * the content of the selected columns is stored at all.<br>
+ * The quoting and escaping semantics are identical to the ones of
+ * {@link CSVReader} using {@link CSVParser}. The configuration is taken from
+ * the provided {@link CSVParser}, but protected methods overridden in a
+ * {@link CSVParser} subclass are not considered.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public class CSVTokenizer implements Closeable
+{
+  /** The default size of the read buffer */
+  public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+  private final Reader m_aReader;
+  private final CSVParser m_aParser;
+  private final boolean m_bKeepCR;
+  private int m_nSkipLines = CCSV.DEFAULT_SKIP_LINES;
+  private boolean m_bVerifyReader = CCSV.DEFAULT_VERIFY_READER;
+  // Each char is a single byte of UTF-8 encoded input
+  private boolean m_bUTF8Bytes = false;
+
+  // Read buffer
+  private char [] m_aBuf;
+  private long m_nBufOffset = 0;
+  private int m_nBufPos = 0;
+  private int m_nBufEnd = 0;
+  private boolean m_bEOF = false;
+  private boolean m_bSkipLF = false;
+  private int m_nLineStart;
+  private int m_nLineEnd;
+
+  // Record state
+  private boolean m_bHasNext = true;
+  private boolean m_bLinesSkipped = false;
+  private boolean m_bPending = false;
+  private boolean m_bInField = false;
+  private final CSVRow m_aRow = new CSVRow ();
+  private long m_nRowCount = 0;
+
+  /**
+   * Constructor using the default settings of {@link CSVParser}.
+   *
+   * @param aReader
+   *        The reader to read from. May not be <code>null</code>.
+   */
+  public CSVTokenizer (@Nonnull @WillCloseWhenClosed final Reader aReader)
+  {
+    this (aReader, new CSVParser (), CCSV.DEFAULT_KEEP_CR);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aReader
+   *        The reader to read from. May not be <code>null</code>. It does not
+   *        need to be buffered.
+   * @param aParser
+   *        The parser that provides the separator, quote and escape characters
+   *        as well as the quoting options. May not be <code>null</code>.
+   * @param bKeepCR
+   *        <code>true</code> to keep carriage returns in data read,
+   *        <code>false</code> otherwise
+   */
+  public CSVTokenizer (@Nonnull @WillCloseWhenClosed final Reader aReader,
+                       @Nonnull final CSVParser aParser,
+                       final boolean bKeepCR)
+  {
+    this (aReader, aParser, bKeepCR, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aReader
+   *        The reader to read from. May not be <code>null</code>. It does not
+   *        need to be buffered.
+   * @param aParser
+   *        The parser that provides the separator, quote and escape characters
+   *        as well as the quoting options. May not be <code>null</code>.
+   * @param bKeepCR
+   *        <code>true</code> to keep carriage returns in data read,
+   *        <code>false</code> otherwise
+   * @param nBufferSize
+   *        The initial size of the read buffer. Must be &gt; 0. The buffer
+   *        grows if a single line is longer.
+   */
+  public CSVTokenizer (@Nonnull @WillCloseWhenClosed final Reader aReader,
+                       @Nonnull final CSVParser aParser,
+                       final boolean bKeepCR,
+                       @Nonnegative final int nBufferSize)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.notNull (aParser, "Parser");
+    ValueEnforcer.isGT0 (nBufferSize, "BufferSize");
+    m_aReader = aReader;
+    m_aParser = aParser;
+    m_bKeepCR = bKeepCR;
+    m_aBuf = new char [nBufferSize];
+  }
+
+  /**
+   * @return the CSVParser that provides the settings. Never <code>null</code>.
+   */
+  @Nonnull
+  public CSVParser getParser ()
+  {
+    return m_aParser;
+  }
+
+  /**
+   * @return <code>true</code> if carriage returns are kept in the data read.
+   */
+  public boolean isKeepCarriageReturns ()
+  {
+    return m_bKeepCR;
+  }
+
+  /**
+   * @return the number of lines to skip before processing.
+   */
+  @Nonnegative
+  public int getSkipLines ()
+  {
+    return m_nSkipLines;
+  }
+
+  /**
+   * Sets the number of lines to skip before reading.
+   *
+   * @param nSkipLines
+   *        the number of lines to skip. Must be &ge; 0.
+   * @return this
+   */
+  @Nonnull
+  public CSVTokenizer setSkipLines (@Nonnegative final int nSkipLines)
+  {
+    ValueEnforcer.isGE0 (nSkipLines, "SkipLines");
+    m_nSkipLines = nSkipLines;
+    return this;
+  }
+
+  /**
+   * @return <code>true</code> if the reader is verified to be ready before a
+   *         new line is read.
+   * @see CSVReader#isVerifyReader()
+   */
+  public boolean isVerifyReader ()
+  {
+    return m_bVerifyReader;
+  }
+
+  /**
+   * @param bVerifyReader
+   *        <code>true</code> if the reader should be verified to be ready
+   *        before a new line is read.
+   * @return this
+   * @see CSVReader#setVerifyReader(boolean)
+   */
+  @Nonnull
+  public CSVTokenizer setVerifyReader (final boolean bVerifyReader)
+  {
+    m_bVerifyReader = bVerifyReader;
+    return this;
+  }
+
+  /**
+   * Used by {@link CSVParallelReader} when each char read is a single byte of
+   * UTF-8 encoded content, so that character positions are counted correctly.
+   *
+   * @param bUTF8Bytes
+   *        <code>true</code> if the input consists of UTF-8 bytes
+   */
+  void setUTF8Bytes (final boolean bUTF8Bytes)
+  {
+    m_bUTF8Bytes = bUTF8Bytes;
+  }
+
+  /**
+   * Only store the content of the provided columns. All other columns are
+   * still counted but their content is skipped.
+   *
+   * @param aColumnIndices
+   *        The 0-based indices of the columns to keep. May be <code>null</code>
+   *        to keep all columns.
+   * @return this
+   */
+  @Nonnull
+  public CSVTokenizer setColumnProjection (@Nullable final int... aColumnIndices)
+  {
+    boolean [] aProjection = null;
+    if (aColumnIndices != null)
+    {
+      int nMax = -1;
+      for (final int nIndex : aColumnIndices)
+      {
+        ValueEnforcer.isGE0 (nIndex, "ColumnIndex");
+        nMax = Math.max (nMax, nIndex);
+      }
+      aProjection = new boolean [nMax + 1];
+      for (final int nIndex : aColumnIndices)
+        aProjection[nIndex] = true;
+    }
+    m_aRow.setProjection (aProjection);
+    return this;
+  }
+
+  /**
+   * @return The number of rows read so far.
+   */
+  @Nonnegative
+  public long getReadRowCount ()
+  {
+    return m_nRowCount;
+  }
+
+  /**
+   * Read more data into the buffer, keeping all data from the current buffer
+   * position.
+   *
+   * @return The number of chars the existing data was moved to the front.
+   */
+  private int _fill () throws IOException
+  {
+    final int nShift = m_nBufPos;
+    if (nShift > 0)
+    {
+      System.arraycopy (m_aBuf, nShift, m_aBuf, 0, m_nBufEnd - nShift);
+      m_nBufOffset += nShift;
+      m_nBufEnd -= nShift;
+      m_nBufPos = 0;
+    }
+    if (m_nBufEnd == m_aBuf.length)
+      m_aBuf = Arrays.copyOf (m_aBuf, m_aBuf.length * 2);
+
+    final int nRead = m_aReader.read (m_aBuf, m_nBufEnd, m_aBuf.length - m_nBufEnd);
+    if (nRead < 0)
+      m_bEOF = true;
+    else
+      m_nBufEnd += nRead;
+    return nShift;
+  }
+
+  private void _skipLF () throws IOException
+  {
+    if (m_bSkipLF)
+    {
+      // Last line ended with a CR - skip a directly following LF
+      if (m_nBufPos == m_nBufEnd && !m_bEOF)
+        _fill ();
+      if (m_nBufPos < m_nBufEnd && m_aBuf[m_nBufPos] == '\n')
+        m_nBufPos++;
+      m_bSkipLF = false;
+    }
+  }
+
+  /**
+   * Find the next physical line in the buffer. This has the same semantics as
+   * {@link CSVLineReaderKeepCR} and {@link CSVLineReaderNonBlockingBufferedReader}
+   * respectively.
+   *
+   * @return <code>true</code> if a line was found, and <code>false</code> if
+   *         the line reader would have returned <code>null</code>.
+   */
+  private boolean _readLine () throws IOException
+  {
+    _skipLF ();
+
+    final boolean bKeepCR = m_bKeepCR;
+    int nScan = m_nBufPos;
+    while (true)
+    {
+      final char [] aBuf = m_aBuf;
+      final int nBufEnd = m_nBufEnd;
+      for (; nScan < nBufEnd; ++nScan)
+      {
+        final char c = aBuf[nScan];
+        if (c == '\n' || (c == '\r' && !bKeepCR))
+        {
+          m_nLineStart = m_nBufPos;
+          m_nLineEnd = nScan;
+          m_nBufPos = nScan + 1;
+          if (c == '\r')
+            m_bSkipLF = true;
+          // Empty lines are returned as null when keeping CRs
+          return !bKeepCR || m_nLineEnd > m_nLineStart;
+        }
+      }
+
+      if (m_bEOF)
+      {
+        if (m_nBufPos < m_nBufEnd)
+        {
+          m_nLineStart = m_nBufPos;
+          m_nLineEnd = m_nBufEnd;
+          m_nBufPos = m_nBufEnd;
+          return true;
+        }
+        return false;
+      }
+      nScan -= _fill ();
+    }
+  }
+
+  private boolean _isClosed ()
+  {
+    if (!m_bVerifyReader || m_nBufPos < m_nBufEnd || m_bEOF)
+      return false;
+
+    try
+    {
+      return !m_aReader.ready ();
+    }
+    catch (final IOException ex)
+    {
+      return true;
+    }
+  }
+
+  private boolean _nextLine () throws IOException
+  {
+    if (_isClosed ())
+    {
+      m_bHasNext = false;
+      return false;
+    }
+
+    if (!m_bLinesSkipped)
+    {
+      // Perform skip of lines exactly once
+      for (int i = 0; i < m_nSkipLines; i++)
+        _readLine ();
+      m_bLinesSkipped = true;
+    }
+
+    if (!m_bHasNext)
+      return false;
+
+    if (!_readLine ())
+    {
+      m_bHasNext = false;
+      return false;
+    }
+    return true;
+  }
+
+  private boolean _isInQuotes (final boolean bInQuotes, final boolean bIgnoreQuotations)
+  {
+    return (bInQuotes && !bIgnoreQuotations) || m_bInField;
+  }
+
+  /**
+   * Parse the current line into the row. This is the same algorithm as in
+   * {@link CSVParser#parseLineMulti(String)}.
+   */
+  private void _parseLine ()
+  {
+    final char cSeparator = m_aParser.getSeparatorChar ();
+    final char cQuote = m_aParser.getQuoteChar ();
+    final char cEscape = m_aParser.getEscapeChar ();
+    final boolean bStrictQuotes = m_aParser.isStrictQuotes ();
+    final boolean bIgnoreLeadingWhiteSpace = m_aParser.isIgnoreLeadingWhiteSpace ();
+    final boolean bIgnoreQuotations = m_aParser.isIgnoreQuotations ();
+
+    final char [] aBuf = m_aBuf;
+    final CSVRow aRow = m_aRow;
+    final int nLineStart = m_nLineStart;
+    final int nLen = m_nLineEnd - nLineStart;
+
+    boolean bInQuotes = false;
+    if (m_bPending)
+    {
+      m_bPending = false;
+      bInQuotes = !bIgnoreQuotations;
+    }
+
+    for (int nIndex = 0; nIndex < nLen; nIndex++)
+    {
+      final char c = aBuf[nLineStart + nIndex];
+      if (c == cEscape)
+      {
+        if (_isInQuotes (bInQuotes, bIgnoreQuotations) && nLen > nIndex + 1)
+        {
+          final char cNext = aBuf[nLineStart + nIndex + 1];
+          if (cNext == cQuote || cNext == cEscape)
+          {
+            aRow.append (cNext);
+            nIndex++;
+          }
+        }
+      }
+      else
+        if (c == cQuote)
+        {
+          if (_isInQuotes (bInQuotes, bIgnoreQuotations) &&
+              nLen > nIndex + 1 &&
+              aBuf[nLineStart + nIndex + 1] == cQuote)
+          {
+            aRow.append (cQuote);
+            nIndex++;
+          }
+          else
+          {
+            bInQuotes = !bInQuotes;
+
+            // the tricky case of an embedded quote in the middle: a,bc"d"ef,g
+            if (!bStrictQuotes)
+            {
+              if (_isAfterThirdChar (aBuf, nLineStart, nIndex) &&
+                  aBuf[nLineStart + nIndex - 1] != cSeparator &&
+                  nLen > nIndex + 1 &&
+                  aBuf[nLineStart + nIndex + 1] != cSeparator)
+              {
+                if (bIgnoreLeadingWhiteSpace && aRow.getCurrentFieldLength () > 0 && aRow.isCurrentFieldAllWhitespace ())
+                  aRow.clearCurrentField ();
+                else
+                  aRow.append (c);
+              }
+            }
+          }
+          m_bInField = !m_bInField;
+        }
+        else
+          if (c == cSeparator && !(bInQuotes && !bIgnoreQuotations))
+          {
+            aRow.finishField ();
+            m_bInField = false;
+          }
+          else
+            if (!bStrictQuotes || (bInQuotes && !bIgnoreQuotations))
+            {
+              // Append all following regular characters at once
+              int nEnd = nIndex + 1;
+              while (nEnd < nLen)
+              {
+                final char cNext = aBuf[nLineStart + nEnd];
+                if (cNext == cSeparator || cNext == cQuote || cNext == cEscape)
+                  break;
+                nEnd++;
+              }
+              aRow.append (aBuf, nLineStart + nIndex, nEnd - nIndex);
+              nIndex = nEnd - 1;
+              m_bInField = true;
+            }
+            else
+            {
+              // Ignore character
+            }
+    }
+
+    // line is done - check status
+    if (bInQuotes && !bIgnoreQuotations)
+    {
+      // continuing a quoted section, re-append newline
+      aRow.append ('\n');
+      m_bPending = true;
+    }
+    else
+    {
+      m_bInField = false;
+      aRow.finishField ();
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the line has more than 2 characters before
+   *         the provided index.
+   */
+  private boolean _isAfterThirdChar (@Nonnull final char [] aBuf, final int nLineStart, final int nIndex)
+  {
+    if (!m_bUTF8Bytes)
+      return nIndex > 2;
+
+    // Count only the lead bytes
+    int nChars = 0;
+    for (int i = 0; i < nIndex; ++i)
+      if ((aBuf[nLineStart + i] & 0xc0) != 0x80 && ++nChars > 2)
+        return true;
+    return false;
+  }
+
+  /**
+   * @return The offset in chars from the beginning of the input, where the
+   *         next record starts. Used to split the input into chunks.
+   * @throws IOException
+   *         if reading fails
+   */
+  @Nonnegative
+  long getNextRecordOffset () throws IOException
+  {
+    _skipLF ();
+    return m_nBufOffset + m_nBufPos;
+  }
+
+  /**
+   * Read the next record. A record may span multiple lines if a quoted field
+   * contains line breaks.
+   *
+   * @return The row object which is reused for all records, or
+   *         <code>null</code> if the end of the input was reached.
+   * @throws IOException
+   *         if reading fails
+   */
+  @Nullable
+  public CSVRow readNext () throws IOException
+  {
+    m_aRow.reset (m_nRowCount);
+    boolean bAnyLine = false;
+    do
+    {
+      if (!_nextLine ())
+      {
+        // As in CSVReader, an unterminated quoted field is dropped at the end
+        // of the input
+        if (bAnyLine)
+          m_nRowCount++;
+        return bAnyLine ? m_aRow : null;
+      }
+      bAnyLine = true;
+      _parseLine ();
+    } while (m_bPending);
+
+    m_nRowCount++;
+    return m_aRow;
+  }
+
+  /**
+   * Read all remaining records and invoke the provided consumer for each of
+   * them. The row passed to the consumer is reused for all records.
+   *
+   * @param aRowConsumer
+   *        The consumer to be invoked for every record. May not be
+   *        <code>null</code>.
+   * @throws IOException
+   *         if reading fails
+   */
+  public void readAll (@Nonnull final Consumer <? super CSVRow> aRowConsumer) throws IOException
+  {
+    ValueEnforcer.notNull (aRowConsumer, "RowConsumer");
+
+    CSVRow aRow;
+    while ((aRow = readNext ()) != null)
+      aRowConsumer.accept (aRow);
+  }
+
+  /**
+   * Closes the underlying reader.
+   *
+   * @throws IOException
+   *         if the close fails
+   */
+  public void close () throws IOException
+  {
+    m_aReader.close ();
+  }
+}
@@ -23,11 +23,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
-import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.channels.FileChannel.MapMode;
 
 import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.WillNotClose;
@@ -39,9 +38,10 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.CGlobal;
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.PresentForCodeCoverage;
+import com.helger.commons.annotation.VisibleForTesting;
 import com.helger.commons.io.EAppend;
-import com.helger.commons.io.stream.ByteBufferInputStream;
-import com.helger.commons.io.stream.ByteBufferOutputStream;
+import com.helger.commons.io.stream.MappedFileInputStream;
+import com.helger.commons.io.stream.MappedFileOutputStream;
 import com.helger.commons.io.stream.StreamHelper;
 
 /**
@@ -76,14 +76,16 @@ public final class FileChannelHelper
   }
 
   @Nullable
-  private static InputStream _getMappedInputStream (@Nonnull @WillNotClose final FileChannel aChannel,
-                                                    @Nonnull final File aFile)
+  @VisibleForTesting
+  static InputStream _getMappedInputStream (@Nonnull @WillNotClose final FileChannel aChannel,
+                                            @Nonnull final File aFile,
+                                            @Nonnegative final int nWindowSize)
   {
     try
     {
-      final MappedByteBuffer aBuffer = aChannel.map (MapMode.READ_ONLY, 0, aChannel.size ());
+      final MappedFileInputStream ret = new MappedFileInputStream (aChannel, nWindowSize);
       s_aLogger.info ("Created memory mapped input stream for " + aFile);
-      return new ByteBufferInputStream (aBuffer);
+      return ret;
     }
     catch (final IOException ex)
     {
@@ -105,7 +107,7 @@ public final class FileChannelHelper
       if (getFileSize (aChannel) > CGlobal.BYTES_PER_MEGABYTE)
       {
         // Check if mapping is possible
-        final InputStream aIS = _getMappedInputStream (aChannel, aFile);
+        final InputStream aIS = _getMappedInputStream (aChannel, aFile, MappedFileInputStream.DEFAULT_WINDOW_SIZE);
         if (aIS != null)
           return aIS;
 
@@ -131,17 +133,38 @@ public final class FileChannelHelper
   }
 
   /**
-   * Get an input stream to the specified file, using memory mapping. If memory
-   * mapping fails, a regular {@link FileInputStream} is returned.
+   * Get an input stream to the specified file, using memory mapping with the
+   * default window size. If memory mapping fails, a regular
+   * {@link FileInputStream} is returned.
    *
    * @param aFile
    *        The file to use. May not be <code>null</code>.
    * @return The Input stream to use.
+   * @see MappedFileInputStream#DEFAULT_WINDOW_SIZE
    */
   @Nullable
   public static InputStream getMappedInputStream (@Nonnull final File aFile)
+  {
+    return getMappedInputStream (aFile, MappedFileInputStream.DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Get an input stream to the specified file, using memory mapping. The file
+   * is mapped window by window, so files of any size can be read. If memory
+   * mapping fails, a regular {@link FileInputStream} is returned.
+   *
+   * @param aFile
+   *        The file to use. May not be <code>null</code>.
+   * @param nWindowSize
+   *        The maximum number of bytes to be mapped at once. Must be &gt; 0.
+   * @return The Input stream to use.
+   * @since 9.0.0
+   */
+  @Nullable
+  public static InputStream getMappedInputStream (@Nonnull final File aFile, @Nonnegative final int nWindowSize)
   {
     ValueEnforcer.notNull (aFile, "File");
+    ValueEnforcer.isGT0 (nWindowSize, "WindowSize");
 
     // Open regular
     final FileInputStream aFIS = FileHelper.getInputStream (aFile);
@@ -149,7 +172,7 @@ public final class FileChannelHelper
       return null;
 
     // Try to memory map it
-    final InputStream aIS = _getMappedInputStream (aFIS.getChannel (), aFile);
+    final InputStream aIS = _getMappedInputStream (aFIS.getChannel (), aFile, nWindowSize);
     if (aIS != null)
       return aIS;
 
@@ -159,15 +182,21 @@ public final class FileChannelHelper
   }
 
   @Nullable
-  private static OutputStream _getMappedOutputStream (@Nonnull @WillNotClose final FileChannel aChannel,
-                                                      @Nonnull final File aFile)
+  @VisibleForTesting
+  static OutputStream _getMappedOutputStream (@Nonnull @WillNotClose final FileChannel aChannel,
+                                              @Nonnull final File aFile,
+                                              @Nonnull final EAppend eAppend,
+                                              @Nonnegative final int nWindowSize)
   {
     try
     {
-      // Maximum is Integer.MAX_VALUE even if a long is taken!
-      final MappedByteBuffer aBuffer = aChannel.map (MapMode.READ_WRITE, 0, Integer.MAX_VALUE);
+      if (eAppend.isAppend ())
+        aChannel.position (aChannel.size ());
+      else
+        aChannel.truncate (0);
+      final MappedFileOutputStream ret = new MappedFileOutputStream (aChannel, nWindowSize);
       s_aLogger.info ("Created memory mapped output stream for " + aFile);
-      return new ByteBufferOutputStream (aBuffer, false);
+      return ret;
     }
     catch (final IOException ex)
     {
@@ -224,9 +253,33 @@ public final class FileChannelHelper
 
   @Nullable
   public static OutputStream getMappedOutputStream (@Nonnull final File aFile, @Nonnull final EAppend eAppend)
+  {
+    return getMappedOutputStream (aFile, eAppend, MappedFileOutputStream.DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Get an output stream to the specified file, using memory mapping. The file
+   * is mapped window by window, so files of any size can be written. If memory
+   * mapping fails, a regular {@link FileOutputStream} is returned.
+   *
+   * @param aFile
+   *        The file to use. May not be <code>null</code>.
+   * @param eAppend
+   *        Appending mode. May not be <code>null</code>.
+   * @param nWindowSize
+   *        The number of bytes to be mapped at once. Must be &gt; 0.
+   * @return The Output stream to use or <code>null</code> if the file cannot
+   *         be opened.
+   * @since 9.0.0
+   */
+  @Nullable
+  public static OutputStream getMappedOutputStream (@Nonnull final File aFile,
+                                                    @Nonnull final EAppend eAppend,
+                                                    @Nonnegative final int nWindowSize)
   {
     ValueEnforcer.notNull (aFile, "File");
     ValueEnforcer.notNull (eAppend, "Append");
+    ValueEnforcer.isGT0 (nWindowSize, "WindowSize");
 
     if (FileHelper.internalCheckParentDirectoryExistanceAndAccess (aFile).isInvalid ())
       return null;
@@ -241,7 +294,7 @@ public final class FileChannelHelper
     }
 
     // Try to memory map it
-    final OutputStream aOS = _getMappedOutputStream (aRAF.getChannel (), aFile);
+    final OutputStream aOS = _getMappedOutputStream (aRAF.getChannel (), aFile, eAppend, nWindowSize);
     if (aOS != null)
       return aOS;
 
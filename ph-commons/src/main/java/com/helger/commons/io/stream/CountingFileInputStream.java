@@ -78,4 +78,16 @@ public class CountingFileInputStream extends FileInputStream
       s_aReadSizeHdl.addSize (ret);
     return ret;
   }
+
+  /**
+   * Called by {@link StreamHelper} if bytes were read from the channel of this
+   * stream without calling a read method.
+   *
+   * @param nBytes
+   *        The number of bytes read. Must be &ge; 0.
+   */
+  final void onBytesTransferred (final long nBytes)
+  {
+    s_aReadSizeHdl.addSize (nBytes);
+  }
 }
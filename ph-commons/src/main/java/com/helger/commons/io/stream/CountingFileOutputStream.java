@@ -94,6 +94,19 @@ public class CountingFileOutputStream extends FileOutputStream
     m_nBytesWritten += nLength;
   }
 
+  /**
+   * Called by {@link StreamHelper} if bytes were written to the channel of
+   * this stream without calling a write method.
+   *
+   * @param nBytes
+   *        The number of bytes written. Must be &ge; 0.
+   */
+  final void onBytesTransferred (final long nBytes)
+  {
+    s_aWriteSizeHdl.addSize (nBytes);
+    m_nBytesWritten += nBytes;
+  }
+
   @Nonnegative
   public long getBytesWritten ()
   {
@@ -0,0 +1,268 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.io.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.lang.ByteBufferHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * An {@link InputStream} that reads a {@link FileChannel} through a memory
+ * mapped window of a fixed size. When the end of the window is reached, the
+ * next part of the file is mapped. Therefore files of any size can be read,
+ * and small files are mapped only as far as needed. The first window is mapped
+ * in the constructor, so a file that cannot be mapped is reported there. A
+ * window that is no longer needed is released by the garbage collector, or
+ * immediately if an unmapper was set (see
+ * {@link ByteBufferHelper#setUnmapper(java.util.function.Consumer)}).
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public class MappedFileInputStream extends InputStream
+{
+  /** The default size of a single mapped window */
+  public static final int DEFAULT_WINDOW_SIZE = 64 * CGlobal.BYTES_PER_MEGABYTE;
+
+  private final FileChannel m_aChannel;
+  private final int m_nWindowSize;
+  private long m_nFileSize;
+  // Absolute position of the start of the current window
+  private long m_nWindowStart;
+  private MappedByteBuffer m_aWindow;
+  private long m_nMarkPos = -1;
+  private boolean m_bClosed = false;
+
+  /**
+   * Constructor using the default window size.
+   *
+   * @param aChannel
+   *        The channel to read from. May not be <code>null</code>. It is
+   *        closed when this stream is closed.
+   * @throws IOException
+   *         if the size of the channel cannot be determined or if the first
+   *         window cannot be mapped
+   */
+  public MappedFileInputStream (@Nonnull @WillCloseWhenClosed final FileChannel aChannel) throws IOException
+  {
+    this (aChannel, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aChannel
+   *        The channel to read from. May not be <code>null</code>. It is
+   *        closed when this stream is closed.
+   * @param nWindowSize
+   *        The maximum number of bytes to be mapped at once. Must be &gt; 0.
+   * @throws IOException
+   *         if the size of the channel cannot be determined or if the first
+   *         window cannot be mapped
+   */
+  public MappedFileInputStream (@Nonnull @WillCloseWhenClosed final FileChannel aChannel,
+                                @Nonnegative final int nWindowSize) throws IOException
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+    ValueEnforcer.isGT0 (nWindowSize, "WindowSize");
+    m_aChannel = aChannel;
+    m_nWindowSize = nWindowSize;
+    m_nFileSize = aChannel.size ();
+    m_nWindowStart = aChannel.position ();
+    // Map the first window now, so that the caller can fall back to regular
+    // reading if mapping is not possible
+    _ensureWindow ();
+  }
+
+  private void _checkClosed () throws IOException
+  {
+    if (m_bClosed)
+      throw new IOException ("Stream is already closed");
+  }
+
+  private void _unmapWindow ()
+  {
+    final MappedByteBuffer aWindow = m_aWindow;
+    if (aWindow != null)
+    {
+      m_nWindowStart += aWindow.position ();
+      m_aWindow = null;
+      ByteBufferHelper.unmap (aWindow);
+    }
+  }
+
+  /**
+   * Ensure that the current window has remaining bytes.
+   *
+   * @return <code>false</code> if the end of the file was reached.
+   */
+  private boolean _ensureWindow () throws IOException
+  {
+    _checkClosed ();
+    if (m_aWindow != null && m_aWindow.hasRemaining ())
+      return true;
+
+    _unmapWindow ();
+    if (m_nWindowStart >= m_nFileSize)
+    {
+      // The file may have grown in the meantime
+      m_nFileSize = m_aChannel.size ();
+      if (m_nWindowStart >= m_nFileSize)
+        return false;
+    }
+    final long nSize = Math.min (m_nWindowSize, m_nFileSize - m_nWindowStart);
+    m_aWindow = m_aChannel.map (MapMode.READ_ONLY, m_nWindowStart, nSize);
+    return true;
+  }
+
+  /**
+   * @return The absolute position in the file of the next byte to be read.
+   */
+  @Nonnegative
+  public long getPosition ()
+  {
+    return m_aWindow == null ? m_nWindowStart : m_nWindowStart + m_aWindow.position ();
+  }
+
+  private void _setPosition (final long nPosition)
+  {
+    if (m_aWindow != null && nPosition >= m_nWindowStart && nPosition <= m_nWindowStart + m_aWindow.limit ())
+    {
+      // Inside the current window
+      m_aWindow.position ((int) (nPosition - m_nWindowStart));
+    }
+    else
+    {
+      _unmapWindow ();
+      m_nWindowStart = nPosition;
+    }
+  }
+
+  /**
+   * @return The size of a single mapped window in bytes.
+   */
+  @Nonnegative
+  public int getWindowSize ()
+  {
+    return m_nWindowSize;
+  }
+
+  @Override
+  public int read () throws IOException
+  {
+    if (!_ensureWindow ())
+      return -1;
+    return m_aWindow.get () & 0xff;
+  }
+
+  @Override
+  public int read (@Nonnull final byte [] aBuf,
+                   @Nonnegative final int nOfs,
+                   @Nonnegative final int nLen) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aBuf, nOfs, nLen);
+    _checkClosed ();
+    if (nLen == 0)
+      return 0;
+
+    int nTotal = 0;
+    while (nTotal < nLen && _ensureWindow ())
+    {
+      final int nCount = Math.min (nLen - nTotal, m_aWindow.remaining ());
+      m_aWindow.get (aBuf, nOfs + nTotal, nCount);
+      nTotal += nCount;
+    }
+    return nTotal == 0 ? -1 : nTotal;
+  }
+
+  @Override
+  public long skip (final long nBytesToSkip) throws IOException
+  {
+    _checkClosed ();
+    if (nBytesToSkip <= 0)
+      return 0;
+
+    final long nPosition = getPosition ();
+    final long nSkip = Math.min (nBytesToSkip, Math.max (0, m_nFileSize - nPosition));
+    _setPosition (nPosition + nSkip);
+    return nSkip;
+  }
+
+  @Override
+  public int available () throws IOException
+  {
+    _checkClosed ();
+    return (int) Math.min (Integer.MAX_VALUE, Math.max (0, m_nFileSize - getPosition ()));
+  }
+
+  @Override
+  public boolean markSupported ()
+  {
+    return true;
+  }
+
+  @SuppressWarnings ("sync-override")
+  @Override
+  public void mark (final int nReadLimit)
+  {
+    m_nMarkPos = getPosition ();
+  }
+
+  @SuppressWarnings ("sync-override")
+  @Override
+  public void reset () throws IOException
+  {
+    _checkClosed ();
+    if (m_nMarkPos < 0)
+      throw new IOException ("Stream was not marked");
+    _setPosition (m_nMarkPos);
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (!m_bClosed)
+    {
+      m_bClosed = true;
+      _unmapWindow ();
+      m_aChannel.close ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("WindowSize", m_nWindowSize)
+                                       .append ("FileSize", m_nFileSize)
+                                       .append ("Position", getPosition ())
+                                       .append ("Closed", m_bClosed)
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.io.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.lang.ByteBufferHelper;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * An {@link OutputStream} that writes to a {@link FileChannel} through a
+ * memory mapped window of a fixed size. When the window is full, the next part
+ * of the file is mapped. The first window is mapped in the constructor, so a
+ * file that cannot be mapped is reported there. Mapping a window extends the
+ * file, so on close the file is truncated after the last written byte (but
+ * never below its original size). A window that is no longer needed is released
+ * by the garbage collector, or immediately if an unmapper was set (see
+ * {@link ByteBufferHelper#setUnmapper(java.util.function.Consumer)}). Without
+ * an unmapper, truncating the file on close may fail on platforms that do not
+ * allow truncating a mapped file (e.g. Windows).<br>
+ * The channel must be readable and writable, e.g. from a
+ * {@link java.io.RandomAccessFile} opened in "rw" mode. Writing starts at the
+ * current position of the channel.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public class MappedFileOutputStream extends OutputStream
+{
+  /** The default size of a single mapped window */
+  public static final int DEFAULT_WINDOW_SIZE = MappedFileInputStream.DEFAULT_WINDOW_SIZE;
+
+  private final FileChannel m_aChannel;
+  private final int m_nWindowSize;
+  private final long m_nInitialFileSize;
+  // Absolute position of the start of the current window
+  private long m_nWindowStart;
+  private MappedByteBuffer m_aWindow;
+  private boolean m_bClosed = false;
+
+  /**
+   * Constructor using the default window size.
+   *
+   * @param aChannel
+   *        The readable and writable channel to write to. May not be
+   *        <code>null</code>. It is closed when this stream is closed.
+   * @throws IOException
+   *         if the position or size of the channel cannot be determined or if
+   *         the first window cannot be mapped
+   */
+  public MappedFileOutputStream (@Nonnull @WillCloseWhenClosed final FileChannel aChannel) throws IOException
+  {
+    this (aChannel, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aChannel
+   *        The readable and writable channel to write to. May not be
+   *        <code>null</code>. It is closed when this stream is closed.
+   * @param nWindowSize
+   *        The number of bytes to be mapped at once. Must be &gt; 0.
+   * @throws IOException
+   *         if the position or size of the channel cannot be determined or if
+   *         the first window cannot be mapped
+   */
+  public MappedFileOutputStream (@Nonnull @WillCloseWhenClosed final FileChannel aChannel,
+                                 @Nonnegative final int nWindowSize) throws IOException
+  {
+    ValueEnforcer.notNull (aChannel, "Channel");
+    ValueEnforcer.isGT0 (nWindowSize, "WindowSize");
+    m_aChannel = aChannel;
+    m_nWindowSize = nWindowSize;
+    m_nInitialFileSize = aChannel.size ();
+    m_nWindowStart = aChannel.position ();
+    // Map the first window now, so that the caller can fall back to regular
+    // writing if mapping is not possible
+    _ensureWindow ();
+  }
+
+  private void _checkClosed () throws IOException
+  {
+    if (m_bClosed)
+      throw new IOException ("Stream is already closed");
+  }
+
+  private void _unmapWindow ()
+  {
+    final MappedByteBuffer aWindow = m_aWindow;
+    if (aWindow != null)
+    {
+      m_nWindowStart += aWindow.position ();
+      m_aWindow = null;
+      ByteBufferHelper.unmap (aWindow);
+    }
+  }
+
+  private void _ensureWindow () throws IOException
+  {
+    _checkClosed ();
+    if (m_aWindow == null || !m_aWindow.hasRemaining ())
+    {
+      _unmapWindow ();
+      m_aWindow = m_aChannel.map (MapMode.READ_WRITE, m_nWindowStart, m_nWindowSize);
+    }
+  }
+
+  /**
+   * @return The absolute position in the file of the next byte to be written.
+   */
+  @Nonnegative
+  public long getPosition ()
+  {
+    return m_aWindow == null ? m_nWindowStart : m_nWindowStart + m_aWindow.position ();
+  }
+
+  /**
+   * @return The size of a single mapped window in bytes.
+   */
+  @Nonnegative
+  public int getWindowSize ()
+  {
+    return m_nWindowSize;
+  }
+
+  @Override
+  public void write (final int b) throws IOException
+  {
+    _ensureWindow ();
+    m_aWindow.put ((byte) b);
+  }
+
+  @Override
+  public void write (@Nonnull final byte [] aBuf,
+                     @Nonnegative final int nOfs,
+                     @Nonnegative final int nLen) throws IOException
+  {
+    ValueEnforcer.isArrayOfsLen (aBuf, nOfs, nLen);
+    _checkClosed ();
+
+    int nWritten = 0;
+    while (nWritten < nLen)
+    {
+      _ensureWindow ();
+      final int nCount = Math.min (nLen - nWritten, m_aWindow.remaining ());
+      m_aWindow.put (aBuf, nOfs + nWritten, nCount);
+      nWritten += nCount;
+    }
+  }
+
+  /**
+   * Written data is directly visible to other readers of the file, so nothing
+   * needs to be done. Use {@link #force()} to write the data to the storage
+   * device.
+   */
+  @Override
+  public void flush () throws IOException
+  {
+    _checkClosed ();
+  }
+
+  /**
+   * Force the content of the current window to be written to the storage
+   * device.
+   *
+   * @throws IOException
+   *         if the stream is already closed
+   */
+  public void force () throws IOException
+  {
+    _checkClosed ();
+    if (m_aWindow != null)
+      m_aWindow.force ();
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (!m_bClosed)
+    {
+      m_bClosed = true;
+      try
+      {
+        _unmapWindow ();
+        // Remove the unused rest of the last window
+        final long nNewSize = Math.max (m_nInitialFileSize, m_nWindowStart);
+        if (m_aChannel.size () > nNewSize)
+          m_aChannel.truncate (nNewSize);
+      }
+      finally
+      {
+        m_aChannel.close ();
+      }
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("WindowSize", m_nWindowSize)
+                                       .append ("Position", getPosition ())
+                                       .append ("Closed", m_bClosed)
+                                       .getToString ();
+  }
+}
@@ -17,6 +17,7 @@
 package com.helger.commons.io.stream;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
@@ -44,6 +45,7 @@ import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.exception.mock.IMockException;
 import com.helger.commons.io.IHasInputStream;
 import com.helger.commons.mutable.MutableLong;
+import com.helger.commons.pool.ByteArrayPool;
 import com.helger.commons.state.ESuccess;
 import com.helger.commons.statistics.IMutableStatisticsHandlerSize;
 import com.helger.commons.statistics.StatisticsManager;
@@ -69,6 +71,14 @@ public final class StreamHelper
   private static final IMutableStatisticsHandlerSize s_aCharSizeHdl = StatisticsManager.getSizeHandler (StreamHelper.class.getName () +
                                                                                                         "$COPYCHARS");
 
+  /**
+   * The pool of copy buffers used if no explicit buffer is passed. The number
+   * of retained buffers is limited, so that memory consumption stays low even
+   * after many parallel copy operations.
+   */
+  private static final ByteArrayPool s_aBufferPool = new ByteArrayPool (DEFAULT_BUFSIZE,
+                                                                        Math.max (4, 2 * Runtime.getRuntime ().availableProcessors ()));
+
   @PresentForCodeCoverage
   private static final StreamHelper s_aInstance = new StreamHelper ();
 
@@ -225,7 +235,7 @@ public final class StreamHelper
   {
     try
     {
-      return copyInputStreamToOutputStream (aIS, aOS, new byte [DEFAULT_BUFSIZE], (MutableLong) null, (Long) null);
+      return _copyInputStreamToOutputStream (aIS, aOS, (byte []) null, (MutableLong) null, (Long) null);
     }
     finally
     {
@@ -256,11 +266,7 @@ public final class StreamHelper
   {
     try
     {
-      return copyInputStreamToOutputStream (aIS,
-                                            aOS,
-                                            new byte [DEFAULT_BUFSIZE],
-                                            (MutableLong) null,
-                                            Long.valueOf (nLimit));
+      return _copyInputStreamToOutputStream (aIS, aOS, (byte []) null, (MutableLong) null, Long.valueOf (nLimit));
     }
     finally
     {
@@ -285,7 +291,7 @@ public final class StreamHelper
   public static ESuccess copyInputStreamToOutputStream (@WillClose @Nullable final InputStream aIS,
                                                         @WillNotClose @Nullable final OutputStream aOS)
   {
-    return copyInputStreamToOutputStream (aIS, aOS, new byte [DEFAULT_BUFSIZE], (MutableLong) null, (Long) null);
+    return _copyInputStreamToOutputStream (aIS, aOS, (byte []) null, (MutableLong) null, (Long) null);
   }
 
   /**
@@ -309,7 +315,7 @@ public final class StreamHelper
                                                         @WillNotClose @Nullable final OutputStream aOS,
                                                         @Nullable final MutableLong aCopyByteCount)
   {
-    return copyInputStreamToOutputStream (aIS, aOS, new byte [DEFAULT_BUFSIZE], aCopyByteCount, (Long) null);
+    return _copyInputStreamToOutputStream (aIS, aOS, (byte []) null, aCopyByteCount, (Long) null);
   }
 
   /**
@@ -333,11 +339,7 @@ public final class StreamHelper
                                                                  @WillNotClose @Nullable final OutputStream aOS,
                                                                  @Nonnegative final long nLimit)
   {
-    return copyInputStreamToOutputStream (aIS,
-                                          aOS,
-                                          new byte [DEFAULT_BUFSIZE],
-                                          (MutableLong) null,
-                                          Long.valueOf (nLimit));
+    return _copyInputStreamToOutputStream (aIS, aOS, (byte []) null, (MutableLong) null, Long.valueOf (nLimit));
   }
 
   /**
@@ -442,6 +444,11 @@ public final class StreamHelper
   /**
    * Pass the content of the given input stream to the given output stream. The
    * input stream is automatically closed, whereas the output stream stays open!
+   * <br>
+   * If the input stream is a {@link FileInputStream} and the output stream is a
+   * {@link FileOutputStream} (or the respective counting variants), the data is
+   * copied via {@link FileChannel} without using the buffer. Overloads without a
+   * buffer parameter use buffers from an internal pool.
    *
    * @param aIS
    *        The input stream to read from. May be <code>null</code>.
@@ -469,18 +476,104 @@ public final class StreamHelper
                                                         @Nullable final Long aLimit)
   {
     ValueEnforcer.notEmpty (aBuffer, "Buffer");
+    return _copyInputStreamToOutputStream (aIS, aOS, aBuffer, aCopyByteCount, aLimit);
+  }
+
+  /**
+   * Check if the passed input stream and output stream can be copied via
+   * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+   * Only the exact classes are considered, because sub classes may alter the
+   * content in their read or write methods.
+   */
+  private static boolean _isFileChannelCopyPossible (@Nonnull final InputStream aIS, @Nonnull final OutputStream aOS)
+  {
+    final Class <?> aISClass = aIS.getClass ();
+    final Class <?> aOSClass = aOS.getClass ();
+    return (aISClass == FileInputStream.class || aISClass == CountingFileInputStream.class) &&
+           (aOSClass == FileOutputStream.class || aOSClass == CountingFileOutputStream.class);
+  }
+
+  /**
+   * Copy from the channel of the passed file input stream to the channel of the
+   * passed file output stream.
+   *
+   * @return The number of bytes copied or -1 if the source channel has no
+   *         known size (e.g. a pipe) and the regular copying must be used.
+   */
+  private static long _copyFileChannelToFileChannel (@Nonnull @WillNotClose final FileInputStream aIS,
+                                                     @Nonnull @WillNotClose final FileOutputStream aOS,
+                                                     @Nullable final Long aLimit) throws IOException
+  {
+    final FileChannel aSrc = aIS.getChannel ();
+    final FileChannel aDst = aOS.getChannel ();
+    final long nStartPos = aSrc.position ();
+    final long nSize = aSrc.size ();
+    if (nSize <= nStartPos)
+    {
+      // Either EOF, or a special file with an unknown size
+      return -1;
+    }
+
+    long nRest = nSize - nStartPos;
+    if (aLimit != null)
+      nRest = Math.min (nRest, aLimit.longValue ());
+
+    long nTotalBytesWritten = 0;
+    while (nRest > 0)
+    {
+      final long nBytesTransferred = aSrc.transferTo (nStartPos + nTotalBytesWritten, nRest, aDst);
+      if (nBytesTransferred <= 0)
+      {
+        // Source was truncated in the meantime
+        break;
+      }
+      nTotalBytesWritten += nBytesTransferred;
+      nRest -= nBytesTransferred;
+    }
+
+    // transferTo does not modify the position of the source channel
+    aSrc.position (nStartPos + nTotalBytesWritten);
+
+    if (aIS instanceof CountingFileInputStream)
+      ((CountingFileInputStream) aIS).onBytesTransferred (nTotalBytesWritten);
+    if (aOS instanceof CountingFileOutputStream)
+      ((CountingFileOutputStream) aOS).onBytesTransferred (nTotalBytesWritten);
+    return nTotalBytesWritten;
+  }
+
+  @Nonnull
+  private static ESuccess _copyInputStreamToOutputStream (@WillClose @Nullable final InputStream aIS,
+                                                          @WillNotClose @Nullable final OutputStream aOS,
+                                                          @Nullable final byte [] aBuffer,
+                                                          @Nullable final MutableLong aCopyByteCount,
+                                                          @Nullable final Long aLimit)
+  {
     ValueEnforcer.isTrue (aLimit == null || aLimit.longValue () >= 0, () -> "Limit may not be negative: " + aLimit);
 
+    byte [] aPooledBuffer = null;
     try
     {
       if (aIS != null && aOS != null)
       {
         // both streams are not null
-        long nTotalBytesCopied;
-        if (aLimit == null)
-          nTotalBytesCopied = _copyInputStreamToOutputStream (aIS, aOS, aBuffer);
-        else
-          nTotalBytesCopied = _copyInputStreamToOutputStreamWithLimit (aIS, aOS, aBuffer, aLimit.longValue ());
+        long nTotalBytesCopied = -1;
+        if (_isFileChannelCopyPossible (aIS, aOS))
+          nTotalBytesCopied = _copyFileChannelToFileChannel ((FileInputStream) aIS, (FileOutputStream) aOS, aLimit);
+
+        if (nTotalBytesCopied < 0)
+        {
+          byte [] aRealBuffer = aBuffer;
+          if (aRealBuffer == null)
+          {
+            aPooledBuffer = s_aBufferPool.borrowObject ();
+            aRealBuffer = aPooledBuffer;
+          }
+
+          if (aLimit == null)
+            nTotalBytesCopied = _copyInputStreamToOutputStream (aIS, aOS, aRealBuffer);
+          else
+            nTotalBytesCopied = _copyInputStreamToOutputStreamWithLimit (aIS, aOS, aRealBuffer, aLimit.longValue ());
+        }
 
         // Add to statistics
         s_aByteSizeHdl.addSize (nTotalBytesCopied);
@@ -498,6 +591,9 @@ public final class StreamHelper
     }
     finally
     {
+      if (aPooledBuffer != null)
+        s_aBufferPool.returnObject (aPooledBuffer);
+
       // Ensure input stream is closed, even if output stream is null
       close (aIS);
     }
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.io.streamprovider;
+
+import java.io.File;
+import java.io.InputStream;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.io.IHasInputStreamAndReader;
+import com.helger.commons.io.file.FileChannelHelper;
+import com.helger.commons.io.stream.MappedFileInputStream;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * An {@link java.io.InputStream} provider that reads a file using memory
+ * mapped windows.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ * @see MappedFileInputStream
+ */
+public class MappedFileInputStreamProvider implements IHasInputStreamAndReader
+{
+  private final File m_aFile;
+  private final int m_nWindowSize;
+
+  public MappedFileInputStreamProvider (@Nonnull final File aFile)
+  {
+    this (aFile, MappedFileInputStream.DEFAULT_WINDOW_SIZE);
+  }
+
+  public MappedFileInputStreamProvider (@Nonnull final File aFile, @Nonnegative final int nWindowSize)
+  {
+    m_aFile = ValueEnforcer.notNull (aFile, "File");
+    m_nWindowSize = ValueEnforcer.isGT0 (nWindowSize, "WindowSize");
+  }
+
+  @Nonnull
+  public File getFile ()
+  {
+    return m_aFile;
+  }
+
+  @Nonnegative
+  public int getWindowSize ()
+  {
+    return m_nWindowSize;
+  }
+
+  /**
+   * @return A new input stream or <code>null</code> if the file cannot be
+   *         opened. If memory mapping fails, a regular input stream is
+   *         returned.
+   */
+  @Nullable
+  public InputStream getInputStream ()
+  {
+    return FileChannelHelper.getMappedInputStream (m_aFile, m_nWindowSize);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (null).append ("File", m_aFile)
+                                       .append ("WindowSize", m_nWindowSize)
+                                       .getToString ();
+  }
+}
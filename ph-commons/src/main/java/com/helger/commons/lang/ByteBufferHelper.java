@@ -17,13 +17,19 @@
 package com.helger.commons.lang;
 
 import java.nio.ByteBuffer;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.PresentForCodeCoverage;
+import com.helger.commons.state.ESuccess;
 
 /**
  * Contains some {@link ByteBuffer} utility methods.
@@ -33,12 +39,86 @@ import com.helger.commons.annotation.PresentForCodeCoverage;
 @Immutable
 public final class ByteBufferHelper
 {
+  private static final Logger s_aLogger = LoggerFactory.getLogger (ByteBufferHelper.class);
+  private static volatile Consumer <? super ByteBuffer> s_aUnmapper = null;
+
   @PresentForCodeCoverage
   private static final ByteBufferHelper s_aInstance = new ByteBufferHelper ();
 
   private ByteBufferHelper ()
   {}
 
+  /**
+   * Set the callback that releases the memory of a direct or memory mapped
+   * {@link ByteBuffer} immediately. By default no unmapper is present, and the
+   * memory is released by the garbage collector. Releasing the memory
+   * explicitly requires JDK internal API, so an application that wants this
+   * must supply the implementation for its platform.
+   *
+   * @param aUnmapper
+   *        The unmapper to be used. May be <code>null</code> to rely on the
+   *        garbage collector.
+   * @since 9.0.0
+   */
+  public static void setUnmapper (@Nullable final Consumer <? super ByteBuffer> aUnmapper)
+  {
+    s_aUnmapper = aUnmapper;
+  }
+
+  /**
+   * @return The unmapper set via {@link #setUnmapper(Consumer)}. May be
+   *         <code>null</code>.
+   * @since 9.0.0
+   */
+  @Nullable
+  public static Consumer <? super ByteBuffer> getUnmapper ()
+  {
+    return s_aUnmapper;
+  }
+
+  /**
+   * @return <code>true</code> if an unmapper is present and
+   *         {@link #unmap(ByteBuffer)} may succeed, <code>false</code> if not.
+   */
+  public static boolean isUnmapSupported ()
+  {
+    return s_aUnmapper != null;
+  }
+
+  /**
+   * Release the memory of a direct or memory mapped {@link ByteBuffer}
+   * immediately instead of waiting for the garbage collector, using the
+   * unmapper set via {@link #setUnmapper(Consumer)}. The buffer and all buffers
+   * derived from it (duplicates, slices) may not be accessed afterwards.
+   *
+   * @param aBuffer
+   *        The buffer to unmap. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the buffer was unmapped,
+   *         {@link ESuccess#FAILURE} if it is not a direct buffer, if no
+   *         unmapper is present or if the unmapper failed.
+   */
+  @Nonnull
+  public static ESuccess unmap (@Nonnull final ByteBuffer aBuffer)
+  {
+    ValueEnforcer.notNull (aBuffer, "Buffer");
+
+    final Consumer <? super ByteBuffer> aUnmapper = s_aUnmapper;
+    if (aUnmapper == null || !aBuffer.isDirect ())
+      return ESuccess.FAILURE;
+
+    try
+    {
+      aUnmapper.accept (aBuffer);
+      return ESuccess.SUCCESS;
+    }
+    catch (final RuntimeException ex)
+    {
+      if (s_aLogger.isDebugEnabled ())
+        s_aLogger.debug ("Failed to unmap byte buffer", ex);
+      return ESuccess.FAILURE;
+    }
+  }
+
   @Nonnegative
   private static int _doTransfer (@Nonnull final ByteBuffer aSrcBuffer, @Nonnull final ByteBuffer aDstBuffer)
   {
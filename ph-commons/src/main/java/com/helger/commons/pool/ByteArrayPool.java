@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.pool;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A pool for byte arrays of a fixed size, e.g. to be used as temporary copy
+ * buffers. In contrast to {@link ObjectPool} and {@link ConcurrentObjectPool}
+ * this pool never blocks: if no array is available a new one is created, and
+ * if the pool is already full a returned array is simply dropped. Therefore the
+ * number of retained arrays is bounded, but not the number of arrays in use.
+ * <br>
+ * Note: borrowed arrays are not cleared, so they may contain data from a
+ * previous usage.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public final class ByteArrayPool implements IMutableObjectPool <byte []>
+{
+  private final int m_nArraySize;
+  private final int m_nMaxPooled;
+  private final ArrayBlockingQueue <byte []> m_aPool;
+
+  /**
+   * Constructor
+   *
+   * @param nArraySize
+   *        The size of each byte array. Must be &gt; 0.
+   * @param nMaxPooled
+   *        The maximum number of idle arrays to be retained. Must be &gt; 0.
+   */
+  public ByteArrayPool (@Nonnegative final int nArraySize, @Nonnegative final int nMaxPooled)
+  {
+    ValueEnforcer.isGT0 (nArraySize, "ArraySize");
+    ValueEnforcer.isGT0 (nMaxPooled, "MaxPooled");
+    m_nArraySize = nArraySize;
+    m_nMaxPooled = nMaxPooled;
+    m_aPool = new ArrayBlockingQueue <> (nMaxPooled);
+  }
+
+  /**
+   * @return The size of each byte array. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getArraySize ()
+  {
+    return m_nArraySize;
+  }
+
+  /**
+   * @return The maximum number of idle arrays retained. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxPooled ()
+  {
+    return m_nMaxPooled;
+  }
+
+  /**
+   * @return The number of idle arrays currently retained. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getPooledCount ()
+  {
+    return m_aPool.size ();
+  }
+
+  /**
+   * Borrow a byte array from the pool. If no array is available, a new one is
+   * created. This method never blocks.
+   *
+   * @return A byte array of {@link #getArraySize()} bytes. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public byte [] borrowObject ()
+  {
+    final byte [] ret = m_aPool.poll ();
+    return ret != null ? ret : new byte [m_nArraySize];
+  }
+
+  /**
+   * Return a previously borrowed byte array to the pool. The array may not be
+   * used by the caller afterwards.
+   *
+   * @param aItem
+   *        The array to be returned. May not be <code>null</code>.
+   * @return {@link ESuccess#SUCCESS} if the array was added to the pool,
+   *         {@link ESuccess#FAILURE} if the pool is full or if the array has a
+   *         different size.
+   */
+  @Nonnull
+  public ESuccess returnObject (@Nonnull final byte [] aItem)
+  {
+    ValueEnforcer.notNull (aItem, "Item");
+    if (aItem.length != m_nArraySize)
+      return ESuccess.FAILURE;
+    return ESuccess.valueOf (m_aPool.offer (aItem));
+  }
+
+  @Override
+  public void clearUnusedItems ()
+  {
+    m_aPool.clear ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("ArraySize", m_nArraySize)
+                                       .append ("MaxPooled", m_nMaxPooled)
+                                       .append ("PooledCount", m_aPool.size ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,582 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.pool;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.functional.ISupplier;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.statistics.StatisticsHistogram;
+import com.helger.commons.statistics.StatisticsHistogramSnapshot;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A generic object pool that does not lock when borrowing or returning an
+ * object, as long as an object is available. Compared to {@link ObjectPool}
+ * this pool
+ * <ul>
+ * <li>keeps each object in a slot with an atomic state, so borrowing is a
+ * simple compare-and-set on an idle slot</li>
+ * <li>optionally prefers the object the current thread used last (thread
+ * affinity), which avoids contention if every thread borrows and returns an
+ * object repeatedly</li>
+ * <li>creates objects lazily up to the maximum size and evicts idle objects
+ * again, based on the configured minimum idle count, maximum idle count and
+ * idle timeout</li>
+ * <li>records borrow statistics</li>
+ * </ul>
+ * Only if all objects are borrowed, {@link #borrowObject()} blocks until an
+ * object is returned.
+ *
+ * @author Philip Helger
+ * @param <DATATYPE>
+ *        The type of the objects contained in the pool.
+ * @since 9.0.0
+ */
+@ThreadSafe
+public final class ConcurrentObjectPool <DATATYPE> implements IMutableObjectPool <DATATYPE>
+{
+  /** By default thread affinity is disabled */
+  public static final boolean DEFAULT_THREAD_AFFINITY = false;
+  /** By default no idle object is kept on eviction */
+  public static final int DEFAULT_MIN_IDLE = 0;
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (ConcurrentObjectPool.class);
+
+  private static final int STATE_IDLE = 0;
+  private static final int STATE_BORROWED = 1;
+  private static final int STATE_REMOVED = 2;
+
+  private static final class Slot <T>
+  {
+    private final T m_aObject;
+    private final AtomicInteger m_aState = new AtomicInteger (STATE_BORROWED);
+    private volatile long m_nLastReturnNanos;
+
+    Slot (@Nonnull final T aObject)
+    {
+      m_aObject = aObject;
+    }
+
+    boolean tryBorrow ()
+    {
+      return m_aState.get () == STATE_IDLE && m_aState.compareAndSet (STATE_IDLE, STATE_BORROWED);
+    }
+
+    boolean tryRemoveIdle ()
+    {
+      return m_aState.get () == STATE_IDLE && m_aState.compareAndSet (STATE_IDLE, STATE_REMOVED);
+    }
+  }
+
+  private final int m_nMaxSize;
+  private final ISupplier <? extends DATATYPE> m_aFactory;
+  // One permit per object that may be borrowed
+  private final Semaphore m_aPermits;
+  // All objects, borrowed or idle
+  private final CopyOnWriteArrayList <Slot <DATATYPE>> m_aSlots = new CopyOnWriteArrayList <> ();
+  // The number of slots including the ones currently being created
+  private final AtomicInteger m_aSlotCount = new AtomicInteger (0);
+  // The number of idle slots
+  private final AtomicInteger m_aIdleCount = new AtomicInteger (0);
+  // Weak, so that removed slots and this pool are not retained by any thread
+  private final ThreadLocal <WeakReference <Slot <DATATYPE>>> m_aLastSlot = new ThreadLocal <> ();
+  private final AtomicLong m_aLastEvictionNanos = new AtomicLong (System.nanoTime ());
+
+  private volatile boolean m_bThreadAffinity = DEFAULT_THREAD_AFFINITY;
+  private volatile int m_nMinIdle = DEFAULT_MIN_IDLE;
+  private volatile int m_nMaxIdle;
+  private volatile long m_nIdleTimeoutNanos = 0;
+
+  // Statistics
+  private final LongAdder m_aBorrowCount = new LongAdder ();
+  private final LongAdder m_aBorrowWaitCount = new LongAdder ();
+  private final LongAdder m_aCreateCount = new LongAdder ();
+  private final LongAdder m_aEvictCount = new LongAdder ();
+  private final StatisticsHistogram m_aBorrowNanos = new StatisticsHistogram ();
+
+  /**
+   * Create a new object pool for a maximum amount of items and a factory that
+   * creates the objects on demand.
+   *
+   * @param nMaxSize
+   *        The maximum number of items in the pool. Must be &ge; 1.
+   * @param aFactory
+   *        The factory to create object. May not be <code>null</code>. The
+   *        factory may not create <code>null</code> objects, as this leads to
+   *        an error!
+   */
+  public ConcurrentObjectPool (@Nonnegative final int nMaxSize, @Nonnull final ISupplier <? extends DATATYPE> aFactory)
+  {
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    ValueEnforcer.notNull (aFactory, "Factory");
+
+    m_nMaxSize = nMaxSize;
+    m_aFactory = aFactory;
+    m_aPermits = new Semaphore (nMaxSize);
+    m_nMaxIdle = nMaxSize;
+  }
+
+  /**
+   * @return The maximum number of objects in this pool. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxSize ()
+  {
+    return m_nMaxSize;
+  }
+
+  /**
+   * @return <code>true</code> if a thread preferably gets the object it
+   *         returned last, <code>false</code> if not.
+   */
+  public boolean isThreadAffinity ()
+  {
+    return m_bThreadAffinity;
+  }
+
+  /**
+   * Enable or disable thread affinity. If enabled, each thread remembers the
+   * object it returned last and tries to borrow the same object again.
+   *
+   * @param bThreadAffinity
+   *        <code>true</code> to enable thread affinity, <code>false</code> to
+   *        disable it.
+   * @return this for chaining
+   */
+  @Nonnull
+  public ConcurrentObjectPool <DATATYPE> setThreadAffinity (final boolean bThreadAffinity)
+  {
+    m_bThreadAffinity = bThreadAffinity;
+    return this;
+  }
+
+  /**
+   * @return The minimum number of idle objects that are kept when evicting
+   *         idle objects based on the idle timeout. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getMinIdle ()
+  {
+    return m_nMinIdle;
+  }
+
+  /**
+   * Set the minimum number of idle objects that are kept when evicting idle
+   * objects based on the idle timeout.
+   *
+   * @param nMinIdle
+   *        The minimum number of idle objects. Must be &ge; 0 and &le; the
+   *        maximum number of idle objects.
+   * @return this for chaining
+   */
+  @Nonnull
+  public ConcurrentObjectPool <DATATYPE> setMinIdle (@Nonnegative final int nMinIdle)
+  {
+    ValueEnforcer.isBetweenInclusive (nMinIdle, "MinIdle", 0, m_nMaxIdle);
+    m_nMinIdle = nMinIdle;
+    return this;
+  }
+
+  /**
+   * @return The maximum number of idle objects. If more objects are returned,
+   *         they are discarded. Always &ge; 0 and &le; the maximum size.
+   */
+  @Nonnegative
+  public int getMaxIdle ()
+  {
+    return m_nMaxIdle;
+  }
+
+  /**
+   * Set the maximum number of idle objects. If an object is returned while
+   * already this number of objects is idle, the returned object is discarded.
+   *
+   * @param nMaxIdle
+   *        The maximum number of idle objects. Must be &ge; the minimum number
+   *        of idle objects and &le; the maximum size.
+   * @return this for chaining
+   */
+  @Nonnull
+  public ConcurrentObjectPool <DATATYPE> setMaxIdle (@Nonnegative final int nMaxIdle)
+  {
+    ValueEnforcer.isBetweenInclusive (nMaxIdle, "MaxIdle", m_nMinIdle, m_nMaxSize);
+    m_nMaxIdle = nMaxIdle;
+    return this;
+  }
+
+  /**
+   * @return The duration after which an idle object is evicted.
+   *         <code>null</code> if idle objects are not evicted based on time.
+   */
+  @Nullable
+  public Duration getIdleTimeout ()
+  {
+    final long nNanos = m_nIdleTimeoutNanos;
+    return nNanos <= 0 ? null : Duration.ofNanos (nNanos);
+  }
+
+  /**
+   * Set the duration after which an idle object is evicted. The eviction is
+   * performed as part of {@link #returnObject(Object)} or explicitly by
+   * calling {@link #evictIdleObjects()}.
+   *
+   * @param aIdleTimeout
+   *        The duration to use. May be <code>null</code> or zero to disable
+   *        time based eviction.
+   * @return this for chaining
+   */
+  @Nonnull
+  public ConcurrentObjectPool <DATATYPE> setIdleTimeout (@Nullable final Duration aIdleTimeout)
+  {
+    if (aIdleTimeout != null)
+      ValueEnforcer.isFalse (aIdleTimeout.isNegative (), "IdleTimeout may not be negative");
+    m_nIdleTimeoutNanos = aIdleTimeout == null ? 0 : aIdleTimeout.toNanos ();
+    return this;
+  }
+
+  /**
+   * @return The number of objects currently in the pool, borrowed or idle.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aSlots.size ();
+  }
+
+  /**
+   * @return The number of objects currently idle.
+   */
+  @Nonnegative
+  public int getIdleCount ()
+  {
+    return m_aIdleCount.get ();
+  }
+
+  @Nullable
+  private Slot <DATATYPE> _getLastSlot ()
+  {
+    final WeakReference <Slot <DATATYPE>> aRef = m_aLastSlot.get ();
+    return aRef == null ? null : aRef.get ();
+  }
+
+  private boolean _tryBorrow (@Nonnull final Slot <DATATYPE> aSlot)
+  {
+    if (!aSlot.tryBorrow ())
+      return false;
+    m_aIdleCount.decrementAndGet ();
+    return true;
+  }
+
+  private boolean _tryRemoveIdle (@Nonnull final Slot <DATATYPE> aSlot)
+  {
+    if (!aSlot.tryRemoveIdle ())
+      return false;
+    m_aIdleCount.decrementAndGet ();
+    _removeSlot (aSlot);
+    return true;
+  }
+
+  @Nullable
+  private Slot <DATATYPE> _findIdleSlot ()
+  {
+    if (m_bThreadAffinity)
+    {
+      final Slot <DATATYPE> aSlot = _getLastSlot ();
+      if (aSlot != null && _tryBorrow (aSlot))
+        return aSlot;
+    }
+
+    for (final Slot <DATATYPE> aSlot : m_aSlots)
+      if (_tryBorrow (aSlot))
+        return aSlot;
+    return null;
+  }
+
+  @Nullable
+  private Slot <DATATYPE> _tryCreateSlot ()
+  {
+    // Reserve a place first
+    int nCount;
+    do
+    {
+      nCount = m_aSlotCount.get ();
+      if (nCount >= m_nMaxSize)
+        return null;
+    } while (!m_aSlotCount.compareAndSet (nCount, nCount + 1));
+
+    final DATATYPE aObject;
+    try
+    {
+      aObject = m_aFactory.get ();
+      if (aObject == null)
+        throw new IllegalStateException ("The factory returned a null object!");
+    }
+    catch (final RuntimeException ex)
+    {
+      m_aSlotCount.decrementAndGet ();
+      throw ex;
+    }
+
+    // Slots are created in borrowed state
+    final Slot <DATATYPE> ret = new Slot <> (aObject);
+    m_aSlots.add (ret);
+    m_aCreateCount.increment ();
+    return ret;
+  }
+
+  @Nullable
+  public DATATYPE borrowObject ()
+  {
+    final long nStartNanos = System.nanoTime ();
+
+    // Ensure an object is available
+    if (!m_aPermits.tryAcquire ())
+    {
+      m_aBorrowWaitCount.increment ();
+      try
+      {
+        m_aPermits.acquire ();
+      }
+      catch (final InterruptedException ex)
+      {
+        // In case of acquisition interruption -> return null
+        s_aLogger.error ("ConcurrentObjectPool interrupted", ex);
+        Thread.currentThread ().interrupt ();
+        return null;
+      }
+    }
+
+    Slot <DATATYPE> aSlot;
+    try
+    {
+      while (true)
+      {
+        aSlot = _findIdleSlot ();
+        if (aSlot != null)
+          break;
+        aSlot = _tryCreateSlot ();
+        if (aSlot != null)
+          break;
+        // Another thread is just creating or evicting an object
+        Thread.yield ();
+      }
+    }
+    catch (final RuntimeException ex)
+    {
+      m_aPermits.release ();
+      throw ex;
+    }
+
+    if (m_bThreadAffinity && _getLastSlot () != aSlot)
+      m_aLastSlot.set (new WeakReference <> (aSlot));
+
+    m_aBorrowCount.increment ();
+    m_aBorrowNanos.recordValue (System.nanoTime () - nStartNanos);
+    return aSlot.m_aObject;
+  }
+
+  @Nullable
+  private Slot <DATATYPE> _findBorrowedSlot (@Nonnull final DATATYPE aItem)
+  {
+    if (m_bThreadAffinity)
+    {
+      final Slot <DATATYPE> aSlot = _getLastSlot ();
+      if (aSlot != null && aSlot.m_aObject == aItem && aSlot.m_aState.get () == STATE_BORROWED)
+        return aSlot;
+    }
+
+    for (final Slot <DATATYPE> aSlot : m_aSlots)
+      if (aSlot.m_aObject == aItem && aSlot.m_aState.get () == STATE_BORROWED)
+        return aSlot;
+    return null;
+  }
+
+  private void _removeSlot (@Nonnull final Slot <DATATYPE> aSlot)
+  {
+    m_aSlots.remove (aSlot);
+    m_aSlotCount.decrementAndGet ();
+    m_aEvictCount.increment ();
+  }
+
+  @Nonnull
+  private static ESuccess _returnedTwice (@Nonnull final Object aItem)
+  {
+    s_aLogger.warn ("Object " + aItem + " was returned concurrently by another thread!");
+    return ESuccess.FAILURE;
+  }
+
+  @Nonnull
+  public ESuccess returnObject (@Nonnull final DATATYPE aItem)
+  {
+    final Slot <DATATYPE> aSlot = _findBorrowedSlot (aItem);
+    if (aSlot == null)
+    {
+      s_aLogger.warn ("Object " + aItem + " is not pooled!");
+      return ESuccess.FAILURE;
+    }
+
+    // Reserve the idle place before the slot becomes visible as idle
+    if (m_aIdleCount.incrementAndGet () > m_nMaxIdle)
+    {
+      // Too many idle objects - discard this one
+      m_aIdleCount.decrementAndGet ();
+      if (!aSlot.m_aState.compareAndSet (STATE_BORROWED, STATE_REMOVED))
+        return _returnedTwice (aItem);
+      _removeSlot (aSlot);
+    }
+    else
+    {
+      aSlot.m_nLastReturnNanos = System.nanoTime ();
+      if (!aSlot.m_aState.compareAndSet (STATE_BORROWED, STATE_IDLE))
+      {
+        m_aIdleCount.decrementAndGet ();
+        return _returnedTwice (aItem);
+      }
+    }
+
+    // Okay, we have one more object available
+    m_aPermits.release ();
+
+    _evictIfNecessary ();
+    return ESuccess.SUCCESS;
+  }
+
+  private void _evictIfNecessary ()
+  {
+    final long nIdleTimeoutNanos = m_nIdleTimeoutNanos;
+    if (nIdleTimeoutNanos > 0)
+    {
+      // Check at most twice per timeout period
+      final long nLast = m_aLastEvictionNanos.get ();
+      final long nNow = System.nanoTime ();
+      if (nNow - nLast >= nIdleTimeoutNanos / 2 && m_aLastEvictionNanos.compareAndSet (nLast, nNow))
+        evictIdleObjects ();
+    }
+  }
+
+  /**
+   * Evict all objects that are idle for longer than the idle timeout, as long
+   * as more than the minimum number of idle objects are present. If no idle
+   * timeout is set, nothing happens.
+   *
+   * @return The number of evicted objects. Always &ge; 0.
+   */
+  @Nonnegative
+  public int evictIdleObjects ()
+  {
+    final long nIdleTimeoutNanos = m_nIdleTimeoutNanos;
+    if (nIdleTimeoutNanos <= 0)
+      return 0;
+
+    final long nNow = System.nanoTime ();
+    int nIdleCount = getIdleCount ();
+    int ret = 0;
+    for (final Slot <DATATYPE> aSlot : m_aSlots)
+    {
+      if (nIdleCount <= m_nMinIdle)
+        break;
+      if (nNow - aSlot.m_nLastReturnNanos >= nIdleTimeoutNanos && _tryRemoveIdle (aSlot))
+      {
+        nIdleCount--;
+        ret++;
+      }
+    }
+    return ret;
+  }
+
+  public void clearUnusedItems ()
+  {
+    for (final Slot <DATATYPE> aSlot : m_aSlots)
+      _tryRemoveIdle (aSlot);
+  }
+
+  /**
+   * @return The number of successful borrow operations. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getBorrowCount ()
+  {
+    return m_aBorrowCount.sum ();
+  }
+
+  /**
+   * @return The number of borrow operations that had to wait, because all
+   *         objects were borrowed. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getBorrowWaitCount ()
+  {
+    return m_aBorrowWaitCount.sum ();
+  }
+
+  /**
+   * @return The number of objects created by the factory. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getCreateCount ()
+  {
+    return m_aCreateCount.sum ();
+  }
+
+  /**
+   * @return The number of objects evicted or discarded. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getEvictCount ()
+  {
+    return m_aEvictCount.sum ();
+  }
+
+  /**
+   * @return A snapshot of the borrow latencies in nanoseconds. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public StatisticsHistogramSnapshot getBorrowLatencySnapshot ()
+  {
+    return m_aBorrowNanos.getSnapshot ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MaxSize", m_nMaxSize)
+                                       .append ("Factory", m_aFactory)
+                                       .append ("ThreadAffinity", m_bThreadAffinity)
+                                       .append ("MinIdle", m_nMinIdle)
+                                       .append ("MaxIdle", m_nMaxIdle)
+                                       .append ("IdleTimeoutNanos", m_nIdleTimeoutNanos)
+                                       .append ("Size", getSize ())
+                                       .getToString ();
+  }
+}
@@ -50,4 +50,14 @@ public interface IMutableObjectPool <DATATYPE>
    */
   @Nonnull
   ESuccess returnObject (@Nonnull DATATYPE aItem);
+
+  /**
+   * Discard all objects that are currently not borrowed, so that they are
+   * created anew upon the next borrow. The default implementation does
+   * nothing.
+   *
+   * @since 9.0.0
+   */
+  default void clearUnusedItems ()
+  {}
 }
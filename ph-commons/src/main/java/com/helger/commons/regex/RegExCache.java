@@ -29,7 +29,11 @@ import com.helger.commons.cache.Cache;
 
 /**
  * This class provides a cached for compiled regular expressions. It caches up
- * to a limited number of compiled {@link Pattern} objects.
+ * to a limited number of compiled {@link Pattern} objects.<br>
+ * The concurrent cache engine is used, so that compiling one pattern does not
+ * block the retrieval of other patterns. Note: in contrast to the default
+ * engine the patterns are kept as strong references, so up to
+ * {@link #MAX_CACHE_SIZE} patterns stay in memory.
  *
  * @author Philip Helger
  */
@@ -49,7 +53,7 @@ public final class RegExCache extends Cache <RegExPattern, Pattern>
 
   private RegExCache ()
   {
-    super (RegExPattern::getAsPattern, MAX_CACHE_SIZE, RegExCache.class.getName ());
+    super (RegExPattern::getAsPattern, MAX_CACHE_SIZE, RegExCache.class.getName (), true);
   }
 
   public static boolean isInstantiated ()
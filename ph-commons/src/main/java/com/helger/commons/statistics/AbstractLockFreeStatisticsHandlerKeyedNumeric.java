@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsSet;
+
+/**
+ * Abstract base class for lock-free keyed numeric statistic handler. Compared to
+ * {@link AbstractStatisticsHandlerKeyedNumeric} the per-key values are stored in
+ * a {@link ConcurrentHashMap} and no lock is taken when adding a value.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public abstract class AbstractLockFreeStatisticsHandlerKeyedNumeric implements IStatisticsHandlerKeyedNumeric
+{
+  private final LongAdder m_aInvocationCount = new LongAdder ();
+  private final ConcurrentHashMap <String, StatisticsNumericAccumulator> m_aMap = new ConcurrentHashMap <> ();
+  // ConcurrentHashMap does not allow for null keys
+  private final AtomicReference <StatisticsNumericAccumulator> m_aNullKeyValue = new AtomicReference <> ();
+
+  @Nonnegative
+  public final int getInvocationCount ()
+  {
+    return m_aInvocationCount.intValue ();
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeys ()
+  {
+    final ICommonsSet <String> ret = new CommonsHashSet <> (m_aMap.keySet ());
+    if (m_aNullKeyValue.get () != null)
+      ret.add (null);
+    return ret;
+  }
+
+  @Nullable
+  private StatisticsNumericAccumulator _getValue (@Nullable final String sKey)
+  {
+    return sKey == null ? m_aNullKeyValue.get () : m_aMap.get (sKey);
+  }
+
+  protected final void addValue (@Nullable final String sKey, final long nValue)
+  {
+    m_aInvocationCount.increment ();
+
+    StatisticsNumericAccumulator aValue = _getValue (sKey);
+    if (aValue == null)
+    {
+      if (sKey == null)
+      {
+        m_aNullKeyValue.compareAndSet (null, new StatisticsNumericAccumulator ());
+        aValue = m_aNullKeyValue.get ();
+      }
+      else
+        aValue = m_aMap.computeIfAbsent (sKey, k -> new StatisticsNumericAccumulator ());
+    }
+    aValue.add (nValue);
+  }
+
+  @CheckForSigned
+  public final int getInvocationCount (@Nullable final String sKey)
+  {
+    final StatisticsNumericAccumulator aValue = _getValue (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_UINT : aValue.getInvocationCount ();
+  }
+
+  @Nullable
+  public final BigInteger getSum (@Nullable final String sKey)
+  {
+    final StatisticsNumericAccumulator aValue = _getValue (sKey);
+    return aValue == null ? null : aValue.getSum ();
+  }
+
+  @CheckForSigned
+  public final long getMin (@Nullable final String sKey)
+  {
+    final StatisticsNumericAccumulator aValue = _getValue (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getMin ();
+  }
+
+  @CheckForSigned
+  public final long getAverage (@Nullable final String sKey)
+  {
+    final StatisticsNumericAccumulator aValue = _getValue (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getAverage ();
+  }
+
+  @CheckForSigned
+  public final long getMax (@Nullable final String sKey)
+  {
+    final StatisticsNumericAccumulator aValue = _getValue (sKey);
+    return aValue == null ? CGlobal.ILLEGAL_ULONG : aValue.getMax ();
+  }
+}
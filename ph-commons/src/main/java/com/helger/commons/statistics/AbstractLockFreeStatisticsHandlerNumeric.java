@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.math.BigInteger;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Abstract base class for lock-free numeric statistic handler. Compared to
+ * {@link AbstractStatisticsHandlerNumeric} no lock is taken when adding a
+ * value.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public abstract class AbstractLockFreeStatisticsHandlerNumeric implements IStatisticsHandlerNumeric
+{
+  private final StatisticsNumericAccumulator m_aValue = new StatisticsNumericAccumulator ();
+
+  @Nonnegative
+  public final int getInvocationCount ()
+  {
+    return m_aValue.getInvocationCount ();
+  }
+
+  protected final void addValue (final long nValue)
+  {
+    m_aValue.add (nValue);
+  }
+
+  @Nonnull
+  public final BigInteger getSum ()
+  {
+    return m_aValue.getSum ();
+  }
+
+  @CheckForSigned
+  public final long getMin ()
+  {
+    return m_aValue.getMin ();
+  }
+
+  @CheckForSigned
+  public final long getAverage ()
+  {
+    return m_aValue.getAverage ();
+  }
+
+  @CheckForSigned
+  public final long getMax ()
+  {
+    return m_aValue.getMax ();
+  }
+}
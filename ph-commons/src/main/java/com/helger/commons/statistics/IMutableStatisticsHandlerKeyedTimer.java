@@ -36,4 +36,22 @@ public interface IMutableStatisticsHandlerKeyedTimer extends IStatisticsHandlerK
    *        negative.
    */
   void addTime (@Nullable String sKey, @Nonnegative long nMillis);
+
+  /**
+   * Get a snapshot of the histogram of the passed key and reset the histogram
+   * of this key afterwards. This can be used to get interval histograms.
+   *
+   * @param sKey
+   *        The key to be queried. May be <code>null</code>.
+   * @return A snapshot of the histogram of all times recorded since the last
+   *         reset for the passed key. May be <code>null</code> if no histogram
+   *         is recorded or if the key is unknown.
+   * @see #isHistogramEnabled()
+   * @since 9.0.0
+   */
+  @Nullable
+  default StatisticsHistogramSnapshot getHistogramSnapshotAndReset (@Nullable final String sKey)
+  {
+    return null;
+  }
 }
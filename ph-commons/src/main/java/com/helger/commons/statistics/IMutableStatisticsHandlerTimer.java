@@ -17,6 +17,7 @@
 package com.helger.commons.statistics;
 
 import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
 
 /**
  * Statistics handler for times.
@@ -33,4 +34,20 @@ public interface IMutableStatisticsHandlerTimer extends IStatisticsHandlerTimer
    *        negative.
    */
   void addTime (@Nonnegative long nMillis);
+
+  /**
+   * Get a snapshot of the histogram and reset the histogram afterwards. This
+   * can be used to get interval histograms. Only the histogram is reset - all
+   * other values of this handler stay untouched.
+   *
+   * @return A snapshot of the histogram of all times recorded since the last
+   *         reset. May be <code>null</code> if no histogram is recorded.
+   * @see #isHistogramEnabled()
+   * @since 9.0.0
+   */
+  @Nullable
+  default StatisticsHistogramSnapshot getHistogramSnapshotAndReset ()
+  {
+    return null;
+  }
 }
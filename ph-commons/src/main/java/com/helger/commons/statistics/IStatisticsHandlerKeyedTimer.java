@@ -16,6 +16,8 @@
  */
 package com.helger.commons.statistics;
 
+import javax.annotation.Nullable;
+
 /**
  * Read-only statistics handler for keyed timer.
  *
@@ -23,5 +25,30 @@ package com.helger.commons.statistics;
  */
 public interface IStatisticsHandlerKeyedTimer extends IStatisticsHandlerKeyedNumeric
 {
-  /* empty */
+  /**
+   * @return <code>true</code> if this handler records a histogram of all
+   *         times per key, <code>false</code> if not.
+   * @since 9.0.0
+   */
+  default boolean isHistogramEnabled ()
+  {
+    return false;
+  }
+
+  /**
+   * Get a snapshot of the histogram of the passed key.
+   *
+   * @param sKey
+   *        The key to be queried. May be <code>null</code>.
+   * @return A snapshot of the histogram of all times recorded so far for the
+   *         passed key. May be <code>null</code> if no histogram is recorded
+   *         or if the key is unknown.
+   * @see #isHistogramEnabled()
+   * @since 9.0.0
+   */
+  @Nullable
+  default StatisticsHistogramSnapshot getHistogramSnapshot (@Nullable final String sKey)
+  {
+    return null;
+  }
 }
@@ -16,6 +16,8 @@
  */
 package com.helger.commons.statistics;
 
+import javax.annotation.Nullable;
+
 /**
  * Read-only statistics handler for times.
  *
@@ -23,5 +25,25 @@ package com.helger.commons.statistics;
  */
 public interface IStatisticsHandlerTimer extends IStatisticsHandlerNumeric
 {
-  /* empty */
+  /**
+   * @return <code>true</code> if this handler records a histogram of all
+   *         times, <code>false</code> if not.
+   * @since 9.0.0
+   */
+  default boolean isHistogramEnabled ()
+  {
+    return false;
+  }
+
+  /**
+   * @return A snapshot of the histogram of all times recorded so far. May be
+   *         <code>null</code> if no histogram is recorded.
+   * @see #isHistogramEnabled()
+   * @since 9.0.0
+   */
+  @Nullable
+  default StatisticsHistogramSnapshot getHistogramSnapshot ()
+  {
+    return null;
+  }
 }
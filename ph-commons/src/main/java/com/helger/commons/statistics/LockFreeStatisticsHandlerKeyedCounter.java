@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Lock-free implementation of {@link IMutableStatisticsHandlerKeyedCounter}
+ * based on a {@link ConcurrentHashMap} of {@link LongAdder}s.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public class LockFreeStatisticsHandlerKeyedCounter implements IMutableStatisticsHandlerKeyedCounter
+{
+  @ThreadSafe
+  private static final class Value implements Serializable
+  {
+    private final LongAdder m_aInvocationCount = new LongAdder ();
+    private final LongAdder m_aCount = new LongAdder ();
+
+    public Value ()
+    {}
+
+    public void increment (final long nByHowMany)
+    {
+      m_aCount.add (nByHowMany);
+      m_aInvocationCount.increment ();
+    }
+
+    @Nonnegative
+    public int getInvocationCount ()
+    {
+      return m_aInvocationCount.intValue ();
+    }
+
+    public long getCount ()
+    {
+      return m_aCount.sum ();
+    }
+
+    @Override
+    public String toString ()
+    {
+      // No object needed for ctor
+      return new ToStringGenerator (null).append ("invocations", getInvocationCount ())
+                                         .append ("count", getCount ())
+                                         .getToString ();
+    }
+  }
+
+  private final LongAdder m_aInvocationCount = new LongAdder ();
+  private final ConcurrentHashMap <String, Value> m_aMap = new ConcurrentHashMap <> ();
+  // ConcurrentHashMap does not allow for null keys
+  private final AtomicReference <Value> m_aNullKeyValue = new AtomicReference <> ();
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    return m_aInvocationCount.intValue ();
+  }
+
+  public void increment (@Nullable final String sKey)
+  {
+    increment (sKey, 1L);
+  }
+
+  @Nullable
+  private Value _getValue (@Nullable final String sKey)
+  {
+    return sKey == null ? m_aNullKeyValue.get () : m_aMap.get (sKey);
+  }
+
+  public void increment (@Nullable final String sKey, final long nByHowMany)
+  {
+    m_aInvocationCount.increment ();
+
+    Value aPerKey = _getValue (sKey);
+    if (aPerKey == null)
+    {
+      if (sKey == null)
+      {
+        m_aNullKeyValue.compareAndSet (null, new Value ());
+        aPerKey = m_aNullKeyValue.get ();
+      }
+      else
+        aPerKey = m_aMap.computeIfAbsent (sKey, k -> new Value ());
+    }
+    aPerKey.increment (nByHowMany);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsSet <String> getAllKeys ()
+  {
+    final ICommonsSet <String> ret = new CommonsHashSet <> (m_aMap.keySet ());
+    if (m_aNullKeyValue.get () != null)
+      ret.add (null);
+    return ret;
+  }
+
+  @CheckForSigned
+  public long getCount (@Nullable final String sKey)
+  {
+    final Value aCount = _getValue (sKey);
+    return aCount == null ? CGlobal.ILLEGAL_ULONG : aCount.getCount ();
+  }
+
+  @CheckForSigned
+  public int getInvocationCount (@Nullable final String sKey)
+  {
+    final Value aCount = _getValue (sKey);
+    return aCount == null ? CGlobal.ILLEGAL_UINT : aCount.getInvocationCount ();
+  }
+}
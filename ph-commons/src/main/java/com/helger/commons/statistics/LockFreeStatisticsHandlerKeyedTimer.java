@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lock-free implementation of {@link IMutableStatisticsHandlerKeyedTimer}
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public class LockFreeStatisticsHandlerKeyedTimer extends AbstractLockFreeStatisticsHandlerKeyedNumeric
+                                                 implements IMutableStatisticsHandlerKeyedTimer
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (LockFreeStatisticsHandlerKeyedTimer.class);
+
+  private final StatisticsHistogramMap m_aHistograms;
+
+  public LockFreeStatisticsHandlerKeyedTimer ()
+  {
+    this (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bWithHistogram
+   *        <code>true</code> to additionally record a histogram of all times
+   *        per key to be able to query percentiles, <code>false</code> to not
+   *        record histograms.
+   * @since 9.0.0
+   */
+  public LockFreeStatisticsHandlerKeyedTimer (final boolean bWithHistogram)
+  {
+    m_aHistograms = bWithHistogram ? new StatisticsHistogramMap () : null;
+  }
+
+  public void addTime (@Nullable final String sKey, @Nonnegative final long nMillis)
+  {
+    if (nMillis < 0)
+      s_aLogger.warn ("A negative value (" + nMillis + ") for key '" + sKey + "' is added to " + getClass ().getName ());
+    addValue (sKey, nMillis);
+    if (m_aHistograms != null)
+      m_aHistograms.recordValue (sKey, nMillis);
+  }
+
+  @Override
+  public boolean isHistogramEnabled ()
+  {
+    return m_aHistograms != null;
+  }
+
+  @Override
+  @Nullable
+  public StatisticsHistogramSnapshot getHistogramSnapshot (@Nullable final String sKey)
+  {
+    return m_aHistograms == null ? null : m_aHistograms.getSnapshot (sKey);
+  }
+
+  @Override
+  @Nullable
+  public StatisticsHistogramSnapshot getHistogramSnapshotAndReset (@Nullable final String sKey)
+  {
+    return m_aHistograms == null ? null : m_aHistograms.getSnapshotAndReset (sKey);
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lock-free implementation of {@link IMutableStatisticsHandlerTimer}
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public class LockFreeStatisticsHandlerTimer extends AbstractLockFreeStatisticsHandlerNumeric
+                                            implements IMutableStatisticsHandlerTimer
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (LockFreeStatisticsHandlerTimer.class);
+
+  private final StatisticsHistogram m_aHistogram;
+
+  public LockFreeStatisticsHandlerTimer ()
+  {
+    this (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bWithHistogram
+   *        <code>true</code> to additionally record a histogram of all times
+   *        to be able to query percentiles, <code>false</code> to not record a
+   *        histogram.
+   * @since 9.0.0
+   */
+  public LockFreeStatisticsHandlerTimer (final boolean bWithHistogram)
+  {
+    m_aHistogram = bWithHistogram ? new StatisticsHistogram () : null;
+  }
+
+  public void addTime (@Nonnegative final long nMillis)
+  {
+    if (nMillis < 0)
+      s_aLogger.warn ("A negative value (" + nMillis + ") is added to " + getClass ().getName ());
+    addValue (nMillis);
+    if (m_aHistogram != null)
+      m_aHistogram.recordValue (nMillis);
+  }
+
+  @Override
+  public boolean isHistogramEnabled ()
+  {
+    return m_aHistogram != null;
+  }
+
+  @Override
+  @Nullable
+  public StatisticsHistogramSnapshot getHistogramSnapshot ()
+  {
+    return m_aHistogram == null ? null : m_aHistogram.getSnapshot ();
+  }
+
+  @Override
+  @Nullable
+  public StatisticsHistogramSnapshot getHistogramSnapshotAndReset ()
+  {
+    return m_aHistogram == null ? null : m_aHistogram.getSnapshotAndReset ();
+  }
+}
@@ -34,6 +34,27 @@ public class StatisticsHandlerKeyedTimer extends AbstractStatisticsHandlerKeyedN
 {
   private static final Logger s_aLogger = LoggerFactory.getLogger (StatisticsHandlerKeyedTimer.class);
 
+  private final StatisticsHistogramMap m_aHistograms;
+
+  public StatisticsHandlerKeyedTimer ()
+  {
+    this (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bWithHistogram
+   *        <code>true</code> to additionally record a histogram of all times
+   *        per key to be able to query percentiles, <code>false</code> to not
+   *        record histograms.
+   * @since 9.0.0
+   */
+  public StatisticsHandlerKeyedTimer (final boolean bWithHistogram)
+  {
+    m_aHistograms = bWithHistogram ? new StatisticsHistogramMap () : null;
+  }
+
   public void addTime (@Nullable final String sKey, @Nonnegative final long nMillis)
   {
     if (nMillis < 0)
@@ -44,5 +65,27 @@ public class StatisticsHandlerKeyedTimer extends AbstractStatisticsHandlerKeyedN
                       "' is added to " +
                       getClass ().getName ());
     addValue (sKey, nMillis);
+    if (m_aHistograms != null)
+      m_aHistograms.recordValue (sKey, nMillis);
+  }
+
+  @Override
+  public boolean isHistogramEnabled ()
+  {
+    return m_aHistograms != null;
+  }
+
+  @Override
+  @Nullable
+  public StatisticsHistogramSnapshot getHistogramSnapshot (@Nullable final String sKey)
+  {
+    return m_aHistograms == null ? null : m_aHistograms.getSnapshot (sKey);
+  }
+
+  @Override
+  @Nullable
+  public StatisticsHistogramSnapshot getHistogramSnapshotAndReset (@Nullable final String sKey)
+  {
+    return m_aHistograms == null ? null : m_aHistograms.getSnapshotAndReset (sKey);
   }
 }
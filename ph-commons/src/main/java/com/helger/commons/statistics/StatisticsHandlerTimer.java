@@ -17,6 +17,7 @@
 package com.helger.commons.statistics;
 
 import javax.annotation.Nonnegative;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.slf4j.Logger;
@@ -32,10 +33,53 @@ public class StatisticsHandlerTimer extends AbstractStatisticsHandlerNumeric imp
 {
   private static final Logger s_aLogger = LoggerFactory.getLogger (StatisticsHandlerTimer.class);
 
+  private final StatisticsHistogram m_aHistogram;
+
+  public StatisticsHandlerTimer ()
+  {
+    this (false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param bWithHistogram
+   *        <code>true</code> to additionally record a histogram of all times
+   *        to be able to query percentiles, <code>false</code> to not record a
+   *        histogram.
+   * @since 9.0.0
+   */
+  public StatisticsHandlerTimer (final boolean bWithHistogram)
+  {
+    m_aHistogram = bWithHistogram ? new StatisticsHistogram () : null;
+  }
+
   public void addTime (@Nonnegative final long nMillis)
   {
     if (nMillis < 0)
       s_aLogger.warn ("A negative value (" + nMillis + ") is added to " + getClass ().getName ());
     addValue (nMillis);
+    if (m_aHistogram != null)
+      m_aHistogram.recordValue (nMillis);
+  }
+
+  @Override
+  public boolean isHistogramEnabled ()
+  {
+    return m_aHistogram != null;
+  }
+
+  @Override
+  @Nullable
+  public StatisticsHistogramSnapshot getHistogramSnapshot ()
+  {
+    return m_aHistogram == null ? null : m_aHistogram.getSnapshot ();
+  }
+
+  @Override
+  @Nullable
+  public StatisticsHistogramSnapshot getHistogramSnapshotAndReset ()
+  {
+    return m_aHistogram == null ? null : m_aHistogram.getSnapshotAndReset ();
   }
 }
@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A thread-safe, fixed size histogram with logarithmic buckets in the style of
+ * HdrHistogram. Values smaller than {@link #SUB_BUCKET_COUNT} are recorded
+ * exactly, larger values are recorded in one of {@link #SUB_BUCKET_COUNT}
+ * linear sub-buckets per power of two, so the relative error of a recorded
+ * value is at most <code>1/SUB_BUCKET_COUNT</code>. Recording a value does not
+ * allocate and does not lock.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public final class StatisticsHistogram
+{
+  /** The number of bits used for the linear sub-buckets */
+  public static final int SUB_BUCKET_BITS = 6;
+  /** The number of linear sub-buckets per power of two */
+  public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  /**
+   * The highest value that can be recorded. Larger values are recorded as this
+   * value. For milliseconds this is approximately 34 years.
+   */
+  public static final long MAX_TRACKABLE_VALUE = (1L << 40) - 1;
+  /** The total number of buckets */
+  static final int BUCKET_COUNT = getBucketIndex (MAX_TRACKABLE_VALUE) + 1;
+
+  private final AtomicLongArray m_aBuckets = new AtomicLongArray (BUCKET_COUNT);
+
+  public StatisticsHistogram ()
+  {}
+
+  /**
+   * Get the index of the bucket the passed value belongs to.
+   *
+   * @param nValue
+   *        The value to be resolved. Negative values are treated as 0, values
+   *        &gt; {@link #MAX_TRACKABLE_VALUE} are treated as
+   *        {@link #MAX_TRACKABLE_VALUE}.
+   * @return The bucket index. Always &ge; 0 and &lt; {@link #BUCKET_COUNT}.
+   */
+  @Nonnegative
+  static int getBucketIndex (final long nValue)
+  {
+    final long nRealValue = nValue < 0 ? 0 : nValue > MAX_TRACKABLE_VALUE ? MAX_TRACKABLE_VALUE : nValue;
+    if (nRealValue < SUB_BUCKET_COUNT)
+      return (int) nRealValue;
+
+    // Highest one bit is at least SUB_BUCKET_BITS
+    final int nShift = 63 - Long.numberOfLeadingZeros (nRealValue) - SUB_BUCKET_BITS;
+    final int nSubBucket = (int) (nRealValue >>> nShift) - SUB_BUCKET_COUNT;
+    return (nShift + 1) * SUB_BUCKET_COUNT + nSubBucket;
+  }
+
+  /**
+   * Get the lowest value that is recorded in the bucket with the passed index.
+   *
+   * @param nIndex
+   *        Bucket index. Must be &ge; 0.
+   * @return The lowest value of the bucket.
+   */
+  static long getBucketLowestValue (@Nonnegative final int nIndex)
+  {
+    if (nIndex < SUB_BUCKET_COUNT)
+      return nIndex;
+    final int nShift = nIndex / SUB_BUCKET_COUNT - 1;
+    final int nSubBucket = nIndex % SUB_BUCKET_COUNT;
+    return (long) (SUB_BUCKET_COUNT + nSubBucket) << nShift;
+  }
+
+  /**
+   * Get the highest value that is recorded in the bucket with the passed
+   * index.
+   *
+   * @param nIndex
+   *        Bucket index. Must be &ge; 0.
+   * @return The highest value of the bucket.
+   */
+  static long getBucketHighestValue (@Nonnegative final int nIndex)
+  {
+    if (nIndex < SUB_BUCKET_COUNT)
+      return nIndex;
+    final int nShift = nIndex / SUB_BUCKET_COUNT - 1;
+    return getBucketLowestValue (nIndex) + (1L << nShift) - 1;
+  }
+
+  /**
+   * Record a single value.
+   *
+   * @param nValue
+   *        The value to record. Negative values are recorded as 0.
+   */
+  public void recordValue (final long nValue)
+  {
+    m_aBuckets.incrementAndGet (getBucketIndex (nValue));
+  }
+
+  /**
+   * @return A snapshot of all values recorded so far. Never <code>null</code>.
+   */
+  @Nonnull
+  public StatisticsHistogramSnapshot getSnapshot ()
+  {
+    final long [] aCounts = new long [BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+      aCounts[i] = m_aBuckets.get (i);
+    return new StatisticsHistogramSnapshot (aCounts);
+  }
+
+  /**
+   * Create a snapshot of all values recorded so far and reset the histogram
+   * in the same step. Each value recorded concurrently is contained either in
+   * the returned snapshot or in the next one, so this method can be used to
+   * create interval histograms.
+   *
+   * @return A snapshot of all values recorded since the last reset. Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  public StatisticsHistogramSnapshot getSnapshotAndReset ()
+  {
+    final long [] aCounts = new long [BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; ++i)
+      aCounts[i] = m_aBuckets.getAndSet (i, 0);
+    return new StatisticsHistogramSnapshot (aCounts);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("snapshot", getSnapshot ()).getToString ();
+  }
+}
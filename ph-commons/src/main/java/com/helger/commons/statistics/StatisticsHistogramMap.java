@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Internal helper class that manages one {@link StatisticsHistogram} per key
+ * for the keyed timer handlers.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+final class StatisticsHistogramMap
+{
+  private final ConcurrentHashMap <String, StatisticsHistogram> m_aMap = new ConcurrentHashMap <> ();
+  // ConcurrentHashMap does not allow for null keys
+  private final AtomicReference <StatisticsHistogram> m_aNullKeyHistogram = new AtomicReference <> ();
+
+  @Nullable
+  private StatisticsHistogram _getHistogram (@Nullable final String sKey)
+  {
+    return sKey == null ? m_aNullKeyHistogram.get () : m_aMap.get (sKey);
+  }
+
+  public void recordValue (@Nullable final String sKey, final long nValue)
+  {
+    StatisticsHistogram aHistogram = _getHistogram (sKey);
+    if (aHistogram == null)
+    {
+      if (sKey == null)
+      {
+        m_aNullKeyHistogram.compareAndSet (null, new StatisticsHistogram ());
+        aHistogram = m_aNullKeyHistogram.get ();
+      }
+      else
+        aHistogram = m_aMap.computeIfAbsent (sKey, k -> new StatisticsHistogram ());
+    }
+    aHistogram.recordValue (nValue);
+  }
+
+  @Nullable
+  public StatisticsHistogramSnapshot getSnapshot (@Nullable final String sKey)
+  {
+    final StatisticsHistogram aHistogram = _getHistogram (sKey);
+    return aHistogram == null ? null : aHistogram.getSnapshot ();
+  }
+
+  @Nullable
+  public StatisticsHistogramSnapshot getSnapshotAndReset (@Nullable final String sKey)
+  {
+    final StatisticsHistogram aHistogram = _getHistogram (sKey);
+    return aHistogram == null ? null : aHistogram.getSnapshotAndReset ();
+  }
+}
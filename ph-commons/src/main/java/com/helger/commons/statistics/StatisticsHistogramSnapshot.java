@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * An immutable snapshot of a {@link StatisticsHistogram}. The minimum is the
+ * lowest value of the matching bucket, so it is never higher than the lowest
+ * value actually recorded. All other values returned are the highest value of
+ * the matching bucket, so they are never lower than the value actually
+ * recorded.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@Immutable
+public final class StatisticsHistogramSnapshot
+{
+  private final long [] m_aCounts;
+  private final long m_nTotalCount;
+
+  StatisticsHistogramSnapshot (@Nonnull final long [] aCounts)
+  {
+    m_aCounts = aCounts;
+    long nTotalCount = 0;
+    for (final long nCount : aCounts)
+      nTotalCount += nCount;
+    m_nTotalCount = nTotalCount;
+  }
+
+  /**
+   * @return The number of values contained in this snapshot. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getTotalCount ()
+  {
+    return m_nTotalCount;
+  }
+
+  /**
+   * @return <code>true</code> if this snapshot contains no value at all.
+   */
+  public boolean isEmpty ()
+  {
+    return m_nTotalCount == 0;
+  }
+
+  /**
+   * @return The lowest value recorded (with the precision of the bucket) or
+   *         {@link CGlobal#ILLEGAL_ULONG} if this snapshot is empty.
+   */
+  @CheckForSigned
+  public long getMin ()
+  {
+    for (int i = 0; i < m_aCounts.length; ++i)
+      if (m_aCounts[i] > 0)
+        return StatisticsHistogram.getBucketLowestValue (i);
+    return CGlobal.ILLEGAL_ULONG;
+  }
+
+  /**
+   * @return The highest value recorded or {@link CGlobal#ILLEGAL_ULONG} if
+   *         this snapshot is empty.
+   */
+  @CheckForSigned
+  public long getMax ()
+  {
+    for (int i = m_aCounts.length - 1; i >= 0; --i)
+      if (m_aCounts[i] > 0)
+        return StatisticsHistogram.getBucketHighestValue (i);
+    return CGlobal.ILLEGAL_ULONG;
+  }
+
+  /**
+   * Get the value at the provided percentile.
+   *
+   * @param dPercentile
+   *        The percentile to query. Must be between 0 and 100 (both
+   *        inclusive).
+   * @return The value so that at least the provided percentage of all values
+   *         is &le; the returned value or {@link CGlobal#ILLEGAL_ULONG} if this
+   *         snapshot is empty.
+   */
+  @CheckForSigned
+  public long getValueAtPercentile (final double dPercentile)
+  {
+    ValueEnforcer.isBetweenInclusive (dPercentile, "Percentile", 0, 100);
+    if (m_nTotalCount == 0)
+      return CGlobal.ILLEGAL_ULONG;
+
+    final long nRank = Math.max (1, (long) Math.ceil (dPercentile / 100 * m_nTotalCount));
+    long nCumulated = 0;
+    for (int i = 0; i < m_aCounts.length; ++i)
+    {
+      nCumulated += m_aCounts[i];
+      if (nCumulated >= nRank)
+        return StatisticsHistogram.getBucketHighestValue (i);
+    }
+    // Cannot happen
+    return getMax ();
+  }
+
+  /**
+   * @return The median or {@link CGlobal#ILLEGAL_ULONG} if this snapshot is
+   *         empty.
+   */
+  @CheckForSigned
+  public long getP50 ()
+  {
+    return getValueAtPercentile (50);
+  }
+
+  /**
+   * @return The 90th percentile or {@link CGlobal#ILLEGAL_ULONG} if this
+   *         snapshot is empty.
+   */
+  @CheckForSigned
+  public long getP90 ()
+  {
+    return getValueAtPercentile (90);
+  }
+
+  /**
+   * @return The 99th percentile or {@link CGlobal#ILLEGAL_ULONG} if this
+   *         snapshot is empty.
+   */
+  @CheckForSigned
+  public long getP99 ()
+  {
+    return getValueAtPercentile (99);
+  }
+
+  /**
+   * @return The 99.9th percentile or {@link CGlobal#ILLEGAL_ULONG} if this
+   *         snapshot is empty.
+   */
+  @CheckForSigned
+  public long getP999 ()
+  {
+    return getValueAtPercentile (99.9);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("TotalCount", m_nTotalCount)
+                                       .append ("P50", getP50 ())
+                                       .append ("P90", getP90 ())
+                                       .append ("P99", getP99 ())
+                                       .append ("P999", getP999 ())
+                                       .getToString ();
+  }
+}
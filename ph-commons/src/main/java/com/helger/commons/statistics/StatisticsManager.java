@@ -39,6 +39,11 @@ import com.helger.commons.concurrent.SimpleReadWriteLock;
 @ThreadSafe
 public final class StatisticsManager
 {
+  /** By default the lock based handlers are used */
+  public static final boolean DEFAULT_USE_LOCK_FREE_HANDLERS = false;
+  /** By default timer handlers don't record histograms */
+  public static final boolean DEFAULT_TIMER_HISTOGRAMS_ENABLED = false;
+
   private static final SimpleReadWriteLock s_aRWLockCache = new SimpleReadWriteLock ();
   private static final SimpleReadWriteLock s_aRWLockTimer = new SimpleReadWriteLock ();
   private static final SimpleReadWriteLock s_aRWLockKeyedTimer = new SimpleReadWriteLock ();
@@ -46,22 +51,134 @@ public final class StatisticsManager
   private static final SimpleReadWriteLock s_aRWLockKeyedSize = new SimpleReadWriteLock ();
   private static final SimpleReadWriteLock s_aRWLockCounter = new SimpleReadWriteLock ();
   private static final SimpleReadWriteLock s_aRWLockKeyedCounter = new SimpleReadWriteLock ();
-  private static final ICommonsMap <String, StatisticsHandlerCache> s_aHdlCache = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerTimer> s_aHdlTimer = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerKeyedTimer> s_aHdlKeyedTimer = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerSize> s_aHdlSize = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerKeyedSize> s_aHdlKeyedSize = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerCounter> s_aHdlCounter = new CommonsHashMap <> ();
-  private static final ICommonsMap <String, StatisticsHandlerKeyedCounter> s_aHdlKeyedCounter = new CommonsHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerCache> s_aHdlCache = new CommonsHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerTimer> s_aHdlTimer = new CommonsHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerKeyedTimer> s_aHdlKeyedTimer = new CommonsHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerSize> s_aHdlSize = new CommonsHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerKeyedSize> s_aHdlKeyedSize = new CommonsHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerCounter> s_aHdlCounter = new CommonsHashMap <> ();
+  private static final ICommonsMap <String, IMutableStatisticsHandlerKeyedCounter> s_aHdlKeyedCounter = new CommonsHashMap <> ();
 
   private static final Logger s_aLogger = LoggerFactory.getLogger (StatisticsManager.class);
 
+  private static volatile boolean s_bUseLockFreeHandlers = DEFAULT_USE_LOCK_FREE_HANDLERS;
+  private static volatile boolean s_bTimerHistogramsEnabled = DEFAULT_TIMER_HISTOGRAMS_ENABLED;
+
   @PresentForCodeCoverage
   private static final StatisticsManager s_aInstance = new StatisticsManager ();
 
   private StatisticsManager ()
   {}
 
+  /**
+   * @return <code>true</code> if newly created handlers use the lock-free
+   *         implementations (e.g. {@link LockFreeStatisticsHandlerTimer}),
+   *         <code>false</code> if the lock based implementations (e.g.
+   *         {@link StatisticsHandlerTimer}) are used.
+   * @since 9.0.0
+   */
+  public static boolean isUseLockFreeHandlers ()
+  {
+    return s_bUseLockFreeHandlers;
+  }
+
+  /**
+   * Switch the registry between the lock based and the lock-free handler
+   * implementations. The lock-free implementations are based on
+   * {@link java.util.concurrent.atomic.LongAdder} and scale better if many
+   * threads update the same handler. This setting only affects handlers that
+   * are created afterwards, so it should be called upon application startup.
+   * Alternatively {@link #clearCache()} can be called afterwards, but then all
+   * handlers previously retrieved are no longer part of the registry.
+   *
+   * @param bUseLockFreeHandlers
+   *        <code>true</code> to use the lock-free implementations,
+   *        <code>false</code> to use the lock based implementations.
+   * @since 9.0.0
+   */
+  public static void setUseLockFreeHandlers (final boolean bUseLockFreeHandlers)
+  {
+    s_bUseLockFreeHandlers = bUseLockFreeHandlers;
+    if (s_aLogger.isDebugEnabled ())
+      s_aLogger.debug ("Statistics handlers are now " + (bUseLockFreeHandlers ? "lock-free" : "lock based"));
+  }
+
+  /**
+   * @return <code>true</code> if newly created timer and keyed timer handlers
+   *         record a histogram to be able to query percentiles,
+   *         <code>false</code> if not.
+   * @since 9.0.0
+   */
+  public static boolean isTimerHistogramsEnabled ()
+  {
+    return s_bTimerHistogramsEnabled;
+  }
+
+  /**
+   * Enable or disable the recording of histograms in newly created timer and
+   * keyed timer handlers. This setting only affects handlers that are created
+   * afterwards, so it should be called upon application startup.
+   *
+   * @param bTimerHistogramsEnabled
+   *        <code>true</code> to record histograms, <code>false</code> to not
+   *        record histograms.
+   * @since 9.0.0
+   * @see IStatisticsHandlerTimer#getHistogramSnapshot()
+   * @see IStatisticsHandlerKeyedTimer#getHistogramSnapshot(String)
+   */
+  public static void setTimerHistogramsEnabled (final boolean bTimerHistogramsEnabled)
+  {
+    s_bTimerHistogramsEnabled = bTimerHistogramsEnabled;
+    if (s_aLogger.isDebugEnabled ())
+      s_aLogger.debug ("Timer histograms are now " + (bTimerHistogramsEnabled ? "enabled" : "disabled"));
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerCache _createCacheHandler ()
+  {
+    return s_bUseLockFreeHandlers ? new LockFreeStatisticsHandlerCache () : new StatisticsHandlerCache ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerTimer _createTimerHandler ()
+  {
+    final boolean bWithHistogram = s_bTimerHistogramsEnabled;
+    return s_bUseLockFreeHandlers ? new LockFreeStatisticsHandlerTimer (bWithHistogram)
+                                  : new StatisticsHandlerTimer (bWithHistogram);
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerKeyedTimer _createKeyedTimerHandler ()
+  {
+    final boolean bWithHistogram = s_bTimerHistogramsEnabled;
+    return s_bUseLockFreeHandlers ? new LockFreeStatisticsHandlerKeyedTimer (bWithHistogram)
+                                  : new StatisticsHandlerKeyedTimer (bWithHistogram);
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerSize _createSizeHandler ()
+  {
+    return s_bUseLockFreeHandlers ? new LockFreeStatisticsHandlerSize () : new StatisticsHandlerSize ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerKeyedSize _createKeyedSizeHandler ()
+  {
+    return s_bUseLockFreeHandlers ? new LockFreeStatisticsHandlerKeyedSize () : new StatisticsHandlerKeyedSize ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerCounter _createCounterHandler ()
+  {
+    return s_bUseLockFreeHandlers ? new LockFreeStatisticsHandlerCounter () : new StatisticsHandlerCounter ();
+  }
+
+  @Nonnull
+  private static IMutableStatisticsHandlerKeyedCounter _createKeyedCounterHandler ()
+  {
+    return s_bUseLockFreeHandlers ? new LockFreeStatisticsHandlerKeyedCounter () : new StatisticsHandlerKeyedCounter ();
+  }
+
   @Nonnull
   public static IMutableStatisticsHandlerCache getCacheHandler (@Nonnull final Class <?> aClass)
   {
@@ -75,13 +192,13 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerCache aHdl = s_aRWLockCache.readLocked ( () -> s_aHdlCache.get (sName));
+    IMutableStatisticsHandlerCache aHdl = s_aRWLockCache.readLocked ( () -> s_aHdlCache.get (sName));
 
     if (aHdl == null)
     {
       // Try again in write lock
       aHdl = s_aRWLockCache.writeLocked ( () -> s_aHdlCache.computeIfAbsent (sName,
-                                                                             k -> new StatisticsHandlerCache ()));
+                                                                             k -> _createCacheHandler ()));
     }
 
     return aHdl;
@@ -108,11 +225,11 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerTimer aHdl = s_aRWLockTimer.readLocked ( () -> s_aHdlTimer.get (sName));
+    IMutableStatisticsHandlerTimer aHdl = s_aRWLockTimer.readLocked ( () -> s_aHdlTimer.get (sName));
     if (aHdl == null)
     {
       aHdl = s_aRWLockTimer.writeLocked ( () -> s_aHdlTimer.computeIfAbsent (sName,
-                                                                             k -> new StatisticsHandlerTimer ()));
+                                                                             k -> _createTimerHandler ()));
     }
 
     return aHdl;
@@ -138,12 +255,12 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerKeyedTimer aHdl = s_aRWLockKeyedTimer.readLocked ( () -> s_aHdlKeyedTimer.get (sName));
+    IMutableStatisticsHandlerKeyedTimer aHdl = s_aRWLockKeyedTimer.readLocked ( () -> s_aHdlKeyedTimer.get (sName));
 
     if (aHdl == null)
     {
       aHdl = s_aRWLockKeyedTimer.writeLocked ( () -> s_aHdlKeyedTimer.computeIfAbsent (sName,
-                                                                                       k -> new StatisticsHandlerKeyedTimer ()));
+                                                                                       k -> _createKeyedTimerHandler ()));
     }
     return aHdl;
   }
@@ -168,11 +285,11 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerSize aHdl = s_aRWLockSize.readLocked ( () -> s_aHdlSize.get (sName));
+    IMutableStatisticsHandlerSize aHdl = s_aRWLockSize.readLocked ( () -> s_aHdlSize.get (sName));
 
     if (aHdl == null)
     {
-      aHdl = s_aRWLockSize.writeLocked ( () -> s_aHdlSize.computeIfAbsent (sName, k -> new StatisticsHandlerSize ()));
+      aHdl = s_aRWLockSize.writeLocked ( () -> s_aHdlSize.computeIfAbsent (sName, k -> _createSizeHandler ()));
     }
     return aHdl;
   }
@@ -197,12 +314,12 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerKeyedSize aHdl = s_aRWLockKeyedSize.readLocked ( () -> s_aHdlKeyedSize.get (sName));
+    IMutableStatisticsHandlerKeyedSize aHdl = s_aRWLockKeyedSize.readLocked ( () -> s_aHdlKeyedSize.get (sName));
 
     if (aHdl == null)
     {
       aHdl = s_aRWLockKeyedSize.writeLocked ( () -> s_aHdlKeyedSize.computeIfAbsent (sName,
-                                                                                     k -> new StatisticsHandlerKeyedSize ()));
+                                                                                     k -> _createKeyedSizeHandler ()));
     }
     return aHdl;
   }
@@ -227,12 +344,12 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerCounter aHdl = s_aRWLockCounter.readLocked ( () -> s_aHdlCounter.get (sName));
+    IMutableStatisticsHandlerCounter aHdl = s_aRWLockCounter.readLocked ( () -> s_aHdlCounter.get (sName));
 
     if (aHdl == null)
     {
       aHdl = s_aRWLockCounter.writeLocked ( () -> s_aHdlCounter.computeIfAbsent (sName,
-                                                                                 k -> new StatisticsHandlerCounter ()));
+                                                                                 k -> _createCounterHandler ()));
     }
     return aHdl;
   }
@@ -257,12 +374,12 @@ public final class StatisticsManager
   {
     ValueEnforcer.notEmpty (sName, "Name");
 
-    StatisticsHandlerKeyedCounter aHdl = s_aRWLockKeyedCounter.readLocked ( () -> s_aHdlKeyedCounter.get (sName));
+    IMutableStatisticsHandlerKeyedCounter aHdl = s_aRWLockKeyedCounter.readLocked ( () -> s_aHdlKeyedCounter.get (sName));
 
     if (aHdl == null)
     {
       aHdl = s_aRWLockKeyedCounter.writeLocked ( () -> s_aHdlKeyedCounter.computeIfAbsent (sName,
-                                                                                           k -> new StatisticsHandlerKeyedCounter ()));
+                                                                                           k -> _createKeyedCounterHandler ()));
     }
     return aHdl;
   }
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * Lock-free accumulator for numeric statistic values. Invocation count and sum
+ * are based on {@link LongAdder} and min and max are based on
+ * {@link LongAccumulator}, so concurrent writers don't contend on a single
+ * memory location.<br>
+ * To avoid a long overflow, the sum is tracked as the sum of the upper 32 bits
+ * (signed) and the sum of the lower 32 bits (unsigned) of each value. This is
+ * exact for up to 2<sup>32</sup> values and is only combined into a
+ * {@link BigInteger} when the sum is read.<br>
+ * Note: the different values are read independently from each other, so a
+ * read that happens concurrently to a write may see a state in which only some
+ * of the values are updated.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+final class StatisticsNumericAccumulator implements Serializable
+{
+  private static final long LOW_MASK = 0xffffffffL;
+  private static final BigInteger TWO_POW_32 = BigInteger.ONE.shiftLeft (32);
+
+  private final LongAdder m_aInvocationCount = new LongAdder ();
+  private final LongAccumulator m_aMin = new LongAccumulator ((LongBinaryOperator & Serializable) Math::min,
+                                                              Long.MAX_VALUE);
+  private final LongAccumulator m_aMax = new LongAccumulator ((LongBinaryOperator & Serializable) Math::max,
+                                                              Long.MIN_VALUE);
+  private final LongAdder m_aSumHigh = new LongAdder ();
+  private final LongAdder m_aSumLow = new LongAdder ();
+
+  public StatisticsNumericAccumulator ()
+  {}
+
+  public void add (final long nValue)
+  {
+    m_aMin.accumulate (nValue);
+    m_aMax.accumulate (nValue);
+    m_aSumHigh.add (nValue >> 32);
+    m_aSumLow.add (nValue & LOW_MASK);
+    // Increment last, so that a reader seeing the count sees the value as well
+    m_aInvocationCount.increment ();
+  }
+
+  @Nonnegative
+  public int getInvocationCount ()
+  {
+    final long nCount = m_aInvocationCount.sum ();
+    return nCount > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) nCount;
+  }
+
+  @CheckForSigned
+  public long getMin ()
+  {
+    return m_aInvocationCount.sum () == 0 ? CGlobal.ILLEGAL_ULONG : m_aMin.get ();
+  }
+
+  @CheckForSigned
+  public long getMax ()
+  {
+    return m_aInvocationCount.sum () == 0 ? CGlobal.ILLEGAL_ULONG : m_aMax.get ();
+  }
+
+  @Nonnull
+  public BigInteger getSum ()
+  {
+    final long nHigh = m_aSumHigh.sum ();
+    final long nLow = m_aSumLow.sum ();
+    if (nHigh == 0 && nLow >= 0)
+    {
+      // Shortcut for the common case of small positive values
+      return BigInteger.valueOf (nLow);
+    }
+    // The low part is unsigned
+    final BigInteger aLow = nLow >= 0 ? BigInteger.valueOf (nLow)
+                                      : BigInteger.valueOf (nLow >>> 1).shiftLeft (1).add (BigInteger.valueOf (nLow & 1));
+    return BigInteger.valueOf (nHigh).multiply (TWO_POW_32).add (aLow);
+  }
+
+  @CheckForSigned
+  public long getAverage ()
+  {
+    final long nCount = m_aInvocationCount.sum ();
+    if (nCount == 0)
+      return CGlobal.ILLEGAL_ULONG;
+    return getSum ().divide (BigInteger.valueOf (nCount)).longValue ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    // No object ID needed for toString
+    return new ToStringGenerator (null).append ("invocations", getInvocationCount ())
+                                       .append ("min", getMin ())
+                                       .append ("max", getMax ())
+                                       .append ("sum", getSum ())
+                                       .getToString ();
+  }
+}
@@ -57,6 +57,7 @@ import com.helger.commons.collection.impl.CommonsLinkedHashSet;
 import com.helger.commons.collection.impl.CommonsTreeSet;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.functional.ICharConsumer;
+import com.helger.commons.functional.IIntBiConsumer;
 import com.helger.commons.math.MathHelper;
 
 /**
@@ -798,6 +799,16 @@ public final class StringHelper
     ValueEnforcer.notNull (sSep, "Separator");
     ValueEnforcer.notNull (aMapper, "Mapper");
 
+    if (aElements instanceof Collection <?>)
+    {
+      // Map all elements first, so that the result size is known
+      final String [] aParts = new String [((Collection <?>) aElements).size ()];
+      int nIndex = 0;
+      for (final ELEMENTTYPE aElement : aElements)
+        aParts[nIndex++] = aMapper.apply (aElement);
+      return _getImploded (sSep, aParts, nIndex);
+    }
+
     final StringBuilder aSB = new StringBuilder ();
     if (aElements != null)
     {
@@ -813,6 +824,43 @@ public final class StringHelper
     return aSB.toString ();
   }
 
+  /**
+   * Implode the first nCount parts with a {@link StringBuilder} of the exact
+   * result size.
+   *
+   * @param sSep
+   *        Separator. May not be <code>null</code>.
+   * @param aParts
+   *        The parts to implode. May contain <code>null</code> elements which
+   *        are emitted as "null", like {@link StringBuilder#append(String)}
+   *        does.
+   * @param nCount
+   *        The number of parts to use.
+   * @return The imploded string.
+   */
+  @Nonnull
+  private static String _getImploded (@Nonnull final String sSep,
+                                      @Nonnull final String [] aParts,
+                                      @Nonnegative final int nCount)
+  {
+    if (nCount == 0)
+      return "";
+    if (nCount == 1)
+      return String.valueOf (aParts[0]);
+
+    long nLength = (long) sSep.length () * (nCount - 1);
+    for (int i = 0; i < nCount; ++i)
+    {
+      final String sPart = aParts[i];
+      nLength += sPart == null ? 4 : sPart.length ();
+    }
+    final StringBuilder aSB = new StringBuilder ((int) Math.min (nLength, Integer.MAX_VALUE - 8));
+    aSB.append (aParts[0]);
+    for (int i = 1; i < nCount; ++i)
+      aSB.append (sSep).append (aParts[i]);
+    return aSB.toString ();
+  }
+
   /**
    * Get a concatenated String from all elements of the passed container,
    * separated by the specified separator char. Even <code>null</code> elements
@@ -1253,18 +1301,14 @@ public final class StringHelper
       ValueEnforcer.isArrayOfsLen (aElements, nOfs, nLen);
     ValueEnforcer.notNull (aMapper, "Mapper");
 
-    final StringBuilder aSB = new StringBuilder ();
-    if (aElements != null)
-    {
-      for (int i = nOfs; i < nOfs + nLen; ++i)
-      {
-        final ELEMENTTYPE sElement = aElements[i];
-        if (i > nOfs)
-          aSB.append (sSep);
-        aSB.append (aMapper.apply (sElement));
-      }
-    }
-    return aSB.toString ();
+    if (aElements == null)
+      return "";
+
+    // Map all elements first, so that the result size is known
+    final String [] aParts = new String [nLen];
+    for (int i = 0; i < nLen; ++i)
+      aParts[i] = aMapper.apply (aElements[nOfs + i]);
+    return _getImploded (sSep, aParts, nLen);
   }
 
   /**
@@ -1876,6 +1920,65 @@ public final class StringHelper
       }
   }
 
+  /**
+   * Take a concatenated String, split it by the passed separator, limit the
+   * results to the provided number of maximum items and call the consumer with
+   * the start index (inclusive) and end index (exclusive) of every part. In
+   * contrast to {@link #explode(char, String, int, Consumer)} no intermediate
+   * String objects are created, so this is the preferred way if the parts are
+   * only inspected.
+   *
+   * @param cSep
+   *        The separator to use.
+   * @param sElements
+   *        The concatenated String to convert. May be <code>null</code> or
+   *        empty.
+   * @param nMaxItems
+   *        The maximum number of items to explode. If the passed value is &le;
+   *        0 all items are used. If max items is 1, than the whole string is
+   *        passed as one range. If max items is larger than the number of
+   *        elements found, it has no effect.
+   * @param aRangeConsumer
+   *        The consumer to be invoked with the start index (inclusive) and the
+   *        end index (exclusive) of each part in sElements. May not be
+   *        <code>null</code>.
+   * @return The number of parts found.
+   * @since 9.0.0
+   */
+  @Nonnegative
+  public static int explodeRanges (final char cSep,
+                                   @Nullable final String sElements,
+                                   final int nMaxItems,
+                                   @Nonnull final IIntBiConsumer aRangeConsumer)
+  {
+    ValueEnforcer.notNull (aRangeConsumer, "RangeConsumer");
+
+    if (hasNoText (sElements))
+      return 0;
+
+    final int nLength = sElements.length ();
+    int nStartIndex = 0;
+    int nItems = 0;
+    if (nMaxItems != 1)
+    {
+      int nMatchIndex;
+      // String.indexOf is the fastest way to scan for a single char
+      while ((nMatchIndex = sElements.indexOf (cSep, nStartIndex)) >= 0)
+      {
+        aRangeConsumer.accept (nStartIndex, nMatchIndex);
+        nStartIndex = nMatchIndex + 1;
+        ++nItems;
+        if (nMaxItems > 0 && nItems == nMaxItems - 1)
+        {
+          // We have exactly one item the left: the rest of the string
+          break;
+        }
+      }
+    }
+    aRangeConsumer.accept (nStartIndex, nLength);
+    return nItems + 1;
+  }
+
   /**
    * Take a concatenated String and return a {@link ICommonsList} of all
    * elements in the passed string, using specified separator string.
@@ -2865,13 +2968,59 @@ public final class StringHelper
   {
     ValueEnforcer.notNull (aSearchChars, "SearchChars");
 
-    if (aInput != null)
+    if (aInput != null && aSearchChars.length > 0)
+    {
+      final long nLowMask = _getLowMask (aSearchChars);
+      final long nHighMask = _getHighMask (aSearchChars);
       for (final char cIn : aInput)
-        if (ArrayHelper.contains (aSearchChars, cIn))
+        if (_isContained (cIn, nLowMask, nHighMask, aSearchChars))
           return true;
+    }
     return false;
   }
 
+  /**
+   * @param aChars
+   *        Chars to use
+   * @return A bit mask with one bit for each of the passed chars &lt; 64.
+   */
+  private static long _getLowMask (@Nonnull final char [] aChars)
+  {
+    long ret = 0;
+    for (final char c : aChars)
+      if (c < 64)
+        ret |= 1L << c;
+    return ret;
+  }
+
+  /**
+   * @param aChars
+   *        Chars to use
+   * @return A bit mask with one bit for each of the passed chars &ge; 64 and
+   *         &lt; 128.
+   */
+  private static long _getHighMask (@Nonnull final char [] aChars)
+  {
+    long ret = 0;
+    for (final char c : aChars)
+      if (c >= 64 && c < 128)
+        ret |= 1L << (c - 64);
+    return ret;
+  }
+
+  private static boolean _isContained (final char c,
+                                       final long nLowMask,
+                                       final long nHighMask,
+                                       @Nonnull final char [] aSearchChars)
+  {
+    // ASCII chars are checked with a single bit test
+    if (c < 64)
+      return (nLowMask & (1L << c)) != 0;
+    if (c < 128)
+      return (nHighMask & (1L << (c - 64))) != 0;
+    return ArrayHelper.contains (aSearchChars, c);
+  }
+
   /**
    * Check if any of the passed searched characters in contained in the input
    * string.
@@ -2885,7 +3034,29 @@ public final class StringHelper
    */
   public static boolean containsAny (@Nullable final String sInput, @Nonnull final char [] aSearchChars)
   {
-    return sInput != null && containsAny (sInput.toCharArray (), aSearchChars);
+    ValueEnforcer.notNull (aSearchChars, "SearchChars");
+
+    if (sInput == null)
+      return false;
+
+    final int nSearchChars = aSearchChars.length;
+    if (nSearchChars <= 2)
+    {
+      // String.indexOf is the fastest way to scan for a single char
+      for (final char cSearch : aSearchChars)
+        if (sInput.indexOf (cSearch) >= 0)
+          return true;
+      return false;
+    }
+
+    // Avoid copying the string to a char array
+    final long nLowMask = _getLowMask (aSearchChars);
+    final long nHighMask = _getHighMask (aSearchChars);
+    final int nLength = sInput.length ();
+    for (int i = 0; i < nLength; ++i)
+      if (_isContained (sInput.charAt (i), nLowMask, nHighMask, aSearchChars))
+        return true;
+    return false;
   }
 
   /**
@@ -2959,25 +3130,15 @@ public final class StringHelper
   public static int getOccurrenceCount (@Nullable final String sText, final char cSearch)
   {
     int ret = 0;
-    final int nTextLength = getLength (sText);
-    if (nTextLength >= 1)
+    if (sText != null)
     {
-      int nLastIndex = 0;
-      int nIndex;
-      do
+      // String.indexOf is the fastest way to scan for a single char
+      int nIndex = sText.indexOf (cSearch);
+      while (nIndex >= 0)
       {
-        // Start searching from the last result
-        nIndex = getIndexOf (sText, nLastIndex, cSearch);
-        if (nIndex != STRING_NOT_FOUND)
-        {
-          // Match found
-          ++ret;
-
-          // Identify the next starting position (relative index + number of
-          // search strings)
-          nLastIndex = nIndex + 1;
-        }
-      } while (nIndex != STRING_NOT_FOUND);
+        ++ret;
+        nIndex = sText.indexOf (cSearch, nIndex + 1);
+      }
     }
     return ret;
   }
@@ -4093,7 +4254,10 @@ public final class StringHelper
   /**
    * Perform all string replacements on the input string as defined by the
    * passed map. All replacements are done using
-   * {@link #replaceAll(String,String,CharSequence)} which is ok.
+   * {@link #replaceAll(String,String,CharSequence)} which is ok. For many
+   * search texts or repeated calls with the same map, consider using a
+   * {@link com.helger.commons.string.util.MultiStringReplacer} which scans the
+   * input only once.
    *
    * @param sInputString
    *        The input string where the text should be replaced. May be
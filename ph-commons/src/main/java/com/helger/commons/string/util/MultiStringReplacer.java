@@ -0,0 +1,371 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.string.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsTreeMap;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsSortedMap;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A compiled, reusable replacer for multiple search texts. The search texts
+ * are compiled once into an Aho-Corasick automaton and each input is scanned
+ * only once. At each position the leftmost match is replaced and if multiple
+ * search texts start at the same position, the longest one is used. Replaced
+ * text is not searched again.<br>
+ * Note: this is different from
+ * {@link com.helger.commons.string.StringHelper#replaceMultiple(String, Map)}
+ * which performs one replacement pass per search text, so that replacement
+ * texts may be subject to subsequent replacements.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@Immutable
+public final class MultiStringReplacer
+{
+  private static final int NO_PATTERN = -1;
+
+  private final String [] m_aSearchTexts;
+  private final String [] m_aReplacementTexts;
+
+  // Compressed trie: the children of state s are in the range
+  // [m_aEdgeOfs[s], m_aEdgeOfs[s+1]) sorted by char
+  private final int [] m_aEdgeOfs;
+  private final char [] m_aEdgeChars;
+  private final int [] m_aEdgeTargets;
+  private final int [] m_aFail;
+  private final int [] m_aDepth;
+  // Index of the search text ending exactly in this state
+  private final int [] m_aPatternIndex;
+  // Length of the longest search text that is a suffix of this state, 0 for
+  // none
+  private final int [] m_aOutLength;
+
+  /**
+   * Constructor
+   *
+   * @param aTransTable
+   *        The map from search text to replacement text. May neither be
+   *        <code>null</code> nor empty. The search texts may not be empty and
+   *        the replacement texts may not be <code>null</code>.
+   */
+  public MultiStringReplacer (@Nonnull final Map <String, String> aTransTable)
+  {
+    this (ValueEnforcer.notEmpty (aTransTable, "TransTable").keySet ().toArray (new String [0]),
+          aTransTable.values ().toArray (new String [0]));
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aSearchTexts
+   *        The texts to be searched. May neither be <code>null</code> nor empty
+   *        and may not contain <code>null</code> or empty elements. If the
+   *        same text is contained more than once, the first one is used.
+   * @param aReplacementTexts
+   *        The texts to be used as the replacements. This array must have
+   *        exactly the same number of elements than the searched texts and may
+   *        not contain <code>null</code> elements.
+   */
+  public MultiStringReplacer (@Nonnull final String [] aSearchTexts, @Nonnull final String [] aReplacementTexts)
+  {
+    ValueEnforcer.notEmptyNoNullValue (aSearchTexts, "SearchTexts");
+    ValueEnforcer.noNullValue (aReplacementTexts, "ReplacementTexts");
+    ValueEnforcer.isTrue (aSearchTexts.length == aReplacementTexts.length, "Array length mismatch!");
+    for (final String sSearchText : aSearchTexts)
+      ValueEnforcer.notEmpty (sSearchText, "SearchText");
+
+    m_aSearchTexts = aSearchTexts.clone ();
+    m_aReplacementTexts = aReplacementTexts.clone ();
+
+    // Build the trie
+    final ICommonsList <ICommonsSortedMap <Character, Integer>> aChildren = new CommonsArrayList <> ();
+    final ICommonsList <Integer> aPatternIndex = new CommonsArrayList <> ();
+    aChildren.add (new CommonsTreeMap <> ());
+    aPatternIndex.add (Integer.valueOf (NO_PATTERN));
+    for (int nPattern = 0; nPattern < aSearchTexts.length; ++nPattern)
+    {
+      int nState = 0;
+      for (final char c : aSearchTexts[nPattern].toCharArray ())
+      {
+        final Character aChar = Character.valueOf (c);
+        final Integer aNext = aChildren.get (nState).get (aChar);
+        if (aNext != null)
+          nState = aNext.intValue ();
+        else
+        {
+          final int nNew = aChildren.size ();
+          aChildren.add (new CommonsTreeMap <> ());
+          aPatternIndex.add (Integer.valueOf (NO_PATTERN));
+          aChildren.get (nState).put (aChar, Integer.valueOf (nNew));
+          nState = nNew;
+        }
+      }
+      if (aPatternIndex.get (nState).intValue () == NO_PATTERN)
+        aPatternIndex.set (nState, Integer.valueOf (nPattern));
+    }
+
+    // Compress the trie
+    final int nStates = aChildren.size ();
+    int nEdges = 0;
+    for (final ICommonsSortedMap <Character, Integer> aMap : aChildren)
+      nEdges += aMap.size ();
+    m_aEdgeOfs = new int [nStates + 1];
+    m_aEdgeChars = new char [nEdges];
+    m_aEdgeTargets = new int [nEdges];
+    m_aPatternIndex = new int [nStates];
+    int nEdge = 0;
+    for (int nState = 0; nState < nStates; ++nState)
+    {
+      m_aEdgeOfs[nState] = nEdge;
+      for (final Map.Entry <Character, Integer> aEntry : aChildren.get (nState).entrySet ())
+      {
+        m_aEdgeChars[nEdge] = aEntry.getKey ().charValue ();
+        m_aEdgeTargets[nEdge] = aEntry.getValue ().intValue ();
+        nEdge++;
+      }
+      m_aPatternIndex[nState] = aPatternIndex.get (nState).intValue ();
+    }
+    m_aEdgeOfs[nStates] = nEdge;
+
+    // Failure links in breadth first order
+    m_aFail = new int [nStates];
+    m_aDepth = new int [nStates];
+    m_aOutLength = new int [nStates];
+    final int [] aQueue = new int [nStates];
+    int nHead = 0;
+    int nTail = 0;
+    aQueue[nTail++] = 0;
+    while (nHead < nTail)
+    {
+      final int nState = aQueue[nHead++];
+      for (int i = m_aEdgeOfs[nState]; i < m_aEdgeOfs[nState + 1]; ++i)
+      {
+        final int nChild = m_aEdgeTargets[i];
+        m_aDepth[nChild] = m_aDepth[nState] + 1;
+        m_aFail[nChild] = nState == 0 ? 0 : _step (m_aFail[nState], m_aEdgeChars[i]);
+        m_aOutLength[nChild] = m_aPatternIndex[nChild] != NO_PATTERN ? m_aDepth[nChild]
+                                                                     : m_aOutLength[m_aFail[nChild]];
+        aQueue[nTail++] = nChild;
+      }
+    }
+  }
+
+  private int _getChild (final int nState, final char c)
+  {
+    int nLow = m_aEdgeOfs[nState];
+    int nHigh = m_aEdgeOfs[nState + 1] - 1;
+    while (nLow <= nHigh)
+    {
+      final int nMid = (nLow + nHigh) >>> 1;
+      final char cMid = m_aEdgeChars[nMid];
+      if (cMid < c)
+        nLow = nMid + 1;
+      else
+        if (cMid > c)
+          nHigh = nMid - 1;
+        else
+          return m_aEdgeTargets[nMid];
+    }
+    return -1;
+  }
+
+  private int _step (final int nState, final char c)
+  {
+    int nCur = nState;
+    while (true)
+    {
+      final int nNext = _getChild (nCur, c);
+      if (nNext >= 0)
+        return nNext;
+      if (nCur == 0)
+        return 0;
+      nCur = m_aFail[nCur];
+    }
+  }
+
+  /**
+   * Find the next leftmost-longest match.
+   *
+   * @param aText
+   *        Text to search
+   * @param nFrom
+   *        Index to start searching
+   * @param aMatch
+   *        Array of 2 elements, filled with the end index and the pattern
+   *        index of the match.
+   * @return The start index of the match or -1 if no match was found.
+   */
+  private int _findMatch (@Nonnull final CharSequence aText, final int nFrom, @Nonnull final int [] aMatch)
+  {
+    final int nLength = aText.length ();
+    int nState = 0;
+    int nMatchStart = -1;
+    int nIndex = nFrom;
+    while (nIndex < nLength)
+    {
+      nState = _step (nState, aText.charAt (nIndex));
+      nIndex++;
+      final int nOutLength = m_aOutLength[nState];
+      if (nOutLength > 0)
+      {
+        // The longest search text ending here has the leftmost start
+        final int nStart = nIndex - nOutLength;
+        if (nMatchStart < 0 || nStart < nMatchStart)
+          nMatchStart = nStart;
+      }
+      // Is there an unfinished match that starts before the found one?
+      if (nMatchStart >= 0 && nIndex - m_aDepth[nState] >= nMatchStart)
+        break;
+    }
+    if (nMatchStart < 0)
+      return -1;
+
+    // Find the longest search text starting at the match start
+    nState = 0;
+    nIndex = nMatchStart;
+    while (nIndex < nLength)
+    {
+      nState = _getChild (nState, aText.charAt (nIndex));
+      if (nState < 0)
+        break;
+      nIndex++;
+      if (m_aPatternIndex[nState] != NO_PATTERN)
+      {
+        aMatch[0] = nIndex;
+        aMatch[1] = m_aPatternIndex[nState];
+      }
+    }
+    return nMatchStart;
+  }
+
+  /**
+   * @return The number of search texts. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getSearchTextCount ()
+  {
+    return m_aSearchTexts.length;
+  }
+
+  /**
+   * Replace all search texts in the passed text.
+   *
+   * @param sText
+   *        The text to be modified. May be <code>null</code>.
+   * @return The unmodified text, if it is <code>null</code> or if no search
+   *         text is contained.
+   */
+  @Nullable
+  public String replace (@Nullable final String sText)
+  {
+    if (sText == null)
+      return null;
+
+    final int [] aMatch = new int [2];
+    final int nFirstMatch = _findMatch (sText, 0, aMatch);
+    if (nFirstMatch < 0)
+      return sText;
+
+    final StringBuilder aSB = new StringBuilder (sText.length () + 16);
+    aSB.append (sText, 0, nFirstMatch).append (m_aReplacementTexts[aMatch[1]]);
+    _replaceTo (sText, aMatch[0], aMatch, aSB);
+    return aSB.toString ();
+  }
+
+  private void _replaceTo (@Nonnull final CharSequence aText,
+                           final int nFrom,
+                           @Nonnull final int [] aMatch,
+                           @Nonnull final StringBuilder aSB)
+  {
+    int nPos = nFrom;
+    int nMatchStart;
+    while ((nMatchStart = _findMatch (aText, nPos, aMatch)) >= 0)
+    {
+      aSB.append (aText, nPos, nMatchStart).append (m_aReplacementTexts[aMatch[1]]);
+      nPos = aMatch[0];
+    }
+    aSB.append (aText, nPos, aText.length ());
+  }
+
+  /**
+   * Replace all search texts in the passed text and append the result to the
+   * passed {@link StringBuilder}.
+   *
+   * @param aText
+   *        The text to be modified. May not be <code>null</code>.
+   * @param aSB
+   *        The string builder to append to. May not be <code>null</code>.
+   */
+  public void replaceTo (@Nonnull final CharSequence aText, @Nonnull final StringBuilder aSB)
+  {
+    ValueEnforcer.notNull (aText, "Text");
+    ValueEnforcer.notNull (aSB, "StringBuilder");
+
+    _replaceTo (aText, 0, new int [2], aSB);
+  }
+
+  /**
+   * Replace all search texts in the passed text and write the result to the
+   * passed {@link Writer}.
+   *
+   * @param aText
+   *        The text to be modified. May not be <code>null</code>.
+   * @param aWriter
+   *        The writer to write to. May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails
+   */
+  public void replaceTo (@Nonnull final CharSequence aText, @Nonnull final Writer aWriter) throws IOException
+  {
+    ValueEnforcer.notNull (aText, "Text");
+    ValueEnforcer.notNull (aWriter, "Writer");
+
+    final String sText = aText.toString ();
+    final int [] aMatch = new int [2];
+    int nPos = 0;
+    int nMatchStart;
+    while ((nMatchStart = _findMatch (sText, nPos, aMatch)) >= 0)
+    {
+      aWriter.write (sText, nPos, nMatchStart - nPos);
+      aWriter.write (m_aReplacementTexts[aMatch[1]]);
+      nPos = aMatch[0];
+    }
+    aWriter.write (sText, nPos, sText.length () - nPos);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("SearchTexts", m_aSearchTexts)
+                                       .append ("ReplacementTexts", m_aReplacementTexts)
+                                       .append ("States", m_aFail.length)
+                                       .getToString ();
+  }
+}
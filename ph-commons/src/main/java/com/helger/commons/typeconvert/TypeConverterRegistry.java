@@ -18,6 +18,7 @@ package com.helger.commons.typeconvert;
 
 import java.lang.ref.WeakReference;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -66,6 +67,84 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
 
   private static boolean s_bDefaultInstantiated = false;
 
+  /**
+   * Cache for the result of a converter resolution per source and destination
+   * class, including negative results. It is based on {@link ClassValue} so
+   * that the cache never keeps a class (and therefore its class loader) alive.
+   * The cache is invalidated by replacing the outer {@link ClassValue}.
+   */
+  private static final class ResolvedConverterCache
+  {
+    /** Marker for "no converter found" */
+    private static final Object NO_CONVERTER = new Object ();
+
+    /**
+     * The cached results of a single source class, keyed by destination class.
+     * Must not reference the outer {@link ClassValue} - otherwise the weakly
+     * referenced key would be strongly reachable from the value.
+     */
+    private static final class DstClassValue extends ClassValue <Object>
+    {
+      private final Class <?> m_aSrcClass;
+      private final BiFunction <Class <?>, Class <?>, ITypeConverter <?, ?>> m_aResolver;
+
+      DstClassValue (@Nonnull final Class <?> aSrcClass,
+                     @Nonnull final BiFunction <Class <?>, Class <?>, ITypeConverter <?, ?>> aResolver)
+      {
+        m_aSrcClass = aSrcClass;
+        m_aResolver = aResolver;
+      }
+
+      @Override
+      protected Object computeValue (@Nonnull final Class <?> aDstClass)
+      {
+        final ITypeConverter <?, ?> ret = m_aResolver.apply (m_aSrcClass, aDstClass);
+        return ret == null ? NO_CONVERTER : ret;
+      }
+    }
+
+    private static final class SrcClassValue extends ClassValue <DstClassValue>
+    {
+      private final BiFunction <Class <?>, Class <?>, ITypeConverter <?, ?>> m_aResolver;
+
+      SrcClassValue (@Nonnull final BiFunction <Class <?>, Class <?>, ITypeConverter <?, ?>> aResolver)
+      {
+        m_aResolver = aResolver;
+      }
+
+      @Override
+      protected DstClassValue computeValue (@Nonnull final Class <?> aSrcClass)
+      {
+        return new DstClassValue (aSrcClass, m_aResolver);
+      }
+    }
+
+    private final BiFunction <Class <?>, Class <?>, ITypeConverter <?, ?>> m_aResolver;
+    private volatile SrcClassValue m_aCache;
+
+    ResolvedConverterCache (@Nonnull final BiFunction <Class <?>, Class <?>, ITypeConverter <?, ?>> aResolver)
+    {
+      m_aResolver = aResolver;
+      m_aCache = new SrcClassValue (aResolver);
+    }
+
+    @Nullable
+    ITypeConverter <?, ?> get (@Nonnull final Class <?> aSrcClass, @Nonnull final Class <?> aDstClass)
+    {
+      final Object ret = m_aCache.get (aSrcClass).get (aDstClass);
+      return ret == NO_CONVERTER ? null : (ITypeConverter <?, ?>) ret;
+    }
+
+    /**
+     * Invalidate all cached values. Must be called after the underlying data
+     * was modified.
+     */
+    void clear ()
+    {
+      m_aCache = new SrcClassValue (m_aResolver);
+    }
+  }
+
   private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
 
   // Use a weak hash map, because the key is a class
@@ -74,11 +153,21 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
   @GuardedBy ("m_aRWLock")
   private final ICommonsSortedMap <ITypeConverterRule.ESubType, ICommonsList <ITypeConverterRule <?, ?>>> m_aRules = new CommonsTreeMap <> ();
 
+  // Memoized results of the rule based and the fuzzy lookup
+  private final ResolvedConverterCache m_aRuleBasedCache = new ResolvedConverterCache (this::_findRuleBasedConverter);
+  private final ResolvedConverterCache m_aFuzzyCache = new ResolvedConverterCache (this::_findFuzzyConverter);
+
   private TypeConverterRegistry ()
   {
     _reinitialize ();
   }
 
+  private void _clearResolvedConverterCaches ()
+  {
+    m_aRuleBasedCache.clear ();
+    m_aFuzzyCache.clear ();
+  }
+
   public static boolean isInstantiated ()
   {
     return s_bDefaultInstantiated;
@@ -165,6 +254,9 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
           }
       }
     });
+
+    // Previous lookups may have a different result now
+    _clearResolvedConverterCaches ();
   }
 
   public <SRC, DST> void registerTypeConverter (@Nonnull final Class <SRC> aSrcClass,
@@ -204,7 +296,9 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
 
   /**
    * Get the converter that can convert objects from aSrcClass to aDstClass
-   * using the registered rules. The first match is returned.
+   * using the registered rules. The first match is returned. The result
+   * (including a <code>null</code> result) is cached until the next
+   * registration.
    *
    * @param aSrcClass
    *        Source class. May not be <code>null</code>.
@@ -219,6 +313,13 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
     if (aSrcClass == null || aDstClass == null)
       return null;
 
+    return m_aRuleBasedCache.get (aSrcClass, aDstClass);
+  }
+
+  @Nullable
+  private ITypeConverter <?, ?> _findRuleBasedConverter (@Nonnull final Class <?> aSrcClass,
+                                                         @Nonnull final Class <?> aDstClass)
+  {
     return m_aRWLock.readLocked ( () -> {
       // Check all rules in the correct order
       for (final Map.Entry <ITypeConverterRule.ESubType, ICommonsList <ITypeConverterRule <?, ?>>> aEntry : m_aRules.entrySet ())
@@ -274,7 +375,8 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
    * Get the converter that can convert objects from aSrcClass to aDstClass. If
    * no exact match is found, the super-classes and interface of source and
    * destination class are searched for matching type converters. The first
-   * match is returned.
+   * match is returned. The result (including a <code>null</code> result) is
+   * cached until the next registration.
    *
    * @param aSrcClass
    *        Source class. May not be <code>null</code>.
@@ -289,6 +391,13 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
     if (aSrcClass == null || aDstClass == null)
       return null;
 
+    return m_aFuzzyCache.get (aSrcClass, aDstClass);
+  }
+
+  @Nullable
+  private ITypeConverter <?, ?> _findFuzzyConverter (@Nonnull final Class <?> aSrcClass,
+                                                     @Nonnull final Class <?> aDstClass)
+  {
     return m_aRWLock.readLocked ( () -> {
       if (GlobalDebug.isDebugMode ())
       {
@@ -359,6 +468,9 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
                                                             x -> new CommonsArrayList <> ())
                                           .add (aTypeConverterRule));
 
+    // Previous lookups may have a different result now
+    _clearResolvedConverterCaches ();
+
     if (s_aLogger.isTraceEnabled ())
       s_aLogger.trace ("Registered type converter rule " +
                        ClassHelper.getClassLocalName (aTypeConverterRule) +
@@ -391,6 +503,7 @@ public final class TypeConverterRegistry implements ITypeConverterRegistry
           s_aLogger.debug ("Calling registerTypeConverter on " + aSPI.getClass ().getName ());
         aSPI.registerTypeConverter (this);
       }
+      _clearResolvedConverterCaches ();
     });
 
     if (s_aLogger.isDebugEnabled ())
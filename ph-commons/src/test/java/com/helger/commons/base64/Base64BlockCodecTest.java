@@ -0,0 +1,235 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.base64;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+
+/**
+ * Test class for class {@link Base64BlockCodec}.
+ *
+ * @author Philip Helger
+ */
+public final class Base64BlockCodecTest
+{
+  private static final int [] OPTIONS = { Base64.NO_OPTIONS,
+                                          Base64.URL_SAFE,
+                                          Base64.ORDERED,
+                                          Base64.DO_BREAK_LINES,
+                                          Base64.URL_SAFE | Base64.DO_BREAK_LINES,
+                                          Base64.ORDERED | Base64.DO_BREAK_LINES };
+
+  @Test
+  public void testEncodeSameAsBase64 () throws IOException
+  {
+    final Random aRandom = new Random (12345);
+    for (final int nOptions : OPTIONS)
+    {
+      final Base64BlockCodec aCodec = new Base64BlockCodec (nOptions);
+      for (int nLen = 0; nLen < 400; ++nLen)
+      {
+        final byte [] aSrc = new byte [nLen];
+        aRandom.nextBytes (aSrc);
+        final byte [] aExpected = Base64.encodeBytesToBytes (aSrc, 0, nLen, nOptions);
+
+        final byte [] aEncoded = aCodec.getEncoded (aSrc);
+        assertArrayEquals ("Length " + nLen + " with options " + nOptions, aExpected, aEncoded);
+        assertEquals (aExpected.length, aCodec.getEncodedLength (nLen));
+
+        // Streaming to an OutputStream
+        try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+        {
+          aCodec.encode (aSrc, 0, nLen, aBAOS);
+          assertArrayEquals (aExpected, aBAOS.toByteArray ());
+        }
+
+        // Heap ByteBuffer
+        final ByteBuffer aDst = ByteBuffer.allocate (aExpected.length + 2);
+        aDst.put ((byte) 'x');
+        aCodec.encode (ByteBuffer.wrap (aSrc), aDst);
+        assertEquals (aExpected.length + 1, aDst.position ());
+        assertArrayEquals (aExpected, Arrays.copyOfRange (aDst.array (), 1, aExpected.length + 1));
+
+        // Direct ByteBuffer
+        final ByteBuffer aDirectSrc = ByteBuffer.allocateDirect (nLen);
+        aDirectSrc.put (aSrc).flip ();
+        final ByteBuffer aDirectDst = ByteBuffer.allocateDirect (aExpected.length);
+        aCodec.encode (aDirectSrc, aDirectDst);
+        assertFalse (aDirectSrc.hasRemaining ());
+        aDirectDst.flip ();
+        final byte [] aDirectEncoded = new byte [aDirectDst.remaining ()];
+        aDirectDst.get (aDirectEncoded);
+        assertArrayEquals (aExpected, aDirectEncoded);
+      }
+    }
+  }
+
+  @Test
+  public void testEncodeLarge () throws IOException
+  {
+    final byte [] aSrc = new byte [1024 * 1024 + 17];
+    new Random (1).nextBytes (aSrc);
+    for (final int nOptions : OPTIONS)
+    {
+      final Base64BlockCodec aCodec = new Base64BlockCodec (nOptions);
+      final byte [] aExpected = Base64.encodeBytesToBytes (aSrc, 0, aSrc.length, nOptions);
+      assertArrayEquals (aExpected, aCodec.getEncoded (aSrc));
+      try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+      {
+        aCodec.encode (aSrc, 0, aSrc.length, aBAOS);
+        assertArrayEquals (aExpected, aBAOS.toByteArray ());
+      }
+      try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+      {
+        aCodec.decode (aExpected, 0, aExpected.length, aBAOS);
+        assertArrayEquals (aSrc, aBAOS.toByteArray ());
+      }
+      assertArrayEquals (aSrc, aCodec.getDecoded (aExpected));
+    }
+
+    // Same result as the JDK
+    assertArrayEquals (java.util.Base64.getEncoder ().encode (aSrc), Base64BlockCodec.getDefaultInstance ().getEncoded (aSrc));
+    assertArrayEquals (java.util.Base64.getUrlEncoder ().encode (aSrc),
+                       new Base64BlockCodec (Base64.URL_SAFE).getEncoded (aSrc));
+  }
+
+  @Test
+  public void testDecodeSameAsBase64 () throws IOException
+  {
+    final Random aRandom = new Random (54321);
+    for (final int nOptions : OPTIONS)
+    {
+      final Base64BlockCodec aCodec = new Base64BlockCodec (nOptions);
+      for (int nLen = 0; nLen < 400; ++nLen)
+      {
+        final byte [] aSrc = new byte [nLen];
+        aRandom.nextBytes (aSrc);
+        final byte [] aEncoded = Base64.encodeBytesToBytes (aSrc, 0, nLen, nOptions);
+
+        assertArrayEquals (aSrc, aCodec.getDecoded (aEncoded));
+        if (nLen > 0)
+          assertArrayEquals (aSrc, Base64.decode (aEncoded, nOptions));
+
+        // Streaming to an OutputStream
+        try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+        {
+          aCodec.decode (aEncoded, 0, aEncoded.length, aBAOS);
+          assertArrayEquals (aSrc, aBAOS.toByteArray ());
+        }
+
+        // Heap ByteBuffer
+        final ByteBuffer aDst = ByteBuffer.allocate (aCodec.getMaxDecodedLength (aEncoded.length));
+        aCodec.decode (ByteBuffer.wrap (aEncoded), aDst);
+        assertEquals (nLen, aDst.position ());
+        assertArrayEquals (aSrc, Arrays.copyOf (aDst.array (), nLen));
+
+        // Direct ByteBuffer
+        final ByteBuffer aDirectSrc = ByteBuffer.allocateDirect (aEncoded.length);
+        aDirectSrc.put (aEncoded).flip ();
+        final ByteBuffer aDirectDst = ByteBuffer.allocateDirect (aCodec.getMaxDecodedLength (aEncoded.length));
+        aCodec.decode (aDirectSrc, aDirectDst);
+        assertEquals (nLen, aDirectDst.position ());
+      }
+    }
+  }
+
+  @Test
+  public void testDecodeWhitespaces () throws IOException
+  {
+    final Base64BlockCodec aCodec = Base64BlockCodec.getDefaultInstance ();
+    final byte [] aEncoded = " QU JD\r\nREVG\tR0g= trailing garbage!".getBytes (StandardCharsets.ISO_8859_1);
+    assertArrayEquals ("ABCDEFGH".getBytes (StandardCharsets.ISO_8859_1), aCodec.getDecoded (aEncoded));
+    assertArrayEquals (Base64.decode (aEncoded), aCodec.getDecoded (aEncoded));
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+    {
+      aCodec.decode (aEncoded, 0, aEncoded.length, aBAOS);
+      assertEquals ("ABCDEFGH", aBAOS.getAsString (StandardCharsets.ISO_8859_1));
+    }
+  }
+
+  @Test
+  public void testDecodeErrors ()
+  {
+    final Base64BlockCodec aCodec = Base64BlockCodec.getDefaultInstance ();
+    try
+    {
+      aCodec.getDecoded ("QUJD!REVG".getBytes (StandardCharsets.ISO_8859_1));
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+
+    // Incomplete trailing group is ignored for arrays...
+    final byte [] aUnpadded = "QUJDRE".getBytes (StandardCharsets.ISO_8859_1);
+    try
+    {
+      assertArrayEquals ("ABC".getBytes (StandardCharsets.ISO_8859_1), aCodec.getDecoded (aUnpadded));
+    }
+    catch (final IOException ex)
+    {
+      fail ();
+    }
+
+    // ... but not for streams
+    try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+    {
+      aCodec.decode (aUnpadded, 0, aUnpadded.length, aBAOS);
+      fail ();
+    }
+    catch (final IOException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testOutputStreamBulkWrite () throws IOException
+  {
+    final byte [] aSrc = new byte [10000];
+    new Random (7).nextBytes (aSrc);
+    for (final int nOptions : OPTIONS)
+    {
+      final byte [] aExpected = Base64.encodeBytesToBytes (aSrc, 0, aSrc.length, nOptions);
+      for (final int nChunk : new int [] { 1, 2, 3, 5, 76, 100, 4096, aSrc.length })
+      {
+        try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+        {
+          try (final Base64OutputStream aB64OS = new Base64OutputStream (aBAOS, Base64.ENCODE | nOptions))
+          {
+            for (int i = 0; i < aSrc.length; i += nChunk)
+              aB64OS.write (aSrc, i, Math.min (nChunk, aSrc.length - i));
+          }
+          assertArrayEquals ("Chunk " + nChunk + " with options " + nOptions, aExpected, aBAOS.toByteArray ());
+        }
+      }
+    }
+  }
+}
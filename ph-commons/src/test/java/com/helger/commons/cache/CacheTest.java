@@ -17,9 +17,30 @@
 package com.helger.commons.cache;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import com.helger.commons.concurrent.ExecutorServiceHelper;
+import com.helger.commons.concurrent.ThreadHelper;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
+import com.helger.commons.statistics.StatisticsManager;
+
 /**
  * Test class for class {@link Cache}.
  *
@@ -32,9 +53,270 @@ public final class CacheTest
   {
     final MockNotifyingCache c = new MockNotifyingCache (5);
     assertEquals (5, c.getMaxSize ());
+    assertFalse (c.isConcurrent ());
 
     for (int i = 0; i < c.getMaxSize () + 1; ++i)
       c.getFromCache ("key" + i);
     assertEquals (5, c.getSize ());
   }
+
+  @Test
+  public void testEvictStats ()
+  {
+    for (final boolean bConcurrent : new boolean [] { false, true })
+    {
+      final String sName = "MockEvictStats" + bConcurrent;
+      final Cache <String, String> c = new Cache <> (aKey -> aKey, 5, sName, bConcurrent);
+      final String sStatsName = Cache.STATISTICS_PREFIX + sName + "$evict";
+      final IMutableStatisticsHandlerCounter aEvictStats = StatisticsManager.getCounterHandler (sStatsName);
+      final long nEvictedBefore = aEvictStats.getCount ();
+
+      for (int i = 0; i < 5; ++i)
+        c.getFromCache ("key" + i);
+      assertEquals (nEvictedBefore, aEvictStats.getCount ());
+
+      // Exceeding the max size evicts one entry each
+      c.getFromCache ("key5");
+      c.getFromCache ("key6");
+      assertEquals (5, c.getSize ());
+      assertEquals (nEvictedBefore + 2, aEvictStats.getCount ());
+
+      // Explicit removal is no eviction
+      assertTrue (c.removeFromCache ("key6").isChanged ());
+      assertEquals (nEvictedBefore + 2, aEvictStats.getCount ());
+    }
+  }
+
+  @Test
+  public void testConcurrent ()
+  {
+    final MockNotifyingCache c = new MockNotifyingCache (5, true);
+    assertEquals (5, c.getMaxSize ());
+    assertTrue (c.isConcurrent ());
+    assertTrue (c.isEmpty ());
+
+    for (int i = 0; i < c.getMaxSize () + 1; ++i)
+      assertEquals ("key" + i, c.getFromCache ("key" + i));
+    assertEquals (5, c.getSize ());
+    assertTrue (c.isNotEmpty ());
+
+    // The oldest key was evicted
+    assertNull (c.getFromCacheNoStats ("key0"));
+    assertNotNull (c.getFromCacheNoStats ("key5"));
+
+    assertTrue (c.removeFromCache ("key5").isChanged ());
+    assertFalse (c.removeFromCache ("key5").isChanged ());
+    assertEquals (4, c.getSize ());
+
+    assertTrue (c.clearCache ().isChanged ());
+    assertFalse (c.clearCache ().isChanged ());
+    assertTrue (c.isEmpty ());
+  }
+
+  @Test
+  public void testConcurrentSegmentedLRU ()
+  {
+    final MockNotifyingCache c = new MockNotifyingCache (10, true);
+    // Access "hot" twice, so that it is moved to the protected segment
+    c.getFromCache ("hot");
+    c.getFromCache ("hot");
+    // Scan with many one-time keys
+    for (int i = 0; i < 100; ++i)
+      c.getFromCache ("scan" + i);
+    assertEquals (10, c.getSize ());
+    assertNotNull (c.getFromCacheNoStats ("hot"));
+  }
+
+  @Test
+  public void testConcurrentLoadsEachKeyOnce () throws Exception
+  {
+    final AtomicInteger aLoadCount = new AtomicInteger (0);
+    final CountDownLatch aLoadingStarted = new CountDownLatch (1);
+    final CountDownLatch aFinishLoading = new CountDownLatch (1);
+    final Cache <String, String> c = new Cache <> (aKey -> {
+      aLoadCount.incrementAndGet ();
+      aLoadingStarted.countDown ();
+      try
+      {
+        // Simulate a slow provider
+        aFinishLoading.await ();
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      return aKey;
+    }, 0, "MockConcurrentLoad", true);
+
+    final int nThreads = 16;
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads);
+    try
+    {
+      final CountDownLatch aAllSubmitted = new CountDownLatch (nThreads);
+      final List <Future <String>> aFutures = new ArrayList <> ();
+      for (int i = 0; i < nThreads; ++i)
+        aFutures.add (aES.submit ( () -> {
+          aAllSubmitted.countDown ();
+          return c.getFromCache ("slow");
+        }));
+
+      // Wait until the slow value is loading
+      assertTrue (aLoadingStarted.await (10, TimeUnit.SECONDS));
+      assertTrue (aAllSubmitted.await (10, TimeUnit.SECONDS));
+
+      // Other keys are available while "slow" is loading
+      c.putInCache ("fast", "value");
+      assertEquals ("value", c.getFromCache ("fast"));
+
+      aFinishLoading.countDown ();
+      for (final Future <String> aFuture : aFutures)
+        assertEquals ("slow", aFuture.get (10, TimeUnit.SECONDS));
+    }
+    finally
+    {
+      aFinishLoading.countDown ();
+      ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aES);
+    }
+    assertEquals (1, aLoadCount.get ());
+    assertEquals (2, c.getSize ());
+  }
+
+  @Test
+  public void testConcurrentFailingProvider ()
+  {
+    final AtomicInteger aLoadCount = new AtomicInteger (0);
+    final Cache <String, String> c = new Cache <> (aKey -> {
+      if (aLoadCount.incrementAndGet () == 1)
+        throw new IllegalArgumentException ("first call fails");
+      return aKey;
+    }, 0, "MockConcurrentFailure", true);
+
+    try
+    {
+      c.getFromCache ("a");
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+    // Failures are not cached
+    assertTrue (c.isEmpty ());
+    assertEquals ("a", c.getFromCache ("a"));
+    assertEquals (2, aLoadCount.get ());
+  }
+
+  @Test
+  public void testExpireAfterWrite ()
+  {
+    final AtomicInteger aLoadCount = new AtomicInteger (0);
+    final Cache <String, String> c = new Cache <> (aKey -> aKey + aLoadCount.incrementAndGet (),
+                                                   0,
+                                                   "MockExpireAfterWrite",
+                                                   true);
+    assertNull (c.getExpireAfterWrite ());
+    c.setExpireAfterWrite (Duration.ofMillis (50));
+    assertEquals (Duration.ofMillis (50), c.getExpireAfterWrite ());
+
+    final IMutableStatisticsHandlerCounter aEvictStats = StatisticsManager.getCounterHandler (Cache.STATISTICS_PREFIX +
+                                                                                              "MockExpireAfterWrite$evict");
+    final long nEvictedBefore = aEvictStats.getCount ();
+
+    assertEquals ("a1", c.getFromCache ("a"));
+    assertEquals ("a1", c.getFromCache ("a"));
+    ThreadHelper.sleep (100);
+    assertNull (c.getFromCacheNoStats ("a"));
+    assertEquals ("a2", c.getFromCache ("a"));
+    assertEquals (nEvictedBefore + 1, aEvictStats.getCount ());
+
+    ThreadHelper.sleep (100);
+    assertTrue (c.evictExpired ().isChanged ());
+    assertTrue (c.isEmpty ());
+  }
+
+  @Test
+  public void testExpireAfterAccess ()
+  {
+    final AtomicInteger aLoadCount = new AtomicInteger (0);
+    final Cache <String, String> c = new Cache <> (aKey -> aKey + aLoadCount.incrementAndGet (),
+                                                   0,
+                                                   "MockExpireAfterAccess",
+                                                   true);
+    c.setExpireAfterAccess (Duration.ofMillis (200));
+    assertEquals ("a1", c.getFromCache ("a"));
+    for (int i = 0; i < 5; ++i)
+    {
+      ThreadHelper.sleep (50);
+      // Each access extends the lifetime
+      assertEquals ("a1", c.getFromCache ("a"));
+    }
+    ThreadHelper.sleep (300);
+    assertEquals ("a2", c.getFromCache ("a"));
+  }
+
+  @Test
+  public void testRefreshAfterWrite () throws Exception
+  {
+    final AtomicInteger aLoadCount = new AtomicInteger (0);
+    final Cache <String, String> c = new Cache <> (aKey -> aKey + aLoadCount.incrementAndGet (),
+                                                   0,
+                                                   "MockRefreshAfterWrite",
+                                                   true);
+    // Execute refreshes in the calling thread
+    c.setRefreshAfterWrite (Duration.ofMillis (50)).setExecutor (Runnable::run);
+
+    assertEquals ("a1", c.getFromCache ("a"));
+    ThreadHelper.sleep (100);
+    // The stale value is returned and the refresh is triggered
+    assertEquals ("a1", c.getFromCache ("a"));
+    assertEquals ("a2", c.getFromCache ("a"));
+    assertEquals (2, aLoadCount.get ());
+  }
+
+  @Test
+  public void testNotConcurrentPolicies ()
+  {
+    final IMutableCache <String, String> c = new MockNotifyingCache (5);
+    assertFalse (c.isTimeBasedPolicySupported ());
+    assertNull (c.getExpireAfterWrite ());
+    try
+    {
+      c.setExpireAfterWrite (Duration.ofSeconds (1));
+      fail ();
+    }
+    catch (final UnsupportedOperationException ex)
+    {
+      // expected
+    }
+    try
+    {
+      c.setRefreshAfterWrite (Duration.ofSeconds (1));
+      fail ();
+    }
+    catch (final UnsupportedOperationException ex)
+    {
+      // expected
+    }
+    // Disabling is always possible
+    c.setExpireAfterWrite (null).setExpireAfterAccess (Duration.ZERO).setRefreshAfterWrite (null);
+    assertNull (c.getExpireAfterWrite ());
+    assertNull (c.getExpireAfterAccess ());
+    assertNull (c.getRefreshAfterWrite ());
+    assertFalse (((Cache <String, String>) c).evictExpired ().isChanged ());
+
+    assertTrue (new MockNotifyingCache (5, true).isTimeBasedPolicySupported ());
+  }
+
+  @Test
+  public void testGetFromCacheAsync () throws Exception
+  {
+    for (final boolean bConcurrent : new boolean [] { true, false })
+    {
+      final IMutableCache <String, String> c = new MockNotifyingCache (5, bConcurrent);
+      final CompletableFuture <String> aFuture = c.getFromCacheAsync ("a");
+      assertEquals ("a", aFuture.get ());
+      assertEquals ("a", c.getFromCacheAsync ("a").get ());
+      assertEquals (1, c.getSize ());
+    }
+  }
 }
@@ -22,6 +22,11 @@ public final class MockNotifyingCache extends Cache <String, String>
 {
   public MockNotifyingCache (final int nMaxSize)
   {
-    super (StringHelper::getNotNull, nMaxSize, "Mock");
+    this (nMaxSize, false);
+  }
+
+  public MockNotifyingCache (final int nMaxSize, final boolean bConcurrent)
+  {
+    super (StringHelper::getNotNull, nMaxSize, "Mock", bConcurrent);
   }
 }
@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.csv;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
+
+/**
+ * Test class for class {@link CSVBufferedWriter}.
+ *
+ * @author Philip Helger
+ */
+public final class CSVBufferedWriterTest
+{
+  private static final char [] CHARS = { 'a', 'ü', '€', ' ', ',', ';', '"', '\'', '\\', '\n', '\r', '\0', '1', '-' };
+
+  private static final class Settings
+  {
+    private final char m_cSeparator;
+    private final char m_cQuote;
+    private final char m_cEscape;
+    private final String m_sLineEnd;
+    private final boolean m_bAvoidFinalLineEnd;
+    private final boolean m_bQuoteAll;
+
+    Settings (final char cSeparator,
+              final char cQuote,
+              final char cEscape,
+              final String sLineEnd,
+              final boolean bAvoidFinalLineEnd,
+              final boolean bQuoteAll)
+    {
+      m_cSeparator = cSeparator;
+      m_cQuote = cQuote;
+      m_cEscape = cEscape;
+      m_sLineEnd = sLineEnd;
+      m_bAvoidFinalLineEnd = bAvoidFinalLineEnd;
+      m_bQuoteAll = bQuoteAll;
+    }
+
+    @Nonnull
+    CSVWriter createWriter (@Nonnull final NonBlockingStringWriter aSW)
+    {
+      return new CSVWriter (aSW).setSeparatorChar (m_cSeparator)
+                                .setQuoteChar (m_cQuote)
+                                .setEscapeChar (m_cEscape)
+                                .setLineEnd (m_sLineEnd)
+                                .setAvoidFinalLineEnd (m_bAvoidFinalLineEnd)
+                                .setApplyQuotesToAll (m_bQuoteAll);
+    }
+
+    @Nonnull
+    CSVBufferedWriter createBufferedWriter (@Nonnull final NonBlockingStringWriter aSW, final int nBufferSize)
+    {
+      return new CSVBufferedWriter (aSW, nBufferSize).setSeparatorChar (m_cSeparator)
+                                                     .setQuoteChar (m_cQuote)
+                                                     .setEscapeChar (m_cEscape)
+                                                     .setLineEnd (m_sLineEnd)
+                                                     .setAvoidFinalLineEnd (m_bAvoidFinalLineEnd)
+                                                     .setApplyQuotesToAll (m_bQuoteAll);
+    }
+  }
+
+  @Nonnull
+  private static ICommonsList <Settings> _getAllSettings ()
+  {
+    final ICommonsList <Settings> ret = new CommonsArrayList <> ();
+    for (final boolean bAvoidFinalLineEnd : new boolean [] { false, true })
+      for (final boolean bQuoteAll : new boolean [] { false, true })
+      {
+        ret.add (new Settings (',', '"', '"', "\n", bAvoidFinalLineEnd, bQuoteAll));
+        ret.add (new Settings (';', '\'', '\\', "\r\n", bAvoidFinalLineEnd, bQuoteAll));
+        ret.add (new Settings ('\t', CSVWriter.NO_QUOTE_CHARACTER, '"', "|", bAvoidFinalLineEnd, bQuoteAll));
+        ret.add (new Settings (',', '\'', CSVWriter.NO_ESCAPE_CHARACTER, "\n", bAvoidFinalLineEnd, bQuoteAll));
+        ret.add (new Settings ('1', '-', '€', "\n", bAvoidFinalLineEnd, bQuoteAll));
+        ret.add (new Settings ('e', '"', '"', "\n", bAvoidFinalLineEnd, bQuoteAll));
+      }
+    return ret;
+  }
+
+  @Test
+  public void testSameAsCSVWriterRandom () throws IOException
+  {
+    final Random aRandom = new Random (4711);
+    final StringBuilder aSB = new StringBuilder ();
+    for (final Settings aSettings : _getAllSettings ())
+      for (int nRun = 0; nRun < 100; ++nRun)
+      {
+        // Create random lines
+        final ICommonsList <ICommonsList <String>> aLines = new CommonsArrayList <> ();
+        final int nLines = aRandom.nextInt (5);
+        for (int nLine = 0; nLine < nLines; ++nLine)
+        {
+          final ICommonsList <String> aLine = new CommonsArrayList <> ();
+          final int nFields = aRandom.nextInt (5);
+          for (int nField = 0; nField < nFields; ++nField)
+          {
+            if (aRandom.nextInt (8) == 0)
+              aLine.add (null);
+            else
+            {
+              aSB.setLength (0);
+              final int nLen = aRandom.nextInt (20);
+              for (int i = 0; i < nLen; ++i)
+                aSB.append (CHARS[aRandom.nextInt (CHARS.length)]);
+              aLine.add (aSB.toString ());
+            }
+          }
+          aLines.add (aLine);
+        }
+
+        final NonBlockingStringWriter aExpected = new NonBlockingStringWriter ();
+        try (final CSVWriter aWriter = aSettings.createWriter (aExpected))
+        {
+          aWriter.writeAll (aLines);
+        }
+
+        final int nBufferSize = 1 + aRandom.nextInt (32);
+        final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+        try (final CSVBufferedWriter aWriter = aSettings.createBufferedWriter (aSW, nBufferSize))
+        {
+          aWriter.writeAll (aLines);
+          assertEquals (nLines, aWriter.getWrittenLines ());
+        }
+        assertEquals (aExpected.getAsString (), aSW.getAsString ());
+
+        // Field by field
+        final NonBlockingStringWriter aSW2 = new NonBlockingStringWriter ();
+        try (final CSVBufferedWriter aWriter = aSettings.createBufferedWriter (aSW2, nBufferSize))
+        {
+          for (final ICommonsList <String> aLine : aLines)
+          {
+            for (final String sField : aLine)
+              aWriter.writeField (sField);
+            aWriter.endLine ();
+          }
+        }
+        assertEquals (aExpected.getAsString (), aSW2.getAsString ());
+      }
+  }
+
+  @Test
+  public void testPrimitiveFields () throws IOException
+  {
+    final long [] aLongs = { 0,
+                             1,
+                             -1,
+                             9,
+                             10,
+                             99,
+                             100,
+                             12345,
+                             -98765,
+                             Integer.MAX_VALUE,
+                             Integer.MIN_VALUE,
+                             Long.MAX_VALUE,
+                             Long.MIN_VALUE };
+    final double [] aDoubles = { 0,
+                                 -0.0,
+                                 1.5,
+                                 -0.25,
+                                 1e10,
+                                 1.2345e-7,
+                                 Double.NaN,
+                                 Double.NEGATIVE_INFINITY,
+                                 Double.MAX_VALUE };
+    for (final Settings aSettings : _getAllSettings ())
+      for (final int nBufferSize : new int [] { 1, 3, 16, 1024 })
+      {
+        final NonBlockingStringWriter aExpected = new NonBlockingStringWriter ();
+        try (final CSVWriter aWriter = aSettings.createWriter (aExpected))
+        {
+          for (final long n : aLongs)
+            aWriter.writeNext (Long.toString (n), Integer.toString ((int) n));
+          for (final double d : aDoubles)
+            aWriter.writeNext (Double.toString (d));
+          aWriter.writeNext (Boolean.toString (true), Boolean.toString (false));
+        }
+
+        final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+        try (final CSVBufferedWriter aWriter = aSettings.createBufferedWriter (aSW, nBufferSize))
+        {
+          for (final long n : aLongs)
+          {
+            aWriter.writeField (n).writeField ((int) n);
+            aWriter.endLine ();
+          }
+          for (final double d : aDoubles)
+          {
+            aWriter.writeField (d);
+            aWriter.endLine ();
+          }
+          aWriter.writeField (true).writeField (false);
+          aWriter.endLine ();
+        }
+        assertEquals (aExpected.getAsString (), aSW.getAsString ());
+      }
+  }
+
+  @Test
+  public void testNullAndEmptyLines () throws IOException
+  {
+    final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+    try (final CSVBufferedWriter aWriter = new CSVBufferedWriter (aSW))
+    {
+      aWriter.writeNext ((String []) null);
+      aWriter.writeNext ((ICommonsList <String>) null);
+      assertEquals (0, aWriter.getWrittenLines ());
+      aWriter.writeNext ();
+      aWriter.endLine ();
+      aWriter.writeNext (new String [] { "a", null, "c" }, 1, 2, false);
+    }
+    assertEquals ("\n\n,c\n", aSW.getAsString ());
+  }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.io.stream.NonBlockingStringReader;
+
+/**
+ * Test class for class {@link CSVParallelReader}.
+ *
+ * @author Philip Helger
+ */
+public final class CSVParallelReaderTest
+{
+  @Nonnull
+  private static ICommonsList <ICommonsList <String>> _readSequential (@Nonnull final String sCSV,
+                                                                       @Nonnull final Consumer <CSVParser> aParserCfg,
+                                                                       final int nSkipLines) throws IOException
+  {
+    final CSVParser aParser = new CSVParser ();
+    aParserCfg.accept (aParser);
+    try (final CSVReader aReader = new CSVReader (new NonBlockingStringReader (sCSV), aParser, false))
+    {
+      aReader.setSkipLines (nSkipLines);
+      return aReader.readAll ();
+    }
+  }
+
+  @Nonnull
+  private static ICommonsList <String> _sorted (@Nonnull final ICommonsList <ICommonsList <String>> aRows)
+  {
+    return aRows.getAllMapped (ICommonsList::toString).getSortedInline (String::compareTo);
+  }
+
+  private static void _assertSame (@Nonnull final File aFile,
+                                   @Nonnull final String sCSV,
+                                   @Nonnull final Charset aCharset,
+                                   @Nonnull final Consumer <CSVParser> aParserCfg,
+                                   final int nSkipLines,
+                                   final int nChunkSize,
+                                   @Nonnull final ExecutorService aExecutor) throws IOException
+  {
+    SimpleFileIO.writeFile (aFile, sCSV, aCharset);
+    // Characters not supported by the charset are replaced
+    final ICommonsList <ICommonsList <String>> aExpected = _readSequential (new String (sCSV.getBytes (aCharset),
+                                                                                        aCharset),
+                                                                            aParserCfg,
+                                                                            nSkipLines);
+
+    final CSVParallelReader aReader = new CSVParallelReader (aFile, aCharset).setChunkSize (nChunkSize)
+                                                                             .setMaxChunksInFlight (1 + nChunkSize % 3)
+                                                                             .setSkipLines (nSkipLines)
+                                                                             .setExecutor (aExecutor);
+    aParserCfg.accept (aReader.getParser ());
+
+    // Ordered
+    final ICommonsList <ICommonsList <String>> aOrdered = new CommonsArrayList <> ();
+    aReader.readAll (aOrdered::add, true);
+    assertEquals (sCSV, aExpected, aOrdered);
+
+    try (final Stream <ICommonsList <String>> aStream = aReader.getRowStream (true))
+    {
+      assertEquals (sCSV, aExpected, aStream.collect (Collectors.toCollection (CommonsArrayList::new)));
+    }
+
+    // Unordered
+    final ICommonsList <ICommonsList <String>> aUnordered = new CommonsArrayList <> ();
+    aReader.readAll (aRow -> {
+      synchronized (aUnordered)
+      {
+        aUnordered.add (aRow);
+      }
+    }, false);
+    assertEquals (sCSV, _sorted (aExpected), _sorted (aUnordered));
+
+    try (final Stream <ICommonsList <String>> aStream = aReader.getRowStream (false))
+    {
+      final ICommonsList <ICommonsList <String>> aStreamed = new CommonsArrayList <> ();
+      aStream.forEach (aStreamed::add);
+      assertEquals (sCSV, _sorted (aExpected), _sorted (aStreamed));
+    }
+  }
+
+  @Test
+  public void testSameAsCSVReader () throws IOException
+  {
+    final String sCSV = "a,b,c\n" +
+                        "a,\"b,b,b\",c\n" +
+                        ",,\n" +
+                        "a,\"PO Box 123,\nKippax,ACT. 2615.\nAustralia\",d.\n" +
+                        "\"Glen \"\"The Man\"\" Smith\",Athlete,Developer\n" +
+                        "\"\"\"\"\"\",\"test\"\r\n" +
+                        "\"a\nb\",b,\"\nd\",e\n" +
+                        "Grüße,€uro,\"ä\nö\"\n" +
+                        "last";
+    final File aFile = new File ("csv-parallel-test.csv");
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (3);
+    try
+    {
+      for (int nChunkSize = 1; nChunkSize < sCSV.length () + 2; ++nChunkSize)
+      {
+        _assertSame (aFile, sCSV, StandardCharsets.UTF_8, x -> {}, 0, nChunkSize, aExecutor);
+        _assertSame (aFile, sCSV, StandardCharsets.UTF_8, x -> {}, 2, nChunkSize, aExecutor);
+        _assertSame (aFile, sCSV, StandardCharsets.ISO_8859_1, x -> {}, 0, nChunkSize, aExecutor);
+      }
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+
+  @Test
+  public void testSameAsCSVReaderRandom () throws IOException
+  {
+    final char [] aChars = { 'a', 'ü', '€', ' ', ',', ',', '"', '"', '\\', '\n', '\n', '\r', '\'', ';' };
+    final ICommonsList <Consumer <CSVParser>> aParserCfgs = new CommonsArrayList <> ();
+    aParserCfgs.add (x -> {});
+    aParserCfgs.add (x -> x.setStrictQuotes (true));
+    aParserCfgs.add (x -> x.setIgnoreQuotations (true));
+    aParserCfgs.add (x -> x.setSeparatorChar (';').setQuoteChar ('\'').setEscapeChar (CCSV.NULL_CHARACTER));
+
+    final File aFile = new File ("csv-parallel-random.csv");
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (3);
+    try
+    {
+      final Random aRandom = new Random (4711);
+      final StringBuilder aSB = new StringBuilder ();
+      for (int nRun = 0; nRun < 200; ++nRun)
+      {
+        aSB.setLength (0);
+        final int nLen = aRandom.nextInt (60);
+        for (int i = 0; i < nLen; ++i)
+          aSB.append (aChars[aRandom.nextInt (aChars.length)]);
+        final String sCSV = aSB.toString ();
+        for (final Consumer <CSVParser> aParserCfg : aParserCfgs)
+          _assertSame (aFile, sCSV, StandardCharsets.UTF_8, aParserCfg, nRun % 2, 1 + aRandom.nextInt (16), aExecutor);
+      }
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+
+  @Test
+  public void testColumnProjection () throws IOException
+  {
+    final File aFile = new File ("csv-parallel-projection.csv");
+    try
+    {
+      SimpleFileIO.writeFile (aFile, "a,b,c\n1,2,3\n\"x\ny\",\"z\",ü\n", StandardCharsets.UTF_8);
+      final CSVParallelReader aReader = new CSVParallelReader (aFile.toPath (), StandardCharsets.UTF_8);
+      aReader.setChunkSize (4).setColumnProjection (0, 2);
+      final ICommonsList <ICommonsList <String>> aRows = new CommonsArrayList <> ();
+      aReader.readAll (aRows::add, true);
+      final ICommonsList <ICommonsList <String>> aExpected = new CommonsArrayList <> ();
+      aExpected.add (new CommonsArrayList <> ("a", "c"));
+      aExpected.add (new CommonsArrayList <> ("1", "3"));
+      aExpected.add (new CommonsArrayList <> ("x\ny", "ü"));
+      assertEquals (aExpected, aRows);
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+
+  @Test
+  public void testMaxChunksInFlight () throws IOException
+  {
+    final File aFile = new File ("csv-parallel-window.csv");
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (3);
+    try
+    {
+      final StringBuilder aSB = new StringBuilder ();
+      for (int i = 0; i < 100; ++i)
+        aSB.append (i % 10).append (",x\n");
+      SimpleFileIO.writeFile (aFile, aSB.toString (), StandardCharsets.ISO_8859_1);
+
+      // One region scan per chunk and one parse task per chunk
+      final int nChunks = aSB.length () / 4;
+      final AtomicInteger aTasks = new AtomicInteger ();
+      final CSVParallelReader aReader = new CSVParallelReader (aFile,
+                                                               StandardCharsets.ISO_8859_1).setChunkSize (4)
+                                                                                           .setMaxChunksInFlight (2)
+                                                                                           .setExecutor (x -> {
+                                                                                             aTasks.incrementAndGet ();
+                                                                                             aExecutor.execute (x);
+                                                                                           });
+      final AtomicInteger aRows = new AtomicInteger ();
+      aReader.readAll (aRow -> {
+        // The current chunk and at most one chunk ahead
+        assertTrue (aTasks.get () <= nChunks + aRows.get () + 2);
+        aRows.incrementAndGet ();
+      }, true);
+      assertEquals (100, aRows.get ());
+      assertEquals (2 * nChunks, aTasks.get ());
+
+      aTasks.set (0);
+      aRows.set (0);
+      try (final Stream <ICommonsList <String>> aStream = aReader.getRowStream (true))
+      {
+        aStream.forEach (aRow -> {
+          assertTrue (aTasks.get () <= nChunks + aRows.get () + 2);
+          aRows.incrementAndGet ();
+        });
+      }
+      assertEquals (100, aRows.get ());
+      assertEquals (2 * nChunks, aTasks.get ());
+    }
+    finally
+    {
+      aExecutor.shutdown ();
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+
+  @Test
+  public void testUnsupportedCharset ()
+  {
+    try
+    {
+      new CSVParallelReader (new File ("any.csv"), StandardCharsets.UTF_16);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+  }
+}
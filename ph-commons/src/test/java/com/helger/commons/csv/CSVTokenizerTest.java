@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.csv;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.commons.string.StringParser;
+
+/**
+ * Test class for class {@link CSVTokenizer}.
+ *
+ * @author Philip Helger
+ */
+public final class CSVTokenizerTest
+{
+  private static final String CSV_READER_TEST_DATA = "a,b,c\n" +
+                                                     "a,\"b,b,b\",c\n" +
+                                                     ",,\n" +
+                                                     "a,\"PO Box 123,\nKippax,ACT. 2615.\nAustralia\",d.\n" +
+                                                     "\"Glen \"\"The Man\"\" Smith\",Athlete,Developer\n" +
+                                                     "\"\"\"\"\"\",\"test\"\n" +
+                                                     "\"a\nb\",b,\"\nd\",e\n";
+
+  @Nonnull
+  private static ICommonsList <ICommonsList <String>> _readAll (@Nonnull final CSVTokenizer aTokenizer) throws IOException
+  {
+    final ICommonsList <ICommonsList <String>> ret = new CommonsArrayList <> ();
+    aTokenizer.readAll (aRow -> ret.add (aRow.getAsList ()));
+    return ret;
+  }
+
+  private static void _assertSame (final String sCSV,
+                                   final Supplier <CSVParser> aParserFactory,
+                                   final boolean bKeepCR,
+                                   final int nSkipLines) throws IOException
+  {
+    final ICommonsList <ICommonsList <String>> aExpected;
+    try (final CSVReader aReader = new CSVReader (new NonBlockingStringReader (sCSV), aParserFactory.get (), bKeepCR))
+    {
+      aReader.setSkipLines (nSkipLines);
+      aExpected = aReader.readAll ();
+    }
+
+    // Use a tiny buffer to test the buffer handling as well
+    for (final int nBufferSize : new int [] { 1, 3, CSVTokenizer.DEFAULT_BUFFER_SIZE })
+      try (final CSVTokenizer aTokenizer = new CSVTokenizer (new NonBlockingStringReader (sCSV),
+                                                             aParserFactory.get (),
+                                                             bKeepCR,
+                                                             nBufferSize))
+      {
+        aTokenizer.setSkipLines (nSkipLines);
+        assertEquals ("Failed for '" + sCSV + "'", aExpected, _readAll (aTokenizer));
+        assertEquals (aExpected.size (), aTokenizer.getReadRowCount ());
+      }
+  }
+
+  @Test
+  public void testSameAsCSVReader () throws IOException
+  {
+    _assertSame (CSV_READER_TEST_DATA, CSVParser::new, false, 0);
+    _assertSame (CSV_READER_TEST_DATA, CSVParser::new, true, 0);
+    _assertSame (CSV_READER_TEST_DATA, CSVParser::new, false, 2);
+    _assertSame ("a,b\r\nc,d\re,f\n\ng", CSVParser::new, false, 0);
+    _assertSame ("a,b\r\nc,d\re,f\n\ng", CSVParser::new, true, 0);
+    _assertSame ("a,\"b\n", CSVParser::new, false, 0);
+    _assertSame ("a,'b;c',d;'e''f'", () -> new CSVParser ().setSeparatorChar (';').setQuoteChar ('\''), false, 0);
+  }
+
+  @Test
+  public void testSameAsCSVReaderRandom () throws IOException
+  {
+    final char [] aChars = { 'a', 'b', ' ', ',', ',', '"', '"', '\\', '\n', '\r', '\'', ';' };
+    final ICommonsList <Supplier <CSVParser>> aParsers = new CommonsArrayList <> ();
+    aParsers.add (CSVParser::new);
+    aParsers.add ( () -> new CSVParser ().setStrictQuotes (true));
+    aParsers.add ( () -> new CSVParser ().setIgnoreQuotations (true));
+    aParsers.add ( () -> new CSVParser ().setIgnoreLeadingWhiteSpace (false));
+    aParsers.add ( () -> new CSVParser ().setSeparatorChar (';').setQuoteChar ('\'').setEscapeChar (CCSV.NULL_CHARACTER));
+
+    final Random aRandom = new Random (4711);
+    final StringBuilder aSB = new StringBuilder ();
+    for (int nRun = 0; nRun < 2000; ++nRun)
+    {
+      aSB.setLength (0);
+      final int nLen = aRandom.nextInt (40);
+      for (int i = 0; i < nLen; ++i)
+        aSB.append (aChars[aRandom.nextInt (aChars.length)]);
+      final String sCSV = aSB.toString ();
+      for (final Supplier <CSVParser> aParser : aParsers)
+      {
+        _assertSame (sCSV, aParser, false, 0);
+        _assertSame (sCSV, aParser, true, 0);
+        _assertSame (sCSV, aParser, false, 1);
+      }
+    }
+  }
+
+  @Test
+  public void testRowReuse () throws IOException
+  {
+    try (final CSVTokenizer aTokenizer = new CSVTokenizer (new NonBlockingStringReader (CSV_READER_TEST_DATA)))
+    {
+      final CSVRow aRow = aTokenizer.readNext ();
+      assertNotNull (aRow);
+      assertEquals (0, aRow.getRowIndex ());
+      assertEquals (3, aRow.getFieldCount ());
+      assertEquals ("a", aRow.getField (0).toString ());
+      assertEquals ('b', aRow.getField (1).charAt (0));
+      assertEquals ("c", aRow.getFieldAsString (2));
+
+      assertSame (aRow, aTokenizer.readNext ());
+      assertEquals (1, aRow.getRowIndex ());
+      assertEquals ("b,b,b", aRow.getFieldAsString (1));
+      assertEquals (",b", aRow.getField (1).subSequence (3, 5).toString ());
+      assertEquals (5, aRow.getFieldLength (1));
+
+      assertSame (aRow, aTokenizer.readNext ());
+      assertEquals (3, aRow.getFieldCount ());
+      assertEquals (0, aRow.getFieldLength (2));
+
+      assertSame (aRow, aTokenizer.readNext ());
+      assertEquals ("PO Box 123,\nKippax,ACT. 2615.\nAustralia", aRow.getFieldAsString (1));
+      assertEquals ("d.", aRow.getFieldAsString (2));
+
+      assertNotNull (aTokenizer.readNext ());
+      assertNotNull (aTokenizer.readNext ());
+      assertNotNull (aTokenizer.readNext ());
+      assertNull (aTokenizer.readNext ());
+      assertNull (aTokenizer.readNext ());
+      assertEquals (7, aTokenizer.getReadRowCount ());
+    }
+  }
+
+  @Test
+  public void testColumnProjection () throws IOException
+  {
+    try (final CSVTokenizer aTokenizer = new CSVTokenizer (new NonBlockingStringReader ("a,b,c,d\n1,\"2,x\",3\n")))
+    {
+      aTokenizer.setColumnProjection (3, 1);
+      CSVRow aRow = aTokenizer.readNext ();
+      assertEquals (4, aRow.getFieldCount ());
+      assertFalse (aRow.isFieldProjected (0));
+      assertTrue (aRow.isFieldProjected (1));
+      assertFalse (aRow.isFieldProjected (2));
+      assertTrue (aRow.isFieldProjected (3));
+      assertFalse (aRow.isFieldProjected (4));
+      assertNull (aRow.getField (0));
+      assertNull (aRow.getFieldAsString (2));
+      assertEquals (0, aRow.getFieldLength (0));
+      assertEquals ("b", aRow.getFieldAsString (1));
+      assertEquals (new CommonsArrayList <> ("b", "d"), aRow.getAsList ());
+
+      aRow = aTokenizer.readNext ();
+      assertEquals (3, aRow.getFieldCount ());
+      assertEquals (new CommonsArrayList <> ("2,x"), aRow.getAsList ());
+      assertEquals (-1, aRow.getFieldAsInt (0, -1));
+
+      assertNull (aTokenizer.readNext ());
+    }
+  }
+
+  @Test
+  public void testTypedAccessors () throws IOException
+  {
+    final String sCSV = "0,-17,+42,2147483647,2147483648,-2147483648,abc,,9223372036854775807,-9223372036854775808,99999999999999999999\n" +
+                        "1.5,-0.25,\"3,75\",1e3,.5,1.,-,0.1,123456789.123456789,NaN,1.2.3\n";
+    try (final CSVTokenizer aTokenizer = new CSVTokenizer (new NonBlockingStringReader (sCSV)))
+    {
+      CSVRow aRow = aTokenizer.readNext ();
+      assertEquals (0, aRow.getFieldAsInt (0, -1));
+      assertEquals (-17, aRow.getFieldAsInt (1, -1));
+      assertEquals (42, aRow.getFieldAsInt (2, -1));
+      assertEquals (Integer.MAX_VALUE, aRow.getFieldAsInt (3, -1));
+      assertEquals (-1, aRow.getFieldAsInt (4, -1));
+      assertEquals (2147483648L, aRow.getFieldAsLong (4, -1));
+      assertEquals (Integer.MIN_VALUE, aRow.getFieldAsInt (5, -1));
+      assertEquals (-1, aRow.getFieldAsInt (6, -1));
+      assertEquals (-1, aRow.getFieldAsLong (6, -1));
+      assertEquals (-1, aRow.getFieldAsInt (7, -1));
+      assertEquals (Long.MAX_VALUE, aRow.getFieldAsLong (8, -1));
+      assertEquals (Long.MIN_VALUE, aRow.getFieldAsLong (9, -1));
+      assertEquals (-1, aRow.getFieldAsLong (10, -1));
+      for (int i = 0; i < aRow.getFieldCount (); ++i)
+      {
+        final String s = aRow.getFieldAsString (i);
+        assertEquals (s, StringParser.parseInt (s, -1), aRow.getFieldAsInt (i, -1));
+        assertEquals (s, StringParser.parseLong (s, -1), aRow.getFieldAsLong (i, -1));
+        assertEquals (s, Double.valueOf (StringParser.parseDouble (s, -1)), Double.valueOf (aRow.getFieldAsDouble (i, -1)));
+      }
+
+      aRow = aTokenizer.readNext ();
+      assertEquals (1.5, aRow.getFieldAsDouble (0, -1), 0);
+      assertEquals (-0.25, aRow.getFieldAsDouble (1, -1), 0);
+      assertEquals (3.75, aRow.getFieldAsDouble (2, -1), 0);
+      assertEquals (1000, aRow.getFieldAsDouble (3, -1), 0);
+      assertEquals (-1, aRow.getFieldAsDouble (6, -1), 0);
+      assertEquals (-1, aRow.getFieldAsDouble (10, -1), 0);
+      for (int i = 0; i < aRow.getFieldCount (); ++i)
+      {
+        final String s = aRow.getFieldAsString (i);
+        assertEquals (s, Double.valueOf (StringParser.parseDouble (s, -1)), Double.valueOf (aRow.getFieldAsDouble (i, -1)));
+      }
+    }
+  }
+
+  @Test
+  public void testDoubleRandom () throws IOException
+  {
+    final Random aRandom = new Random (1);
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 2000; ++i)
+    {
+      if (aRandom.nextBoolean ())
+        aSB.append ('-');
+      aSB.append (aRandom.nextInt (1000000));
+      aSB.append ('.');
+      final int nFraction = aRandom.nextInt (12);
+      for (int j = 0; j < nFraction; ++j)
+        aSB.append (aRandom.nextInt (10));
+      aSB.append (i % 10 == 9 ? '\n' : ';');
+    }
+    try (final CSVTokenizer aTokenizer = new CSVTokenizer (new NonBlockingStringReader (aSB.toString ()),
+                                                           new CSVParser ().setSeparatorChar (';'),
+                                                           false))
+    {
+      aTokenizer.readAll (aRow -> {
+        for (int i = 0; i < aRow.getFieldCount (); ++i)
+        {
+          final String s = aRow.getFieldAsString (i);
+          assertEquals (s, Double.valueOf (Double.parseDouble (s)), Double.valueOf (aRow.getFieldAsDouble (i, -1)));
+        }
+      });
+    }
+  }
+}
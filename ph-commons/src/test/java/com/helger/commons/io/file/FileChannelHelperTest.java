@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.io.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.io.EAppend;
+import com.helger.commons.io.stream.MappedFileInputStream;
+import com.helger.commons.io.stream.MappedFileOutputStream;
+import com.helger.commons.io.stream.StreamHelper;
+
+/**
+ * Test class for class {@link FileChannelHelper}.
+ *
+ * @author Philip Helger
+ */
+public final class FileChannelHelperTest
+{
+  /**
+   * A {@link FileChannel} that delegates everything but fails to map.
+   */
+  private static final class FailingMapFileChannel extends FileChannel
+  {
+    private final FileChannel m_aDelegate;
+
+    FailingMapFileChannel (@Nonnull final FileChannel aDelegate)
+    {
+      m_aDelegate = aDelegate;
+    }
+
+    @Override
+    public MappedByteBuffer map (final MapMode aMode, final long nPosition, final long nSize) throws IOException
+    {
+      throw new IOException ("Map failed");
+    }
+
+    @Override
+    public int read (final ByteBuffer aDst) throws IOException
+    {
+      return m_aDelegate.read (aDst);
+    }
+
+    @Override
+    public long read (final ByteBuffer [] aDsts, final int nOfs, final int nLen) throws IOException
+    {
+      return m_aDelegate.read (aDsts, nOfs, nLen);
+    }
+
+    @Override
+    public int write (final ByteBuffer aSrc) throws IOException
+    {
+      return m_aDelegate.write (aSrc);
+    }
+
+    @Override
+    public long write (final ByteBuffer [] aSrcs, final int nOfs, final int nLen) throws IOException
+    {
+      return m_aDelegate.write (aSrcs, nOfs, nLen);
+    }
+
+    @Override
+    public long position () throws IOException
+    {
+      return m_aDelegate.position ();
+    }
+
+    @Override
+    public FileChannel position (final long nNewPosition) throws IOException
+    {
+      m_aDelegate.position (nNewPosition);
+      return this;
+    }
+
+    @Override
+    public long size () throws IOException
+    {
+      return m_aDelegate.size ();
+    }
+
+    @Override
+    public FileChannel truncate (final long nSize) throws IOException
+    {
+      m_aDelegate.truncate (nSize);
+      return this;
+    }
+
+    @Override
+    public void force (final boolean bMetaData) throws IOException
+    {
+      m_aDelegate.force (bMetaData);
+    }
+
+    @Override
+    public long transferTo (final long nPosition,
+                            final long nCount,
+                            final WritableByteChannel aTarget) throws IOException
+    {
+      return m_aDelegate.transferTo (nPosition, nCount, aTarget);
+    }
+
+    @Override
+    public long transferFrom (final ReadableByteChannel aSrc,
+                              final long nPosition,
+                              final long nCount) throws IOException
+    {
+      return m_aDelegate.transferFrom (aSrc, nPosition, nCount);
+    }
+
+    @Override
+    public int read (final ByteBuffer aDst, final long nPosition) throws IOException
+    {
+      return m_aDelegate.read (aDst, nPosition);
+    }
+
+    @Override
+    public int write (final ByteBuffer aSrc, final long nPosition) throws IOException
+    {
+      return m_aDelegate.write (aSrc, nPosition);
+    }
+
+    @Override
+    public FileLock lock (final long nPosition, final long nSize, final boolean bShared) throws IOException
+    {
+      return m_aDelegate.lock (nPosition, nSize, bShared);
+    }
+
+    @Override
+    public FileLock tryLock (final long nPosition, final long nSize, final boolean bShared) throws IOException
+    {
+      return m_aDelegate.tryLock (nPosition, nSize, bShared);
+    }
+
+    @Override
+    protected void implCloseChannel () throws IOException
+    {
+      m_aDelegate.close ();
+    }
+  }
+
+  @Test
+  public void testMappedInputStreamFallback () throws IOException
+  {
+    final File aFile = new File ("file-channel-helper-input.bin");
+    final byte [] aData = new byte [] { 1, 2, 3, 4, 5 };
+    SimpleFileIO.writeFile (aFile, aData);
+    try
+    {
+      // Mapping works
+      try (final InputStream aIS = FileChannelHelper.getMappedInputStream (aFile))
+      {
+        assertTrue (aIS instanceof MappedFileInputStream);
+        assertArrayEquals (aData, StreamHelper.getAllBytes (aIS));
+      }
+
+      // Mapping fails - the caller must fall back
+      try (final FileChannel aChannel = new FailingMapFileChannel (FileChannelHelper.getFileReadChannel (aFile)))
+      {
+        assertNull (FileChannelHelper._getMappedInputStream (aChannel, aFile, 4096));
+        assertTrue (aChannel.isOpen ());
+      }
+    }
+    finally
+    {
+      FileOperations.deleteFile (aFile);
+    }
+  }
+
+  @Test
+  public void testMappedOutputStreamFallback () throws IOException
+  {
+    final File aFile = new File ("file-channel-helper-output.bin");
+    final byte [] aData = new byte [] { 1, 2, 3, 4, 5 };
+    try
+    {
+      // Mapping works
+      try (final OutputStream aOS = FileChannelHelper.getMappedOutputStream (aFile, EAppend.TRUNCATE, 4096))
+      {
+        assertTrue (aOS instanceof MappedFileOutputStream);
+        aOS.write (aData);
+      }
+      assertArrayEquals (aData, SimpleFileIO.getAllFileBytes (aFile));
+
+      // Mapping fails - the caller must fall back
+      try (final RandomAccessFile aRAF = new RandomAccessFile (aFile, "rw");
+           final FileChannel aChannel = new FailingMapFileChannel (aRAF.getChannel ()))
+      {
+        assertNull (FileChannelHelper._getMappedOutputStream (aChannel, aFile, EAppend.APPEND, 4096));
+        assertTrue (aChannel.isOpen ());
+      }
+      // The file was not modified
+      assertArrayEquals (aData, SimpleFileIO.getAllFileBytes (aFile));
+    }
+    finally
+    {
+      FileOperations.deleteFile (aFile);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.io.stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.io.file.FileChannelHelper;
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.lang.ByteBufferHelper;
+import com.helger.commons.mock.CommonsTestHelper;
+
+/**
+ * Test class for class {@link MappedFileInputStream}.
+ *
+ * @author Philip Helger
+ */
+public final class MappedFileInputStreamTest
+{
+  @Test
+  public void testReadAcrossWindows () throws IOException
+  {
+    final byte [] aData = new byte [10000];
+    new Random (4711).nextBytes (aData);
+    final File aFile = new File ("mapped-input-test.bin");
+    SimpleFileIO.writeFile (aFile, aData);
+    try
+    {
+      for (final int nWindowSize : new int [] { 1, 7, 4096, 10000, 100000 })
+      {
+        // Bulk read
+        try (final MappedFileInputStream aIS = new MappedFileInputStream (FileChannelHelper.getFileReadChannel (aFile),
+                                                                          nWindowSize))
+        {
+          assertEquals (nWindowSize, aIS.getWindowSize ());
+          assertEquals (aData.length, aIS.available ());
+          final byte [] aRead = new byte [aData.length];
+          assertEquals (aData.length, aIS.read (aRead, 0, aRead.length));
+          assertArrayEquals (aData, aRead);
+          assertEquals (-1, aIS.read ());
+          assertEquals (-1, aIS.read (new byte [5], 0, 5));
+          assertEquals (0, aIS.available ());
+          CommonsTestHelper.testToStringImplementation (aIS);
+        }
+
+        // Single byte read, skip and mark/reset
+        try (final MappedFileInputStream aIS = new MappedFileInputStream (FileChannelHelper.getFileReadChannel (aFile),
+                                                                          nWindowSize))
+        {
+          assertEquals (aData[0] & 0xff, aIS.read ());
+          assertEquals (1000, aIS.skip (1000));
+          assertEquals (1001, aIS.getPosition ());
+          assertTrue (aIS.markSupported ());
+          aIS.mark (0);
+          assertEquals (aData[1001] & 0xff, aIS.read ());
+          assertEquals (5000, aIS.skip (5000));
+          assertEquals (aData[6002] & 0xff, aIS.read ());
+          aIS.reset ();
+          assertEquals (aData[1001] & 0xff, aIS.read ());
+          assertEquals (aData.length - 1002, aIS.skip (Long.MAX_VALUE));
+          assertEquals (-1, aIS.read ());
+        }
+      }
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+
+  @Test
+  public void testClosed () throws IOException
+  {
+    final File aFile = new File ("mapped-input-closed.bin");
+    SimpleFileIO.writeFile (aFile, new byte [] { 1, 2, 3 });
+    try
+    {
+      final MappedFileInputStream aIS = new MappedFileInputStream (FileChannelHelper.getFileReadChannel (aFile));
+      assertEquals (1, aIS.read ());
+      aIS.close ();
+      // Double close is fine
+      aIS.close ();
+      try
+      {
+        aIS.read ();
+        fail ();
+      }
+      catch (final IOException ex)
+      {
+        // expected
+      }
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+
+  @Test
+  public void testUnmapper () throws IOException
+  {
+    final File aFile = new File ("mapped-input-unmap.bin");
+    SimpleFileIO.writeFile (aFile, new byte [100]);
+    final AtomicInteger aUnmapped = new AtomicInteger ();
+    try
+    {
+      // By default the garbage collector releases the windows
+      assertFalse (ByteBufferHelper.isUnmapSupported ());
+      try (final MappedFileInputStream aIS = new MappedFileInputStream (FileChannelHelper.getFileReadChannel (aFile),
+                                                                        7))
+      {
+        assertEquals (100, StreamHelper.getAllBytes (aIS).length);
+      }
+
+      // Only count, as this test must not depend on JDK internals
+      ByteBufferHelper.setUnmapper (x -> {
+        assertTrue (x.isDirect ());
+        aUnmapped.incrementAndGet ();
+      });
+      assertTrue (ByteBufferHelper.isUnmapSupported ());
+      assertTrue (ByteBufferHelper.unmap (ByteBuffer.allocate (1)).isFailure ());
+      try (final MappedFileInputStream aIS = new MappedFileInputStream (FileChannelHelper.getFileReadChannel (aFile),
+                                                                        7))
+      {
+        assertEquals (100, StreamHelper.getAllBytes (aIS).length);
+      }
+      // Each window is unmapped when it is no longer needed
+      assertEquals ((100 + 6) / 7, aUnmapped.get ());
+    }
+    finally
+    {
+      ByteBufferHelper.setUnmapper (null);
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+}
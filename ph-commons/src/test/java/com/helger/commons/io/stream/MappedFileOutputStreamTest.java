@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.io.stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.helger.commons.io.EAppend;
+import com.helger.commons.io.file.FileChannelHelper;
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.file.SimpleFileIO;
+
+/**
+ * Test class for class {@link MappedFileOutputStream}.
+ *
+ * @author Philip Helger
+ */
+public final class MappedFileOutputStreamTest
+{
+  @Test
+  public void testWriteAcrossWindows () throws IOException
+  {
+    final byte [] aData = new byte [10000];
+    new Random (4711).nextBytes (aData);
+    final File aFile = new File ("mapped-output-test.bin");
+    try
+    {
+      for (final int nWindowSize : new int [] { 1, 7, 4096, 10000, 100000 })
+      {
+        // Truncate
+        try (final OutputStream aOS = FileChannelHelper.getMappedOutputStream (aFile, EAppend.TRUNCATE, nWindowSize))
+        {
+          aOS.write (aData[0]);
+          aOS.write (aData, 1, 4999);
+          aOS.flush ();
+          aOS.write (aData, 5000, 5000);
+        }
+        assertEquals (aData.length, aFile.length ());
+        assertArrayEquals (aData, SimpleFileIO.getAllFileBytes (aFile));
+
+        // Append
+        try (final OutputStream aOS = FileChannelHelper.getMappedOutputStream (aFile, EAppend.APPEND, nWindowSize))
+        {
+          aOS.write (aData, 0, 100);
+        }
+        final byte [] aExpected = Arrays.copyOf (aData, aData.length + 100);
+        System.arraycopy (aData, 0, aExpected, aData.length, 100);
+        assertArrayEquals (aExpected, SimpleFileIO.getAllFileBytes (aFile));
+
+        // Read it again
+        try (final MappedFileInputStream aIS = new MappedFileInputStream (FileChannelHelper.getFileReadChannel (aFile),
+                                                                          nWindowSize))
+        {
+          assertArrayEquals (aExpected, StreamHelper.getAllBytes (aIS));
+        }
+
+        // Empty
+        try (final OutputStream aOS = FileChannelHelper.getMappedOutputStream (aFile, EAppend.TRUNCATE, nWindowSize))
+        {
+          aOS.flush ();
+        }
+        assertEquals (0, aFile.length ());
+      }
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+}
@@ -26,6 +26,9 @@ import static org.junit.Assert.fail;
 
 import java.io.Closeable;
 import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FilterOutputStream;
 import java.io.Flushable;
 import java.io.IOException;
@@ -34,11 +37,15 @@ import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
 import com.helger.commons.exception.mock.MockIOException;
+import com.helger.commons.io.EAppend;
 import com.helger.commons.io.IHasInputStream;
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.file.SimpleFileIO;
 import com.helger.commons.io.resource.ClassPathResource;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.commons.io.streamprovider.ByteArrayInputStreamProvider;
@@ -222,6 +229,67 @@ public final class StreamHelperTest
     {}
   }
 
+  @Test
+  public void testCopyFileToFile () throws IOException
+  {
+    final byte [] aData = new byte [100000];
+    new Random (4711).nextBytes (aData);
+    final File aSrc = new File ("stream-helper-copy-src.bin");
+    final File aDst = new File ("stream-helper-copy-dst.bin");
+    SimpleFileIO.writeFile (aSrc, aData);
+    try
+    {
+      // Full copy
+      final MutableLong aCount = new MutableLong (0);
+      try (final FileOutputStream aOS = new FileOutputStream (aDst))
+      {
+        assertTrue (StreamHelper.copyInputStreamToOutputStream (new FileInputStream (aSrc), aOS, aCount).isSuccess ());
+      }
+      assertEquals (aData.length, aCount.longValue ());
+      assertArrayEquals (aData, SimpleFileIO.getAllFileBytes (aDst));
+
+      // Copy with limit, starting after the first bytes were read
+      try (final FileInputStream aIS = new FileInputStream (aSrc);
+           final CountingFileOutputStream aOS = new CountingFileOutputStream (aDst, EAppend.TRUNCATE))
+      {
+        assertEquals (aData[0] & 0xff, aIS.read ());
+        assertTrue (StreamHelper.copyInputStreamToOutputStream (aIS,
+                                                                aOS,
+                                                                new byte [10],
+                                                                aCount,
+                                                                Long.valueOf (50000))
+                                .isSuccess ());
+        assertEquals (50000, aCount.longValue ());
+        assertEquals (50000, aOS.getBytesWritten ());
+      }
+      final byte [] aExpected = new byte [50000];
+      System.arraycopy (aData, 1, aExpected, 0, aExpected.length);
+      assertArrayEquals (aExpected, SimpleFileIO.getAllFileBytes (aDst));
+
+      // Limit exceeds the file size and appending
+      try (final CountingFileInputStream aIS = new CountingFileInputStream (aSrc);
+           final FileOutputStream aOS = new FileOutputStream (aDst, true))
+      {
+        assertTrue (StreamHelper.copyInputStreamToOutputStreamWithLimit (aIS, aOS, 999999).isSuccess ());
+      }
+      assertEquals (aExpected.length + aData.length, aDst.length ());
+
+      // Empty source
+      SimpleFileIO.writeFile (aSrc, new byte [0]);
+      try (final FileOutputStream aOS = new FileOutputStream (aDst))
+      {
+        assertTrue (StreamHelper.copyInputStreamToOutputStream (new FileInputStream (aSrc), aOS, aCount).isSuccess ());
+      }
+      assertEquals (0, aCount.longValue ());
+      assertEquals (0, aDst.length ());
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aSrc);
+      FileOperations.deleteFileIfExisting (aDst);
+    }
+  }
+
   @Test
   public void testGetAvailable ()
   {
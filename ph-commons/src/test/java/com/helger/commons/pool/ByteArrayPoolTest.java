@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.helger.commons.mock.CommonsTestHelper;
+
+/**
+ * Test class for class {@link ByteArrayPool}.
+ *
+ * @author Philip Helger
+ */
+public final class ByteArrayPoolTest
+{
+  @Test
+  public void testSimple ()
+  {
+    final ByteArrayPool aPool = new ByteArrayPool (16, 2);
+    assertEquals (16, aPool.getArraySize ());
+    assertEquals (2, aPool.getMaxPooled ());
+    assertEquals (0, aPool.getPooledCount ());
+
+    // Never blocks, even if more arrays are borrowed than pooled
+    final byte [] a1 = aPool.borrowObject ();
+    final byte [] a2 = aPool.borrowObject ();
+    final byte [] a3 = aPool.borrowObject ();
+    assertNotNull (a1);
+    assertEquals (16, a1.length);
+    assertNotSame (a1, a2);
+    assertNotSame (a2, a3);
+
+    assertTrue (aPool.returnObject (a1).isSuccess ());
+    assertTrue (aPool.returnObject (a2).isSuccess ());
+    // Pool is full
+    assertFalse (aPool.returnObject (a3).isSuccess ());
+    // Wrong size
+    assertFalse (aPool.returnObject (new byte [15]).isSuccess ());
+    assertEquals (2, aPool.getPooledCount ());
+
+    // Pooled arrays are reused
+    assertSame (a1, aPool.borrowObject ());
+    assertEquals (1, aPool.getPooledCount ());
+
+    aPool.clearUnusedItems ();
+    assertEquals (0, aPool.getPooledCount ());
+    assertNotSame (a2, aPool.borrowObject ());
+
+    CommonsTestHelper.testToStringImplementation (aPool);
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    try
+    {
+      new ByteArrayPool (0, 1);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {}
+    try
+    {
+      new ByteArrayPool (1, 0);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {}
+  }
+}
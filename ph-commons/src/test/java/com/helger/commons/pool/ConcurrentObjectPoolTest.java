@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.concurrent.ThreadHelper;
+import com.helger.commons.mock.CommonsTestHelper;
+
+/**
+ * Test class for class {@link ConcurrentObjectPool}.
+ *
+ * @author Philip Helger
+ */
+public final class ConcurrentObjectPoolTest
+{
+  @Test
+  public void testSimple () throws InterruptedException
+  {
+    final int ITEMS = 5;
+    final AtomicInteger aCreated = new AtomicInteger (0);
+    final ConcurrentObjectPool <StringBuilder> aOP = new ConcurrentObjectPool <> (ITEMS, () -> {
+      aCreated.incrementAndGet ();
+      return new StringBuilder ();
+    });
+    assertEquals (ITEMS, aOP.getMaxSize ());
+    assertEquals (0, aOP.getSize ());
+
+    final StringBuilder [] aItems = new StringBuilder [ITEMS];
+    for (int i = 0; i < ITEMS; ++i)
+      aItems[i] = aOP.borrowObject ();
+    assertEquals (ITEMS, aCreated.get ());
+    assertEquals (ITEMS, aOP.getSize ());
+    assertEquals (0, aOP.getIdleCount ());
+
+    // Blocks because all objects are borrowed
+    final Thread aThread = new Thread ( () -> assertNull (aOP.borrowObject ()));
+    aThread.start ();
+    ThreadHelper.sleep (100);
+    aThread.interrupt ();
+    aThread.join ();
+    assertEquals (1, aOP.getBorrowWaitCount ());
+
+    // Start returning
+    for (int i = 0; i < ITEMS; ++i)
+      assertTrue (aOP.returnObject (aItems[i]).isSuccess ());
+    assertEquals (ITEMS, aOP.getIdleCount ());
+
+    // Cannot return more than that
+    assertFalse (aOP.returnObject (aItems[0]).isSuccess ());
+    assertFalse (aOP.returnObject (new StringBuilder ()).isSuccess ());
+
+    // Objects are reused
+    assertNotNull (aOP.borrowObject ());
+    assertEquals (ITEMS, aCreated.get ());
+    assertEquals (ITEMS + 1, aOP.getBorrowCount ());
+    assertEquals (ITEMS + 1, aOP.getBorrowLatencySnapshot ().getTotalCount ());
+
+    assertEquals (ITEMS - 1, aOP.getIdleCount ());
+
+    aOP.clearUnusedItems ();
+    assertEquals (1, aOP.getSize ());
+    assertEquals (0, aOP.getIdleCount ());
+    assertEquals (ITEMS - 1, aOP.getEvictCount ());
+  }
+
+  @Test
+  public void testThreadAffinity ()
+  {
+    final ConcurrentObjectPool <StringBuilder> aOP = new ConcurrentObjectPool <> (3, StringBuilder::new);
+    assertFalse (aOP.isThreadAffinity ());
+    aOP.setThreadAffinity (true);
+    assertTrue (aOP.isThreadAffinity ());
+
+    final StringBuilder a1 = aOP.borrowObject ();
+    final StringBuilder a2 = aOP.borrowObject ();
+    aOP.returnObject (a1);
+    aOP.returnObject (a2);
+
+    // The last returned object is borrowed again
+    for (int i = 0; i < 10; ++i)
+    {
+      final StringBuilder a = aOP.borrowObject ();
+      assertSame (a2, a);
+      aOP.returnObject (a);
+    }
+
+    // A removed object is never handed out again
+    aOP.clearUnusedItems ();
+    assertEquals (0, aOP.getSize ());
+    assertEquals (0, aOP.getIdleCount ());
+    final StringBuilder a3 = aOP.borrowObject ();
+    assertNotSame (a1, a3);
+    assertNotSame (a2, a3);
+  }
+
+  @Test
+  public void testIdleEviction ()
+  {
+    final ConcurrentObjectPool <StringBuilder> aOP = new ConcurrentObjectPool <> (4, StringBuilder::new);
+    aOP.setMaxIdle (3).setMinIdle (1);
+    assertEquals (3, aOP.getMaxIdle ());
+    assertEquals (1, aOP.getMinIdle ());
+    assertNull (aOP.getIdleTimeout ());
+
+    final StringBuilder [] aItems = new StringBuilder [4];
+    for (int i = 0; i < aItems.length; ++i)
+      aItems[i] = aOP.borrowObject ();
+    for (final StringBuilder a : aItems)
+      assertTrue (aOP.returnObject (a).isSuccess ());
+
+    // One item was discarded because of max idle
+    assertEquals (3, aOP.getSize ());
+    assertEquals (3, aOP.getIdleCount ());
+    assertEquals (1, aOP.getEvictCount ());
+
+    // No timeout -> no eviction
+    assertEquals (0, aOP.evictIdleObjects ());
+
+    aOP.setIdleTimeout (Duration.ofMillis (10));
+    assertEquals (Duration.ofMillis (10), aOP.getIdleTimeout ());
+    ThreadHelper.sleep (50);
+    // Min idle is kept
+    assertEquals (2, aOP.evictIdleObjects ());
+    assertEquals (1, aOP.getSize ());
+    assertEquals (3, aOP.getEvictCount ());
+  }
+
+  @Test
+  public void testMultithreaded ()
+  {
+    final AtomicInteger aCreated = new AtomicInteger (0);
+    final ConcurrentObjectPool <AtomicInteger> aOP = new ConcurrentObjectPool <> (4, () -> {
+      aCreated.incrementAndGet ();
+      return new AtomicInteger (0);
+    }).setThreadAffinity (true);
+    CommonsTestHelper.testInParallel (1000, () -> {
+      final AtomicInteger aObj = aOP.borrowObject ();
+      // Each object is only used by a single thread at a time
+      assertEquals (1, aObj.incrementAndGet ());
+      assertEquals (0, aObj.decrementAndGet ());
+      assertTrue (aOP.returnObject (aObj).isSuccess ());
+    });
+    assertTrue (aCreated.get () <= 4);
+    assertEquals (1000, aOP.getBorrowCount ());
+    assertEquals (aOP.getSize (), aOP.getIdleCount ());
+  }
+}
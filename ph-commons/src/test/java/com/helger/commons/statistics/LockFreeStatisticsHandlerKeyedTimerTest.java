@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+
+/**
+ * Test class for class {@link LockFreeStatisticsHandlerKeyedTimer}.
+ *
+ * @author Philip Helger
+ */
+public final class LockFreeStatisticsHandlerKeyedTimerTest
+{
+  @Test
+  public void testAll ()
+  {
+    final LockFreeStatisticsHandlerKeyedTimer sh = new LockFreeStatisticsHandlerKeyedTimer ();
+    assertEquals (0, sh.getInvocationCount ());
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin ("key1"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin ("key2"));
+
+    sh.addTime ("key1", 100);
+    assertEquals (1, sh.getInvocationCount ());
+    assertEquals (1, sh.getInvocationCount ("key1"));
+    assertEquals (100L, sh.getMin ("key1"));
+    assertEquals (100L, sh.getMax ("key1"));
+    assertEquals (BigInteger.valueOf (100L), sh.getSum ("key1"));
+    assertEquals (100L, sh.getAverage ("key1"));
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getInvocationCount ("key2"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin ("key2"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMax ("key2"));
+    assertNull (sh.getSum ("key2"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getAverage ("key2"));
+
+    sh.addTime ("key1", 200L);
+    assertEquals (2, sh.getInvocationCount ());
+    assertEquals (2, sh.getInvocationCount ("key1"));
+    assertEquals (100L, sh.getMin ("key1"));
+    assertEquals (200L, sh.getMax ("key1"));
+    assertEquals (BigInteger.valueOf (300L), sh.getSum ("key1"));
+    assertEquals (150L, sh.getAverage ("key1"));
+    assertEquals (CGlobal.ILLEGAL_ULONG, sh.getMin ("key2"));
+
+    sh.addTime ("key2", 1000);
+    assertEquals (3, sh.getInvocationCount ());
+    assertEquals (2, sh.getInvocationCount ("key1"));
+    assertEquals (100L, sh.getMin ("key1"));
+    assertEquals (200L, sh.getMax ("key1"));
+    assertEquals (BigInteger.valueOf (300L), sh.getSum ("key1"));
+    assertEquals (150L, sh.getAverage ("key1"));
+    assertEquals (1, sh.getInvocationCount ("key2"));
+    assertEquals (1000L, sh.getMin ("key2"));
+    assertEquals (1000L, sh.getMax ("key2"));
+    assertEquals (BigInteger.valueOf (1000L), sh.getSum ("key2"));
+    assertEquals (1000L, sh.getAverage ("key2"));
+
+    assertEquals (2, sh.getAllKeys ().size ());
+  }
+
+  @Test
+  public void testHistogram ()
+  {
+    LockFreeStatisticsHandlerKeyedTimer sh = new LockFreeStatisticsHandlerKeyedTimer ();
+    assertFalse (sh.isHistogramEnabled ());
+    sh.addTime ("key1", 5);
+    assertNull (sh.getHistogramSnapshot ("key1"));
+    assertNull (sh.getHistogramSnapshotAndReset ("key1"));
+
+    sh = new LockFreeStatisticsHandlerKeyedTimer (true);
+    assertTrue (sh.isHistogramEnabled ());
+    assertNull (sh.getHistogramSnapshot ("key1"));
+    for (int i = 1; i <= 100; ++i)
+    {
+      sh.addTime ("key1", i);
+      sh.addTime (null, i * 2);
+    }
+    assertEquals (100, sh.getHistogramSnapshot ("key1").getTotalCount ());
+    assertEquals (50, sh.getHistogramSnapshot ("key1").getP50 ());
+    assertEquals (100, sh.getHistogramSnapshot (null).getP50 ());
+    assertNull (sh.getHistogramSnapshot ("key2"));
+    assertEquals (100, sh.getHistogramSnapshotAndReset ("key1").getP999 ());
+    assertTrue (sh.getHistogramSnapshot ("key1").isEmpty ());
+    assertFalse (sh.getHistogramSnapshot (null).isEmpty ());
+    // Other values are not reset
+    assertEquals (100, sh.getInvocationCount ("key1"));
+  }
+}
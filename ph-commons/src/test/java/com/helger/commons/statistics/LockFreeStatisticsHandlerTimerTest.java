@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Test class for class {@link LockFreeStatisticsHandlerTimer}.
+ *
+ * @author Philip Helger
+ */
+public final class LockFreeStatisticsHandlerTimerTest
+{
+  @SuppressFBWarnings ("TQ_NEVER_VALUE_USED_WHERE_ALWAYS_REQUIRED")
+  @Test
+  public void testAll ()
+  {
+    final LockFreeStatisticsHandlerTimer sh = new LockFreeStatisticsHandlerTimer ();
+    assertEquals (0, sh.getInvocationCount ());
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getMin ());
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getAverage ());
+    assertEquals (CGlobal.ILLEGAL_UINT, sh.getMax ());
+    assertEquals (BigInteger.ZERO, sh.getSum ());
+    sh.addTime (5);
+    assertEquals (1, sh.getInvocationCount ());
+    assertEquals (5, sh.getMin ());
+    assertEquals (5, sh.getAverage ());
+    assertEquals (5, sh.getMax ());
+    assertEquals (BigInteger.valueOf (5), sh.getSum ());
+    sh.addTime (45);
+    assertEquals (2, sh.getInvocationCount ());
+    assertEquals (5, sh.getMin ());
+    assertEquals (25, sh.getAverage ());
+    assertEquals (45, sh.getMax ());
+    assertEquals (BigInteger.valueOf (50), sh.getSum ());
+    sh.addTime (25);
+    assertEquals (3, sh.getInvocationCount ());
+    assertEquals (5, sh.getMin ());
+    assertEquals (25, sh.getAverage ());
+    assertEquals (45, sh.getMax ());
+    assertEquals (BigInteger.valueOf (75), sh.getSum ());
+    sh.addTime (-1);
+  }
+
+  @Test
+  public void testSumOverflow ()
+  {
+    final LockFreeStatisticsHandlerTimer sh = new LockFreeStatisticsHandlerTimer ();
+    sh.addTime (Long.MAX_VALUE);
+    sh.addTime (Long.MAX_VALUE);
+    sh.addTime (3);
+    assertEquals (3, sh.getInvocationCount ());
+    assertEquals (3, sh.getMin ());
+    assertEquals (Long.MAX_VALUE, sh.getMax ());
+    assertEquals (BigInteger.valueOf (Long.MAX_VALUE).multiply (BigInteger.valueOf (2)).add (BigInteger.valueOf (3)),
+                  sh.getSum ());
+
+    // Negative values
+    final LockFreeStatisticsHandlerTimer sh2 = new LockFreeStatisticsHandlerTimer ();
+    sh2.addTime (-5);
+    sh2.addTime (Long.MIN_VALUE);
+    assertEquals (Long.MIN_VALUE, sh2.getMin ());
+    assertEquals (-5, sh2.getMax ());
+    assertEquals (BigInteger.valueOf (Long.MIN_VALUE).subtract (BigInteger.valueOf (5)), sh2.getSum ());
+  }
+
+  @Test
+  public void testHistogram ()
+  {
+    LockFreeStatisticsHandlerTimer sh = new LockFreeStatisticsHandlerTimer ();
+    assertFalse (sh.isHistogramEnabled ());
+    sh.addTime (5);
+    assertNull (sh.getHistogramSnapshot ());
+    assertNull (sh.getHistogramSnapshotAndReset ());
+
+    sh = new LockFreeStatisticsHandlerTimer (true);
+    assertTrue (sh.isHistogramEnabled ());
+    assertTrue (sh.getHistogramSnapshot ().isEmpty ());
+    for (int i = 1; i <= 100; ++i)
+      sh.addTime (i);
+    assertEquals (100, sh.getHistogramSnapshot ().getTotalCount ());
+    assertEquals (50, sh.getHistogramSnapshot ().getP50 ());
+    assertEquals (100, sh.getHistogramSnapshotAndReset ().getP999 ());
+    assertTrue (sh.getHistogramSnapshot ().isEmpty ());
+    // Other values are not reset
+    assertEquals (100, sh.getInvocationCount ());
+  }
+}
@@ -17,7 +17,9 @@
 package com.helger.commons.statistics;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
 
@@ -77,4 +79,32 @@ public final class StatisticsHandlerKeyedTimerTest
 
     assertEquals (2, sh.getAllKeys ().size ());
   }
+
+  @Test
+  public void testHistogram ()
+  {
+    StatisticsHandlerKeyedTimer sh = new StatisticsHandlerKeyedTimer ();
+    assertFalse (sh.isHistogramEnabled ());
+    sh.addTime ("key1", 5);
+    assertNull (sh.getHistogramSnapshot ("key1"));
+    assertNull (sh.getHistogramSnapshotAndReset ("key1"));
+
+    sh = new StatisticsHandlerKeyedTimer (true);
+    assertTrue (sh.isHistogramEnabled ());
+    assertNull (sh.getHistogramSnapshot ("key1"));
+    for (int i = 1; i <= 100; ++i)
+    {
+      sh.addTime ("key1", i);
+      sh.addTime (null, i * 2);
+    }
+    assertEquals (100, sh.getHistogramSnapshot ("key1").getTotalCount ());
+    assertEquals (50, sh.getHistogramSnapshot ("key1").getP50 ());
+    assertEquals (100, sh.getHistogramSnapshot (null).getP50 ());
+    assertNull (sh.getHistogramSnapshot ("key2"));
+    assertEquals (100, sh.getHistogramSnapshotAndReset ("key1").getP999 ());
+    assertTrue (sh.getHistogramSnapshot ("key1").isEmpty ());
+    assertFalse (sh.getHistogramSnapshot (null).isEmpty ());
+    // Other values are not reset
+    assertEquals (100, sh.getInvocationCount ("key1"));
+  }
 }
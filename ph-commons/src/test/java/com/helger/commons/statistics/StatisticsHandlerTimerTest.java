@@ -17,6 +17,9 @@
 package com.helger.commons.statistics;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigInteger;
 
@@ -63,4 +66,26 @@ public final class StatisticsHandlerTimerTest
     assertEquals (BigInteger.valueOf (75), sh.getSum ());
     sh.addTime (-1);
   }
+
+  @Test
+  public void testHistogram ()
+  {
+    StatisticsHandlerTimer sh = new StatisticsHandlerTimer ();
+    assertFalse (sh.isHistogramEnabled ());
+    sh.addTime (5);
+    assertNull (sh.getHistogramSnapshot ());
+    assertNull (sh.getHistogramSnapshotAndReset ());
+
+    sh = new StatisticsHandlerTimer (true);
+    assertTrue (sh.isHistogramEnabled ());
+    assertTrue (sh.getHistogramSnapshot ().isEmpty ());
+    for (int i = 1; i <= 100; ++i)
+      sh.addTime (i);
+    assertEquals (100, sh.getHistogramSnapshot ().getTotalCount ());
+    assertEquals (50, sh.getHistogramSnapshot ().getP50 ());
+    assertEquals (100, sh.getHistogramSnapshotAndReset ().getP999 ());
+    assertTrue (sh.getHistogramSnapshot ().isEmpty ());
+    // Other values are not reset
+    assertEquals (100, sh.getInvocationCount ());
+  }
 }
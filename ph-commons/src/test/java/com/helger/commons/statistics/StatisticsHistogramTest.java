@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.commons.CGlobal;
+
+/**
+ * Test class for class {@link StatisticsHistogram}.
+ *
+ * @author Philip Helger
+ */
+public final class StatisticsHistogramTest
+{
+  @Test
+  public void testBucketIndex ()
+  {
+    int nLastIndex = -1;
+    for (long i = 0; i < 100_000; ++i)
+    {
+      final int nIndex = StatisticsHistogram.getBucketIndex (i);
+      assertTrue (nIndex == nLastIndex || nIndex == nLastIndex + 1);
+      assertTrue (StatisticsHistogram.getBucketLowestValue (nIndex) <= i);
+      assertTrue (StatisticsHistogram.getBucketHighestValue (nIndex) >= i);
+      nLastIndex = nIndex;
+    }
+    assertEquals (0, StatisticsHistogram.getBucketIndex (-5));
+    assertEquals (StatisticsHistogram.BUCKET_COUNT - 1,
+                  StatisticsHistogram.getBucketIndex (StatisticsHistogram.MAX_TRACKABLE_VALUE));
+    assertEquals (StatisticsHistogram.BUCKET_COUNT - 1, StatisticsHistogram.getBucketIndex (Long.MAX_VALUE));
+    assertEquals (StatisticsHistogram.MAX_TRACKABLE_VALUE,
+                  StatisticsHistogram.getBucketHighestValue (StatisticsHistogram.BUCKET_COUNT - 1));
+  }
+
+  @Test
+  public void testPercentiles ()
+  {
+    final StatisticsHistogram aHistogram = new StatisticsHistogram ();
+    StatisticsHistogramSnapshot aSnapshot = aHistogram.getSnapshot ();
+    assertTrue (aSnapshot.isEmpty ());
+    assertEquals (CGlobal.ILLEGAL_ULONG, aSnapshot.getP50 ());
+    assertEquals (CGlobal.ILLEGAL_ULONG, aSnapshot.getMin ());
+    assertEquals (CGlobal.ILLEGAL_ULONG, aSnapshot.getMax ());
+
+    for (int i = 1; i <= 1000; ++i)
+      aHistogram.recordValue (i);
+    aSnapshot = aHistogram.getSnapshot ();
+    assertFalse (aSnapshot.isEmpty ());
+    assertEquals (1000, aSnapshot.getTotalCount ());
+    assertEquals (1, aSnapshot.getMin ());
+
+    // Relative error is at most 1/SUB_BUCKET_COUNT
+    final double dMaxError = 1.0 / StatisticsHistogram.SUB_BUCKET_COUNT;
+    assertEquals (500, aSnapshot.getP50 (), 500 * dMaxError);
+    assertEquals (900, aSnapshot.getP90 (), 900 * dMaxError);
+    assertEquals (990, aSnapshot.getP99 (), 990 * dMaxError);
+    assertEquals (999, aSnapshot.getP999 (), 999 * dMaxError);
+    assertEquals (1000, aSnapshot.getMax (), 1000 * dMaxError);
+    assertTrue (aSnapshot.getP50 () >= 500);
+    assertEquals (1, aSnapshot.getValueAtPercentile (0));
+  }
+
+  @Test
+  public void testMinMaxInWideBucket ()
+  {
+    final StatisticsHistogram aHistogram = new StatisticsHistogram ();
+    // 1001 is in the bucket [1000, 1007]
+    aHistogram.recordValue (1001);
+    aHistogram.recordValue (1003);
+    final StatisticsHistogramSnapshot aSnapshot = aHistogram.getSnapshot ();
+    assertEquals (1000, StatisticsHistogram.getBucketLowestValue (StatisticsHistogram.getBucketIndex (1001)));
+    assertEquals (1007, StatisticsHistogram.getBucketHighestValue (StatisticsHistogram.getBucketIndex (1001)));
+    // The minimum may never be over-reported
+    assertEquals (1000, aSnapshot.getMin ());
+    // The maximum may never be under-reported
+    assertEquals (1007, aSnapshot.getMax ());
+  }
+
+  @Test
+  public void testSnapshotAndReset ()
+  {
+    final StatisticsHistogram aHistogram = new StatisticsHistogram ();
+    aHistogram.recordValue (5);
+    aHistogram.recordValue (7);
+    StatisticsHistogramSnapshot aSnapshot = aHistogram.getSnapshotAndReset ();
+    assertEquals (2, aSnapshot.getTotalCount ());
+    assertEquals (5, aSnapshot.getP50 ());
+    assertEquals (7, aSnapshot.getP99 ());
+
+    aSnapshot = aHistogram.getSnapshot ();
+    assertTrue (aSnapshot.isEmpty ());
+
+    aHistogram.recordValue (3);
+    aSnapshot = aHistogram.getSnapshotAndReset ();
+    assertEquals (1, aSnapshot.getTotalCount ());
+    assertEquals (3, aSnapshot.getP999 ());
+  }
+}
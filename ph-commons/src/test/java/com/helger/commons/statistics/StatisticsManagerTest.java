@@ -18,6 +18,7 @@ package com.helger.commons.statistics;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.junit.Test;
@@ -240,4 +241,29 @@ public final class StatisticsManagerTest
     catch (final IllegalArgumentException ex)
     {}
   }
+
+  @Test
+  public void testUseLockFreeHandlers ()
+  {
+    assertFalse (StatisticsManager.isUseLockFreeHandlers ());
+    assertTrue (StatisticsManager.getTimerHandler ("testUseLockFreeHandlers1") instanceof StatisticsHandlerTimer);
+    StatisticsManager.setUseLockFreeHandlers (true);
+    try
+    {
+      assertTrue (StatisticsManager.isUseLockFreeHandlers ());
+      // Existing handlers are not changed
+      assertTrue (StatisticsManager.getTimerHandler ("testUseLockFreeHandlers1") instanceof StatisticsHandlerTimer);
+      assertTrue (StatisticsManager.getCacheHandler ("testUseLockFreeHandlers2") instanceof LockFreeStatisticsHandlerCache);
+      assertTrue (StatisticsManager.getTimerHandler ("testUseLockFreeHandlers2") instanceof LockFreeStatisticsHandlerTimer);
+      assertTrue (StatisticsManager.getKeyedTimerHandler ("testUseLockFreeHandlers2") instanceof LockFreeStatisticsHandlerKeyedTimer);
+      assertTrue (StatisticsManager.getSizeHandler ("testUseLockFreeHandlers2") instanceof LockFreeStatisticsHandlerSize);
+      assertTrue (StatisticsManager.getKeyedSizeHandler ("testUseLockFreeHandlers2") instanceof LockFreeStatisticsHandlerKeyedSize);
+      assertTrue (StatisticsManager.getCounterHandler ("testUseLockFreeHandlers2") instanceof LockFreeStatisticsHandlerCounter);
+      assertTrue (StatisticsManager.getKeyedCounterHandler ("testUseLockFreeHandlers2") instanceof LockFreeStatisticsHandlerKeyedCounter);
+    }
+    finally
+    {
+      StatisticsManager.setUseLockFreeHandlers (StatisticsManager.DEFAULT_USE_LOCK_FREE_HANDLERS);
+    }
+  }
 }
@@ -2149,4 +2149,62 @@ public final class StringHelperTest extends AbstractCommonsTestCase
     assertEquals (" ba", StringHelper.getReverse ("ab "));
     assertEquals ("cba", StringHelper.getReverse ("abc"));
   }
+
+  @Test
+  public void testExplodeRanges ()
+  {
+    final ICommonsList <String> aParts = new CommonsArrayList <> ();
+    final String s = "a,bb,,ccc,";
+    assertEquals (5, StringHelper.explodeRanges (',', s, -1, (nStart, nEnd) -> aParts.add (s.substring (nStart, nEnd))));
+    assertEquals (StringHelper.getExploded (',', s), aParts);
+
+    aParts.clear ();
+    assertEquals (2, StringHelper.explodeRanges (',', s, 2, (nStart, nEnd) -> aParts.add (s.substring (nStart, nEnd))));
+    assertEquals (StringHelper.getExploded (',', s, 2), aParts);
+
+    aParts.clear ();
+    assertEquals (1, StringHelper.explodeRanges (',', s, 1, (nStart, nEnd) -> aParts.add (s.substring (nStart, nEnd))));
+    assertEquals (new CommonsArrayList <> (s), aParts);
+
+    aParts.clear ();
+    final String s2 = "abc";
+    assertEquals (1, StringHelper.explodeRanges (',', s2, -1, (nStart, nEnd) -> aParts.add (s2.substring (nStart, nEnd))));
+    assertEquals (new CommonsArrayList <> ("abc"), aParts);
+
+    assertEquals (0, StringHelper.explodeRanges (',', null, -1, (nStart, nEnd) -> fail ()));
+    assertEquals (0, StringHelper.explodeRanges (',', "", -1, (nStart, nEnd) -> fail ()));
+  }
+
+  @Test
+  public void testContainsAnyMask ()
+  {
+    final char [] aSearch = new char [] { '\t', '/', '~', '\u00e4', '\u20ac' };
+    for (final String s : new String [] { "\t", "a/b", "xyz~", "\u00e4", "1\u20ac" })
+    {
+      assertTrue (s, StringHelper.containsAny (s, aSearch));
+      assertTrue (s, StringHelper.containsAny (s.toCharArray (), aSearch));
+    }
+    for (final String s : new String [] { "", "abc", " \\", "\u00f6\u20ad@" })
+    {
+      assertFalse (s, StringHelper.containsAny (s, aSearch));
+      assertFalse (s, StringHelper.containsAny (s.toCharArray (), aSearch));
+    }
+    assertFalse (StringHelper.containsAny ((String) null, aSearch));
+    assertTrue (StringHelper.containsAny ("a/b", new char [] { '/', '\\' }));
+    assertFalse (StringHelper.containsAny ("a/b", new char [0]));
+  }
+
+  @Test
+  public void testGetImplodedPresized ()
+  {
+    final ICommonsList <String> aList = new CommonsArrayList <> ("a", null, "ccc");
+    assertEquals ("a, null, ccc", StringHelper.getImploded (", ", aList));
+    assertEquals ("a;null;ccc", StringHelper.getImploded (';', aList));
+    // Non-collection iterable
+    assertEquals ("a, null, ccc", StringHelper.getImploded (", ", (Iterable <String>) aList::iterator));
+    assertEquals ("", StringHelper.getImploded (", ", new CommonsArrayList <> ()));
+    assertEquals ("null", StringHelper.getImploded (", ", new CommonsArrayList <> ((String) null)));
+    assertEquals ("b-null", StringHelper.getImploded ("-", new String [] { "a", "b", null, "d" }, 1, 2));
+    assertEquals ("", StringHelper.getImploded ("-", new String [] { "a" }, 1, 0));
+  }
 }
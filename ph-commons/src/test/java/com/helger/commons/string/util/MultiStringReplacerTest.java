@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.string.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsHashSet;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
+import com.helger.commons.string.StringHelper;
+
+/**
+ * Test class for class {@link MultiStringReplacer}.
+ *
+ * @author Philip Helger
+ */
+public final class MultiStringReplacerTest
+{
+  @Test
+  public void testBasic () throws IOException
+  {
+    final MultiStringReplacer aReplacer = new MultiStringReplacer (new String [] { "&", "<", ">" },
+                                                                   new String [] { "&amp;", "&lt;", "&gt;" });
+    assertEquals (3, aReplacer.getSearchTextCount ());
+    assertNull (aReplacer.replace (null));
+    assertEquals ("", aReplacer.replace (""));
+    final String s = "no special chars";
+    assertSame (s, aReplacer.replace (s));
+    // Replacements are not replaced again
+    assertEquals ("This is &lt;&lt;a&gt; &amp;lt; text", aReplacer.replace ("This is <<a> &lt; text"));
+    assertEquals ("&amp;&amp;", aReplacer.replace ("&&"));
+
+    final StringBuilder aSB = new StringBuilder ("x");
+    aReplacer.replaceTo ("a<b", aSB);
+    assertEquals ("xa&lt;b", aSB.toString ());
+
+    final NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+    aReplacer.replaceTo (new StringBuilder ("<a>&"), aSW);
+    assertEquals ("&lt;a&gt;&amp;", aSW.getAsString ());
+  }
+
+  @Test
+  public void testLeftmostLongest ()
+  {
+    final ICommonsOrderedMap <String, String> aMap = new CommonsLinkedHashMap <> ();
+    aMap.put ("a", "1");
+    aMap.put ("ab", "2");
+    aMap.put ("abc", "3");
+    aMap.put ("bcd", "4");
+    aMap.put ("abcde", "5");
+    aMap.put ("${name}", "Philip");
+    final MultiStringReplacer aReplacer = new MultiStringReplacer (aMap);
+    assertEquals ("5", aReplacer.replace ("abcde"));
+    assertEquals ("3d", aReplacer.replace ("abcd"));
+    assertEquals ("2", aReplacer.replace ("ab"));
+    assertEquals ("x4", aReplacer.replace ("xbcd"));
+    assertEquals ("11", aReplacer.replace ("aa"));
+    assertEquals ("2x5", aReplacer.replace ("abxabcde"));
+    assertEquals ("Hello Philip!", aReplacer.replace ("Hello ${name}!"));
+    assertEquals ("${n1m", aReplacer.replace ("${nam"));
+    assertEquals ("${xyz", aReplacer.replace ("${xyz"));
+  }
+
+  @Nonnull
+  private static String _replaceNaive (@Nonnull final String sText,
+                                       @Nonnull final String [] aSearch,
+                                       @Nonnull final String [] aReplace)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    int nPos = 0;
+    while (nPos < sText.length ())
+    {
+      int nBest = -1;
+      for (int i = 0; i < aSearch.length; ++i)
+        if (sText.startsWith (aSearch[i], nPos) && (nBest < 0 || aSearch[i].length () > aSearch[nBest].length ()))
+          nBest = i;
+      if (nBest < 0)
+        aSB.append (sText.charAt (nPos++));
+      else
+      {
+        aSB.append (aReplace[nBest]);
+        nPos += aSearch[nBest].length ();
+      }
+    }
+    return aSB.toString ();
+  }
+
+  @Test
+  public void testRandom ()
+  {
+    final Random aRandom = new Random (4711);
+    for (int nRun = 0; nRun < 500; ++nRun)
+    {
+      // Small alphabet for many overlapping matches
+      final int nPatterns = 1 + aRandom.nextInt (8);
+      final String [] aSearch = new String [nPatterns];
+      final String [] aReplace = new String [nPatterns];
+      // Search texts must be unique for the naive implementation
+      final ICommonsSet <String> aUsed = new CommonsHashSet <> ();
+      for (int i = 0; i < nPatterns; ++i)
+      {
+        String sSearch;
+        do
+        {
+          sSearch = _randomString (aRandom, 1 + aRandom.nextInt (4));
+        } while (!aUsed.add (sSearch));
+        aSearch[i] = sSearch;
+        aReplace[i] = "[" + i + "]";
+      }
+      final MultiStringReplacer aReplacer = new MultiStringReplacer (aSearch, aReplace);
+      final String sText = _randomString (aRandom, aRandom.nextInt (40));
+      assertEquals (sText + " with " + StringHelper.getImploded (',', aSearch),
+                    _replaceNaive (sText, aSearch, aReplace),
+                    aReplacer.replace (sText));
+    }
+  }
+
+  @Nonnull
+  private static String _randomString (@Nonnull final Random aRandom, final int nLength)
+  {
+    final char [] ret = new char [nLength];
+    for (int i = 0; i < nLength; ++i)
+      ret[i] = (char) ('a' + aRandom.nextInt (3));
+    return new String (ret);
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    try
+    {
+      new MultiStringReplacer (new String [] { "a", "" }, new String [] { "b", "c" });
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+    try
+    {
+      new MultiStringReplacer (new String [] { "a" }, new String [] { "b", "c" });
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+    try
+    {
+      new MultiStringReplacer (new CommonsLinkedHashMap <> ());
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.base64.Base64;
+import com.helger.commons.base64.Base64BlockCodec;
+import com.helger.commons.base64.Base64InputStream;
+import com.helger.commons.base64.Base64OutputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NonBlockingByteArrayOutputStream;
+import com.helger.commons.io.stream.StreamHelper;
+
+/**
+ * Benchmark the different Base64 implementations: the byte oriented
+ * {@link Base64} and its streams, the {@link Base64BlockCodec} and the JDK
+ * {@link java.util.Base64}.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkBase64 extends AbstractBenchmarkTask
+{
+  private static final byte [] DATA = new byte [1024 * 1024];
+  private static final byte [] ENCODED;
+
+  static
+  {
+    new Random (42).nextBytes (DATA);
+    ENCODED = Base64BlockCodec.getDefaultInstance ().getEncoded (DATA);
+  }
+
+  private BenchmarkBase64 ()
+  {}
+
+  @FunctionalInterface
+  private interface IIOTask
+  {
+    void run () throws IOException;
+  }
+
+  public static void main (final String [] aArgs)
+  {
+    logSystemInfo ();
+    final Base64BlockCodec aCodec = Base64BlockCodec.getDefaultInstance ();
+
+    _run ("Encode Base64.encodeBytesToBytes", () -> Base64.encodeBytesToBytes (DATA, 0, DATA.length, Base64.NO_OPTIONS));
+    _run ("Encode Base64OutputStream per byte", () -> {
+      try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+           final Base64OutputStream aB64OS = new Base64OutputStream (aBAOS))
+      {
+        for (final byte b : DATA)
+          aB64OS.write (b);
+      }
+    });
+    _run ("Encode Base64OutputStream bulk", () -> {
+      try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ();
+           final Base64OutputStream aB64OS = new Base64OutputStream (aBAOS))
+      {
+        aB64OS.write (DATA);
+      }
+    });
+    _run ("Encode Base64BlockCodec array", () -> aCodec.getEncoded (DATA));
+    _run ("Encode Base64BlockCodec stream", () -> {
+      try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+      {
+        aCodec.encode (DATA, 0, DATA.length, aBAOS);
+      }
+    });
+    _run ("Encode java.util.Base64", () -> java.util.Base64.getEncoder ().encode (DATA));
+
+    _run ("Decode Base64.decode", () -> Base64.decode (ENCODED));
+    _run ("Decode Base64InputStream", () -> {
+      try (final Base64InputStream aB64IS = new Base64InputStream (new NonBlockingByteArrayInputStream (ENCODED));
+           final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+      {
+        StreamHelper.copyInputStreamToOutputStream (aB64IS, aBAOS);
+      }
+    });
+    _run ("Decode Base64BlockCodec array", () -> aCodec.getDecoded (ENCODED));
+    _run ("Decode Base64BlockCodec stream", () -> {
+      try (final NonBlockingByteArrayOutputStream aBAOS = new NonBlockingByteArrayOutputStream ())
+      {
+        aCodec.decode (ENCODED, 0, ENCODED.length, aBAOS);
+      }
+    });
+    _run ("Decode java.util.Base64", () -> java.util.Base64.getDecoder ().decode (ENCODED));
+  }
+
+  private static void _run (@Nonnull final String sName, @Nonnull final IIOTask aTask)
+  {
+    final double dTime = benchmarkTask ( () -> {
+      try
+      {
+        aTask.run ();
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException (ex);
+      }
+    });
+    s_aLogger.info (sName + ": " + (long) (DATA.length / dTime * 1000) + " MB/s");
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.csv.CSVBufferedWriter;
+import com.helger.commons.csv.CSVWriter;
+import com.helger.commons.timing.StopWatch;
+
+/**
+ * Compare the throughput of {@link CSVWriter} and {@link CSVBufferedWriter}
+ * when writing 10 million rows.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkCSVBufferedWriter extends AbstractBenchmarkTask
+{
+  private static final int ROWS = 10_000_000;
+
+  /**
+   * A writer that only counts the written chars.
+   */
+  private static final class CountingWriter extends Writer
+  {
+    private long m_nCount;
+
+    @Override
+    public void write (final char [] aBuf, final int nOfs, final int nLen)
+    {
+      m_nCount += nLen;
+    }
+
+    @Override
+    public void write (final String s, final int nOfs, final int nLen)
+    {
+      m_nCount += nLen;
+    }
+
+    @Override
+    public void flush ()
+    {}
+
+    @Override
+    public void close ()
+    {}
+  }
+
+  @FunctionalInterface
+  private interface IWriteTask
+  {
+    void run (@Nonnull Writer aWriter) throws IOException;
+  }
+
+  private BenchmarkCSVBufferedWriter ()
+  {}
+
+  public static void main (final String [] aArgs) throws IOException
+  {
+    logSystemInfo ();
+
+    // First round is warm-up
+    for (int nRound = 0; nRound < 2; ++nRound)
+    {
+      _run ("CSVWriter", aWriter -> {
+        try (final CSVWriter aCSV = new CSVWriter (aWriter).setApplyQuotesToAll (false))
+        {
+          final String [] aRow = new String [5];
+          for (int i = 0; i < ROWS; ++i)
+          {
+            aRow[0] = Integer.toString (i);
+            aRow[1] = "Name " + i;
+            aRow[2] = Double.toString (i * 0.25);
+            aRow[3] = "text with \"quotes\", and separator";
+            aRow[4] = Boolean.toString ((i & 1) == 0);
+            aCSV.writeNext (aRow);
+          }
+        }
+      });
+      _run ("CSVBufferedWriter writeNext", aWriter -> {
+        try (final CSVBufferedWriter aCSV = new CSVBufferedWriter (aWriter).setApplyQuotesToAll (false))
+        {
+          final String [] aRow = new String [5];
+          for (int i = 0; i < ROWS; ++i)
+          {
+            aRow[0] = Integer.toString (i);
+            aRow[1] = "Name " + i;
+            aRow[2] = Double.toString (i * 0.25);
+            aRow[3] = "text with \"quotes\", and separator";
+            aRow[4] = Boolean.toString ((i & 1) == 0);
+            aCSV.writeNext (aRow);
+          }
+        }
+      });
+      _run ("CSVBufferedWriter writeField", aWriter -> {
+        try (final CSVBufferedWriter aCSV = new CSVBufferedWriter (aWriter).setApplyQuotesToAll (false))
+        {
+          for (int i = 0; i < ROWS; ++i)
+          {
+            aCSV.writeField (i)
+                .writeField ("Name " + i)
+                .writeField (i * 0.25)
+                .writeField ("text with \"quotes\", and separator")
+                .writeField ((i & 1) == 0);
+            aCSV.endLine ();
+          }
+        }
+      });
+    }
+  }
+
+  private static void _run (@Nonnull final String sName, @Nonnull final IWriteTask aTask) throws IOException
+  {
+    final CountingWriter aWriter = new CountingWriter ();
+    final StopWatch aSW = StopWatch.createdStarted ();
+    aTask.run (aWriter);
+    aSW.stop ();
+    s_aLogger.info (sName +
+                    ": " +
+                    ROWS +
+                    " rows, " +
+                    aWriter.m_nCount +
+                    " chars in " +
+                    aSW.getMillis () +
+                    " ms = " +
+                    (long) (ROWS * 1000.0 / Math.max (1, aSW.getMillis ())) +
+                    " rows/s");
+  }
+}
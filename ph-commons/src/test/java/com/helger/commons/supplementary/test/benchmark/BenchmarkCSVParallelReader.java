@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.csv.CSVParallelReader;
+import com.helger.commons.csv.CSVReader;
+import com.helger.commons.io.file.FileHelper;
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.string.StringParser;
+import com.helger.commons.system.SystemHelper;
+
+/**
+ * Compare the throughput of {@link CSVReader} and {@link CSVParallelReader}
+ * with an increasing number of threads.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkCSVParallelReader extends AbstractBenchmarkTask
+{
+  private static final int ROWS = 150_000;
+
+  private BenchmarkCSVParallelReader ()
+  {}
+
+  @FunctionalInterface
+  private interface IIOTask
+  {
+    long run () throws IOException;
+  }
+
+  public static void main (final String [] aArgs) throws IOException
+  {
+    logSystemInfo ();
+
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < ROWS; ++i)
+      aSB.append (i)
+         .append (",\"Name ")
+         .append (i)
+         .append ("\",")
+         .append (i * 0.25)
+         .append (",\"free text with\nline break and \"\"quotes\"\"\",")
+         .append (i % 7)
+         .append (",last column\n");
+    final File aFile = new File ("benchmark-csv-parallel.csv");
+    SimpleFileIO.writeFile (aFile, aSB.toString (), StandardCharsets.UTF_8);
+    s_aLogger.info ("File size: " + aFile.length () + " bytes");
+
+    try
+    {
+      _run ("CSVReader", () -> {
+        final LongAdder aSum = new LongAdder ();
+        try (final CSVReader aReader = new CSVReader (FileHelper.getBufferedReader (aFile, StandardCharsets.UTF_8)))
+        {
+          aReader.readAll (aRow -> aSum.add (StringParser.parseLong (aRow.get (0), 0)));
+        }
+        return aSum.sum ();
+      });
+
+      for (int nThreads = 1; nThreads <= SystemHelper.getNumberOfProcessors (); ++nThreads)
+      {
+        final ForkJoinPool aPool = new ForkJoinPool (nThreads);
+        try
+        {
+          final CSVParallelReader aReader = new CSVParallelReader (aFile, StandardCharsets.UTF_8).setChunkSize (512 *
+                                                                                                              1024)
+                                                                                                 .setExecutor (aPool);
+          _run ("CSVParallelReader ordered, " + nThreads + " thread(s)", () -> {
+            final LongAdder aSum = new LongAdder ();
+            aReader.readAll (aRow -> aSum.add (StringParser.parseLong (aRow.get (0), 0)), true);
+            return aSum.sum ();
+          });
+          _run ("CSVParallelReader unordered, " + nThreads + " thread(s)", () -> {
+            final LongAdder aSum = new LongAdder ();
+            aReader.readAll (aRow -> aSum.add (StringParser.parseLong (aRow.get (0), 0)), false);
+            return aSum.sum ();
+          });
+        }
+        finally
+        {
+          aPool.shutdown ();
+        }
+      }
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+
+  private static void _run (@Nonnull final String sName, @Nonnull final IIOTask aTask)
+  {
+    final double dTime = benchmarkTask ( () -> {
+      try
+      {
+        if (aTask.run () == 0)
+          throw new IllegalStateException ();
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException (ex);
+      }
+    });
+    s_aLogger.info (sName + ": " + (long) (ROWS / dTime * 1_000_000_000) + " rows/s");
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.csv.CSVReader;
+import com.helger.commons.csv.CSVTokenizer;
+import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.commons.string.StringParser;
+
+/**
+ * Compare the throughput of {@link CSVReader} and {@link CSVTokenizer}.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkCSVTokenizer extends AbstractBenchmarkTask
+{
+  private static final int ROWS = 100_000;
+  private static final String CSV;
+
+  static
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < ROWS; ++i)
+      aSB.append (i)
+         .append (",\"Name ")
+         .append (i)
+         .append ("\",")
+         .append (i * 0.25)
+         .append (",some free text with \"\"quotes\"\",")
+         .append (i % 7)
+         .append (",last column\n");
+    CSV = aSB.toString ();
+  }
+
+  private BenchmarkCSVTokenizer ()
+  {}
+
+  @FunctionalInterface
+  private interface IIOTask
+  {
+    long run () throws IOException;
+  }
+
+  public static void main (final String [] aArgs)
+  {
+    logSystemInfo ();
+
+    _run ("CSVReader all columns", () -> {
+      final AtomicLong aSum = new AtomicLong ();
+      try (final CSVReader aReader = new CSVReader (new NonBlockingStringReader (CSV)))
+      {
+        aReader.readAll (aRow -> aSum.addAndGet (StringParser.parseLong (aRow.get (0), 0) + aRow.get (3).length ()));
+      }
+      return aSum.get ();
+    });
+    _run ("CSVTokenizer all columns", () -> {
+      final AtomicLong aSum = new AtomicLong ();
+      try (final CSVTokenizer aTokenizer = new CSVTokenizer (new NonBlockingStringReader (CSV)))
+      {
+        aTokenizer.readAll (aRow -> aSum.addAndGet (aRow.getFieldAsLong (0, 0) + aRow.getFieldLength (3)));
+      }
+      return aSum.get ();
+    });
+    _run ("CSVTokenizer projected columns", () -> {
+      final AtomicLong aSum = new AtomicLong ();
+      try (final CSVTokenizer aTokenizer = new CSVTokenizer (new NonBlockingStringReader (CSV)))
+      {
+        aTokenizer.setColumnProjection (0, 3);
+        aTokenizer.readAll (aRow -> aSum.addAndGet (aRow.getFieldAsLong (0, 0) + aRow.getFieldLength (3)));
+      }
+      return aSum.get ();
+    });
+  }
+
+  private static void _run (@Nonnull final String sName, @Nonnull final IIOTask aTask)
+  {
+    final double dTime = benchmarkTask ( () -> {
+      try
+      {
+        if (aTask.run () == 0)
+          throw new IllegalStateException ();
+      }
+      catch (final IOException ex)
+      {
+        throw new IllegalStateException (ex);
+      }
+    });
+    s_aLogger.info (sName + ": " + (long) (ROWS / dTime * 1_000_000_000) + " rows/s");
+  }
+}
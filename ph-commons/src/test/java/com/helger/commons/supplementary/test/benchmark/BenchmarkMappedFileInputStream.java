@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.io.EAppend;
+import com.helger.commons.io.file.FileChannelHelper;
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.stream.MappedFileInputStream;
+import com.helger.commons.io.stream.NullOutputStream;
+import com.helger.commons.timing.StopWatch;
+
+/**
+ * Compare sequential reads of a large file through {@link FileInputStream},
+ * {@link MappedFileInputStream} and {@link FileChannel#transferTo}. The file
+ * size in MB can be passed as the first argument and defaults to 8 GB. Note
+ * that the results depend on whether the file fits into the OS page cache.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkMappedFileInputStream extends AbstractBenchmarkTask
+{
+  private static final int BUFFER_SIZE = 64 * CGlobal.BYTES_PER_KILOBYTE;
+
+  @FunctionalInterface
+  private interface IReadTask
+  {
+    long run (@Nonnull File aFile) throws IOException;
+  }
+
+  private BenchmarkMappedFileInputStream ()
+  {}
+
+  private static long _readAll (@Nonnull final InputStream aIS) throws IOException
+  {
+    final byte [] aBuffer = new byte [BUFFER_SIZE];
+    long nTotal = 0;
+    int nRead;
+    while ((nRead = aIS.read (aBuffer, 0, aBuffer.length)) > 0)
+      nTotal += nRead;
+    return nTotal;
+  }
+
+  public static void main (final String [] aArgs) throws IOException
+  {
+    logSystemInfo ();
+
+    final long nFileSize = (aArgs.length > 0 ? Long.parseLong (aArgs[0]) : 8 * 1024L) * CGlobal.BYTES_PER_MEGABYTE;
+    final File aFile = new File ("benchmark-mapped-file.bin");
+    try
+    {
+      // Create the file
+      final byte [] aChunk = new byte [CGlobal.BYTES_PER_MEGABYTE];
+      for (int i = 0; i < aChunk.length; ++i)
+        aChunk[i] = (byte) i;
+      try (final OutputStream aOS = FileChannelHelper.getMappedOutputStream (aFile, EAppend.TRUNCATE))
+      {
+        for (long n = 0; n < nFileSize; n += aChunk.length)
+          aOS.write (aChunk, 0, (int) Math.min (aChunk.length, nFileSize - n));
+      }
+      s_aLogger.info ("File size: " + aFile.length () + " bytes");
+
+      // First round is warm-up
+      for (int nRound = 0; nRound < 2; ++nRound)
+      {
+        _run ("FileInputStream", aFile, f -> {
+          try (final FileInputStream aIS = new FileInputStream (f))
+          {
+            return _readAll (aIS);
+          }
+        });
+        _run ("MappedFileInputStream", aFile, f -> {
+          try (final MappedFileInputStream aIS = new MappedFileInputStream (FileChannelHelper.getFileReadChannel (f)))
+          {
+            return _readAll (aIS);
+          }
+        });
+        _run ("FileChannel.transferTo", aFile, f -> {
+          try (final FileChannel aSrc = FileChannelHelper.getFileReadChannel (f);
+               final WritableByteChannel aDst = Channels.newChannel (new NullOutputStream ()))
+          {
+            final long nSize = aSrc.size ();
+            long nTotal = 0;
+            while (nTotal < nSize)
+              nTotal += aSrc.transferTo (nTotal, nSize - nTotal, aDst);
+            return nTotal;
+          }
+        });
+      }
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+
+  private static void _run (@Nonnull final String sName,
+                            @Nonnull final File aFile,
+                            @Nonnull final IReadTask aTask) throws IOException
+  {
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final long nBytes = aTask.run (aFile);
+    aSW.stop ();
+    if (nBytes != aFile.length ())
+      throw new IllegalStateException ("Read " + nBytes + " bytes but expected " + aFile.length ());
+    s_aLogger.info (sName +
+                    ": " +
+                    nBytes +
+                    " bytes in " +
+                    aSW.getMillis () +
+                    " ms = " +
+                    (long) (nBytes * 1000.0 / CGlobal.BYTES_PER_MEGABYTE / Math.max (1, aSW.getMillis ())) +
+                    " MB/s");
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.helger.commons.concurrent.ExecutorServiceHelper;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCache;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
+import com.helger.commons.statistics.IMutableStatisticsHandlerKeyedTimer;
+import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
+import com.helger.commons.statistics.LockFreeStatisticsHandlerCache;
+import com.helger.commons.statistics.LockFreeStatisticsHandlerCounter;
+import com.helger.commons.statistics.LockFreeStatisticsHandlerKeyedTimer;
+import com.helger.commons.statistics.LockFreeStatisticsHandlerTimer;
+import com.helger.commons.statistics.StatisticsHandlerCache;
+import com.helger.commons.statistics.StatisticsHandlerCounter;
+import com.helger.commons.statistics.StatisticsHandlerKeyedTimer;
+import com.helger.commons.statistics.StatisticsHandlerTimer;
+import com.helger.commons.system.SystemHelper;
+
+/**
+ * Compare the lock based statistics handlers with the lock-free ones with an
+ * increasing number of threads.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkStatisticsHandler extends AbstractBenchmarkTask
+{
+  private static final int RUNS_PER_THREAD = 10000;
+
+  private BenchmarkStatisticsHandler ()
+  {}
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    logSystemInfo ();
+    final int nMaxThreads = Math.max (64, SystemHelper.getNumberOfProcessors () * 2);
+    for (int nThreads = 1; nThreads <= nMaxThreads; nThreads *= 2)
+      _run (nThreads);
+  }
+
+  private static Runnable _getRunnable (final int nThreads, final Runnable aAction)
+  {
+    final Runnable aPerThread = () -> {
+      for (int i = 0; i < RUNS_PER_THREAD; ++i)
+        aAction.run ();
+    };
+    if (nThreads == 1)
+      return aPerThread;
+
+    return () -> {
+      final ExecutorService aExecSvc = Executors.newFixedThreadPool (nThreads);
+      for (int i = 0; i < nThreads; ++i)
+        aExecSvc.submit (aPerThread);
+      ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecSvc);
+    };
+  }
+
+  private static void _run (final int nThreads)
+  {
+    final IMutableStatisticsHandlerCounter aCounter1 = new StatisticsHandlerCounter ();
+    final IMutableStatisticsHandlerCounter aCounter2 = new LockFreeStatisticsHandlerCounter ();
+    double dTime = benchmarkTask (_getRunnable (nThreads, aCounter1::increment));
+    s_aLogger.info ("Counter [" + nThreads + "] lock based:       " + dTime + " ns");
+    dTime = benchmarkTask (_getRunnable (nThreads, aCounter2::increment));
+    s_aLogger.info ("Counter [" + nThreads + "] lock-free:        " + dTime + " ns");
+
+    final IMutableStatisticsHandlerCache aCache1 = new StatisticsHandlerCache ();
+    final IMutableStatisticsHandlerCache aCache2 = new LockFreeStatisticsHandlerCache ();
+    dTime = benchmarkTask (_getRunnable (nThreads, aCache1::cacheHit));
+    s_aLogger.info ("Cache [" + nThreads + "] lock based:         " + dTime + " ns");
+    dTime = benchmarkTask (_getRunnable (nThreads, aCache2::cacheHit));
+    s_aLogger.info ("Cache [" + nThreads + "] lock-free:          " + dTime + " ns");
+
+    final IMutableStatisticsHandlerTimer aTimer1 = new StatisticsHandlerTimer ();
+    final IMutableStatisticsHandlerTimer aTimer2 = new LockFreeStatisticsHandlerTimer ();
+    dTime = benchmarkTask (_getRunnable (nThreads, () -> aTimer1.addTime (17)));
+    s_aLogger.info ("Timer [" + nThreads + "] lock based:         " + dTime + " ns");
+    dTime = benchmarkTask (_getRunnable (nThreads, () -> aTimer2.addTime (17)));
+    s_aLogger.info ("Timer [" + nThreads + "] lock-free:          " + dTime + " ns");
+
+    final IMutableStatisticsHandlerKeyedTimer aKeyedTimer1 = new StatisticsHandlerKeyedTimer ();
+    final IMutableStatisticsHandlerKeyedTimer aKeyedTimer2 = new LockFreeStatisticsHandlerKeyedTimer ();
+    dTime = benchmarkTask (_getRunnable (nThreads, () -> aKeyedTimer1.addTime ("key", 17)));
+    s_aLogger.info ("KeyedTimer [" + nThreads + "] lock based:    " + dTime + " ns");
+    dTime = benchmarkTask (_getRunnable (nThreads, () -> aKeyedTimer2.addTime ("key", 17)));
+    s_aLogger.info ("KeyedTimer [" + nThreads + "] lock-free:     " + dTime + " ns");
+  }
+}
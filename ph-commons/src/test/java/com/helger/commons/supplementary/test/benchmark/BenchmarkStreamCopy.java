@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.io.stream.NullOutputStream;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.mutable.MutableLong;
+import com.helger.commons.timing.StopWatch;
+
+/**
+ * Compare the different ways {@link StreamHelper} copies streams: file to file
+ * via {@link java.nio.channels.FileChannel} compared to the buffered copying,
+ * and memory to memory with pooled buffers compared to a new buffer per copy.
+ * The file size in MB can be passed as the first argument and defaults to
+ * 512 MB.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkStreamCopy extends AbstractBenchmarkTask
+{
+  @FunctionalInterface
+  private interface ICopyTask
+  {
+    long run () throws IOException;
+  }
+
+  private BenchmarkStreamCopy ()
+  {}
+
+  public static void main (final String [] aArgs) throws IOException
+  {
+    logSystemInfo ();
+
+    final long nFileSize = (aArgs.length > 0 ? Long.parseLong (aArgs[0]) : 512L) * CGlobal.BYTES_PER_MEGABYTE;
+    final File aSrc = new File ("benchmark-stream-copy-src.bin");
+    final File aDst = new File ("benchmark-stream-copy-dst.bin");
+    try
+    {
+      // Create the file
+      final byte [] aChunk = new byte [CGlobal.BYTES_PER_MEGABYTE];
+      for (int i = 0; i < aChunk.length; ++i)
+        aChunk[i] = (byte) i;
+      try (final FileOutputStream aOS = new FileOutputStream (aSrc))
+      {
+        for (long n = 0; n < nFileSize; n += aChunk.length)
+          aOS.write (aChunk, 0, (int) Math.min (aChunk.length, nFileSize - n));
+      }
+      s_aLogger.info ("File size: " + aSrc.length () + " bytes");
+
+      final MutableLong aCount = new MutableLong (0);
+      // First round is warm-up
+      for (int nRound = 0; nRound < 2; ++nRound)
+      {
+        _run ("File to file via FileChannel", nFileSize, () -> {
+          try (final FileOutputStream aOS = new FileOutputStream (aDst))
+          {
+            StreamHelper.copyInputStreamToOutputStream (new FileInputStream (aSrc), aOS, aCount);
+          }
+          return aCount.longValue ();
+        });
+        _run ("File to file via buffer", nFileSize, () -> {
+          try (final FileOutputStream aOS = new FileOutputStream (aDst))
+          {
+            // The wrapping stream disables the FileChannel copying
+            StreamHelper.copyInputStreamToOutputStream (new BufferedInputStream (new FileInputStream (aSrc)),
+                                                        aOS,
+                                                        aCount);
+          }
+          return aCount.longValue ();
+        });
+      }
+
+      // Many small copies, where the buffer allocation matters
+      final int nSmallSize = 4 * CGlobal.BYTES_PER_KILOBYTE;
+      final int nCopies = (int) Math.min (Integer.MAX_VALUE, nFileSize / nSmallSize);
+      for (int nRound = 0; nRound < 2; ++nRound)
+      {
+        _run ("Memory to memory with pooled buffer", (long) nCopies * nSmallSize, () -> {
+          long nTotal = 0;
+          for (int i = 0; i < nCopies; ++i)
+          {
+            StreamHelper.copyInputStreamToOutputStream (new NonBlockingByteArrayInputStream (aChunk, 0, nSmallSize),
+                                                        new NullOutputStream (),
+                                                        aCount);
+            nTotal += aCount.longValue ();
+          }
+          return nTotal;
+        });
+        _run ("Memory to memory with new buffer", (long) nCopies * nSmallSize, () -> {
+          long nTotal = 0;
+          for (int i = 0; i < nCopies; ++i)
+          {
+            StreamHelper.copyInputStreamToOutputStream (new NonBlockingByteArrayInputStream (aChunk, 0, nSmallSize),
+                                                        new NullOutputStream (),
+                                                        new byte [StreamHelper.DEFAULT_BUFSIZE],
+                                                        aCount);
+            nTotal += aCount.longValue ();
+          }
+          return nTotal;
+        });
+      }
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aSrc);
+      FileOperations.deleteFileIfExisting (aDst);
+    }
+  }
+
+  private static void _run (@Nonnull final String sName,
+                            final long nExpectedBytes,
+                            @Nonnull final ICopyTask aTask) throws IOException
+  {
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final long nBytes = aTask.run ();
+    aSW.stop ();
+    if (nBytes != nExpectedBytes)
+      throw new IllegalStateException ("Copied " + nBytes + " bytes but expected " + nExpectedBytes);
+    s_aLogger.info (sName +
+                    ": " +
+                    nBytes +
+                    " bytes in " +
+                    aSW.getMillis () +
+                    " ms = " +
+                    (long) (nBytes * 1000.0 / CGlobal.BYTES_PER_MEGABYTE / Math.max (1, aSW.getMillis ())) +
+                    " MB/s");
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.collection.ArrayHelper;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.StringHelper;
+
+/**
+ * Benchmark the search, split and join primitives of {@link StringHelper}
+ * against their previous char-by-char and list based implementations.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkStringHelperSearch extends AbstractBenchmarkTask
+{
+  private static final String CSV_LINE;
+  private static final String PLAIN_TEXT;
+  private static final char [] SEARCH_CHARS = new char [] { '<', '>', '&', '"', '\'' };
+  private static final ICommonsList <String> PARTS = new CommonsArrayList <> ();
+
+  static
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (int i = 0; i < 200; ++i)
+    {
+      if (i > 0)
+        aSB.append (';');
+      aSB.append ("value").append (i);
+      PARTS.add ("part number " + i);
+    }
+    CSV_LINE = aSB.toString ();
+    PLAIN_TEXT = StringHelper.getRepeated ("This is a plain text without special chars. ", 50);
+  }
+
+  private BenchmarkStringHelperSearch ()
+  {}
+
+  public static void main (final String [] aArgs)
+  {
+    logSystemInfo ();
+    _run ("getExploded list", () -> {
+      int n = 0;
+      for (final String s : StringHelper.getExploded (';', CSV_LINE))
+        n += s.length ();
+      _check (n);
+    });
+    _run ("explodeRanges", () -> {
+      final AtomicInteger n = new AtomicInteger ();
+      StringHelper.explodeRanges (';', CSV_LINE, -1, (nStart, nEnd) -> n.addAndGet (nEnd - nStart));
+      _check (n.get ());
+    });
+
+    _run ("containsAny old", () -> {
+      if (_containsAnyOld (PLAIN_TEXT, SEARCH_CHARS))
+        throw new IllegalStateException ();
+    });
+    _run ("containsAny new", () -> {
+      if (StringHelper.containsAny (PLAIN_TEXT, SEARCH_CHARS))
+        throw new IllegalStateException ();
+    });
+
+    _run ("getOccurrenceCount old", () -> {
+      if (_getOccurrenceCountOld (CSV_LINE, ';') != 199)
+        throw new IllegalStateException ();
+    });
+    _run ("getOccurrenceCount new", () -> {
+      if (StringHelper.getOccurrenceCount (CSV_LINE, ';') != 199)
+        throw new IllegalStateException ();
+    });
+
+    _run ("getImploded old", () -> {
+      if (_getImplodedOld (", ", PARTS).length () == 0)
+        throw new IllegalStateException ();
+    });
+    _run ("getImploded new", () -> {
+      if (StringHelper.getImploded (", ", PARTS).length () == 0)
+        throw new IllegalStateException ();
+    });
+  }
+
+  private static void _check (final int n)
+  {
+    if (n != CSV_LINE.length () - 199)
+      throw new IllegalStateException ("Got " + n);
+  }
+
+  private static void _run (@Nonnull final String sName, @Nonnull final Runnable aSingleRun)
+  {
+    final int nRuns = 1000;
+    final double dTime = benchmarkTask ( () -> {
+      for (int i = 0; i < nRuns; ++i)
+        aSingleRun.run ();
+    });
+    s_aLogger.info (sName + ": " + dTime / nRuns + " ns per call");
+  }
+
+  private static boolean _containsAnyOld (@Nonnull final String sInput, @Nonnull final char [] aSearchChars)
+  {
+    for (final char cIn : sInput.toCharArray ())
+      if (ArrayHelper.contains (aSearchChars, cIn))
+        return true;
+    return false;
+  }
+
+  private static int _getOccurrenceCountOld (@Nonnull final String sText, final char cSearch)
+  {
+    int ret = 0;
+    int nLastIndex = 0;
+    int nIndex;
+    do
+    {
+      nIndex = StringHelper.getIndexOf (sText, nLastIndex, cSearch);
+      if (nIndex != StringHelper.STRING_NOT_FOUND)
+      {
+        ++ret;
+        nLastIndex = nIndex + 1;
+      }
+    } while (nIndex != StringHelper.STRING_NOT_FOUND);
+    return ret;
+  }
+
+  @Nonnull
+  private static String _getImplodedOld (@Nonnull final String sSep, @Nonnull final Iterable <String> aElements)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    int nIndex = 0;
+    for (final String aElement : aElements)
+    {
+      if (nIndex > 0)
+        aSB.append (sSep);
+      aSB.append (aElement);
+      nIndex++;
+    }
+    return aSB.toString ();
+  }
+}
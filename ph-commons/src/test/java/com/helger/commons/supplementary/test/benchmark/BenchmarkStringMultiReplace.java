@@ -21,6 +21,7 @@ import java.util.regex.Pattern;
 import com.helger.commons.collection.impl.CommonsLinkedHashMap;
 import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.string.StringHelper;
+import com.helger.commons.string.util.MultiStringReplacer;
 
 /**
  * This code benchmarks the performance of copying an array purely in Java
@@ -57,6 +58,17 @@ public final class BenchmarkStringMultiReplace extends AbstractBenchmarkTask
 
     final double self3Time = benchmarkTask (new SelfReplaceMultiple3 (nRuns));
     s_aLogger.info ("Time using self replace3:   " + self3Time + " µs");
+
+    final double self4Time = benchmarkTask (new SelfReplaceMultiple4 (nRuns));
+    s_aLogger.info ("Time using MultiStringReplacer: " + self4Time + " µs");
+
+    // Template expansion with many placeholders
+    final int nTemplateRuns = 1;
+    final double templateMapTime = benchmarkTask (new TemplateReplaceMultiple (nTemplateRuns));
+    s_aLogger.info ("Time for template using replaceMultiple:     " + templateMapTime + " µs");
+
+    final double templateReplacerTime = benchmarkTask (new TemplateMultiStringReplacer (nTemplateRuns));
+    s_aLogger.info ("Time for template using MultiStringReplacer: " + templateReplacerTime + " µs");
   }
 
   private static final String SRC = "This is <<a> text";
@@ -181,4 +193,87 @@ public final class BenchmarkStringMultiReplace extends AbstractBenchmarkTask
         throw new IllegalStateException (s);
     }
   }
+
+  private static final class SelfReplaceMultiple4 implements Runnable
+  {
+    private final int m_nRuns;
+
+    public SelfReplaceMultiple4 (final int runs)
+    {
+      m_nRuns = runs;
+    }
+
+    public void run ()
+    {
+      final MultiStringReplacer aReplacer = new MultiStringReplacer (RSRC, RDST);
+
+      String s = "";
+      for (int i = 0; i < m_nRuns; i++)
+        s = aReplacer.replace (SRC);
+      if (!s.equals (DST))
+        throw new IllegalStateException (s);
+    }
+  }
+
+  private static final int PLACEHOLDERS = 300;
+  private static final ICommonsOrderedMap <String, String> TEMPLATE_MAP = new CommonsLinkedHashMap <> ();
+  private static final String TEMPLATE;
+  private static final String TEMPLATE_DST;
+
+  static
+  {
+    final StringBuilder aSrc = new StringBuilder ();
+    final StringBuilder aDst = new StringBuilder ();
+    for (int i = 0; i < PLACEHOLDERS; ++i)
+      TEMPLATE_MAP.put ("${placeholder" + i + "}", "value " + i);
+    // Use each placeholder 10 times in a text of about 100 KB
+    for (int j = 0; j < 10; ++j)
+      for (int i = 0; i < PLACEHOLDERS; ++i)
+      {
+        aSrc.append ("Some static text before ${placeholder").append (i).append ("} and after.\n");
+        aDst.append ("Some static text before value ").append (i).append (" and after.\n");
+      }
+    TEMPLATE = aSrc.toString ();
+    TEMPLATE_DST = aDst.toString ();
+  }
+
+  private static final class TemplateReplaceMultiple implements Runnable
+  {
+    private final int m_nRuns;
+
+    public TemplateReplaceMultiple (final int runs)
+    {
+      m_nRuns = runs;
+    }
+
+    public void run ()
+    {
+      String s = "";
+      for (int i = 0; i < m_nRuns; i++)
+        s = StringHelper.replaceMultiple (TEMPLATE, TEMPLATE_MAP);
+      if (!s.equals (TEMPLATE_DST))
+        throw new IllegalStateException (s);
+    }
+  }
+
+  private static final class TemplateMultiStringReplacer implements Runnable
+  {
+    private final int m_nRuns;
+
+    public TemplateMultiStringReplacer (final int runs)
+    {
+      m_nRuns = runs;
+    }
+
+    public void run ()
+    {
+      final MultiStringReplacer aReplacer = new MultiStringReplacer (TEMPLATE_MAP);
+
+      String s = "";
+      for (int i = 0; i < m_nRuns; i++)
+        s = aReplacer.replace (TEMPLATE);
+      if (!s.equals (TEMPLATE_DST))
+        throw new IllegalStateException (s);
+    }
+  }
 }
@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.supplementary.test.benchmark;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.helger.commons.typeconvert.TypeConverter;
+
+/**
+ * Check the performance of hot type conversions, that are resolved via the
+ * cached converter lookup of the type converter registry.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkTypeConverter extends AbstractBenchmarkTask
+{
+  private static final int RUNS = 10000;
+
+  private BenchmarkTypeConverter ()
+  {}
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    logSystemInfo ();
+    _run ("String->Integer", () -> TypeConverter.convert ("4711", Integer.class));
+    _run ("String->int", () -> TypeConverter.convertToInt ("4711", 0));
+    _run ("String->BigDecimal", () -> TypeConverter.convert ("47.11", BigDecimal.class));
+    _run ("Integer->String", () -> TypeConverter.convert (Integer.valueOf (4711), String.class));
+    _run ("Integer->BigInteger", () -> TypeConverter.convert (Integer.valueOf (4711), BigInteger.class));
+    _run ("StringBuilder->Long", () -> TypeConverter.convert (new StringBuilder ("4711"), Long.class));
+  }
+
+  private static void _run (final String sName, final Runnable aConversion)
+  {
+    final double dTime = benchmarkTask ( () -> {
+      for (int i = 0; i < RUNS; ++i)
+        aConversion.run ();
+    });
+    s_aLogger.info (sName + ": " + dTime / RUNS + " ns per conversion");
+  }
+}
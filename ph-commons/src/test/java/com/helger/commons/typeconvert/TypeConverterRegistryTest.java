@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.commons.typeconvert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.helger.commons.typeconvert.rule.TypeConverterRuleAnySourceFixedDestination;
+
+/**
+ * Test class for class {@link TypeConverterRegistry}.
+ *
+ * @author Philip Helger
+ */
+public final class TypeConverterRegistryTest
+{
+  public static class MockSource
+  {}
+
+  public static class MockSubSource extends MockSource
+  {}
+
+  public static class MockDestination
+  {}
+
+  @Test
+  public void testResolvedConverterCache ()
+  {
+    final TypeConverterRegistry aTCR = TypeConverterRegistry.getInstance ();
+
+    // Positive results are cached
+    final ITypeConverter <?, ?> aConverter = aTCR.getRuleBasedConverter (String.class, BigDecimal.class);
+    assertNotNull (aConverter);
+    assertSame (aConverter, aTCR.getRuleBasedConverter (String.class, BigDecimal.class));
+    assertNull (aTCR.getFuzzyConverter (null, BigDecimal.class));
+    assertNull (aTCR.getRuleBasedConverter (String.class, null));
+
+    try
+    {
+      // Negative results are cached
+      assertNull (aTCR.getFuzzyConverter (MockSubSource.class, MockDestination.class));
+      assertNull (aTCR.getRuleBasedConverter (MockSubSource.class, MockDestination.class));
+      assertNull (TypeConverter.convert (new MockSubSource (), MockDestination.class, null));
+
+      // Registration invalidates the cache
+      final MockDestination aDst = new MockDestination ();
+      aTCR.registerTypeConverter (MockSource.class, MockDestination.class, x -> aDst);
+      assertNotNull (aTCR.getFuzzyConverter (MockSubSource.class, MockDestination.class));
+      assertSame (aDst, TypeConverter.convert (new MockSubSource (), MockDestination.class));
+
+      // Rule registration invalidates the cache as well
+      final int nRules = (int) aTCR.getRegisteredTypeConverterRuleCount ();
+      assertNull (aTCR.getRuleBasedConverter (MockDestination.class, MockSource.class));
+      aTCR.registerTypeConverterRule (new TypeConverterRuleAnySourceFixedDestination <> (MockSource.class,
+                                                                                          x -> new MockSource ()));
+      assertEquals (nRules + 1, aTCR.getRegisteredTypeConverterRuleCount ());
+      assertNotNull (aTCR.getRuleBasedConverter (MockDestination.class, MockSource.class));
+    }
+    finally
+    {
+      aTCR.reinitialize ();
+    }
+
+    // Reinitialization invalidates the cache
+    assertNull (aTCR.getFuzzyConverter (MockSubSource.class, MockDestination.class));
+    assertNull (aTCR.getRuleBasedConverter (MockDestination.class, MockSource.class));
+  }
+}
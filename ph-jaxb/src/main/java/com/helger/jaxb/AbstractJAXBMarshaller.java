@@ -73,6 +73,12 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
                                              IJAXBWriter <JAXBTYPE>
 {
   public static final boolean DEFAULT_READ_SECURE = true;
+  /**
+   * By default (un)marshallers are not pooled
+   *
+   * @since 9.0.0
+   */
+  public static final boolean DEFAULT_USE_POOL = false;
 
   private static final Logger s_aLogger = LoggerFactory.getLogger (AbstractJAXBMarshaller.class);
 
@@ -89,6 +95,9 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
   private String m_sNoNamespaceSchemaLocation;
   private boolean m_bUseContextCache = JAXBBuilderDefaultSettings.DEFAULT_USE_CONTEXT_CACHE;
   private ClassLoader m_aClassLoader;
+  // Only present if pooling is enabled
+  private JAXBPool <Marshaller> m_aMarshallerPool;
+  private JAXBPool <Unmarshaller> m_aUnmarshallerPool;
 
   /**
    * Constructor without XSD paths.
@@ -149,6 +158,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
   public final void setClassLoader (@Nullable final ClassLoader aClassLoader)
   {
     m_aClassLoader = aClassLoader;
+    clearPools ();
   }
 
   @Nullable
@@ -167,6 +177,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
   public final void setValidationEventHandlerFactory (@Nullable final IValidationEventHandlerFactory aVEHFactory)
   {
     m_aVEHFactory = aVEHFactory;
+    clearPools ();
   }
 
   /**
@@ -223,6 +234,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
     if (EqualsHelper.equals (aNSContext, m_aNSContext))
       return EChange.UNCHANGED;
     m_aNSContext = aNSContext;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -245,6 +257,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
     if (bWriteFormatted == m_bFormattedOutput)
       return EChange.UNCHANGED;
     m_bFormattedOutput = bWriteFormatted;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -268,6 +281,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
     if (EqualsHelper.equals (aCharset, m_aCharset))
       return EChange.UNCHANGED;
     m_aCharset = aCharset;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -291,6 +305,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
     if (EqualsHelper.equals (sIndentString, m_sIndentString))
       return EChange.UNCHANGED;
     m_sIndentString = sIndentString;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -314,6 +329,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
     if (EqualsHelper.equals (sSchemaLocation, m_sSchemaLocation))
       return EChange.UNCHANGED;
     m_sSchemaLocation = sSchemaLocation;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -338,6 +354,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
     if (EqualsHelper.equals (sNoNamespaceSchemaLocation, m_sNoNamespaceSchemaLocation))
       return EChange.UNCHANGED;
     m_sNoNamespaceSchemaLocation = sNoNamespaceSchemaLocation;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -355,6 +372,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
     if (bUseContextCache == m_bUseContextCache)
       return EChange.UNCHANGED;
     m_bUseContextCache = bUseContextCache;
+    clearPools ();
     return EChange.CHANGED;
   }
 
@@ -363,6 +381,94 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
     return m_bUseContextCache;
   }
 
+  /**
+   * @return <code>true</code> if configured {@link Marshaller} and
+   *         {@link Unmarshaller} objects are pooled and reused,
+   *         <code>false</code> if new objects are created for each read and
+   *         write operation.
+   * @since 9.0.0
+   */
+  public final boolean isUsePool ()
+  {
+    return m_aMarshallerPool != null;
+  }
+
+  /**
+   * Enable or disable the pooling of configured {@link Marshaller} and
+   * {@link Unmarshaller} objects. If pooling is enabled, the (un)marshallers
+   * are created and configured only once per {@link JAXBContextCacheKey} and
+   * reused afterwards. Each change of the settings of this object clears the
+   * pools. If {@link #createValidationSchema()} is overridden, it must return
+   * the same schema upon each invocation. As without pooling, the validation
+   * event handler and afterwards the customize methods are applied before each
+   * usage, so they must be able to handle a reused object.<br>
+   * The hits and misses of the pools are available via the
+   * {@link com.helger.commons.statistics.StatisticsManager}, prefixed with
+   * {@link JAXBPool#STATISTICS_PREFIX}.
+   *
+   * @param bUsePool
+   *        <code>true</code> to enable pooling, <code>false</code> to disable
+   *        it.
+   * @return {@link EChange}
+   * @since 9.0.0
+   */
+  @Nonnull
+  public final EChange setUsePool (final boolean bUsePool)
+  {
+    if (bUsePool == isUsePool ())
+      return EChange.UNCHANGED;
+    if (bUsePool)
+    {
+      m_aMarshallerPool = JAXBPool.createMarshallerPool (m_aType.getName () + "$marshaller");
+      m_aUnmarshallerPool = JAXBPool.createUnmarshallerPool (m_aType.getName () + "$unmarshaller");
+    }
+    else
+    {
+      m_aMarshallerPool = null;
+      m_aUnmarshallerPool = null;
+    }
+    return EChange.CHANGED;
+  }
+
+  /**
+   * @return The marshaller pool or <code>null</code> if pooling is disabled.
+   * @since 9.0.0
+   */
+  @Nullable
+  public final JAXBPool <Marshaller> getMarshallerPool ()
+  {
+    return m_aMarshallerPool;
+  }
+
+  /**
+   * @return The unmarshaller pool or <code>null</code> if pooling is
+   *         disabled.
+   * @since 9.0.0
+   */
+  @Nullable
+  public final JAXBPool <Unmarshaller> getUnmarshallerPool ()
+  {
+    return m_aUnmarshallerPool;
+  }
+
+  /**
+   * Discard all pooled {@link Marshaller} and {@link Unmarshaller} objects.
+   * (Un)marshallers that are currently in use are discarded upon return. This
+   * is done automatically by all setters of this class, but must be called by
+   * subclasses if {@link #customizeMarshaller(Marshaller)} or
+   * {@link #customizeUnmarshaller(Unmarshaller)} stop applying a setting, as
+   * it would otherwise remain on the pooled objects.
+   *
+   * @since 9.0.0
+   */
+  protected final void clearPools ()
+  {
+    if (m_aMarshallerPool != null)
+      m_aMarshallerPool.clear ();
+    if (m_aUnmarshallerPool != null)
+      m_aUnmarshallerPool.clear ();
+  }
+
   /**
    * @return A list of all XSD resources used for validation. Never
    *         <code>null</code>.
@@ -404,13 +510,6 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
 
     // create an Unmarshaller
     final Unmarshaller aUnmarshaller = aJAXBContext.createUnmarshaller ();
-    if (m_aVEHFactory != null)
-    {
-      // Create and set a new event handler
-      final ValidationEventHandler aEvHdl = m_aVEHFactory.apply (aUnmarshaller.getEventHandler ());
-      if (aEvHdl != null)
-        aUnmarshaller.setEventHandler (aEvHdl);
-    }
 
     // Set XSD (if any)
     final Schema aValidationSchema = createValidationSchema ();
@@ -422,6 +521,9 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
 
   /**
    * Customize the passed unmarshaller before unmarshalling (reading) something.
+   * This method is called before each read after the validation event handler
+   * was set, so it may override the event handler. If pooling is enabled, the
+   * passed object may have been customized before.
    *
    * @param aUnmarshaller
    *        The object to customize. Never <code>null</code>.
@@ -458,9 +560,34 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
 
     try
     {
-      final Unmarshaller aUnmarshaller = _createUnmarshaller (m_aClassLoader);
-      customizeUnmarshaller (aUnmarshaller);
-      return aHandler.doUnmarshal (aUnmarshaller, m_aType).getValue ();
+      final JAXBPool <Unmarshaller> aPool = m_aUnmarshallerPool;
+      // Must be read before any other setting
+      final int nGeneration = aPool == null ? 0 : aPool.getGeneration ();
+      final ClassLoader aClassLoader = m_aClassLoader;
+      final JAXBContextCacheKey aKey = aPool == null ? null
+                                                     : new JAXBContextCacheKey (m_aType.getPackage (), aClassLoader);
+      final Unmarshaller aUnmarshaller = aPool == null ? _createUnmarshaller (aClassLoader)
+                                                       : aPool.borrowObject (aKey,
+                                                                             nGeneration,
+                                                                             () -> _createUnmarshaller (aClassLoader));
+      try
+      {
+        if (m_aVEHFactory != null)
+        {
+          // Create and set a new event handler, based on the default one
+          aUnmarshaller.setEventHandler (null);
+          final ValidationEventHandler aEvHdl = m_aVEHFactory.apply (aUnmarshaller.getEventHandler ());
+          if (aEvHdl != null)
+            aUnmarshaller.setEventHandler (aEvHdl);
+        }
+        customizeUnmarshaller (aUnmarshaller);
+        return aHandler.doUnmarshal (aUnmarshaller, m_aType).getValue ();
+      }
+      finally
+      {
+        if (aPool != null)
+          aPool.returnObject (aKey, nGeneration, aUnmarshaller);
+      }
     }
     catch (final JAXBException ex)
     {
@@ -485,13 +612,6 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
 
     // create an Unmarshaller
     final Marshaller aMarshaller = aJAXBContext.createMarshaller ();
-    if (m_aVEHFactory != null)
-    {
-      // Create and set the event handler
-      final ValidationEventHandler aEvHdl = m_aVEHFactory.apply (aMarshaller.getEventHandler ());
-      if (aEvHdl != null)
-        aMarshaller.setEventHandler (aEvHdl);
-    }
 
     if (m_aNSContext != null)
       try
@@ -533,7 +653,10 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
   }
 
   /**
-   * Customize the passed marshaller before marshalling something.
+   * Customize the passed marshaller before marshalling something. This method
+   * is called before each write after the validation event handler was set,
+   * so it may override the event handler. If pooling is enabled, the passed
+   * object may have been customized before.
    *
    * @param aMarshaller
    *        The object to customize. Never <code>null</code>.
@@ -562,12 +685,34 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
 
     try
     {
-      final Marshaller aMarshaller = _createMarshaller ();
-      customizeMarshaller (aMarshaller);
-
-      final JAXBElement <JAXBTYPE> aJAXBElement = m_aJAXBElementWrapper.apply (aObject);
-      aMarshallerFunc.doMarshal (aMarshaller, aJAXBElement);
-      return ESuccess.SUCCESS;
+      final JAXBPool <Marshaller> aPool = m_aMarshallerPool;
+      // Must be read before any other setting
+      final int nGeneration = aPool == null ? 0 : aPool.getGeneration ();
+      final JAXBContextCacheKey aKey = aPool == null ? null
+                                                     : new JAXBContextCacheKey (m_aType.getPackage (), m_aClassLoader);
+      final Marshaller aMarshaller = aPool == null ? _createMarshaller ()
+                                                   : aPool.borrowObject (aKey, nGeneration, this::_createMarshaller);
+      try
+      {
+        if (m_aVEHFactory != null)
+        {
+          // Create and set the event handler, based on the default one
+          aMarshaller.setEventHandler (null);
+          final ValidationEventHandler aEvHdl = m_aVEHFactory.apply (aMarshaller.getEventHandler ());
+          if (aEvHdl != null)
+            aMarshaller.setEventHandler (aEvHdl);
+        }
+        customizeMarshaller (aMarshaller);
+
+        final JAXBElement <JAXBTYPE> aJAXBElement = m_aJAXBElementWrapper.apply (aObject);
+        aMarshallerFunc.doMarshal (aMarshaller, aJAXBElement);
+        return ESuccess.SUCCESS;
+      }
+      finally
+      {
+        if (aPool != null)
+          aPool.returnObject (aKey, nGeneration, aMarshaller);
+      }
     }
     catch (final JAXBException ex)
     {
@@ -594,6 +739,7 @@ public abstract class AbstractJAXBMarshaller <JAXBTYPE> implements
                                        .append ("NoNamespaceSchemaLocation", m_sNoNamespaceSchemaLocation)
                                        .append ("UseContextCache", m_bUseContextCache)
                                        .append ("ClassLoader", m_aClassLoader)
+                                       .append ("UsePool", isUsePool ())
                                        .getToString ();
   }
 }
@@ -35,7 +35,12 @@ import com.helger.commons.state.EChange;
 
 /**
  * Specific cache class for JAXB context elements. This is helpful, as the JAXB
- * context creation is a very time consuming task.
+ * context creation is a very time consuming task. The concurrent cache engine
+ * is used, so that the creation of one context does not block the retrieval of
+ * other contexts. Note: in contrast to the default engine the contexts are kept
+ * as strong references and are not released upon memory shortage. Therefore
+ * up to {@link #MAX_CACHE_SIZE} contexts stay in memory until they are evicted
+ * or removed via {@link #removeFromCache(Object)} or {@link #clearCache()}.
  *
  * @author Philip Helger
  */
@@ -48,6 +53,9 @@ public final class JAXBContextCache extends Cache <JAXBContextCacheKey, JAXBCont
     static final JAXBContextCache s_aInstance = new JAXBContextCache ();
   }
 
+  /** The maximum number of JAXB contexts to keep in the cache */
+  public static final int MAX_CACHE_SIZE = 500;
+
   private static final Logger s_aLogger = LoggerFactory.getLogger (JAXBContextCache.class);
 
   private static boolean s_bDefaultInstantiated = false;
@@ -89,7 +97,7 @@ public final class JAXBContextCache extends Cache <JAXBContextCacheKey, JAXBCont
         s_aLogger.error (sMsg + ": " + ex.getMessage ());
         throw new IllegalArgumentException (sMsg, ex);
       }
-    }, 500, JAXBContextCache.class.getName ());
+    }, MAX_CACHE_SIZE, JAXBContextCache.class.getName (), true);
   }
 
   public static boolean isInstantiated ()
@@ -0,0 +1,300 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.functional.IThrowingConsumer;
+import com.helger.commons.functional.IThrowingSupplier;
+import com.helger.commons.statistics.IMutableStatisticsHandlerCache;
+import com.helger.commons.statistics.IStatisticsHandlerCache;
+import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.system.SystemHelper;
+
+/**
+ * A pool for configured JAXB {@link Marshaller} or {@link Unmarshaller}
+ * objects, separated by {@link JAXBContextCacheKey}. Creating and configuring
+ * a (un)marshaller is often more expensive than the actual (un)marshalling of
+ * small documents, so reusing them is worth it at high throughput.<br>
+ * Borrowing never blocks: if no idle object is present for the key, a new one
+ * is created with the provided factory (a miss). Returned objects are reset
+ * and kept for later reuse (a hit), as long as not more than the maximum
+ * number of idle objects per key is present.<br>
+ * Note: all objects contained in one pool must be configured identically, as
+ * the pool does not know about the settings applied by the factory. Settings
+ * applied after borrowing must be applied upon each borrowing. If the
+ * configuration changes, {@link #clear()} must be called. This starts a new
+ * generation, and objects borrowed in a previous generation are discarded
+ * upon return.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The type of objects to be pooled. Usually {@link Marshaller} or
+ *        {@link Unmarshaller}.
+ * @since 9.0.0
+ */
+@ThreadSafe
+public final class JAXBPool <T>
+{
+  /** The prefix for the statistics handler */
+  public static final String STATISTICS_PREFIX = "jaxbpool:";
+  /** The default maximum number of idle objects per key */
+  public static final int DEFAULT_MAX_IDLE_PER_KEY = Math.max (4, SystemHelper.getNumberOfProcessors ());
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (JAXBPool.class);
+
+  private static final class IdleObjects <T>
+  {
+    private final int m_nGeneration;
+    private final ConcurrentLinkedQueue <T> m_aQueue = new ConcurrentLinkedQueue <> ();
+    private final AtomicInteger m_aCount = new AtomicInteger (0);
+
+    IdleObjects (final int nGeneration)
+    {
+      m_nGeneration = nGeneration;
+    }
+  }
+
+  private final String m_sName;
+  private final int m_nMaxIdlePerKey;
+  private final IThrowingConsumer <? super T, JAXBException> m_aResetter;
+  private final ConcurrentHashMap <JAXBContextCacheKey, IdleObjects <T>> m_aMap = new ConcurrentHashMap <> ();
+  private final AtomicInteger m_aGeneration = new AtomicInteger (0);
+  private final IMutableStatisticsHandlerCache m_aStatsHdl;
+
+  /**
+   * Constructor
+   *
+   * @param sName
+   *        The name of the pool, used for the statistics. May neither be
+   *        <code>null</code> nor empty.
+   * @param nMaxIdlePerKey
+   *        The maximum number of idle objects per key. Must be &gt; 0.
+   * @param aResetter
+   *        The callback to reset an object upon return, so that it can safely
+   *        be reused. May not be <code>null</code>. If it throws an exception,
+   *        the object is discarded.
+   */
+  public JAXBPool (@Nonnull @Nonempty final String sName,
+                   @Nonnegative final int nMaxIdlePerKey,
+                   @Nonnull final IThrowingConsumer <? super T, JAXBException> aResetter)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+    ValueEnforcer.isGT0 (nMaxIdlePerKey, "MaxIdlePerKey");
+    ValueEnforcer.notNull (aResetter, "Resetter");
+    m_sName = sName;
+    m_nMaxIdlePerKey = nMaxIdlePerKey;
+    m_aResetter = aResetter;
+    m_aStatsHdl = StatisticsManager.getCacheHandler (STATISTICS_PREFIX + sName);
+  }
+
+  /**
+   * @return The name of the pool as provided in the constructor. Neither
+   *         <code>null</code> nor empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getName ()
+  {
+    return m_sName;
+  }
+
+  /**
+   * @return The maximum number of idle objects per key. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxIdlePerKey ()
+  {
+    return m_nMaxIdlePerKey;
+  }
+
+  /**
+   * @return The statistics handler with the hits (reused objects) and misses
+   *         (newly created objects) of this pool. Never <code>null</code>.
+   */
+  @Nonnull
+  public IStatisticsHandlerCache getStatisticsHandler ()
+  {
+    return m_aStatsHdl;
+  }
+
+  /**
+   * @return The current generation of this pool. It changes with every call to
+   *         {@link #clear()}. It must be retrieved before an object is
+   *         borrowed, and before the settings used by the factory are read.
+   */
+  public int getGeneration ()
+  {
+    return m_aGeneration.get ();
+  }
+
+  /**
+   * Borrow an object from the pool or create a new one.
+   *
+   * @param aKey
+   *        The key to use. May not be <code>null</code>.
+   * @param nGeneration
+   *        The generation as retrieved by {@link #getGeneration()} before
+   *        borrowing. Only idle objects of this generation are reused.
+   * @param aFactory
+   *        The factory to create a new, fully configured object if no idle
+   *        object is present. May not be <code>null</code>.
+   * @return The borrowed object. Never <code>null</code>. Must be returned via
+   *         {@link #returnObject(JAXBContextCacheKey, int, Object)} with the
+   *         same generation after usage.
+   * @throws JAXBException
+   *         If the factory fails
+   */
+  @Nonnull
+  public T borrowObject (@Nonnull final JAXBContextCacheKey aKey,
+                         final int nGeneration,
+                         @Nonnull final IThrowingSupplier <? extends T, JAXBException> aFactory) throws JAXBException
+  {
+    final IdleObjects <T> aIdle = m_aMap.get (aKey);
+    if (aIdle != null && aIdle.m_nGeneration == nGeneration)
+    {
+      final T ret = aIdle.m_aQueue.poll ();
+      if (ret != null)
+      {
+        aIdle.m_aCount.decrementAndGet ();
+        m_aStatsHdl.cacheHit ();
+        return ret;
+      }
+    }
+
+    m_aStatsHdl.cacheMiss ();
+    final T ret = aFactory.get ();
+    if (ret == null)
+      throw new IllegalStateException ("The factory returned a null object!");
+    return ret;
+  }
+
+  /**
+   * Return a previously borrowed object to the pool. The object is reset and
+   * kept for reuse if it was borrowed in the current generation and if the
+   * maximum number of idle objects is not yet reached. Otherwise it is
+   * discarded.
+   *
+   * @param aKey
+   *        The key used for borrowing. May not be <code>null</code>.
+   * @param nGeneration
+   *        The generation used for borrowing.
+   * @param aObject
+   *        The borrowed object. May not be <code>null</code>.
+   */
+  public void returnObject (@Nonnull final JAXBContextCacheKey aKey, final int nGeneration, @Nonnull final T aObject)
+  {
+    if (nGeneration != m_aGeneration.get ())
+    {
+      // The configuration changed since the object was borrowed
+      return;
+    }
+
+    try
+    {
+      m_aResetter.accept (aObject);
+    }
+    catch (final JAXBException ex)
+    {
+      s_aLogger.warn ("Failed to reset pooled object " + aObject + " - discarding it", ex);
+      return;
+    }
+
+    final IdleObjects <T> aIdle = m_aMap.compute (aKey, (k, v) -> {
+      // Replace the idle objects of a previous generation
+      if (v != null && v.m_nGeneration == nGeneration)
+        return v;
+      return new IdleObjects <> (nGeneration);
+    });
+    if (aIdle.m_aCount.incrementAndGet () <= m_nMaxIdlePerKey)
+      aIdle.m_aQueue.offer (aObject);
+    else
+      aIdle.m_aCount.decrementAndGet ();
+  }
+
+  /**
+   * Discard all idle objects and start a new generation, so that all objects
+   * currently borrowed are discarded upon return. This must be called after
+   * the configuration of the objects changed.
+   */
+  public void clear ()
+  {
+    m_aGeneration.incrementAndGet ();
+    m_aMap.clear ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Name", m_sName)
+                                       .append ("MaxIdlePerKey", m_nMaxIdlePerKey)
+                                       .append ("Generation", m_aGeneration.get ())
+                                       .append ("Keys", m_aMap.size ())
+                                       .getToString ();
+  }
+
+  /**
+   * Create a new pool for {@link Marshaller} objects. Upon return the listener
+   * and the attachment marshaller are reset.
+   *
+   * @param sName
+   *        The name of the pool, used for the statistics. May neither be
+   *        <code>null</code> nor empty.
+   * @return The new pool. Never <code>null</code>.
+   */
+  @Nonnull
+  public static JAXBPool <Marshaller> createMarshallerPool (@Nonnull @Nonempty final String sName)
+  {
+    return new JAXBPool <> (sName, DEFAULT_MAX_IDLE_PER_KEY, aMarshaller -> {
+      aMarshaller.setListener (null);
+      aMarshaller.setAttachmentMarshaller (null);
+    });
+  }
+
+  /**
+   * Create a new pool for {@link Unmarshaller} objects. Upon return the
+   * listener and the attachment unmarshaller are reset.
+   *
+   * @param sName
+   *        The name of the pool, used for the statistics. May neither be
+   *        <code>null</code> nor empty.
+   * @return The new pool. Never <code>null</code>.
+   */
+  @Nonnull
+  public static JAXBPool <Unmarshaller> createUnmarshallerPool (@Nonnull @Nonempty final String sName)
+  {
+    return new JAXBPool <> (sName, DEFAULT_MAX_IDLE_PER_KEY, aUnmarshaller -> {
+      aUnmarshaller.setListener (null);
+      aUnmarshaller.setAttachmentUnmarshaller (null);
+    });
+  }
+}
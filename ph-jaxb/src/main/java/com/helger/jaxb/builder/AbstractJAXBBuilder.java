@@ -29,6 +29,7 @@ import com.helger.commons.lang.IHasClassLoader;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.commons.traits.IGenericImplTrait;
 import com.helger.jaxb.JAXBContextCache;
+import com.helger.jaxb.JAXBContextCacheKey;
 
 /**
  * Abstract builder class for reading, writing and validating JAXB documents.
@@ -118,6 +119,17 @@ public abstract class AbstractJAXBBuilder <IMPLTYPE extends AbstractJAXBBuilder
     return m_aDocType.getSchema (m_aClassLoader);
   }
 
+  /**
+   * @return The key for the {@link JAXBContextCache} of this builder. Never
+   *         <code>null</code>.
+   * @since 9.0.0
+   */
+  @Nonnull
+  protected final JAXBContextCacheKey getJAXBContextCacheKey ()
+  {
+    return new JAXBContextCacheKey (m_aDocType.getImplementationClass ().getPackage (), m_aClassLoader);
+  }
+
   @Nonnull
   @OverrideOnDemand
   protected JAXBContext getJAXBContext () throws JAXBException
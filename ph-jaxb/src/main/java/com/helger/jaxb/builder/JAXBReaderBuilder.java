@@ -40,6 +40,8 @@ import com.helger.commons.callback.exception.IExceptionCallback;
 import com.helger.commons.lang.GenericReflection;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.jaxb.IJAXBReader;
+import com.helger.jaxb.JAXBContextCacheKey;
+import com.helger.jaxb.JAXBPool;
 import com.helger.jaxb.validation.LoggingValidationEventHandler;
 
 /**
@@ -86,6 +88,7 @@ public class JAXBReaderBuilder <JAXBTYPE, IMPLTYPE extends JAXBReaderBuilder <JA
   private final CallbackList <IExceptionCallback <JAXBException>> m_aExceptionCallbacks = new CallbackList <> ();
   private Consumer <? super Unmarshaller> m_aUnmarshallerCustomizer;
   private boolean m_bReadSecure = true;
+  private JAXBPool <Unmarshaller> m_aUnmarshallerPool;
 
   public JAXBReaderBuilder (@Nonnull final IJAXBDocumentType aDocType)
   {
@@ -162,6 +165,38 @@ public class JAXBReaderBuilder <JAXBTYPE, IMPLTYPE extends JAXBReaderBuilder <JA
     return thisAsT ();
   }
 
+  /**
+   * @return The unmarshaller pool to be used. <code>null</code> by default.
+   * @since 9.0.0
+   */
+  @Nullable
+  public JAXBPool <Unmarshaller> getUnmarshallerPool ()
+  {
+    return m_aUnmarshallerPool;
+  }
+
+  /**
+   * Set the pool to be used for unmarshallers. If a pool is set, the
+   * unmarshallers created by {@link #createUnmarshaller()} are reused. As the
+   * pool does not know about the settings of this builder, the same pool may
+   * only be shared between builders with identical settings, including the
+   * unmarshaller customizer. The customizer is only applied once when a new
+   * unmarshaller is created. If any setting changes, the pool must be
+   * cleared.
+   *
+   * @param aUnmarshallerPool
+   *        The pool to be used. May be <code>null</code> to create a new
+   *        unmarshaller for each operation.
+   * @return this for chaining
+   * @since 9.0.0
+   */
+  @Nonnull
+  public IMPLTYPE setUnmarshallerPool (@Nullable final JAXBPool <Unmarshaller> aUnmarshallerPool)
+  {
+    m_aUnmarshallerPool = aUnmarshallerPool;
+    return thisAsT ();
+  }
+
   @Nonnull
   protected Unmarshaller createUnmarshaller () throws JAXBException
   {
@@ -182,6 +217,17 @@ public class JAXBReaderBuilder <JAXBTYPE, IMPLTYPE extends JAXBReaderBuilder <JA
     return aUnmarshaller;
   }
 
+  @Nonnull
+  private Unmarshaller _createCustomizedUnmarshaller () throws JAXBException
+  {
+    final Unmarshaller aUnmarshaller = createUnmarshaller ();
+
+    // Customize on demand
+    if (m_aUnmarshallerCustomizer != null)
+      m_aUnmarshallerCustomizer.accept (aUnmarshaller);
+    return aUnmarshaller;
+  }
+
   @Nullable
   public JAXBTYPE read (@Nonnull final IJAXBUnmarshaller <JAXBTYPE> aHandler)
   {
@@ -195,20 +241,30 @@ public class JAXBReaderBuilder <JAXBTYPE, IMPLTYPE extends JAXBReaderBuilder <JA
     JAXBTYPE ret = null;
     try
     {
-      // Create unmarshaller
-      final Unmarshaller aUnmarshaller = createUnmarshaller ();
-
-      // Customize on demand
-      if (m_aUnmarshallerCustomizer != null)
-        m_aUnmarshallerCustomizer.accept (aUnmarshaller);
-
-      // main unmarshalling
-      final JAXBElement <JAXBTYPE> aElement = aHandler.doUnmarshal (aUnmarshaller, m_aImplClass);
-      ret = aElement.getValue ();
-      if (ret == null)
-        throw new IllegalStateException ("Failed to read JAXB document of class " +
-                                         m_aImplClass.getName () +
-                                         " - without exception!");
+      // Create or borrow unmarshaller
+      final JAXBPool <Unmarshaller> aPool = m_aUnmarshallerPool;
+      final int nGeneration = aPool == null ? 0 : aPool.getGeneration ();
+      final JAXBContextCacheKey aKey = aPool == null ? null : getJAXBContextCacheKey ();
+      final Unmarshaller aUnmarshaller = aPool == null ? _createCustomizedUnmarshaller ()
+                                                       : aPool.borrowObject (aKey,
+                                                                             nGeneration,
+                                                                             this::_createCustomizedUnmarshaller);
+      try
+      {
+
+        // main unmarshalling
+        final JAXBElement <JAXBTYPE> aElement = aHandler.doUnmarshal (aUnmarshaller, m_aImplClass);
+        ret = aElement.getValue ();
+        if (ret == null)
+          throw new IllegalStateException ("Failed to read JAXB document of class " +
+                                           m_aImplClass.getName () +
+                                           " - without exception!");
+      }
+      finally
+      {
+        if (aPool != null)
+          aPool.returnObject (aKey, nGeneration, aUnmarshaller);
+      }
     }
     catch (final JAXBException ex)
     {
@@ -227,6 +283,7 @@ public class JAXBReaderBuilder <JAXBTYPE, IMPLTYPE extends JAXBReaderBuilder <JA
                             .append ("ExceptionHandler", m_aExceptionCallbacks)
                             .append ("UnmarshallerCustomizer", m_aUnmarshallerCustomizer)
                             .append ("ReadSecure", m_bReadSecure)
+                            .appendIfNotNull ("UnmarshallerPool", m_aUnmarshallerPool)
                             .getToString ();
   }
 }
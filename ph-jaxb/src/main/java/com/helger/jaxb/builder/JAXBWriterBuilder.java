@@ -38,7 +38,9 @@ import com.helger.commons.state.ESuccess;
 import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 import com.helger.jaxb.IJAXBWriter;
+import com.helger.jaxb.JAXBContextCacheKey;
 import com.helger.jaxb.JAXBMarshallerHelper;
+import com.helger.jaxb.JAXBPool;
 import com.helger.jaxb.validation.LoggingValidationEventHandler;
 
 /**
@@ -64,6 +66,7 @@ public class JAXBWriterBuilder <JAXBTYPE, IMPLTYPE extends JAXBWriterBuilder <JA
   private String m_sIndentString = JAXBBuilderDefaultSettings.getDefaultIndentString ();
   private String m_sSchemaLocation = JAXBBuilderDefaultSettings.getDefaultSchemaLocation ();
   private String m_sNoNamespaceSchemaLocation = JAXBBuilderDefaultSettings.getDefaultNoNamespaceSchemaLocation ();
+  private JAXBPool <Marshaller> m_aMarshallerPool;
 
   public JAXBWriterBuilder (@Nonnull final IJAXBDocumentType aDocType)
   {
@@ -226,6 +229,37 @@ public class JAXBWriterBuilder <JAXBTYPE, IMPLTYPE extends JAXBWriterBuilder <JA
     return thisAsT ();
   }
 
+  /**
+   * @return The marshaller pool to be used. <code>null</code> by default.
+   * @since 9.0.0
+   */
+  @Nullable
+  public JAXBPool <Marshaller> getMarshallerPool ()
+  {
+    return m_aMarshallerPool;
+  }
+
+  /**
+   * Set the pool to be used for marshallers. If a pool is set, the
+   * marshallers created by {@link #createMarshaller()} are reused. As the
+   * pool does not know about the settings of this builder, the same pool may
+   * only be shared between builders with identical settings, including the
+   * marshaller customizer. The customizer is only applied once when a new
+   * marshaller is created. If any setting changes, the pool must be cleared.
+   *
+   * @param aMarshallerPool
+   *        The pool to be used. May be <code>null</code> to create a new
+   *        marshaller for each operation.
+   * @return this for chaining
+   * @since 9.0.0
+   */
+  @Nonnull
+  public IMPLTYPE setMarshallerPool (@Nullable final JAXBPool <Marshaller> aMarshallerPool)
+  {
+    m_aMarshallerPool = aMarshallerPool;
+    return thisAsT ();
+  }
+
   @Override
   @Nonnull
   protected Marshaller createMarshaller () throws JAXBException
@@ -271,6 +305,18 @@ public class JAXBWriterBuilder <JAXBTYPE, IMPLTYPE extends JAXBWriterBuilder <JA
     return aMarshaller;
   }
 
+  @Nonnull
+  private Marshaller _createCustomizedMarshaller () throws JAXBException
+  {
+    final Marshaller aMarshaller = createMarshaller ();
+
+    // Customize on demand
+    final Consumer <? super Marshaller> aCustomizer = getMarshallerCustomizer ();
+    if (aCustomizer != null)
+      aCustomizer.accept (aMarshaller);
+    return aMarshaller;
+  }
+
   @Nonnull
   public ESuccess write (@Nonnull final JAXBTYPE aJAXBDocument,
                          @Nonnull final IJAXBMarshaller <JAXBTYPE> aMarshallerFunc)
@@ -290,17 +336,26 @@ public class JAXBWriterBuilder <JAXBTYPE, IMPLTYPE extends JAXBWriterBuilder <JA
 
     try
     {
-      final Marshaller aMarshaller = createMarshaller ();
-
-      // Customize on demand
-      final Consumer <? super Marshaller> aCustomizer = getMarshallerCustomizer ();
-      if (aCustomizer != null)
-        aCustomizer.accept (aMarshaller);
-
-      // start marshalling
-      final JAXBElement <JAXBTYPE> aJAXBElement = createJAXBElement (aJAXBDocument);
-      aMarshallerFunc.doMarshal (aMarshaller, aJAXBElement);
-      return ESuccess.SUCCESS;
+      // Create or borrow marshaller
+      final JAXBPool <Marshaller> aPool = m_aMarshallerPool;
+      final int nGeneration = aPool == null ? 0 : aPool.getGeneration ();
+      final JAXBContextCacheKey aKey = aPool == null ? null : getJAXBContextCacheKey ();
+      final Marshaller aMarshaller = aPool == null ? _createCustomizedMarshaller ()
+                                                   : aPool.borrowObject (aKey,
+                                                                         nGeneration,
+                                                                         this::_createCustomizedMarshaller);
+      try
+      {
+        // start marshalling
+        final JAXBElement <JAXBTYPE> aJAXBElement = createJAXBElement (aJAXBDocument);
+        aMarshallerFunc.doMarshal (aMarshaller, aJAXBElement);
+        return ESuccess.SUCCESS;
+      }
+      finally
+      {
+        if (aPool != null)
+          aPool.returnObject (aKey, nGeneration, aMarshaller);
+      }
     }
     catch (final JAXBException ex)
     {
@@ -321,6 +376,7 @@ public class JAXBWriterBuilder <JAXBTYPE, IMPLTYPE extends JAXBWriterBuilder <JA
                                      StringHelper.getHexEncoded (m_sIndentString, StandardCharsets.ISO_8859_1))
                             .append ("SchemaLocation", m_sSchemaLocation)
                             .append ("NoNamespaceSchemaLocation", m_sNoNamespaceSchemaLocation)
+                            .appendIfNotNull ("MarshallerPool", m_aMarshallerPool)
                             .getToString ();
   }
 }
@@ -0,0 +1,246 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.jaxb;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nonnull;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+import com.helger.commons.state.EChange;
+import com.helger.jaxb.mock.MockMarshallerInternal;
+import com.helger.jaxb.mock.internal.MockJAXBArchive;
+import com.helger.jaxb.mock.internal.MockJAXBCollection;
+
+/**
+ * Test class for class {@link JAXBPool}.
+ *
+ * @author Philip Helger
+ */
+public final class JAXBPoolTest
+{
+  private static final JAXBContextCacheKey KEY = new JAXBContextCacheKey (com.helger.jaxb.mock.internal.MockJAXBArchive.class.getPackage (),
+                                                                          null);
+
+  @Test
+  public void testBasic () throws JAXBException
+  {
+    final JAXBPool <Object> aPool = new JAXBPool <> ("testBasic", 2, x -> {});
+    assertEquals ("testBasic", aPool.getName ());
+    assertEquals (2, aPool.getMaxIdlePerKey ());
+
+    final Object o1 = aPool.borrowObject (KEY, 0, Object::new);
+    final Object o2 = aPool.borrowObject (KEY, 0, Object::new);
+    final Object o3 = aPool.borrowObject (KEY, 0, Object::new);
+    assertNotSame (o1, o2);
+    assertEquals (0, aPool.getStatisticsHandler ().getHits ());
+    assertEquals (3, aPool.getStatisticsHandler ().getMisses ());
+
+    // Only 2 are kept
+    aPool.returnObject (KEY, 0, o1);
+    aPool.returnObject (KEY, 0, o2);
+    aPool.returnObject (KEY, 0, o3);
+
+    final Object o4 = aPool.borrowObject (KEY, 0, Object::new);
+    final Object o5 = aPool.borrowObject (KEY, 0, Object::new);
+    assertTrue (o4 == o1 || o4 == o2);
+    assertTrue (o5 == o1 || o5 == o2);
+    assertEquals (2, aPool.getStatisticsHandler ().getHits ());
+
+    // Pool is empty again
+    final Object o6 = aPool.borrowObject (KEY, 0, Object::new);
+    assertNotSame (o3, o6);
+    assertEquals (4, aPool.getStatisticsHandler ().getMisses ());
+
+    aPool.returnObject (KEY, 0, o6);
+    aPool.clear ();
+    assertEquals (1, aPool.getGeneration ());
+    assertNotSame (o6, aPool.borrowObject (KEY, 1, Object::new));
+  }
+
+  @Test
+  public void testGeneration () throws JAXBException
+  {
+    final JAXBPool <Object> aPool = new JAXBPool <> ("testGeneration", 2, x -> {});
+    assertEquals (0, aPool.getGeneration ());
+
+    // Borrowed before the configuration changed
+    final Object o1 = aPool.borrowObject (KEY, 0, Object::new);
+    aPool.clear ();
+    assertEquals (1, aPool.getGeneration ());
+
+    // Returned afterwards - discarded
+    aPool.returnObject (KEY, 0, o1);
+    assertNotSame (o1, aPool.borrowObject (KEY, 1, Object::new));
+
+    // Objects of the current generation are reused
+    final Object o2 = aPool.borrowObject (KEY, 1, Object::new);
+    aPool.returnObject (KEY, 1, o2);
+    assertSame (o2, aPool.borrowObject (KEY, 1, Object::new));
+    aPool.returnObject (KEY, 1, o2);
+
+    // Idle objects of another generation are never borrowed
+    assertNotSame (o2, aPool.borrowObject (KEY, 0, Object::new));
+    assertEquals (1, aPool.getStatisticsHandler ().getHits ());
+  }
+
+  @Test
+  public void testResetFailure () throws JAXBException
+  {
+    final JAXBPool <Object> aPool = new JAXBPool <> ("testResetFailure", 2, x -> {
+      throw new JAXBException ("Cannot reset");
+    });
+    final Object o1 = aPool.borrowObject (KEY, 0, Object::new);
+    // Discarded
+    aPool.returnObject (KEY, 0, o1);
+    assertNotSame (o1, aPool.borrowObject (KEY, 0, Object::new));
+    assertEquals (0, aPool.getStatisticsHandler ().getHits ());
+  }
+
+  @Test
+  public void testMarshallerPoolReset () throws JAXBException
+  {
+    final JAXBPool <Marshaller> aPool = JAXBPool.createMarshallerPool ("testMarshallerPoolReset");
+    final Marshaller aMarshaller = aPool.borrowObject (KEY,
+                                                      0,
+                                                      () -> JAXBContextCache.getInstance ()
+                                                                            .getFromCache (KEY)
+                                                                            .createMarshaller ());
+    aMarshaller.setListener (new Marshaller.Listener ()
+    {});
+    aPool.returnObject (KEY, 0, aMarshaller);
+
+    final Marshaller aMarshaller2 = aPool.borrowObject (KEY, 0, () -> {
+      throw new IllegalStateException ("Should be reused");
+    });
+    assertSame (aMarshaller, aMarshaller2);
+    assertNull (aMarshaller2.getListener ());
+  }
+
+  @Test
+  public void testPooledMarshaller ()
+  {
+    final MockMarshallerInternal m = new MockMarshallerInternal ();
+    assertFalse (m.isUsePool ());
+    assertNull (m.getMarshallerPool ());
+    assertNull (m.getUnmarshallerPool ());
+
+    final com.helger.jaxb.mock.internal.MockJAXBArchive aArc = new com.helger.jaxb.mock.internal.MockJAXBArchive ();
+    aArc.setVersion ("1.24");
+    for (int i = 0; i < 10; ++i)
+    {
+      final MockJAXBCollection aCollection = new MockJAXBCollection ();
+      aCollection.setDescription ("Internal bla foo");
+      aCollection.setID (i);
+      aArc.getCollection ().add (aCollection);
+    }
+    final byte [] aUnpooledBytes = m.getAsBytes (aArc);
+    assertNotNull (aUnpooledBytes);
+
+    assertTrue (m.setUsePool (true).isChanged ());
+    assertEquals (EChange.UNCHANGED, m.setUsePool (true));
+    final JAXBPool <Marshaller> aMarshallerPool = m.getMarshallerPool ();
+    assertNotNull (aMarshallerPool);
+    assertNotNull (m.getUnmarshallerPool ());
+
+    for (int i = 0; i < 5; ++i)
+    {
+      final byte [] aBytes = m.getAsBytes (aArc);
+      assertArrayEquals (aUnpooledBytes, aBytes);
+
+      final com.helger.jaxb.mock.internal.MockJAXBArchive aArc2 = m.read (aBytes);
+      assertNotNull (aArc2);
+      assertEquals (10, aArc2.getCollection ().size ());
+    }
+    // Only the first usage creates a new object
+    assertTrue (aMarshallerPool.getStatisticsHandler ().getHits () >= 4);
+    assertTrue (m.getUnmarshallerPool ().getStatisticsHandler ().getHits () >= 4);
+
+    // Changing settings invalidates the pooled objects
+    m.setFormattedOutput (false);
+    assertEquals (1, aMarshallerPool.getGeneration ());
+    assertFalse (m.getAsString (aArc).contains ("\n  "));
+
+    assertTrue (m.setUsePool (false).isChanged ());
+    assertNull (m.getMarshallerPool ());
+  }
+
+  private static final class MockCustomizingMarshaller extends AbstractJAXBMarshaller <MockJAXBArchive>
+  {
+    private final ValidationEventHandler m_aVEH = x -> true;
+    private final ValidationEventHandler m_aCustomVEH = x -> true;
+    private final AtomicInteger m_aCustomizeCount = new AtomicInteger (0);
+
+    MockCustomizingMarshaller ()
+    {
+      super (MockJAXBArchive.class,
+             null,
+             o -> new JAXBElement <> (new QName ("urn:test:internal", "any"), MockJAXBArchive.class, o));
+      setValidationEventHandlerFactory (x -> m_aVEH);
+    }
+
+    @Override
+    protected void customizeMarshaller (@Nonnull final Marshaller aMarshaller)
+    {
+      try
+      {
+        // The event handler from the factory must already be set
+        assertSame (m_aVEH, aMarshaller.getEventHandler ());
+        aMarshaller.setEventHandler (m_aCustomVEH);
+        m_aCustomizeCount.incrementAndGet ();
+      }
+      catch (final JAXBException ex)
+      {
+        throw new IllegalStateException (ex);
+      }
+    }
+  }
+
+  @Test
+  public void testPooledCustomizeOrder ()
+  {
+    final MockJAXBArchive aArc = new MockJAXBArchive ();
+    aArc.setVersion ("1.24");
+
+    final MockCustomizingMarshaller m = new MockCustomizingMarshaller ();
+    assertNotNull (m.getAsBytes (aArc));
+    assertEquals (1, m.m_aCustomizeCount.get ());
+
+    // Same order for pooled objects: event handler first, then customize -
+    // for each usage
+    m.setUsePool (true);
+    for (int i = 0; i < 5; ++i)
+      assertNotNull (m.getAsBytes (aArc));
+    assertEquals (6, m.m_aCustomizeCount.get ());
+    assertTrue (m.getMarshallerPool ().getStatisticsHandler ().getHits () >= 4);
+  }
+}
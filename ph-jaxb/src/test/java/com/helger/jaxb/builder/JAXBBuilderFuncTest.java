@@ -25,6 +25,8 @@ import java.io.File;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
@@ -35,6 +37,7 @@ import org.w3c.dom.Document;
 import com.helger.commons.io.file.FileHelper;
 import com.helger.commons.io.stream.NonBlockingStringWriter;
 import com.helger.commons.system.ENewLineMode;
+import com.helger.jaxb.JAXBPool;
 import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.namespace.MapBasedNamespaceContext;
 import com.helger.xml.serialize.write.EXMLSerializeIndent;
@@ -125,6 +128,34 @@ public final class JAXBBuilderFuncTest
     assertEquals (aWriter.getAsString (aArc), aWriter.getAsString (aArc2));
   }
 
+  @Test
+  public void testInternalPooled ()
+  {
+    final JAXBPool <Marshaller> aMarshallerPool = JAXBPool.createMarshallerPool ("testInternalPooled-m");
+    final JAXBPool <Unmarshaller> aUnmarshallerPool = JAXBPool.createUnmarshallerPool ("testInternalPooled-u");
+
+    final com.helger.jaxb.mock.internal.MockJAXBArchive aArc = new com.helger.jaxb.mock.internal.MockJAXBArchive ();
+    aArc.setVersion ("1.23");
+    final String sExpected = new MockInternalArchiveWriterBuilder ().getAsString (aArc);
+
+    for (int i = 0; i < 3; ++i)
+    {
+      // Builders are short-lived - the pools are shared
+      final MockInternalArchiveWriterBuilder aWriter = new MockInternalArchiveWriterBuilder ().setMarshallerPool (aMarshallerPool);
+      final String sText = aWriter.getAsString (aArc);
+      assertEquals (sExpected, sText);
+
+      final com.helger.jaxb.mock.internal.MockJAXBArchive aArc2 = new MockInternalArchiveReaderBuilder ().setUnmarshallerPool (aUnmarshallerPool)
+                                                                                                          .read (sText);
+      assertNotNull (aArc2);
+      assertEquals ("1.23", aArc2.getVersion ());
+    }
+    assertEquals (1, aMarshallerPool.getStatisticsHandler ().getMisses ());
+    assertEquals (2, aMarshallerPool.getStatisticsHandler ().getHits ());
+    assertEquals (1, aUnmarshallerPool.getStatisticsHandler ().getMisses ());
+    assertEquals (2, aUnmarshallerPool.getStatisticsHandler ().getHits ());
+  }
+
   @Test
   public void testStreamWriter () throws XMLStreamException
   {
@@ -0,0 +1,472 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ObjIntConsumer;
+
+import javax.annotation.CheckForSigned;
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * A memory efficient implementation of {@link IJsonArray}. Values of type
+ * {@link Integer}, {@link Long}, {@link Double} and {@link Boolean} are stored
+ * unboxed in a primitive array, all other values are stored as {@link IJson}
+ * objects. The arrays for the primitive values and for the other values are
+ * only created when needed, so a pure number array needs roughly 9 bytes per
+ * element instead of a reference plus a {@link JsonValue} plus a boxed
+ * number.<br>
+ * The {@link IJsonValue} objects for primitive values are created on the fly
+ * upon access, so this implementation is best suited for large amounts of
+ * numeric data that are mainly stored and iterated.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public class CompactJsonArray implements IJsonArray
+{
+  private static final byte TYPE_JSON = 0;
+  private static final byte TYPE_INT = 1;
+  private static final byte TYPE_LONG = 2;
+  private static final byte TYPE_DOUBLE = 3;
+  private static final byte TYPE_BOOLEAN = 4;
+
+  private static final byte [] EMPTY_TYPES = new byte [0];
+
+  private byte [] m_aTypes;
+  // Only present if at least one primitive value is contained
+  private long [] m_aPrimitives;
+  // Only present if at least one non-primitive value is contained
+  private IJson [] m_aJsons;
+  private int m_nSize;
+
+  public CompactJsonArray ()
+  {
+    m_aTypes = EMPTY_TYPES;
+  }
+
+  public CompactJsonArray (@Nonnegative final int nInitialCapacity)
+  {
+    ValueEnforcer.isGE0 (nInitialCapacity, "InitialCapacity");
+    m_aTypes = nInitialCapacity == 0 ? EMPTY_TYPES : new byte [nInitialCapacity];
+  }
+
+  public CompactJsonArray (@Nonnull final Iterable <? extends IJson> aJsons)
+  {
+    this ();
+    ValueEnforcer.notNull (aJsons, "Jsons");
+    for (final IJson aJson : aJsons)
+      add (aJson);
+  }
+
+  public CompactJsonArray (@Nonnull final IJson... aJsons)
+  {
+    this (aJsons.length);
+    for (final IJson aJson : aJsons)
+      add (aJson);
+  }
+
+  private void writeObject (@Nonnull final ObjectOutputStream aOOS) throws IOException
+  {
+    aOOS.writeInt (m_nSize);
+    final String sJson = getAsJsonString ();
+    StreamHelper.writeSafeUTF (aOOS, sJson);
+  }
+
+  private void readObject (@Nonnull final ObjectInputStream aOIS) throws IOException
+  {
+    final int nInitialSize = aOIS.readInt ();
+    m_aTypes = new byte [nInitialSize];
+    m_aPrimitives = null;
+    m_aJsons = null;
+    m_nSize = 0;
+    final String sJson = StreamHelper.readSafeUTF (aOIS);
+    final IJsonArray aJson = (IJsonArray) JsonReader.readFromString (sJson);
+    for (final IJson aElement : aJson)
+      add (aElement);
+  }
+
+  public final boolean isArray ()
+  {
+    return true;
+  }
+
+  public final boolean isObject ()
+  {
+    return false;
+  }
+
+  public final boolean isValue ()
+  {
+    return false;
+  }
+
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_nSize;
+  }
+
+  public boolean isEmpty ()
+  {
+    return m_nSize == 0;
+  }
+
+  private void _ensureCapacity (@Nonnegative final int nMinCapacity)
+  {
+    final int nOldCapacity = m_aTypes.length;
+    if (nMinCapacity > nOldCapacity)
+    {
+      final int nNewCapacity = Math.max (nMinCapacity, nOldCapacity == 0 ? 8 : nOldCapacity + (nOldCapacity >> 1));
+      m_aTypes = Arrays.copyOf (m_aTypes, nNewCapacity);
+      if (m_aPrimitives != null)
+        m_aPrimitives = Arrays.copyOf (m_aPrimitives, nNewCapacity);
+      if (m_aJsons != null)
+        m_aJsons = Arrays.copyOf (m_aJsons, nNewCapacity);
+    }
+  }
+
+  private void _setPrimitive (@Nonnegative final int nIndex, final byte nType, final long nBits)
+  {
+    if (m_aPrimitives == null)
+      m_aPrimitives = new long [m_aTypes.length];
+    m_aTypes[nIndex] = nType;
+    m_aPrimitives[nIndex] = nBits;
+    if (m_aJsons != null)
+      m_aJsons[nIndex] = null;
+  }
+
+  private void _set (@Nonnegative final int nIndex, @Nonnull final IJson aValue)
+  {
+    if (aValue.isValue ())
+    {
+      final Object aObj = ((IJsonValue) aValue).getValue ();
+      // Exact classes only, so that no information gets lost
+      if (aObj instanceof Integer)
+      {
+        _setPrimitive (nIndex, TYPE_INT, ((Integer) aObj).intValue ());
+        return;
+      }
+      if (aObj instanceof Long)
+      {
+        _setPrimitive (nIndex, TYPE_LONG, ((Long) aObj).longValue ());
+        return;
+      }
+      if (aObj instanceof Double)
+      {
+        _setPrimitive (nIndex, TYPE_DOUBLE, Double.doubleToRawLongBits (((Double) aObj).doubleValue ()));
+        return;
+      }
+      if (aObj instanceof Boolean)
+      {
+        _setPrimitive (nIndex, TYPE_BOOLEAN, ((Boolean) aObj).booleanValue () ? 1 : 0);
+        return;
+      }
+    }
+
+    if (m_aJsons == null)
+      m_aJsons = new IJson [m_aTypes.length];
+    m_aTypes[nIndex] = TYPE_JSON;
+    m_aJsons[nIndex] = aValue;
+  }
+
+  @Nonnull
+  private IJson _get (@Nonnegative final int nIndex)
+  {
+    switch (m_aTypes[nIndex])
+    {
+      case TYPE_INT:
+        return JsonValue.create ((int) m_aPrimitives[nIndex]);
+      case TYPE_LONG:
+        return JsonValue.create (Long.valueOf (m_aPrimitives[nIndex]));
+      case TYPE_DOUBLE:
+        return JsonValue.create (Double.longBitsToDouble (m_aPrimitives[nIndex]));
+      case TYPE_BOOLEAN:
+        return JsonValue.create (m_aPrimitives[nIndex] != 0);
+      default:
+        return m_aJsons[nIndex];
+    }
+  }
+
+  /**
+   * Make room for one element at the specified index.
+   *
+   * @param nIndex
+   *        The index to insert at. Must be &ge; 0 and &le; size.
+   */
+  private void _openGap (@Nonnegative final int nIndex)
+  {
+    _ensureCapacity (m_nSize + 1);
+    final int nMoved = m_nSize - nIndex;
+    if (nMoved > 0)
+    {
+      System.arraycopy (m_aTypes, nIndex, m_aTypes, nIndex + 1, nMoved);
+      if (m_aPrimitives != null)
+        System.arraycopy (m_aPrimitives, nIndex, m_aPrimitives, nIndex + 1, nMoved);
+      if (m_aJsons != null)
+        System.arraycopy (m_aJsons, nIndex, m_aJsons, nIndex + 1, nMoved);
+    }
+    m_nSize++;
+  }
+
+  @Nonnull
+  public Iterator <IJson> iterator ()
+  {
+    return new Iterator <IJson> ()
+    {
+      private int m_nIndex = 0;
+
+      public boolean hasNext ()
+      {
+        return m_nIndex < m_nSize;
+      }
+
+      public IJson next ()
+      {
+        if (m_nIndex >= m_nSize)
+          throw new NoSuchElementException ();
+        return _get (m_nIndex++);
+      }
+    };
+  }
+
+  @Nonnull
+  public CompactJsonArray add (@Nonnull final IJson aValue)
+  {
+    ValueEnforcer.notNull (aValue, "Value");
+
+    _ensureCapacity (m_nSize + 1);
+    _set (m_nSize++, aValue);
+    return this;
+  }
+
+  @Nonnull
+  public CompactJsonArray add (final boolean bValue)
+  {
+    _ensureCapacity (m_nSize + 1);
+    _setPrimitive (m_nSize++, TYPE_BOOLEAN, bValue ? 1 : 0);
+    return this;
+  }
+
+  @Nonnull
+  public CompactJsonArray add (final double dValue)
+  {
+    _ensureCapacity (m_nSize + 1);
+    _setPrimitive (m_nSize++, TYPE_DOUBLE, Double.doubleToRawLongBits (dValue));
+    return this;
+  }
+
+  @Nonnull
+  public CompactJsonArray add (final int nValue)
+  {
+    _ensureCapacity (m_nSize + 1);
+    _setPrimitive (m_nSize++, TYPE_INT, nValue);
+    return this;
+  }
+
+  @Nonnull
+  public CompactJsonArray add (final long nValue)
+  {
+    _ensureCapacity (m_nSize + 1);
+    // Same as JsonValue.create (long): small values are handled as ints
+    final boolean bSmall = nValue >= Byte.MIN_VALUE && nValue <= Byte.MAX_VALUE;
+    _setPrimitive (m_nSize++, bSmall ? TYPE_INT : TYPE_LONG, nValue);
+    return this;
+  }
+
+  @Nonnull
+  public CompactJsonArray addAt (@CheckForSigned final int nIndex, @Nonnull final IJson aValue)
+  {
+    ValueEnforcer.notNull (aValue, "Value");
+    if (nIndex < 0 || nIndex > m_nSize)
+      throw new IndexOutOfBoundsException ("Index: " + nIndex + ", Size: " + m_nSize);
+
+    _openGap (nIndex);
+    _set (nIndex, aValue);
+    return this;
+  }
+
+  @Nullable
+  public IJson removeAndReturnAtIndex (@Nonnegative final int nIndex)
+  {
+    if (nIndex < 0 || nIndex >= m_nSize)
+      return null;
+
+    final IJson ret = _get (nIndex);
+    final int nMoved = m_nSize - nIndex - 1;
+    if (nMoved > 0)
+    {
+      System.arraycopy (m_aTypes, nIndex + 1, m_aTypes, nIndex, nMoved);
+      if (m_aPrimitives != null)
+        System.arraycopy (m_aPrimitives, nIndex + 1, m_aPrimitives, nIndex, nMoved);
+      if (m_aJsons != null)
+        System.arraycopy (m_aJsons, nIndex + 1, m_aJsons, nIndex, nMoved);
+    }
+    m_nSize--;
+    if (m_aJsons != null)
+      m_aJsons[m_nSize] = null;
+    return ret;
+  }
+
+  @Nonnull
+  public EChange removeAtIndex (@Nonnegative final int nIndex)
+  {
+    return EChange.valueOf (removeAndReturnAtIndex (nIndex) != null);
+  }
+
+  @Nullable
+  public IJson get (@Nonnegative final int nIndex)
+  {
+    if (nIndex < 0 || nIndex >= m_nSize)
+      return null;
+    return _get (nIndex);
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public CompactJsonArray getSubArray (@Nonnegative final int nStartIndex, @Nonnegative final int nEndIndex)
+  {
+    ValueEnforcer.isGE0 (nStartIndex, "StartIndex");
+    ValueEnforcer.isBetweenInclusive (nEndIndex, "EndIndex", nStartIndex, m_nSize);
+
+    final int nLength = nEndIndex - nStartIndex;
+    final CompactJsonArray ret = new CompactJsonArray (nLength);
+    System.arraycopy (m_aTypes, nStartIndex, ret.m_aTypes, 0, nLength);
+    if (m_aPrimitives != null)
+      ret.m_aPrimitives = Arrays.copyOfRange (m_aPrimitives, nStartIndex, nEndIndex);
+    if (m_aJsons != null)
+      ret.m_aJsons = Arrays.copyOfRange (m_aJsons, nStartIndex, nEndIndex);
+    ret.m_nSize = nLength;
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IJson> getAll ()
+  {
+    final ICommonsList <IJson> ret = new CommonsArrayList <> (m_nSize);
+    for (int i = 0; i < m_nSize; ++i)
+      ret.add (_get (i));
+    return ret;
+  }
+
+  public void forEach (@Nonnull final ObjIntConsumer <? super IJson> aConsumer)
+  {
+    for (int i = 0; i < m_nSize; ++i)
+      aConsumer.accept (_get (i), i);
+  }
+
+  public boolean contains (@Nullable final IJson aValue)
+  {
+    if (aValue != null)
+      for (int i = 0; i < m_nSize; ++i)
+        if (_get (i).equals (aValue))
+          return true;
+    return false;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IJson> getClonedValues ()
+  {
+    final ICommonsList <IJson> ret = new CommonsArrayList <> (m_nSize);
+    for (int i = 0; i < m_nSize; ++i)
+      ret.add (_get (i).getClone ());
+    return ret;
+  }
+
+  @Nonnull
+  public CompactJsonArray getClone ()
+  {
+    final CompactJsonArray ret = getSubArray (0, m_nSize);
+    // Deep clone the non-primitive values
+    if (ret.m_aJsons != null)
+      for (int i = 0; i < m_nSize; ++i)
+        if (ret.m_aJsons[i] != null)
+          ret.m_aJsons[i] = ret.m_aJsons[i].getClone ();
+    return ret;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final CompactJsonArray rhs = (CompactJsonArray) o;
+    if (m_nSize != rhs.m_nSize)
+      return false;
+    for (int i = 0; i < m_nSize; ++i)
+    {
+      final byte nType = m_aTypes[i];
+      if (nType != rhs.m_aTypes[i])
+        return false;
+      if (nType == TYPE_JSON)
+      {
+        if (!m_aJsons[i].equals (rhs.m_aJsons[i]))
+          return false;
+      }
+      else
+        if (m_aPrimitives[i] != rhs.m_aPrimitives[i])
+          return false;
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    final HashCodeGenerator aHCG = new HashCodeGenerator (this);
+    for (int i = 0; i < m_nSize; ++i)
+    {
+      final byte nType = m_aTypes[i];
+      aHCG.append (nType);
+      if (nType == TYPE_JSON)
+        aHCG.append (m_aJsons[i]);
+      else
+        aHCG.append (m_aPrimitives[i]);
+    }
+    return aHCG.getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    // Don't use the values, as the JsonValue objects are created on the fly
+    return new ToStringGenerator (this).append ("size", m_nSize).append ("json", getAsJsonString ()).getToString ();
+  }
+}
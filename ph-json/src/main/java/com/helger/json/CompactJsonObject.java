@@ -0,0 +1,396 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.CommonsLinkedHashSet;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.collection.impl.ICommonsOrderedMap;
+import com.helger.commons.collection.impl.ICommonsOrderedSet;
+import com.helger.commons.collection.map.MapEntry;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.state.EChange;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * A memory efficient implementation of {@link IJsonObject}. Instead of a
+ * linked hash map with one entry object per member, names and values are kept
+ * in two flat arrays in insertion order. Small objects are searched linearly,
+ * which is faster than hashing for a few members anyway. Only above
+ * {@link #LINEAR_SEARCH_THRESHOLD} members an open addressing index into the
+ * arrays is created.<br>
+ * This implementation is best suited for large amounts of small objects that
+ * are mainly read. Removing members is O(n).
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public class CompactJsonObject implements IJsonObject
+{
+  /** The maximum number of members that are searched linearly */
+  public static final int LINEAR_SEARCH_THRESHOLD = 8;
+
+  private static final String [] EMPTY_NAMES = new String [0];
+  private static final IJson [] EMPTY_VALUES = new IJson [0];
+
+  private String [] m_aNames;
+  private IJson [] m_aValues;
+  private int m_nSize;
+  // Index into the arrays + 1; 0 means empty; only present above the threshold
+  private transient int [] m_aIndex;
+
+  public CompactJsonObject ()
+  {
+    m_aNames = EMPTY_NAMES;
+    m_aValues = EMPTY_VALUES;
+  }
+
+  public CompactJsonObject (@Nonnegative final int nInitialCapacity)
+  {
+    ValueEnforcer.isGE0 (nInitialCapacity, "InitialCapacity");
+    m_aNames = nInitialCapacity == 0 ? EMPTY_NAMES : new String [nInitialCapacity];
+    m_aValues = nInitialCapacity == 0 ? EMPTY_VALUES : new IJson [nInitialCapacity];
+  }
+
+  public CompactJsonObject (@Nonnull final Map <String, ? extends IJson> aJsons)
+  {
+    this (aJsons.size ());
+    for (final Map.Entry <String, ? extends IJson> aEntry : aJsons.entrySet ())
+      add (aEntry.getKey (), aEntry.getValue ());
+  }
+
+  private void writeObject (@Nonnull final ObjectOutputStream aOOS) throws IOException
+  {
+    aOOS.writeInt (m_nSize);
+    final String sJson = getAsJsonString ();
+    StreamHelper.writeSafeUTF (aOOS, sJson);
+  }
+
+  private void readObject (@Nonnull final ObjectInputStream aOIS) throws IOException
+  {
+    final int nInitialSize = aOIS.readInt ();
+    m_aNames = new String [nInitialSize];
+    m_aValues = new IJson [nInitialSize];
+    m_nSize = 0;
+    final String sJson = StreamHelper.readSafeUTF (aOIS);
+    final IJsonObject aJson = (IJsonObject) JsonReader.readFromString (sJson);
+    addAll (aJson);
+  }
+
+  public final boolean isArray ()
+  {
+    return false;
+  }
+
+  public final boolean isObject ()
+  {
+    return true;
+  }
+
+  public final boolean isValue ()
+  {
+    return false;
+  }
+
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_nSize;
+  }
+
+  public boolean isEmpty ()
+  {
+    return m_nSize == 0;
+  }
+
+  private static int _hash (@Nonnull final String sName)
+  {
+    final int h = sName.hashCode ();
+    return h ^ (h >>> 16);
+  }
+
+  private void _addToIndex (@Nonnull final int [] aIndex, @Nonnegative final int nPos)
+  {
+    final int nMask = aIndex.length - 1;
+    int nSlot = _hash (m_aNames[nPos]) & nMask;
+    while (aIndex[nSlot] != 0)
+      nSlot = (nSlot + 1) & nMask;
+    aIndex[nSlot] = nPos + 1;
+  }
+
+  private void _rebuildIndex ()
+  {
+    if (m_nSize <= LINEAR_SEARCH_THRESHOLD)
+      m_aIndex = null;
+    else
+    {
+      // Load factor <= 0.5
+      final int nIndexSize = Integer.highestOneBit (m_nSize * 4 - 1);
+      final int [] aIndex = new int [nIndexSize];
+      for (int i = 0; i < m_nSize; ++i)
+        _addToIndex (aIndex, i);
+      m_aIndex = aIndex;
+    }
+  }
+
+  /**
+   * @param sName
+   *        Name to search. May be <code>null</code>.
+   * @return The index of the member or -1 if not found
+   */
+  private int _indexOf (@Nullable final String sName)
+  {
+    if (sName == null)
+      return -1;
+
+    final int [] aIndex = m_aIndex;
+    if (aIndex == null)
+    {
+      // Linear search
+      final String [] aNames = m_aNames;
+      for (int i = 0; i < m_nSize; ++i)
+      {
+        final String sCur = aNames[i];
+        if (sCur == sName || sCur.equals (sName))
+          return i;
+      }
+      return -1;
+    }
+
+    final int nMask = aIndex.length - 1;
+    int nSlot = _hash (sName) & nMask;
+    int nPos;
+    while ((nPos = aIndex[nSlot]) != 0)
+    {
+      if (m_aNames[nPos - 1].equals (sName))
+        return nPos - 1;
+      nSlot = (nSlot + 1) & nMask;
+    }
+    return -1;
+  }
+
+  @Nonnull
+  public Iterator <Map.Entry <String, IJson>> iterator ()
+  {
+    return new Iterator <Map.Entry <String, IJson>> ()
+    {
+      private int m_nIndex = 0;
+
+      public boolean hasNext ()
+      {
+        return m_nIndex < m_nSize;
+      }
+
+      public Map.Entry <String, IJson> next ()
+      {
+        if (m_nIndex >= m_nSize)
+          throw new NoSuchElementException ();
+        final int nIndex = m_nIndex++;
+        return new MapEntry <> (m_aNames[nIndex], m_aValues[nIndex]);
+      }
+    };
+  }
+
+  @Nonnull
+  public CompactJsonObject add (@Nonnull final String sName, @Nonnull final IJson aValue)
+  {
+    ValueEnforcer.notNull (sName, "Name");
+    ValueEnforcer.notNull (aValue, "Value");
+
+    final int nExisting = _indexOf (sName);
+    if (nExisting >= 0)
+    {
+      // Overwrite existing value but keep the position - as LinkedHashMap
+      m_aValues[nExisting] = aValue;
+      return this;
+    }
+
+    if (m_nSize == m_aNames.length)
+    {
+      final int nNewCapacity = m_nSize == 0 ? 4 : m_nSize + (m_nSize >> 1) + 1;
+      m_aNames = Arrays.copyOf (m_aNames, nNewCapacity);
+      m_aValues = Arrays.copyOf (m_aValues, nNewCapacity);
+    }
+    final int nPos = m_nSize++;
+    m_aNames[nPos] = sName;
+    m_aValues[nPos] = aValue;
+
+    if (m_aIndex != null && m_nSize * 2 <= m_aIndex.length)
+      _addToIndex (m_aIndex, nPos);
+    else
+      if (m_nSize > LINEAR_SEARCH_THRESHOLD)
+        _rebuildIndex ();
+    return this;
+  }
+
+  @Nullable
+  public IJson removeKeyAndReturnValue (@Nullable final String sName)
+  {
+    final int nIndex = _indexOf (sName);
+    if (nIndex < 0)
+      return null;
+
+    final IJson ret = m_aValues[nIndex];
+    final int nMoved = m_nSize - nIndex - 1;
+    if (nMoved > 0)
+    {
+      System.arraycopy (m_aNames, nIndex + 1, m_aNames, nIndex, nMoved);
+      System.arraycopy (m_aValues, nIndex + 1, m_aValues, nIndex, nMoved);
+    }
+    m_nSize--;
+    m_aNames[m_nSize] = null;
+    m_aValues[m_nSize] = null;
+    if (m_aIndex != null)
+      _rebuildIndex ();
+    return ret;
+  }
+
+  @Nonnull
+  public EChange removeKey (@Nullable final String sName)
+  {
+    return EChange.valueOf (removeKeyAndReturnValue (sName) != null);
+  }
+
+  public boolean containsKey (@Nullable final String sName)
+  {
+    return _indexOf (sName) >= 0;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedSet <String> keySet ()
+  {
+    final ICommonsOrderedSet <String> ret = new CommonsLinkedHashSet <> (m_nSize);
+    for (int i = 0; i < m_nSize; ++i)
+      ret.add (m_aNames[i]);
+    return ret;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsList <IJson> values ()
+  {
+    final ICommonsList <IJson> ret = new CommonsArrayList <> (m_nSize);
+    for (int i = 0; i < m_nSize; ++i)
+      ret.add (m_aValues[i]);
+    return ret;
+  }
+
+  @Nullable
+  public IJson get (@Nullable final String sName)
+  {
+    final int nIndex = _indexOf (sName);
+    return nIndex < 0 ? null : m_aValues[nIndex];
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, IJson> getAll ()
+  {
+    final ICommonsOrderedMap <String, IJson> ret = new CommonsLinkedHashMap <> (m_nSize);
+    for (int i = 0; i < m_nSize; ++i)
+      ret.put (m_aNames[i], m_aValues[i]);
+    return ret;
+  }
+
+  public void forEach (@Nonnull final BiConsumer <? super String, ? super IJson> aConsumer)
+  {
+    for (int i = 0; i < m_nSize; ++i)
+      aConsumer.accept (m_aNames[i], m_aValues[i]);
+  }
+
+  public boolean containsValue (@Nullable final IJson aValue)
+  {
+    if (aValue != null)
+      for (int i = 0; i < m_nSize; ++i)
+        if (m_aValues[i].equals (aValue))
+          return true;
+    return false;
+  }
+
+  @Nonnull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, IJson> getClonedValues ()
+  {
+    final ICommonsOrderedMap <String, IJson> ret = new CommonsLinkedHashMap <> (m_nSize);
+    for (int i = 0; i < m_nSize; ++i)
+      ret.put (m_aNames[i], m_aValues[i].getClone ());
+    return ret;
+  }
+
+  @Nonnull
+  public CompactJsonObject getClone ()
+  {
+    final CompactJsonObject ret = new CompactJsonObject (m_nSize);
+    for (int i = 0; i < m_nSize; ++i)
+      ret.add (m_aNames[i], m_aValues[i].getClone ());
+    return ret;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+    final CompactJsonObject rhs = (CompactJsonObject) o;
+    if (m_nSize != rhs.m_nSize)
+      return false;
+    // Same semantics as Map.equals - independent of the order
+    for (int i = 0; i < m_nSize; ++i)
+      if (!m_aValues[i].equals (rhs.get (m_aNames[i])))
+        return false;
+    return true;
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    // Same semantics as Map.hashCode - independent of the order
+    int nMapHashCode = 0;
+    for (int i = 0; i < m_nSize; ++i)
+      nMapHashCode += m_aNames[i].hashCode () ^ m_aValues[i].hashCode ();
+    return new HashCodeGenerator (this).append (nMapHashCode).getHashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("values", getAll ()).getToString ();
+  }
+}
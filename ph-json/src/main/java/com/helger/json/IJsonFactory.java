@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import com.helger.commons.ValueEnforcer;
+
+/**
+ * Factory for the {@link IJsonArray} and {@link IJsonObject} instances created
+ * while reading JSON. Use {@link #DEFAULT} for the regular {@link JsonArray}
+ * and {@link JsonObject} implementations and {@link #COMPACT} for the memory
+ * optimized {@link CompactJsonArray} and {@link CompactJsonObject}.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+public interface IJsonFactory
+{
+  /** The default factory creating {@link JsonArray} and {@link JsonObject} */
+  IJsonFactory DEFAULT = create (JsonArray::new, JsonObject::new);
+
+  /**
+   * The compact factory creating {@link CompactJsonArray} and
+   * {@link CompactJsonObject}
+   */
+  IJsonFactory COMPACT = create (CompactJsonArray::new, CompactJsonObject::new);
+
+  /**
+   * @return A new, empty, mutable JSON array. May not be <code>null</code>.
+   */
+  @Nonnull
+  IJsonArray createArray ();
+
+  /**
+   * @return A new, empty, mutable JSON object. May not be <code>null</code>.
+   */
+  @Nonnull
+  IJsonObject createObject ();
+
+  /**
+   * Create a new factory based on the provided suppliers.
+   *
+   * @param aArraySupplier
+   *        The supplier for new JSON arrays. May not be <code>null</code>.
+   * @param aObjectSupplier
+   *        The supplier for new JSON objects. May not be <code>null</code>.
+   * @return Never <code>null</code>.
+   */
+  @Nonnull
+  static IJsonFactory create (@Nonnull final Supplier <? extends IJsonArray> aArraySupplier,
+                              @Nonnull final Supplier <? extends IJsonObject> aObjectSupplier)
+  {
+    ValueEnforcer.notNull (aArraySupplier, "ArraySupplier");
+    ValueEnforcer.notNull (aObjectSupplier, "ObjectSupplier");
+    return new IJsonFactory ()
+    {
+      public IJsonArray createArray ()
+      {
+        return aArraySupplier.get ();
+      }
+
+      public IJsonObject createObject ()
+      {
+        return aObjectSupplier.get ();
+      }
+    };
+  }
+}
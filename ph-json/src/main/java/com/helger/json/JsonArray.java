@@ -82,8 +82,9 @@ public class JsonArray implements IJsonArray
     final int nInitialSize = aOIS.readInt ();
     m_aValues = new CommonsArrayList <> (nInitialSize);
     final String sJson = StreamHelper.readSafeUTF (aOIS);
-    final JsonArray aJson = (JsonArray) JsonReader.readFromString (sJson);
-    m_aValues.addAll (aJson.m_aValues);
+    final IJsonArray aJson = (IJsonArray) JsonReader.readFromString (sJson);
+    for (final IJson aElement : aJson)
+      m_aValues.add (aElement);
   }
 
   public final boolean isArray ()
@@ -80,8 +80,9 @@ public class JsonObject implements IJsonObject
     final int nInitialSize = aOIS.readInt ();
     m_aValues = new CommonsLinkedHashMap <> (nInitialSize);
     final String sJson = StreamHelper.readSafeUTF (aOIS);
-    final JsonObject aJson = (JsonObject) JsonReader.readFromString (sJson);
-    m_aValues.putAll (aJson.m_aValues);
+    final IJsonObject aJson = (IJsonObject) JsonReader.readFromString (sJson);
+    for (final Map.Entry <String, IJson> aEntry : aJson)
+      m_aValues.put (aEntry.getKey (), aEntry.getValue ());
   }
 
   public final boolean isArray ()
@@ -229,17 +229,17 @@ public class JsonValue implements IJsonValue
   public static JsonValue create (final int nValue)
   {
     // Use cached value
-    if (nValue >= INT_CACHE_MIN && nValue < INT_CACHE_MAX)
+    if (nValue >= INT_CACHE_MIN && nValue <= INT_CACHE_MAX)
       return NUMERIC[nValue - INT_CACHE_MIN];
 
-    return create (Integer.valueOf (nValue));
+    return new JsonValue (Integer.valueOf (nValue));
   }
 
   @Nonnull
   public static JsonValue create (final long nValue)
   {
     // Use cached value
-    if (nValue >= INT_CACHE_MIN && nValue < INT_CACHE_MAX)
+    if (nValue >= INT_CACHE_MIN && nValue <= INT_CACHE_MAX)
       return NUMERIC[(int) nValue - INT_CACHE_MIN];
 
     return create (Long.valueOf (nValue));
@@ -265,6 +265,8 @@ public class JsonValue implements IJsonValue
       return FALSE;
 
     // Change to Integer/Double
+    if (aValue instanceof Integer)
+      return create (((Integer) aValue).intValue ());
     if (aValue instanceof Byte)
       return create (((Byte) aValue).byteValue ());
     if (aValue instanceof Short)
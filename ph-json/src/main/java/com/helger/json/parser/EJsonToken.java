@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+/**
+ * The different tokens reported by {@link JsonPullParser}.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+public enum EJsonToken
+{
+  /** Start of a JSON array ('[') */
+  START_ARRAY,
+  /** End of a JSON array (']') */
+  END_ARRAY,
+  /** Start of a JSON object ('{') */
+  START_OBJECT,
+  /** End of a JSON object ('}') */
+  END_OBJECT,
+  /** The name of an object member */
+  NAME,
+  /** A string value */
+  STRING,
+  /** A numeric value */
+  NUMBER,
+  /** The keyword <code>true</code> */
+  TRUE,
+  /** The keyword <code>false</code> */
+  FALSE,
+  /** The keyword <code>null</code> */
+  NULL;
+
+  /**
+   * @return <code>true</code> if this token starts an array or an object.
+   */
+  public boolean isStartCollection ()
+  {
+    return this == START_ARRAY || this == START_OBJECT;
+  }
+
+  /**
+   * @return <code>true</code> if this token ends an array or an object.
+   */
+  public boolean isEndCollection ()
+  {
+    return this == END_ARRAY || this == END_OBJECT;
+  }
+
+  /**
+   * @return <code>true</code> if this token is a simple value (string,
+   *         number, boolean or <code>null</code>).
+   */
+  public boolean isSimpleValue ()
+  {
+    return this == STRING || this == NUMBER || this == TRUE || this == FALSE || this == NULL;
+  }
+
+  /**
+   * @return <code>true</code> if this token starts a value - either a simple
+   *         value or an array or an object.
+   */
+  public boolean isValueStart ()
+  {
+    return isSimpleValue () || isStartCollection ();
+  }
+}
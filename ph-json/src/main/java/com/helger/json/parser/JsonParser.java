@@ -25,7 +25,7 @@ import javax.annotation.WillNotClose;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import com.helger.commons.ValueEnforcer;
-import com.helger.commons.io.stream.NonBlockingPushbackReader;
+import com.helger.commons.collection.NonBlockingStack;
 import com.helger.commons.string.StringHelper;
 import com.helger.json.CJson;
 import com.helger.json.parser.handler.IJsonParserHandler;
@@ -33,7 +33,13 @@ import com.helger.json.parser.handler.IJsonParserHandler;
 /**
  * This is a generic JSON parser that invokes a custom callback for all found
  * elements. This can be used as the basis for a "SAX" like JSON parsing, if
- * required.
+ * required.<br>
+ * The input is read in blocks, so the passed reader does not need to be
+ * buffered. If the handler does not require the original text (see
+ * {@link IJsonParserHandler#isOriginalTextRequired()}) the parser runs in a
+ * fast mode that does not assemble the original text of strings and does not
+ * report whitespaces. In all modes, object names are reused via a
+ * small symbol table, as they are usually repeated a lot in larger documents.
  *
  * @author Philip Helger
  */
@@ -67,14 +73,105 @@ public class JsonParser
     }
   }
 
+  /**
+   * A simple, non-thread-safe cache for object names that avoids creating new
+   * String objects for names that were already read. Because of the fixed
+   * size, the memory consumption is bound.
+   *
+   * @author Philip Helger
+   */
+  private static final class SymbolTable
+  {
+    /** Must be a power of 2 */
+    private static final int SIZE = 512;
+    private static final int MAX_SYMBOL_LENGTH = 64;
+
+    private final String [] m_aSymbols = new String [SIZE];
+
+    @Nonnull
+    String getSymbol (@Nonnull final JsonStringBuilder aSB)
+    {
+      final int nLen = aSB.m_nLen;
+      if (nLen > MAX_SYMBOL_LENGTH)
+        return aSB.getAsString ();
+
+      // Same as String.hashCode
+      final char [] aBuf = aSB.m_aBuf;
+      int nHash = 0;
+      for (int i = 0; i < nLen; ++i)
+        nHash = 31 * nHash + aBuf[i];
+
+      final int nIndex = (nHash ^ (nHash >>> 16)) & (SIZE - 1);
+      final String sExisting = m_aSymbols[nIndex];
+      if (sExisting != null && sExisting.length () == nLen && sExisting.hashCode () == nHash)
+      {
+        boolean bEquals = true;
+        for (int i = 0; i < nLen; ++i)
+          if (sExisting.charAt (i) != aBuf[i])
+          {
+            bEquals = false;
+            break;
+          }
+        if (bEquals)
+          return sExisting;
+      }
+
+      // Not found or collision - overwrite
+      final String ret = aSB.getAsString ();
+      m_aSymbols[nIndex] = ret;
+      return ret;
+    }
+  }
+
+  /**
+   * The internal parsing states.
+   */
+  private static enum EParseState
+  {
+    /** A value is expected */
+    VALUE,
+    /** After an array start or after a comma within an array */
+    ARRAY_ELEMENT,
+    /** After a value within an array */
+    AFTER_ARRAY_ELEMENT,
+    /** After an object start or after a comma within an object */
+    OBJECT_MEMBER,
+    /** After a value within an object */
+    AFTER_OBJECT_MEMBER,
+    /** After the root value */
+    END,
+    /** Parsing is done */
+    DONE;
+  }
+
+  /**
+   * The status of a currently open array or object.
+   *
+   * @author Philip Helger
+   */
+  private static final class ParseFrame
+  {
+    private final boolean m_bObject;
+    private final IJsonParsePosition m_aStartPos;
+    private int m_nIndex = 0;
+
+    ParseFrame (final boolean bObject, @Nonnull final IJsonParsePosition aStartPos)
+    {
+      m_bObject = bObject;
+      m_aStartPos = aStartPos;
+    }
+  }
+
   /** The end of input special value */
   public static final int EOI = -1;
 
   private static final int MAX_PUSH_BACK_CHARS = 2;
+  private static final int READ_BUFFER_SIZE = 4096;
 
   // Constructor parameters
-  private final NonBlockingPushbackReader m_aReader;
+  private final Reader m_aReader;
   private final IJsonParserHandler m_aCallback;
+  private final boolean m_bOriginalText;
 
   // Settings
   private boolean m_bTrackPosition = false;
@@ -84,17 +181,33 @@ public class JsonParser
   private boolean m_bAllowSpecialCharsInStrings = false;
 
   // Status variables
+  // Read buffer
+  private final char [] m_aBuf = new char [READ_BUFFER_SIZE];
+  private int m_nBufPos = 0;
+  private int m_nBufLen = 0;
+  private boolean m_bEOI = false;
+  // Maximum of 2 pushbacks
+  private final int [] m_aPushBack = new int [MAX_PUSH_BACK_CHARS];
+  private int m_nPushBackCount = 0;
   // Position tracking
   private final JsonParsePosition m_aPos = new JsonParsePosition ();
-  private int m_nBackupChars = 0;
+  // Reusable buffers
+  private final JsonStringBuilder m_aStrSpaces = new JsonStringBuilder (64);
+  private final JsonStringBuilder m_aStrStringOriginalContent = new JsonStringBuilder (256);
+  private final JsonStringBuilder m_aStrStringUnescapedContent = new JsonStringBuilder (256);
+  private final JsonStringBuilder m_aStrNumber = new JsonStringBuilder (32);
+  private final SymbolTable m_aObjectNames = new SymbolTable ();
+  // Nesting
+  private final NonBlockingStack <ParseFrame> m_aFrames = new NonBlockingStack <> ();
+  private EParseState m_eState = EParseState.VALUE;
 
   public JsonParser (@Nonnull @WillNotClose final Reader aReader, @Nonnull final IJsonParserHandler aCallback)
   {
     ValueEnforcer.notNull (aReader, "Reader");
     ValueEnforcer.notNull (aCallback, "Callback");
-    // Maximum of 2 pushbacks
-    m_aReader = new NonBlockingPushbackReader (aReader, MAX_PUSH_BACK_CHARS);
+    m_aReader = aReader;
     m_aCallback = aCallback;
+    m_bOriginalText = aCallback.isOriginalTextRequired ();
   }
 
   public boolean isTrackPosition ()
@@ -178,33 +291,78 @@ public class JsonParser
   }
 
   /**
-   * Must return int to differentiate between the whole char range (0-0xffff)
-   * and EOF (-1).
+   * Fill the read buffer with the next block of characters.
    *
-   * @return the char read or {@link #EOI} (=-1) in case of EOF
+   * @return <code>true</code> if at least one character was read,
+   *         <code>false</code> on end of input
    */
-  private int _readChar ()
+  private boolean _fillBuffer ()
   {
+    if (m_bEOI)
+      return false;
+
     try
     {
-      final int c = m_aReader.read ();
+      int nRead;
+      do
+      {
+        nRead = m_aReader.read (m_aBuf, 0, m_aBuf.length);
+      } while (nRead == 0);
 
-      if (m_bTrackPosition)
+      if (nRead > 0)
       {
-        if (m_nBackupChars > 0)
-        {
-          // If previously a char was backed up, don't increase the position!
-          m_nBackupChars--;
-        }
-        else
-          m_aPos.updatePosition (c, m_nTabSize);
+        m_nBufPos = 0;
+        m_nBufLen = nRead;
+        return true;
       }
-      return c;
     }
     catch (final IOException ex)
     {
-      return EOI;
+      // Treat like end of input
     }
+    m_bEOI = true;
+    return false;
+  }
+
+  /**
+   * Must return int to differentiate between the whole char range (0-0xffff)
+   * and EOF (-1).
+   *
+   * @return the char read or {@link #EOI} (=-1) in case of EOF
+   */
+  private int _readChar ()
+  {
+    if (m_nPushBackCount > 0)
+    {
+      // If previously a char was backed up, don't increase the position!
+      return m_aPushBack[--m_nPushBackCount];
+    }
+
+    final int c;
+    if (m_nBufPos < m_nBufLen || _fillBuffer ())
+      c = m_aBuf[m_nBufPos++];
+    else
+      c = EOI;
+
+    if (m_bTrackPosition)
+      m_aPos.updatePosition (c, m_nTabSize);
+    return c;
+  }
+
+  /**
+   * Update the position for the characters that were consumed directly from
+   * the read buffer.
+   *
+   * @param nStart
+   *        Start index in the read buffer (inclusive)
+   * @param nEnd
+   *        End index in the read buffer (exclusive)
+   */
+  private void _updatePosition (final int nStart, final int nEnd)
+  {
+    if (m_bTrackPosition)
+      for (int i = nStart; i < nEnd; ++i)
+        m_aPos.updatePosition (m_aBuf[i], m_nTabSize);
   }
 
   /**
@@ -216,15 +374,22 @@ public class JsonParser
   private void _backupChar (final int c) throws JsonParseException
   {
     if (c != EOI)
-      try
-      {
-        m_aReader.unread (c);
-        m_nBackupChars++;
-      }
-      catch (final IOException ex)
-      {
+    {
+      if (m_nPushBackCount == MAX_PUSH_BACK_CHARS)
         throw new IllegalStateException ("Failed to unread character " + _getPrintableChar (c));
-      }
+      m_aPushBack[m_nPushBackCount++] = c;
+    }
+  }
+
+  /**
+   * @return The start position of a token. Only if position tracking is
+   *         enabled, a copy needs to be created as the start position is only
+   *         used in exceptions.
+   */
+  @Nonnull
+  private IJsonParsePosition _getStartPos ()
+  {
+    return m_bTrackPosition ? m_aPos.getClone () : m_aPos;
   }
 
   @Nonnull
@@ -250,7 +415,7 @@ public class JsonParser
 
   private void _readComment () throws JsonParseException
   {
-    final IJsonParsePosition aStartPos = m_aPos.getClone ();
+    final IJsonParsePosition aStartPos = _getStartPos ();
     final JsonStringBuilder aStrComment = new JsonStringBuilder (1024);
 
     while (true)
@@ -280,12 +445,40 @@ public class JsonParser
     }
   }
 
+  private static boolean _isWhitespace (final int c)
+  {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f';
+  }
+
   private void _skipSpaces () throws JsonParseException
   {
-    final JsonStringBuilder aStrSpaces = new JsonStringBuilder ();
+    final JsonStringBuilder aStrSpaces = m_aStrSpaces;
+    aStrSpaces.reset ();
 
     while (true)
     {
+      if (m_nPushBackCount == 0)
+      {
+        // Fast path: consume whitespaces directly from the buffer
+        final char [] aBuf = m_aBuf;
+        final int nStart = m_nBufPos;
+        int nEnd = nStart;
+        while (nEnd < m_nBufLen && _isWhitespace (aBuf[nEnd]))
+          ++nEnd;
+        if (nEnd > nStart)
+        {
+          if (m_bOriginalText)
+            aStrSpaces.append (aBuf, nStart, nEnd - nStart);
+          _updatePosition (nStart, nEnd);
+          m_nBufPos = nEnd;
+          if (nEnd == m_nBufLen)
+          {
+            // Maybe more whitespaces in the next block
+            continue;
+          }
+        }
+      }
+
       final int c = _readChar ();
 
       // Check for comment
@@ -311,7 +504,7 @@ public class JsonParser
         _backupChar (c2);
       }
 
-      if (c != ' ' && c != '\t' && c != '\r' && c != '\n' && c != '\f')
+      if (!_isWhitespace (c))
       {
         // End of whitespaces reached
         if (aStrSpaces.hasContent ())
@@ -324,7 +517,8 @@ public class JsonParser
       }
 
       // It's a whitespace character
-      aStrSpaces.append ((char) c);
+      if (m_bOriginalText)
+        aStrSpaces.append ((char) c);
     }
   }
 
@@ -348,7 +542,8 @@ public class JsonParser
                                       @Nonnull final JsonStringBuilder aStrStringUnescapedContent) throws JsonParseException
   {
     final int c2 = _readChar ();
-    aStrStringOriginalContent.append ((char) c2);
+    if (m_bOriginalText)
+      aStrStringOriginalContent.append ((char) c2);
     if (c2 == '"' || c2 == '/' || c2 == '\\')
       aStrStringUnescapedContent.append ((char) c2);
     else
@@ -377,10 +572,13 @@ public class JsonParser
                   final int n2 = _getHexValue (aStartPos, ch2);
                   final int ch3 = _readChar ();
                   final int n3 = _getHexValue (aStartPos, ch3);
-                  aStrStringOriginalContent.append ((char) ch0);
-                  aStrStringOriginalContent.append ((char) ch1);
-                  aStrStringOriginalContent.append ((char) ch2);
-                  aStrStringOriginalContent.append ((char) ch3);
+                  if (m_bOriginalText)
+                  {
+                    aStrStringOriginalContent.append ((char) ch0);
+                    aStrStringOriginalContent.append ((char) ch1);
+                    aStrStringOriginalContent.append ((char) ch2);
+                    aStrStringOriginalContent.append ((char) ch3);
+                  }
 
                   final int nUnescapedChar = (n0 & 0xff) << 12 | (n1 & 0xff) << 8 | (n2 & 0xff) << 4 | (n3 & 0xff);
                   aStrStringUnescapedContent.append ((char) nUnescapedChar);
@@ -394,32 +592,23 @@ public class JsonParser
     return (c >= 0x21 && c <= 0x7a) && c != ':';
   }
 
-  private static final class TwoStrings
-  {
-    final String m_sOriginal;
-    final String m_sUnescaped;
-
-    private TwoStrings (@Nonnull final String sOriginal, @Nonnull final String sUnescaped)
-    {
-      m_sOriginal = sOriginal;
-      m_sUnescaped = sUnescaped;
-    }
-  }
-
   /**
+   * Read a string. Afterwards {@link #m_aStrStringUnescapedContent} contains
+   * the unescaped read string without leading and trailing quotes and
+   * {@link #m_aStrStringOriginalContent} contains the original read string.
+   * The latter is only filled if the handler requires the original text.
+   *
    * @param EStringQuoteMode
    *        The quoting mode used. May not be <code>null</code>.
-   * @return A pair where the first string is the original read string whereas
-   *         the second part is the unescaped read string without leading and
-   *         trailing quotes
    * @throws JsonParseException
    */
-  @Nonnull
-  private TwoStrings _readString (@Nonnull final EStringQuoteMode eQuoteMode) throws JsonParseException
+  private void _readString (@Nonnull final EStringQuoteMode eQuoteMode) throws JsonParseException
   {
-    final IJsonParsePosition aStartPos = m_aPos.getClone ();
-    final JsonStringBuilder aStrStringOriginalContent = new JsonStringBuilder (256);
-    final JsonStringBuilder aStrStringUnescapedContent = new JsonStringBuilder (256);
+    final IJsonParsePosition aStartPos = _getStartPos ();
+    final JsonStringBuilder aStrStringOriginalContent = m_aStrStringOriginalContent;
+    final JsonStringBuilder aStrStringUnescapedContent = m_aStrStringUnescapedContent;
+    aStrStringOriginalContent.reset ();
+    aStrStringUnescapedContent.reset ();
 
     final int cQuoteChar = eQuoteMode.getQuoteChar ();
 
@@ -444,8 +633,33 @@ public class JsonParser
 
     outer: while (true)
     {
+      if (bStringIsQuoted && m_nPushBackCount == 0)
+      {
+        // Fast path: copy all regular characters directly from the buffer
+        final char [] aBuf = m_aBuf;
+        final int nStart = m_nBufPos;
+        int nEnd = nStart;
+        char cCur;
+        while (nEnd < m_nBufLen && (cCur = aBuf[nEnd]) != cQuoteChar && cCur != '\\' && cCur >= 0x20)
+          ++nEnd;
+        if (nEnd > nStart)
+        {
+          if (m_bOriginalText)
+            aStrStringOriginalContent.append (aBuf, nStart, nEnd - nStart);
+          aStrStringUnescapedContent.append (aBuf, nStart, nEnd - nStart);
+          _updatePosition (nStart, nEnd);
+          m_nBufPos = nEnd;
+          if (nEnd == m_nBufLen)
+          {
+            // Continue with the next block
+            continue;
+          }
+        }
+      }
+
       final int c = _readChar ();
-      aStrStringOriginalContent.append ((char) c);
+      if (m_bOriginalText)
+        aStrStringOriginalContent.append ((char) c);
 
       switch (c)
       {
@@ -483,7 +697,8 @@ public class JsonParser
 
               // Remove from original content
               _backupChar (c);
-              aStrStringOriginalContent.backup (1);
+              if (m_bOriginalText)
+                aStrStringOriginalContent.backup (1);
 
               if (aStrStringUnescapedContent.getLength () == 0)
                 throw _parseEx (aStartPos, "Empty unquoted JSON String encountered");
@@ -499,8 +714,6 @@ public class JsonParser
           break;
       }
     }
-
-    return new TwoStrings (aStrStringOriginalContent.getAsString (), aStrStringUnescapedContent.getAsString ());
   }
 
   @Nonnull
@@ -630,9 +843,10 @@ public class JsonParser
 
   private void _readNumber () throws JsonParseException
   {
-    final IJsonParsePosition aStartPos = m_aPos.getClone ();
+    final IJsonParsePosition aStartPos = _getStartPos ();
 
-    final JsonStringBuilder aStrNumber = new JsonStringBuilder (32);
+    final JsonStringBuilder aStrNumber = m_aStrNumber;
+    aStrNumber.reset ();
     int c = _readChar ();
     if (c == '-')
     {
@@ -720,10 +934,12 @@ public class JsonParser
 
   private void _expect (@Nonnull final String sKeyword) throws JsonParseException
   {
-    final IJsonParsePosition aStartPos = m_aPos.getClone ();
+    final IJsonParsePosition aStartPos = _getStartPos ();
 
-    for (final char cExpected : sKeyword.toCharArray ())
+    final int nLen = sKeyword.length ();
+    for (int i = 0; i < nLen; ++i)
     {
+      final char cExpected = sKeyword.charAt (i);
       final int c = _readChar ();
       if (c != cExpected)
         throw _parseEx (aStartPos,
@@ -737,100 +953,142 @@ public class JsonParser
     }
   }
 
-  private void _readArray () throws JsonParseException
+  private void _onString ()
   {
-    final IJsonParsePosition aStartPos = m_aPos.getClone ();
+    final String sUnescaped = m_aStrStringUnescapedContent.getAsString ();
+    m_aCallback.onString (m_bOriginalText ? m_aStrStringOriginalContent.getAsString () : sUnescaped, sUnescaped);
+  }
 
-    m_aCallback.onArrayStart ();
-    int nIndex = 0;
-    while (true)
+  /**
+   * Called after a value was completely read, including the end of an array or
+   * an object.
+   */
+  private void _onValueFinished ()
+  {
+    if (m_aFrames.isEmpty ())
+      m_eState = EParseState.END;
+    else
+      m_eState = m_aFrames.peek ().m_bObject ? EParseState.AFTER_OBJECT_MEMBER : EParseState.AFTER_ARRAY_ELEMENT;
+  }
+
+  private void _onArrayEnd ()
+  {
+    m_aFrames.pop ();
+    m_aCallback.onArrayEnd ();
+    _onValueFinished ();
+  }
+
+  private void _onObjectEnd ()
+  {
+    m_aFrames.pop ();
+    m_aCallback.onObjectEnd ();
+    _onValueFinished ();
+  }
+
+  private void _readArrayElement () throws JsonParseException
+  {
+    final ParseFrame aFrame = m_aFrames.peek ();
+
+    _skipSpaces ();
+
+    // Check for empty array
+    final int c = _readChar ();
+    if (c == CJson.ARRAY_END)
     {
-      _skipSpaces ();
+      if (aFrame.m_nIndex != 0)
+        throw _parseEx (aFrame.m_aStartPos, "Expected another element in JSON Array");
+      _onArrayEnd ();
+      return;
+    }
+    _backupChar (c);
 
-      // Check for empty array
-      int c = _readChar ();
-      if (c == CJson.ARRAY_END)
-      {
-        if (nIndex != 0)
-          throw _parseEx (aStartPos, "Expected another element in JSON Array");
-        break;
-      }
-      _backupChar (c);
+    m_eState = EParseState.VALUE;
+  }
 
-      _readValue ();
+  private void _readAfterArrayElement () throws JsonParseException
+  {
+    final ParseFrame aFrame = m_aFrames.peek ();
 
-      _skipSpaces ();
+    _skipSpaces ();
 
-      c = _readChar ();
-      if (c == CJson.ITEM_SEPARATOR)
-      {
-        ++nIndex;
-        m_aCallback.onArrayNextElement ();
-        continue;
-      }
-      if (c == CJson.ARRAY_END)
-        break;
-      throw _parseEx (aStartPos, "Unexpected character " + _getPrintableChar (c) + " in JSON array");
+    final int c = _readChar ();
+    if (c == CJson.ITEM_SEPARATOR)
+    {
+      ++aFrame.m_nIndex;
+      m_aCallback.onArrayNextElement ();
+      m_eState = EParseState.ARRAY_ELEMENT;
+      return;
     }
-    m_aCallback.onArrayEnd ();
+    if (c == CJson.ARRAY_END)
+    {
+      _onArrayEnd ();
+      return;
+    }
+    throw _parseEx (aFrame.m_aStartPos, "Unexpected character " + _getPrintableChar (c) + " in JSON array");
   }
 
-  private void _readObject () throws JsonParseException
+  private void _readObjectMember () throws JsonParseException
   {
-    final IJsonParsePosition aStartPos = m_aPos.getClone ();
+    final ParseFrame aFrame = m_aFrames.peek ();
 
-    m_aCallback.onObjectStart ();
-    int nIndex = 0;
-    while (true)
+    _skipSpaces ();
+
+    // Check for empty object
+    int c = _readChar ();
+    if (c == CJson.OBJECT_END)
     {
-      _skipSpaces ();
+      if (aFrame.m_nIndex != 0)
+        throw _parseEx (aFrame.m_aStartPos, "Expected another element in JSON Object");
+      _onObjectEnd ();
+      return;
+    }
+    final EStringQuoteMode eQuoteMode = EStringQuoteMode.getFromCharOrDefault (c);
+    _backupChar (c);
 
-      // Check for empty object
-      int c = _readChar ();
-      if (c == CJson.OBJECT_END)
-      {
-        if (nIndex != 0)
-          throw _parseEx (aStartPos, "Expected another element in JSON Object");
-        break;
-      }
-      final EStringQuoteMode eQuoteMode = EStringQuoteMode.getFromCharOrDefault (c);
-      _backupChar (c);
+    _readString (eQuoteMode);
+    final String sName = m_aObjectNames.getSymbol (m_aStrStringUnescapedContent);
+    m_aCallback.onObjectName (m_bOriginalText ? m_aStrStringOriginalContent.getAsString () : sName, sName);
 
-      final TwoStrings aName = _readString (eQuoteMode);
-      m_aCallback.onObjectName (aName.m_sOriginal, aName.m_sUnescaped);
+    _skipSpaces ();
 
-      _skipSpaces ();
+    c = _readChar ();
+    if (c != CJson.NAME_VALUE_SEPARATOR)
+      throw _parseEx (aFrame.m_aStartPos,
+                      "Expected colon character in JSON Object but found " + _getPrintableChar (c));
+    m_aCallback.onObjectColon ();
 
-      c = _readChar ();
-      if (c != CJson.NAME_VALUE_SEPARATOR)
-        throw _parseEx (aStartPos, "Expected colon character in JSON Object but found " + _getPrintableChar (c));
-      m_aCallback.onObjectColon ();
+    _skipSpaces ();
 
-      _skipSpaces ();
+    m_eState = EParseState.VALUE;
+  }
 
-      _readValue ();
+  private void _readAfterObjectMember () throws JsonParseException
+  {
+    final ParseFrame aFrame = m_aFrames.peek ();
 
-      _skipSpaces ();
+    _skipSpaces ();
 
-      c = _readChar ();
-      if (c == CJson.ITEM_SEPARATOR)
-      {
-        ++nIndex;
-        m_aCallback.onObjectNextElement ();
-        continue;
-      }
-      if (c == CJson.OBJECT_END)
-        break;
-      throw _parseEx (aStartPos, "Unexpected character " + _getPrintableChar (c) + " in JSON Object");
+    final int c = _readChar ();
+    if (c == CJson.ITEM_SEPARATOR)
+    {
+      ++aFrame.m_nIndex;
+      m_aCallback.onObjectNextElement ();
+      m_eState = EParseState.OBJECT_MEMBER;
+      return;
     }
-    m_aCallback.onObjectEnd ();
+    if (c == CJson.OBJECT_END)
+    {
+      _onObjectEnd ();
+      return;
+    }
+    throw _parseEx (aFrame.m_aStartPos, "Unexpected character " + _getPrintableChar (c) + " in JSON Object");
   }
 
   private void _readValue () throws JsonParseException
   {
     _skipSpaces ();
 
-    final IJsonParsePosition aStartPos = m_aPos.getClone ();
+    final IJsonParsePosition aStartPos = _getStartPos ();
 
     final int cFirst = _readChar ();
     switch (cFirst)
@@ -838,15 +1096,15 @@ public class JsonParser
       case '\'':
       {
         _backupChar (cFirst);
-        final TwoStrings aString = _readString (EStringQuoteMode.SINGLE);
-        m_aCallback.onString (aString.m_sOriginal, aString.m_sUnescaped);
+        _readString (EStringQuoteMode.SINGLE);
+        _onString ();
         break;
       }
       case '"':
       {
         _backupChar (cFirst);
-        final TwoStrings aString = _readString (EStringQuoteMode.DOUBLE);
-        m_aCallback.onString (aString.m_sOriginal, aString.m_sUnescaped);
+        _readString (EStringQuoteMode.DOUBLE);
+        _onString ();
         break;
       }
       case '-':
@@ -879,34 +1137,83 @@ public class JsonParser
         m_aCallback.onNull ();
         break;
       case CJson.ARRAY_START:
-        _readArray ();
-        break;
+        m_aFrames.push (new ParseFrame (false, _getStartPos ()));
+        m_aCallback.onArrayStart ();
+        m_eState = EParseState.ARRAY_ELEMENT;
+        return;
       case CJson.OBJECT_START:
-        _readObject ();
-        break;
+        m_aFrames.push (new ParseFrame (true, _getStartPos ()));
+        m_aCallback.onObjectStart ();
+        m_eState = EParseState.OBJECT_MEMBER;
+        return;
       default:
         throw _parseEx (aStartPos, "Syntax error in JSON. Found " + _getPrintableChar (cFirst));
     }
+    _onValueFinished ();
   }
 
-  /**
-   * Main parsing routine
-   *
-   * @throws JsonParseException
-   *         In case a parse error occurs.
-   */
-  public void parse () throws JsonParseException
+  private void _readEnd () throws JsonParseException
   {
-    _readValue ();
-
     // Check for trailing whitespaces
     _skipSpaces ();
 
-    final IJsonParsePosition aStartPos = m_aPos.getClone ();
+    final IJsonParsePosition aStartPos = _getStartPos ();
 
     // Check for expected end of input
     final int c = _readChar ();
     if (c != EOI)
       throw _parseEx (aStartPos, "Invalid character " + _getPrintableChar (c) + " after JSON root object");
+    m_eState = EParseState.DONE;
+  }
+
+  /**
+   * Perform a single parsing step. Each step invokes at most one of the
+   * structural or value callbacks of the handler (whitespace and separator
+   * callbacks aside). This is the basis for pull parsing.
+   *
+   * @return <code>true</code> if more steps are to follow, <code>false</code>
+   *         if the end of input was reached.
+   * @throws JsonParseException
+   *         In case a parse error occurs.
+   */
+  boolean parseStep () throws JsonParseException
+  {
+    switch (m_eState)
+    {
+      case VALUE:
+        _readValue ();
+        break;
+      case ARRAY_ELEMENT:
+        _readArrayElement ();
+        break;
+      case AFTER_ARRAY_ELEMENT:
+        _readAfterArrayElement ();
+        break;
+      case OBJECT_MEMBER:
+        _readObjectMember ();
+        break;
+      case AFTER_OBJECT_MEMBER:
+        _readAfterObjectMember ();
+        break;
+      case END:
+        _readEnd ();
+        return false;
+      default:
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Main parsing routine. Nested arrays and objects are handled without
+   * recursion, so the nesting depth is only limited by the available heap.
+   *
+   * @throws JsonParseException
+   *         In case a parse error occurs.
+   */
+  public void parse () throws JsonParseException
+  {
+    while (parseStep ())
+    {}
   }
 }
@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.string.StringParser;
+import com.helger.commons.string.ToStringGenerator;
+
+/**
+ * A simple path expression used to select values from a JSON document while it
+ * is streamed with {@link JsonPullParser}. The syntax is a subset of JSONPath:
+ * the path must start with the root <code>$</code> followed by any number of
+ * segments. Supported segments are:
+ * <ul>
+ * <li><code>.name</code> or <code>['name']</code> - an object member with the
+ * specified name</li>
+ * <li><code>[3]</code> - the array element with the specified 0-based
+ * index</li>
+ * <li><code>.*</code> or <code>[*]</code> - any object member or any array
+ * element</li>
+ * </ul>
+ * Example: <code>$.items[*].id</code> selects the "id" member of all objects
+ * in the "items" array of the root object. Recursive descent
+ * (<code>..</code>) and filter expressions are not supported.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@Immutable
+public final class JsonPathFilter
+{
+  private static final class Segment
+  {
+    private static final Segment WILDCARD = new Segment (null, -1);
+
+    private final String m_sName;
+    private final int m_nIndex;
+
+    private Segment (@Nullable final String sName, final int nIndex)
+    {
+      m_sName = sName;
+      m_nIndex = nIndex;
+    }
+
+    boolean matches (@Nullable final String sName, final int nIndex)
+    {
+      if (this == WILDCARD)
+        return true;
+      if (m_sName != null)
+        return m_sName.equals (sName);
+      return sName == null && m_nIndex == nIndex;
+    }
+  }
+
+  private final String m_sPath;
+  private final Segment [] m_aSegments;
+
+  /**
+   * Constructor
+   *
+   * @param sPath
+   *        The path expression to parse. May neither be <code>null</code> nor
+   *        empty.
+   * @throws IllegalArgumentException
+   *         If the path expression is invalid
+   */
+  public JsonPathFilter (@Nonnull @Nonempty final String sPath)
+  {
+    ValueEnforcer.notEmpty (sPath, "Path");
+    if (sPath.charAt (0) != '$')
+      throw new IllegalArgumentException ("JSON path must start with '$': " + sPath);
+
+    final ICommonsList <Segment> aSegments = new CommonsArrayList <> ();
+    final int nLen = sPath.length ();
+    int nPos = 1;
+    while (nPos < nLen)
+    {
+      final char c = sPath.charAt (nPos);
+      if (c == '.')
+      {
+        nPos++;
+        int nEnd = nPos;
+        while (nEnd < nLen && sPath.charAt (nEnd) != '.' && sPath.charAt (nEnd) != '[')
+          nEnd++;
+        if (nEnd == nPos)
+          throw new IllegalArgumentException ("Empty member name or unsupported recursive descent in JSON path: " +
+                                              sPath);
+        final String sName = sPath.substring (nPos, nEnd);
+        aSegments.add ("*".equals (sName) ? Segment.WILDCARD : new Segment (sName, -1));
+        nPos = nEnd;
+      }
+      else
+        if (c == '[')
+        {
+          final int nClose = sPath.indexOf (']', nPos);
+          if (nClose < 0)
+            throw new IllegalArgumentException ("Unclosed '[' in JSON path: " + sPath);
+          final String sContent = sPath.substring (nPos + 1, nClose).trim ();
+          final int nContentLen = sContent.length ();
+          if ("*".equals (sContent))
+            aSegments.add (Segment.WILDCARD);
+          else
+            if (nContentLen >= 2 &&
+                ((sContent.charAt (0) == '\'' && sContent.charAt (nContentLen - 1) == '\'') ||
+                 (sContent.charAt (0) == '"' && sContent.charAt (nContentLen - 1) == '"')))
+              aSegments.add (new Segment (sContent.substring (1, nContentLen - 1), -1));
+            else
+            {
+              final int nIndex = StringParser.parseInt (sContent, -1);
+              if (nIndex < 0)
+                throw new IllegalArgumentException ("Invalid array index '" + sContent + "' in JSON path: " + sPath);
+              aSegments.add (new Segment (null, nIndex));
+            }
+          nPos = nClose + 1;
+        }
+        else
+          throw new IllegalArgumentException ("Unexpected character '" + c + "' in JSON path: " + sPath);
+    }
+    m_sPath = sPath;
+    m_aSegments = aSegments.toArray (new Segment [aSegments.size ()]);
+  }
+
+  /**
+   * @return The original path expression. Neither <code>null</code> nor
+   *         empty.
+   */
+  @Nonnull
+  @Nonempty
+  public String getPath ()
+  {
+    return m_sPath;
+  }
+
+  /**
+   * @return The number of segments below the root. 0 for the path
+   *         <code>$</code> which matches the root value.
+   */
+  @Nonnegative
+  public int getSegmentCount ()
+  {
+    return m_aSegments.length;
+  }
+
+  /**
+   * Check if a single segment matches.
+   *
+   * @param nSegment
+   *        The 0-based segment index. Must be &lt; {@link #getSegmentCount()}.
+   * @param sName
+   *        The object member name or <code>null</code> if the value is an
+   *        array element.
+   * @param nIndex
+   *        The array index. Only relevant if the name is <code>null</code>.
+   * @return <code>true</code> if the segment matches
+   */
+  boolean matchesSegment (@Nonnegative final int nSegment, @Nullable final String sName, final int nIndex)
+  {
+    return m_aSegments[nSegment].matches (sName, nIndex);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Path", m_sPath).getToString ();
+  }
+}
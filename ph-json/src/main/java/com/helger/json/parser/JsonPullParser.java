@@ -0,0 +1,526 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.collection.NonBlockingStack;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.json.IJson;
+import com.helger.json.parser.handler.CollectingJsonParserHandler;
+import com.helger.json.parser.handler.IJsonParserHandler;
+
+/**
+ * A pull based ("StAX like") JSON reader on top of {@link JsonParser}. Each
+ * call to {@link #nextToken()} reads exactly the next structural or value
+ * token, so arbitrarily large documents can be processed with a constant
+ * amount of memory. Sub trees can be materialized on demand via
+ * {@link #readValueAsJson()} and values matching a {@link JsonPathFilter} can
+ * be extracted via {@link #forEachMatch(JsonPathFilter, Consumer)}.
+ *
+ * <pre>
+ * final JsonPullParser aPP = new JsonPullParser (aReader);
+ * aPP.forEachMatch (new JsonPathFilter ("$.items[*]"), aItem -&gt; ...);
+ * </pre>
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public class JsonPullParser
+{
+  /**
+   * The status of a currently open array or object.
+   */
+  private static final class Frame
+  {
+    private final boolean m_bObject;
+    private final String m_sNameInParent;
+    // Current member name in objects
+    private String m_sName;
+    // Current element index in arrays
+    private int m_nIndex = -1;
+
+    Frame (final boolean bObject, @Nullable final String sNameInParent)
+    {
+      m_bObject = bObject;
+      m_sNameInParent = sNameInParent;
+    }
+  }
+
+  /**
+   * Remembers the last token reported by the parser.
+   */
+  private final class TokenHandler implements IJsonParserHandler
+  {
+    private void _set (@Nonnull final EJsonToken eToken)
+    {
+      if (m_eToken != null)
+        throw new IllegalStateException ("Internal error: more than one token per parsing step");
+      m_eToken = eToken;
+    }
+
+    @Override
+    public boolean isOriginalTextRequired ()
+    {
+      return false;
+    }
+
+    public void onWhitespace (@Nonnull @Nonempty final String sWhitespace)
+    {}
+
+    public void onComment (@Nonnull final String sComment)
+    {}
+
+    public void onString (@Nonnull final String sString, @Nonnull final String sUnescaped)
+    {
+      _set (EJsonToken.STRING);
+      m_sString = sUnescaped;
+    }
+
+    public void onNumber (@Nonnull final String sNumber, @Nonnull final Number aNumber)
+    {
+      _set (EJsonToken.NUMBER);
+      m_aNumber = aNumber;
+    }
+
+    public void onFalse ()
+    {
+      _set (EJsonToken.FALSE);
+    }
+
+    public void onTrue ()
+    {
+      _set (EJsonToken.TRUE);
+    }
+
+    public void onNull ()
+    {
+      _set (EJsonToken.NULL);
+    }
+
+    public void onArrayStart ()
+    {
+      _set (EJsonToken.START_ARRAY);
+    }
+
+    public void onArrayNextElement ()
+    {}
+
+    public void onArrayEnd ()
+    {
+      _set (EJsonToken.END_ARRAY);
+    }
+
+    public void onObjectStart ()
+    {
+      _set (EJsonToken.START_OBJECT);
+    }
+
+    public void onObjectName (@Nonnull final String sString, @Nonnull final String sName)
+    {
+      _set (EJsonToken.NAME);
+      m_sString = sName;
+    }
+
+    public void onObjectColon ()
+    {}
+
+    public void onObjectNextElement ()
+    {}
+
+    public void onObjectEnd ()
+    {
+      _set (EJsonToken.END_OBJECT);
+    }
+  }
+
+  private final JsonParser m_aParser;
+  private final NonBlockingStack <Frame> m_aFrames = new NonBlockingStack <> ();
+  private boolean m_bEndReached = false;
+
+  // Current token
+  private EJsonToken m_eToken;
+  private String m_sCurrentName;
+  private String m_sString;
+  private Number m_aNumber;
+
+  /**
+   * Constructor
+   *
+   * @param aReader
+   *        The reader to read from. Does not need to be buffered. May not be
+   *        <code>null</code>.
+   */
+  public JsonPullParser (@Nonnull @WillNotClose final Reader aReader)
+  {
+    this (aReader, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aReader
+   *        The reader to read from. Does not need to be buffered. May not be
+   *        <code>null</code>.
+   * @param aCustomizeCallback
+   *        An optional {@link JsonParser} customization callback. May be
+   *        <code>null</code>.
+   */
+  public JsonPullParser (@Nonnull @WillNotClose final Reader aReader,
+                         @Nullable final IJsonParserCustomizeCallback aCustomizeCallback)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    m_aParser = new JsonParser (aReader, new TokenHandler ());
+    if (aCustomizeCallback != null)
+      aCustomizeCallback.customizeJsonParser (m_aParser);
+  }
+
+  private void _onValueStart ()
+  {
+    if (m_aFrames.isEmpty ())
+      m_sCurrentName = null;
+    else
+    {
+      final Frame aParent = m_aFrames.peek ();
+      if (aParent.m_bObject)
+        m_sCurrentName = aParent.m_sName;
+      else
+      {
+        aParent.m_nIndex++;
+        m_sCurrentName = null;
+      }
+    }
+  }
+
+  /**
+   * Read the next token.
+   *
+   * @return The next token or <code>null</code> if the end of the input was
+   *         reached.
+   * @throws JsonParseException
+   *         In case the JSON is invalid
+   */
+  @Nullable
+  public EJsonToken nextToken () throws JsonParseException
+  {
+    m_eToken = null;
+    m_sString = null;
+    m_aNumber = null;
+    while (m_eToken == null && !m_bEndReached)
+      if (!m_aParser.parseStep ())
+        m_bEndReached = true;
+
+    final EJsonToken eToken = m_eToken;
+    if (eToken != null)
+      switch (eToken)
+      {
+        case START_ARRAY:
+        case START_OBJECT:
+          _onValueStart ();
+          m_aFrames.push (new Frame (eToken == EJsonToken.START_OBJECT, m_sCurrentName));
+          break;
+        case END_ARRAY:
+        case END_OBJECT:
+          m_sCurrentName = m_aFrames.pop ().m_sNameInParent;
+          break;
+        case NAME:
+          m_aFrames.peek ().m_sName = m_sString;
+          m_sCurrentName = m_sString;
+          break;
+        default:
+          _onValueStart ();
+          break;
+      }
+    else
+      m_sCurrentName = null;
+    return eToken;
+  }
+
+  /**
+   * @return The token last returned by {@link #nextToken()}. May be
+   *         <code>null</code> before the first call and at the end of input.
+   */
+  @Nullable
+  public EJsonToken getCurrentToken ()
+  {
+    return m_eToken;
+  }
+
+  /**
+   * @return The object member name the current token belongs to. For
+   *         {@link EJsonToken#NAME} this is the name itself, for values and
+   *         for start and end of arrays and objects it is the name of the
+   *         containing object member. <code>null</code> for array elements
+   *         and the root value.
+   */
+  @Nullable
+  public String getCurrentName ()
+  {
+    return m_sCurrentName;
+  }
+
+  /**
+   * @return The unescaped string value for {@link EJsonToken#STRING} and
+   *         {@link EJsonToken#NAME}, <code>null</code> otherwise.
+   */
+  @Nullable
+  public String getStringValue ()
+  {
+    return m_sString;
+  }
+
+  /**
+   * @return The numeric value for {@link EJsonToken#NUMBER},
+   *         <code>null</code> otherwise.
+   */
+  @Nullable
+  public Number getNumberValue ()
+  {
+    return m_aNumber;
+  }
+
+  /**
+   * @return The number of currently open arrays and objects. Includes the
+   *         collection that was just started with
+   *         {@link EJsonToken#START_ARRAY} or {@link EJsonToken#START_OBJECT}.
+   */
+  @Nonnegative
+  public int getDepth ()
+  {
+    return m_aFrames.size ();
+  }
+
+  /**
+   * @return The number of arrays and objects enclosing the current value.
+   */
+  @Nonnegative
+  private int _getValueDepth ()
+  {
+    final int ret = m_aFrames.size ();
+    return m_eToken != null && m_eToken.isStartCollection () ? ret - 1 : ret;
+  }
+
+  /**
+   * @return The path of the current token in the notation of
+   *         {@link JsonPathFilter} (e.g. <code>$.items[3].id</code>). Never
+   *         <code>null</code>.
+   */
+  @Nonnull
+  @Nonempty
+  public String getCurrentPath ()
+  {
+    final StringBuilder aSB = new StringBuilder ("$");
+    final int nDepth = m_eToken != null && m_eToken.isValueStart () ? _getValueDepth () : m_aFrames.size ();
+    for (int i = 0; i < nDepth; ++i)
+    {
+      final Frame aFrame = m_aFrames.get (i);
+      if (aFrame.m_bObject)
+      {
+        if (aFrame.m_sName != null)
+          aSB.append ('.').append (aFrame.m_sName);
+      }
+      else
+        if (aFrame.m_nIndex >= 0)
+          aSB.append ('[').append (aFrame.m_nIndex).append (']');
+    }
+    return aSB.toString ();
+  }
+
+  private boolean _matchesPrefix (@Nonnull final JsonPathFilter aFilter, @Nonnegative final int nDepth)
+  {
+    for (int i = 0; i < nDepth; ++i)
+    {
+      final Frame aFrame = m_aFrames.get (i);
+      if (!aFilter.matchesSegment (i, aFrame.m_bObject ? aFrame.m_sName : null, aFrame.m_nIndex))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Check if the current value matches the provided path filter.
+   *
+   * @param aFilter
+   *        The filter to check. May not be <code>null</code>.
+   * @return <code>true</code> if the current token starts a value and the
+   *         path of this value matches the filter.
+   */
+  public boolean matches (@Nonnull final JsonPathFilter aFilter)
+  {
+    ValueEnforcer.notNull (aFilter, "Filter");
+    if (m_eToken == null || !m_eToken.isValueStart ())
+      return false;
+    final int nDepth = _getValueDepth ();
+    return nDepth == aFilter.getSegmentCount () && _matchesPrefix (aFilter, nDepth);
+  }
+
+  /**
+   * If the current token is {@link EJsonToken#START_ARRAY} or
+   * {@link EJsonToken#START_OBJECT}, skip all tokens until the matching end
+   * token. Afterwards the current token is the end token. For all other tokens
+   * this method does nothing.
+   *
+   * @throws JsonParseException
+   *         In case the JSON is invalid
+   */
+  public void skipChildren () throws JsonParseException
+  {
+    if (m_eToken != null && m_eToken.isStartCollection ())
+    {
+      final int nTargetDepth = m_aFrames.size () - 1;
+      while (m_aFrames.size () > nTargetDepth)
+        if (nextToken () == null)
+          break;
+    }
+  }
+
+  private static void _feed (@Nonnull final IJsonParserHandler aHandler,
+                             @Nonnull final EJsonToken eToken,
+                             @Nullable final String sString,
+                             @Nullable final Number aNumber)
+  {
+    switch (eToken)
+    {
+      case START_ARRAY:
+        aHandler.onArrayStart ();
+        break;
+      case END_ARRAY:
+        aHandler.onArrayEnd ();
+        break;
+      case START_OBJECT:
+        aHandler.onObjectStart ();
+        break;
+      case END_OBJECT:
+        aHandler.onObjectEnd ();
+        break;
+      case NAME:
+        aHandler.onObjectName (sString, sString);
+        break;
+      case STRING:
+        aHandler.onString (sString, sString);
+        break;
+      case NUMBER:
+        aHandler.onNumber ("", aNumber);
+        break;
+      case TRUE:
+        aHandler.onTrue ();
+        break;
+      case FALSE:
+        aHandler.onFalse ();
+        break;
+      case NULL:
+        aHandler.onNull ();
+        break;
+    }
+  }
+
+  /**
+   * Materialize the value starting at the current token. For simple values
+   * only the current token is used, for arrays and objects all tokens until
+   * the matching end token are consumed.
+   *
+   * @return The read value. Never <code>null</code>.
+   * @throws IllegalStateException
+   *         If the current token does not start a value
+   * @throws JsonParseException
+   *         In case the JSON is invalid
+   */
+  @Nonnull
+  public IJson readValueAsJson () throws JsonParseException
+  {
+    if (m_eToken == null || !m_eToken.isValueStart ())
+      throw new IllegalStateException ("The current token " + m_eToken + " does not start a value");
+
+    final CollectingJsonParserHandler aHandler = new CollectingJsonParserHandler ();
+    _feed (aHandler, m_eToken, m_sString, m_aNumber);
+    if (m_eToken.isStartCollection ())
+    {
+      final int nTargetDepth = m_aFrames.size () - 1;
+      while (m_aFrames.size () > nTargetDepth)
+      {
+        final EJsonToken eToken = nextToken ();
+        if (eToken == null)
+          break;
+        _feed (aHandler, eToken, m_sString, m_aNumber);
+      }
+    }
+    return aHandler.getJson ();
+  }
+
+  /**
+   * Read the remaining document and pass all values matching the provided
+   * filter to the consumer. Only the matching values are materialized and sub
+   * trees that cannot contain a match are skipped, so the memory consumption
+   * does not depend on the document size.
+   *
+   * @param aFilter
+   *        The filter to use. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer that is invoked for each matching value. May not be
+   *        <code>null</code>.
+   * @return The number of matching values.
+   * @throws JsonParseException
+   *         In case the JSON is invalid
+   */
+  @Nonnegative
+  public int forEachMatch (@Nonnull final JsonPathFilter aFilter,
+                           @Nonnull final Consumer <? super IJson> aConsumer) throws JsonParseException
+  {
+    ValueEnforcer.notNull (aFilter, "Filter");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    final int nSegmentCount = aFilter.getSegmentCount ();
+    int ret = 0;
+    EJsonToken eToken;
+    while ((eToken = nextToken ()) != null)
+      if (eToken.isValueStart ())
+      {
+        final int nDepth = _getValueDepth ();
+        if (nDepth == nSegmentCount && _matchesPrefix (aFilter, nDepth))
+        {
+          aConsumer.accept (readValueAsJson ());
+          ++ret;
+        }
+        else
+          if (eToken.isStartCollection () && (nDepth >= nSegmentCount || !_matchesPrefix (aFilter, nDepth)))
+          {
+            // No match possible inside
+            skipChildren ();
+          }
+      }
+    return ret;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Token", m_eToken)
+                                       .append ("Depth", m_aFrames.size ())
+                                       .append ("EndReached", m_bEndReached)
+                                       .getToString ();
+  }
+}
@@ -36,6 +36,33 @@ import com.helger.commons.string.ToStringGenerator;
 @NotThreadSafe
 public class JsonStringBuilder implements Serializable
 {
+  /** All powers of 10 that can be exactly represented as a double */
+  private static final double [] EXACT_POWERS_OF_10 = { 1e0,
+                                                        1e1,
+                                                        1e2,
+                                                        1e3,
+                                                        1e4,
+                                                        1e5,
+                                                        1e6,
+                                                        1e7,
+                                                        1e8,
+                                                        1e9,
+                                                        1e10,
+                                                        1e11,
+                                                        1e12,
+                                                        1e13,
+                                                        1e14,
+                                                        1e15,
+                                                        1e16,
+                                                        1e17,
+                                                        1e18,
+                                                        1e19,
+                                                        1e20,
+                                                        1e21,
+                                                        1e22 };
+  /** Maximum number of digits so that the mantissa is always &lt; 2^53 */
+  private static final int MAX_EXACT_DIGITS = 15;
+
   protected char [] m_aBuf;
   protected int m_nLen;
   private transient String m_sCache;
@@ -70,6 +97,27 @@ public class JsonStringBuilder implements Serializable
     m_aBuf[m_nLen++] = c;
   }
 
+  /**
+   * Append a range of characters.
+   *
+   * @param aChars
+   *        The source array. May not be <code>null</code>.
+   * @param nOfs
+   *        The offset into the source array. Must be &ge; 0.
+   * @param nLen
+   *        The number of characters to append. Must be &ge; 0.
+   * @since 9.0.0
+   */
+  public void append (@Nonnull final char [] aChars, @Nonnegative final int nOfs, @Nonnegative final int nLen)
+  {
+    m_sCache = null;
+    final int nNewLen = m_nLen + nLen;
+    if (nNewLen > m_aBuf.length)
+      _expandCapacity (nNewLen);
+    System.arraycopy (aChars, nOfs, m_aBuf, m_nLen, nLen);
+    m_nLen = nNewLen;
+  }
+
   public boolean hasContent ()
   {
     return m_nLen > 0;
@@ -90,11 +138,13 @@ public class JsonStringBuilder implements Serializable
 
   public void reset ()
   {
+    m_sCache = null;
     m_nLen = 0;
   }
 
   public void backup (final int n)
   {
+    m_sCache = null;
     m_nLen -= n;
   }
 
@@ -110,9 +160,92 @@ public class JsonStringBuilder implements Serializable
     return new BigInteger (getAsString (), 10);
   }
 
+  /**
+   * Try to parse the content as a double without creating a String. This only
+   * works if the result can be computed exactly, that is if the mantissa has
+   * at most 15 digits and the decimal exponent is between -22 and 22. In this
+   * case a single, correctly rounded floating point operation delivers the
+   * same result as {@link Double#parseDouble(String)}.
+   *
+   * @return {@link Double#NaN} if the fast path is not applicable.
+   */
+  private double _getAsDoubleExact ()
+  {
+    final char [] aBuf = m_aBuf;
+    final int nLen = m_nLen;
+    int nPos = 0;
+
+    final boolean bNeg = nPos < nLen && aBuf[nPos] == '-';
+    if (bNeg)
+      nPos++;
+
+    long nMantissa = 0;
+    int nDigits = 0;
+    int nFractionDigits = 0;
+    boolean bInFraction = false;
+    for (; nPos < nLen; ++nPos)
+    {
+      final char c = aBuf[nPos];
+      if (c >= '0' && c <= '9')
+      {
+        if (++nDigits > MAX_EXACT_DIGITS)
+          return Double.NaN;
+        nMantissa = nMantissa * 10 + (c - '0');
+        if (bInFraction)
+          nFractionDigits++;
+      }
+      else
+        if (c == '.' && !bInFraction)
+          bInFraction = true;
+        else
+          break;
+    }
+    if (nDigits == 0)
+      return Double.NaN;
+
+    int nExponent = 0;
+    if (nPos < nLen)
+    {
+      final char c = aBuf[nPos++];
+      if (c != 'e' && c != 'E')
+        return Double.NaN;
+
+      boolean bNegExp = false;
+      if (nPos < nLen && (aBuf[nPos] == '+' || aBuf[nPos] == '-'))
+        bNegExp = aBuf[nPos++] == '-';
+
+      final int nExpStart = nPos;
+      for (; nPos < nLen; ++nPos)
+      {
+        final char cExp = aBuf[nPos];
+        if (cExp < '0' || cExp > '9' || nPos - nExpStart >= 3)
+          return Double.NaN;
+        nExponent = nExponent * 10 + (cExp - '0');
+      }
+      if (nPos == nExpStart)
+        return Double.NaN;
+      if (bNegExp)
+        nExponent = -nExponent;
+    }
+
+    nExponent -= nFractionDigits;
+    if (nExponent < -22 || nExponent > 22)
+      return Double.NaN;
+
+    double ret = nMantissa;
+    if (nExponent >= 0)
+      ret *= EXACT_POWERS_OF_10[nExponent];
+    else
+      ret /= EXACT_POWERS_OF_10[-nExponent];
+    return bNeg ? -ret : ret;
+  }
+
   @Nonnull
   public Double getAsDouble ()
   {
+    final double dExact = _getAsDoubleExact ();
+    if (!Double.isNaN (dExact))
+      return Double.valueOf (dExact);
     return Double.valueOf (Double.parseDouble (getAsString ()));
   }
 
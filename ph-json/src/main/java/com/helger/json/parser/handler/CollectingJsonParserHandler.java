@@ -20,28 +20,60 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
+import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.collection.NonBlockingStack;
 import com.helger.json.IJson;
 import com.helger.json.IJsonCollection;
-import com.helger.json.JsonArray;
-import com.helger.json.JsonObject;
+import com.helger.json.IJsonFactory;
 import com.helger.json.JsonValue;
 
 /**
  * This {@link IJsonParserHandler} constructs the whole JSON tree while parsing
  * it. The resulting JSON object can be retrieved via {@link #getJson()}. This
- * can be seen as the "DOM" JSON implementation.
+ * can be seen as the "DOM" JSON implementation.<br>
+ * The JSON arrays and objects are created via an {@link IJsonFactory}, so that
+ * e.g. the compact implementations can be used.
  *
  * @author Philip Helger
  */
 @NotThreadSafe
 public class CollectingJsonParserHandler implements IJsonParserHandler
 {
+  private final IJsonFactory m_aFactory;
   private IJson m_aJson;
   private final NonBlockingStack <IJsonCollection> m_aStack = new NonBlockingStack <> ();
   private final NonBlockingStack <String> m_aObjectName = new NonBlockingStack <> ();
 
+  public CollectingJsonParserHandler ()
+  {
+    this (IJsonFactory.DEFAULT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aFactory
+   *        The factory to create JSON arrays and objects. May not be
+   *        <code>null</code>.
+   * @since 9.0.0
+   */
+  public CollectingJsonParserHandler (@Nonnull final IJsonFactory aFactory)
+  {
+    m_aFactory = ValueEnforcer.notNull (aFactory, "Factory");
+  }
+
+  /**
+   * @return The factory used to create JSON arrays and objects. Never
+   *         <code>null</code>.
+   * @since 9.0.0
+   */
+  @Nonnull
+  public final IJsonFactory getFactory ()
+  {
+    return m_aFactory;
+  }
+
   private void _addToStackPeek (@Nonnull final IJson aValue)
   {
     // Debug only
@@ -79,6 +111,18 @@ public class CollectingJsonParserHandler implements IJsonParserHandler
     m_aStack.push (aValue);
   }
 
+  /**
+   * {@inheritDoc} This class does not need the original text. Subclasses
+   * require the original text by default, as they may override the callback
+   * methods. They may override this method to return <code>false</code> if
+   * they neither use the original text nor the whitespaces.
+   */
+  @Override
+  public boolean isOriginalTextRequired ()
+  {
+    return getClass () != CollectingJsonParserHandler.class;
+  }
+
   public void onWhitespace (@Nonnull @Nonempty final String sWhitespace)
   {}
 
@@ -112,7 +156,7 @@ public class CollectingJsonParserHandler implements IJsonParserHandler
 
   public void onArrayStart ()
   {
-    _addCollection (new JsonArray ());
+    _addCollection (m_aFactory.createArray ());
   }
 
   public void onArrayNextElement ()
@@ -125,7 +169,7 @@ public class CollectingJsonParserHandler implements IJsonParserHandler
 
   public void onObjectStart ()
   {
-    _addCollection (new JsonObject ());
+    _addCollection (m_aFactory.createObject ());
   }
 
   public void onObjectName (@Nonnull final String sString, @Nonnull final String sName)
@@ -31,6 +31,18 @@ import com.helger.commons.annotation.Nonempty;
 @Immutable
 public class DoNothingJsonParserHandler implements IJsonParserHandler
 {
+  /**
+   * {@inheritDoc} This class does not need the original text. Subclasses
+   * require the original text by default, as they may override the callback
+   * methods. They may override this method to return <code>false</code> if
+   * they neither use the original text nor the whitespaces.
+   */
+  @Override
+  public boolean isOriginalTextRequired ()
+  {
+    return getClass () != DoNothingJsonParserHandler.class;
+  }
+
   public void onWhitespace (@Nonnull @Nonempty final String sWhitespace)
   {}
 
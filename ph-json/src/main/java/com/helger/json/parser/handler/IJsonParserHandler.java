@@ -28,6 +28,25 @@ import com.helger.commons.annotation.Nonempty;
  */
 public interface IJsonParserHandler
 {
+  /**
+   * Determine whether this handler needs the original text. This is the first
+   * parameter of {@link #onString(String, String)} and
+   * {@link #onObjectName(String, String)} as well as the whitespaces passed to
+   * {@link #onWhitespace(String)}. If this method returns <code>false</code>
+   * the parser does not assemble the original text: the unescaped string is
+   * passed instead of the original string and whitespaces are not reported at
+   * all. The original text of numbers is always passed to
+   * {@link #onNumber(String, Number)}.
+   *
+   * @return <code>true</code> if the original text is required,
+   *         <code>false</code> if not. The default is <code>true</code>.
+   * @since 9.0.0
+   */
+  default boolean isOriginalTextRequired ()
+  {
+    return true;
+  }
+
   /**
    * Called when reading whitespace characters. If a comment is mixed within
    * whitespaces this method is called for every whitespaces part.
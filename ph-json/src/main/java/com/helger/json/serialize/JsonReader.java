@@ -22,6 +22,7 @@ import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -43,9 +44,12 @@ import com.helger.commons.io.stream.StreamHelper;
 import com.helger.commons.state.ESuccess;
 import com.helger.commons.state.EValidity;
 import com.helger.json.IJson;
+import com.helger.json.IJsonFactory;
 import com.helger.json.parser.IJsonParserCustomizeCallback;
 import com.helger.json.parser.JsonParseException;
 import com.helger.json.parser.JsonParser;
+import com.helger.json.parser.JsonPathFilter;
+import com.helger.json.parser.JsonPullParser;
 import com.helger.json.parser.errorhandler.IJsonParseExceptionCallback;
 import com.helger.json.parser.errorhandler.LoggingJsonParseExceptionCallback;
 import com.helger.json.parser.handler.CollectingJsonParserHandler;
@@ -69,6 +73,8 @@ public final class JsonReader
   // Use the LoggingJsonParseExceptionHandler for maximum backward compatibility
   @GuardedBy ("s_aRWLock")
   private static IJsonParseExceptionCallback s_aDefaultParseExceptionCallback = new LoggingJsonParseExceptionCallback ();
+  @GuardedBy ("s_aRWLock")
+  private static IJsonFactory s_aDefaultJsonFactory = IJsonFactory.DEFAULT;
 
   @PresentForCodeCoverage
   private static final JsonReader s_aInstance = new JsonReader ();
@@ -103,6 +109,36 @@ public final class JsonReader
     });
   }
 
+  /**
+   * @return The default factory used to create the JSON arrays and objects
+   *         while reading. Never <code>null</code>. By default this is
+   *         {@link IJsonFactory#DEFAULT}.
+   * @since 9.0.0
+   */
+  @Nonnull
+  public static IJsonFactory getDefaultJsonFactory ()
+  {
+    return s_aRWLock.readLocked ( () -> s_aDefaultJsonFactory);
+  }
+
+  /**
+   * Set the default factory used to create the JSON arrays and objects while
+   * reading. Use {@link IJsonFactory#COMPACT} to read into memory efficient
+   * data structures.
+   *
+   * @param aDefaultJsonFactory
+   *        The new default factory to be used. May not be <code>null</code>.
+   * @since 9.0.0
+   */
+  public static void setDefaultJsonFactory (@Nonnull final IJsonFactory aDefaultJsonFactory)
+  {
+    ValueEnforcer.notNull (aDefaultJsonFactory, "DefaultJsonFactory");
+
+    s_aRWLock.writeLocked ( () -> {
+      s_aDefaultJsonFactory = aDefaultJsonFactory;
+    });
+  }
+
   /**
    * Simple JSON parse method taking only the most basic parameters.
    *
@@ -412,7 +448,7 @@ public final class JsonReader
   private static IJson _readJson (@Nonnull @WillClose final Reader aReader,
                                   @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback)
   {
-    final CollectingJsonParserHandler aHandler = new CollectingJsonParserHandler ();
+    final CollectingJsonParserHandler aHandler = new CollectingJsonParserHandler (getDefaultJsonFactory ());
     if (parseJson (aReader, aHandler, (IJsonParserCustomizeCallback) null, aCustomExceptionCallback).isFailure ())
       return null;
     return aHandler.getJson ();
@@ -723,4 +759,93 @@ public final class JsonReader
 
     return _readJson (StreamHelper.getBuffered (aReader), aCustomExceptionCallback);
   }
+
+  /**
+   * Stream the Json from the passed {@link Reader} and pass all values matching
+   * the provided path filter to the consumer. Only the matching values are
+   * materialized, so the memory consumption does not depend on the size of
+   * the document.
+   *
+   * @param aReader
+   *        The reader to read from. Does not need to be buffered. May not be
+   *        <code>null</code>.
+   * @param aFilter
+   *        The path filter to apply. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer for all matching values. May not be <code>null</code>.
+   * @param aCustomExceptionCallback
+   *        A custom handler for unrecoverable errors. May be <code>null</code>.
+   * @return {@link ESuccess}
+   * @since 9.0.0
+   */
+  @Nonnull
+  public static ESuccess readMatching (@Nonnull @WillClose final Reader aReader,
+                                       @Nonnull final JsonPathFilter aFilter,
+                                       @Nonnull final Consumer <? super IJson> aConsumer,
+                                       @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.notNull (aFilter, "Filter");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    try
+    {
+      new JsonPullParser (aReader).forEachMatch (aFilter, aConsumer);
+      return ESuccess.SUCCESS;
+    }
+    catch (final JsonParseException ex)
+    {
+      // Unrecoverable error
+      if (aCustomExceptionCallback != null)
+        aCustomExceptionCallback.onException (ex);
+      else
+        getDefaultParseExceptionCallback ().onException (ex);
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      StreamHelper.close (aReader);
+    }
+  }
+
+  /**
+   * Stream the Json from the passed {@link InputStream} and pass all values
+   * matching the provided path filter to the consumer. Only the matching values
+   * are materialized, so the memory consumption does not depend on the size of
+   * the document.
+   *
+   * @param aIS
+   *        The input stream to use. May not be <code>null</code>.
+   * @param aFallbackCharset
+   *        The charset to be used in case no BOM is present. May not be
+   *        <code>null</code>.
+   * @param aFilter
+   *        The path filter to apply. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer for all matching values. May not be <code>null</code>.
+   * @param aCustomExceptionCallback
+   *        A custom handler for unrecoverable errors. May be <code>null</code>.
+   * @return {@link ESuccess}
+   * @since 9.0.0
+   */
+  @Nonnull
+  public static ESuccess readMatching (@Nonnull @WillClose final InputStream aIS,
+                                       @Nonnull final Charset aFallbackCharset,
+                                       @Nonnull final JsonPathFilter aFilter,
+                                       @Nonnull final Consumer <? super IJson> aConsumer,
+                                       @Nullable final IJsonParseExceptionCallback aCustomExceptionCallback)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    ValueEnforcer.notNull (aFallbackCharset, "FallbackCharset");
+
+    try
+    {
+      final Reader aReader = CharsetHelper.getReaderByBOM (aIS, aFallbackCharset);
+      return readMatching (aReader, aFilter, aConsumer, aCustomExceptionCallback);
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+    }
+  }
 }
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.commons.mock.CommonsTestHelper;
+import com.helger.json.parser.handler.CollectingJsonParserHandler;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * Test class for class {@link CompactJsonArray}.
+ *
+ * @author Philip Helger
+ */
+public final class CompactJsonArrayTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final CompactJsonArray aArray = new CompactJsonArray ();
+    assertTrue (aArray.isEmpty ());
+    aArray.add (5).add (1234567890123L).add (3.1234).add (true).add ("str").add (new JsonArray ().add (1));
+    assertEquals (6, aArray.getSize ());
+    assertEquals (Integer.valueOf (5), aArray.getValue (0));
+    assertEquals (Long.valueOf (1234567890123L), aArray.getValue (1));
+    assertEquals (Double.valueOf (3.1234), aArray.getValue (2));
+    assertEquals (Boolean.TRUE, aArray.getValue (3));
+    assertEquals ("str", aArray.getValue (4));
+    assertNotNull (aArray.getArrayAtIndex (5));
+    assertNull (aArray.get (6));
+    assertNull (aArray.get (-1));
+
+    // Same semantics as JsonValue.create (long)
+    assertEquals (Integer.valueOf (7), new CompactJsonArray ().add (7L).getValue (0));
+
+    assertTrue (aArray.contains (5));
+    assertTrue (aArray.contains (3.1234));
+    assertTrue (aArray.contains ("str"));
+    assertFalse (aArray.contains (6));
+
+    assertEquals ("[5,1234567890123,3.1234,true,\"str\",[1]]", aArray.getAsJsonString ());
+
+    // Insert and remove
+    aArray.addAt (0, JsonValue.create ("first"));
+    assertEquals ("first", aArray.getValue (0));
+    assertEquals (Integer.valueOf (5), aArray.getValue (1));
+    assertTrue (aArray.removeAtIndex (0).isChanged ());
+    assertFalse (aArray.removeAtIndex (99).isChanged ());
+    assertEquals ("[5,1234567890123,3.1234,true,\"str\",[1]]", aArray.getAsJsonString ());
+
+    final CompactJsonArray aSub = aArray.getSubArray (1, 4);
+    assertEquals ("[1234567890123,3.1234,true]", aSub.getAsJsonString ());
+
+    final CompactJsonArray aClone = aArray.getClone ();
+    assertEquals (aArray, aClone);
+    assertEquals (aArray.hashCode (), aClone.hashCode ());
+    aClone.getArrayAtIndex (5).add (2);
+    assertFalse (aArray.equals (aClone));
+    assertEquals (1, aArray.getArrayAtIndex (5).getSize ());
+  }
+
+  @Test
+  public void testLarge ()
+  {
+    final CompactJsonArray aArray = new CompactJsonArray ();
+    for (int i = 0; i < 1000; ++i)
+      aArray.add (i);
+    aArray.add ("end");
+    assertEquals (1001, aArray.getSize ());
+    for (int i = 0; i < 1000; ++i)
+      assertEquals (i, aArray.getValueAtIndex (i).getAsInt ());
+    int nCount = 0;
+    for (final IJson aJson : aArray)
+      if (aJson.isValue ())
+        nCount++;
+    assertEquals (1001, nCount);
+  }
+
+  @Test
+  public void testSerialize ()
+  {
+    final CompactJsonArray aArray = new CompactJsonArray ();
+    CommonsTestHelper.testDefaultSerialization (aArray);
+    aArray.add (5);
+    CommonsTestHelper.testDefaultSerialization (aArray);
+    aArray.add (3.1234);
+    CommonsTestHelper.testDefaultSerialization (aArray);
+    aArray.add ("This is a string");
+    CommonsTestHelper.testDefaultSerialization (aArray);
+    aArray.add (new JsonArray ().add ("nested").add (0).add (Double.valueOf (12.34)));
+    CommonsTestHelper.testDefaultSerialization (aArray);
+  }
+
+  @Test
+  public void testFactory ()
+  {
+    final String sJson = "{\"a\":[1,2.5,true,\"x\"],\"b\":{\"c\":null}}";
+    final CollectingJsonParserHandler aHandler = new CollectingJsonParserHandler (IJsonFactory.COMPACT);
+    assertTrue (JsonReader.parseJson (new NonBlockingStringReader (sJson), aHandler).isSuccess ());
+    final IJson aJson = aHandler.getJson ();
+    assertTrue (aJson instanceof CompactJsonObject);
+    assertTrue (aJson.getAsObject ().getAsArray ("a") instanceof CompactJsonArray);
+    assertTrue (aJson.getAsObject ().getAsObject ("b") instanceof CompactJsonObject);
+    assertEquals (sJson, aJson.getAsJsonString ());
+
+    final IJsonFactory aOld = JsonReader.getDefaultJsonFactory ();
+    JsonReader.setDefaultJsonFactory (IJsonFactory.COMPACT);
+    try
+    {
+      final IJson aRead = JsonReader.readFromString (sJson);
+      assertTrue (aRead instanceof CompactJsonObject);
+      assertEquals (aJson, aRead);
+    }
+    finally
+    {
+      JsonReader.setDefaultJsonFactory (aOld);
+    }
+    assertTrue (JsonReader.readFromString (sJson) instanceof JsonObject);
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.commons.mock.CommonsTestHelper;
+
+/**
+ * Test class for class {@link CompactJsonObject}.
+ *
+ * @author Philip Helger
+ */
+public final class CompactJsonObjectTest
+{
+  private static void _testSize (final int nSize)
+  {
+    final CompactJsonObject aObject = new CompactJsonObject ();
+    for (int i = 0; i < nSize; ++i)
+      aObject.add ("key" + i, i);
+    assertEquals (nSize, aObject.getSize ());
+    for (int i = 0; i < nSize; ++i)
+    {
+      assertTrue (aObject.containsKey ("key" + i));
+      assertEquals (i, aObject.getAsInt ("key" + i));
+    }
+    assertFalse (aObject.containsKey ("key" + nSize));
+    assertNull (aObject.get ("other"));
+
+    // Overwrite keeps the order
+    aObject.add ("key0", "new");
+    assertEquals (nSize, aObject.getSize ());
+    assertEquals ("key0", aObject.keySet ().getFirst ());
+    assertEquals ("new", aObject.getAsString ("key0"));
+
+    // Remove every second element
+    for (int i = 0; i < nSize; i += 2)
+      assertTrue (aObject.removeKey ("key" + i).isChanged ());
+    assertFalse (aObject.removeKey ("key0").isChanged ());
+    assertEquals (nSize / 2, aObject.getSize ());
+    for (int i = 0; i < nSize; ++i)
+      assertEquals (i % 2 == 1, aObject.containsKey ("key" + i));
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    // Below and above the hashing threshold
+    _testSize (2);
+    _testSize (CompactJsonObject.LINEAR_SEARCH_THRESHOLD);
+    _testSize (CompactJsonObject.LINEAR_SEARCH_THRESHOLD + 2);
+    _testSize (1000);
+  }
+
+  @Test
+  public void testEqualsAndClone ()
+  {
+    final CompactJsonObject aObject = new CompactJsonObject ();
+    aObject.add ("a", 1).add ("b", new JsonArray ().add ("x")).add ("c", new CompactJsonObject ().add ("d", true));
+    assertEquals ("{\"a\":1,\"b\":[\"x\"],\"c\":{\"d\":true}}", aObject.getAsJsonString ());
+
+    final CompactJsonObject aClone = aObject.getClone ();
+    assertEquals (aObject, aClone);
+    assertEquals (aObject.hashCode (), aClone.hashCode ());
+    aClone.getAsArray ("b").add ("y");
+    assertFalse (aObject.equals (aClone));
+    assertEquals (1, aObject.getAsArray ("b").getSize ());
+
+    // Order independent
+    final CompactJsonObject aReverse = new CompactJsonObject ();
+    aReverse.add ("c", new CompactJsonObject ().add ("d", true)).add ("b", new JsonArray ().add ("x")).add ("a", 1);
+    assertEquals (aObject, aReverse);
+    assertEquals (aObject.hashCode (), aReverse.hashCode ());
+
+    // Same content as a JsonObject
+    assertEquals (new JsonObject (aObject.getAll ()).getAll (), aObject.getAll ());
+    final IJson aValue = aObject.get ("b");
+    assertSame (aValue, aObject.getAll ().get ("b"));
+  }
+
+  @Test
+  public void testSerialize ()
+  {
+    final CompactJsonObject aObject = new CompactJsonObject ();
+    CommonsTestHelper.testDefaultSerialization (aObject);
+    aObject.add ("key1", true);
+    CommonsTestHelper.testDefaultSerialization (aObject);
+    aObject.add ("key2", 3.1234);
+    CommonsTestHelper.testDefaultSerialization (aObject);
+    aObject.add ("key3", "This is a string");
+    CommonsTestHelper.testDefaultSerialization (aObject);
+    aObject.add ("key4", new JsonArray ().add ("nested").add (0).add (Double.valueOf (12.34)));
+    CommonsTestHelper.testDefaultSerialization (aObject);
+    for (int i = 0; i < 20; ++i)
+      aObject.add ("more" + i, i);
+    CommonsTestHelper.testDefaultSerialization (aObject);
+  }
+}
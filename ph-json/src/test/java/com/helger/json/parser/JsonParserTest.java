@@ -17,7 +17,10 @@
 package com.helger.json.parser;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -28,9 +31,14 @@ import javax.annotation.Nullable;
 import org.junit.Test;
 
 import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.commons.string.StringHelper;
 import com.helger.json.IJson;
+import com.helger.json.IJsonArray;
+import com.helger.json.IJsonObject;
 import com.helger.json.IJsonValue;
 import com.helger.json.parser.handler.CollectingJsonParserHandler;
+import com.helger.json.parser.handler.DoNothingJsonParserHandler;
+import com.helger.json.parser.handler.StringAssemblyJsonParserHandler;
 import com.helger.json.serialize.JsonReader;
 
 /**
@@ -93,4 +101,127 @@ public final class JsonParserTest
     assertEquals (1, sValue.length ());
     assertEquals ('\u1234', sValue.charAt (0));
   }
+
+  @Test
+  public void testDouble ()
+  {
+    for (final String s : new String [] { "0.0",
+                                          "-0.0",
+                                          "1.5",
+                                          "-3.1415926535",
+                                          "0.1",
+                                          "123456789012.345",
+                                          "4.9e-324",
+                                          "1.25e-5",
+                                          "12.5E+3",
+                                          "0.000000000000001",
+                                          "9007199254740993.0" })
+    {
+      final IJsonValue aValue = (IJsonValue) _read (s, null);
+      assertNotNull (s, aValue);
+      assertEquals (s, Double.valueOf (s), aValue.getValue ());
+    }
+  }
+
+  @Test
+  public void testLargeStringsAcrossBufferBorders ()
+  {
+    final String sLong = StringHelper.getRepeated ('a', 10_000) + "\\\\" + StringHelper.getRepeated ('b', 5_000);
+    final String sJson = "[" + StringHelper.getRepeated (' ', 4_090) + "\"" + sLong + "\", \"x\"]";
+    final IJsonArray aArray = _read (sJson, aParser -> aParser.setTrackPosition (true)).getAsArray ();
+    assertNotNull (aArray);
+    assertEquals (2, aArray.getSize ());
+    final String sValue = aArray.getValueAtIndex (0).getAsString ();
+    assertEquals (15_001, sValue.length ());
+    assertEquals ('\\', sValue.charAt (10_000));
+    assertEquals ("x", aArray.getValueAtIndex (1).getAsString ());
+  }
+
+  @Test
+  public void testPositionTracking ()
+  {
+    final String sJson = "{\n  \"a\" : 1,\n  \"b\" : \"" + StringHelper.getRepeated ('x', 5000) + "\",\n  \"c\" : ]\n}";
+    final JsonParseException [] aEx = new JsonParseException [1];
+    assertTrue (JsonReader.parseJson (new NonBlockingStringReader (sJson),
+                                      new CollectingJsonParserHandler (),
+                                      aParser -> aParser.setTrackPosition (true),
+                                      ex -> aEx[0] = ex)
+                          .isFailure ());
+    assertNotNull (aEx[0]);
+    assertEquals (4, aEx[0].getErrorLine ());
+    assertEquals (9, aEx[0].getErrorColumn ());
+  }
+
+  @Test
+  public void testOriginalText ()
+  {
+    final String sJson = "{ \"a\\u0041\" : [ \"x\\ty\", 1.50, -17 ] }";
+    final StringAssemblyJsonParserHandler aHandler = new StringAssemblyJsonParserHandler ();
+    assertTrue (JsonReader.parseJson (new NonBlockingStringReader (sJson), aHandler).isSuccess ());
+    // Everything is kept as is
+    assertEquals (sJson, aHandler.getJsonString ());
+  }
+
+  @Test
+  public void testObjectNamesReused ()
+  {
+    final IJsonArray aArray = _read ("[{\"name\":1},{\"name\":2}]", null).getAsArray ();
+    final IJsonObject aObj1 = aArray.getObjectAtIndex (0);
+    final IJsonObject aObj2 = aArray.getObjectAtIndex (1);
+    assertSame (aObj1.keySet ().iterator ().next (), aObj2.keySet ().iterator ().next ());
+  }
+
+  @Test
+  public void testDeepNesting ()
+  {
+    // No recursion - no StackOverflowError
+    final int nDepth = 100_000;
+    final String sJson = StringHelper.getRepeated ('[', nDepth) + StringHelper.getRepeated (']', nDepth);
+    assertTrue (JsonReader.isValidJson (sJson));
+    assertFalse (JsonReader.isValidJson (sJson + "]"));
+  }
+
+  @Test
+  public void testFastModeContract ()
+  {
+    final String sJson = "[ 1.50, -17 ]";
+
+    // Only the exact class runs in fast mode
+    assertFalse (new CollectingJsonParserHandler ().isOriginalTextRequired ());
+    assertFalse (new DoNothingJsonParserHandler ().isOriginalTextRequired ());
+
+    // Number text is passed in fast mode as well
+    final StringBuilder aNumbers = new StringBuilder ();
+    final DoNothingJsonParserHandler aHandler = new DoNothingJsonParserHandler ()
+    {
+      @Override
+      public boolean isOriginalTextRequired ()
+      {
+        return false;
+      }
+
+      @Override
+      public void onNumber (@Nonnull final String sNumber, @Nonnull final Number aNumber)
+      {
+        aNumbers.append (sNumber).append (';');
+      }
+    };
+    assertTrue (JsonReader.parseJson (new NonBlockingStringReader (sJson), aHandler).isSuccess ());
+    assertEquals ("1.50;-17;", aNumbers.toString ());
+
+    // Subclasses receive the whitespaces by default
+    final StringBuilder aWhitespaces = new StringBuilder ();
+    final CollectingJsonParserHandler aCollector = new CollectingJsonParserHandler ()
+    {
+      @Override
+      public void onWhitespace (@Nonnull final String sWhitespace)
+      {
+        aWhitespaces.append (sWhitespace);
+      }
+    };
+    assertTrue (aCollector.isOriginalTextRequired ());
+    assertTrue (JsonReader.parseJson (new NonBlockingStringReader (sJson), aCollector).isSuccess ());
+    assertEquals ("   ", aWhitespaces.toString ());
+    assertEquals (2, aCollector.getJson ().getAsArray ().getSize ());
+  }
 }
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link JsonPathFilter}.
+ *
+ * @author Philip Helger
+ */
+public final class JsonPathFilterTest
+{
+  @Test
+  public void testBasic ()
+  {
+    JsonPathFilter aFilter = new JsonPathFilter ("$");
+    assertEquals ("$", aFilter.getPath ());
+    assertEquals (0, aFilter.getSegmentCount ());
+
+    aFilter = new JsonPathFilter ("$.items[*].id");
+    assertEquals (3, aFilter.getSegmentCount ());
+    assertTrue (aFilter.matchesSegment (0, "items", -1));
+    assertFalse (aFilter.matchesSegment (0, "item", -1));
+    assertFalse (aFilter.matchesSegment (0, null, 0));
+    assertTrue (aFilter.matchesSegment (1, null, 17));
+    assertTrue (aFilter.matchesSegment (1, "any", -1));
+    assertTrue (aFilter.matchesSegment (2, "id", -1));
+
+    aFilter = new JsonPathFilter ("$[2]['a.b'][\"c\"]");
+    assertEquals (3, aFilter.getSegmentCount ());
+    assertTrue (aFilter.matchesSegment (0, null, 2));
+    assertFalse (aFilter.matchesSegment (0, null, 1));
+    assertFalse (aFilter.matchesSegment (0, "2", -1));
+    assertTrue (aFilter.matchesSegment (1, "a.b", -1));
+    assertTrue (aFilter.matchesSegment (2, "c", -1));
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    for (final String s : new String [] { "items", "$..id", "$.", "$[", "$[-1]", "$[abc]", "$x" })
+      try
+      {
+        new JsonPathFilter (s);
+        fail (s);
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        // expected
+      }
+  }
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.json.IJson;
+import com.helger.json.JsonArray;
+import com.helger.json.JsonObject;
+import com.helger.json.serialize.JsonReader;
+
+/**
+ * Test class for class {@link JsonPullParser}.
+ *
+ * @author Philip Helger
+ */
+public final class JsonPullParserTest
+{
+  private static final String JSON = "{ \"name\" : \"x\", \"items\" : [ { \"id\" : 1, \"tags\" : [ true, null ] }, { \"id\" : 2.5 }, { \"other\" : false } ], \"id\" : \"root\" }";
+
+  @Test
+  public void testTokens () throws JsonParseException
+  {
+    final JsonPullParser aPP = new JsonPullParser (new NonBlockingStringReader (JSON));
+    assertNull (aPP.getCurrentToken ());
+    assertEquals (EJsonToken.START_OBJECT, aPP.nextToken ());
+    assertEquals (1, aPP.getDepth ());
+    assertEquals ("$", aPP.getCurrentPath ());
+    assertEquals (EJsonToken.NAME, aPP.nextToken ());
+    assertEquals ("name", aPP.getStringValue ());
+    assertEquals ("name", aPP.getCurrentName ());
+    assertEquals (EJsonToken.STRING, aPP.nextToken ());
+    assertEquals ("x", aPP.getStringValue ());
+    assertEquals ("name", aPP.getCurrentName ());
+    assertEquals ("$.name", aPP.getCurrentPath ());
+    assertEquals (EJsonToken.NAME, aPP.nextToken ());
+    assertEquals (EJsonToken.START_ARRAY, aPP.nextToken ());
+    assertEquals ("items", aPP.getCurrentName ());
+    assertEquals (EJsonToken.START_OBJECT, aPP.nextToken ());
+    assertNull (aPP.getCurrentName ());
+    assertEquals ("$.items[0]", aPP.getCurrentPath ());
+    assertEquals (EJsonToken.NAME, aPP.nextToken ());
+    assertEquals (EJsonToken.NUMBER, aPP.nextToken ());
+    assertEquals (Integer.valueOf (1), aPP.getNumberValue ());
+    assertEquals ("$.items[0].id", aPP.getCurrentPath ());
+    assertEquals (EJsonToken.NAME, aPP.nextToken ());
+    assertEquals (EJsonToken.START_ARRAY, aPP.nextToken ());
+    assertEquals (4, aPP.getDepth ());
+    aPP.skipChildren ();
+    assertEquals (EJsonToken.END_ARRAY, aPP.getCurrentToken ());
+    assertEquals ("tags", aPP.getCurrentName ());
+    assertEquals (3, aPP.getDepth ());
+    assertEquals (EJsonToken.END_OBJECT, aPP.nextToken ());
+    assertEquals (EJsonToken.START_OBJECT, aPP.nextToken ());
+    assertEquals ("$.items[1]", aPP.getCurrentPath ());
+
+    final IJson aItem = aPP.readValueAsJson ();
+    assertEquals (new JsonObject ().add ("id", 2.5), aItem);
+    assertEquals (EJsonToken.END_OBJECT, aPP.getCurrentToken ());
+
+    assertEquals (EJsonToken.START_OBJECT, aPP.nextToken ());
+    assertEquals (EJsonToken.NAME, aPP.nextToken ());
+    assertEquals (EJsonToken.FALSE, aPP.nextToken ());
+    assertEquals (EJsonToken.END_OBJECT, aPP.nextToken ());
+    assertEquals (EJsonToken.END_ARRAY, aPP.nextToken ());
+    assertEquals (EJsonToken.NAME, aPP.nextToken ());
+    assertEquals (EJsonToken.STRING, aPP.nextToken ());
+    assertEquals (EJsonToken.END_OBJECT, aPP.nextToken ());
+    assertEquals (0, aPP.getDepth ());
+    assertNull (aPP.nextToken ());
+    assertNull (aPP.nextToken ());
+  }
+
+  @Test
+  public void testForEachMatch () throws JsonParseException
+  {
+    final ICommonsList <IJson> aMatches = new CommonsArrayList <> ();
+    assertEquals (2,
+                  new JsonPullParser (new NonBlockingStringReader (JSON)).forEachMatch (new JsonPathFilter ("$.items[*].id"),
+                                                                                         aMatches::add));
+    assertEquals (1, aMatches.get (0).getAsValue ().getAsInt ());
+    assertEquals (2.5, aMatches.get (1).getAsValue ().getAsDouble (), 0);
+
+    aMatches.clear ();
+    new JsonPullParser (new NonBlockingStringReader (JSON)).forEachMatch (new JsonPathFilter ("$.items[0].tags"),
+                                                                           aMatches::add);
+    assertEquals (1, aMatches.size ());
+    assertEquals (new JsonArray ().add (true).add ((Object) null), aMatches.get (0));
+
+    aMatches.clear ();
+    new JsonPullParser (new NonBlockingStringReader (JSON)).forEachMatch (new JsonPathFilter ("$['id']"),
+                                                                           aMatches::add);
+    assertEquals (1, aMatches.size ());
+    assertEquals ("root", aMatches.get (0).getAsValue ().getAsString ());
+
+    aMatches.clear ();
+    new JsonPullParser (new NonBlockingStringReader (JSON)).forEachMatch (new JsonPathFilter ("$.*"), aMatches::add);
+    assertEquals (3, aMatches.size ());
+
+    aMatches.clear ();
+    new JsonPullParser (new NonBlockingStringReader (JSON)).forEachMatch (new JsonPathFilter ("$"), aMatches::add);
+    assertEquals (1, aMatches.size ());
+    assertEquals (JsonReader.readFromString (JSON), aMatches.get (0));
+  }
+
+  @Test
+  public void testLargeArray ()
+  {
+    // An endless-like stream of array elements is processed element by element
+    final int nCount = 100_000;
+    final StringBuilder aSB = new StringBuilder ("{\"items\":[");
+    for (int i = 0; i < nCount; ++i)
+    {
+      if (i > 0)
+        aSB.append (',');
+      aSB.append ("{\"id\":").append (i).append (",\"payload\":[1,2,3,{\"x\":\"y\"}]}");
+    }
+    aSB.append ("]}");
+
+    final int [] aSum = new int [2];
+    assertTrue (JsonReader.readMatching (new NonBlockingStringReader (aSB.toString ()),
+                                         new JsonPathFilter ("$.items[*].id"),
+                                         x -> {
+                                           aSum[0]++;
+                                           aSum[1] += x.getAsValue ().getAsInt ();
+                                         },
+                                         null)
+                          .isSuccess ());
+    assertEquals (nCount, aSum[0]);
+    assertEquals ((nCount - 1) * nCount / 2, aSum[1]);
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    final JsonPullParser aPP = new JsonPullParser (new NonBlockingStringReader ("[1, 2 }"));
+    try
+    {
+      while (aPP.nextToken () != null)
+      {}
+      fail ();
+    }
+    catch (final JsonParseException ex)
+    {
+      // expected
+    }
+
+    assertFalse (JsonReader.readMatching (new NonBlockingStringReader ("[1, 2 }"),
+                                          new JsonPathFilter ("$[*]"),
+                                          x -> {},
+                                          ex -> {})
+                           .isSuccess ());
+  }
+
+  @Test
+  public void testObjectNamesShared () throws JsonParseException
+  {
+    final JsonPullParser aPP = new JsonPullParser (new NonBlockingStringReader ("[{\"a\":1},{\"a\":2}]"));
+    aPP.nextToken ();
+    aPP.nextToken ();
+    aPP.nextToken ();
+    final String sName1 = aPP.getCurrentName ();
+    aPP.nextToken ();
+    aPP.nextToken ();
+    aPP.nextToken ();
+    aPP.nextToken ();
+    assertSame (sName1, aPP.getCurrentName ());
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.json.parser;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.commons.system.SystemProperties;
+import com.helger.commons.timing.StopWatch;
+import com.helger.json.parser.handler.CollectingJsonParserHandler;
+import com.helger.json.parser.handler.DoNothingJsonParserHandler;
+import com.helger.json.parser.handler.IJsonParserHandler;
+import com.helger.json.parser.handler.StringAssemblyJsonParserHandler;
+
+/**
+ * Measure the speed of {@link JsonParser} on a large generated JSON document
+ * with different handlers.
+ *
+ * @author Philip Helger
+ */
+public final class MainJsonParserSpeed
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (MainJsonParserSpeed.class);
+  private static final int WARMUP_RUNS = 10;
+  private static final int RUNS = 20;
+
+  private MainJsonParserSpeed ()
+  {}
+
+  @Nonnull
+  private static String _createLargeJson (final int nObjects)
+  {
+    final StringBuilder aSB = new StringBuilder (nObjects * 256);
+    aSB.append ("[\n");
+    for (int i = 0; i < nObjects; ++i)
+    {
+      if (i > 0)
+        aSB.append (",\n");
+      aSB.append ("  {\n")
+         .append ("    \"id\": ")
+         .append (i)
+         .append (",\n    \"guid\": \"")
+         .append (Integer.toHexString (i * 31 + 17))
+         .append ("-4711-abcd\",\n    \"active\": ")
+         .append ((i & 1) == 0)
+         .append (",\n    \"balance\": ")
+         .append (i * 1.25)
+         .append (",\n    \"picture\": null,\n    \"name\": \"Name ")
+         .append (i)
+         .append ("\",\n    \"about\": \"Some \\\"escaped\\\" text\\nin line ")
+         .append (i)
+         .append (" with \\u00e4 umlaut\",\n    \"tags\": [\"tag1\", \"tag2\", \"tag3\"],\n")
+         .append ("    \"location\": { \"latitude\": -")
+         .append (i % 90)
+         .append (".123456, \"longitude\": ")
+         .append (i % 180)
+         .append (".654321 }\n  }");
+    }
+    aSB.append ("\n]");
+    return aSB.toString ();
+  }
+
+  private static void _run (@Nonnull final String sName,
+                            @Nonnull final String sJson,
+                            @Nonnull final Supplier <? extends IJsonParserHandler> aHandlerFactory) throws JsonParseException
+  {
+    for (int i = 0; i < WARMUP_RUNS; ++i)
+      new JsonParser (new NonBlockingStringReader (sJson), aHandlerFactory.get ()).parse ();
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    for (int i = 0; i < RUNS; ++i)
+      new JsonParser (new NonBlockingStringReader (sJson), aHandlerFactory.get ()).parse ();
+    final long nMillis = aSW.stopAndGetMillis ();
+
+    final double dMillisPerRun = (double) nMillis / RUNS;
+    s_aLogger.info (sName +
+                    ": " +
+                    String.format (Locale.US, "%.1f", Double.valueOf (dMillisPerRun)) +
+                    " ms per run; " +
+                    String.format (Locale.US, "%.1f", Double.valueOf (sJson.length () / 1000d / dMillisPerRun)) +
+                    " MB/s");
+  }
+
+  public static void main (final String [] aArgs) throws JsonParseException
+  {
+    final String sJson = _createLargeJson (50_000);
+    s_aLogger.info ("Java " + SystemProperties.getJavaVersion () + "; JSON size " + sJson.length () + " chars");
+
+    _run ("CollectingJsonParserHandler", sJson, CollectingJsonParserHandler::new);
+    _run ("DoNothingJsonParserHandler", sJson, DoNothingJsonParserHandler::new);
+    _run ("StringAssemblyJsonParserHandler", sJson, StringAssemblyJsonParserHandler::new);
+  }
+}
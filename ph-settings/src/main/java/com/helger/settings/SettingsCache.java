@@ -33,7 +33,21 @@ public class SettingsCache extends Cache <String, ISettings>
 
   public SettingsCache (@Nonnull final ISettingsFactory <?> aSettingsFactory)
   {
-    super (aSettingsFactory::apply, 500, SettingsCache.class.getName ());
+    this (aSettingsFactory, DEFAULT_CONCURRENT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aSettingsFactory
+   *        The settings factory to use. May not be <code>null</code>.
+   * @param bConcurrent
+   *        <code>true</code> to use the concurrent cache engine.
+   * @since 9.0.0
+   */
+  public SettingsCache (@Nonnull final ISettingsFactory <?> aSettingsFactory, final boolean bConcurrent)
+  {
+    super (aSettingsFactory::apply, 500, SettingsCache.class.getName (), bConcurrent);
     m_aSettingsFactory = ValueEnforcer.notNull (aSettingsFactory, "SettingsFactory");
   }
 
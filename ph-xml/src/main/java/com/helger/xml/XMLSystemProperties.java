@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.system.SystemProperties;
 import com.helger.xml.serialize.read.DOMReader;
+import com.helger.xml.serialize.read.SAXReader;
 
 /**
  * This class wraps all the special Java XML system properties.
@@ -58,6 +59,7 @@ public final class XMLSystemProperties
     // Clear Document Builder factory.
     XMLFactory.reinitialize ();
     DOMReader.reinitialize ();
+    SAXReader.reinitialize ();
     s_aLogger.info ("XML processing system properties changed!");
   }
 
@@ -28,7 +28,6 @@ import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.OverrideOnDemand;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.callback.CallbackList;
-import com.helger.commons.collection.impl.CommonsEnumMap;
 import com.helger.commons.collection.impl.ICommonsIterable;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsMap;
@@ -48,7 +47,6 @@ public abstract class AbstractMicroNode implements IMicroNode
 {
   /** The parent node of this node. */
   private AbstractMicroNodeWithChildren m_aParentNode;
-  private CommonsEnumMap <EMicroEvent, CallbackList <IMicroEventTarget>> m_aEventTargets;
 
   /**
    * Callback that is invoked once a child is to be appended.
@@ -423,14 +421,10 @@ public abstract class AbstractMicroNode implements IMicroNode
 
   protected final void internalTriggerEvent (@Nonnull final EMicroEvent eEventType, @Nonnull final IMicroEvent aEvent)
   {
-    // Any event targets present?
-    if (m_aEventTargets != null && m_aEventTargets.isNotEmpty ())
-    {
-      // Get all event handler
-      final CallbackList <IMicroEventTarget> aTargets = m_aEventTargets.get (eEventType);
-      if (aTargets != null)
-        aTargets.forEach (x -> x.handleEvent (aEvent));
-    }
+    // Get all event handler of this node
+    final CallbackList <IMicroEventTarget> aTargets = MicroEventTargetRegistry.getAllEventTargets (this, eEventType);
+    if (aTargets != null)
+      aTargets.forEach (x -> x.handleEvent (aEvent));
 
     // Bubble to parent
     if (m_aParentNode != null)
@@ -441,8 +435,18 @@ public abstract class AbstractMicroNode implements IMicroNode
                                 @Nonnull final IMicroNode aSourceNode,
                                 @Nonnull final IMicroNode aTargetNode)
   {
-    // Create the event only once
-    internalTriggerEvent (eEventType, new MicroEvent (eEventType, aSourceNode, aTargetNode));
+    // Create the event only once and only if this node or a parent node may
+    // have a listener
+    AbstractMicroNode aNode = MicroEventTargetRegistry.isEmpty () ? null : this;
+    while (aNode != null)
+    {
+      if (MicroEventTargetRegistry.mayHaveEventTargets (aNode))
+      {
+        internalTriggerEvent (eEventType, new MicroEvent (eEventType, aSourceNode, aTargetNode));
+        break;
+      }
+      aNode = aNode.m_aParentNode;
+    }
   }
 
   @Nonnull
@@ -451,11 +455,7 @@ public abstract class AbstractMicroNode implements IMicroNode
     ValueEnforcer.notNull (eEventType, "EventType");
     ValueEnforcer.notNull (aTarget, "EventTarget");
 
-    if (m_aEventTargets == null)
-      m_aEventTargets = new CommonsEnumMap <> (EMicroEvent.class);
-    final CallbackList <IMicroEventTarget> aSet = m_aEventTargets.computeIfAbsent (eEventType,
-                                                                                   k -> new CallbackList <> ());
-    return EChange.valueOf (aSet.add (aTarget));
+    return MicroEventTargetRegistry.registerEventTarget (this, eEventType, aTarget);
   }
 
   @Nonnull
@@ -464,27 +464,21 @@ public abstract class AbstractMicroNode implements IMicroNode
     ValueEnforcer.notNull (eEventType, "EventType");
     ValueEnforcer.notNull (aTarget, "EventTarget");
 
-    if (m_aEventTargets != null && m_aEventTargets.isNotEmpty ())
-    {
-      final CallbackList <IMicroEventTarget> aSet = m_aEventTargets.get (eEventType);
-      if (aSet != null)
-        return aSet.removeObject (aTarget);
-    }
-    return EChange.UNCHANGED;
+    return MicroEventTargetRegistry.unregisterEventTarget (this, eEventType, aTarget);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public ICommonsMap <EMicroEvent, CallbackList <IMicroEventTarget>> getAllEventTargets ()
   {
-    return new CommonsEnumMap <> (m_aEventTargets);
+    return MicroEventTargetRegistry.getAllEventTargets (this);
   }
 
   @Nonnull
   @ReturnsMutableCopy
   public CallbackList <IMicroEventTarget> getAllEventTargets (@Nullable final EMicroEvent eEvent)
   {
-    return new CallbackList <> (m_aEventTargets == null ? null : m_aEventTargets.get (eEvent));
+    return new CallbackList <> (MicroEventTargetRegistry.getAllEventTargets (this, eEvent));
   }
 
   @Override
@@ -492,7 +486,6 @@ public abstract class AbstractMicroNode implements IMicroNode
   {
     return new ToStringGenerator (this).appendIfNotNull ("ParentNodeName",
                                                          m_aParentNode == null ? null : m_aParentNode.getNodeName ())
-                                       .appendIfNotNull ("EventTargets", m_aEventTargets)
                                        .getToString ();
   }
 }
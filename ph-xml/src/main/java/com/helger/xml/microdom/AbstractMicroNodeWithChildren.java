@@ -45,6 +45,13 @@ import com.helger.commons.typeconvert.TypeConverter;
  */
 public abstract class AbstractMicroNodeWithChildren extends AbstractMicroNode implements IMicroNodeWithChildren
 {
+  /**
+   * Initial capacity of the child list. Most elements have only a single text
+   * child and with compressed references an array of size 2 occupies the same
+   * memory as an array of size 1.
+   */
+  private static final int INITIAL_CHILD_CAPACITY = 2;
+
   /** The list of child elements. May be <code>null</code>. */
   private ICommonsList <IMicroNode> m_aChildren;
 
@@ -59,6 +66,22 @@ public abstract class AbstractMicroNodeWithChildren extends AbstractMicroNode im
     return m_aChildren;
   }
 
+  /**
+   * Ensure that the list of child nodes can hold at least the passed number of
+   * nodes without resizing. This is an optimization for readers that know the
+   * expected number of child nodes in advance. It has no effect if this node
+   * already has children.
+   *
+   * @param nMinCapacity
+   *        The expected number of child nodes. Must be &ge; 0.
+   * @since 9.0.0
+   */
+  public final void ensureChildCapacity (@Nonnegative final int nMinCapacity)
+  {
+    if (m_aChildren == null && nMinCapacity > 0)
+      m_aChildren = new CommonsArrayList <> (nMinCapacity);
+  }
+
   private void _afterInsertAsChildOfThis (@Nonnull final AbstractMicroNode aChildNode)
   {
     aChildNode.internalSetParentNode (this);
@@ -71,7 +94,7 @@ public abstract class AbstractMicroNodeWithChildren extends AbstractMicroNode im
     if (aChildNode.isDocument ())
       throw new MicroException ("Cannot add document to documents");
     if (m_aChildren == null)
-      m_aChildren = new CommonsArrayList <> ();
+      m_aChildren = new CommonsArrayList <> (INITIAL_CHILD_CAPACITY);
     m_aChildren.add (aChildNode);
     _afterInsertAsChildOfThis (aChildNode);
   }
@@ -114,7 +137,7 @@ public abstract class AbstractMicroNodeWithChildren extends AbstractMicroNode im
     if (aChildNode.isDocument ())
       throw new MicroException ("Cannot add document to nodes");
     if (m_aChildren == null)
-      m_aChildren = new CommonsArrayList <> ();
+      m_aChildren = new CommonsArrayList <> (INITIAL_CHILD_CAPACITY);
     m_aChildren.add (Math.min (nIndex, m_aChildren.size ()), aChildNode);
     _afterInsertAsChildOfThis (aChildNode);
   }
@@ -16,6 +16,7 @@
  */
 package com.helger.xml.microdom;
 
+import java.util.Arrays;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -33,6 +34,7 @@ import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.collection.impl.CommonsArrayList;
 import com.helger.commons.collection.impl.CommonsLinkedHashMap;
+import com.helger.commons.collection.impl.CommonsLinkedHashSet;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.collection.impl.ICommonsOrderedMap;
 import com.helger.commons.collection.impl.ICommonsOrderedSet;
@@ -57,9 +59,20 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
 {
   private static final Logger s_aLogger = LoggerFactory.getLogger (MicroElement.class);
 
+  /**
+   * Up to this number of attributes, the attributes are stored in a flat array
+   * that is searched linearly. Above, a map is used.
+   *
+   * @since 9.0.0
+   */
+  public static final int ATTRIBUTE_ARRAY_THRESHOLD = 8;
+
   private String m_sNamespaceURI;
   private final String m_sTagName;
-  private ICommonsOrderedMap <IMicroQName, MicroAttribute> m_aAttrs;
+  // null, a MicroAttribute[] with trailing null slots for up to
+  // ATTRIBUTE_ARRAY_THRESHOLD attributes or an ICommonsOrderedMap<IMicroQName,
+  // MicroAttribute>. A single field keeps the element small.
+  private Object m_aAttrs;
 
   public MicroElement (@Nonnull @Nonempty final String sTagName)
   {
@@ -108,20 +121,79 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
     return m_sTagName;
   }
 
+  @Nullable
+  private MicroAttribute [] _getAttrArray ()
+  {
+    return m_aAttrs instanceof MicroAttribute [] ? (MicroAttribute []) m_aAttrs : null;
+  }
+
+  @SuppressWarnings ("unchecked")
+  @Nullable
+  private ICommonsOrderedMap <IMicroQName, MicroAttribute> _getAttrMap ()
+  {
+    return m_aAttrs instanceof ICommonsOrderedMap ? (ICommonsOrderedMap <IMicroQName, MicroAttribute>) m_aAttrs : null;
+  }
+
+  @Nonnegative
+  private static int _getUsedCount (@Nonnull final MicroAttribute [] aArray)
+  {
+    int ret = 0;
+    while (ret < aArray.length && aArray[ret] != null)
+      ret++;
+    return ret;
+  }
+
+  private static int _indexOf (@Nonnull final MicroAttribute [] aArray, @Nonnull final IMicroQName aQName)
+  {
+    for (int i = 0; i < aArray.length; ++i)
+    {
+      final MicroAttribute aAttr = aArray[i];
+      if (aAttr == null)
+        break;
+      if (aAttr.getAttributeQName ().equals (aQName))
+        return i;
+    }
+    return -1;
+  }
+
+  private void _forEachAttr (@Nonnull final Consumer <? super MicroAttribute> aConsumer)
+  {
+    final MicroAttribute [] aArray = _getAttrArray ();
+    if (aArray != null)
+    {
+      for (final MicroAttribute aAttr : aArray)
+      {
+        if (aAttr == null)
+          break;
+        aConsumer.accept (aAttr);
+      }
+    }
+    else
+    {
+      final ICommonsOrderedMap <IMicroQName, MicroAttribute> aMap = _getAttrMap ();
+      if (aMap != null)
+        aMap.forEachValue (aConsumer);
+    }
+  }
+
   public boolean hasAttributes ()
   {
-    return m_aAttrs != null && m_aAttrs.isNotEmpty ();
+    return getAttributeCount () > 0;
   }
 
   public boolean hasNoAttributes ()
   {
-    return m_aAttrs == null || m_aAttrs.isEmpty ();
+    return getAttributeCount () == 0;
   }
 
   @Nonnegative
   public int getAttributeCount ()
   {
-    return m_aAttrs == null ? 0 : m_aAttrs.size ();
+    final MicroAttribute [] aArray = _getAttrArray ();
+    if (aArray != null)
+      return _getUsedCount (aArray);
+    final ICommonsOrderedMap <IMicroQName, MicroAttribute> aMap = _getAttrMap ();
+    return aMap == null ? 0 : aMap.size ();
   }
 
   @Nullable
@@ -130,7 +202,9 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   {
     if (hasNoAttributes ())
       return null;
-    return m_aAttrs.copyOfValues ();
+    final ICommonsList <MicroAttribute> ret = new CommonsArrayList<> (getAttributeCount ());
+    _forEachAttr (ret::add);
+    return ret;
   }
 
   @Nullable
@@ -139,9 +213,9 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   {
     if (hasNoAttributes ())
       return null;
-    return new CommonsLinkedHashMap<> (m_aAttrs.values (),
-                                       IMicroAttribute::getAttributeQName,
-                                       IMicroAttribute::getAttributeValue);
+    final ICommonsOrderedMap <IMicroQName, String> ret = new CommonsLinkedHashMap<> ();
+    _forEachAttr (x -> ret.put (x.getAttributeQName (), x.getAttributeValue ()));
+    return ret;
   }
 
   @Nullable
@@ -150,33 +224,39 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   {
     if (hasNoAttributes ())
       return null;
-    return m_aAttrs.copyOfKeySet ();
+    final ICommonsOrderedSet <IMicroQName> ret = new CommonsLinkedHashSet<> ();
+    _forEachAttr (x -> ret.add (x.getAttributeQName ()));
+    return ret;
   }
 
   public void forAllAttributes (@Nonnull final Consumer <? super IMicroAttribute> aConsumer)
   {
-    if (m_aAttrs != null)
-      m_aAttrs.forEachValue (aConsumer);
+    _forEachAttr (aConsumer);
   }
 
   public void forAllAttributes (@Nonnull final BiConsumer <? super IMicroQName, ? super String> aConsumer)
   {
-    if (m_aAttrs != null)
-      m_aAttrs.forEachValue (a -> aConsumer.accept (a.getAttributeQName (), a.getAttributeValue ()));
+    _forEachAttr (a -> aConsumer.accept (a.getAttributeQName (), a.getAttributeValue ()));
   }
 
   public void forAllAttributes (@Nonnull final ITriConsumer <? super String, ? super String, ? super String> aConsumer)
   {
-    if (m_aAttrs != null)
-      m_aAttrs.forEachValue (x -> aConsumer.accept (x.getNamespaceURI (),
-                                                    x.getAttributeName (),
-                                                    x.getAttributeValue ()));
+    _forEachAttr (x -> aConsumer.accept (x.getNamespaceURI (), x.getAttributeName (), x.getAttributeValue ()));
   }
 
   @Nullable
   public MicroAttribute getAttributeObj (@Nullable final IMicroQName aQName)
   {
-    return aQName == null || m_aAttrs == null ? null : m_aAttrs.get (aQName);
+    if (aQName == null)
+      return null;
+    final MicroAttribute [] aArray = _getAttrArray ();
+    if (aArray != null)
+    {
+      final int nIndex = _indexOf (aArray, aQName);
+      return nIndex < 0 ? null : aArray[nIndex];
+    }
+    final ICommonsOrderedMap <IMicroQName, MicroAttribute> aMap = _getAttrMap ();
+    return aMap == null ? null : aMap.get (aQName);
   }
 
   @Nullable
@@ -201,15 +281,87 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
 
   public boolean hasAttribute (@Nullable final IMicroQName aAttrName)
   {
-    return m_aAttrs != null && aAttrName != null && m_aAttrs.containsKey (aAttrName);
+    return getAttributeObj (aAttrName) != null;
   }
 
   @Nonnull
   public EChange removeAttribute (@Nullable final IMicroQName aAttrName)
   {
-    if (m_aAttrs == null || aAttrName == null)
+    if (aAttrName == null)
       return EChange.UNCHANGED;
-    return m_aAttrs.removeObject (aAttrName);
+    final MicroAttribute [] aArray = _getAttrArray ();
+    if (aArray != null)
+    {
+      final int nIndex = _indexOf (aArray, aAttrName);
+      if (nIndex < 0)
+        return EChange.UNCHANGED;
+      // Keep the order and move the free slot to the end
+      System.arraycopy (aArray, nIndex + 1, aArray, nIndex, aArray.length - nIndex - 1);
+      aArray[aArray.length - 1] = null;
+      return EChange.CHANGED;
+    }
+    final ICommonsOrderedMap <IMicroQName, MicroAttribute> aMap = _getAttrMap ();
+    if (aMap == null)
+      return EChange.UNCHANGED;
+    return aMap.removeObject (aAttrName);
+  }
+
+  /**
+   * Ensure that the attribute storage can hold at least the passed number of
+   * attributes without resizing. This is an optimization for readers that know
+   * the number of attributes in advance. It has no effect if this element
+   * already has attributes.
+   *
+   * @param nMinCapacity
+   *        The expected number of attributes. Must be &ge; 0.
+   * @since 9.0.0
+   */
+  public void ensureAttributeCapacity (@Nonnegative final int nMinCapacity)
+  {
+    if (m_aAttrs == null && nMinCapacity > 0)
+    {
+      if (nMinCapacity <= ATTRIBUTE_ARRAY_THRESHOLD)
+        m_aAttrs = new MicroAttribute [nMinCapacity];
+      else
+      {
+        // Consider the default load factor of 0.75
+        m_aAttrs = new CommonsLinkedHashMap<> (nMinCapacity + nMinCapacity / 3 + 1);
+      }
+    }
+  }
+
+  private void _setAttribute (@Nonnull final MicroAttribute aNewAttr)
+  {
+    final MicroAttribute [] aArray = m_aAttrs == null ? new MicroAttribute [1] : _getAttrArray ();
+    if (aArray != null)
+    {
+      int nIndex = _indexOf (aArray, aNewAttr.getAttributeQName ());
+      if (nIndex < 0)
+        nIndex = _getUsedCount (aArray);
+      if (nIndex < aArray.length)
+      {
+        // Replace existing or use a free slot
+        aArray[nIndex] = aNewAttr;
+        m_aAttrs = aArray;
+        return;
+      }
+
+      if (nIndex < ATTRIBUTE_ARRAY_THRESHOLD)
+      {
+        // Grow by exactly one element to not waste memory
+        final MicroAttribute [] aNewArray = Arrays.copyOf (aArray, nIndex + 1);
+        aNewArray[nIndex] = aNewAttr;
+        m_aAttrs = aNewArray;
+        return;
+      }
+
+      // Switch to a map
+      final ICommonsOrderedMap <IMicroQName, MicroAttribute> aMap = new CommonsLinkedHashMap<> ();
+      for (final MicroAttribute aAttr : aArray)
+        aMap.put (aAttr.getAttributeQName (), aAttr);
+      m_aAttrs = aMap;
+    }
+    _getAttrMap ().put (aNewAttr.getAttributeQName (), aNewAttr);
   }
 
   @Nonnull
@@ -217,11 +369,7 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   {
     ValueEnforcer.notNull (aAttrName, "AttrName");
     if (sAttrValue != null)
-    {
-      if (m_aAttrs == null)
-        m_aAttrs = new CommonsLinkedHashMap<> ();
-      m_aAttrs.put (aAttrName, new MicroAttribute (aAttrName, sAttrValue));
-    }
+      _setAttribute (new MicroAttribute (aAttrName, sAttrValue));
     else
       removeAttribute (aAttrName);
     return this;
@@ -230,9 +378,10 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
   @Nonnull
   public EChange removeAllAttributes ()
   {
-    if (m_aAttrs == null)
+    if (hasNoAttributes ())
       return EChange.UNCHANGED;
-    return m_aAttrs.removeAll ();
+    m_aAttrs = null;
+    return EChange.CHANGED;
   }
 
   @Nullable
@@ -374,8 +523,15 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
     final MicroElement ret = new MicroElement (m_sNamespaceURI, m_sTagName);
 
     // Copy attributes
-    if (m_aAttrs != null)
-      ret.m_aAttrs = new CommonsLinkedHashMap<> (m_aAttrs);
+    final MicroAttribute [] aArray = _getAttrArray ();
+    if (aArray != null)
+      ret.m_aAttrs = aArray.clone ();
+    else
+    {
+      final ICommonsOrderedMap <IMicroQName, MicroAttribute> aMap = _getAttrMap ();
+      if (aMap != null)
+        ret.m_aAttrs = new CommonsLinkedHashMap<> (aMap);
+    }
 
     // Deep clone all child nodes
     forAllChildren (aChildNode -> ret.appendChild (aChildNode.getClone ()));
@@ -392,7 +548,7 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
     final MicroElement rhs = (MicroElement) o;
     return EqualsHelper.equals (m_sNamespaceURI, rhs.m_sNamespaceURI) &&
            m_sTagName.equals (rhs.m_sTagName) &&
-           EqualsHelper.equals (m_aAttrs, rhs.m_aAttrs);
+           EqualsHelper.equals (getAllQAttributes (), rhs.getAllQAttributes ());
   }
 
   @Override
@@ -401,7 +557,7 @@ public final class MicroElement extends AbstractMicroNodeWithChildren implements
     return ToStringGenerator.getDerived (super.toString ())
                             .appendIfNotNull ("namespace", m_sNamespaceURI)
                             .append ("tagname", m_sTagName)
-                            .appendIfNotNull ("attrs", m_aAttrs)
+                            .appendIfNotNull ("attrs", getAllAttributeObjs ())
                             .getToString ();
   }
 }
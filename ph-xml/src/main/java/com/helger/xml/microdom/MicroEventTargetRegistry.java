@@ -0,0 +1,208 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.callback.CallbackList;
+import com.helger.commons.collection.impl.CommonsEnumMap;
+import com.helger.commons.concurrent.SimpleLock;
+import com.helger.commons.state.EChange;
+
+/**
+ * Side table for the event targets of micro nodes. Only very few nodes ever
+ * have event targets, so keeping them outside of the nodes saves a field in
+ * every node. The nodes are weakly referenced, so that unreferenced nodes can
+ * be garbage collected. Note: an event target that strongly references the
+ * node it is registered on keeps that node alive until it is unregistered.<br>
+ * As even {@link WeakHashMap#get(Object)} modifies the map, all accesses are
+ * exclusively locked. To avoid locking for the vast majority of nodes without
+ * event targets, a bit set of the identity hash codes of all nodes with event
+ * targets is maintained, that can be queried lock free per node.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+final class MicroEventTargetRegistry
+{
+  /** Number of bits in the hash code bit set - must be a power of 2 */
+  private static final int HASH_BITS = 4096;
+
+  private static final SimpleLock s_aLock = new SimpleLock ();
+  @GuardedBy ("s_aLock")
+  private static final Map <AbstractMicroNode, CommonsEnumMap <EMicroEvent, CallbackList <IMicroEventTarget>>> s_aMap = new WeakHashMap <> ();
+  /**
+   * Copy on write bit set of the identity hash codes of all nodes with event
+   * targets. <code>null</code> if no node has event targets. A bit may be set
+   * even if the node was garbage collected.
+   */
+  private static volatile long [] s_aHashBits = null;
+
+  private MicroEventTargetRegistry ()
+  {}
+
+  private static int _getBitIndex (@Nonnull final AbstractMicroNode aNode)
+  {
+    return System.identityHashCode (aNode) & (HASH_BITS - 1);
+  }
+
+  @GuardedBy ("s_aLock")
+  private static void _addHashBit (@Nonnull final AbstractMicroNode aNode)
+  {
+    final long [] aOldBits = s_aHashBits;
+    final long [] aBits = aOldBits == null ? new long [HASH_BITS / 64] : aOldBits.clone ();
+    final int nIndex = _getBitIndex (aNode);
+    aBits[nIndex >>> 6] |= 1L << nIndex;
+    s_aHashBits = aBits;
+  }
+
+  @GuardedBy ("s_aLock")
+  private static void _rebuildHashBits ()
+  {
+    if (s_aMap.isEmpty ())
+      s_aHashBits = null;
+    else
+    {
+      final long [] aBits = new long [HASH_BITS / 64];
+      for (final AbstractMicroNode aNode : s_aMap.keySet ())
+      {
+        final int nIndex = _getBitIndex (aNode);
+        aBits[nIndex >>> 6] |= 1L << nIndex;
+      }
+      s_aHashBits = aBits;
+    }
+  }
+
+  /**
+   * @return <code>true</code> if definitely no node has event targets.
+   */
+  static boolean isEmpty ()
+  {
+    return s_aHashBits == null;
+  }
+
+  /**
+   * Lock free check whether the passed node may have event targets.
+   *
+   * @param aNode
+   *        The node to query. May not be <code>null</code>.
+   * @return <code>true</code> if the node may have event targets,
+   *         <code>false</code> if the node definitely has no event targets.
+   */
+  static boolean mayHaveEventTargets (@Nonnull final AbstractMicroNode aNode)
+  {
+    final long [] aBits = s_aHashBits;
+    if (aBits == null)
+      return false;
+    final int nIndex = _getBitIndex (aNode);
+    return (aBits[nIndex >>> 6] & (1L << nIndex)) != 0;
+  }
+
+  @Nonnull
+  static EChange registerEventTarget (@Nonnull final AbstractMicroNode aNode,
+                                      @Nonnull final EMicroEvent eEventType,
+                                      @Nonnull final IMicroEventTarget aTarget)
+  {
+    return s_aLock.locked ( () -> {
+      final CallbackList <IMicroEventTarget> aSet = s_aMap.computeIfAbsent (aNode,
+                                                                           k -> new CommonsEnumMap <> (EMicroEvent.class))
+                                                          .computeIfAbsent (eEventType, k -> new CallbackList <> ());
+      if (!mayHaveEventTargets (aNode))
+        _addHashBit (aNode);
+      return EChange.valueOf (aSet.add (aTarget));
+    });
+  }
+
+  @Nonnull
+  static EChange unregisterEventTarget (@Nonnull final AbstractMicroNode aNode,
+                                        @Nonnull final EMicroEvent eEventType,
+                                        @Nonnull final IMicroEventTarget aTarget)
+  {
+    if (!mayHaveEventTargets (aNode))
+      return EChange.UNCHANGED;
+
+    return s_aLock.locked ( () -> {
+      final CommonsEnumMap <EMicroEvent, CallbackList <IMicroEventTarget>> aMap = s_aMap.get (aNode);
+      if (aMap == null)
+        return EChange.UNCHANGED;
+      final CallbackList <IMicroEventTarget> aSet = aMap.get (eEventType);
+      if (aSet == null)
+        return EChange.UNCHANGED;
+      final EChange eChange = aSet.removeObject (aTarget);
+      if (aSet.isEmpty ())
+      {
+        aMap.remove (eEventType);
+        if (aMap.isEmpty ())
+        {
+          s_aMap.remove (aNode);
+          _rebuildHashBits ();
+        }
+      }
+      return eChange;
+    });
+  }
+
+  /**
+   * Get a copy of all event targets of the passed node.
+   *
+   * @param aNode
+   *        The node to query. May not be <code>null</code>.
+   * @return A new map and never <code>null</code>.
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  static CommonsEnumMap <EMicroEvent, CallbackList <IMicroEventTarget>> getAllEventTargets (@Nonnull final AbstractMicroNode aNode)
+  {
+    final CommonsEnumMap <EMicroEvent, CallbackList <IMicroEventTarget>> ret = new CommonsEnumMap <> (EMicroEvent.class);
+    if (mayHaveEventTargets (aNode))
+      s_aLock.locked ( () -> {
+        final CommonsEnumMap <EMicroEvent, CallbackList <IMicroEventTarget>> aMap = s_aMap.get (aNode);
+        if (aMap != null)
+          ret.putAll (aMap);
+      });
+    return ret;
+  }
+
+  /**
+   * Get the event targets of the passed node for the passed event type.
+   *
+   * @param aNode
+   *        The node to query. May not be <code>null</code>.
+   * @param eEventType
+   *        The event type to query. May be <code>null</code>.
+   * @return <code>null</code> if the node has no such event targets.
+   */
+  @Nullable
+  static CallbackList <IMicroEventTarget> getAllEventTargets (@Nonnull final AbstractMicroNode aNode,
+                                                             @Nullable final EMicroEvent eEventType)
+  {
+    if (!mayHaveEventTargets (aNode))
+      return null;
+    return s_aLock.locked ( () -> {
+      final CommonsEnumMap <EMicroEvent, CallbackList <IMicroEventTarget>> aMap = s_aMap.get (aNode);
+      return aMap == null ? null : aMap.get (eEventType);
+    });
+  }
+}
@@ -20,11 +20,15 @@ import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.string.StringHelper;
 import com.helger.commons.string.ToStringGenerator;
 
 /**
- * Default implementation of the {@link IMicroText} interface.
+ * Default implementation of the {@link IMicroText} interface. The text is kept
+ * as an immutable {@link String} and is only converted to a
+ * {@link StringBuilder} when it is modified.
  *
  * @author Philip Helger
  */
@@ -35,7 +39,8 @@ public final class MicroText extends AbstractMicroNode implements IMicroText
   /** By default the text should be XML escaped when emitting to a file etc. */
   public static final boolean DEFAULT_ESCAPE = true;
 
-  private final MicroDataAware m_aData;
+  // Either a String or a StringBuilder
+  private CharSequence m_aData;
   private final boolean m_bIgnorableWhitespace;
   private boolean m_bEscape = DEFAULT_ESCAPE;
 
@@ -44,7 +49,8 @@ public final class MicroText extends AbstractMicroNode implements IMicroText
                     @Nonnegative final int nLen,
                     final boolean bIgnorableWhitespace)
   {
-    m_aData = new MicroDataAware (aChars, nOfs, nLen);
+    ValueEnforcer.isArrayOfsLen (aChars, nOfs, nLen);
+    m_aData = new String (aChars, nOfs, nLen);
     m_bIgnorableWhitespace = bIgnorableWhitespace;
   }
 
@@ -55,27 +61,37 @@ public final class MicroText extends AbstractMicroNode implements IMicroText
 
   public MicroText (@Nullable final CharSequence sText, final boolean bIgnorableWhitespace)
   {
-    m_aData = new MicroDataAware (sText);
+    m_aData = StringHelper.hasNoText (sText) ? "" : sText.toString ();
     m_bIgnorableWhitespace = bIgnorableWhitespace;
   }
 
   /**
    * Constructor for cloning
    *
-   * @param aData
+   * @param sData
    *        Cloned data
    * @param bIgnorableWhitespace
    *        ignorable whitespace?
    * @param bEscape
    *        escape text as XML when writing?
    */
-  private MicroText (@Nonnull final MicroDataAware aData, final boolean bIgnorableWhitespace, final boolean bEscape)
+  private MicroText (@Nonnull final String sData, final boolean bIgnorableWhitespace, final boolean bEscape)
   {
-    m_aData = aData;
+    m_aData = sData;
     m_bIgnorableWhitespace = bIgnorableWhitespace;
     m_bEscape = bEscape;
   }
 
+  @Nonnull
+  private StringBuilder _getBuilder ()
+  {
+    if (m_aData instanceof StringBuilder)
+      return (StringBuilder) m_aData;
+    final StringBuilder ret = new StringBuilder (m_aData);
+    m_aData = ret;
+    return ret;
+  }
+
   @Nonnull
   public EMicroNodeType getType ()
   {
@@ -99,42 +115,42 @@ public final class MicroText extends AbstractMicroNode implements IMicroText
   @Nonnull
   public CharSequence getData ()
   {
-    return m_aData.getData ();
+    return m_aData;
   }
 
   public void appendData (@Nullable final CharSequence sData)
   {
-    m_aData.appendData (sData);
+    _getBuilder ().append (sData);
   }
 
   public void appendData (@Nonnull final char [] aChars, @Nonnegative final int nOfs, @Nonnegative final int nLen)
   {
-    m_aData.appendData (aChars, nOfs, nLen);
+    _getBuilder ().append (aChars, nOfs, nLen);
   }
 
   public void appendData (final char cChar)
   {
-    m_aData.appendData (cChar);
+    _getBuilder ().append (cChar);
   }
 
   public void prependData (@Nullable final CharSequence sData)
   {
-    m_aData.prependData (sData);
+    _getBuilder ().insert (0, sData);
   }
 
   public void prependData (@Nonnull final char [] aChars, @Nonnegative final int nOfs, @Nonnegative final int nLen)
   {
-    m_aData.prependData (aChars, nOfs, nLen);
+    _getBuilder ().insert (0, aChars, nOfs, nLen);
   }
 
   public void prependData (final char cChar)
   {
-    m_aData.prependData (cChar);
+    _getBuilder ().insert (0, cChar);
   }
 
   public void setData (@Nullable final CharSequence sData)
   {
-    m_aData.setData (sData);
+    m_aData = String.valueOf (sData);
   }
 
   public boolean isElementContentWhitespace ()
@@ -157,7 +173,7 @@ public final class MicroText extends AbstractMicroNode implements IMicroText
   @Nonnull
   public IMicroText getClone ()
   {
-    return new MicroText (m_aData.getClone (), m_bIgnorableWhitespace, m_bEscape);
+    return new MicroText (m_aData.toString (), m_bIgnorableWhitespace, m_bEscape);
   }
 
   public boolean isEqualContent (@Nullable final IMicroNode o)
@@ -167,7 +183,8 @@ public final class MicroText extends AbstractMicroNode implements IMicroText
     if (o == null || !getClass ().equals (o.getClass ()))
       return false;
     final MicroText rhs = (MicroText) o;
-    return m_aData.equals (rhs.m_aData) && m_bIgnorableWhitespace == rhs.m_bIgnorableWhitespace;
+    return m_aData.toString ().equals (rhs.m_aData.toString ()) &&
+           m_bIgnorableWhitespace == rhs.m_bIgnorableWhitespace;
   }
 
   @Override
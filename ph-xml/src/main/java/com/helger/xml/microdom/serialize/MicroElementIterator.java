@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.serialize;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.concurrent.BasicThreadFactory;
+import com.helger.commons.state.EContinue;
+import com.helger.commons.state.ESuccess;
+import com.helger.xml.microdom.IMicroElement;
+
+/**
+ * An iterator over the elements read by {@link MicroElementStreamReader}. The
+ * input is parsed in a separate daemon thread that hands over the elements via
+ * a bounded queue. If the iterator is not consumed until the end, it must be
+ * closed to stop the parsing thread.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@NotThreadSafe
+public final class MicroElementIterator implements Iterator <IMicroElement>, AutoCloseable
+{
+  private static final ThreadFactory s_aThreadFactory = new BasicThreadFactory.Builder ().setNamingPattern ("ph-xml-micro-element-iterator-%d")
+                                                                                        .setDaemon (true)
+                                                                                        .build ();
+  // Marker for the end of the input
+  private static final Object END = new Object ();
+
+  private final BlockingQueue <Object> m_aQueue;
+  private volatile boolean m_bClosed = false;
+  private volatile ESuccess m_eResult;
+  private IMicroElement m_aNext;
+  private boolean m_bEnd = false;
+
+  /**
+   * Constructor
+   *
+   * @param aReader
+   *        The reader that is invoked in the parsing thread with the consumer
+   *        to pass the elements to.
+   * @param nQueueSize
+   *        The maximum number of elements to buffer. Must be &gt; 0.
+   */
+  MicroElementIterator (@Nonnull final Function <Function <IMicroElement, EContinue>, ESuccess> aReader,
+                        @Nonnegative final int nQueueSize)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.isGT0 (nQueueSize, "QueueSize");
+    m_aQueue = new ArrayBlockingQueue <> (nQueueSize);
+    final Thread aThread = s_aThreadFactory.newThread ( () -> {
+      try
+      {
+        m_eResult = aReader.apply (this::_put);
+      }
+      finally
+      {
+        if (m_eResult == null)
+          m_eResult = ESuccess.FAILURE;
+        _put (END);
+      }
+    });
+    aThread.start ();
+  }
+
+  @Nonnull
+  private EContinue _put (@Nonnull final Object aObj)
+  {
+    if (m_bClosed)
+      return EContinue.BREAK;
+    try
+    {
+      m_aQueue.put (aObj);
+      return EContinue.CONTINUE;
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      return EContinue.BREAK;
+    }
+  }
+
+  public boolean hasNext ()
+  {
+    if (m_aNext == null && !m_bEnd)
+    {
+      if (m_bClosed)
+        m_bEnd = true;
+      else
+        try
+        {
+          final Object aObj = m_aQueue.take ();
+          if (aObj == END)
+            m_bEnd = true;
+          else
+            m_aNext = (IMicroElement) aObj;
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+          close ();
+          m_bEnd = true;
+        }
+    }
+    return m_aNext != null;
+  }
+
+  @Nonnull
+  public IMicroElement next ()
+  {
+    if (!hasNext ())
+      throw new NoSuchElementException ();
+    final IMicroElement ret = m_aNext;
+    m_aNext = null;
+    return ret;
+  }
+
+  /**
+   * @return The result of parsing. <code>null</code> while parsing is still in
+   *         progress. {@link ESuccess#FAILURE} if the input was invalid XML.
+   */
+  @Nullable
+  public ESuccess getResult ()
+  {
+    return m_eResult;
+  }
+
+  /**
+   * Stop the parsing thread. Remaining elements are discarded.
+   */
+  public void close ()
+  {
+    if (!m_bClosed)
+    {
+      m_bClosed = true;
+      // Unblock the parsing thread - it stops with the next element
+      m_aQueue.clear ();
+    }
+  }
+}
@@ -0,0 +1,461 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.serialize;
+
+import java.io.InputStream;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillClose;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.annotation.PresentForCodeCoverage;
+import com.helger.commons.callback.CallbackList;
+import com.helger.commons.callback.exception.IExceptionCallback;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.state.EContinue;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.StringHelper;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.sax.InputSourceFactory;
+import com.helger.xml.serialize.read.ISAXReaderSettings;
+import com.helger.xml.serialize.read.SAXReader;
+import com.helger.xml.serialize.read.SAXReaderSettings;
+
+/**
+ * Utility class to process large XML documents that consist of repeated
+ * records element by element. Each element matching a path is built as a
+ * detached {@link IMicroElement}, passed to a consumer and then dropped, so
+ * that the required heap depends on the record size and not on the document
+ * size.<br>
+ * A path is a list of local element names separated by '/', where '*' matches
+ * any name. A path starting with '/' is absolute and must match from the root
+ * element, otherwise it matches elements whose closest ancestors have the
+ * specified names. So "product" matches all "product" elements,
+ * "catalog/product" matches all "product" elements that are children of a
+ * "catalog" element and "/catalog/product" matches only the "product" elements
+ * directly below the root element "catalog". Elements nested in a matching
+ * element are part of that element and are not matched themselves.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@Immutable
+public final class MicroElementStreamReader
+{
+  /** The default number of elements buffered by the iterator */
+  public static final int DEFAULT_ITERATOR_QUEUE_SIZE = 16;
+
+  /**
+   * Internal exception to stop parsing once the consumer requested it.
+   */
+  private static final class StopParsingException extends RuntimeException
+  {
+    StopParsingException ()
+    {
+      super ("Stop parsing", null, false, false);
+    }
+  }
+
+  /**
+   * The parsed path to match.
+   */
+  @Immutable
+  private static final class ElementPath
+  {
+    private static final String WILDCARD = "*";
+
+    private final boolean m_bAbsolute;
+    private final String [] m_aNames;
+
+    ElementPath (@Nonnull @Nonempty final String sPath)
+    {
+      ValueEnforcer.notEmpty (sPath, "Path");
+      m_bAbsolute = sPath.charAt (0) == '/';
+      m_aNames = StringHelper.getExplodedArray ('/', m_bAbsolute ? sPath.substring (1) : sPath);
+      if (m_aNames.length == 0)
+        throw new IllegalArgumentException ("The path '" + sPath + "' contains no element name");
+      for (final String sName : m_aNames)
+        if (sName.isEmpty ())
+          throw new IllegalArgumentException ("The path '" + sPath + "' contains an empty element name");
+    }
+
+    /**
+     * @param aOpenNames
+     *        The local names of all open elements from the root element on.
+     * @param nDepth
+     *        The number of open elements including the current one.
+     * @return <code>true</code> if the current element matches.
+     */
+    boolean matches (@Nonnull final String [] aOpenNames, @Nonnegative final int nDepth)
+    {
+      final int nNames = m_aNames.length;
+      if (m_bAbsolute ? nDepth != nNames : nDepth < nNames)
+        return false;
+      for (int i = 0; i < nNames; ++i)
+      {
+        final String sName = m_aNames[nNames - 1 - i];
+        if (!sName.equals (WILDCARD) && !sName.equals (aOpenNames[nDepth - 1 - i]))
+          return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * The SAX handler that builds the matching elements. All events inside a
+   * matching element are forwarded to a new {@link MicroSAXHandler}.
+   */
+  @NotThreadSafe
+  private static final class ElementStreamHandler implements ContentHandler, LexicalHandler
+  {
+    private final ElementPath m_aPath;
+    private final Function <? super IMicroElement, EContinue> m_aConsumer;
+    private String [] m_aOpenNames = new String [16];
+    private int m_nDepth = 0;
+    private MicroSAXHandler m_aCurrent;
+    private int m_nCurrentDepth;
+
+    ElementStreamHandler (@Nonnull final ElementPath aPath,
+                          @Nonnull final Function <? super IMicroElement, EContinue> aConsumer)
+    {
+      m_aPath = aPath;
+      m_aConsumer = aConsumer;
+    }
+
+    public void setDocumentLocator (final Locator aLocator)
+    {}
+
+    public void startDocument ()
+    {}
+
+    public void endDocument ()
+    {}
+
+    public void startPrefixMapping (final String sPrefix, final String sURI)
+    {}
+
+    public void endPrefixMapping (final String sPrefix)
+    {}
+
+    public void startElement (@Nullable final String sNamespaceURI,
+                              @Nonnull final String sLocalName,
+                              @Nullable final String sQName,
+                              @Nullable final Attributes aAttributes)
+    {
+      if (m_nDepth == m_aOpenNames.length)
+      {
+        final String [] aNewNames = new String [m_nDepth * 2];
+        System.arraycopy (m_aOpenNames, 0, aNewNames, 0, m_nDepth);
+        m_aOpenNames = aNewNames;
+      }
+      m_aOpenNames[m_nDepth++] = sLocalName;
+
+      if (m_aCurrent == null && m_aPath.matches (m_aOpenNames, m_nDepth))
+      {
+        // Start of a new matching element
+        m_aCurrent = new MicroSAXHandler (false, null);
+        m_nCurrentDepth = m_nDepth;
+      }
+      if (m_aCurrent != null)
+        m_aCurrent.startElement (sNamespaceURI, sLocalName, sQName, aAttributes);
+    }
+
+    public void endElement (@Nullable final String sNamespaceURI,
+                            @Nonnull final String sLocalName,
+                            @Nullable final String sQName)
+    {
+      if (m_aCurrent != null)
+      {
+        m_aCurrent.endElement (sNamespaceURI, sLocalName, sQName);
+        if (m_nDepth == m_nCurrentDepth)
+        {
+          // End of the matching element
+          final IMicroDocument aDoc = m_aCurrent.getDocument ();
+          m_aCurrent = null;
+          final IMicroElement aElement = (IMicroElement) aDoc.getDocumentElement ().detachFromParent ();
+          if (m_aConsumer.apply (aElement).isBreak ())
+            throw new StopParsingException ();
+        }
+      }
+      m_aOpenNames[--m_nDepth] = null;
+    }
+
+    public void characters (@Nonnull final char [] aChars,
+                            @Nonnegative final int nStart,
+                            @Nonnegative final int nLength)
+    {
+      if (m_aCurrent != null)
+        m_aCurrent.characters (aChars, nStart, nLength);
+    }
+
+    public void ignorableWhitespace (@Nonnull final char [] aChars,
+                                     @Nonnegative final int nStart,
+                                     @Nonnegative final int nLength)
+    {
+      if (m_aCurrent != null)
+        m_aCurrent.ignorableWhitespace (aChars, nStart, nLength);
+    }
+
+    public void processingInstruction (final String sTarget, final String sData)
+    {
+      if (m_aCurrent != null)
+        m_aCurrent.processingInstruction (sTarget, sData);
+    }
+
+    public void skippedEntity (final String sName)
+    {}
+
+    public void startDTD (final String sName, final String sPublicId, final String sSystemId)
+    {}
+
+    public void endDTD ()
+    {}
+
+    public void startEntity (final String sName)
+    {}
+
+    public void endEntity (final String sName)
+    {}
+
+    public void startCDATA () throws SAXException
+    {
+      if (m_aCurrent != null)
+        m_aCurrent.startCDATA ();
+    }
+
+    public void endCDATA () throws SAXException
+    {
+      if (m_aCurrent != null)
+        m_aCurrent.endCDATA ();
+    }
+
+    public void comment (@Nonnull final char [] aChars,
+                         @Nonnegative final int nStart,
+                         @Nonnegative final int nLength) throws SAXException
+    {
+      // Comments in the DTD are outside of any element
+      if (m_aCurrent != null)
+        m_aCurrent.comment (aChars, nStart, nLength);
+    }
+  }
+
+  @PresentForCodeCoverage
+  private static final MicroElementStreamReader s_aInstance = new MicroElementStreamReader ();
+
+  private MicroElementStreamReader ()
+  {}
+
+  /**
+   * Read the passed input source and pass all elements matching the provided
+   * path to the consumer.
+   *
+   * @param aInputSource
+   *        The input source to read. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to use. Entity resolution, error handling and parser
+   *        features are taken from here. If <code>null</code> the default
+   *        settings will be used.
+   * @param sPath
+   *        The path of the elements to be passed to the consumer. May neither
+   *        be <code>null</code> nor empty.
+   * @param aConsumer
+   *        The consumer that is invoked for every matching element. The passed
+   *        element has no parent. If the consumer returns
+   *        {@link EContinue#BREAK} parsing is stopped. May not be
+   *        <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the input was invalid XML. If parsing
+   *         was stopped by the consumer, {@link ESuccess#SUCCESS} is returned.
+   * @throws IllegalArgumentException
+   *         If the path is invalid
+   */
+  @Nonnull
+  public static ESuccess readMicroElementsBreakable (@WillClose @Nonnull final InputSource aInputSource,
+                                                     @Nullable final ISAXReaderSettings aSettings,
+                                                     @Nonnull @Nonempty final String sPath,
+                                                     @Nonnull final Function <? super IMicroElement, EContinue> aConsumer)
+  {
+    ValueEnforcer.notNull (aInputSource, "InputSource");
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+    final ElementPath aPath = new ElementPath (sPath);
+
+    final ElementStreamHandler aHandler = new ElementStreamHandler (aPath, aConsumer);
+
+    // Copy and modify settings
+    final SAXReaderSettings aRealSettings = SAXReaderSettings.createCloneOnDemand (aSettings);
+    aRealSettings.setContentHandler (aHandler).setLexicalHandler (aHandler);
+
+    // Stopping is not an error
+    final CallbackList <IExceptionCallback <Throwable>> aExceptionCallbacks = new CallbackList <> (aRealSettings.exceptionCallbacks ());
+    final boolean [] aStopped = new boolean [1];
+    aRealSettings.exceptionCallbacks ().set (t -> {
+      if (t instanceof StopParsingException)
+        aStopped[0] = true;
+      else
+        aExceptionCallbacks.forEach (x -> x.onException (t));
+    });
+
+    final ESuccess eSuccess = SAXReader.readXMLSAX (aInputSource, aRealSettings);
+    return aStopped[0] ? ESuccess.SUCCESS : eSuccess;
+  }
+
+  /**
+   * Read the passed input source and pass all elements matching the provided
+   * path to the consumer.
+   *
+   * @param aInputSource
+   *        The input source to read. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to use. If <code>null</code> the default settings will
+   *        be used.
+   * @param sPath
+   *        The path of the elements to be passed to the consumer. May neither
+   *        be <code>null</code> nor empty.
+   * @param aConsumer
+   *        The consumer that is invoked for every matching element. May not be
+   *        <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the input was invalid XML.
+   */
+  @Nonnull
+  public static ESuccess readMicroElements (@WillClose @Nonnull final InputSource aInputSource,
+                                            @Nullable final ISAXReaderSettings aSettings,
+                                            @Nonnull @Nonempty final String sPath,
+                                            @Nonnull final Consumer <? super IMicroElement> aConsumer)
+  {
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+    return readMicroElementsBreakable (aInputSource, aSettings, sPath, x -> {
+      aConsumer.accept (x);
+      return EContinue.CONTINUE;
+    });
+  }
+
+  @Nonnull
+  public static ESuccess readMicroElements (@WillClose @Nonnull final InputStream aIS,
+                                            @Nullable final ISAXReaderSettings aSettings,
+                                            @Nonnull @Nonempty final String sPath,
+                                            @Nonnull final Consumer <? super IMicroElement> aConsumer)
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+    try
+    {
+      return readMicroElements (InputSourceFactory.create (aIS), aSettings, sPath, aConsumer);
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+    }
+  }
+
+  @Nonnull
+  public static ESuccess readMicroElements (@Nonnull final IReadableResource aRes,
+                                            @Nullable final ISAXReaderSettings aSettings,
+                                            @Nonnull @Nonempty final String sPath,
+                                            @Nonnull final Consumer <? super IMicroElement> aConsumer)
+  {
+    ValueEnforcer.notNull (aRes, "Resource");
+    return readMicroElements (InputSourceFactory.create (aRes), aSettings, sPath, aConsumer);
+  }
+
+  /**
+   * Get an iterator over all elements matching the provided path. The input is
+   * parsed in a separate thread, that is blocked if the iterator is not
+   * consumed. The iterator must be closed to stop parsing if it is not
+   * iterated until the end.
+   *
+   * @param aInputSource
+   *        The input source to read. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to use. If <code>null</code> the default settings will
+   *        be used.
+   * @param sPath
+   *        The path of the elements to iterate. May neither be
+   *        <code>null</code> nor empty.
+   * @return A new iterator and never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the path is invalid
+   */
+  @Nonnull
+  public static MicroElementIterator getMicroElementIterator (@WillClose @Nonnull final InputSource aInputSource,
+                                                              @Nullable final ISAXReaderSettings aSettings,
+                                                              @Nonnull @Nonempty final String sPath)
+  {
+    ValueEnforcer.notNull (aInputSource, "InputSource");
+    // Check the path in the calling thread
+    new ElementPath (sPath);
+    return new MicroElementIterator (aConsumer -> readMicroElementsBreakable (aInputSource,
+                                                                              aSettings,
+                                                                              sPath,
+                                                                              aConsumer),
+                                     DEFAULT_ITERATOR_QUEUE_SIZE);
+  }
+
+  /**
+   * Get a sequential stream over all elements matching the provided path. The
+   * input is parsed in a separate thread. The stream must be closed (e.g. with
+   * try-with-resources) to stop parsing if it is not consumed until the end.
+   *
+   * @param aInputSource
+   *        The input source to read. May not be <code>null</code>.
+   * @param aSettings
+   *        The settings to use. If <code>null</code> the default settings will
+   *        be used.
+   * @param sPath
+   *        The path of the elements to stream. May neither be
+   *        <code>null</code> nor empty.
+   * @return A new stream and never <code>null</code>.
+   * @throws IllegalArgumentException
+   *         If the path is invalid
+   */
+  @Nonnull
+  public static Stream <IMicroElement> getMicroElementStream (@WillClose @Nonnull final InputSource aInputSource,
+                                                              @Nullable final ISAXReaderSettings aSettings,
+                                                              @Nonnull @Nonempty final String sPath)
+  {
+    final MicroElementIterator aIter = getMicroElementIterator (aInputSource, aSettings, sPath);
+    return StreamSupport.stream (Spliterators.spliteratorUnknownSize (aIter, Spliterator.ORDERED | Spliterator.NONNULL),
+                                 false)
+                        .onClose (aIter::close);
+  }
+
+  @Nonnull
+  public static Stream <IMicroElement> getMicroElementStream (@Nonnull final IReadableResource aRes,
+                                                              @Nullable final ISAXReaderSettings aSettings,
+                                                              @Nonnull @Nonempty final String sPath)
+  {
+    ValueEnforcer.notNull (aRes, "Resource");
+    return getMicroElementStream (InputSourceFactory.create (aRes), aSettings, sPath);
+  }
+}
@@ -42,12 +42,10 @@ import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.error.level.EErrorLevel;
 import com.helger.commons.error.level.IErrorLevel;
 import com.helger.commons.string.StringHelper;
-import com.helger.xml.microdom.IMicroCDATA;
 import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.microdom.IMicroDocumentType;
 import com.helger.xml.microdom.IMicroElement;
 import com.helger.xml.microdom.IMicroNode;
-import com.helger.xml.microdom.IMicroText;
 import com.helger.xml.microdom.MicroDocument;
 import com.helger.xml.microdom.MicroDocumentType;
 import com.helger.xml.sax.AbstractSAXErrorHandler;
@@ -60,12 +58,20 @@ import com.helger.xml.sax.AbstractSAXErrorHandler;
 public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHandler, ErrorHandler, LexicalHandler
 {
   private static final Logger s_aLogger = LoggerFactory.getLogger (MicroSAXHandler.class);
+  private static final int PENDING_NONE = 0;
+  private static final int PENDING_TEXT = 1;
+  private static final int PENDING_IGNORABLE_WHITESPACE = 2;
+  private static final int PENDING_CDATA = 3;
 
   private IMicroDocument m_aDoc;
   private IMicroDocumentType m_aDocType;
   private IMicroNode m_aParent;
   private boolean m_bDTDMode = false;
   private boolean m_bCDATAMode = false;
+  // Directly following character events of the same kind are collected, so
+  // that each node is created once with its final text
+  private final StringBuilder m_aPendingText = new StringBuilder ();
+  private int m_nPendingText = PENDING_NONE;
   // Members
   private final boolean m_bSaveIgnorableWhitespaces;
   private final EntityResolver m_aEntityResolver;
@@ -87,6 +93,42 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
     }
   }
 
+  private void _flushText ()
+  {
+    if (m_nPendingText != PENDING_NONE)
+    {
+      final String sText = m_aPendingText.toString ();
+      switch (m_nPendingText)
+      {
+        case PENDING_TEXT:
+          m_aParent.appendText (sText);
+          break;
+        case PENDING_IGNORABLE_WHITESPACE:
+          m_aParent.appendIgnorableWhitespaceText (sText);
+          break;
+        case PENDING_CDATA:
+          m_aParent.appendCDATA (sText);
+          break;
+      }
+      m_aPendingText.setLength (0);
+      m_nPendingText = PENDING_NONE;
+    }
+  }
+
+  private void _addText (final int nPendingText,
+                         @Nonnull final char [] aChars,
+                         @Nonnegative final int nStart,
+                         @Nonnegative final int nLength)
+  {
+    // Merge directly following text nodes to one node!
+    if (m_nPendingText != nPendingText)
+    {
+      _flushText ();
+      m_nPendingText = nPendingText;
+    }
+    m_aPendingText.append (aChars, nStart, nLength);
+  }
+
   // Called before startDocument (if called)
   public void setDocumentLocator (final Locator aLocator)
   {}
@@ -95,7 +137,9 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
   {}
 
   public void endDocument ()
-  {}
+  {
+    _flushText ();
+  }
 
   public void startDTD (final String sName, final String sPublicId, final String sSystemId) throws SAXException
   {
@@ -116,6 +160,7 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
                             @Nullable final String sQName,
                             @Nullable final Attributes aAttributes)
   {
+    _flushText ();
     _createParentDocument ();
 
     IMicroElement aElement;
@@ -146,53 +191,13 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
 
   public void endElement (final String sNamespaceURI, final String sLocalName, final String sQName)
   {
+    _flushText ();
     m_aParent = m_aParent.getParent ();
   }
 
   public void characters (@Nonnull final char [] aChars, @Nonnegative final int nStart, @Nonnegative final int nLength)
   {
-    if (m_bCDATAMode)
-    {
-      // CDATA mode
-      final IMicroNode aLastChild = m_aParent.getLastChild ();
-      if (aLastChild != null && aLastChild.getType ().isCDATA ())
-      {
-        final IMicroCDATA aLastDATA = (IMicroCDATA) aLastChild;
-        // Merge directly following text nodes to one node!
-        // This may happen when compiling with JDK 1.6.0_04
-        aLastDATA.appendData (aChars, nStart, nLength);
-      }
-      else
-      {
-        // Add to parent
-        m_aParent.appendCDATA (aChars, nStart, nLength);
-      }
-    }
-    else
-    {
-      // Regular text node
-      final IMicroNode aLastChild = m_aParent.getLastChild ();
-      if (aLastChild != null && aLastChild.getType ().isText ())
-      {
-        final IMicroText aLastText = (IMicroText) aLastChild;
-        if (!aLastText.isElementContentWhitespace ())
-        {
-          // Merge directly following text nodes to one node!
-          // This may happen when compiling with JDK 1.6.0_04
-          aLastText.appendData (aChars, nStart, nLength);
-        }
-        else
-        {
-          // Add to parent
-          m_aParent.appendText (aChars, nStart, nLength);
-        }
-      }
-      else
-      {
-        // Add to parent
-        m_aParent.appendText (aChars, nStart, nLength);
-      }
-    }
+    _addText (m_bCDATAMode ? PENDING_CDATA : PENDING_TEXT, aChars, nStart, nLength);
   }
 
   public void ignorableWhitespace (@Nonnull final char [] aChars,
@@ -200,27 +205,12 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
                                    @Nonnegative final int nLength)
   {
     if (m_bSaveIgnorableWhitespaces)
-    {
-      final IMicroNode aLastChild = m_aParent.getLastChild ();
-      if (aLastChild != null && aLastChild.getType ().isText ())
-      {
-        final IMicroText aLastText = (IMicroText) aLastChild;
-        if (aLastText.isElementContentWhitespace ())
-        {
-          // Merge directly following text nodes to one node!
-          // This may happen when compiling with JDK 1.6.0_04
-          aLastText.appendData (aChars, nStart, nLength);
-        }
-        else
-          m_aParent.appendIgnorableWhitespaceText (aChars, nStart, nLength);
-      }
-      else
-        m_aParent.appendIgnorableWhitespaceText (aChars, nStart, nLength);
-    }
+      _addText (PENDING_IGNORABLE_WHITESPACE, aChars, nStart, nLength);
   }
 
   public void processingInstruction (final String sTarget, final String sData)
   {
+    _flushText ();
     _createParentDocument ();
     m_aParent.appendProcessingInstruction (sTarget, sData);
   }
@@ -356,6 +346,7 @@ public class MicroSAXHandler implements EntityResolver2, DTDHandler, ContentHand
     // Ignore comments in DTD
     if (!m_bDTDMode)
     {
+      _flushText ();
       // In case the comment comes before the root element....
       _createParentDocument ();
 
@@ -0,0 +1,467 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.serialize;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.WillClose;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.PresentForCodeCoverage;
+import com.helger.commons.collection.NonBlockingStack;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.io.stream.NonBlockingStringReader;
+import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.string.StringHelper;
+import com.helger.xml.microdom.AbstractMicroNodeWithChildren;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroDocumentType;
+import com.helger.xml.microdom.IMicroQName;
+import com.helger.xml.microdom.MicroDocument;
+import com.helger.xml.microdom.MicroDocumentType;
+import com.helger.xml.microdom.MicroElement;
+import com.helger.xml.microdom.MicroQName;
+
+/**
+ * An alternative to {@link MicroReader} that is based on the StAX
+ * {@link XMLStreamReader} API instead of SAX. It is optimized for throughput
+ * when reading large documents:
+ * <ul>
+ * <li>Element and attribute names and namespace URIs are deduplicated per
+ * document, so that all elements with the same name share the same
+ * {@link String} and all attributes with the same name share the same
+ * {@link IMicroQName}.</li>
+ * <li>Attribute maps are created with the exact number of attributes and child
+ * lists are presized with the number of children of the previous element with
+ * the same name.</li>
+ * <li>Adjacent text events are merged without looking at the last child of the
+ * parent.</li>
+ * </ul>
+ * For security reasons DTDs are not processed by default, only the document
+ * type declaration itself is retained. Use
+ * {@link #readMicroXML(XMLStreamReader)} with a custom configured
+ * {@link XMLInputFactory} if DTD processing is required.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public final class MicroStAXReader
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (MicroStAXReader.class);
+  private static final String PROPERTY_REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+  private static final XMLInputFactory s_aFactory;
+
+  static
+  {
+    s_aFactory = XMLInputFactory.newInstance ();
+    s_aFactory.setProperty (XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+    s_aFactory.setProperty (XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+    s_aFactory.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    s_aFactory.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    // Not standardized - required to get CDATA events in the JDK implementation
+    if (s_aFactory.isPropertySupported (PROPERTY_REPORT_CDATA))
+      s_aFactory.setProperty (PROPERTY_REPORT_CDATA, Boolean.TRUE);
+  }
+
+  /**
+   * The per document name cache entry for elements.
+   *
+   * @author Philip Helger
+   */
+  private static final class ElementName
+  {
+    private final String m_sNamespaceURI;
+    private final String m_sLocalName;
+    // The number of children of the last element with this name
+    private int m_nLastChildCount;
+
+    ElementName (@Nullable final String sNamespaceURI, @Nonnull final String sLocalName)
+    {
+      m_sNamespaceURI = sNamespaceURI;
+      m_sLocalName = sLocalName;
+    }
+  }
+
+  /**
+   * The state of reading a single document.
+   *
+   * @author Philip Helger
+   */
+  @NotThreadSafe
+  private static final class DocumentBuilder
+  {
+    // Namespace URI ("" for none) to local name to entry
+    private final Map <String, Map <String, ElementName>> m_aElementNames = new HashMap <> ();
+    private final Map <String, Map <String, IMicroQName>> m_aAttrNames = new HashMap <> ();
+    private final NonBlockingStack <ElementName> m_aOpenNames = new NonBlockingStack <> ();
+    private IMicroDocumentType m_aDocType;
+    private IMicroDocument m_aDoc;
+    private AbstractMicroNodeWithChildren m_aParent;
+    // Directly following text or CDATA events are collected, so that each node
+    // is created once with its final immutable text
+    private final StringBuilder m_aPendingText = new StringBuilder ();
+    private int m_nPendingTextEvent = -1;
+
+    private void _createParentDocument ()
+    {
+      if (m_aParent == null)
+      {
+        final MicroDocument aDoc = new MicroDocument (m_aDocType);
+        m_aDoc = aDoc;
+        m_aParent = aDoc;
+      }
+    }
+
+    @Nonnull
+    private ElementName _getElementName (@Nullable final String sNamespaceURI, @Nonnull final String sLocalName)
+    {
+      final String sKey = sNamespaceURI == null ? "" : sNamespaceURI;
+      final Map <String, ElementName> aMap = m_aElementNames.computeIfAbsent (sKey, k -> new HashMap <> ());
+      ElementName ret = aMap.get (sLocalName);
+      if (ret == null)
+      {
+        ret = new ElementName (StringHelper.hasText (sNamespaceURI) ? sNamespaceURI : null, sLocalName);
+        aMap.put (sLocalName, ret);
+      }
+      return ret;
+    }
+
+    @Nonnull
+    private IMicroQName _getAttrName (@Nullable final String sNamespaceURI, @Nonnull final String sLocalName)
+    {
+      final String sKey = sNamespaceURI == null ? "" : sNamespaceURI;
+      final Map <String, IMicroQName> aMap = m_aAttrNames.computeIfAbsent (sKey, k -> new HashMap <> ());
+      IMicroQName ret = aMap.get (sLocalName);
+      if (ret == null)
+      {
+        ret = new MicroQName (sNamespaceURI, sLocalName);
+        aMap.put (sLocalName, ret);
+      }
+      return ret;
+    }
+
+    private void _flushText ()
+    {
+      if (m_nPendingTextEvent >= 0)
+      {
+        if (m_nPendingTextEvent == XMLStreamConstants.CDATA)
+          m_aParent.appendCDATA (m_aPendingText.toString ());
+        else
+          m_aParent.appendText (m_aPendingText.toString ());
+        m_aPendingText.setLength (0);
+        m_nPendingTextEvent = -1;
+      }
+    }
+
+    private void _startElement (@Nonnull final XMLStreamReader aReader)
+    {
+      _flushText ();
+      _createParentDocument ();
+
+      final ElementName aName = _getElementName (aReader.getNamespaceURI (), aReader.getLocalName ());
+      final MicroElement aElement = new MicroElement (aName.m_sNamespaceURI, aName.m_sLocalName);
+      aElement.ensureChildCapacity (aName.m_nLastChildCount);
+
+      final int nAttrCount = aReader.getAttributeCount ();
+      if (nAttrCount > 0)
+      {
+        aElement.ensureAttributeCapacity (nAttrCount);
+        for (int i = 0; i < nAttrCount; ++i)
+          aElement.setAttribute (_getAttrName (aReader.getAttributeNamespace (i), aReader.getAttributeLocalName (i)),
+                                 aReader.getAttributeValue (i));
+      }
+
+      m_aParent.appendChild (aElement);
+      m_aParent = aElement;
+      m_aOpenNames.push (aName);
+    }
+
+    private void _endElement ()
+    {
+      _flushText ();
+      m_aOpenNames.pop ().m_nLastChildCount = m_aParent.getChildCount ();
+      m_aParent = (AbstractMicroNodeWithChildren) m_aParent.getParent ();
+    }
+
+    private void _text (@Nonnull final XMLStreamReader aReader, final int nEventType)
+    {
+      // Text outside of the root element is ignored, like in SAX
+      if (m_aParent == null || m_aParent == m_aDoc)
+        return;
+
+      // Merge directly following text nodes to one node!
+      if (m_nPendingTextEvent != nEventType)
+      {
+        _flushText ();
+        m_nPendingTextEvent = nEventType;
+      }
+      m_aPendingText.append (aReader.getTextCharacters (), aReader.getTextStart (), aReader.getTextLength ());
+    }
+
+    private void _docType (@Nonnull final String sDTD)
+    {
+      if (m_aDocType != null)
+      {
+        s_aLogger.warn ("DocType already present!");
+        return;
+      }
+      final IMicroDocumentType aDocType = parseDocumentTypeDeclaration (sDTD);
+      if (aDocType != null)
+        m_aDocType = aDocType;
+    }
+
+    @Nullable
+    IMicroDocument read (@Nonnull final XMLStreamReader aReader) throws XMLStreamException
+    {
+      while (aReader.hasNext ())
+      {
+        final int nEventType = aReader.next ();
+        switch (nEventType)
+        {
+          case XMLStreamConstants.START_ELEMENT:
+            _startElement (aReader);
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            _endElement ();
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+            _text (aReader, nEventType);
+            break;
+          case XMLStreamConstants.SPACE:
+            // Ignorable whitespace is not retained, like in SAX
+            break;
+          case XMLStreamConstants.COMMENT:
+            _flushText ();
+            _createParentDocument ();
+            m_aParent.appendComment (aReader.getTextCharacters (), aReader.getTextStart (), aReader.getTextLength ());
+            break;
+          case XMLStreamConstants.PROCESSING_INSTRUCTION:
+            _flushText ();
+            _createParentDocument ();
+            m_aParent.appendProcessingInstruction (aReader.getPITarget (), aReader.getPIData ());
+            break;
+          case XMLStreamConstants.ENTITY_REFERENCE:
+            if (m_aParent != null)
+            {
+              _flushText ();
+              m_aParent.appendEntityReference (aReader.getLocalName ());
+            }
+            break;
+          case XMLStreamConstants.DTD:
+            _docType (aReader.getText ());
+            break;
+          default:
+            // Document start and end etc.
+            break;
+        }
+      }
+      return m_aDoc;
+    }
+  }
+
+  @PresentForCodeCoverage
+  private static final MicroStAXReader s_aInstance = new MicroStAXReader ();
+
+  private MicroStAXReader ()
+  {}
+
+  @Nullable
+  private static String _readDTDToken (@Nonnull final String sDTD, @Nonnull final int [] aPos)
+  {
+    int nPos = aPos[0];
+    final int nLen = sDTD.length ();
+    while (nPos < nLen && Character.isWhitespace (sDTD.charAt (nPos)))
+      nPos++;
+    if (nPos >= nLen)
+      return null;
+
+    final char c = sDTD.charAt (nPos);
+    int nEnd;
+    String ret;
+    if (c == '"' || c == '\'')
+    {
+      nEnd = sDTD.indexOf (c, nPos + 1);
+      if (nEnd < 0)
+        return null;
+      ret = sDTD.substring (nPos + 1, nEnd);
+      nEnd++;
+    }
+    else
+    {
+      nEnd = nPos;
+      while (nEnd < nLen)
+      {
+        final char c2 = sDTD.charAt (nEnd);
+        if (Character.isWhitespace (c2) || c2 == '[' || c2 == '>')
+          break;
+        nEnd++;
+      }
+      if (nEnd == nPos)
+        return null;
+      ret = sDTD.substring (nPos, nEnd);
+    }
+    aPos[0] = nEnd;
+    return ret;
+  }
+
+  /**
+   * Parse the name, public ID and system ID from a document type declaration
+   * like <code>&lt;!DOCTYPE html PUBLIC "-//W3C//DTD XHTML 1.0 Strict//EN"
+   * "http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd"&gt;</code>. StAX only
+   * provides the text of the declaration.
+   *
+   * @param sDTD
+   *        The document type declaration text. May be <code>null</code>.
+   * @return <code>null</code> if the text could not be parsed.
+   */
+  @Nullable
+  static IMicroDocumentType parseDocumentTypeDeclaration (@Nullable final String sDTD)
+  {
+    if (sDTD == null || !sDTD.startsWith ("<!DOCTYPE"))
+      return null;
+
+    final int [] aPos = { "<!DOCTYPE".length () };
+    final String sName = _readDTDToken (sDTD, aPos);
+    if (StringHelper.hasNoText (sName))
+      return null;
+
+    String sPublicID = null;
+    String sSystemID = null;
+    final String sType = _readDTDToken (sDTD, aPos);
+    if ("PUBLIC".equals (sType))
+    {
+      sPublicID = _readDTDToken (sDTD, aPos);
+      sSystemID = _readDTDToken (sDTD, aPos);
+    }
+    else
+      if ("SYSTEM".equals (sType))
+        sSystemID = _readDTDToken (sDTD, aPos);
+    return new MicroDocumentType (sName, sPublicID, sSystemID);
+  }
+
+  /**
+   * Read the document from the passed StAX reader. The reader is not closed.
+   *
+   * @param aReader
+   *        The StAX reader to read from. Must be positioned at the start of
+   *        the document and should be namespace aware and not coalescing. May
+   *        not be <code>null</code>.
+   * @return <code>null</code> if the input was invalid XML.
+   */
+  @Nullable
+  public static IMicroDocument readMicroXML (@Nonnull @WillNotClose final XMLStreamReader aReader)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+
+    try
+    {
+      return new DocumentBuilder ().read (aReader);
+    }
+    catch (final XMLStreamException ex)
+    {
+      s_aLogger.error ("Failed to read XML: " + ex.getMessage ());
+      return null;
+    }
+  }
+
+  @Nullable
+  public static IMicroDocument readMicroXML (@Nullable @WillClose final InputStream aIS)
+  {
+    if (aIS == null)
+      return null;
+
+    try
+    {
+      final XMLStreamReader aReader = s_aFactory.createXMLStreamReader (aIS);
+      try
+      {
+        return readMicroXML (aReader);
+      }
+      finally
+      {
+        aReader.close ();
+      }
+    }
+    catch (final XMLStreamException ex)
+    {
+      s_aLogger.error ("Failed to read XML: " + ex.getMessage ());
+      return null;
+    }
+    finally
+    {
+      StreamHelper.close (aIS);
+    }
+  }
+
+  @Nullable
+  public static IMicroDocument readMicroXML (@Nullable @WillClose final Reader aReader)
+  {
+    if (aReader == null)
+      return null;
+
+    try
+    {
+      final XMLStreamReader aXMLReader = s_aFactory.createXMLStreamReader (aReader);
+      try
+      {
+        return readMicroXML (aXMLReader);
+      }
+      finally
+      {
+        aXMLReader.close ();
+      }
+    }
+    catch (final XMLStreamException ex)
+    {
+      s_aLogger.error ("Failed to read XML: " + ex.getMessage ());
+      return null;
+    }
+    finally
+    {
+      StreamHelper.close (aReader);
+    }
+  }
+
+  @Nullable
+  public static IMicroDocument readMicroXML (@Nullable final IReadableResource aRes)
+  {
+    return aRes == null ? null : readMicroXML (aRes.getInputStream ());
+  }
+
+  @Nullable
+  public static IMicroDocument readMicroXML (@Nullable final String sXML)
+  {
+    return sXML == null ? null : readMicroXML (new NonBlockingStringReader (sXML));
+  }
+}
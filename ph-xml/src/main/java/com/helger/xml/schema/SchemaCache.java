@@ -16,8 +16,13 @@
  */
 package com.helger.xml.schema;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
@@ -34,38 +39,143 @@ import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.cache.Cache;
 import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.concurrent.SimpleLock;
 import com.helger.commons.collection.impl.ICommonsList;
 import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.pool.ConcurrentObjectPool;
 import com.helger.commons.state.EChange;
 import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.system.SystemHelper;
 import com.helger.xml.transform.TransformSourceFactory;
 
 /**
  * Base class for caching abstract {@link Schema} objects. A {@link Schema} is
  * immutable and can therefore safely be used in multi-threaded environments.
+ * {@link Validator} objects are not thread-safe, but they are pooled per
+ * {@link Schema} and reused by
+ * {@link #validate(Schema, Source, ErrorHandler)}. Only schemas created by
+ * this cache are pooled, so that foreign schemas are not kept alive.
  *
  * @author Philip Helger
  */
 @ThreadSafe
 public class SchemaCache extends Cache <ICommonsList <? extends IReadableResource>, Schema>
 {
+  /**
+   * The maximum number of pooled validators per schema
+   *
+   * @since 9.0.0
+   */
+  public static final int DEFAULT_VALIDATOR_POOL_SIZE = Math.max (4, SystemHelper.getNumberOfProcessors ());
+  private static final int MAX_SIZE = 500;
+
+  /**
+   * The schemas created by a cache. The schemas are weakly referenced and
+   * compared by identity, as {@link Schema} does not override equals.
+   */
+  private static final class OwnSchemas
+  {
+    private final SimpleLock m_aLock = new SimpleLock ();
+    private final Map <Schema, Boolean> m_aMap = new WeakHashMap <> ();
+
+    void add (@Nonnull final Schema aSchema)
+    {
+      m_aLock.locked ( () -> m_aMap.put (aSchema, Boolean.TRUE));
+    }
+
+    boolean contains (@Nonnull final Schema aSchema)
+    {
+      // WeakHashMap.get modifies the map
+      return m_aLock.locked ( () -> m_aMap.containsKey (aSchema));
+    }
+
+    void remove (@Nonnull final Schema aSchema)
+    {
+      m_aLock.locked ( () -> m_aMap.remove (aSchema));
+    }
+
+    void clear ()
+    {
+      m_aLock.locked ( () -> m_aMap.clear ());
+    }
+  }
+
   private final String m_sSchemaTypeName;
   private final SchemaFactory m_aSchemaFactory;
+  private final OwnSchemas m_aOwnSchemas;
+  // Schema does not override equals, so the pools are keyed by identity
+  private final Cache <Schema, ConcurrentObjectPool <Validator>> m_aValidatorPools;
+  private final LongAdder m_aPooledValidatorCreateCount = new LongAdder ();
 
   public SchemaCache (@Nonnull final String sSchemaTypeName,
                       @Nonnull final SchemaFactory aSchemaFactory,
                       @Nullable final ErrorHandler aErrorHandler,
                       @Nullable final LSResourceResolver aResourceResolver)
   {
-    super (aKey -> createSchema (aSchemaFactory, sSchemaTypeName, aKey),
-           500,
-           SchemaCache.class.getName () + "$" + sSchemaTypeName);
+    this (sSchemaTypeName, aSchemaFactory, aErrorHandler, aResourceResolver, DEFAULT_CONCURRENT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param sSchemaTypeName
+   *        The schema type name. May not be <code>null</code>.
+   * @param aSchemaFactory
+   *        The schema factory to use. May not be <code>null</code>.
+   * @param aErrorHandler
+   *        The error handler to use. May be <code>null</code>.
+   * @param aResourceResolver
+   *        The resource resolver to use. May be <code>null</code>.
+   * @param bConcurrent
+   *        <code>true</code> to use the concurrent cache engine, so that
+   *        compiling a schema does not block the retrieval of other cached
+   *        schemas. Because a {@link SchemaFactory} is not thread-safe, the
+   *        compilation itself is still serialized.
+   * @since 9.0.0
+   */
+  public SchemaCache (@Nonnull final String sSchemaTypeName,
+                      @Nonnull final SchemaFactory aSchemaFactory,
+                      @Nullable final ErrorHandler aErrorHandler,
+                      @Nullable final LSResourceResolver aResourceResolver,
+                      final boolean bConcurrent)
+  {
+    this (sSchemaTypeName, aSchemaFactory, aErrorHandler, aResourceResolver, bConcurrent, new OwnSchemas ());
+  }
+
+  private SchemaCache (@Nonnull final String sSchemaTypeName,
+                       @Nonnull final SchemaFactory aSchemaFactory,
+                       @Nullable final ErrorHandler aErrorHandler,
+                       @Nullable final LSResourceResolver aResourceResolver,
+                       final boolean bConcurrent,
+                       @Nonnull final OwnSchemas aOwnSchemas)
+  {
+    super (aKey -> {
+      final Schema ret;
+      // SchemaFactory is not thread-safe
+      synchronized (aSchemaFactory)
+      {
+        ret = createSchema (aSchemaFactory, sSchemaTypeName, aKey);
+      }
+      aOwnSchemas.add (ret);
+      return ret;
+    }, MAX_SIZE, SchemaCache.class.getName () + "$" + sSchemaTypeName, bConcurrent);
     ValueEnforcer.notNull (sSchemaTypeName, "SchemaTypeName");
     ValueEnforcer.notNull (aSchemaFactory, "SchemaFactory");
     m_sSchemaTypeName = sSchemaTypeName;
     m_aSchemaFactory = aSchemaFactory;
     m_aSchemaFactory.setErrorHandler (aErrorHandler);
     m_aSchemaFactory.setResourceResolver (aResourceResolver);
+    m_aOwnSchemas = aOwnSchemas;
+    m_aValidatorPools = new Cache <> (this::_createValidatorPool, MAX_SIZE, getName () + "$validators", true);
+  }
+
+  @Nonnull
+  private ConcurrentObjectPool <Validator> _createValidatorPool (@Nonnull final Schema aSchema)
+  {
+    return new ConcurrentObjectPool <Validator> (DEFAULT_VALIDATOR_POOL_SIZE, () -> {
+      m_aPooledValidatorCreateCount.increment ();
+      return getValidatorFromSchema (aSchema);
+    }).setThreadAffinity (true);
   }
 
   @Nonnull
@@ -240,6 +350,81 @@ public class SchemaCache extends Cache <ICommonsList <? extends IReadableResourc
     return getValidatorFromSchema (getSchema (aResources));
   }
 
+  /**
+   * Validate the passed source against the passed schema. If the schema was
+   * created by this cache, the {@link Validator} is taken from a pool of
+   * validators for this schema and is reset after the validation, so that
+   * validators are only created once per schema and thread. For all other
+   * schemas a new {@link Validator} is created, so that they are not kept
+   * alive by this cache.
+   *
+   * @param aSchema
+   *        The schema to validate against. May not be <code>null</code>.
+   * @param aXML
+   *        The XML source to be validated. May not be <code>null</code>.
+   * @param aErrorHandler
+   *        The error handler to be used for this validation. May be
+   *        <code>null</code> to use the error handler provided in the
+   *        constructor.
+   * @throws SAXException
+   *         If the error handler throws a {@link SAXException} or if a fatal
+   *         error is found and the error handler returns normally.
+   * @throws IOException
+   *         If the source could not be read
+   * @since 9.0.0
+   */
+  public final void validate (@Nonnull final Schema aSchema,
+                              @Nonnull final Source aXML,
+                              @Nullable final ErrorHandler aErrorHandler) throws SAXException, IOException
+  {
+    ValueEnforcer.notNull (aSchema, "Schema");
+    ValueEnforcer.notNull (aXML, "XML");
+
+    // Only pool validators of own schemas
+    ConcurrentObjectPool <Validator> aPool = null;
+    if (m_aOwnSchemas.contains (aSchema))
+      aPool = m_aValidatorPools.getFromCache (aSchema);
+    final Validator aPooledValidator = aPool == null ? null : aPool.borrowObject ();
+    final Validator aValidator = aPooledValidator != null ? aPooledValidator : getValidatorFromSchema (aSchema);
+    try
+    {
+      if (aErrorHandler != null)
+        aValidator.setErrorHandler (aErrorHandler);
+      aValidator.validate (aXML, null);
+    }
+    finally
+    {
+      if (aPooledValidator != null)
+      {
+        // Remove all state of this validation
+        aPooledValidator.reset ();
+        aPooledValidator.setErrorHandler (m_aSchemaFactory.getErrorHandler ());
+        aPool.returnObject (aPooledValidator);
+      }
+    }
+  }
+
+  /**
+   * @return The number of validators that were created for the pools of
+   *         {@link #validate(Schema, Source, ErrorHandler)}.
+   * @since 9.0.0
+   */
+  @Nonnegative
+  public final long getPooledValidatorCreateCount ()
+  {
+    return m_aPooledValidatorCreateCount.sum ();
+  }
+
+  /**
+   * @return The number of schemas for which validators are pooled.
+   * @since 9.0.0
+   */
+  @Nonnegative
+  public final int getValidatorPoolCount ()
+  {
+    return m_aValidatorPools.getSize ();
+  }
+
   /**
    * Utility method to remove a single resource from the schema cache.
    *
@@ -253,6 +438,28 @@ public class SchemaCache extends Cache <ICommonsList <? extends IReadableResourc
     return removeFromCache (new CommonsArrayList <> (aKey));
   }
 
+  @Override
+  @Nonnull
+  public EChange removeFromCache (@Nonnull final ICommonsList <? extends IReadableResource> aKey)
+  {
+    final Schema aSchema = getFromCacheNoStats (aKey);
+    if (aSchema != null)
+    {
+      m_aValidatorPools.removeFromCache (aSchema);
+      m_aOwnSchemas.remove (aSchema);
+    }
+    return super.removeFromCache (aKey);
+  }
+
+  @Override
+  @Nonnull
+  public EChange clearCache ()
+  {
+    m_aValidatorPools.clearCache ();
+    m_aOwnSchemas.clear ();
+    return super.clearCache ();
+  }
+
   @Override
   public String toString ()
   {
@@ -75,7 +75,25 @@ public class XMLSchemaCache extends SchemaCache
   public XMLSchemaCache (@Nullable final ErrorHandler aErrorHandler,
                          @Nullable final LSResourceResolver aResourceResolver)
   {
-    super ("XSD", createXSDSchemaFactory (), aErrorHandler, aResourceResolver);
+    this (aErrorHandler, aResourceResolver, DEFAULT_CONCURRENT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aErrorHandler
+   *        The error handler to use. May be <code>null</code>.
+   * @param aResourceResolver
+   *        The resource resolver to use. May be <code>null</code>.
+   * @param bConcurrent
+   *        <code>true</code> to use the concurrent cache engine.
+   * @since 9.0.0
+   */
+  public XMLSchemaCache (@Nullable final ErrorHandler aErrorHandler,
+                         @Nullable final LSResourceResolver aResourceResolver,
+                         final boolean bConcurrent)
+  {
+    super ("XSD", createXSDSchemaFactory (), aErrorHandler, aResourceResolver, bConcurrent);
   }
 
   public static boolean isInstantiated ()
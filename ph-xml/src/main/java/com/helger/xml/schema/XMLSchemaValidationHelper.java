@@ -16,15 +16,22 @@
  */
 package com.helger.xml.schema;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
 import javax.xml.transform.Source;
 import javax.xml.validation.Schema;
-import javax.xml.validation.Validator;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.Nonempty;
 import com.helger.commons.annotation.PresentForCodeCoverage;
+import com.helger.commons.annotation.ReturnsMutableCopy;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.error.SingleError;
 import com.helger.commons.error.list.ErrorList;
 import com.helger.commons.error.list.IErrorList;
 import com.helger.commons.io.resource.IReadableResource;
@@ -32,7 +39,8 @@ import com.helger.xml.sax.WrappedCollectingSAXErrorHandler;
 import com.helger.xml.transform.TransformSourceFactory;
 
 /**
- * A helper class for simple XSD validation.
+ * A helper class for simple XSD validation. The validation uses the pooled
+ * validators of {@link XMLSchemaCache#getInstance()}.
  *
  * @author Philip Helger
  */
@@ -91,7 +99,10 @@ public final class XMLSchemaValidationHelper
 
   /**
    * Validate the passed XML against the passed XSD and put all errors in the
-   * passed error list.
+   * passed error list. If the schema was retrieved from
+   * {@link XMLSchemaCache#getInstance()}, a pooled
+   * {@link javax.xml.validation.Validator} is used. Otherwise a new validator
+   * is created and the schema is not retained.
    *
    * @param aSchema
    *        The source XSD. May not be <code>null</code>.
@@ -111,12 +122,9 @@ public final class XMLSchemaValidationHelper
     ValueEnforcer.notNull (aXML, "XML");
     ValueEnforcer.notNull (aErrorList, "ErrorList");
 
-    // Build the validator
-    final Validator aValidator = aSchema.newValidator ();
-    aValidator.setErrorHandler (new WrappedCollectingSAXErrorHandler (aErrorList));
     try
     {
-      aValidator.validate (aXML, null);
+      XMLSchemaCache.getInstance ().validate (aSchema, aXML, new WrappedCollectingSAXErrorHandler (aErrorList));
     }
     catch (final Exception ex)
     {
@@ -124,4 +132,85 @@ public final class XMLSchemaValidationHelper
       throw new IllegalArgumentException ("Failed to validate the XML " + aXML + " against " + aSchema, ex);
     }
   }
+
+  @Nonnull
+  private static IErrorList _validateNoThrow (@Nonnull final Schema aSchema, @Nonnull final Source aXML)
+  {
+    final ErrorList aErrorList = new ErrorList ();
+    try
+    {
+      validate (aSchema, aXML, aErrorList);
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // Don't fail the whole batch because of a single broken document. Parse
+      // errors were already reported to the error list.
+      if (aErrorList.containsNoError ())
+        aErrorList.add (SingleError.builderFatalError ()
+                                   .setErrorText (ex.getMessage ())
+                                   .setLinkedException (ex.getCause ())
+                                   .build ());
+    }
+    return aErrorList;
+  }
+
+  /**
+   * Validate all passed XML sources against the passed XSDs in parallel, using
+   * the common fork join pool.
+   *
+   * @param aSchemas
+   *        The XSDs to validate against. May neither be <code>null</code> nor
+   *        empty.
+   * @param aXMLs
+   *        The XML sources to be validated. May not be <code>null</code>.
+   * @return One error list per source, in the order of the sources. Never
+   *         <code>null</code>.
+   * @see #validateAll(Schema, Iterable, Executor)
+   * @since 9.0.0
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsList <IErrorList> validateAll (@Nonnull @Nonempty final IReadableResource [] aSchemas,
+                                                       @Nonnull final Iterable <? extends Source> aXMLs)
+  {
+    return validateAll (XMLSchemaCache.getInstance ().getSchema (aSchemas), aXMLs, ForkJoinPool.commonPool ());
+  }
+
+  /**
+   * Validate all passed XML sources against the passed XSD in parallel. Each
+   * source is validated in a separate task on the passed executor, using a
+   * pooled {@link javax.xml.validation.Validator}. If the validation of a
+   * single source fails with an exception (e.g. because it is not well-formed
+   * XML), this is reported as a fatal error in the error list of that source
+   * and the other sources are still validated.
+   *
+   * @param aSchema
+   *        The XSD to validate against. May not be <code>null</code>.
+   * @param aXMLs
+   *        The XML sources to be validated. The sources must not be shared
+   *        between multiple entries. May not be <code>null</code>.
+   * @param aExecutor
+   *        The executor to run the validations. May not be <code>null</code>.
+   * @return One error list per source, in the order of the sources. Never
+   *         <code>null</code>.
+   * @since 9.0.0
+   */
+  @Nonnull
+  @ReturnsMutableCopy
+  public static ICommonsList <IErrorList> validateAll (@Nonnull final Schema aSchema,
+                                                       @Nonnull final Iterable <? extends Source> aXMLs,
+                                                       @Nonnull final Executor aExecutor)
+  {
+    ValueEnforcer.notNull (aSchema, "Schema");
+    ValueEnforcer.notNull (aXMLs, "XMLs");
+    ValueEnforcer.notNull (aExecutor, "Executor");
+
+    final ICommonsList <CompletableFuture <IErrorList>> aFutures = new CommonsArrayList <> ();
+    for (final Source aXML : aXMLs)
+    {
+      ValueEnforcer.notNull (aXML, "XML");
+      aFutures.add (CompletableFuture.supplyAsync ( () -> _validateNoThrow (aSchema, aXML), aExecutor));
+    }
+    return aFutures.getAllMapped (CompletableFuture::join);
+  }
 }
@@ -41,10 +41,13 @@ import com.helger.commons.ValueEnforcer;
 import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.pool.ConcurrentObjectPool;
+import com.helger.commons.pool.IMutableObjectPool;
 import com.helger.commons.pool.ObjectPool;
 import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
 import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
 import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.system.SystemHelper;
 import com.helger.commons.timing.StopWatch;
 import com.helger.xml.XMLFactory;
 import com.helger.xml.sax.CollectingSAXErrorHandler;
@@ -65,9 +68,20 @@ public final class DOMReader
   private static final IMutableStatisticsHandlerCounter s_aDomErrorCounterHdl = StatisticsManager.getCounterHandler (DOMReader.class.getName () +
                                                                                                                      "$DOMERRORS");
 
-  // In practice no more than 5 readers are required (even 3 would be enough)
-  private static final ObjectPool <DocumentBuilder> s_aDOMPool = new ObjectPool <> (5,
-                                                                                    () -> XMLFactory.createDocumentBuilder ());
+  /**
+   * By default the simple fixed size object pool with 5 document builders is used
+   *
+   * @since 9.0.0
+   */
+  public static final boolean DEFAULT_USE_CONCURRENT_POOL = false;
+  /**
+   * The maximum number of document builders if the concurrent pool is used
+   *
+   * @since 9.0.0
+   */
+  public static final int DEFAULT_CONCURRENT_POOL_SIZE = Math.max (5, SystemHelper.getNumberOfProcessors ());
+
+  private static volatile IMutableObjectPool <DocumentBuilder> s_aDOMPool = _createPool (DEFAULT_USE_CONCURRENT_POOL);
 
   @PresentForCodeCoverage
   private static final DOMReader s_aInstance = new DOMReader ();
@@ -75,6 +89,46 @@ public final class DOMReader
   private DOMReader ()
   {}
 
+  @Nonnull
+  private static IMutableObjectPool <DocumentBuilder> _createPool (final boolean bConcurrent)
+  {
+    if (bConcurrent)
+      return new ConcurrentObjectPool <> (DEFAULT_CONCURRENT_POOL_SIZE,
+                                          () -> XMLFactory.createDocumentBuilder ()).setThreadAffinity (true);
+    // In practice no more than 5 document builders are required (even 3 would be enough)
+    return new ObjectPool <> (5, () -> XMLFactory.createDocumentBuilder ());
+  }
+
+  /**
+   * @return <code>true</code> if the document builders are pooled in a
+   *         {@link ConcurrentObjectPool}, <code>false</code> if the simple
+   *         {@link ObjectPool} is used.
+   * @since 9.0.0
+   */
+  public static boolean isUseConcurrentPool ()
+  {
+    return s_aDOMPool instanceof ConcurrentObjectPool;
+  }
+
+  /**
+   * Define whether the document builders should be pooled in a
+   * {@link ConcurrentObjectPool} with {@link #DEFAULT_CONCURRENT_POOL_SIZE}
+   * objects and thread affinity, or in the simple {@link ObjectPool} with 5
+   * objects. The concurrent pool avoids that parsing is serialized when many
+   * threads read XML concurrently. Changing this setting creates a new, empty
+   * pool.
+   *
+   * @param bUseConcurrentPool
+   *        <code>true</code> to use the concurrent pool, <code>false</code> to
+   *        use the simple pool.
+   * @since 9.0.0
+   */
+  public static void setUseConcurrentPool (final boolean bUseConcurrentPool)
+  {
+    if (bUseConcurrentPool != isUseConcurrentPool ())
+      s_aDOMPool = _createPool (bUseConcurrentPool);
+  }
+
   public static void reinitialize ()
   {
     s_aDOMPool.clearUnusedItems ();
@@ -306,7 +360,7 @@ public final class DOMReader
     {
       final StopWatch aSW = StopWatch.createdStarted ();
       DocumentBuilder aDocumentBuilder;
-      boolean bFromPool = false;
+      IMutableObjectPool <DocumentBuilder> aPool = null;
       if (aSettings.requiresNewXMLParser ())
       {
         // We need to create a new DocumentBuilderFactory
@@ -321,8 +375,9 @@ public final class DOMReader
       else
       {
         // Use one from the pool
-        aDocumentBuilder = s_aDOMPool.borrowObject ();
-        bFromPool = true;
+        // Remember the pool in case it is exchanged in the meantime
+        aPool = s_aDOMPool;
+        aDocumentBuilder = aPool.borrowObject ();
       }
 
       try
@@ -358,10 +413,10 @@ public final class DOMReader
       }
       finally
       {
-        if (bFromPool)
+        if (aPool != null)
         {
           // Return to the pool
-          s_aDOMPool.returnObject (aDocumentBuilder);
+          aPool.returnObject (aDocumentBuilder);
         }
       }
     }
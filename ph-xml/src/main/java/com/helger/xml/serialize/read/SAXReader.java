@@ -37,12 +37,14 @@ import com.helger.commons.annotation.PresentForCodeCoverage;
 import com.helger.commons.io.IHasInputStream;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.commons.io.stream.StreamHelper;
+import com.helger.commons.pool.ConcurrentObjectPool;
 import com.helger.commons.pool.IMutableObjectPool;
 import com.helger.commons.pool.ObjectPool;
 import com.helger.commons.state.ESuccess;
 import com.helger.commons.statistics.IMutableStatisticsHandlerCounter;
 import com.helger.commons.statistics.IMutableStatisticsHandlerTimer;
 import com.helger.commons.statistics.StatisticsManager;
+import com.helger.commons.system.SystemHelper;
 import com.helger.commons.timing.StopWatch;
 import com.helger.xml.sax.InputSourceFactory;
 
@@ -60,9 +62,25 @@ public final class SAXReader
   private static final IMutableStatisticsHandlerCounter s_aSaxErrorCounterHdl = StatisticsManager.getCounterHandler (SAXReader.class.getName () +
                                                                                                                      "$error");
 
-  // In practice no more than 5 readers are required (even 3 would be enough)
-  private static final IMutableObjectPool <org.xml.sax.XMLReader> s_aSAXPool = new ObjectPool <> (5,
-                                                                                                  new SAXReaderFactory ());
+  /**
+   * By default the simple fixed size object pool with 5 parsers is used
+   *
+   * @since 9.0.0
+   */
+  public static final boolean DEFAULT_USE_CONCURRENT_POOL = false;
+  /**
+   * The maximum number of parsers if the concurrent pool is used
+   *
+   * @since 9.0.0
+   */
+  public static final int DEFAULT_CONCURRENT_POOL_SIZE = Math.max (5, SystemHelper.getNumberOfProcessors ());
+
+  private static volatile IMutableObjectPool <org.xml.sax.XMLReader> s_aSAXPool;
+
+  static
+  {
+    s_aSAXPool = _createPool (DEFAULT_USE_CONCURRENT_POOL);
+  }
 
   @PresentForCodeCoverage
   private static final SAXReader s_aInstance = new SAXReader ();
@@ -70,6 +88,56 @@ public final class SAXReader
   private SAXReader ()
   {}
 
+  @Nonnull
+  private static IMutableObjectPool <org.xml.sax.XMLReader> _createPool (final boolean bConcurrent)
+  {
+    if (bConcurrent)
+      return new ConcurrentObjectPool <> (DEFAULT_CONCURRENT_POOL_SIZE,
+                                          new SAXReaderFactory ()).setThreadAffinity (true);
+    // In practice no more than 5 parsers are required (even 3 would be enough)
+    return new ObjectPool <> (5, new SAXReaderFactory ());
+  }
+
+  /**
+   * @return <code>true</code> if the parsers are pooled in a
+   *         {@link ConcurrentObjectPool}, <code>false</code> if the simple
+   *         {@link ObjectPool} is used.
+   * @since 9.0.0
+   */
+  public static boolean isUseConcurrentPool ()
+  {
+    return s_aSAXPool instanceof ConcurrentObjectPool;
+  }
+
+  /**
+   * Define whether the parsers should be pooled in a
+   * {@link ConcurrentObjectPool} with {@link #DEFAULT_CONCURRENT_POOL_SIZE}
+   * objects and thread affinity, or in the simple {@link ObjectPool} with 5
+   * objects. The concurrent pool avoids that parsing is serialized when many
+   * threads read XML concurrently. Changing this setting creates a new, empty
+   * pool.
+   *
+   * @param bUseConcurrentPool
+   *        <code>true</code> to use the concurrent pool, <code>false</code> to
+   *        use the simple pool.
+   * @since 9.0.0
+   */
+  public static void setUseConcurrentPool (final boolean bUseConcurrentPool)
+  {
+    if (bUseConcurrentPool != isUseConcurrentPool ())
+      s_aSAXPool = _createPool (bUseConcurrentPool);
+  }
+
+  /**
+   * Discard all currently unused parsers.
+   *
+   * @since 9.0.0
+   */
+  public static void reinitialize ()
+  {
+    s_aSAXPool.clearUnusedItems ();
+  }
+
   @Nonnull
   public static ESuccess readXMLSAX (@Nonnull final File aFile, @Nonnull final ISAXReaderSettings aSettings)
   {
@@ -205,7 +273,7 @@ public final class SAXReader
 
     try
     {
-      boolean bFromPool = false;
+      IMutableObjectPool <org.xml.sax.XMLReader> aPool = null;
       org.xml.sax.XMLReader aParser;
       if (aSettings.requiresNewXMLParser ())
       {
@@ -214,8 +282,9 @@ public final class SAXReader
       else
       {
         // use parser from pool
-        aParser = s_aSAXPool.borrowObject ();
-        bFromPool = true;
+        // Remember the pool in case it is exchanged in the meantime
+        aPool = s_aSAXPool;
+        aParser = aPool.borrowObject ();
       }
 
       try
@@ -235,10 +304,10 @@ public final class SAXReader
       }
       finally
       {
-        if (bFromPool)
+        if (aPool != null)
         {
           // Return parser to pool
-          s_aSAXPool.returnObject (aParser);
+          aPool.returnObject (aParser);
         }
       }
     }
@@ -17,6 +17,7 @@
 package com.helger.xml.serialize.write;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.Set;
 
@@ -32,6 +33,7 @@ import com.helger.commons.annotation.ReturnsMutableCopy;
 import com.helger.commons.annotation.ReturnsMutableObject;
 import com.helger.commons.collection.ArrayHelper;
 import com.helger.commons.collection.impl.ICommonsSet;
+import com.helger.commons.io.stream.NonBlockingCharArrayWriter;
 import com.helger.commons.string.StringHelper;
 import com.helger.xml.EXMLVersion;
 
@@ -427,6 +429,24 @@ public final class XMLMaskHelper
       MASK_TEXT_HTML_SQ_REPLACE[i] = getHTMLEntityReferenceString (MASK_TEXT_HTML_SQ[i]).toCharArray ();
   }
 
+  // Indexed by EXMLSerializeVersion and EXMLCharMode; null if nothing is masked
+  private static final XMLMaskTable [] [] MASK_TABLES = new XMLMaskTable [EXMLSerializeVersion.values ().length] [EXMLCharMode.values ().length];
+
+  static
+  {
+    for (final EXMLSerializeVersion eXMLVersion : EXMLSerializeVersion.values ())
+      for (final EXMLCharMode eXMLCharMode : EXMLCharMode.values ())
+      {
+        final char [] aSrcMap = _findSourceMap (eXMLVersion, eXMLCharMode);
+        if (aSrcMap != null)
+          MASK_TABLES[eXMLVersion.ordinal ()][eXMLCharMode.ordinal ()] = new XMLMaskTable (eXMLVersion,
+                                                                                          eXMLCharMode,
+                                                                                          aSrcMap,
+                                                                                          _findReplaceMap (eXMLVersion,
+                                                                                                           eXMLCharMode));
+      }
+  }
+
   @PresentForCodeCoverage
   private static final XMLMaskHelper s_aInstance = new XMLMaskHelper ();
 
@@ -574,6 +594,22 @@ public final class XMLMaskHelper
     if (StringHelper.hasNoText (s))
       return ArrayHelper.EMPTY_CHAR_ARRAY;
 
+    final XMLMaskTable aMaskTable = MASK_TABLES[eXMLVersion.ordinal ()][eXMLCharMode.ordinal ()];
+    if (aMaskTable != null)
+    {
+      // Single pass masking
+      final NonBlockingCharArrayWriter aWriter = new NonBlockingCharArrayWriter (s.length () + 16);
+      try
+      {
+        aMaskTable.maskTo (eIncorrectCharHandling, s, aWriter);
+      }
+      catch (final IOException ex)
+      {
+        throw new UncheckedIOException (ex);
+      }
+      return aWriter.toCharArray ();
+    }
+
     char [] aChars = s.toCharArray ();
 
     // 1. do incorrect character handling
@@ -626,6 +662,10 @@ public final class XMLMaskHelper
     if (StringHelper.hasNoText (s))
       return 0;
 
+    final XMLMaskTable aMaskTable = MASK_TABLES[eXMLVersion.ordinal ()][eXMLCharMode.ordinal ()];
+    if (aMaskTable != null)
+      return aMaskTable.getMaskedLength (eIncorrectCharHandling, s);
+
     char [] aChars = s.toCharArray ();
 
     // 1. do incorrect character handling
@@ -663,7 +703,13 @@ public final class XMLMaskHelper
                                     @Nonnull final Writer aWriter) throws IOException
   {
     if (StringHelper.hasText (s))
-      maskXMLTextTo (eXMLVersion, eXMLCharMode, eIncorrectCharHandling, s.toCharArray (), 0, s.length (), aWriter);
+    {
+      final XMLMaskTable aMaskTable = MASK_TABLES[eXMLVersion.ordinal ()][eXMLCharMode.ordinal ()];
+      if (aMaskTable != null)
+        aMaskTable.maskTo (eIncorrectCharHandling, s, aWriter);
+      else
+        maskXMLTextTo (eXMLVersion, eXMLCharMode, eIncorrectCharHandling, s.toCharArray (), 0, s.length (), aWriter);
+    }
   }
 
   public static void maskXMLTextTo (@Nonnull final EXMLSerializeVersion eXMLVersion,
@@ -677,6 +723,14 @@ public final class XMLMaskHelper
     if (nLen == 0)
       return;
 
+    final XMLMaskTable aMaskTable = MASK_TABLES[eXMLVersion.ordinal ()][eXMLCharMode.ordinal ()];
+    if (aMaskTable != null)
+    {
+      // Single pass masking
+      aMaskTable.maskTo (eIncorrectCharHandling, aText, nOfs, nLen, aWriter);
+      return;
+    }
+
     char [] aChars = aText;
     int nRealOfs = nOfs;
     int nRealLen = nLen;
@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.serialize.write;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import com.helger.commons.collection.ArrayHelper;
+
+/**
+ * A precomputed masking table for a single combination of
+ * {@link EXMLSerializeVersion} and {@link EXMLCharMode}. The masking is done in
+ * a single pass over the source text: runs of characters that need no masking
+ * are written to the target in one block, and only characters that need
+ * masking are replaced by their entity text. No copy of the source text is
+ * created.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@Immutable
+final class XMLMaskTable
+{
+  private final EXMLSerializeVersion m_eXMLVersion;
+  private final EXMLCharMode m_eXMLCharMode;
+  // Indexed by char; null means no masking needed
+  private final char [] [] m_aReplace;
+  // All chars that are invalid in the version and mode
+  private final BitSet m_aInvalidChars;
+
+  XMLMaskTable (@Nonnull final EXMLSerializeVersion eXMLVersion,
+                @Nonnull final EXMLCharMode eXMLCharMode,
+                @Nonnull final char [] aSrcMap,
+                @Nonnull final char [] [] aDstMap)
+  {
+    m_eXMLVersion = eXMLVersion;
+    m_eXMLCharMode = eXMLCharMode;
+
+    char cMax = 0;
+    for (final char c : aSrcMap)
+      if (c > cMax)
+        cMax = c;
+    m_aReplace = new char [cMax + 1] [];
+    for (int i = 0; i < aSrcMap.length; ++i)
+      m_aReplace[aSrcMap[i]] = aDstMap[i];
+
+    m_aInvalidChars = new BitSet (Character.MAX_VALUE + 1);
+    for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; ++c)
+      if (eXMLCharMode == EXMLCharMode.TEXT ? XMLCharHelper.isInvalidXMLTextChar (eXMLVersion, c)
+                                            : XMLCharHelper.isInvalidXMLAttributeValueChar (eXMLVersion, c))
+        m_aInvalidChars.set (c);
+  }
+
+  private void _notifyInvalid (@Nonnull final EXMLIncorrectCharacterHandling eIncorrectCharHandling,
+                               @Nonnull final String sText)
+  {
+    // Called at most once per text, so the extra scan does not matter
+    if (eIncorrectCharHandling.isNotifyRequired ())
+      eIncorrectCharHandling.notifyOnInvalidXMLCharacter (sText,
+                                                          XMLCharHelper.getAllInvalidXMLChars (m_eXMLVersion,
+                                                                                              m_eXMLCharMode,
+                                                                                              sText));
+  }
+
+  /**
+   * Mask the passed text and write it to the passed writer.
+   *
+   * @param eIncorrectCharHandling
+   *        The incorrect character handling to use. May not be
+   *        <code>null</code>.
+   * @param sText
+   *        The text to be masked. May not be <code>null</code>.
+   * @param aWriter
+   *        The writer to write to. May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails
+   */
+  void maskTo (@Nonnull final EXMLIncorrectCharacterHandling eIncorrectCharHandling,
+               @Nonnull final String sText,
+               @Nonnull final Writer aWriter) throws IOException
+  {
+    final char [] [] aReplace = m_aReplace;
+    final int nReplaceLen = aReplace.length;
+    final boolean bTest = eIncorrectCharHandling.isTestRequired ();
+    final int nLen = sText.length ();
+    boolean bInvalidFound = false;
+    int nRunStart = 0;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c = sText.charAt (i);
+      char [] aDst = c < nReplaceLen ? aReplace[c] : null;
+      if (bTest && m_aInvalidChars.get (c))
+      {
+        if (!bInvalidFound)
+        {
+          _notifyInvalid (eIncorrectCharHandling, sText);
+          bInvalidFound = true;
+        }
+        if (eIncorrectCharHandling.isReplaceWithNothing ())
+          aDst = ArrayHelper.EMPTY_CHAR_ARRAY;
+      }
+      if (aDst != null)
+      {
+        if (i > nRunStart)
+          aWriter.write (sText, nRunStart, i - nRunStart);
+        if (aDst.length > 0)
+          aWriter.write (aDst);
+        nRunStart = i + 1;
+      }
+    }
+    if (nLen > nRunStart)
+      aWriter.write (sText, nRunStart, nLen - nRunStart);
+  }
+
+  /**
+   * Mask the passed text and write it to the passed writer.
+   *
+   * @param eIncorrectCharHandling
+   *        The incorrect character handling to use. May not be
+   *        <code>null</code>.
+   * @param aText
+   *        The text to be masked. May not be <code>null</code>.
+   * @param nOfs
+   *        Offset into the text. Must be &ge; 0.
+   * @param nLen
+   *        Number of chars to mask. Must be &ge; 0.
+   * @param aWriter
+   *        The writer to write to. May not be <code>null</code>.
+   * @throws IOException
+   *         In case writing fails
+   */
+  void maskTo (@Nonnull final EXMLIncorrectCharacterHandling eIncorrectCharHandling,
+               @Nonnull final char [] aText,
+               @Nonnegative final int nOfs,
+               @Nonnegative final int nLen,
+               @Nonnull final Writer aWriter) throws IOException
+  {
+    final char [] [] aReplace = m_aReplace;
+    final int nReplaceLen = aReplace.length;
+    final boolean bTest = eIncorrectCharHandling.isTestRequired ();
+    final int nEnd = nOfs + nLen;
+    boolean bInvalidFound = false;
+    int nRunStart = nOfs;
+    for (int i = nOfs; i < nEnd; ++i)
+    {
+      final char c = aText[i];
+      char [] aDst = c < nReplaceLen ? aReplace[c] : null;
+      if (bTest && m_aInvalidChars.get (c))
+      {
+        if (!bInvalidFound)
+        {
+          _notifyInvalid (eIncorrectCharHandling, new String (aText, nOfs, nLen));
+          bInvalidFound = true;
+        }
+        if (eIncorrectCharHandling.isReplaceWithNothing ())
+          aDst = ArrayHelper.EMPTY_CHAR_ARRAY;
+      }
+      if (aDst != null)
+      {
+        if (i > nRunStart)
+          aWriter.write (aText, nRunStart, i - nRunStart);
+        if (aDst.length > 0)
+          aWriter.write (aDst);
+        nRunStart = i + 1;
+      }
+    }
+    if (nEnd > nRunStart)
+      aWriter.write (aText, nRunStart, nEnd - nRunStart);
+  }
+
+  /**
+   * Get the length of the masked text without creating it.
+   *
+   * @param eIncorrectCharHandling
+   *        The incorrect character handling to use. May not be
+   *        <code>null</code>.
+   * @param sText
+   *        The text to be masked. May not be <code>null</code>.
+   * @return The length of the masked text.
+   */
+  @Nonnegative
+  int getMaskedLength (@Nonnull final EXMLIncorrectCharacterHandling eIncorrectCharHandling,
+                       @Nonnull final String sText)
+  {
+    final char [] [] aReplace = m_aReplace;
+    final int nReplaceLen = aReplace.length;
+    final boolean bTest = eIncorrectCharHandling.isTestRequired ();
+    final int nLen = sText.length ();
+    boolean bInvalidFound = false;
+    int ret = 0;
+    for (int i = 0; i < nLen; ++i)
+    {
+      final char c = sText.charAt (i);
+      if (bTest && m_aInvalidChars.get (c))
+      {
+        if (!bInvalidFound)
+        {
+          _notifyInvalid (eIncorrectCharHandling, sText);
+          bInvalidFound = true;
+        }
+        if (eIncorrectCharHandling.isReplaceWithNothing ())
+          continue;
+      }
+      final char [] aDst = c < nReplaceLen ? aReplace[c] : null;
+      ret += aDst == null ? 1 : aDst.length;
+    }
+    return ret;
+  }
+}
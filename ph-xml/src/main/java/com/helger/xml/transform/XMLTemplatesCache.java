@@ -0,0 +1,455 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.transform;
+
+import java.io.File;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.transform.ErrorListener;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.URIResolver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.CGlobal;
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.cache.Cache;
+import com.helger.commons.concurrent.SimpleLock;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.pool.ConcurrentObjectPool;
+import com.helger.commons.state.ESuccess;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.system.SystemHelper;
+
+/**
+ * A cache for compiled XSLT {@link Templates} objects. The cache key consists
+ * of the stylesheet resource and the URI resolver used to resolve imports and
+ * includes. The URI resolver is compared by identity. If the stylesheet
+ * resource is a file, the cached entry is recompiled as soon as the last
+ * modification time of the file changes.<br>
+ * {@link Transformer} objects are not thread-safe. Therefore each cache entry
+ * contains a pool of transformers created from the compiled templates that
+ * preferably hands out the same transformer to the same thread. Transformers
+ * are reset before they are put back into the pool.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public final class XMLTemplatesCache
+{
+  /** The default maximum number of cached stylesheets */
+  public static final int DEFAULT_MAX_SIZE = 200;
+  /** The default maximum number of pooled transformers per stylesheet */
+  public static final int DEFAULT_POOL_SIZE = Math.max (4, SystemHelper.getNumberOfProcessors ());
+
+  private static final Logger s_aLogger = LoggerFactory.getLogger (XMLTemplatesCache.class);
+
+  private static final class SingletonHolder
+  {
+    private static final XMLTemplatesCache s_aInstance = _createDefaultInstance ();
+
+    @Nonnull
+    private static XMLTemplatesCache _createDefaultInstance ()
+    {
+      final TransformerFactory aFactory = XMLTransformerFactory.createTransformerFactory (new LoggingTransformErrorListener (CGlobal.DEFAULT_LOCALE),
+                                                                                          new DefaultTransformURIResolver ());
+      return new XMLTemplatesCache (aFactory, DEFAULT_MAX_SIZE, DEFAULT_POOL_SIZE, "XMLTemplatesCache");
+    }
+  }
+
+  /**
+   * The cache key. The URI resolver is compared by identity.
+   */
+  @Immutable
+  private static final class Key
+  {
+    private final IReadableResource m_aResource;
+    private final URIResolver m_aURIResolver;
+    private final int m_nHashCode;
+
+    Key (@Nonnull final IReadableResource aResource, @Nullable final URIResolver aURIResolver)
+    {
+      m_aResource = aResource;
+      m_aURIResolver = aURIResolver;
+      m_nHashCode = new HashCodeGenerator (this).append (aResource)
+                                                .append (System.identityHashCode (aURIResolver))
+                                                .getHashCode ();
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (o == null || !getClass ().equals (o.getClass ()))
+        return false;
+      final Key rhs = (Key) o;
+      return m_aURIResolver == rhs.m_aURIResolver && m_aResource.equals (rhs.m_aResource);
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return m_nHashCode;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (null).append ("Resource", m_aResource)
+                                         .append ("URIResolver", m_aURIResolver)
+                                         .getToString ();
+    }
+  }
+
+  /**
+   * A single cache entry with the compiled templates and the pooled
+   * transformers.
+   */
+  private static final class Entry
+  {
+    private final Templates m_aTemplates;
+    private final long m_nLastModified;
+    private final ConcurrentObjectPool <Transformer> m_aPool;
+
+    Entry (@Nonnull final Templates aTemplates,
+           final long nLastModified,
+           @Nonnull final ConcurrentObjectPool <Transformer> aPool)
+    {
+      m_aTemplates = aTemplates;
+      m_nLastModified = nLastModified;
+      m_aPool = aPool;
+    }
+  }
+
+  /**
+   * Internal exception to signal that the templates could not be compiled. As
+   * <code>null</code> values cannot be cached, compilation errors are not
+   * cached either.
+   */
+  private static final class CompileException extends RuntimeException
+  {
+    CompileException ()
+    {
+      super (null, null, false, false);
+    }
+  }
+
+  private final SimpleLock m_aFactoryLock = new SimpleLock ();
+  private final TransformerFactory m_aTransformerFactory;
+  private final URIResolver m_aDefaultURIResolver;
+  private final ErrorListener m_aErrorListener;
+  private final int m_nPoolSize;
+  private final Cache <Key, Entry> m_aCache;
+  private final LongAdder m_aAccessCount = new LongAdder ();
+  private final LongAdder m_aCompileCount = new LongAdder ();
+  private final LongAdder m_aInvalidationCount = new LongAdder ();
+
+  /**
+   * Constructor
+   *
+   * @param aTransformerFactory
+   *        The transformer factory used to compile the stylesheets. May not be
+   *        <code>null</code>. The factory must not be modified after it was
+   *        passed to this cache.
+   * @param nMaxSize
+   *        The maximum number of cached stylesheets. Values &le; 0 mean
+   *        unlimited.
+   * @param nPoolSize
+   *        The maximum number of transformers per stylesheet that can be used
+   *        concurrently. Must be &gt; 0.
+   * @param sName
+   *        The name of the cache, used for the statistics. May neither be
+   *        <code>null</code> nor empty.
+   */
+  public XMLTemplatesCache (@Nonnull final TransformerFactory aTransformerFactory,
+                            final int nMaxSize,
+                            @Nonnegative final int nPoolSize,
+                            @Nonnull @Nonempty final String sName)
+  {
+    m_aTransformerFactory = ValueEnforcer.notNull (aTransformerFactory, "TransformerFactory");
+    m_aDefaultURIResolver = aTransformerFactory.getURIResolver ();
+    m_aErrorListener = aTransformerFactory.getErrorListener ();
+    m_nPoolSize = ValueEnforcer.isGT0 (nPoolSize, "PoolSize");
+    m_aCache = new Cache <> (this::_compile, nMaxSize, sName, true);
+  }
+
+  /**
+   * @return The global instance with its own default transformer factory.
+   *         Never <code>null</code>.
+   */
+  @Nonnull
+  public static XMLTemplatesCache getDefaultInstance ()
+  {
+    return SingletonHolder.s_aInstance;
+  }
+
+  private static long _getLastModified (@Nonnull final IReadableResource aResource)
+  {
+    final File aFile = aResource.getAsFile ();
+    return aFile == null ? 0L : aFile.lastModified ();
+  }
+
+  @Nonnull
+  private Entry _compile (@Nonnull final Key aKey)
+  {
+    // Read the last modification before compiling, so that a concurrent
+    // modification triggers another compilation
+    final long nLastModified = _getLastModified (aKey.m_aResource);
+    final URIResolver aURIResolver = aKey.m_aURIResolver != null ? aKey.m_aURIResolver : m_aDefaultURIResolver;
+
+    // TransformerFactory is not thread-safe
+    final Templates aTemplates = m_aFactoryLock.locked ( () -> {
+      m_aTransformerFactory.setURIResolver (aURIResolver);
+      try
+      {
+        return XMLTransformerFactory.newTemplates (m_aTransformerFactory, aKey.m_aResource);
+      }
+      finally
+      {
+        m_aTransformerFactory.setURIResolver (m_aDefaultURIResolver);
+      }
+    });
+    m_aCompileCount.increment ();
+    if (aTemplates == null)
+      throw new CompileException ();
+
+    final ConcurrentObjectPool <Transformer> aPool = new ConcurrentObjectPool <> (m_nPoolSize, () -> {
+      try
+      {
+        final Transformer ret = aTemplates.newTransformer ();
+        _initTransformer (ret, aURIResolver);
+        return ret;
+      }
+      catch (final TransformerConfigurationException ex)
+      {
+        s_aLogger.error ("Failed to create transformer for " + aKey.m_aResource, ex);
+        return null;
+      }
+    });
+    aPool.setThreadAffinity (true);
+    return new Entry (aTemplates, nLastModified, aPool);
+  }
+
+  private void _initTransformer (@Nonnull final Transformer aTransformer, @Nullable final URIResolver aURIResolver)
+  {
+    if (aURIResolver != null)
+      aTransformer.setURIResolver (aURIResolver);
+    if (m_aErrorListener != null)
+      aTransformer.setErrorListener (m_aErrorListener);
+  }
+
+  @Nullable
+  private Entry _getEntry (@Nonnull final IReadableResource aResource, @Nullable final URIResolver aURIResolver)
+  {
+    ValueEnforcer.notNull (aResource, "Resource");
+
+    m_aAccessCount.increment ();
+    final Key aKey = new Key (aResource, aURIResolver);
+    try
+    {
+      Entry aEntry = m_aCache.getFromCache (aKey);
+      if (aEntry.m_nLastModified != _getLastModified (aResource))
+      {
+        // The stylesheet was modified in the meantime
+        if (m_aCache.removeFromCache (aKey).isChanged ())
+          m_aInvalidationCount.increment ();
+        aEntry = m_aCache.getFromCache (aKey);
+      }
+      return aEntry;
+    }
+    catch (final CompileException ex)
+    {
+      // Error was already logged
+      return null;
+    }
+  }
+
+  /**
+   * Get the compiled templates for the passed stylesheet.
+   *
+   * @param aResource
+   *        The stylesheet resource. May not be <code>null</code>.
+   * @param aURIResolver
+   *        The URI resolver to be used for imports and includes. May be
+   *        <code>null</code> to use the one of the transformer factory.
+   * @return <code>null</code> if the stylesheet could not be compiled.
+   */
+  @Nullable
+  public Templates getTemplates (@Nonnull final IReadableResource aResource, @Nullable final URIResolver aURIResolver)
+  {
+    final Entry aEntry = _getEntry (aResource, aURIResolver);
+    return aEntry == null ? null : aEntry.m_aTemplates;
+  }
+
+  /**
+   * Transform the passed source with the passed stylesheet, using a pooled
+   * transformer.
+   *
+   * @param aResource
+   *        The stylesheet resource. May not be <code>null</code>.
+   * @param aURIResolver
+   *        The URI resolver to be used for imports, includes and
+   *        <code>document()</code> calls. May be <code>null</code> to use the
+   *        one of the transformer factory.
+   * @param aTransformerCustomizer
+   *        An optional customizer that is invoked before the transformation,
+   *        e.g. to set parameters or output properties. All changes are reset
+   *        after the transformation. May be <code>null</code>.
+   * @param aSource
+   *        The source to be transformed. May not be <code>null</code>.
+   * @param aResult
+   *        The result to write to. May not be <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the stylesheet could not be compiled or
+   *         if the transformation failed.
+   */
+  @Nonnull
+  public ESuccess transform (@Nonnull final IReadableResource aResource,
+                             @Nullable final URIResolver aURIResolver,
+                             @Nullable final Consumer <? super Transformer> aTransformerCustomizer,
+                             @Nonnull final Source aSource,
+                             @Nonnull final Result aResult)
+  {
+    ValueEnforcer.notNull (aSource, "Source");
+    ValueEnforcer.notNull (aResult, "Result");
+
+    final Entry aEntry = _getEntry (aResource, aURIResolver);
+    if (aEntry == null)
+      return ESuccess.FAILURE;
+
+    final Transformer aTransformer = aEntry.m_aPool.borrowObject ();
+    if (aTransformer == null)
+      return ESuccess.FAILURE;
+
+    try
+    {
+      if (aTransformerCustomizer != null)
+        aTransformerCustomizer.accept (aTransformer);
+      aTransformer.transform (aSource, aResult);
+      return ESuccess.SUCCESS;
+    }
+    catch (final TransformerException ex)
+    {
+      s_aLogger.error ("Failed to transform " + aSource + " with " + aResource, ex);
+      return ESuccess.FAILURE;
+    }
+    finally
+    {
+      // Remove all parameters and output properties. The JDK XSLTC
+      // implementation of reset does not remove the parameters.
+      aTransformer.clearParameters ();
+      aTransformer.reset ();
+      _initTransformer (aTransformer, aURIResolver != null ? aURIResolver : m_aDefaultURIResolver);
+      aEntry.m_aPool.returnObject (aTransformer);
+    }
+  }
+
+  /**
+   * Transform the passed source with the passed stylesheet, using a pooled
+   * transformer and the URI resolver of the transformer factory.
+   *
+   * @param aResource
+   *        The stylesheet resource. May not be <code>null</code>.
+   * @param aSource
+   *        The source to be transformed. May not be <code>null</code>.
+   * @param aResult
+   *        The result to write to. May not be <code>null</code>.
+   * @return {@link ESuccess#FAILURE} if the stylesheet could not be compiled or
+   *         if the transformation failed.
+   */
+  @Nonnull
+  public ESuccess transform (@Nonnull final IReadableResource aResource,
+                             @Nonnull final Source aSource,
+                             @Nonnull final Result aResult)
+  {
+    return transform (aResource, null, null, aSource, aResult);
+  }
+
+  /**
+   * @return The number of accesses that could be served from the cache
+   *         without compiling.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return Math.max (0, m_aAccessCount.sum () - m_aCompileCount.sum ());
+  }
+
+  /**
+   * @return The number of stylesheet compilations, including failed ones and
+   *         recompilations of modified stylesheets.
+   */
+  @Nonnegative
+  public long getCompileCount ()
+  {
+    return m_aCompileCount.sum ();
+  }
+
+  /**
+   * @return The number of cache entries that were removed, because the
+   *         stylesheet resource was modified.
+   */
+  @Nonnegative
+  public long getInvalidationCount ()
+  {
+    return m_aInvalidationCount.sum ();
+  }
+
+  /**
+   * @return The number of cached stylesheets.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aCache.getSize ();
+  }
+
+  /**
+   * Remove all cached stylesheets.
+   */
+  public void clearCache ()
+  {
+    m_aCache.clearCache ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("PoolSize", m_nPoolSize)
+                                       .append ("Cache", m_aCache)
+                                       .append ("HitCount", getHitCount ())
+                                       .append ("CompileCount", getCompileCount ())
+                                       .append ("InvalidationCount", getInvalidationCount ())
+                                       .getToString ();
+  }
+}
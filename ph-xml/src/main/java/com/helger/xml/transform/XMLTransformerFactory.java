@@ -268,4 +268,20 @@ public final class XMLTransformerFactory
       return null;
     }
   }
+
+  /**
+   * Get the compiled XSLT Template for the passed resource from the
+   * {@link XMLTemplatesCache#getDefaultInstance() default templates cache}. The
+   * template is only compiled again, if the resource was modified.
+   *
+   * @param aResource
+   *        The resource to be templated. May not be <code>null</code>.
+   * @return <code>null</code> if something goes wrong
+   * @since 9.0.0
+   */
+  @Nullable
+  public static Templates getCachedTemplates (@Nonnull final IReadableResource aResource)
+  {
+    return XMLTemplatesCache.getDefaultInstance ().getTemplates (aResource, null);
+  }
 }
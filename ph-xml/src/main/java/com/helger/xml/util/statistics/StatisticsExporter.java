@@ -57,6 +57,30 @@ public final class StatisticsExporter
   public static final String ATTR_MAX = "max";
   /** Attribute name for XML export */
   public static final String ATTR_SUM = "sum";
+  /**
+   * Attribute name for XML export
+   *
+   * @since 9.0.0
+   */
+  public static final String ATTR_P50 = "p50";
+  /**
+   * Attribute name for XML export
+   *
+   * @since 9.0.0
+   */
+  public static final String ATTR_P90 = "p90";
+  /**
+   * Attribute name for XML export
+   *
+   * @since 9.0.0
+   */
+  public static final String ATTR_P99 = "p99";
+  /**
+   * Attribute name for XML export
+   *
+   * @since 9.0.0
+   */
+  public static final String ATTR_P999 = "p999";
   /** Element name for XML export */
   public static final String ELEMENT_COUNTER = "counter";
   /** Element name for XML export */
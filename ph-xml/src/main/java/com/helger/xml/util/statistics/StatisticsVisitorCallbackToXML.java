@@ -19,6 +19,7 @@ package com.helger.xml.util.statistics;
 import java.util.Comparator;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.helger.commons.ValueEnforcer;
 import com.helger.commons.statistics.IStatisticsHandlerCache;
@@ -28,6 +29,7 @@ import com.helger.commons.statistics.IStatisticsHandlerKeyedSize;
 import com.helger.commons.statistics.IStatisticsHandlerKeyedTimer;
 import com.helger.commons.statistics.IStatisticsHandlerSize;
 import com.helger.commons.statistics.IStatisticsHandlerTimer;
+import com.helger.commons.statistics.StatisticsHistogramSnapshot;
 import com.helger.commons.statistics.util.IStatisticsVisitorCallback;
 import com.helger.xml.microdom.IMicroElement;
 
@@ -56,6 +58,16 @@ public class StatisticsVisitorCallbackToXML implements IStatisticsVisitorCallbac
     return m_eRoot;
   }
 
+  private static void _addPercentiles (@Nonnull final IMicroElement aElement,
+                                       @Nullable final StatisticsHistogramSnapshot aSnapshot)
+  {
+    if (aSnapshot != null && !aSnapshot.isEmpty ())
+      aElement.setAttribute (StatisticsExporter.ATTR_P50, aSnapshot.getP50 ())
+              .setAttribute (StatisticsExporter.ATTR_P90, aSnapshot.getP90 ())
+              .setAttribute (StatisticsExporter.ATTR_P99, aSnapshot.getP99 ())
+              .setAttribute (StatisticsExporter.ATTR_P999, aSnapshot.getP999 ());
+  }
+
   @Override
   public void onCache (final String sName, final IStatisticsHandlerCache aHandler)
   {
@@ -71,13 +83,18 @@ public class StatisticsVisitorCallbackToXML implements IStatisticsVisitorCallbac
   public void onTimer (final String sName, final IStatisticsHandlerTimer aHandler)
   {
     if (aHandler.getInvocationCount () > 0)
-      m_eRoot.appendElement (StatisticsExporter.ELEMENT_TIMER)
-             .setAttribute (StatisticsExporter.ATTR_NAME, sName)
-             .setAttribute (StatisticsExporter.ATTR_INVOCATIONCOUNT, aHandler.getInvocationCount ())
-             .setAttribute (StatisticsExporter.ATTR_MIN, aHandler.getMin ())
-             .setAttribute (StatisticsExporter.ATTR_AVERAGE, aHandler.getAverage ())
-             .setAttribute (StatisticsExporter.ATTR_MAX, aHandler.getMax ())
-             .setAttributeWithConversion (StatisticsExporter.ATTR_SUM, aHandler.getSum ());
+    {
+      final IMicroElement eTimer = m_eRoot.appendElement (StatisticsExporter.ELEMENT_TIMER)
+                                          .setAttribute (StatisticsExporter.ATTR_NAME, sName)
+                                          .setAttribute (StatisticsExporter.ATTR_INVOCATIONCOUNT,
+                                                         aHandler.getInvocationCount ())
+                                          .setAttribute (StatisticsExporter.ATTR_MIN, aHandler.getMin ())
+                                          .setAttribute (StatisticsExporter.ATTR_AVERAGE, aHandler.getAverage ())
+                                          .setAttribute (StatisticsExporter.ATTR_MAX, aHandler.getMax ())
+                                          .setAttributeWithConversion (StatisticsExporter.ATTR_SUM, aHandler.getSum ());
+      if (aHandler.isHistogramEnabled ())
+        _addPercentiles (eTimer, aHandler.getHistogramSnapshot ());
+    }
   }
 
   @Override
@@ -91,13 +108,18 @@ public class StatisticsVisitorCallbackToXML implements IStatisticsVisitorCallbac
                                                               aHandler.getInvocationCount ());
       for (final String sKey : aHandler.getAllKeys ().getSorted (Comparator.naturalOrder ()))
       {
-        eKeyedTimer.appendElement (StatisticsExporter.ELEMENT_KEY)
-                   .setAttribute (StatisticsExporter.ATTR_NAME, sKey)
-                   .setAttribute (StatisticsExporter.ATTR_INVOCATIONCOUNT, aHandler.getInvocationCount (sKey))
-                   .setAttribute (StatisticsExporter.ATTR_MIN, aHandler.getMin (sKey))
-                   .setAttribute (StatisticsExporter.ATTR_AVERAGE, aHandler.getAverage (sKey))
-                   .setAttribute (StatisticsExporter.ATTR_MAX, aHandler.getMax (sKey))
-                   .setAttributeWithConversion (StatisticsExporter.ATTR_SUM, aHandler.getSum (sKey));
+        final IMicroElement eKey = eKeyedTimer.appendElement (StatisticsExporter.ELEMENT_KEY)
+                                              .setAttribute (StatisticsExporter.ATTR_NAME, sKey)
+                                              .setAttribute (StatisticsExporter.ATTR_INVOCATIONCOUNT,
+                                                             aHandler.getInvocationCount (sKey))
+                                              .setAttribute (StatisticsExporter.ATTR_MIN, aHandler.getMin (sKey))
+                                              .setAttribute (StatisticsExporter.ATTR_AVERAGE,
+                                                             aHandler.getAverage (sKey))
+                                              .setAttribute (StatisticsExporter.ATTR_MAX, aHandler.getMax (sKey))
+                                              .setAttributeWithConversion (StatisticsExporter.ATTR_SUM,
+                                                                           aHandler.getSum (sKey));
+        if (aHandler.isHistogramEnabled ())
+          _addPercentiles (eKey, aHandler.getHistogramSnapshot (sKey));
       }
     }
   }
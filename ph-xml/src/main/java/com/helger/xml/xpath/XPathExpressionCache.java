@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.xpath;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathFunctionResolver;
+import javax.xml.xpath.XPathVariableResolver;
+
+import com.helger.commons.ValueEnforcer;
+import com.helger.commons.annotation.Nonempty;
+import com.helger.commons.cache.Cache;
+import com.helger.commons.concurrent.SimpleLock;
+import com.helger.commons.hashcode.HashCodeGenerator;
+import com.helger.commons.pool.ConcurrentObjectPool;
+import com.helger.commons.string.ToStringGenerator;
+import com.helger.commons.system.SystemHelper;
+
+/**
+ * A cache for compiled {@link XPathExpression} objects. As
+ * {@link XPathExpression} objects are not thread-safe, each cache entry is a
+ * pool of equivalent compiled expressions and each expression is used by only
+ * one thread at a time.<br>
+ * The cache key consists of the XPath expression string and the variable
+ * resolver, function resolver and namespace context. The resolvers and the
+ * namespace context are compared by identity, because they are bound to the
+ * compiled expression and may be modified afterwards. So reuse the same
+ * objects for repeated evaluations to benefit from this cache.
+ *
+ * @author Philip Helger
+ * @since 9.0.0
+ */
+@ThreadSafe
+public final class XPathExpressionCache
+{
+  /** The default maximum number of cached XPath expression strings */
+  public static final int DEFAULT_MAX_SIZE = 1000;
+  /** The default number of compiled expressions per XPath expression string */
+  public static final int DEFAULT_POOL_SIZE = Math.max (4, SystemHelper.getNumberOfProcessors ());
+
+  private static final class SingletonHolder
+  {
+    private static final XPathExpressionCache s_aInstance = new XPathExpressionCache (XPathHelper.getDefaultXPathFactory (),
+                                                                                        DEFAULT_MAX_SIZE,
+                                                                                        DEFAULT_POOL_SIZE,
+                                                                                        "XPathExpressionCache");
+  }
+
+  /**
+   * The cache key. Resolvers and namespace context are compared by identity.
+   */
+  @Immutable
+  private static final class Key
+  {
+    private final XPathVariableResolver m_aVariableResolver;
+    private final XPathFunctionResolver m_aFunctionResolver;
+    private final NamespaceContext m_aNamespaceContext;
+    private final String m_sXPath;
+    private final int m_nHashCode;
+
+    Key (@Nullable final XPathVariableResolver aVariableResolver,
+         @Nullable final XPathFunctionResolver aFunctionResolver,
+         @Nullable final NamespaceContext aNamespaceContext,
+         @Nonnull final String sXPath)
+    {
+      m_aVariableResolver = aVariableResolver;
+      m_aFunctionResolver = aFunctionResolver;
+      m_aNamespaceContext = aNamespaceContext;
+      m_sXPath = sXPath;
+      m_nHashCode = new HashCodeGenerator (this).append (System.identityHashCode (aVariableResolver))
+                                                 .append (System.identityHashCode (aFunctionResolver))
+                                                 .append (System.identityHashCode (aNamespaceContext))
+                                                 .append (sXPath)
+                                                 .getHashCode ();
+    }
+
+    @Override
+    public boolean equals (final Object o)
+    {
+      if (o == this)
+        return true;
+      if (o == null || !getClass ().equals (o.getClass ()))
+        return false;
+      final Key rhs = (Key) o;
+      return m_aVariableResolver == rhs.m_aVariableResolver &&
+             m_aFunctionResolver == rhs.m_aFunctionResolver &&
+             m_aNamespaceContext == rhs.m_aNamespaceContext &&
+             m_sXPath.equals (rhs.m_sXPath);
+    }
+
+    @Override
+    public int hashCode ()
+    {
+      return m_nHashCode;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return new ToStringGenerator (this).append ("XPath", m_sXPath).getToString ();
+    }
+  }
+
+  // XPathFactory objects are not thread-safe
+  private final SimpleLock m_aFactoryLock = new SimpleLock ();
+  private final XPathFactory m_aXPathFactory;
+  private final int m_nPoolSize;
+  private final Cache <Key, ConcurrentObjectPool <XPathExpression>> m_aCache;
+  private final LongAdder m_aAccessCount = new LongAdder ();
+  private final LongAdder m_aMissCount = new LongAdder ();
+  private final LongAdder m_aCompileCount = new LongAdder ();
+
+  /**
+   * Constructor
+   *
+   * @param aXPathFactory
+   *        The XPath factory to use. May not be <code>null</code>. The factory
+   *        is only used while holding a lock.
+   * @param nMaxSize
+   *        The maximum number of different keys to cache. Values &le; 0 indicate
+   *        that the cache size is not limited.
+   * @param nPoolSize
+   *        The maximum number of compiled expressions per key. This limits the
+   *        number of threads that can evaluate the same expression
+   *        concurrently. Must be &gt; 0.
+   * @param sName
+   *        The name of the cache, used for the statistics. May neither be
+   *        <code>null</code> nor empty.
+   */
+  public XPathExpressionCache (@Nonnull final XPathFactory aXPathFactory,
+                               final int nMaxSize,
+                               @Nonnegative final int nPoolSize,
+                               @Nonnull @Nonempty final String sName)
+  {
+    m_aXPathFactory = ValueEnforcer.notNull (aXPathFactory, "XPathFactory");
+    m_nPoolSize = ValueEnforcer.isGT0 (nPoolSize, "PoolSize");
+    m_aCache = new Cache <> (this::_createPool, nMaxSize, sName, true);
+  }
+
+  /**
+   * @return The global instance using the default {@link XPathFactory}, as used
+   *         by {@link XPathExpressionHelper}. Never <code>null</code>.
+   */
+  @Nonnull
+  public static XPathExpressionCache getDefaultInstance ()
+  {
+    return SingletonHolder.s_aInstance;
+  }
+
+  @Nonnull
+  private XPathExpression _compile (@Nonnull final Key aKey)
+  {
+    final XPath aXPath = m_aFactoryLock.locked ( () -> XPathHelper.createNewXPath (m_aXPathFactory,
+                                                                                  aKey.m_aVariableResolver,
+                                                                                  aKey.m_aFunctionResolver,
+                                                                                  aKey.m_aNamespaceContext));
+    final XPathExpression ret = XPathHelper.createNewXPathExpresion (aXPath, aKey.m_sXPath);
+    m_aCompileCount.increment ();
+    return ret;
+  }
+
+  @Nonnull
+  private ConcurrentObjectPool <XPathExpression> _createPool (@Nonnull final Key aKey)
+  {
+    m_aMissCount.increment ();
+
+    // Compile the first expression directly, so that invalid expressions are
+    // not cached
+    final AtomicReference <XPathExpression> aFirst = new AtomicReference <> (_compile (aKey));
+    return new ConcurrentObjectPool <XPathExpression> (m_nPoolSize, () -> {
+      final XPathExpression ret = aFirst.getAndSet (null);
+      return ret != null ? ret : _compile (aKey);
+    }).setThreadAffinity (true);
+  }
+
+  /**
+   * Evaluate an XPath expression, using a cached compiled expression if
+   * available.
+   *
+   * @param aVariableResolver
+   *        Variable resolver to be used. May be <code>null</code>.
+   * @param aFunctionResolver
+   *        Function resolver to be used. May be <code>null</code>.
+   * @param aNamespaceContext
+   *        Namespace context to be used. May be <code>null</code>.
+   * @param sXPath
+   *        The XPath expression to evaluate. May neither be <code>null</code>
+   *        nor empty.
+   * @param aItem
+   *        The context item, e.g. a DOM node. May be <code>null</code>.
+   * @param aReturnType
+   *        The return type as specified in
+   *        {@link javax.xml.xpath.XPathConstants}. May not be
+   *        <code>null</code>.
+   * @return The evaluation result. May be <code>null</code>.
+   * @throws IllegalArgumentException
+   *         if the XPath cannot be compiled or evaluated
+   */
+  @Nullable
+  public Object evaluate (@Nullable final XPathVariableResolver aVariableResolver,
+                          @Nullable final XPathFunctionResolver aFunctionResolver,
+                          @Nullable final NamespaceContext aNamespaceContext,
+                          @Nonnull @Nonempty final String sXPath,
+                          @Nullable final Object aItem,
+                          @Nonnull final QName aReturnType)
+  {
+    ValueEnforcer.notEmpty (sXPath, "XPathExpression");
+    ValueEnforcer.notNull (aReturnType, "ReturnType");
+
+    m_aAccessCount.increment ();
+    final ConcurrentObjectPool <XPathExpression> aPool = m_aCache.getFromCache (new Key (aVariableResolver,
+                                                                                         aFunctionResolver,
+                                                                                         aNamespaceContext,
+                                                                                         sXPath));
+    final XPathExpression aExpr = aPool.borrowObject ();
+    if (aExpr == null)
+      throw new IllegalStateException ("Failed to borrow compiled XPath expression '" + sXPath + "'");
+    try
+    {
+      return aExpr.evaluate (aItem, aReturnType);
+    }
+    catch (final XPathExpressionException ex)
+    {
+      throw new IllegalArgumentException ("Failed to evaluate XPath expression '" +
+                                          sXPath +
+                                          "' with return type " +
+                                          aReturnType.toString (),
+                                          ex);
+    }
+    finally
+    {
+      aPool.returnObject (aExpr);
+    }
+  }
+
+  /**
+   * @return The number of evaluations whose key was already cached.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return Math.max (0, m_aAccessCount.sum () - m_aMissCount.sum ());
+  }
+
+  /**
+   * @return The number of evaluations whose key was not yet cached.
+   */
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMissCount.sum ();
+  }
+
+  /**
+   * @return The number of compiled expressions. This is at least the number
+   *         of misses, plus the number of additional expressions compiled
+   *         because a pool grew for concurrent evaluations.
+   */
+  @Nonnegative
+  public long getCompileCount ()
+  {
+    return m_aCompileCount.sum ();
+  }
+
+  /**
+   * @return The number of cached different keys.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aCache.getSize ();
+  }
+
+  /**
+   * Remove all cached expressions. The statistics are not reset.
+   */
+  public void clearCache ()
+  {
+    m_aCache.clearCache ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("PoolSize", m_nPoolSize)
+                                       .append ("Cache", m_aCache)
+                                       .append ("HitCount", getHitCount ())
+                                       .append ("MissCount", getMissCount ())
+                                       .append ("CompileCount", getCompileCount ())
+                                       .getToString ();
+  }
+}
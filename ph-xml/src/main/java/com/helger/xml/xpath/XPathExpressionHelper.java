@@ -44,12 +44,45 @@ import com.helger.commons.annotation.PresentForCodeCoverage;
 @NotThreadSafe
 public final class XPathExpressionHelper
 {
+  /** By default the expression cache is not used */
+  public static final boolean DEFAULT_USE_EXPRESSION_CACHE = false;
+
   @PresentForCodeCoverage
   private static final XPathExpressionHelper s_aInstance = new XPathExpressionHelper ();
 
+  private static volatile boolean s_bUseExpressionCache = DEFAULT_USE_EXPRESSION_CACHE;
+
   private XPathExpressionHelper ()
   {}
 
+  /**
+   * @return <code>true</code> if the methods that don't take an {@link XPath}
+   *         object use the {@link XPathExpressionCache#getDefaultInstance()
+   *         default expression cache}, <code>false</code> if every call
+   *         compiles the expression anew.
+   * @since 9.0.0
+   */
+  public static boolean isUseExpressionCache ()
+  {
+    return s_bUseExpressionCache;
+  }
+
+  /**
+   * Define whether the methods that don't take an {@link XPath} object should
+   * use the {@link XPathExpressionCache#getDefaultInstance() default expression
+   * cache}. The cache keys on the identity of the resolvers and the namespace
+   * context, so this is only beneficial if the same objects are reused.
+   *
+   * @param bUseExpressionCache
+   *        <code>true</code> to use the cache, <code>false</code> to compile
+   *        the expression on every call.
+   * @since 9.0.0
+   */
+  public static void setUseExpressionCache (final boolean bUseExpressionCache)
+  {
+    s_bUseExpressionCache = bUseExpressionCache;
+  }
+
   @Nullable
   public static Object evalXPath (@Nullable final XPathVariableResolver aVariableResolver,
                                   @Nullable final XPathFunctionResolver aFunctionResolver,
@@ -58,6 +91,13 @@ public final class XPathExpressionHelper
                                   @Nonnull final Document aDoc,
                                   @Nonnull final QName aReturnType)
   {
+    if (s_bUseExpressionCache)
+      return XPathExpressionCache.getDefaultInstance ().evaluate (aVariableResolver,
+                                                                  aFunctionResolver,
+                                                                  aNamespaceContext,
+                                                                  sXPath,
+                                                                  ValueEnforcer.notNull (aDoc, "Doc"),
+                                                                  aReturnType);
     return evalXPath (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
                       sXPath,
                       aDoc,
@@ -97,15 +137,19 @@ public final class XPathExpressionHelper
                                           @Nonnull final String sXPath,
                                           @Nonnull final Document aDoc)
   {
-    return evalXPathToNumber (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                              sXPath,
-                              aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.NUMBER);
+    return (Double) aResult;
   }
 
   @Nullable
   public static Double evalXPathToNumber (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToNumber (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToNumber (null, null, null, sXPath, aDoc);
   }
 
   @Nullable
@@ -124,15 +168,19 @@ public final class XPathExpressionHelper
                                           @Nonnull final String sXPath,
                                           @Nonnull final Document aDoc)
   {
-    return evalXPathToString (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                              sXPath,
-                              aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.STRING);
+    return (String) aResult;
   }
 
   @Nullable
   public static String evalXPathToString (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToString (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToString (null, null, null, sXPath, aDoc);
   }
 
   @Nullable
@@ -151,15 +199,19 @@ public final class XPathExpressionHelper
                                             @Nonnull final String sXPath,
                                             @Nonnull final Document aDoc)
   {
-    return evalXPathToBoolean (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                               sXPath,
-                               aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.BOOLEAN);
+    return (Boolean) aResult;
   }
 
   @Nullable
   public static Boolean evalXPathToBoolean (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToBoolean (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToBoolean (null, null, null, sXPath, aDoc);
   }
 
   @Nullable
@@ -178,15 +230,19 @@ public final class XPathExpressionHelper
                                               @Nonnull final String sXPath,
                                               @Nonnull final Document aDoc)
   {
-    return evalXPathToNodeList (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                                sXPath,
-                                aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.NODESET);
+    return (NodeList) aResult;
   }
 
   @Nullable
   public static NodeList evalXPathToNodeList (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToNodeList (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToNodeList (null, null, null, sXPath, aDoc);
   }
 
   @Nullable
@@ -205,15 +261,19 @@ public final class XPathExpressionHelper
                                       @Nonnull final String sXPath,
                                       @Nonnull final Document aDoc)
   {
-    return evalXPathToNode (XPathHelper.createNewXPath (aVariableResolver, aFunctionResolver, aNamespaceContext),
-                            sXPath,
-                            aDoc);
+    final Object aResult = evalXPath (aVariableResolver,
+                                      aFunctionResolver,
+                                      aNamespaceContext,
+                                      sXPath,
+                                      aDoc,
+                                      XPathConstants.NODE);
+    return (Node) aResult;
   }
 
   @Nullable
   public static Node evalXPathToNode (@Nonnull final String sXPath, @Nonnull final Document aDoc)
   {
-    return evalXPathToNode (XPathHelper.createNewXPath (), sXPath, aDoc);
+    return evalXPathToNode (null, null, null, sXPath, aDoc);
   }
 
   @Nullable
@@ -721,4 +721,68 @@ public final class MicroElementTest extends AbstractCommonsTestCase
     assertEquals (1, e1.getAllChildElementsRecursive ().size ());
     assertEquals (1, e2.getAllChildElementsRecursive ().size ());
   }
+
+  @Test
+  public void testAttributeStorage ()
+  {
+    // Test below and above the array threshold
+    for (final int nCount : new int [] { 1,
+                                         MicroElement.ATTRIBUTE_ARRAY_THRESHOLD,
+                                         MicroElement.ATTRIBUTE_ARRAY_THRESHOLD + 1,
+                                         3 * MicroElement.ATTRIBUTE_ARRAY_THRESHOLD })
+    {
+      final MicroElement e = new MicroElement ("x");
+      for (int i = 0; i < nCount; ++i)
+        e.setAttribute ("a" + i, "v" + i);
+      assertEquals (nCount, e.getAttributeCount ());
+
+      // Order is maintained
+      int nIndex = 0;
+      for (final IMicroQName aQName : e.getAllAttributeQNames ())
+        assertEquals ("a" + nIndex++, aQName.getName ());
+
+      // Overwrite keeps the position
+      e.setAttribute ("a0", "new");
+      assertEquals (nCount, e.getAttributeCount ());
+      assertEquals ("new", e.getAttributeValue ("a0"));
+      assertEquals ("a0", e.getAllAttributeQNames ().getFirst ().getName ());
+
+      // Remove the first one
+      assertTrue (e.removeAttribute ("a0").isChanged ());
+      assertFalse (e.removeAttribute ("a0").isChanged ());
+      assertEquals (nCount - 1, e.getAttributeCount ());
+      assertFalse (e.hasAttribute ("a0"));
+      for (int i = 1; i < nCount; ++i)
+        assertEquals ("v" + i, e.getAttributeValue ("a" + i));
+
+      // Add again at the end
+      e.setAttribute ("a0", "v0");
+      assertEquals ("a0", e.getAllAttributeQNames ().getLast ().getName ());
+      assertEquals (nCount, e.getAllAttributeObjs ().size ());
+
+      // Clone and equals
+      final IMicroElement aClone = e.getClone ();
+      assertTrue (e.isEqualContent (aClone));
+      aClone.setAttribute ("a0", "other");
+      assertFalse (e.isEqualContent (aClone));
+      assertEquals ("v0", e.getAttributeValue ("a0"));
+
+      assertTrue (e.removeAllAttributes ().isChanged ());
+      assertFalse (e.removeAllAttributes ().isChanged ());
+      assertTrue (e.hasNoAttributes ());
+      assertNull (e.getAllAttributeObjs ());
+    }
+
+    // Presized
+    final MicroElement e = new MicroElement ("x");
+    e.ensureAttributeCapacity (3);
+    assertTrue (e.hasNoAttributes ());
+    e.setAttribute ("a", "1");
+    assertEquals (1, e.getAttributeCount ());
+    e.setAttribute ("b", "2");
+    e.setAttribute ("c", "3");
+    e.setAttribute ("d", "4");
+    assertEquals (4, e.getAttributeCount ());
+    assertEquals ("4", e.getAttributeValue ("d"));
+  }
 }
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.commons.mock.CommonsTestHelper;
+
+/**
+ * Test class for class {@link MicroEventTargetRegistry}.
+ *
+ * @author Philip Helger
+ */
+public final class MicroEventTargetRegistryTest
+{
+  @Test
+  public void testRegisterUnregister ()
+  {
+    final MockMicroEventListener aIEL = new MockMicroEventListener (EMicroEvent.NODE_INSERTED);
+    final MicroElement e = new MicroElement ("root");
+    assertFalse (MicroEventTargetRegistry.mayHaveEventTargets (e));
+    assertNull (MicroEventTargetRegistry.getAllEventTargets (e, EMicroEvent.NODE_INSERTED));
+    assertTrue (MicroEventTargetRegistry.getAllEventTargets (e).isEmpty ());
+
+    assertTrue (MicroEventTargetRegistry.registerEventTarget (e, EMicroEvent.NODE_INSERTED, aIEL).isChanged ());
+    assertTrue (MicroEventTargetRegistry.mayHaveEventTargets (e));
+    assertFalse (MicroEventTargetRegistry.isEmpty ());
+    assertNotNull (MicroEventTargetRegistry.getAllEventTargets (e, EMicroEvent.NODE_INSERTED));
+    assertNull (MicroEventTargetRegistry.getAllEventTargets (e, EMicroEvent.NODE_REMOVED));
+    assertEquals (1, MicroEventTargetRegistry.getAllEventTargets (e).size ());
+
+    // Another node with the same identity hash bit may exist, but it has no
+    // targets
+    assertTrue (MicroEventTargetRegistry.getAllEventTargets (new MicroElement ("other")).isEmpty ());
+
+    assertTrue (MicroEventTargetRegistry.unregisterEventTarget (e, EMicroEvent.NODE_INSERTED, aIEL).isChanged ());
+    assertFalse (MicroEventTargetRegistry.unregisterEventTarget (e, EMicroEvent.NODE_INSERTED, aIEL).isChanged ());
+    assertFalse (MicroEventTargetRegistry.mayHaveEventTargets (e));
+    assertTrue (MicroEventTargetRegistry.isEmpty ());
+    assertTrue (MicroEventTargetRegistry.getAllEventTargets (e).isEmpty ());
+  }
+
+  @Test
+  public void testEventsReachAncestors ()
+  {
+    final MockMicroEventListener aIEL = new MockMicroEventListener (EMicroEvent.NODE_INSERTED);
+    final IMicroDocument aDoc = new MicroDocument ();
+    final IMicroElement eRoot = aDoc.appendElement ("root");
+    final IMicroElement eChild = eRoot.appendElement ("child");
+    final IMicroElement eOther = new MicroDocument ().appendElement ("other");
+
+    assertTrue (eRoot.registerEventTarget (EMicroEvent.NODE_INSERTED, aIEL).isChanged ());
+    try
+    {
+      // Insertion below the registered node
+      eChild.appendElement ("grandchild").appendText ("text");
+      assertEquals (2, aIEL.getInvocationCount ());
+
+      // Insertion into the registered node itself
+      eRoot.appendText ("text");
+      assertEquals (3, aIEL.getInvocationCount ());
+
+      // Insertion above the registered node
+      aDoc.appendComment ("comment");
+      assertEquals (3, aIEL.getInvocationCount ());
+
+      // Insertion into an unrelated tree
+      eOther.appendElement ("x");
+      assertEquals (3, aIEL.getInvocationCount ());
+    }
+    finally
+    {
+      eRoot.unregisterEventTarget (EMicroEvent.NODE_INSERTED, aIEL);
+    }
+    eChild.appendElement ("after");
+    assertEquals (3, aIEL.getInvocationCount ());
+  }
+
+  @Test
+  public void testConcurrentAccess ()
+  {
+    final MicroElement eShared = new MicroElement ("shared");
+    final IMicroEventTarget aSharedTarget = e -> {};
+    assertTrue (eShared.registerEventTarget (EMicroEvent.NODE_INSERTED, aSharedTarget).isChanged ());
+    final AtomicInteger aCount = new AtomicInteger ();
+    try
+    {
+      // Concurrent lookups while other nodes are registered and unregistered
+      CommonsTestHelper.testInParallel (1000, () -> {
+        final IMicroElement e = new MicroElement ("root");
+        final IMicroEventTarget aTarget = x -> aCount.incrementAndGet ();
+        assertTrue (e.registerEventTarget (EMicroEvent.NODE_INSERTED, aTarget).isChanged ());
+        e.appendElement ("child");
+        assertTrue (e.unregisterEventTarget (EMicroEvent.NODE_INSERTED, aTarget).isChanged ());
+        assertNotNull (MicroEventTargetRegistry.getAllEventTargets (eShared, EMicroEvent.NODE_INSERTED));
+      });
+    }
+    finally
+    {
+      eShared.unregisterEventTarget (EMicroEvent.NODE_INSERTED, aSharedTarget);
+    }
+    assertEquals (1000, aCount.get ());
+    assertTrue (MicroEventTargetRegistry.isEmpty ());
+  }
+}
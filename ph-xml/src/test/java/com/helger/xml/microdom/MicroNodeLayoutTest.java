@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsTreeSet;
+import com.helger.commons.collection.impl.ICommonsSortedSet;
+
+/**
+ * Ensures that the micro nodes keep their compact memory layout: every
+ * instance field added to a node class costs memory for each node of a
+ * document. Event targets e.g. are stored in {@link MicroEventTargetRegistry}
+ * and not in the nodes.
+ *
+ * @author Philip Helger
+ */
+public final class MicroNodeLayoutTest
+{
+  @Nonnull
+  private static ICommonsSortedSet <String> _getInstanceFieldNames (@Nonnull final Class <?> aClass)
+  {
+    final ICommonsSortedSet <String> ret = new CommonsTreeSet <> ();
+    for (final Field aField : aClass.getDeclaredFields ())
+      if (!Modifier.isStatic (aField.getModifiers ()))
+        ret.add (aField.getName ());
+    return ret;
+  }
+
+  private static void _assertFields (@Nonnull final Class <?> aClass, @Nonnull final String... aExpected)
+  {
+    assertEquals (aClass.getName (), new CommonsTreeSet <String> (aExpected), _getInstanceFieldNames (aClass));
+  }
+
+  @Test
+  public void testInstanceFields ()
+  {
+    _assertFields (AbstractMicroNode.class, "m_aParentNode");
+    _assertFields (AbstractMicroNodeWithChildren.class, "m_aChildren");
+    _assertFields (MicroElement.class, "m_aAttrs", "m_sNamespaceURI", "m_sTagName");
+    _assertFields (MicroText.class, "m_aData", "m_bEscape", "m_bIgnorableWhitespace");
+    _assertFields (MicroDataAware.class, "m_aData");
+    _assertFields (MicroComment.class, "m_aData");
+    _assertFields (MicroCDATA.class, "m_aData");
+    _assertFields (MicroDocument.class, "m_bIsStandalone");
+    _assertFields (MicroContainer.class);
+  }
+
+  @Test
+  public void testTextIsNotCopied ()
+  {
+    // The passed String is kept until the text is modified
+    final String sText = "text content";
+    final MicroText aText = new MicroText (sText);
+    assertSame (sText, aText.getData ());
+
+    aText.appendData ("x");
+    assertEquals ("text contentx", aText.getData ().toString ());
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.serialize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.debug.GlobalDebug;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.system.SystemProperties;
+import com.helger.commons.timing.StopWatch;
+import com.helger.xml.microdom.IMicroDocument;
+
+/**
+ * Compare throughput and retained heap of {@link MicroReader} (SAX) and
+ * {@link MicroStAXReader} on a generated 10 MB document.
+ *
+ * @author Philip Helger
+ */
+public final class MainMicroReaderSpeed
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (MainMicroReaderSpeed.class);
+  private static final int WARMUP_RUNS = 10;
+  private static final int RUNS = 20;
+
+  private MainMicroReaderSpeed ()
+  {}
+
+  @Nonnull
+  private static byte [] _createXML (final int nTargetSize)
+  {
+    final StringBuilder aSB = new StringBuilder (nTargetSize + 1024);
+    aSB.append ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+       .append ("<catalog xmlns=\"urn:example:catalog\" xmlns:x=\"urn:example:ext\">\n");
+    int i = 0;
+    while (aSB.length () < nTargetSize)
+    {
+      aSB.append ("  <product id=\"")
+         .append (i)
+         .append ("\" x:status=\"active\" category=\"cat")
+         .append (i % 20)
+         .append ("\">\n    <name>Product ")
+         .append (i)
+         .append ("</name>\n    <description>A description of product ")
+         .append (i)
+         .append (" with some &amp; escaped &lt;content&gt;</description>\n    <price currency=\"EUR\">")
+         .append (i % 1000)
+         .append (".99</price>\n    <x:tags><x:tag>a</x:tag><x:tag>b</x:tag></x:tags>\n  </product>\n");
+      i++;
+    }
+    aSB.append ("</catalog>\n");
+    return aSB.toString ().getBytes (StandardCharsets.UTF_8);
+  }
+
+  private static long _getUsedHeap ()
+  {
+    final Runtime aRuntime = Runtime.getRuntime ();
+    for (int i = 0; i < 3; ++i)
+      aRuntime.gc ();
+    return aRuntime.totalMemory () - aRuntime.freeMemory ();
+  }
+
+  private static void _run (@Nonnull final String sName,
+                            @Nonnull final byte [] aXML,
+                            @Nonnull final Function <NonBlockingByteArrayInputStream, IMicroDocument> aReader)
+  {
+    for (int i = 0; i < WARMUP_RUNS; ++i)
+      if (aReader.apply (new NonBlockingByteArrayInputStream (aXML)) == null)
+        throw new IllegalStateException ("Failed to read");
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    for (int i = 0; i < RUNS; ++i)
+      aReader.apply (new NonBlockingByteArrayInputStream (aXML));
+    final long nMillis = aSW.stopAndGetMillis ();
+
+    // Heap retained by a single read document
+    final long nUsedBefore = _getUsedHeap ();
+    final IMicroDocument aDoc = aReader.apply (new NonBlockingByteArrayInputStream (aXML));
+    final long nRetained = _getUsedHeap () - nUsedBefore;
+    if (aDoc == null)
+      throw new IllegalStateException ("Failed to read");
+
+    final double dMillisPerRun = (double) nMillis / RUNS;
+    s_aLogger.info (sName +
+                    ": " +
+                    String.format (Locale.US, "%.1f", Double.valueOf (dMillisPerRun)) +
+                    " ms per run; " +
+                    String.format (Locale.US, "%.1f", Double.valueOf (aXML.length / 1000d / dMillisPerRun)) +
+                    " MB/s; " +
+                    (nRetained / 1024 / 1024) +
+                    " MB retained per document");
+  }
+
+  public static void main (final String [] aArgs)
+  {
+    // Avoid the additional name checks
+    GlobalDebug.setDebugModeDirect (false);
+
+    final byte [] aXML = _createXML (10 * 1024 * 1024);
+    s_aLogger.info ("Java " + SystemProperties.getJavaVersion () + "; XML size " + aXML.length + " bytes");
+
+    _run ("MicroReader (SAX)", aXML, MicroReader::readMicroXML);
+    _run ("MicroStAXReader", aXML, MicroStAXReader::readMicroXML);
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.serialize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+
+import org.junit.Test;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.state.EContinue;
+import com.helger.commons.state.ESuccess;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.sax.InputSourceFactory;
+
+/**
+ * Test class for class {@link MicroElementStreamReader}.
+ *
+ * @author Philip Helger
+ */
+public final class MicroElementStreamReaderTest
+{
+  private static final String XML = "<?xml version='1.0'?>" +
+                                    "<catalog xmlns='urn:c'>" +
+                                    "<!-- header -->" +
+                                    "<product id='1'><name>A &amp; B</name><part><product id='1a'/></part></product>" +
+                                    "<group><product id='2'><![CDATA[<x>]]></product></group>" +
+                                    "<product id='3'>text<?pi data?></product>" +
+                                    "</catalog>";
+
+  @Nonnull
+  private static ICommonsList <String> _read (@Nonnull final String sPath)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    final ESuccess eSuccess = MicroElementStreamReader.readMicroElements (InputSourceFactory.create (XML),
+                                                                          null,
+                                                                          sPath,
+                                                                          x -> {
+                                                                            // Always detached
+                                                                            assertNull (x.getParent ());
+                                                                            ret.add (x.getAttributeValue ("id"));
+                                                                          });
+    assertTrue (eSuccess.isSuccess ());
+    return ret;
+  }
+
+  @Test
+  public void testPath ()
+  {
+    // Nested matches are part of the outer element
+    assertEquals (new CommonsArrayList <> ("1", "2", "3"), _read ("product"));
+    assertEquals (new CommonsArrayList <> ("1", "3"), _read ("catalog/product"));
+    assertEquals (new CommonsArrayList <> ("1", "3"), _read ("/catalog/product"));
+    assertEquals (new CommonsArrayList <> ("2"), _read ("/catalog/group/product"));
+    assertEquals (new CommonsArrayList <> ("2"), _read ("/*/group/*"));
+    assertEquals (new CommonsArrayList <> ("1a"), _read ("part/product"));
+    assertEquals (new CommonsArrayList <> ((String) null), _read ("/catalog"));
+    assertTrue (_read ("/product").isEmpty ());
+    assertTrue (_read ("unknown").isEmpty ());
+
+    for (final String sPath : new String [] { "", "/", "a//b", "a/" })
+      try
+      {
+        MicroElementStreamReader.readMicroElements (InputSourceFactory.create (XML), null, sPath, x -> {});
+        fail ("Path " + sPath);
+      }
+      catch (final IllegalArgumentException ex)
+      {
+        // expected
+      }
+  }
+
+  @Test
+  public void testContent ()
+  {
+    final ICommonsList <IMicroElement> aList = new CommonsArrayList <> ();
+    MicroElementStreamReader.readMicroElements (InputSourceFactory.create (XML), null, "product", aList::add);
+    assertEquals (3, aList.size ());
+
+    final IMicroElement e1 = aList.get (0);
+    assertEquals ("urn:c", e1.getNamespaceURI ());
+    assertEquals ("A & B", e1.getFirstChildElement ().getTextContent ());
+    assertEquals ("1a", e1.getFirstChildElement ("urn:c", "part").getFirstChildElement ().getAttributeValue ("id"));
+
+    final IMicroElement e2 = aList.get (1);
+    assertTrue (e2.getFirstChild ().isCDATA ());
+    assertEquals ("<x>", e2.getTextContent ());
+
+    final IMicroElement e3 = aList.get (2);
+    assertEquals (2, e3.getChildCount ());
+    assertEquals ("text", e3.getFirstChild ().getNodeValue ());
+    assertTrue (e3.getLastChild ().isProcessingInstruction ());
+
+    // Same as reading the whole document
+    final IMicroElement eRoot = MicroReader.readMicroXML (XML).getDocumentElement ();
+    assertTrue (e1.isEqualContent (eRoot.getFirstChildElement ()));
+    assertTrue (e3.isEqualContent (eRoot.getLastChild ()));
+  }
+
+  @Test
+  public void testBreak ()
+  {
+    final ICommonsList <String> aList = new CommonsArrayList <> ();
+    final ESuccess eSuccess = MicroElementStreamReader.readMicroElementsBreakable (InputSourceFactory.create (XML),
+                                                                                   null,
+                                                                                   "product",
+                                                                                   x -> {
+                                                                                     aList.add (x.getAttributeValue ("id"));
+                                                                                     return EContinue.valueOf (aList.size () < 2);
+                                                                                   });
+    assertTrue (eSuccess.isSuccess ());
+    assertEquals (new CommonsArrayList <> ("1", "2"), aList);
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    final ICommonsList <IMicroElement> aList = new CommonsArrayList <> ();
+    final ESuccess eSuccess = MicroElementStreamReader.readMicroElements (InputSourceFactory.create ("<a><b/><b></a>"),
+                                                                          null,
+                                                                          "b",
+                                                                          aList::add);
+    assertTrue (eSuccess.isFailure ());
+    // Elements before the error were passed
+    assertEquals (1, aList.size ());
+  }
+
+  @Test
+  public void testIterator ()
+  {
+    final ICommonsList <String> aList = new CommonsArrayList <> ();
+    try (final MicroElementIterator it = MicroElementStreamReader.getMicroElementIterator (InputSourceFactory.create (XML),
+                                                                                          null,
+                                                                                          "product"))
+    {
+      while (it.hasNext ())
+        aList.add (it.next ().getAttributeValue ("id"));
+      assertFalse (it.hasNext ());
+      assertSame (ESuccess.SUCCESS, it.getResult ());
+    }
+    assertEquals (new CommonsArrayList <> ("1", "2", "3"), aList);
+  }
+
+  @Test
+  public void testStream ()
+  {
+    try (final Stream <IMicroElement> aStream = MicroElementStreamReader.getMicroElementStream (InputSourceFactory.create (XML),
+                                                                                               null,
+                                                                                               "product"))
+    {
+      assertEquals ("1,2,3", aStream.map (x -> x.getAttributeValue ("id")).collect (Collectors.joining (",")));
+    }
+
+    // Stop early on a large input
+    final StringBuilder aSB = new StringBuilder ("<root>");
+    for (int i = 0; i < 10000; ++i)
+      aSB.append ("<record no='").append (i).append ("'/>");
+    aSB.append ("</root>");
+    try (final Stream <IMicroElement> aStream = MicroElementStreamReader.getMicroElementStream (InputSourceFactory.create (aSB.toString ()),
+                                                                                               null,
+                                                                                               "record"))
+    {
+      assertEquals ("0,1,2", aStream.limit (3).map (x -> x.getAttributeValue ("no")).collect (Collectors.joining (",")));
+    }
+  }
+}
@@ -41,6 +41,7 @@ import com.helger.commons.io.streamprovider.StringInputStreamProvider;
 import com.helger.commons.system.ENewLineMode;
 import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.IMicroText;
 import com.helger.xml.namespace.MapBasedNamespaceContext;
 import com.helger.xml.sax.EmptyEntityResolver;
 import com.helger.xml.sax.InputSourceFactory;
@@ -415,4 +416,22 @@ public final class MicroReaderTest
     // Ensure they are written as well
     assertEquals (s, MicroWriter.getNodeAsString (aDoc, new XMLWriterSettings ().setIndent (EXMLSerializeIndent.NONE)));
   }
+
+  @Test
+  public void testMergedText ()
+  {
+    final IMicroDocument aDoc = MicroReader.readMicroXML ("<root>a &amp; b<![CDATA[c]]><![CDATA[d]]>e &lt; f<x/>g</root>");
+    assertNotNull (aDoc);
+    final IMicroElement eRoot = aDoc.getDocumentElement ();
+    assertEquals (5, eRoot.getChildCount ());
+    assertEquals ("a & b", eRoot.getChildAtIndex (0).getNodeValue ());
+    assertTrue (eRoot.getChildAtIndex (1).isCDATA ());
+    assertEquals ("cd", eRoot.getChildAtIndex (1).getNodeValue ());
+    assertEquals ("e < f", eRoot.getChildAtIndex (2).getNodeValue ());
+    assertEquals ("g", eRoot.getChildAtIndex (4).getNodeValue ());
+
+    // Each text node is created once with its final immutable text
+    assertTrue (((IMicroText) eRoot.getChildAtIndex (0)).getData () instanceof String);
+    assertTrue (((IMicroText) eRoot.getChildAtIndex (2)).getData () instanceof String);
+  }
 }
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.microdom.serialize;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+import org.junit.Test;
+
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroDocumentType;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.sax.EmptyEntityResolver;
+import com.helger.xml.serialize.read.SAXReaderSettings;
+import com.helger.xml.serialize.write.EXMLSerializeIndent;
+import com.helger.xml.serialize.write.XMLWriterSettings;
+
+/**
+ * Test class for class {@link MicroStAXReader}.
+ *
+ * @author Philip Helger
+ */
+public final class MicroStAXReaderTest
+{
+  private static void _testSameAsSAX (final String sXML)
+  {
+    // Don't load external DTDs
+    final IMicroDocument aSAXDoc = MicroReader.readMicroXML (sXML,
+                                                             new SAXReaderSettings ().setEntityResolver (new EmptyEntityResolver ()));
+    assertNotNull (aSAXDoc);
+    final IMicroDocument aStAXDoc = MicroStAXReader.readMicroXML (sXML);
+    assertNotNull (aStAXDoc);
+    final XMLWriterSettings aXWS = new XMLWriterSettings ().setIndent (EXMLSerializeIndent.NONE);
+    assertEquals (MicroWriter.getNodeAsString (aSAXDoc, aXWS), MicroWriter.getNodeAsString (aStAXDoc, aXWS));
+    assertTrue (aSAXDoc.isEqualContent (aStAXDoc));
+  }
+
+  @Test
+  public void testNull ()
+  {
+    assertNull (MicroStAXReader.readMicroXML ((InputStream) null));
+    assertNull (MicroStAXReader.readMicroXML ((Reader) null));
+    assertNull (MicroStAXReader.readMicroXML ((IReadableResource) null));
+    assertNull (MicroStAXReader.readMicroXML ((String) null));
+  }
+
+  @Test
+  public void testInvalid ()
+  {
+    assertNull (MicroStAXReader.readMicroXML ("not XML!"));
+    assertNull (MicroStAXReader.readMicroXML ("<root><a></root>"));
+  }
+
+  @Test
+  public void testSameAsSAX ()
+  {
+    _testSameAsSAX ("<root/>");
+    _testSameAsSAX ("<?xml version=\"1.0\"?>" +
+                    "<verrryoot>" +
+                    "<root xmlns=\"myuri\" xmlns:a='foo'>" +
+                    "<child xmlns=\"\">" +
+                    "<a:child2 a:attr='1' attr=\"2\">Value text - no entities!</a:child2>" +
+                    "</child>" +
+                    "</root>" +
+                    "</verrryoot>");
+    _testSameAsSAX ("<!-- first -->" +
+                    "<?pi data?>" +
+                    "<root xml:lang=\"en\" xml:space=\"preserve\">" +
+                    "Text &amp; &lt;more&gt; &#x41;&#66;" +
+                    "<![CDATA[cdata <text>]]>" +
+                    "<![CDATA[second]]>" +
+                    "after cdata" +
+                    "<!-- comment -->" +
+                    "<empty></empty>" +
+                    "  \n  " +
+                    "<?pi2 more data?>" +
+                    "</root>" +
+                    "<!-- last -->");
+    _testSameAsSAX ("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Strict//EN\" \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd\">" +
+                    "<html xmlns=\"http://www.w3.org/1999/xhtml\"><head><title>x</title></head><body>" +
+                    "<p class='a'>1</p><p class='b'>2</p><p>3<br/>4</p></body></html>");
+    _testSameAsSAX ("<!DOCTYPE root SYSTEM \"root.dtd\"><root><a/>text<a/></root>");
+
+    final IMicroDocument aDoc = MicroStAXReader.readMicroXML (new ClassPathResource ("xml/list.xml"));
+    assertNotNull (aDoc);
+    assertTrue (aDoc.isEqualContent (MicroReader.readMicroXML (new ClassPathResource ("xml/list.xml"))));
+  }
+
+  @Test
+  public void testDocType ()
+  {
+    IMicroDocumentType aDocType = MicroStAXReader.parseDocumentTypeDeclaration ("<!DOCTYPE html PUBLIC \"pub\" 'sys'>");
+    assertNotNull (aDocType);
+    assertEquals ("html", aDocType.getQualifiedName ());
+    assertEquals ("pub", aDocType.getPublicID ());
+    assertEquals ("sys", aDocType.getSystemID ());
+
+    aDocType = MicroStAXReader.parseDocumentTypeDeclaration ("<!DOCTYPE root SYSTEM \"sys.dtd\" [ <!ELEMENT root ANY> ]>");
+    assertNotNull (aDocType);
+    assertEquals ("root", aDocType.getQualifiedName ());
+    assertNull (aDocType.getPublicID ());
+    assertEquals ("sys.dtd", aDocType.getSystemID ());
+
+    aDocType = MicroStAXReader.parseDocumentTypeDeclaration ("<!DOCTYPE root>");
+    assertNotNull (aDocType);
+    assertEquals ("root", aDocType.getQualifiedName ());
+    assertNull (aDocType.getSystemID ());
+
+    assertNull (MicroStAXReader.parseDocumentTypeDeclaration ("<!DOCTYPE >"));
+    assertNull (MicroStAXReader.parseDocumentTypeDeclaration ("<root/>"));
+  }
+
+  @Test
+  public void testNameDeduplication ()
+  {
+    final IMicroDocument aDoc = MicroStAXReader.readMicroXML ("<root><item" +
+                                                              " id='1' xmlns:x='urn:x' x:a='b'/><item id='2' xmlns:y='urn:x' y:a='c'/></root>");
+    assertNotNull (aDoc);
+    final IMicroElement e1 = aDoc.getDocumentElement ().getFirstChildElement ();
+    final IMicroElement e2 = aDoc.getDocumentElement ().getAllChildElements ().getLast ();
+    assertSame (e1.getTagName (), e2.getTagName ());
+    assertSame (e1.getAttributeObj ("id").getAttributeQName (), e2.getAttributeObj ("id").getAttributeQName ());
+    assertSame (e1.getAttributeObj ("urn:x", "a").getAttributeQName (),
+                e2.getAttributeObj ("urn:x", "a").getAttributeQName ());
+    assertEquals ("c", e2.getAttributeValue ("urn:x", "a"));
+  }
+}
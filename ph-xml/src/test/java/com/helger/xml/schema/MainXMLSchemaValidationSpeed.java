@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.schema;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.debug.GlobalDebug;
+import com.helger.commons.error.list.ErrorList;
+import com.helger.commons.error.list.IErrorList;
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.io.stream.NonBlockingByteArrayInputStream;
+import com.helger.commons.system.SystemHelper;
+import com.helger.commons.timing.StopWatch;
+import com.helger.xml.sax.WrappedCollectingSAXErrorHandler;
+
+/**
+ * Compare the throughput of validating many small documents with a new
+ * {@link Validator} per document, with pooled validators and with the parallel
+ * batch validation of {@link XMLSchemaValidationHelper} on an increasing
+ * number of threads.
+ *
+ * @author Philip Helger
+ */
+public final class MainXMLSchemaValidationSpeed
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (MainXMLSchemaValidationSpeed.class);
+  private static final int DOCUMENTS = 20000;
+  private static final byte [] XML = "<root xmlns='http://www.example.org/schema1'><a>1</a><b>2</b></root>".getBytes (StandardCharsets.UTF_8);
+
+  private MainXMLSchemaValidationSpeed ()
+  {}
+
+  @Nonnull
+  private static ICommonsList <Source> _createSources ()
+  {
+    final ICommonsList <Source> ret = new CommonsArrayList <> (DOCUMENTS);
+    for (int i = 0; i < DOCUMENTS; ++i)
+      ret.add (new StreamSource (new NonBlockingByteArrayInputStream (XML)));
+    return ret;
+  }
+
+  private static void _run (@Nonnull final String sName, @Nonnull final Supplier <ICommonsList <IErrorList>> aRunner)
+  {
+    // Warm up
+    aRunner.get ();
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final ICommonsList <IErrorList> aResults = aRunner.get ();
+    final long nMillis = aSW.stopAndGetMillis ();
+    if (aResults.size () != DOCUMENTS || aResults.containsAny (IErrorList::isNotEmpty))
+      throw new IllegalStateException ("Unexpected validation result");
+    s_aLogger.info (sName +
+                    ": " +
+                    nMillis +
+                    " ms; " +
+                    String.format (Locale.US, "%.0f", Double.valueOf (DOCUMENTS * 1000d / Math.max (1, nMillis))) +
+                    " documents/s");
+  }
+
+  public static void main (final String [] aArgs)
+  {
+    GlobalDebug.setDebugModeDirect (false);
+    s_aLogger.info ("Processors: " + SystemHelper.getNumberOfProcessors ());
+
+    final Schema aSchema = XMLSchemaCache.getInstance ().getSchema (new ClassPathResource ("xml/schema1.xsd"));
+
+    _run ("New validator per document", () -> _createSources ().getAllMapped (aSource -> {
+      final ErrorList aErrorList = new ErrorList ();
+      final Validator aValidator = aSchema.newValidator ();
+      aValidator.setErrorHandler (new WrappedCollectingSAXErrorHandler (aErrorList));
+      try
+      {
+        aValidator.validate (aSource);
+      }
+      catch (final Exception ex)
+      {
+        throw new IllegalStateException (ex);
+      }
+      return aErrorList;
+    }));
+
+    _run ("Pooled validator",
+          () -> _createSources ().getAllMapped (aSource -> XMLSchemaValidationHelper.validate (aSchema, aSource)));
+
+    for (final int nThreads : new int [] { 1, 2, 4, 8 })
+    {
+      final ExecutorService aES = Executors.newFixedThreadPool (nThreads);
+      try
+      {
+        _run ("validateAll with " + nThreads + " threads",
+              () -> XMLSchemaValidationHelper.validateAll (aSchema, _createSources (), aES));
+      }
+      finally
+      {
+        aES.shutdown ();
+      }
+    }
+  }
+}
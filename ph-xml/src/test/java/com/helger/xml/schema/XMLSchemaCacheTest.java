@@ -28,12 +28,17 @@ import javax.xml.validation.Schema;
 import org.junit.Test;
 
 import com.helger.commons.annotation.PresentForCodeCoverage;
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.error.list.ErrorList;
 import com.helger.commons.io.resource.ClassPathResource;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.xml.ls.CollectingLSResourceResolver;
 import com.helger.xml.ls.LSResourceData;
 import com.helger.xml.ls.LoggingLSResourceResolver;
 import com.helger.xml.sax.LoggingSAXErrorHandler;
+import com.helger.xml.sax.WrappedCollectingSAXErrorHandler;
+import com.helger.xml.transform.TransformSourceFactory;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -153,4 +158,54 @@ public final class XMLSchemaCacheTest
     catch (final IllegalArgumentException ex)
     {}
   }
+
+  @Test
+  public void testPooledValidator () throws Exception
+  {
+    final XMLSchemaCache aCache = new XMLSchemaCache ();
+    final Schema aSchema = aCache.getSchema (new ClassPathResource ("xml/schema1.xsd"));
+    for (int i = 0; i < 10; ++i)
+    {
+      final ErrorList aErrors = new ErrorList ();
+      aCache.validate (aSchema,
+                       TransformSourceFactory.create (new ClassPathResource (i % 2 == 0 ? "xml/schema1-valid.xml"
+                                                                                       : "xml/schema1-invalid.xml")),
+                       new WrappedCollectingSAXErrorHandler (aErrors));
+      assertEquals (i % 2, aErrors.size ());
+    }
+    // Always the same thread
+    assertEquals (1, aCache.getPooledValidatorCreateCount ());
+
+    aCache.clearCache ();
+    aCache.validate (aCache.getSchema (new ClassPathResource ("xml/schema1.xsd")),
+                     TransformSourceFactory.create (new ClassPathResource ("xml/schema1-valid.xml")),
+                     null);
+    assertEquals (2, aCache.getPooledValidatorCreateCount ());
+    assertEquals (1, aCache.getValidatorPoolCount ());
+
+    // Removing the schema also removes its validator pool
+    assertTrue (aCache.removeFromCache (new ClassPathResource ("xml/schema1.xsd")).isChanged ());
+    assertEquals (0, aCache.getValidatorPoolCount ());
+  }
+
+  @Test
+  public void testForeignSchemaIsNotPooled () throws Exception
+  {
+    final XMLSchemaCache aCache = new XMLSchemaCache ();
+    final ICommonsList <IReadableResource> aResources = new CommonsArrayList <> ();
+    aResources.add (new ClassPathResource ("xml/schema1.xsd"));
+    final Schema aForeignSchema = SchemaCache.createSchema (XMLSchemaCache.createXSDSchemaFactory (),
+                                                            "XSD",
+                                                            aResources);
+    for (int i = 0; i < 3; ++i)
+    {
+      final ErrorList aErrors = new ErrorList ();
+      aCache.validate (aForeignSchema,
+                       TransformSourceFactory.create (new ClassPathResource ("xml/schema1-invalid.xml")),
+                       new WrappedCollectingSAXErrorHandler (aErrors));
+      assertEquals (1, aErrors.size ());
+    }
+    assertEquals (0, aCache.getPooledValidatorCreateCount ());
+    assertEquals (0, aCache.getValidatorPoolCount ());
+  }
 }
@@ -20,6 +20,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import javax.xml.transform.Source;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.validation.Schema;
@@ -28,10 +31,14 @@ import org.junit.Test;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.error.level.EErrorLevel;
 import com.helger.commons.error.list.IErrorList;
 import com.helger.commons.io.resource.ClassPathResource;
 import com.helger.commons.io.resource.IReadableResource;
 import com.helger.xml.serialize.read.DOMReader;
+import com.helger.xml.transform.TransformSourceFactory;
 
 /**
  * Test class for class {@link XMLSchemaValidationHelper}.
@@ -184,4 +191,43 @@ public final class XMLSchemaValidationHelperTest
     catch (final NullPointerException ex)
     {}
   }
+
+  @Test
+  public void testValidateAll ()
+  {
+    final Schema aSchema = XMLSchemaCache.getInstance ().getSchema (XSD1);
+    final ICommonsList <Source> aSources = new CommonsArrayList <> ();
+    for (int i = 0; i < 50; ++i)
+    {
+      aSources.add (TransformSourceFactory.create (XML1));
+      aSources.add (TransformSourceFactory.create (XML2));
+    }
+    // Not well-formed
+    aSources.add (TransformSourceFactory.create (new ClassPathResource ("test1.txt")));
+
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final ICommonsList <IErrorList> aResults = XMLSchemaValidationHelper.validateAll (aSchema, aSources, aES);
+      assertEquals (aSources.size (), aResults.size ());
+      for (int i = 0; i < 100; ++i)
+        assertEquals ("Index " + i, i % 2, aResults.get (i).size ());
+      final IErrorList aLast = aResults.getLast ();
+      assertEquals (1, aLast.size ());
+      assertEquals (EErrorLevel.FATAL_ERROR, aLast.getFirst ().getErrorLevel ());
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+
+    // Default executor
+    final ICommonsList <IErrorList> aResults = XMLSchemaValidationHelper.validateAll (new IReadableResource [] { XSD2,
+                                                                                                                 XSD1 },
+                                                                                      new CommonsArrayList <> (TransformSourceFactory.create (XML2),
+                                                                                                               TransformSourceFactory.create (XML1)));
+    assertEquals (2, aResults.size ());
+    assertEquals (1, aResults.get (0).size ());
+    assertEquals (0, aResults.get (1).size ());
+  }
 }
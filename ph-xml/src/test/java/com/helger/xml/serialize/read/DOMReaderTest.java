@@ -17,6 +17,7 @@
 package com.helger.xml.serialize.read;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -363,6 +364,23 @@ public final class DOMReaderTest
                                       (IThrowingRunnable <SAXException>) () -> assertNotNull (DOMReader.readXMLDOM (new ClassPathResource ("xml/buildinfo.xml"))));
   }
 
+  @Test
+  public void testMultithreadedDOMConcurrentPool ()
+  {
+    DOMReader.setUseConcurrentPool (true);
+    try
+    {
+      assertTrue (DOMReader.isUseConcurrentPool ());
+      CommonsTestHelper.testInParallel (100,
+                                        (IThrowingRunnable <SAXException>) () -> assertNotNull (DOMReader.readXMLDOM (new ClassPathResource ("xml/buildinfo.xml"))));
+    }
+    finally
+    {
+      DOMReader.setUseConcurrentPool (DOMReader.DEFAULT_USE_CONCURRENT_POOL);
+    }
+    assertFalse (DOMReader.isUseConcurrentPool ());
+  }
+
   @Test
   public void testExternalEntityExpansion () throws SAXException, MalformedURLException
   {
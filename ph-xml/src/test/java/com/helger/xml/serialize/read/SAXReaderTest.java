@@ -16,6 +16,7 @@
  */
 package com.helger.xml.serialize.read;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.AfterClass;
@@ -70,4 +71,23 @@ public final class SAXReaderTest
                                                                                                                  new SAXReaderSettings ().setContentHandler (new DefaultHandler ()))
                                                                                                     .isSuccess ()));
   }
+
+  @Test
+  public void testMultithreadedSAXConcurrentPool ()
+  {
+    SAXReader.setUseConcurrentPool (true);
+    try
+    {
+      assertTrue (SAXReader.isUseConcurrentPool ());
+      CommonsTestHelper.testInParallel (1000,
+                                        (IThrowingRunnable <SAXException>) () -> assertTrue (SAXReader.readXMLSAX (new ClassPathResource ("xml/buildinfo.xml"),
+                                                                                                                   new SAXReaderSettings ().setContentHandler (new DefaultHandler ()))
+                                                                                                      .isSuccess ()));
+    }
+    finally
+    {
+      SAXReader.setUseConcurrentPool (SAXReader.DEFAULT_USE_CONCURRENT_POOL);
+    }
+    assertFalse (SAXReader.isUseConcurrentPool ());
+  }
 }
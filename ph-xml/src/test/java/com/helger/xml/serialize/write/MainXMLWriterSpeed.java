@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.serialize.write;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.helger.commons.io.stream.NonBlockingStringWriter;
+import com.helger.commons.system.SystemProperties;
+import com.helger.commons.timing.StopWatch;
+import com.helger.xml.XMLFactory;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroDocument;
+import com.helger.xml.microdom.serialize.MicroWriter;
+
+/**
+ * Measure the speed of {@link MicroWriter} and {@link XMLWriter} on large
+ * generated documents with a mix of plain and masked text.
+ *
+ * @author Philip Helger
+ */
+public final class MainXMLWriterSpeed
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (MainXMLWriterSpeed.class);
+  private static final int ELEMENTS = 50_000;
+  private static final int WARMUP_RUNS = 10;
+  private static final int RUNS = 20;
+
+  private MainXMLWriterSpeed ()
+  {}
+
+  @Nonnull
+  private static String _getText (final int i)
+  {
+    return "This is the plain text content of element number " +
+           i +
+           " which is followed by a few special chars: a < b && c > d and some more plain text";
+  }
+
+  @Nonnull
+  private static IMicroDocument _createMicroDocument ()
+  {
+    final IMicroDocument aDoc = new MicroDocument ();
+    final IMicroElement eRoot = aDoc.appendElement ("root");
+    for (int i = 0; i < ELEMENTS; ++i)
+    {
+      final IMicroElement e = eRoot.appendElement ("item");
+      e.setAttribute ("id", Integer.toString (i));
+      e.setAttribute ("name", "Name \"" + i + "\" & more");
+      e.appendText (_getText (i));
+    }
+    return aDoc;
+  }
+
+  @Nonnull
+  private static Document _createDOMDocument ()
+  {
+    final Document aDoc = XMLFactory.newDocument ();
+    final Element eRoot = (Element) aDoc.appendChild (aDoc.createElement ("root"));
+    for (int i = 0; i < ELEMENTS; ++i)
+    {
+      final Element e = (Element) eRoot.appendChild (aDoc.createElement ("item"));
+      e.setAttribute ("id", Integer.toString (i));
+      e.setAttribute ("name", "Name \"" + i + "\" & more");
+      e.appendChild (aDoc.createTextNode (_getText (i)));
+    }
+    return aDoc;
+  }
+
+  private static void _run (@Nonnull final String sName,
+                            final int nChars,
+                            @Nonnull final Runnable aRunnable)
+  {
+    for (int i = 0; i < WARMUP_RUNS; ++i)
+      aRunnable.run ();
+
+    final StopWatch aSW = StopWatch.createdStarted ();
+    for (int i = 0; i < RUNS; ++i)
+      aRunnable.run ();
+    final long nMillis = aSW.stopAndGetMillis ();
+
+    final double dMillisPerRun = (double) nMillis / RUNS;
+    s_aLogger.info (sName +
+                    ": " +
+                    String.format (Locale.US, "%.1f", Double.valueOf (dMillisPerRun)) +
+                    " ms per run; " +
+                    String.format (Locale.US, "%.1f", Double.valueOf (nChars / 1000d / dMillisPerRun)) +
+                    " MB/s");
+  }
+
+  public static void main (final String [] aArgs)
+  {
+    final IMicroDocument aMicroDoc = _createMicroDocument ();
+    final Document aDOMDoc = _createDOMDocument ();
+    final int nMicroChars = MicroWriter.getNodeAsString (aMicroDoc).length ();
+    final int nDOMChars = XMLWriter.getNodeAsString (aDOMDoc).length ();
+    s_aLogger.info ("Java " + SystemProperties.getJavaVersion () + "; XML size " + nMicroChars + " chars");
+
+    _run ("MicroWriter", nMicroChars, () -> MicroWriter.writeToWriter (aMicroDoc, new NonBlockingStringWriter (nMicroChars)));
+    _run ("XMLWriter", nDOMChars, () -> XMLWriter.writeToWriter (aDOMDoc, new NonBlockingStringWriter (nDOMChars)));
+  }
+}
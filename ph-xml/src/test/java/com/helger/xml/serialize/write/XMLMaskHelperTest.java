@@ -16,13 +16,19 @@
  */
 package com.helger.xml.serialize.write;
 
+import static com.helger.xml.serialize.write.EXMLIncorrectCharacterHandling.DO_NOT_WRITE_NO_LOG;
+import static com.helger.xml.serialize.write.EXMLIncorrectCharacterHandling.WRITE_TO_FILE_NO_LOG;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+
 import org.junit.Test;
 
 import com.helger.commons.collection.ArrayHelper;
+import com.helger.commons.io.stream.NonBlockingStringWriter;
 import com.helger.commons.mock.AbstractCommonsTestCase;
 
 /**
@@ -32,6 +38,9 @@ import com.helger.commons.mock.AbstractCommonsTestCase;
  */
 public final class XMLMaskHelperTest extends AbstractCommonsTestCase
 {
+  // Writing and skipping invalid chars
+  private static final EXMLIncorrectCharacterHandling [] HANDLINGS = { WRITE_TO_FILE_NO_LOG, DO_NOT_WRITE_NO_LOG };
+
   @Test
   public void testGetMaskedXMLText ()
   {
@@ -277,4 +286,125 @@ public final class XMLMaskHelperTest extends AbstractCommonsTestCase
                                                         EXMLIncorrectCharacterHandling.WRITE_TO_FILE_NO_LOG,
                                                         "1 & \u0001"));
   }
+
+  @Test
+  public void testMaskXMLTextToConsistency () throws IOException
+  {
+    // All masking methods must return the same result for all chars of the
+    // masking tables plus some more. The correctness of the result itself is
+    // checked in testMaskXMLTextFixedOutput
+    final StringBuilder aSB = new StringBuilder ();
+    for (char c = 0; c < 0x2100; ++c)
+      aSB.append ("ab").append (c);
+    final String sText = aSB.toString ();
+    final char [] aPadded = ("xyz" + sText + "xyz").toCharArray ();
+
+    for (final EXMLSerializeVersion eXMLVersion : EXMLSerializeVersion.values ())
+      for (final EXMLCharMode eXMLCharMode : new EXMLCharMode [] { EXMLCharMode.ATTRIBUTE_VALUE_DOUBLE_QUOTES,
+                                                                   EXMLCharMode.ATTRIBUTE_VALUE_SINGLE_QUOTES,
+                                                                   EXMLCharMode.TEXT })
+        for (final EXMLIncorrectCharacterHandling eHandling : HANDLINGS)
+        {
+          final String sExpected = new String (XMLMaskHelper.getMaskedXMLText (eXMLVersion,
+                                                                               eXMLCharMode,
+                                                                               eHandling,
+                                                                               sText));
+          assertEquals (sExpected.length (),
+                        XMLMaskHelper.getMaskedXMLTextLength (eXMLVersion, eXMLCharMode, eHandling, sText));
+
+          NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+          XMLMaskHelper.maskXMLTextTo (eXMLVersion, eXMLCharMode, eHandling, sText, aSW);
+          assertEquals (sExpected, aSW.getAsString ());
+
+          aSW = new NonBlockingStringWriter ();
+          XMLMaskHelper.maskXMLTextTo (eXMLVersion, eXMLCharMode, eHandling, aPadded, 3, sText.length (), aSW);
+          assertEquals (sExpected, aSW.getAsString ());
+
+          // Masked chars are never emitted as is
+          assertFalse (sExpected.indexOf ('<') >= 0);
+          if (eHandling.isReplaceWithNothing ())
+            assertFalse (XMLCharHelper.containsInvalidXMLChar (eXMLVersion, eXMLCharMode, sExpected));
+        }
+
+    assertEquals ("a\nb",
+                  new String (XMLMaskHelper.getMaskedXMLText (EXMLSerializeVersion.XML_11,
+                                                              EXMLCharMode.TEXT,
+                                                              EXMLIncorrectCharacterHandling.WRITE_TO_FILE_NO_LOG,
+                                                              "a\u2028b")));
+  }
+
+  @Test
+  public void testMaskXMLTextFixedOutput () throws IOException
+  {
+    // Masked, invalid and unmasked chars of all versions and modes
+    final String sText = "a\t\n\r\"'&<>\u0001\u007f\u0085\u00a0\u00e4\u2028\ud800b";
+    final char [] aPadded = ("xyz" + sText + "xyz").toCharArray ();
+
+    // Version, char mode, result when writing invalid chars, result when
+    // skipping invalid chars
+    final Object [] [] aExpected = {
+      { EXMLSerializeVersion.XML_10,
+        EXMLCharMode.ATTRIBUTE_VALUE_DOUBLE_QUOTES,
+        "a&#9;&#10;&#13;&quot;'&amp;&lt;>\u0001\u007f\u0085\u00a0\u00e4\u2028\ud800b",
+        "a&#9;&#10;&#13;&quot;'&amp;&lt;>\u007f\u0085\u00a0\u00e4\u2028b" },
+      { EXMLSerializeVersion.XML_10,
+        EXMLCharMode.ATTRIBUTE_VALUE_SINGLE_QUOTES,
+        "a&#9;&#10;&#13;\"&apos;&amp;&lt;>\u0001\u007f\u0085\u00a0\u00e4\u2028\ud800b",
+        "a&#9;&#10;&#13;\"&apos;&amp;&lt;>\u007f\u0085\u00a0\u00e4\u2028b" },
+      { EXMLSerializeVersion.XML_10,
+        EXMLCharMode.TEXT,
+        "a\t\n&#13;\"'&amp;&lt;&gt;\u0001&#127;&#133;\u00a0\u00e4\u2028\ud800b",
+        "a\t\n&#13;\"'&amp;&lt;&gt;&#127;&#133;\u00a0\u00e4\u2028b" },
+      { EXMLSerializeVersion.XML_11,
+        EXMLCharMode.ATTRIBUTE_VALUE_DOUBLE_QUOTES,
+        "a&#9;&#10;&#13;&quot;'&amp;&lt;>&#1;\u007f\u0085\u00a0\u00e4\u2028\ud800b",
+        "a&#9;&#10;&#13;&quot;'&amp;&lt;>&#1;\u0085\u00a0\u00e4\u2028b" },
+      { EXMLSerializeVersion.XML_11,
+        EXMLCharMode.ATTRIBUTE_VALUE_SINGLE_QUOTES,
+        "a&#9;&#10;&#13;\"&apos;&amp;&lt;>&#1;\u007f\u0085\u00a0\u00e4\u2028\ud800b",
+        "a&#9;&#10;&#13;\"&apos;&amp;&lt;>&#1;\u0085\u00a0\u00e4\u2028b" },
+      { EXMLSerializeVersion.XML_11,
+        EXMLCharMode.TEXT,
+        "a\t\n&#13;\"'&amp;&lt;&gt;&#1;&#127;&#133;\u00a0\u00e4\n\ud800b",
+        "a\t\n&#13;\"'&amp;&lt;&gt;&#1;&#127;&#133;\u00a0\u00e4\nb" },
+      { EXMLSerializeVersion.HTML,
+        EXMLCharMode.ATTRIBUTE_VALUE_DOUBLE_QUOTES,
+        "a\t\n\r&quot;&#39;&amp;&lt;&gt;\u0001\u007f&#133;\u00a0\u00e4\u2028\ud800b",
+        "a\t\n\r&quot;&#39;&amp;&lt;&gt;&#133;\u00a0\u00e4\u2028b" },
+      { EXMLSerializeVersion.HTML,
+        EXMLCharMode.ATTRIBUTE_VALUE_SINGLE_QUOTES,
+        "a\t\n\r\"&#39;&amp;&lt;&gt;\u0001\u007f&#133;\u00a0\u00e4\u2028\ud800b",
+        "a\t\n\r\"&#39;&amp;&lt;&gt;&#133;\u00a0\u00e4\u2028b" },
+      { EXMLSerializeVersion.HTML,
+        EXMLCharMode.TEXT,
+        "a\t\n\r&quot;&#39;&amp;&lt;&gt;\u0001\u007f&#133;\u00a0\u00e4\u2028\ud800b",
+        "a\t\n\r&quot;&#39;&amp;&lt;&gt;&#133;\u00a0\u00e4\u2028b" } };
+
+    for (final Object [] aRow : aExpected)
+    {
+      final EXMLSerializeVersion eXMLVersion = (EXMLSerializeVersion) aRow[0];
+      final EXMLCharMode eXMLCharMode = (EXMLCharMode) aRow[1];
+      for (int i = 0; i < HANDLINGS.length; ++i)
+      {
+        final EXMLIncorrectCharacterHandling eHandling = HANDLINGS[i];
+        final String sExpected = (String) aRow[2 + i];
+        final String sMsg = eXMLVersion + " " + eXMLCharMode + " " + eHandling;
+
+        assertEquals (sMsg,
+                      sExpected,
+                      new String (XMLMaskHelper.getMaskedXMLText (eXMLVersion, eXMLCharMode, eHandling, sText)));
+        assertEquals (sMsg,
+                      sExpected.length (),
+                      XMLMaskHelper.getMaskedXMLTextLength (eXMLVersion, eXMLCharMode, eHandling, sText));
+
+        NonBlockingStringWriter aSW = new NonBlockingStringWriter ();
+        XMLMaskHelper.maskXMLTextTo (eXMLVersion, eXMLCharMode, eHandling, sText, aSW);
+        assertEquals (sMsg, sExpected, aSW.getAsString ());
+
+        aSW = new NonBlockingStringWriter ();
+        XMLMaskHelper.maskXMLTextTo (eXMLVersion, eXMLCharMode, eHandling, aPadded, 3, sText.length (), aSW);
+        assertEquals (sMsg, sExpected, aSW.getAsString ());
+      }
+    }
+  }
 }
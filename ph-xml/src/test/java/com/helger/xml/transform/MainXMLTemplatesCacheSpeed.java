@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.transform;
+
+import java.util.Locale;
+
+import javax.annotation.Nonnull;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.commons.debug.GlobalDebug;
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.io.resource.IReadableResource;
+import com.helger.commons.timing.StopWatch;
+
+/**
+ * Compare the time needed to transform a small document when the stylesheet
+ * is compiled for each transformation and when using the
+ * {@link XMLTemplatesCache}.
+ *
+ * @author Philip Helger
+ */
+public final class MainXMLTemplatesCacheSpeed
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (MainXMLTemplatesCacheSpeed.class);
+  private static final int WARMUP_RUNS = 500;
+  private static final int RUNS = 2000;
+  private static final String XML = "<catalog><cd><title>T1</title><artist>A1</artist></cd><cd><title>T2</title><artist>A2</artist></cd></catalog>";
+
+  @FunctionalInterface
+  private interface ITransformation
+  {
+    void transform () throws TransformerException;
+  }
+
+  private MainXMLTemplatesCacheSpeed ()
+  {}
+
+  private static void _run (@Nonnull final String sName, @Nonnull final ITransformation aTransformation) throws TransformerException
+  {
+    for (int i = 0; i < WARMUP_RUNS; ++i)
+      aTransformation.transform ();
+    final StopWatch aSW = StopWatch.createdStarted ();
+    for (int i = 0; i < RUNS; ++i)
+      aTransformation.transform ();
+    final long nMicros = aSW.stopAndGetNanos () / 1000;
+    s_aLogger.info (sName +
+                    ": " +
+                    String.format (Locale.US, "%.1f", Double.valueOf ((double) nMicros / RUNS)) +
+                    " us per transformation");
+  }
+
+  public static void main (final String [] aArgs) throws TransformerException
+  {
+    GlobalDebug.setDebugModeDirect (false);
+
+    final IReadableResource aXSLT = new ClassPathResource ("xml/test2.xslt");
+    _run ("Compile each time", () -> {
+      final Transformer aTransformer = XMLTransformerFactory.newTransformer (aXSLT);
+      aTransformer.transform (new StringStreamSource (XML), new StringStreamResult ());
+    });
+    final XMLTemplatesCache aCache = XMLTemplatesCache.getDefaultInstance ();
+    _run ("XMLTemplatesCache", () -> {
+      if (aCache.transform (aXSLT, new StringStreamSource (XML), new StringStreamResult ()).isFailure ())
+        throw new IllegalStateException ("Failed to transform");
+    });
+    s_aLogger.info (aCache.toString ());
+  }
+}
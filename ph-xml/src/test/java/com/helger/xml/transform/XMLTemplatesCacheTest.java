@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.xml.transform.Templates;
+
+import org.junit.Test;
+
+import com.helger.commons.io.file.FileOperations;
+import com.helger.commons.io.file.SimpleFileIO;
+import com.helger.commons.io.resource.ClassPathResource;
+import com.helger.commons.io.resource.FileSystemResource;
+import com.helger.commons.state.ESuccess;
+
+/**
+ * Test class for class {@link XMLTemplatesCache}.
+ *
+ * @author Philip Helger
+ */
+public final class XMLTemplatesCacheTest
+{
+  private static final String XML = "<catalog><cd><title>T1</title><artist>A1</artist></cd></catalog>";
+
+  @Nonnull
+  private static XMLTemplatesCache _createCache ()
+  {
+    return new XMLTemplatesCache (XMLTransformerFactory.createTransformerFactory (new CollectingTransformErrorListener (),
+                                                                                  new DefaultTransformURIResolver ()),
+                                  10,
+                                  2,
+                                  "test");
+  }
+
+  @Nonnull
+  private static String _getXSLT (@Nonnull final String sPrefix)
+  {
+    return "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>" +
+           "<xsl:output method='text'/>" +
+           "<xsl:param name='suffix'/>" +
+           "<xsl:template match='/'>" +
+           sPrefix +
+           "<xsl:value-of select='catalog/cd/title'/><xsl:value-of select='$suffix'/></xsl:template>" +
+           "</xsl:stylesheet>";
+  }
+
+  @Nonnull
+  private static String _transform (@Nonnull final XMLTemplatesCache aCache,
+                                    @Nonnull final FileSystemResource aRes,
+                                    @Nullable final String sSuffix)
+  {
+    final StringStreamResult aResult = new StringStreamResult ();
+    assertTrue (aCache.transform (aRes,
+                                  null,
+                                  sSuffix == null ? null : t -> t.setParameter ("suffix", sSuffix),
+                                  new StringStreamSource (XML),
+                                  aResult)
+                      .isSuccess ());
+    return aResult.getAsString ();
+  }
+
+  @Test
+  public void testGetTemplates ()
+  {
+    final XMLTemplatesCache aCache = _createCache ();
+    final Templates t1 = aCache.getTemplates (new ClassPathResource ("xml/test1.xslt"), null);
+    assertNotNull (t1);
+    assertSame (t1, aCache.getTemplates (new ClassPathResource ("xml/test1.xslt"), null));
+    assertEquals (1, aCache.getCompileCount ());
+    assertEquals (1, aCache.getHitCount ());
+
+    // With import
+    final Templates t2 = aCache.getTemplates (new ClassPathResource ("xml/test2.xslt"), null);
+    assertNotNull (t2);
+    assertNotSame (t1, t2);
+
+    // The URI resolver is part of the key
+    final Templates t3 = aCache.getTemplates (new ClassPathResource ("xml/test2.xslt"),
+                                              new LoggingTransformURIResolver ());
+    assertNotNull (t3);
+    assertNotSame (t2, t3);
+    assertEquals (3, aCache.getSize ());
+    assertEquals (3, aCache.getCompileCount ());
+
+    // Invalid XSLT is not cached
+    assertNull (aCache.getTemplates (new ClassPathResource ("test1.txt"), null));
+    assertNull (aCache.getTemplates (new ClassPathResource ("test1.txt"), null));
+    assertEquals (3, aCache.getSize ());
+    assertEquals (5, aCache.getCompileCount ());
+    assertEquals (ESuccess.FAILURE,
+                  aCache.transform (new ClassPathResource ("test1.txt"),
+                                    new StringStreamSource (XML),
+                                    new StringStreamResult ()));
+
+    aCache.clearCache ();
+    assertEquals (0, aCache.getSize ());
+  }
+
+  @Test
+  public void testTransformAndModification ()
+  {
+    final XMLTemplatesCache aCache = _createCache ();
+    final File aFile = new File ("target/test-xmltemplatescache.xslt");
+    try
+    {
+      SimpleFileIO.writeFile (aFile, _getXSLT ("a:"), StandardCharsets.UTF_8);
+      final FileSystemResource aRes = new FileSystemResource (aFile);
+
+      assertEquals ("a:T1", _transform (aCache, aRes, null));
+      // Parameters are used
+      assertEquals ("a:T1!", _transform (aCache, aRes, "!"));
+      // and reset afterwards
+      assertEquals ("a:T1", _transform (aCache, aRes, null));
+      assertEquals (1, aCache.getCompileCount ());
+      assertEquals (0, aCache.getInvalidationCount ());
+
+      // Modify the stylesheet
+      final long nLastModified = aFile.lastModified ();
+      SimpleFileIO.writeFile (aFile, _getXSLT ("b:"), StandardCharsets.UTF_8);
+      aFile.setLastModified (nLastModified + 10000);
+
+      assertEquals ("b:T1", _transform (aCache, aRes, null));
+      assertEquals ("b:T1", _transform (aCache, aRes, null));
+      assertEquals (2, aCache.getCompileCount ());
+      assertEquals (1, aCache.getInvalidationCount ());
+      assertEquals (1, aCache.getSize ());
+    }
+    finally
+    {
+      FileOperations.deleteFileIfExisting (aFile);
+    }
+  }
+}
@@ -16,11 +16,16 @@
  */
 package com.helger.xml.util.statistics;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import org.junit.Test;
 
+import com.helger.commons.statistics.StatisticsHandlerKeyedTimer;
+import com.helger.commons.statistics.StatisticsHandlerTimer;
 import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroDocument;
 
 /**
  * Test class for class {@link StatisticsExporter}.
@@ -35,4 +40,33 @@ public final class StatisticsExporterTest
     final IMicroDocument aDoc = StatisticsExporter.getAsXMLDocument ();
     assertNotNull (aDoc);
   }
+
+  @Test
+  public void testExportPercentiles ()
+  {
+    final IMicroDocument aDoc = new MicroDocument ();
+    final StatisticsVisitorCallbackToXML aCB = new StatisticsVisitorCallbackToXML (aDoc.appendElement ("root"));
+
+    final StatisticsHandlerTimer aTimer = new StatisticsHandlerTimer (true);
+    for (int i = 1; i <= 100; ++i)
+      aTimer.addTime (i);
+    aCB.onTimer ("timer", aTimer);
+
+    final StatisticsHandlerKeyedTimer aKeyedTimer = new StatisticsHandlerKeyedTimer (true);
+    aKeyedTimer.addTime ("key", 7);
+    aCB.onKeyedTimer ("keyedtimer", aKeyedTimer);
+
+    final IMicroElement eTimer = aCB.getRoot ().getFirstChildElement (StatisticsExporter.ELEMENT_TIMER);
+    assertNotNull (eTimer);
+    assertEquals ("50", eTimer.getAttributeValue (StatisticsExporter.ATTR_P50));
+    assertEquals ("90", eTimer.getAttributeValue (StatisticsExporter.ATTR_P90));
+    assertEquals ("99", eTimer.getAttributeValue (StatisticsExporter.ATTR_P99));
+    assertEquals ("100", eTimer.getAttributeValue (StatisticsExporter.ATTR_P999));
+
+    final IMicroElement eKey = aCB.getRoot ()
+                                  .getFirstChildElement (StatisticsExporter.ELEMENT_KEYEDTIMER)
+                                  .getFirstChildElement (StatisticsExporter.ELEMENT_KEY);
+    assertNotNull (eKey);
+    assertEquals ("7", eKey.getAttributeValue (StatisticsExporter.ATTR_P50));
+  }
 }
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.xpath;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nonnull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.commons.debug.GlobalDebug;
+import com.helger.commons.system.SystemHelper;
+import com.helger.commons.timing.StopWatch;
+import com.helger.xml.serialize.read.DOMReader;
+
+/**
+ * Compare the throughput of {@link XPathExpressionHelper} with and without the
+ * {@link XPathExpressionCache} when evaluating 20 expressions repeatedly on
+ * multiple threads.
+ *
+ * @author Philip Helger
+ */
+public final class MainXPathExpressionCacheSpeed
+{
+  private static final Logger s_aLogger = LoggerFactory.getLogger (MainXPathExpressionCacheSpeed.class);
+  private static final int WARMUP_RUNS = 200;
+  private static final int RUNS = 2000;
+  private static final String [] XPATHS = new String [] { "/catalog/product[1]/name",
+                                                          "/catalog/product[2]/@id",
+                                                          "count(/catalog/product)",
+                                                          "/catalog/product[last()]/price",
+                                                          "sum(/catalog/product/price)",
+                                                          "/catalog/product[@category='cat3']/name",
+                                                          "string-length(/catalog/product[5]/description)",
+                                                          "/catalog/product[price > 50][1]/name",
+                                                          "count(//tag)",
+                                                          "/catalog/product[3]/tags/tag[2]",
+                                                          "concat(/catalog/product[1]/name, '-', /catalog/product[2]/name)",
+                                                          "normalize-space(/catalog/product[4]/description)",
+                                                          "/catalog/product[position() = 7]/@category",
+                                                          "boolean(/catalog/product[@id='9'])",
+                                                          "count(/catalog/product[@category='cat1'])",
+                                                          "/catalog/product[name='Product 8']/price",
+                                                          "substring(/catalog/product[6]/name, 1, 3)",
+                                                          "translate(/catalog/product[2]/name, 'P', 'p')",
+                                                          "/catalog/product[10]/tags/tag[1]",
+                                                          "round(/catalog/product[11]/price)" };
+
+  private MainXPathExpressionCacheSpeed ()
+  {}
+
+  @Nonnull
+  private static String _createXML ()
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    aSB.append ("<catalog>");
+    for (int i = 0; i < 50; ++i)
+      aSB.append ("<product id='")
+         .append (i)
+         .append ("' category='cat")
+         .append (i % 5)
+         .append ("'><name>Product ")
+         .append (i)
+         .append ("</name><description>  A   description of product ")
+         .append (i)
+         .append ("</description><price>")
+         .append (i * 7 % 100)
+         .append ("</price><tags><tag>a</tag><tag>b</tag></tags></product>");
+    aSB.append ("</catalog>");
+    return aSB.toString ();
+  }
+
+  private static void _evalAll (@Nonnull final Document aDoc, final int nRuns)
+  {
+    for (int i = 0; i < nRuns; ++i)
+      for (final String sXPath : XPATHS)
+        if (XPathExpressionHelper.evalXPathToString (sXPath, aDoc) == null)
+          throw new IllegalStateException ("Failed to evaluate " + sXPath);
+  }
+
+  private static void _run (@Nonnull final String sName,
+                            @Nonnull final String sXML,
+                            final int nThreads) throws Exception
+  {
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads);
+    try
+    {
+      final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> ();
+      final StopWatch aSW = StopWatch.createdStarted ();
+      for (int i = 0; i < nThreads; ++i)
+        aFutures.add (aES.submit ( () -> {
+          // DOM documents are not thread-safe
+          final Document aDoc = DOMReader.readXMLDOM (sXML);
+          _evalAll (aDoc, WARMUP_RUNS);
+          _evalAll (aDoc, RUNS);
+          return null;
+        }));
+      for (final Future <?> aFuture : aFutures)
+        aFuture.get ();
+      final long nMillis = aSW.stopAndGetMillis ();
+      final long nEvals = (long) nThreads * (WARMUP_RUNS + RUNS) * XPATHS.length;
+      s_aLogger.info (sName +
+                      " with " +
+                      nThreads +
+                      " threads: " +
+                      nMillis +
+                      " ms; " +
+                      String.format (Locale.US, "%.0f", Double.valueOf (nEvals * 1000d / nMillis)) +
+                      " evaluations/s");
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+
+  public static void main (final String [] aArgs) throws Exception
+  {
+    GlobalDebug.setDebugModeDirect (false);
+
+    final String sXML = _createXML ();
+    final int nThreads = Math.max (4, SystemHelper.getNumberOfProcessors ());
+    for (int i = 0; i < 2; ++i)
+    {
+      XPathExpressionHelper.setUseExpressionCache (false);
+      _run ("Uncached", sXML, nThreads);
+      XPathExpressionHelper.setUseExpressionCache (true);
+      _run ("Cached", sXML, nThreads);
+    }
+    s_aLogger.info (XPathExpressionCache.getDefaultInstance ().toString ());
+  }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2014-2017 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.xml.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.xpath.XPathConstants;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import com.helger.commons.collection.impl.CommonsArrayList;
+import com.helger.commons.collection.impl.ICommonsList;
+import com.helger.xml.namespace.MapBasedNamespaceContext;
+import com.helger.xml.serialize.read.DOMReader;
+
+/**
+ * Test class for class {@link XPathExpressionCache}.
+ *
+ * @author Philip Helger
+ */
+public final class XPathExpressionCacheTest
+{
+  private static final String XML = "<root xmlns:x='urn:x'><a>1</a><a>2</a><x:b>3</x:b></root>";
+
+  @Test
+  public void testBasic () throws SAXException
+  {
+    final Document aDoc = DOMReader.readXMLDOM (XML);
+    final XPathExpressionCache aCache = new XPathExpressionCache (XPathHelper.getDefaultXPathFactory (),
+                                                                  10,
+                                                                  2,
+                                                                  "test-basic");
+    assertEquals (Double.valueOf (2), aCache.evaluate (null, null, null, "count(/root/a)", aDoc, XPathConstants.NUMBER));
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (1, aCache.getMissCount ());
+    assertEquals ("1", aCache.evaluate (null, null, null, "/root/a", aDoc, XPathConstants.STRING));
+    assertEquals (Double.valueOf (2), aCache.evaluate (null, null, null, "count(/root/a)", aDoc, XPathConstants.NUMBER));
+    assertEquals (1, aCache.getHitCount ());
+    assertEquals (2, aCache.getMissCount ());
+    assertEquals (2, aCache.getCompileCount ());
+    assertEquals (2, aCache.getSize ());
+
+    // Namespace context is part of the key
+    final MapBasedNamespaceContext aNSCtx = new MapBasedNamespaceContext ().addMapping ("y", "urn:x");
+    assertEquals ("3", aCache.evaluate (null, null, aNSCtx, "/root/y:b", aDoc, XPathConstants.STRING));
+    assertEquals ("3", aCache.evaluate (null, null, aNSCtx, "/root/y:b", aDoc, XPathConstants.STRING));
+    assertEquals (3, aCache.getSize ());
+    assertEquals (2, aCache.getHitCount ());
+
+    // Compared by identity, even though the content is equal
+    final MapBasedNamespaceContext aNSCtx2 = new MapBasedNamespaceContext ().addMapping ("y", "urn:x");
+    assertEquals ("3", aCache.evaluate (null, null, aNSCtx2, "/root/y:b", aDoc, XPathConstants.STRING));
+    assertEquals (4, aCache.getSize ());
+
+    aCache.clearCache ();
+    assertEquals (0, aCache.getSize ());
+  }
+
+  @Test
+  public void testVariableResolver () throws SAXException
+  {
+    final Document aDoc = DOMReader.readXMLDOM (XML);
+    final XPathExpressionCache aCache = new XPathExpressionCache (XPathHelper.getDefaultXPathFactory (),
+                                                                  10,
+                                                                  2,
+                                                                  "test-var");
+    final MapBasedXPathVariableResolver aVarResolver = new MapBasedXPathVariableResolver ();
+    aVarResolver.addUniqueVariable ("idx", Integer.valueOf (1));
+    assertEquals ("1", aCache.evaluate (aVarResolver, null, null, "/root/a[$idx]", aDoc, XPathConstants.STRING));
+
+    // The changed variable value is used by the cached expression
+    aVarResolver.removeVariable ("idx");
+    aVarResolver.addUniqueVariable ("idx", Integer.valueOf (2));
+    assertEquals ("2", aCache.evaluate (aVarResolver, null, null, "/root/a[$idx]", aDoc, XPathConstants.STRING));
+    assertEquals (1, aCache.getMissCount ());
+  }
+
+  @Test
+  public void testInvalid () throws SAXException
+  {
+    final Document aDoc = DOMReader.readXMLDOM (XML);
+    final XPathExpressionCache aCache = new XPathExpressionCache (XPathHelper.getDefaultXPathFactory (),
+                                                                  10,
+                                                                  2,
+                                                                  "test-invalid");
+    try
+    {
+      aCache.evaluate (null, null, null, "/root/[", aDoc, XPathConstants.STRING);
+      fail ();
+    }
+    catch (final IllegalArgumentException ex)
+    {
+      // expected
+    }
+    assertEquals (0, aCache.getSize ());
+  }
+
+  @Test
+  public void testConcurrent () throws Exception
+  {
+    final XPathExpressionCache aCache = new XPathExpressionCache (XPathHelper.getDefaultXPathFactory (),
+                                                                  10,
+                                                                  2,
+                                                                  "test-concurrent");
+    final AtomicInteger aErrors = new AtomicInteger ();
+    final ExecutorService aES = Executors.newFixedThreadPool (8);
+    try
+    {
+      final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> ();
+      for (int i = 0; i < 8; ++i)
+        aFutures.add (aES.submit ( () -> {
+          // DOM documents are not thread-safe
+          final Document aDoc = DOMReader.readXMLDOM (XML);
+          for (int j = 0; j < 500; ++j)
+            if (!"2".equals (aCache.evaluate (null, null, null, "/root/a[2]", aDoc, XPathConstants.STRING)))
+              aErrors.incrementAndGet ();
+          return null;
+        }));
+      for (final Future <?> aFuture : aFutures)
+        aFuture.get ();
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+    assertEquals (0, aErrors.get ());
+    // Only one key, and at most one compiled expression per pool slot
+    assertEquals (1, aCache.getMissCount ());
+    assertEquals (3999, aCache.getHitCount ());
+    assertTrue (aCache.getCompileCount () >= 1);
+    assertTrue (aCache.getCompileCount () <= 2);
+  }
+
+  @Test
+  public void testHelper () throws SAXException
+  {
+    final Document aDoc = DOMReader.readXMLDOM (XML);
+    final boolean bOld = XPathExpressionHelper.isUseExpressionCache ();
+    try
+    {
+      XPathExpressionHelper.setUseExpressionCache (true);
+      final XPathExpressionCache aCache = XPathExpressionCache.getDefaultInstance ();
+      final long nMisses = aCache.getMissCount ();
+      for (int i = 0; i < 3; ++i)
+      {
+        assertEquals ("2", XPathExpressionHelper.evalXPathToString ("/root/a[2]", aDoc));
+        assertEquals (2, XPathExpressionHelper.evalXPathToNodeList ("/root/a", aDoc).getLength ());
+      }
+      assertEquals (nMisses + 2, aCache.getMissCount ());
+    }
+    finally
+    {
+      XPathExpressionHelper.setUseExpressionCache (bOld);
+    }
+    assertEquals ("2", XPathExpressionHelper.evalXPathToString ("/root/a[2]", aDoc));
+  }
+}